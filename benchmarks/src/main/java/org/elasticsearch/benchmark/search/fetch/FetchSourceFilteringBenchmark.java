@@ -0,0 +1,102 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.search.fetch;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares filtering the {@code _source} of a hit by parsing it into a map, like {@code FetchSourcePhase} does in general, with
+ * streaming the tokens of the source through a filtering generator, for a small document and a large log-like document from which
+ * three fields are fetched.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FetchSourceFilteringBenchmark {
+
+    @Param({ "small", "large" })
+    private String document;
+
+    private BytesReference source;
+    private FetchSourceContext fetchSourceContext;
+
+    @Setup
+    public void setup() throws IOException {
+        final int numFields = document.equals("small") ? 10 : 250;
+        final XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        builder.field("@timestamp", "2020-05-04T12:34:56.789Z");
+        builder.startObject("host").field("name", "host-01").field("ip", "10.0.0.1").endObject();
+        builder.field("message", "GET /index.html HTTP/1.1 200 1234");
+        for (int i = 0; i < numFields; i++) {
+            builder.startObject("object_" + i);
+            builder.field("keyword", "value_" + i);
+            builder.field("long", i * 1000L);
+            builder.field("text", "the quick brown fox jumps over the lazy dog " + i);
+            builder.array("array", i, i + 1, i + 2);
+            builder.endObject();
+        }
+        builder.endObject();
+        source = BytesReference.bytes(builder);
+        fetchSourceContext = new FetchSourceContext(true, new String[] { "@timestamp", "host.name", "message" }, null);
+        if (fetchSourceContext.canFilterBytes() == false) {
+            throw new IllegalStateException("expected the filter to stream");
+        }
+    }
+
+    @Benchmark
+    public BytesReference filterMap() throws IOException {
+        final Tuple<XContentType, Map<String, Object>> sourceAsMap = XContentHelper.convertToMap(source, false, XContentType.JSON);
+        final Map<String, Object> filtered = fetchSourceContext.getFilter().apply(sourceAsMap.v2());
+        final BytesStreamOutput out = new BytesStreamOutput(Math.min(1024, source.length()));
+        final XContentBuilder builder = new XContentBuilder(sourceAsMap.v1().xContent(), out);
+        builder.value(filtered);
+        return BytesReference.bytes(builder);
+    }
+
+    @Benchmark
+    public BytesReference filterBytes() throws IOException {
+        return fetchSourceContext.filterBytes(source);
+    }
+}
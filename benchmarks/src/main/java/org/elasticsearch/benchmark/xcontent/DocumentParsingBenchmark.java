@@ -0,0 +1,113 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.xcontent;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating a parser for the source of an indexed document, which is backed by a byte array once it has been read from the
+ * transport, through a stream like {@code XContentHelper#createParser} used to, with parsing the array in place, and walks the tokens
+ * of the document like {@code DocumentParser} does. Run with {@code -prof gc} to compare the allocation rates.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DocumentParsingBenchmark {
+
+    @Param({ "small", "large" })
+    private String document;
+
+    private BytesReference source;
+
+    @Setup
+    public void setup() throws IOException {
+        final int numFields = document.equals("small") ? 5 : 100;
+        final XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        builder.field("@timestamp", "2020-05-04T12:34:56.789Z");
+        builder.startObject("host").field("name", "host-01").field("ip", "10.0.0.1").endObject();
+        for (int i = 0; i < numFields; i++) {
+            builder.field("metric_" + i, i * 1.5);
+            builder.field("tag_" + i, "value_" + i);
+        }
+        builder.endObject();
+        // a copy of the bytes, as the source of a document read from the transport is
+        source = new BytesArray(BytesReference.toBytes(BytesReference.bytes(builder)));
+    }
+
+    @Benchmark
+    public void parseStream(Blackhole blackhole) throws IOException {
+        try (XContentParser parser = XContentType.JSON.xContent().createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source.streamInput())) {
+            consume(parser, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void parseArray(Blackhole blackhole) throws IOException {
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source, XContentType.JSON)) {
+            consume(parser, blackhole);
+        }
+    }
+
+    private static void consume(XContentParser parser, Blackhole blackhole) throws IOException {
+        for (XContentParser.Token token = parser.nextToken(); token != null; token = parser.nextToken()) {
+            switch (token) {
+                case FIELD_NAME:
+                    blackhole.consume(parser.currentName());
+                    break;
+                case VALUE_STRING:
+                    blackhole.consume(parser.text());
+                    break;
+                case VALUE_NUMBER:
+                    blackhole.consume(parser.doubleValue());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
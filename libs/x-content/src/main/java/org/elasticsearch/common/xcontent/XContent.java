@@ -53,7 +53,19 @@ public interface XContent {
      * @param includes the inclusive filters: only fields and objects that match the inclusive filters will be written to the output.
      * @param excludes the exclusive filters: only fields and objects that don't match the exclusive filters will be written to the output.
      */
-    XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes) throws IOException;
+    default XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes) throws IOException {
+        return createGenerator(os, includes, excludes, false);
+    }
+
+    /**
+     * Creates a new generator like {@link #createGenerator(OutputStream, Set, Set)}.
+     *
+     * @param filtersMatchFieldNamesWithDots whether a field name that contains dots, like {@code a.b}, is matched by the filters as if
+     *                                       it was an object {@code a} with a field {@code b}, like the source filtering of documents
+     *                                       does.
+     */
+    XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes,
+                                      boolean filtersMatchFieldNamesWithDots) throws IOException;
 
     /**
      * Creates a parser over the provided string content.
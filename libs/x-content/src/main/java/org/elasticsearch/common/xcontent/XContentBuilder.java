@@ -195,8 +195,19 @@ public final class XContentBuilder implements Closeable, Flushable {
      * @param excludes the exclusive filters: only fields and objects that don't match the exclusive filters will be written to the output.
      */
     public XContentBuilder(XContent xContent, OutputStream os, Set<String> includes, Set<String> excludes) throws IOException {
+        this(xContent, os, includes, excludes, false);
+    }
+
+    /**
+     * Creates a new builder like {@link #XContentBuilder(XContent, OutputStream, Set, Set)}.
+     *
+     * @param filtersMatchFieldNamesWithDots whether a field name that contains dots, like {@code a.b}, is matched by the filters as if
+     *                                       it was an object {@code a} with a field {@code b}
+     */
+    public XContentBuilder(XContent xContent, OutputStream os, Set<String> includes, Set<String> excludes,
+                           boolean filtersMatchFieldNamesWithDots) throws IOException {
         this.bos = os;
-        this.generator = xContent.createGenerator(bos, includes, excludes);
+        this.generator = xContent.createGenerator(bos, includes, excludes, filtersMatchFieldNamesWithDots);
     }
 
     public XContentType contentType() {
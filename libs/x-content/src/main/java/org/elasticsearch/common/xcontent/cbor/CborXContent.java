@@ -74,8 +74,10 @@ public class CborXContent implements XContent {
     }
 
     @Override
-    public XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes) throws IOException {
-        return new CborXContentGenerator(cborFactory.createGenerator(os, JsonEncoding.UTF8), os, includes, excludes);
+    public XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes,
+                                             boolean filtersMatchFieldNamesWithDots) throws IOException {
+        return new CborXContentGenerator(cborFactory.createGenerator(os, JsonEncoding.UTF8), os, includes, excludes,
+            filtersMatchFieldNamesWithDots);
     }
 
     @Override
@@ -99,7 +101,10 @@ public class CborXContent implements XContent {
     @Override
     public XContentParser createParser(NamedXContentRegistry xContentRegistry,
             DeprecationHandler deprecationHandler, byte[] data, int offset, int length) throws IOException {
-        return new CborXContentParser(xContentRegistry, deprecationHandler, cborFactory.createParser(data, offset, length));
+        // like the json parser, don't reference the array in the locations of errors, see JsonXContent
+        final JsonParser parser = cborFactory.createParser(data, offset, length);
+        parser.disable(JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION);
+        return new CborXContentParser(xContentRegistry, deprecationHandler, parser);
     }
 
     @Override
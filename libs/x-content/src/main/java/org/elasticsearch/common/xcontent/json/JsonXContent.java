@@ -75,8 +75,10 @@ public class JsonXContent implements XContent {
     }
 
     @Override
-    public XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes) throws IOException {
-        return new JsonXContentGenerator(jsonFactory.createGenerator(os, JsonEncoding.UTF8), os, includes, excludes);
+    public XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes,
+                                             boolean filtersMatchFieldNamesWithDots) throws IOException {
+        return new JsonXContentGenerator(jsonFactory.createGenerator(os, JsonEncoding.UTF8), os, includes, excludes,
+            filtersMatchFieldNamesWithDots);
     }
 
     @Override
@@ -100,7 +102,11 @@ public class JsonXContent implements XContent {
     @Override
     public XContentParser createParser(NamedXContentRegistry xContentRegistry,
             DeprecationHandler deprecationHandler, byte[] data, int offset, int length) throws IOException {
-        return new JsonXContentParser(xContentRegistry, deprecationHandler, jsonFactory.createParser(data, offset, length));
+        // the data is often a slice of a larger array, like the source of a document of a bulk request. Without a source reference,
+        // the locations of errors neither print the other content of the array nor keep the array alive
+        final JsonParser parser = jsonFactory.createParser(data, offset, length);
+        parser.disable(JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION);
+        return new JsonXContentParser(xContentRegistry, deprecationHandler, parser);
     }
 
     @Override
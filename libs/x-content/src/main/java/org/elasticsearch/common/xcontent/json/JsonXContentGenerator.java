@@ -73,6 +73,11 @@ public class JsonXContentGenerator implements XContentGenerator {
     private boolean prettyPrint = false;
 
     public JsonXContentGenerator(JsonGenerator jsonGenerator, OutputStream os, Set<String> includes, Set<String> excludes) {
+        this(jsonGenerator, os, includes, excludes, false);
+    }
+
+    public JsonXContentGenerator(JsonGenerator jsonGenerator, OutputStream os, Set<String> includes, Set<String> excludes,
+                                 boolean filtersMatchFieldNamesWithDots) {
         Objects.requireNonNull(includes, "Including filters must not be null");
         Objects.requireNonNull(excludes, "Excluding filters must not be null");
         this.os = os;
@@ -86,12 +91,14 @@ public class JsonXContentGenerator implements XContentGenerator {
 
         boolean hasExcludes = excludes.isEmpty() == false;
         if (hasExcludes) {
-            generator = new FilteringGeneratorDelegate(generator, new FilterPathBasedFilter(excludes, false), true, true);
+            FilterPathBasedFilter excludeFilter = new FilterPathBasedFilter(excludes, false, filtersMatchFieldNamesWithDots);
+            generator = new FilteringGeneratorDelegate(generator, excludeFilter, true, true);
         }
 
         boolean hasIncludes = includes.isEmpty() == false;
         if (hasIncludes) {
-            generator = new FilteringGeneratorDelegate(generator, new FilterPathBasedFilter(includes, true), true, true);
+            FilterPathBasedFilter includeFilter = new FilterPathBasedFilter(includes, true, filtersMatchFieldNamesWithDots);
+            generator = new FilteringGeneratorDelegate(generator, includeFilter, true, true);
         }
 
         if (hasExcludes || hasIncludes) {
@@ -76,8 +76,10 @@ public class SmileXContent implements XContent {
     }
 
     @Override
-    public XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes) throws IOException {
-        return new SmileXContentGenerator(smileFactory.createGenerator(os, JsonEncoding.UTF8), os, includes, excludes);
+    public XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes,
+                                             boolean filtersMatchFieldNamesWithDots) throws IOException {
+        return new SmileXContentGenerator(smileFactory.createGenerator(os, JsonEncoding.UTF8), os, includes, excludes,
+            filtersMatchFieldNamesWithDots);
     }
 
     @Override
@@ -101,7 +103,10 @@ public class SmileXContent implements XContent {
     @Override
     public XContentParser createParser(NamedXContentRegistry xContentRegistry,
             DeprecationHandler deprecationHandler, byte[] data, int offset, int length) throws IOException {
-        return new SmileXContentParser(xContentRegistry, deprecationHandler, smileFactory.createParser(data, offset, length));
+        // like the json parser, don't reference the array in the locations of errors, see JsonXContent
+        final JsonParser parser = smileFactory.createParser(data, offset, length);
+        parser.disable(JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION);
+        return new SmileXContentParser(xContentRegistry, deprecationHandler, parser);
     }
 
     @Override
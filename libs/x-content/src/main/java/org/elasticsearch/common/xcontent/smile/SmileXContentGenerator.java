@@ -32,6 +32,11 @@ public class SmileXContentGenerator extends JsonXContentGenerator {
         super(jsonGenerator, os, includes, excludes);
     }
 
+    public SmileXContentGenerator(JsonGenerator jsonGenerator, OutputStream os, Set<String> includes, Set<String> excludes,
+                                  boolean filtersMatchFieldNamesWithDots) {
+        super(jsonGenerator, os, includes, excludes, filtersMatchFieldNamesWithDots);
+    }
+
     @Override
     public XContentType contentType() {
         return XContentType.SMILE;
@@ -45,22 +45,54 @@ public class FilterPathBasedFilter extends TokenFilter {
 
     private final boolean inclusive;
 
+    private final boolean matchFieldNamesWithDots;
+
     public FilterPathBasedFilter(FilterPath[] filters, boolean inclusive) {
+        this(filters, inclusive, false);
+    }
+
+    /**
+     * @param matchFieldNamesWithDots whether a property name that contains dots is matched as if each part of the name was the name of
+     *                                an object, so that {@code {"a.b": 1}} is filtered like {@code {"a": {"b": 1}}}
+     */
+    public FilterPathBasedFilter(FilterPath[] filters, boolean inclusive, boolean matchFieldNamesWithDots) {
         if (filters == null || filters.length == 0) {
             throw new IllegalArgumentException("filters cannot be null or empty");
         }
         this.inclusive = inclusive;
         this.filters = filters;
+        this.matchFieldNamesWithDots = matchFieldNamesWithDots;
     }
 
     public FilterPathBasedFilter(Set<String> filters, boolean inclusive) {
-        this(FilterPath.compile(filters), inclusive);
+        this(filters, inclusive, false);
+    }
+
+    public FilterPathBasedFilter(Set<String> filters, boolean inclusive, boolean matchFieldNamesWithDots) {
+        this(FilterPath.compile(filters), inclusive, matchFieldNamesWithDots);
     }
 
     /**
      * Evaluates if a property name matches one of the given filter paths.
      */
     private TokenFilter evaluate(String name, FilterPath[] filters) {
+        if (matchFieldNamesWithDots == false || name.indexOf('.') < 0) {
+            return evaluatePart(name, filters);
+        }
+        FilterPath[] current = filters;
+        int start = 0;
+        while (true) {
+            final int end = name.indexOf('.', start);
+            final TokenFilter filter = evaluatePart(end < 0 ? name.substring(start) : name.substring(start, end), current);
+            if (end < 0 || filter == MATCHING || filter == NO_MATCHING) {
+                return filter;
+            }
+            current = ((FilterPathBasedFilter) filter).filters;
+            start = end + 1;
+        }
+    }
+
+    private TokenFilter evaluatePart(String name, FilterPath[] filters) {
         if (filters != null) {
             List<FilterPath> nextFilters = null;
 
@@ -82,7 +114,8 @@ public class FilterPathBasedFilter extends TokenFilter {
             }
 
             if ((nextFilters != null) && (nextFilters.isEmpty() == false)) {
-                return new FilterPathBasedFilter(nextFilters.toArray(new FilterPath[nextFilters.size()]), inclusive);
+                FilterPath[] next = nextFilters.toArray(new FilterPath[nextFilters.size()]);
+                return new FilterPathBasedFilter(next, inclusive, matchFieldNamesWithDots);
             }
         }
         return NO_MATCHING;
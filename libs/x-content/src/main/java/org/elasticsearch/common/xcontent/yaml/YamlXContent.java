@@ -69,8 +69,10 @@ public class YamlXContent implements XContent {
     }
 
     @Override
-    public XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes) throws IOException {
-        return new YamlXContentGenerator(yamlFactory.createGenerator(os, JsonEncoding.UTF8), os, includes, excludes);
+    public XContentGenerator createGenerator(OutputStream os, Set<String> includes, Set<String> excludes,
+                                             boolean filtersMatchFieldNamesWithDots) throws IOException {
+        return new YamlXContentGenerator(yamlFactory.createGenerator(os, JsonEncoding.UTF8), os, includes, excludes,
+            filtersMatchFieldNamesWithDots);
     }
 
     @Override
@@ -94,7 +96,10 @@ public class YamlXContent implements XContent {
     @Override
     public XContentParser createParser(NamedXContentRegistry xContentRegistry,
             DeprecationHandler deprecationHandler, byte[] data, int offset, int length) throws IOException {
-        return new YamlXContentParser(xContentRegistry, deprecationHandler, yamlFactory.createParser(data, offset, length));
+        // like the json parser, don't reference the array in the locations of errors, see JsonXContent
+        final JsonParser parser = yamlFactory.createParser(data, offset, length);
+        parser.disable(JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION);
+        return new YamlXContentParser(xContentRegistry, deprecationHandler, parser);
     }
 
     @Override
@@ -30,6 +30,8 @@ import org.elasticsearch.common.text.Text;
 import org.elasticsearch.index.query.QueryShardContext;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightAnalysisCache;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightBudget;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightPhase;
 import org.elasticsearch.search.fetch.subphase.highlight.Highlighter;
@@ -69,6 +71,7 @@ final class PercolatorHighlightSubFetchPhase implements FetchSubPhase {
         }
 
         boolean singlePercolateQuery = percolateQueries.size() == 1;
+        HighlightBudget budget = context.highlight().budget(context);
         for (PercolateQuery percolateQuery : percolateQueries) {
             String fieldName = singlePercolateQuery ? PercolatorMatchedSlotSubFetchPhase.FIELD_NAME_PREFIX :
                 PercolatorMatchedSlotSubFetchPhase.FIELD_NAME_PREFIX + "_" + percolateQuery.getName();
@@ -78,6 +81,9 @@ final class PercolatorHighlightSubFetchPhase implements FetchSubPhase {
 
             LeafReaderContext percolatorLeafReaderContext = percolatorIndexSearcher.getIndexReader().leaves().get(0);
             FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
+            // a document is highlighted for each query it matched, so its analysis is recorded and replayed
+            HighlightAnalysisCache.replayAnalysis(hitContext, context.getQueryShardContext().getIndexSettings());
+            context.addReleasable(hitContext::releaseCache, SearchContext.Lifetime.PHASE);
 
             for (SearchHit hit : hits) {
                 LeafReaderContext ctx = ctxs.get(ReaderUtil.subIndex(hit.docId(), ctxs));
@@ -105,8 +111,8 @@ final class PercolatorHighlightSubFetchPhase implements FetchSubPhase {
                             new SearchHit(slot, "unknown", new Text(hit.getType()), Collections.emptyMap()),
                             percolatorLeafReaderContext, slot, percolatorIndexSearcher
                         );
-                        hitContext.cache().clear();
-                        highlightPhase.hitExecute(context.shardTarget(), shardContext, query, highlight, hitContext);
+                        hitContext.cache().keySet().retainAll(Collections.singleton(HighlightAnalysisCache.CACHE_KEY));
+                        highlightPhase.hitExecute(context.shardTarget(), shardContext, query, highlight, budget, hitContext);
                         for (Map.Entry<String, HighlightField> entry : hitContext.hit().getHighlightFields().entrySet()) {
                             if (percolateQuery.getDocuments().size() == 1) {
                                 String hlFieldName;
@@ -115,7 +121,8 @@ final class PercolatorHighlightSubFetchPhase implements FetchSubPhase {
                                 } else {
                                     hlFieldName = percolateQuery.getName() + "_" + entry.getKey();
                                 }
-                                hit.getHighlightFields().put(hlFieldName, new HighlightField(hlFieldName, entry.getValue().fragments()));
+                                hit.getHighlightFields().put(hlFieldName, new HighlightField(hlFieldName, entry.getValue().fragments(),
+                                    entry.getValue().isTruncated()));
                             } else {
                                 // In case multiple documents are being percolated we need to identify to which document
                                 // a highlight belongs to.
@@ -125,7 +132,8 @@ final class PercolatorHighlightSubFetchPhase implements FetchSubPhase {
                                 } else {
                                     hlFieldName = percolateQuery.getName() + "_" + slot + "_" + entry.getKey();
                                 }
-                                hit.getHighlightFields().put(hlFieldName, new HighlightField(hlFieldName, entry.getValue().fragments()));
+                                hit.getHighlightFields().put(hlFieldName, new HighlightField(hlFieldName, entry.getValue().fragments(),
+                                    entry.getValue().isTruncated()));
                             }
                         }
                     }
@@ -20,6 +20,9 @@
 package org.elasticsearch.index.reindex;
 
 import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.search.SearchHit;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -29,7 +32,9 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
@@ -91,6 +96,29 @@ public class ReindexBasicTests extends ReindexTestCase {
         assertHitCount(client().prepareSearch("dest_half").setSize(0).get(), half);
     }
 
+    public void testCopySyntheticSource() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("source")
+            .addMapping("test", "{\"test\": {\"_source\": {\"mode\": \"synthetic\"}, \"properties\": "
+                + "{\"foo\": {\"type\": \"keyword\"}, \"num\": {\"type\": \"long\"}}}}", XContentType.JSON));
+        List<IndexRequestBuilder> docs = new ArrayList<>();
+        int max = between(20, 100);
+        for (int i = 0; i < max; i++) {
+            docs.add(client().prepareIndex("source", "test", Integer.toString(i)).setSource("num", i, "foo", "a" + i));
+        }
+        indexRandom(true, docs);
+
+        // the source of every hit of every batch is rebuilt from doc values
+        ReindexRequestBuilder copy = reindex().source("source").destination("dest", "type").refresh(true);
+        copy.source().setSize(5);
+        assertThat(copy.get(), matcher().created(max).batches(max, 5));
+        SearchResponse search = client().prepareSearch("dest").setSize(max).get();
+        assertHitCount(search, max);
+        for (SearchHit hit : search.getHits()) {
+            int i = Integer.parseInt(hit.getId());
+            assertThat(hit.getSourceAsString(), equalTo("{\"foo\":\"a" + i + "\",\"num\":" + i + "}"));
+        }
+    }
+
     public void testCopyManyWithSlices() throws Exception {
         List<IndexRequestBuilder> docs = new ArrayList<>();
         int max = between(150, 500);
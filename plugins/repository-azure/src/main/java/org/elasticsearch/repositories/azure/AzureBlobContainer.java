@@ -35,6 +35,7 @@ import org.elasticsearch.common.blobstore.DeleteResult;
 import org.elasticsearch.common.blobstore.support.AbstractBlobContainer;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
@@ -71,7 +72,25 @@ public class AzureBlobContainer extends AbstractBlobContainer {
     @Override
     public InputStream readBlob(String blobName) throws IOException {
         logger.trace("readBlob({})", blobName);
+        return openInputStream(blobName, 0L, null);
+    }
+
+    @Override
+    public InputStream readBlob(String blobName, long position, long length) throws IOException {
+        logger.trace("readBlob({}, {}, {})", blobName, position, length);
+        if (position < 0L) {
+            throw new IllegalArgumentException("position must be non-negative");
+        }
+        if (length < 0L) {
+            throw new IllegalArgumentException("length must be non-negative");
+        }
+        if (length == 0L) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        return openInputStream(blobName, position, length);
+    }
 
+    private InputStream openInputStream(String blobName, long position, @Nullable Long length) throws IOException {
         if (blobStore.getLocationMode() == LocationMode.SECONDARY_ONLY && !blobExists(blobName)) {
             // On Azure, if the location path is a secondary location, and the blob does not
             // exist, instead of returning immediately from the getInputStream call below
@@ -83,7 +102,10 @@ public class AzureBlobContainer extends AbstractBlobContainer {
         }
 
         try {
-            return blobStore.getInputStream(buildKey(blobName));
+            if (length == null) {
+                return blobStore.getInputStream(buildKey(blobName));
+            }
+            return blobStore.getInputStream(buildKey(blobName), position, length);
         } catch (StorageException e) {
             if (e.getHttpStatusCode() == HttpURLConnection.HTTP_NOT_FOUND) {
                 throw new NoSuchFileException(e.getMessage());
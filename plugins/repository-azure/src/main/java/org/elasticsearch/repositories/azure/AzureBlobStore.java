@@ -104,6 +104,10 @@ public class AzureBlobStore implements BlobStore {
         return service.getInputStream(clientName, container, blob);
     }
 
+    public InputStream getInputStream(String blob, long position, long length) throws URISyntaxException, StorageException, IOException {
+        return service.getInputStream(clientName, container, blob, position, length);
+    }
+
     public Map<String, BlobMetaData> listBlobsByPrefix(String keyPath, String prefix)
         throws URISyntaxException, StorageException, IOException {
         return service.listBlobsByPrefix(clientName, container, keyPath, prefix);
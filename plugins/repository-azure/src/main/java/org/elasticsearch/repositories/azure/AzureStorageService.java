@@ -267,6 +267,17 @@ public class AzureStorageService {
         return giveSocketPermissionsToStream(is);
     }
 
+    public InputStream getInputStream(String account, String container, String blob, long position, long length)
+        throws URISyntaxException, StorageException, IOException {
+        final Tuple<CloudBlobClient, Supplier<OperationContext>> client = client(account);
+        final CloudBlockBlob blockBlobReference = client.v1().getContainerReference(container).getBlockBlobReference(blob);
+        logger.trace(() -> new ParameterizedMessage("reading container [{}], blob [{}], position [{}], length [{}]",
+            container, blob, position, length));
+        final BlobInputStream is = SocketAccess.doPrivilegedException(() ->
+            blockBlobReference.openInputStream(position, length, null, null, client.v2().get()));
+        return giveSocketPermissionsToStream(is);
+    }
+
     public Map<String, BlobMetaData> listBlobsByPrefix(String account, String container, String keyPath, String prefix)
             throws URISyntaxException, StorageException, IOException {
         // NOTE: this should be here: if (prefix == null) prefix = "";
@@ -31,6 +31,7 @@ import org.elasticsearch.common.SuppressForbidden;
 import org.elasticsearch.common.blobstore.BlobContainer;
 import org.elasticsearch.common.blobstore.BlobPath;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.lucene.store.ByteArrayIndexInput;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
@@ -81,6 +82,7 @@ import static org.elasticsearch.repositories.azure.AzureStorageSettings.TIMEOUT_
 import static org.elasticsearch.repositories.blobstore.ESBlobStoreRepositoryIntegTestCase.randomBytes;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
 
@@ -198,6 +200,56 @@ public class AzureBlobContainerRetriesTests extends ESTestCase {
         }
     }
 
+    public void testReadRangeBlobWithRetries() throws Exception {
+        final int maxRetries = randomIntBetween(1, 5);
+        final CountDown countDownHead = new CountDown(maxRetries);
+        final CountDown countDownGet = new CountDown(maxRetries);
+        final byte[] bytes = randomBlobContent();
+        final int position = randomIntBetween(0, bytes.length - 1);
+        final int length = randomIntBetween(1, bytes.length - position);
+        httpServer.createContext("/container/read_range_blob_max_retries", exchange -> {
+            Streams.readFully(exchange.getRequestBody());
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                if (countDownHead.countDown()) {
+                    exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+                    exchange.getResponseHeaders().add("x-ms-blob-content-length", String.valueOf(bytes.length));
+                    exchange.getResponseHeaders().add("x-ms-blob-type", "blockblob");
+                    exchange.sendResponseHeaders(RestStatus.OK.getStatus(), -1);
+                    exchange.close();
+                    return;
+                }
+            } else if ("GET".equals(exchange.getRequestMethod())) {
+                if (countDownGet.countDown()) {
+                    // only the requested range of the blob is fetched
+                    final int rangeStart = getRangeStart(exchange);
+                    assertThat(rangeStart, greaterThanOrEqualTo(position));
+                    final int rangeEnd = getRangeEnd(exchange);
+                    assertThat(rangeEnd, lessThan(position + length));
+                    final int rangeLength = rangeEnd - rangeStart + 1;
+                    exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+                    exchange.getResponseHeaders().add("x-ms-blob-content-length", String.valueOf(rangeLength));
+                    exchange.getResponseHeaders().add("x-ms-blob-type", "blockblob");
+                    exchange.sendResponseHeaders(RestStatus.OK.getStatus(), rangeLength);
+                    exchange.getResponseBody().write(bytes, rangeStart, rangeLength);
+                    exchange.close();
+                    return;
+                }
+            }
+            if (randomBoolean()) {
+                AzureHttpHandler.sendError(exchange, randomFrom(RestStatus.INTERNAL_SERVER_ERROR, RestStatus.SERVICE_UNAVAILABLE));
+            }
+            exchange.close();
+        });
+
+        final BlobContainer blobContainer = createBlobContainer(maxRetries);
+        try (InputStream inputStream = blobContainer.readBlob("read_range_blob_max_retries", position, length)) {
+            assertArrayEquals(Arrays.copyOfRange(bytes, position, position + length),
+                BytesReference.toBytes(Streams.readFully(inputStream)));
+            assertThat(countDownHead.isCountedDown(), is(true));
+            assertThat(countDownGet.isCountedDown(), is(true));
+        }
+    }
+
     public void testWriteBlobWithRetries() throws Exception {
         final int maxRetries =  randomIntBetween(1, 5);
         final CountDown countDown = new CountDown(maxRetries);
@@ -339,14 +391,22 @@ public class AzureBlobContainerRetriesTests extends ESTestCase {
         return randomByteArrayOfLength(randomIntBetween(1, frequently() ? 512 : 1 << 20)); // rarely up to 1mb
     }
 
-    private static int getRangeStart(final HttpExchange exchange) {
+    private static Tuple<Long, Long> getRange(final HttpExchange exchange) {
         final String rangeHeader = exchange.getRequestHeaders().getFirst("X-ms-range");
         if (rangeHeader == null) {
-            return 0;
+            return Tuple.tuple(0L, Long.MAX_VALUE);
         }
 
         final Matcher matcher = Pattern.compile("^bytes=([0-9]+)-([0-9]+)$").matcher(rangeHeader);
         assertTrue(rangeHeader + " matches expected pattern", matcher.matches());
-        return Math.toIntExact(Long.parseLong(matcher.group(1)));
+        return Tuple.tuple(Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)));
+    }
+
+    private static int getRangeStart(final HttpExchange exchange) {
+        return Math.toIntExact(getRange(exchange).v1());
+    }
+
+    private static int getRangeEnd(final HttpExchange exchange) {
+        return Math.toIntExact(Math.min(getRange(exchange).v2(), Integer.MAX_VALUE));
     }
 }
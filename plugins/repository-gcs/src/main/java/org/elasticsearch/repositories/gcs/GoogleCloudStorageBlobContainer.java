@@ -62,6 +62,11 @@ class GoogleCloudStorageBlobContainer extends AbstractBlobContainer {
         return blobStore.readBlob(buildKey(blobName));
     }
 
+    @Override
+    public InputStream readBlob(final String blobName, final long position, final long length) throws IOException {
+        return blobStore.readBlob(buildKey(blobName), position, length);
+    }
+
     @Override
     public void writeBlob(String blobName, InputStream inputStream, long blobSize, boolean failIfAlreadyExists) throws IOException {
         blobStore.writeBlob(buildKey(blobName), inputStream, blobSize, failIfAlreadyExists);
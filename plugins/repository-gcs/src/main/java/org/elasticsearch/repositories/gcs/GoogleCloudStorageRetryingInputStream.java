@@ -26,6 +26,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.elasticsearch.common.SuppressForbidden;
+import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.core.internal.io.IOUtils;
 
 import java.io.IOException;
@@ -54,6 +55,9 @@ class GoogleCloudStorageRetryingInputStream extends InputStream {
 
     private final BlobId blobId;
 
+    private final long start;
+    private final long end;
+
     private final int maxRetries;
 
     private InputStream currentStream;
@@ -63,8 +67,21 @@ class GoogleCloudStorageRetryingInputStream extends InputStream {
     private boolean closed;
 
     GoogleCloudStorageRetryingInputStream(Storage client, BlobId blobId) throws IOException {
+        this(client, blobId, 0, Long.MAX_VALUE - 1);
+    }
+
+    // both start and end are inclusive bounds
+    GoogleCloudStorageRetryingInputStream(Storage client, BlobId blobId, long start, long end) throws IOException {
+        if (start < 0L) {
+            throw new IllegalArgumentException("start must be non-negative");
+        }
+        if (end < start || end == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("end must be >= start and not Long.MAX_VALUE");
+        }
         this.client = client;
         this.blobId = blobId;
+        this.start = start;
+        this.end = end;
         this.maxRetries = client.getOptions().getRetrySettings().getMaxAttempts() + 1;
         currentStream = openStream();
     }
@@ -72,10 +89,13 @@ class GoogleCloudStorageRetryingInputStream extends InputStream {
     private InputStream openStream() throws IOException {
         try {
             final ReadChannel readChannel = SocketAccess.doPrivilegedIOException(() -> client.reader(blobId));
-            if (currentOffset > 0L) {
-                readChannel.seek(currentOffset);
+            if (currentOffset > 0L || start > 0L) {
+                assert start + currentOffset <= end :
+                    "requesting beyond end, start = " + start + " offset=" + currentOffset + " end=" + end;
+                readChannel.seek(Math.addExact(start, currentOffset));
             }
-            return Channels.newInputStream(new ReadableByteChannel() {
+            // the read channel of this version of the client cannot be limited, the stream stops reading at the end of the range instead
+            final InputStream stream = Channels.newInputStream(new ReadableByteChannel() {
                 @SuppressForbidden(reason = "Channel is based of a socket not a file")
                 @Override
                 public int read(ByteBuffer dst) throws IOException {
@@ -99,6 +119,10 @@ class GoogleCloudStorageRetryingInputStream extends InputStream {
                     SocketAccess.doPrivilegedVoidIOException(readChannel::close);
                 }
             });
+            if (end < Long.MAX_VALUE - 1) {
+                return Streams.limitStream(stream, end - start - currentOffset + 1);
+            }
+            return stream;
         } catch (StorageException e) {
             throw addSuppressedExceptions(e);
         }
@@ -43,17 +43,22 @@ import org.elasticsearch.common.blobstore.BlobContainer;
 import org.elasticsearch.common.blobstore.BlobMetaData;
 import org.elasticsearch.common.blobstore.BlobPath;
 import org.elasticsearch.common.blobstore.DeleteResult;
+import org.elasticsearch.common.blobstore.MultipartBlobContainer;
 import org.elasticsearch.common.blobstore.support.AbstractBlobContainer;
 import org.elasticsearch.common.blobstore.support.PlainBlobMetaData;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -62,7 +67,7 @@ import static org.elasticsearch.repositories.s3.S3Repository.MAX_FILE_SIZE;
 import static org.elasticsearch.repositories.s3.S3Repository.MAX_FILE_SIZE_USING_MULTIPART;
 import static org.elasticsearch.repositories.s3.S3Repository.MIN_PART_SIZE_USING_MULTIPART;
 
-class S3BlobContainer extends AbstractBlobContainer {
+class S3BlobContainer extends AbstractBlobContainer implements MultipartBlobContainer {
 
     private static final Logger logger = LogManager.getLogger(S3BlobContainer.class);
 
@@ -72,6 +77,12 @@ class S3BlobContainer extends AbstractBlobContainer {
      */
     private static final int MAX_BULK_DELETES = 1000;
 
+    /**
+     * Maximum number of parts of a multipart upload.
+     * @see <a href="https://docs.aws.amazon.com/AmazonS3/latest/dev/qfacts.html">S3 Documentation</a>.
+     */
+    private static final int MAX_NUMBER_OF_PARTS = 10_000;
+
     private final S3BlobStore blobStore;
     private final String keyPath;
 
@@ -86,6 +97,24 @@ class S3BlobContainer extends AbstractBlobContainer {
         return new S3RetryingInputStream(blobStore, buildKey(blobName));
     }
 
+    /**
+     * This implementation fetches the requested range with a ranged {@code GetObject} request.
+     */
+    @Override
+    public InputStream readBlob(String blobName, long position, long length) throws IOException {
+        if (position < 0L) {
+            throw new IllegalArgumentException("position must be non-negative");
+        }
+        if (length < 0) {
+            throw new IllegalArgumentException("length must be non-negative");
+        }
+        if (length == 0) {
+            return new ByteArrayInputStream(new byte[0]);
+        } else {
+            return new S3RetryingInputStream(blobStore, buildKey(blobName), position, Math.addExact(position, length - 1));
+        }
+    }
+
     /**
      * This implementation ignores the failIfAlreadyExists flag as the S3 API has no way to enforce this due to its weak consistency model.
      */
@@ -348,14 +377,7 @@ class S3BlobContainer extends AbstractBlobContainer {
         final String bucketName = blobStore.bucket();
         boolean success = false;
 
-        final InitiateMultipartUploadRequest initRequest = new InitiateMultipartUploadRequest(bucketName, blobName);
-        initRequest.setStorageClass(blobStore.getStorageClass());
-        initRequest.setCannedACL(blobStore.getCannedACL());
-        if (blobStore.serverSideEncryption()) {
-            final ObjectMetadata md = new ObjectMetadata();
-            md.setSSEAlgorithm(ObjectMetadata.AES_256_SERVER_SIDE_ENCRYPTION);
-            initRequest.setObjectMetadata(md);
-        }
+        final InitiateMultipartUploadRequest initRequest = initiateMultipartUploadRequest(blobStore, blobName);
         try (AmazonS3Reference clientReference = blobStore.clientReference()) {
 
             uploadId.set(SocketAccess.doPrivileged(() -> clientReference.client().initiateMultipartUpload(initRequest).getUploadId()));
@@ -409,6 +431,103 @@ class S3BlobContainer extends AbstractBlobContainer {
         }
     }
 
+    private static InitiateMultipartUploadRequest initiateMultipartUploadRequest(final S3BlobStore blobStore, final String blobName) {
+        final InitiateMultipartUploadRequest initRequest = new InitiateMultipartUploadRequest(blobStore.bucket(), blobName);
+        initRequest.setStorageClass(blobStore.getStorageClass());
+        initRequest.setCannedACL(blobStore.getCannedACL());
+        if (blobStore.serverSideEncryption()) {
+            final ObjectMetadata md = new ObjectMetadata();
+            md.setSSEAlgorithm(ObjectMetadata.AES_256_SERVER_SIDE_ENCRYPTION);
+            initRequest.setObjectMetadata(md);
+        }
+        return initRequest;
+    }
+
+    @Override
+    public long minimumPartSize() {
+        return MIN_PART_SIZE_USING_MULTIPART.getBytes();
+    }
+
+    @Override
+    public int maximumNumberOfParts() {
+        return MAX_NUMBER_OF_PARTS;
+    }
+
+    /**
+     * This implementation ignores the failIfAlreadyExists flag as the S3 API has no way to enforce this due to its weak consistency model.
+     */
+    @Override
+    public MultipartUpload startMultipartUpload(String blobName, long blobSize, boolean failIfAlreadyExists) throws IOException {
+        ensureMultiPartUploadSize(blobSize);
+        final String key = buildKey(blobName);
+        final InitiateMultipartUploadRequest initRequest = initiateMultipartUploadRequest(blobStore, key);
+        final String uploadId;
+        try (AmazonS3Reference clientReference = blobStore.clientReference()) {
+            uploadId = SocketAccess.doPrivileged(() -> clientReference.client().initiateMultipartUpload(initRequest).getUploadId());
+        } catch (final AmazonClientException e) {
+            throw new IOException("Unable to start multipart upload of object [" + key + "]", e);
+        }
+        if (Strings.isEmpty(uploadId)) {
+            throw new IOException("Failed to initialize multipart upload " + key);
+        }
+        return new S3MultipartUpload(key, uploadId);
+    }
+
+    /**
+     * A multipart upload whose parts may be uploaded concurrently, the ETags of the parts are sorted by part number on completion.
+     */
+    private class S3MultipartUpload implements MultipartUpload {
+
+        private final String key;
+        private final String uploadId;
+        private final Map<Integer, PartETag> parts = new ConcurrentHashMap<>();
+
+        S3MultipartUpload(String key, String uploadId) {
+            this.key = key;
+            this.uploadId = uploadId;
+        }
+
+        @Override
+        public void writePart(int partNumber, long offset, BytesReference bytes) throws IOException {
+            final UploadPartRequest uploadRequest = new UploadPartRequest();
+            uploadRequest.setBucketName(blobStore.bucket());
+            uploadRequest.setKey(key);
+            uploadRequest.setUploadId(uploadId);
+            uploadRequest.setPartNumber(partNumber);
+            uploadRequest.setInputStream(bytes.streamInput());
+            uploadRequest.setPartSize(bytes.length());
+            try (AmazonS3Reference clientReference = blobStore.clientReference()) {
+                final UploadPartResult uploadResponse = SocketAccess.doPrivileged(() -> clientReference.client().uploadPart(uploadRequest));
+                parts.put(partNumber, uploadResponse.getPartETag());
+            } catch (final AmazonClientException e) {
+                throw new IOException("Unable to upload part [" + partNumber + "] of object [" + key + "]", e);
+            }
+        }
+
+        @Override
+        public void complete() throws IOException {
+            final List<PartETag> partETags = new ArrayList<>(parts.values());
+            partETags.sort(Comparator.comparingInt(PartETag::getPartNumber));
+            final CompleteMultipartUploadRequest complRequest =
+                new CompleteMultipartUploadRequest(blobStore.bucket(), key, uploadId, partETags);
+            try (AmazonS3Reference clientReference = blobStore.clientReference()) {
+                SocketAccess.doPrivilegedVoid(() -> clientReference.client().completeMultipartUpload(complRequest));
+            } catch (final AmazonClientException e) {
+                throw new IOException("Unable to complete multipart upload of object [" + key + "]", e);
+            }
+        }
+
+        @Override
+        public void abort() throws IOException {
+            final AbortMultipartUploadRequest abortRequest = new AbortMultipartUploadRequest(blobStore.bucket(), key, uploadId);
+            try (AmazonS3Reference clientReference = blobStore.clientReference()) {
+                SocketAccess.doPrivilegedVoid(() -> clientReference.client().abortMultipartUpload(abortRequest));
+            } catch (final AmazonClientException e) {
+                throw new IOException("Unable to abort multipart upload of object [" + key + "]", e);
+            }
+        }
+    }
+
     // non-static, package private for testing
     void ensureMultiPartUploadSize(final long blobSize) {
         if (blobSize > MAX_FILE_SIZE_USING_MULTIPART.getBytes()) {
@@ -23,6 +23,7 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import fixture.s3.S3HttpHandler;
 import org.elasticsearch.action.ActionRunnable;
+import org.elasticsearch.action.support.GroupedActionListener;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.metadata.RepositoryMetaData;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -30,7 +31,10 @@ import org.elasticsearch.common.SuppressForbidden;
 import org.elasticsearch.common.blobstore.BlobContainer;
 import org.elasticsearch.common.blobstore.BlobPath;
 import org.elasticsearch.common.blobstore.BlobStore;
+import org.elasticsearch.common.blobstore.MultipartBlobContainer;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.settings.MockSecureSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
@@ -56,6 +60,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
@@ -176,6 +182,38 @@ public class S3BlobStoreRepositoryTests extends ESMockAPIBasedRepositoryIntegTes
         assertThat(repository.threadPool().relativeTimeInNanos() - beforeFastDelete, lessThan(TEST_COOLDOWN_PERIOD.getNanos()));
     }
 
+    public void testConcurrentMultipartUpload() throws Exception {
+        final String repoName = createRepository(randomName());
+        final RepositoriesService repositoriesService = internalCluster().getMasterNodeInstance(RepositoriesService.class);
+        final BlobStoreRepository repository = (BlobStoreRepository) repositoriesService.repository(repoName);
+        final MultipartBlobContainer container =
+            (MultipartBlobContainer) repository.blobStore().blobContainer(repository.basePath().add("multipart"));
+
+        final int numberOfParts = randomIntBetween(2, 3);
+        final int partSize = Math.toIntExact(container.minimumPartSize());
+        final byte[] data = randomByteArrayOfLength(partSize * (numberOfParts - 1) + randomIntBetween(1, partSize));
+        final MultipartBlobContainer.MultipartUpload upload = container.startMultipartUpload("blob", data.length, false);
+
+        // the parts are written concurrently and in random order, the upload must still assemble them by part number
+        final List<Integer> partNumbers = IntStream.rangeClosed(1, numberOfParts).boxed().collect(Collectors.toList());
+        Collections.shuffle(partNumbers, random());
+        final PlainActionFuture<Collection<Void>> future = new PlainActionFuture<>();
+        final GroupedActionListener<Void> listener = new GroupedActionListener<>(future, numberOfParts);
+        for (int partNumber : partNumbers) {
+            final int offset = (partNumber - 1) * partSize;
+            final int length = Math.min(partSize, data.length - offset);
+            repository.threadPool().executor(ThreadPool.Names.SNAPSHOT).execute(ActionRunnable.run(listener,
+                () -> upload.writePart(partNumber, offset, new BytesArray(data, offset, length))));
+        }
+        future.actionGet();
+        assertFalse(container.listBlobs().containsKey("blob"));
+        upload.complete();
+
+        try (InputStream stream = container.readBlob("blob")) {
+            assertArrayEquals(data, BytesReference.toBytes(Streams.readFully(stream)));
+        }
+    }
+
     /**
      * S3RepositoryPlugin that allows to disable chunked encoding and to set a low threshold between single upload and multipart upload.
      */
@@ -0,0 +1,183 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.action.admin.indices.recovery.RecoveryResponse;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.routing.RecoverySource;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.store.StoreFileMetaData;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.snapshots.SnapshotInfo;
+import org.elasticsearch.snapshots.SnapshotState;
+import org.elasticsearch.test.ESIntegTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+@ESIntegTestCase.ClusterScope(scope = ESIntegTestCase.Scope.TEST, numDataNodes = 0)
+public class SnapshotBasedRecoveryIT extends ESIntegTestCase {
+
+    public void testReplicaRecoveryFetchesFilesFromSnapshot() throws Exception {
+        final String primaryNode = internalCluster().startNode();
+        final String indexName = "test-index";
+        createIndex(indexName, Settings.builder()
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0).build());
+        final int numDocs = indexDocs(indexName, 0);
+        flush(indexName);
+
+        final boolean useForPeerRecovery = randomBoolean();
+        createRepository("test-repo", useForPeerRecovery);
+        createSnapshot("test-repo", "test-snap", indexName);
+
+        final String replicaNode = internalCluster().startNode();
+        assertAcked(client().admin().indices().prepareUpdateSettings(indexName)
+            .setSettings(Settings.builder().put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 1)));
+        ensureGreen(indexName);
+
+        final RecoveryResponse response = client().admin().indices().prepareRecoveries(indexName).get();
+        RecoveryState replicaRecovery = null;
+        for (RecoveryState recoveryState : response.shardRecoveryStates().get(indexName)) {
+            if (recoveryState.getRecoverySource().getType() == RecoverySource.Type.PEER) {
+                replicaRecovery = recoveryState;
+            }
+        }
+        assertThat(replicaRecovery, notNullValue());
+        assertThat(replicaRecovery.getSourceNode().getName(), equalTo(primaryNode));
+        assertThat(replicaRecovery.getTargetNode().getName(), equalTo(replicaNode));
+        final RecoveryState.Index recoveredIndex = replicaRecovery.getIndex();
+        assertThat(recoveredIndex.recoveredBytes(), greaterThan(0L));
+        if (useForPeerRecovery) {
+            // nothing was written since the snapshot, so all the files of the shard are in the snapshot
+            assertThat(recoveredIndex.recoveredFromSnapshotBytes(), equalTo(recoveredIndex.recoveredBytes()));
+        } else {
+            assertThat(recoveredIndex.recoveredFromSnapshotBytes(), equalTo(0L));
+        }
+        assertHitCount(client().prepareSearch(indexName).setPreference("_only_nodes:" + replicaNode).setSize(0).get(), numDocs);
+    }
+
+    public void testFindShardSnapshot() throws Exception {
+        final String node = internalCluster().startNode();
+        final String indexName = "test-index";
+        createIndex(indexName, Settings.builder()
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0).build());
+        createRepository("peer-recovery-repo", true);
+        createRepository("other-repo", false);
+
+        int numDocs = indexDocs(indexName, 0);
+        flush(indexName);
+        createSnapshot("peer-recovery-repo", "snap-1", indexName);
+        numDocs += indexDocs(indexName, numDocs);
+        flush(indexName);
+        createSnapshot("peer-recovery-repo", "snap-2", indexName);
+        createSnapshot("other-repo", "snap-3", indexName);
+
+        logger.info("--> the latest snapshot contains all the files of the shard");
+        IndexShard shard = getShard(node, indexName);
+        List<StoreFileMetaData> files = storeFiles(shard);
+        ShardSnapshotsService.ShardSnapshot shardSnapshot = fetchShardSnapshot(node, shard, files);
+        assertThat(shardSnapshot, notNullValue());
+        assertThat(shardSnapshot.repository(), equalTo("peer-recovery-repo"));
+        assertThat(shardSnapshot.snapshot(), equalTo("snap-2"));
+        assertThat(shardSnapshot.totalSize(), equalTo(files.stream().mapToLong(StoreFileMetaData::length).sum()));
+        for (StoreFileMetaData file : files) {
+            assertThat(shardSnapshot.getFile(file.name()), notNullValue());
+        }
+
+        logger.info("--> snapshots in repositories that are not used for peer recoveries are ignored");
+        assertAcked(client().admin().cluster().prepareDeleteSnapshot("peer-recovery-repo", "snap-2"));
+        final ShardSnapshotsService.ShardSnapshot olderShardSnapshot = fetchShardSnapshot(node, shard, files);
+        assertThat(olderShardSnapshot, notNullValue());
+        assertThat(olderShardSnapshot.snapshot(), equalTo("snap-1"));
+        assertThat(olderShardSnapshot.totalSize(), greaterThan(0L));
+        assertThat(olderShardSnapshot.totalSize(), equalTo(files.stream()
+            .filter(file -> olderShardSnapshot.getFile(file.name()) != null).mapToLong(StoreFileMetaData::length).sum()));
+
+        logger.info("--> snapshots of another index with the same name are ignored");
+        assertAcked(client().admin().indices().prepareDelete(indexName));
+        assertThat(client().admin().cluster().prepareRestoreSnapshot("other-repo", "snap-3").setIndices(indexName)
+            .setWaitForCompletion(true).get().getRestoreInfo().failedShards(), equalTo(0));
+        ensureGreen(indexName);
+        assertHitCount(client().prepareSearch(indexName).setSize(0).get(), numDocs);
+        shard = getShard(node, indexName);
+        files = storeFiles(shard);
+        assertThat(fetchShardSnapshot(node, shard, files), nullValue());
+        createSnapshot("peer-recovery-repo", "snap-4", indexName);
+        shardSnapshot = fetchShardSnapshot(node, shard, files);
+        assertThat(shardSnapshot, notNullValue());
+        assertThat(shardSnapshot.snapshot(), equalTo("snap-4"));
+    }
+
+    private int indexDocs(String indexName, int startId) throws InterruptedException {
+        final int numDocs = scaledRandomIntBetween(10, 100);
+        final List<IndexRequestBuilder> docs = new ArrayList<>();
+        for (int i = startId; i < startId + numDocs; i++) {
+            docs.add(client().prepareIndex(indexName, "_doc", Integer.toString(i)).setSource("field", "value-" + i));
+        }
+        indexRandom(true, docs);
+        return numDocs;
+    }
+
+    private void createRepository(String repository, boolean useForPeerRecovery) {
+        assertAcked(client().admin().cluster().preparePutRepository(repository).setType("fs").setSettings(Settings.builder()
+            .put("location", randomRepoPath())
+            .put(BlobStoreRepository.USE_FOR_PEER_RECOVERY_SETTING.getKey(), useForPeerRecovery)));
+    }
+
+    private void createSnapshot(String repository, String snapshot, String indexName) {
+        final SnapshotInfo snapshotInfo = client().admin().cluster().prepareCreateSnapshot(repository, snapshot)
+            .setIndices(indexName).setWaitForCompletion(true).get().getSnapshotInfo();
+        assertThat(snapshotInfo.state(), equalTo(SnapshotState.SUCCESS));
+    }
+
+    private static IndexShard getShard(String node, String indexName) {
+        final IndicesService indicesService = internalCluster().getInstance(IndicesService.class, node);
+        return indicesService.indexServiceSafe(resolveIndex(indexName)).getShard(0);
+    }
+
+    private static List<StoreFileMetaData> storeFiles(IndexShard shard) throws IOException {
+        final List<StoreFileMetaData> files = new ArrayList<>();
+        shard.snapshotStoreMetadata().forEach(files::add);
+        return files;
+    }
+
+    private static ShardSnapshotsService.ShardSnapshot fetchShardSnapshot(String node, IndexShard shard, List<StoreFileMetaData> files) {
+        final ShardSnapshotsService shardSnapshotsService = new ShardSnapshotsService(
+            internalCluster().getInstance(RepositoriesService.class, node), internalCluster().getInstance(ThreadPool.class, node));
+        final PlainActionFuture<ShardSnapshotsService.ShardSnapshot> future = PlainActionFuture.newFuture();
+        shardSnapshotsService.fetchShardSnapshot(shard.shardId(), files, future);
+        return future.actionGet();
+    }
+}
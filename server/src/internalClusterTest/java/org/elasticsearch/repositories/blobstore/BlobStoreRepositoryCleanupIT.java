@@ -22,10 +22,12 @@ import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.admin.cluster.snapshots.create.CreateSnapshotResponse;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.RepositoryCleanupInProgress;
+import org.elasticsearch.common.blobstore.BlobPath;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.RepositoryCleanupResult;
 import org.elasticsearch.snapshots.AbstractSnapshotIntegTestCase;
 import org.elasticsearch.snapshots.SnapshotState;
 import org.elasticsearch.test.ESIntegTestCase;
@@ -36,6 +38,7 @@ import java.util.concurrent.TimeUnit;
 
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertFutureThrows;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 
 @ESIntegTestCase.ClusterScope(scope = ESIntegTestCase.Scope.TEST, numDataNodes = 0)
@@ -147,4 +150,49 @@ public class BlobStoreRepositoryCleanupIT extends AbstractSnapshotIntegTestCase
 
         BlobStoreTestUtil.assertConsistency(repository, repository.threadPool().generic());
     }
+
+    public void testCleanupStaleIndices() throws Exception {
+        internalCluster().startNodes(Settings.EMPTY);
+
+        final String repoName = "test-repo";
+        logger.info("-->  creating repository");
+        assertAcked(client().admin().cluster().preparePutRepository(repoName).setType("fs").setSettings(Settings.builder()
+            .put("location", randomRepoPath())
+            .put("compress", randomBoolean())));
+
+        createIndex("test-idx");
+        CreateSnapshotResponse createSnapshotResponse = client().admin().cluster().prepareCreateSnapshot(repoName, "test-snap")
+            .setWaitForCompletion(true).get();
+        assertThat(createSnapshotResponse.getSnapshotInfo().state(), is(SnapshotState.SUCCESS));
+
+        final RepositoriesService service = internalCluster().getInstance(RepositoriesService.class, internalCluster().getMasterName());
+        final BlobStoreRepository repository = (BlobStoreRepository) service.repository(repoName);
+
+        // more stale index folders than snapshot threads so that they are deleted by several concurrent tasks
+        final int staleIndices = randomIntBetween(5, 20);
+        long staleBlobs = 0L;
+        long staleBytes = 0L;
+        logger.info("--> write [{}] stale index folders", staleIndices);
+        for (int i = 0; i < staleIndices; ++i) {
+            final BlobPath staleIndexPath = repository.basePath().add("indices").add("stale-index-" + i);
+            final int blobs = randomIntBetween(1, 5);
+            for (int j = 0; j < blobs; ++j) {
+                final byte[] bytes = randomByteArrayOfLength(randomIntBetween(1, 100));
+                final String blobName = "blob-" + j;
+                final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+                repository.threadPool().generic().execute(ActionRunnable.run(future, () -> repository.blobStore()
+                    .blobContainer(staleIndexPath).writeBlob(blobName, new ByteArrayInputStream(bytes), bytes.length, true)));
+                future.get();
+                staleBlobs++;
+                staleBytes += bytes.length;
+            }
+        }
+
+        logger.info("--> cleanup repository");
+        final RepositoryCleanupResult result = client().admin().cluster().prepareCleanupRepository(repoName).get().result();
+        assertThat(result.blobs(), equalTo(staleBlobs));
+        assertThat(result.bytes(), equalTo(staleBytes));
+
+        BlobStoreTestUtil.assertConsistency(repository, repository.threadPool().generic());
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.action.ActionRunnable;
+import org.elasticsearch.action.admin.cluster.snapshots.create.CreateSnapshotResponse;
+import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotResponse;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.snapshots.AbstractSnapshotIntegTestCase;
+import org.elasticsearch.snapshots.SnapshotState;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class DeduplicatedBlobsIT extends AbstractSnapshotIntegTestCase {
+
+    private static final String DATA_BLOB_PREFIX = BlobStoreRepository.SHARED_DATA_BLOB_PREFIX;
+    private static final String REFERENCE_PREFIX = "r__";
+
+    public void testSharedBlobIsDeletedWithItsLastReference() throws Exception {
+        final Path repoPath = randomRepoPath();
+        createDeduplicatingRepository("test-repo", repoPath);
+        createIndexWithDocs("index-a");
+
+        logger.info("--> snapshot index-a and restore it as index-b, which has the same files");
+        createSnapshot("test-repo", "snap-a", "index-a");
+        final RestoreSnapshotResponse restoreResponse = client().admin().cluster().prepareRestoreSnapshot("test-repo", "snap-a")
+            .setRenamePattern("index-a").setRenameReplacement("index-b").setWaitForCompletion(true).get();
+        assertThat(restoreResponse.getRestoreInfo().failedShards(), equalTo(0));
+        createSnapshot("test-repo", "snap-b", "index-b");
+
+        final Set<String> dataBlobs = sharedBlobs(repoPath, DATA_BLOB_PREFIX);
+        assertThat(dataBlobs, not(empty()));
+        final Set<String> references = sharedBlobs(repoPath, REFERENCE_PREFIX);
+        final String indexAId = indexId("test-repo", "index-a");
+        final String indexBId = indexId("test-repo", "index-b");
+        assertTrue(references.stream().anyMatch(reference -> reference.contains("." + indexAId + ".")));
+        assertTrue(references.stream().anyMatch(reference -> reference.contains("." + indexBId + ".")));
+
+        logger.info("--> deleting snap-a removes index-a from the repository but the data blobs are still referenced by index-b");
+        assertAcked(client().admin().cluster().prepareDeleteSnapshot("test-repo", "snap-a").get());
+        assertThat(sharedBlobs(repoPath, DATA_BLOB_PREFIX), equalTo(dataBlobs));
+        final Set<String> remainingReferences = sharedBlobs(repoPath, REFERENCE_PREFIX);
+        assertFalse(remainingReferences.stream().anyMatch(reference -> reference.contains("." + indexAId + ".")));
+        assertTrue(remainingReferences.stream().anyMatch(reference -> reference.contains("." + indexBId + ".")));
+
+        logger.info("--> deleting snap-b releases the last references and deletes the data blobs");
+        assertAcked(client().admin().cluster().prepareDeleteSnapshot("test-repo", "snap-b").get());
+        assertThat(sharedBlobs(repoPath, DATA_BLOB_PREFIX), empty());
+        assertThat(sharedBlobs(repoPath, REFERENCE_PREFIX), empty());
+    }
+
+    public void testCleanupDeletesStaleSharedBlobs() throws Exception {
+        final Path repoPath = randomRepoPath();
+        createDeduplicatingRepository("test-repo", repoPath);
+        createIndexWithDocs("test-idx");
+        createSnapshot("test-repo", "test-snap", "test-idx");
+
+        final Set<String> dataBlobs = sharedBlobs(repoPath, DATA_BLOB_PREFIX);
+        final Set<String> references = sharedBlobs(repoPath, REFERENCE_PREFIX);
+        assertThat(dataBlobs, not(empty()));
+
+        logger.info("--> creating a reference of a removed index and an unreferenced data blob");
+        final String staleReference = REFERENCE_PREFIX + dataBlobs.iterator().next() + ".removed-index-id.0";
+        final String unreferencedBlob = DATA_BLOB_PREFIX + "1-garbage-0";
+        final RepositoriesService service = internalCluster().getInstance(RepositoriesService.class, internalCluster().getMasterName());
+        final BlobStoreRepository repository = (BlobStoreRepository) service.repository("test-repo");
+        final PlainActionFuture<Void> garbageFuture = PlainActionFuture.newFuture();
+        repository.threadPool().generic().execute(ActionRunnable.run(garbageFuture, () -> {
+            final BlobContainer sharedContainer = repository.blobStore().blobContainer(repository.basePath().add("shared"));
+            sharedContainer.writeBlob(staleReference, new ByteArrayInputStream(new byte[0]), 0, true);
+            sharedContainer.writeBlob(unreferencedBlob, new ByteArrayInputStream(new byte[1]), 1, true);
+        }));
+        garbageFuture.get();
+        assertThat(sharedBlobs(repoPath, ""), hasItems(staleReference, unreferencedBlob));
+
+        logger.info("--> cleanup deletes both but keeps the blobs that are referenced by the snapshot");
+        assertThat(client().admin().cluster().prepareCleanupRepository("test-repo").get().result().blobs(), greaterThan(1L));
+        assertThat(sharedBlobs(repoPath, DATA_BLOB_PREFIX), equalTo(dataBlobs));
+        assertThat(sharedBlobs(repoPath, REFERENCE_PREFIX), equalTo(references));
+    }
+
+    private void createDeduplicatingRepository(String repoName, Path repoPath) {
+        logger.info("-->  creating repository [{}] at [{}]", repoName, repoPath);
+        assertAcked(client().admin().cluster().preparePutRepository(repoName).setType("fs").setSettings(Settings.builder()
+            .put("location", repoPath)
+            .put("compress", randomBoolean())
+            .put(BlobStoreRepository.DEDUPLICATE_BLOBS_SETTING.getKey(), true)));
+    }
+
+    private void createIndexWithDocs(String indexName) throws InterruptedException {
+        assertAcked(prepareCreate(indexName, 1, Settings.builder()
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)));
+        final IndexRequestBuilder[] docs = new IndexRequestBuilder[between(10, 100)];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = client().prepareIndex(indexName, "_doc").setSource("field", "value" + i);
+        }
+        indexRandom(true, docs);
+        flushAndRefresh(indexName);
+    }
+
+    private void createSnapshot(String repoName, String snapshotName, String indexName) {
+        final CreateSnapshotResponse response = client().admin().cluster().prepareCreateSnapshot(repoName, snapshotName)
+            .setIndices(indexName).setWaitForCompletion(true).get();
+        assertThat(response.getSnapshotInfo().state(), is(SnapshotState.SUCCESS));
+    }
+
+    private String indexId(String repoName, String indexName) {
+        final RepositoriesService service = internalCluster().getInstance(RepositoriesService.class, internalCluster().getMasterName());
+        return getRepositoryData(service.repository(repoName)).resolveIndexId(indexName).getId();
+    }
+
+    private static Set<String> sharedBlobs(Path repoPath, String prefix) throws IOException {
+        final Path sharedPath = repoPath.resolve("shared");
+        if (Files.exists(sharedPath) == false) {
+            return Collections.emptySet();
+        }
+        try (Stream<Path> files = Files.list(sharedPath)) {
+            return files.map(file -> file.getFileName().toString()).filter(name -> name.startsWith(prefix)).collect(Collectors.toSet());
+        }
+    }
+}
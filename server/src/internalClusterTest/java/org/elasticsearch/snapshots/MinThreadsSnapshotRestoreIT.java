@@ -43,8 +43,7 @@ public class MinThreadsSnapshotRestoreIT extends AbstractSnapshotIntegTestCase {
     @Override
     protected Settings nodeSettings(int nodeOrdinal) {
         return Settings.builder().put(super.nodeSettings(nodeOrdinal))
-                   .put("thread_pool.snapshot.core", 2)
-                   .put("thread_pool.snapshot.max", 2)
+                   .put("thread_pool.snapshot.max_concurrency", 2)
                    .build();
     }
 
@@ -0,0 +1,86 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.snapshots;
+
+import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotResponse;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.store.snapshot.SnapshotDirectoryFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class SnapshotStoreIT extends AbstractSnapshotIntegTestCase {
+
+    public void testCannotDeleteSnapshotOfMountedIndex() throws Exception {
+        final String repo = "test-repo";
+        final String snapshot = "test-snap";
+        final String indexName = "test-index";
+        final String mountedIndexName = "mounted-index";
+
+        assertAcked(client().admin().cluster().preparePutRepository(repo)
+            .setType("fs").setSettings(Settings.builder().put("location", randomRepoPath())));
+
+        createIndex(indexName, Settings.builder()
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, between(1, 3))
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0).build());
+        final int numDocs = scaledRandomIntBetween(10, 100);
+        final List<IndexRequestBuilder> docs = new ArrayList<>();
+        for (int i = 0; i < numDocs; i++) {
+            docs.add(client().prepareIndex(indexName, "_doc").setSource("foo", "bar" + i));
+        }
+        indexRandom(true, docs);
+
+        logger.info("--> snapshot");
+        final SnapshotInfo snapshotInfo = client().admin().cluster().prepareCreateSnapshot(repo, snapshot)
+            .setIndices(indexName).setWaitForCompletion(true).get().getSnapshotInfo();
+        assertThat(snapshotInfo.state(), equalTo(SnapshotState.SUCCESS));
+
+        logger.info("--> restore the index lazily with the snapshot store type");
+        final RestoreSnapshotResponse restoreSnapshotResponse = client().admin().cluster().prepareRestoreSnapshot(repo, snapshot)
+            .setIndices(indexName).setRenamePattern(indexName).setRenameReplacement(mountedIndexName)
+            .setIndexSettings(Settings.builder()
+                .put(IndexModule.INDEX_STORE_TYPE_SETTING.getKey(), SnapshotDirectoryFactory.SNAPSHOT_STORE_TYPE)
+                .put(SnapshotDirectoryFactory.SNAPSHOT_PREFETCH_SETTING.getKey(), randomBoolean()))
+            .setWaitForCompletion(true).get();
+        assertThat(restoreSnapshotResponse.getRestoreInfo().failedShards(), equalTo(0));
+        ensureGreen(mountedIndexName);
+        assertHitCount(client().prepareSearch(mountedIndexName).setSize(0).get(), numDocs);
+        assertHitCount(client().prepareSearch(mountedIndexName).setQuery(QueryBuilders.termQuery("foo", "bar0")).get(), 1L);
+
+        logger.info("--> deleting the snapshot of the mounted index fails");
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> client().admin().cluster().prepareDeleteSnapshot(repo, snapshot).get());
+        assertThat(e.getMessage(), containsString("[" + mountedIndexName + "]"));
+        assertThat(client().admin().cluster().prepareGetSnapshots(repo).setSnapshots(snapshot).get()
+            .getSnapshots().size(), equalTo(1));
+
+        logger.info("--> the snapshot can be deleted once the mounted index is deleted");
+        assertAcked(client().admin().indices().prepareDelete(mountedIndexName));
+        assertAcked(client().admin().cluster().prepareDeleteSnapshot(repo, snapshot).get());
+    }
+}
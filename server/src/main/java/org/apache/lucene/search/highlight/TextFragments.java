@@ -0,0 +1,37 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.lucene.search.highlight;
+
+// LUCENE MONITOR
+/**
+ * Gives access to what the {@link Highlighter} knows about the {@link TextFragment}s it returns but doesn't expose.
+ */
+public final class TextFragments {
+
+    private TextFragments() {}
+
+    /**
+     * Returns whether the given fragment is the last one of the highlighted text, which is the fragment that the highlighter
+     * appends the end of the text it didn't analyze to.
+     */
+    public static boolean isLast(TextFragment fragment) {
+        return fragment.textEndPos == fragment.markedUpText.length();
+    }
+}
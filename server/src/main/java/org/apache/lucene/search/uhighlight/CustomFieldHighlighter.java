@@ -25,6 +25,7 @@ import java.util.PriorityQueue;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.io.IOException;
+import java.util.function.BooleanSupplier;
 import org.apache.lucene.util.BytesRef;
 
 import static org.apache.lucene.search.uhighlight.CustomUnifiedHighlighter.MULTIVAL_SEP_CHAR;
@@ -39,16 +40,26 @@ class CustomFieldHighlighter extends FieldHighlighter {
     private final Locale breakIteratorLocale;
     private final int noMatchSize;
     private final String fieldValue;
+    private final BooleanSupplier stop;
+    private boolean truncated;
 
     CustomFieldHighlighter(String field, FieldOffsetStrategy fieldOffsetStrategy,
                            Locale breakIteratorLocale, BreakIterator breakIterator,
                            PassageScorer passageScorer, int maxPassages, int maxNoHighlightPassages,
-                           PassageFormatter passageFormatter, int noMatchSize, String fieldValue) {
+                           PassageFormatter passageFormatter, int noMatchSize, String fieldValue, BooleanSupplier stop) {
         super(field, fieldOffsetStrategy, breakIterator, passageScorer, maxPassages,
             maxNoHighlightPassages, passageFormatter);
         this.breakIteratorLocale = breakIteratorLocale;
         this.noMatchSize = noMatchSize;
         this.fieldValue = fieldValue;
+        this.stop = stop;
+    }
+
+    /**
+     * Whether the passages were looked for in only part of the text because highlighting had to stop.
+     */
+    boolean isTruncated() {
+        return truncated;
     }
 
     @Override
@@ -123,6 +134,11 @@ class CustomFieldHighlighter extends FieldHighlighter {
                 if (start >= contentLength) {
                     break;
                 }
+                // the passages found so far are returned if highlighting has to stop before the end of the text
+                if (stop.getAsBoolean()) {
+                    truncated = true;
+                    break;
+                }
                 passage.setStartOffset(Math.max(this.breakIterator.preceding(start + 1), 0));
                 passage.setEndOffset(Math.min(this.breakIterator.following(start), contentLength));
             }
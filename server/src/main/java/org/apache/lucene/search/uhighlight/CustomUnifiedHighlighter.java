@@ -42,6 +42,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 import java.util.function.Predicate;
 
 /**
@@ -62,6 +63,9 @@ public class CustomUnifiedHighlighter extends UnifiedHighlighter {
     private final BreakIterator breakIterator;
     private final Locale breakIteratorLocale;
     private final int noMatchSize;
+    private final BooleanSupplier stop;
+    private OffsetSource usedOffsetSource;
+    private CustomFieldHighlighter fieldHighlighter;
 
     /**
      * Creates a new instance of {@link CustomUnifiedHighlighter}
@@ -85,6 +89,23 @@ public class CustomUnifiedHighlighter extends UnifiedHighlighter {
                                     @Nullable BreakIterator breakIterator,
                                     String fieldValue,
                                     int noMatchSize) {
+        this(searcher, analyzer, offsetSource, passageFormatter, breakIteratorLocale, breakIterator, fieldValue, noMatchSize,
+            () -> false);
+    }
+
+    /**
+     * Creates a new instance of {@link CustomUnifiedHighlighter} that stops looking for passages once the given supplier returns
+     * {@code true}, which it checks before each passage, and returns the passages it found until then.
+     */
+    public CustomUnifiedHighlighter(IndexSearcher searcher,
+                                    Analyzer analyzer,
+                                    OffsetSource offsetSource,
+                                    PassageFormatter passageFormatter,
+                                    @Nullable Locale breakIteratorLocale,
+                                    @Nullable BreakIterator breakIterator,
+                                    String fieldValue,
+                                    int noMatchSize,
+                                    BooleanSupplier stop) {
         super(searcher, analyzer);
         this.offsetSource = offsetSource;
         this.breakIterator = breakIterator;
@@ -92,6 +113,7 @@ public class CustomUnifiedHighlighter extends UnifiedHighlighter {
         this.passageFormatter = passageFormatter;
         this.fieldValue = fieldValue;
         this.noMatchSize = noMatchSize;
+        this.stop = stop;
     }
 
     /**
@@ -138,11 +160,29 @@ public class CustomUnifiedHighlighter extends UnifiedHighlighter {
         LabelledCharArrayMatcher[] automata = getAutomata(field, query, highlightFlags);
         UHComponents components = new UHComponents(field, fieldMatcher, query, terms, phraseHelper, automata, false , highlightFlags);
         OffsetSource offsetSource = getOptimizedOffsetSource(components);
+        usedOffsetSource = offsetSource;
         BreakIterator breakIterator = new SplittingBreakIterator(getBreakIterator(field),
             UnifiedHighlighter.MULTIVAL_SEP_CHAR);
         FieldOffsetStrategy strategy = getOffsetStrategy(offsetSource, components);
-        return new CustomFieldHighlighter(field, strategy, breakIteratorLocale, breakIterator,
-            getScorer(field), maxPassages, (noMatchSize > 0 ? 1 : 0), getFormatter(field), noMatchSize, fieldValue);
+        fieldHighlighter = new CustomFieldHighlighter(field, strategy, breakIteratorLocale, breakIterator,
+            getScorer(field), maxPassages, (noMatchSize > 0 ? 1 : 0), getFormatter(field), noMatchSize, fieldValue, stop);
+        return fieldHighlighter;
+    }
+
+    /**
+     * Returns the offset source the field was highlighted with, which may differ from the one this highlighter was created with if
+     * the query doesn't need offsets or needs to analyze the text, or {@code null} if no field was highlighted.
+     */
+    @Nullable
+    public OffsetSource getUsedOffsetSource() {
+        return usedOffsetSource;
+    }
+
+    /**
+     * Returns whether highlighting the field stopped before the end of its text.
+     */
+    public boolean isTruncated() {
+        return fieldHighlighter != null && fieldHighlighter.isTruncated();
     }
 
     @Override
@@ -278,6 +278,18 @@ public class NodesStatsRequest extends BaseNodesRequest<NodesStatsRequest> {
         return this;
     }
 
+    public boolean snapshotCache() {
+        return Metric.SNAPSHOT_CACHE.containedIn(requestedMetrics);
+    }
+
+    /**
+     * Should statistics of the cache of lazily restored snapshot files be returned.
+     */
+    public NodesStatsRequest snapshotCache(boolean snapshotCache) {
+        addOrRemoveMetric(snapshotCache, Metric.SNAPSHOT_CACHE.metricName());
+        return this;
+    }
+
     /**
      * Helper method for adding and removing metrics.
      * @param includeMetric Whether or not to include a metric.
@@ -331,7 +343,8 @@ public class NodesStatsRequest extends BaseNodesRequest<NodesStatsRequest> {
         SCRIPT("script"),
         DISCOVERY("discovery"),
         INGEST("ingest"),
-        ADAPTIVE_SELECTION("adaptive_selection");
+        ADAPTIVE_SELECTION("adaptive_selection"),
+        SNAPSHOT_CACHE("snapshot_cache");
 
         private String metricName;
 
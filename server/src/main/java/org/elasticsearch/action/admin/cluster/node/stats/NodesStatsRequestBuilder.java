@@ -149,4 +149,12 @@ public class NodesStatsRequestBuilder
         return this;
     }
 
+    /**
+     * Should the snapshot cache statistics be returned.
+     */
+    public NodesStatsRequestBuilder setSnapshotCache(boolean snapshotCache) {
+        request.snapshotCache(snapshotCache);
+        return this;
+    }
+
 }
@@ -0,0 +1,154 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.admin.cluster.snapshots.delete;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.repositories.SnapshotDeletionProgress;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Task that tracks the deletion of a snapshot, reporting the {@link SnapshotDeletionProgress} of the repository as its status.
+ */
+public class DeleteSnapshotTask extends Task {
+
+    private final SnapshotDeletionProgress progress = new SnapshotDeletionProgress();
+
+    public DeleteSnapshotTask(long id, String type, String action, String description, TaskId parentTaskId, Map<String, String> headers) {
+        super(id, type, action, description, parentTaskId, headers);
+    }
+
+    public SnapshotDeletionProgress getProgress() {
+        return progress;
+    }
+
+    @Override
+    public Status getStatus() {
+        return new Status(progress.getPhase(), progress.getTotalShards(), progress.getProcessedShards(), progress.getBlobsToDelete(),
+            progress.getDeletedBlobs());
+    }
+
+    public static class Status implements Task.Status {
+        public static final String NAME = "delete_snapshot";
+
+        private final String phase;
+        private final int totalShards;
+        private final int processedShards;
+        private final long blobsToDelete;
+        private final long deletedBlobs;
+
+        public Status(String phase, int totalShards, int processedShards, long blobsToDelete, long deletedBlobs) {
+            this.phase = requireNonNull(phase, "Phase cannot be null");
+            this.totalShards = totalShards;
+            this.processedShards = processedShards;
+            this.blobsToDelete = blobsToDelete;
+            this.deletedBlobs = deletedBlobs;
+        }
+
+        public Status(StreamInput in) throws IOException {
+            phase = in.readString();
+            totalShards = in.readVInt();
+            processedShards = in.readVInt();
+            blobsToDelete = in.readVLong();
+            deletedBlobs = in.readVLong();
+        }
+
+        @Override
+        public String getWriteableName() {
+            return NAME;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("phase", phase);
+            builder.field("total_shards", totalShards);
+            builder.field("processed_shards", processedShards);
+            builder.field("blobs_to_delete", blobsToDelete);
+            builder.field("deleted_blobs", deletedBlobs);
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(phase);
+            out.writeVInt(totalShards);
+            out.writeVInt(processedShards);
+            out.writeVLong(blobsToDelete);
+            out.writeVLong(deletedBlobs);
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        public int getTotalShards() {
+            return totalShards;
+        }
+
+        public int getProcessedShards() {
+            return processedShards;
+        }
+
+        public long getBlobsToDelete() {
+            return blobsToDelete;
+        }
+
+        public long getDeletedBlobs() {
+            return deletedBlobs;
+        }
+
+        @Override
+        public String toString() {
+            return Strings.toString(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Status status = (Status) o;
+            return totalShards == status.totalShards &&
+                processedShards == status.processedShards &&
+                blobsToDelete == status.blobsToDelete &&
+                deletedBlobs == status.deletedBlobs &&
+                phase.equals(status.phase);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(phase, totalShards, processedShards, blobsToDelete, deletedBlobs);
+        }
+    }
+}
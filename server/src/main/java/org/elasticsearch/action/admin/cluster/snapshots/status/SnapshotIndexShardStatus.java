@@ -91,7 +91,8 @@ public class SnapshotIndexShardStatus extends BroadcastShardResponse implements
         }
         this.stats = new SnapshotStats(indexShardStatus.getStartTime(), indexShardStatus.getTotalTime(),
             indexShardStatus.getIncrementalFileCount(), indexShardStatus.getTotalFileCount(), indexShardStatus.getProcessedFileCount(),
-            indexShardStatus.getIncrementalSize(), indexShardStatus.getTotalSize(), indexShardStatus.getProcessedSize());
+            indexShardStatus.getIncrementalSize(), indexShardStatus.getTotalSize(), indexShardStatus.getProcessedSize(),
+            indexShardStatus.getDeduplicatedFileCount(), indexShardStatus.getDeduplicatedSize());
         this.failure = indexShardStatus.getFailure();
         this.nodeId = nodeId;
     }
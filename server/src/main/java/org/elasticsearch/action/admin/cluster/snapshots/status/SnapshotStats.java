@@ -44,6 +44,8 @@ public class SnapshotStats implements Writeable, ToXContentObject {
     private long incrementalSize;
     private long totalSize;
     private long processedSize;
+    private int deduplicatedFileCount;
+    private long deduplicatedSize;
 
     SnapshotStats() {}
 
@@ -64,11 +66,22 @@ public class SnapshotStats implements Writeable, ToXContentObject {
             totalFileCount = incrementalFileCount;
             totalSize = incrementalSize;
         }
+        if (in.getVersion().onOrAfter(Version.V_7_7_1)) {
+            deduplicatedFileCount = in.readVInt();
+            deduplicatedSize = in.readVLong();
+        }
     }
 
     SnapshotStats(long startTime, long time,
                   int incrementalFileCount, int totalFileCount, int processedFileCount,
                   long incrementalSize, long totalSize, long processedSize) {
+        this(startTime, time, incrementalFileCount, totalFileCount, processedFileCount, incrementalSize, totalSize, processedSize, 0, 0L);
+    }
+
+    SnapshotStats(long startTime, long time,
+                  int incrementalFileCount, int totalFileCount, int processedFileCount,
+                  long incrementalSize, long totalSize, long processedSize,
+                  int deduplicatedFileCount, long deduplicatedSize) {
         this.startTime = startTime;
         this.time = time;
         assert time >= 0 : "Tried to initialize snapshot stats with negative total time [" + time + "]";
@@ -78,6 +91,8 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         this.incrementalSize = incrementalSize;
         this.totalSize = totalSize;
         this.processedSize = processedSize;
+        this.deduplicatedFileCount = deduplicatedFileCount;
+        this.deduplicatedSize = deduplicatedSize;
     }
 
     /**
@@ -136,6 +151,27 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         return processedSize;
     }
 
+    /**
+     * Returns number of processed files that were not uploaded because the repository already contained a copy of them
+     */
+    public int getDeduplicatedFileCount() {
+        return deduplicatedFileCount;
+    }
+
+    /**
+     * Returns total size of processed files that were not uploaded because the repository already contained a copy of them
+     */
+    public long getDeduplicatedSize() {
+        return deduplicatedSize;
+    }
+
+    /**
+     * Returns the number of bytes per second that were processed, or {@code 0} if the running time is unknown
+     */
+    public long getThroughput() {
+        return time > 0 ? processedSize * 1000 / time : 0;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(startTime);
@@ -151,6 +187,10 @@ public class SnapshotStats implements Writeable, ToXContentObject {
             out.writeVInt(totalFileCount);
             out.writeVLong(totalSize);
         }
+        if (out.getVersion().onOrAfter(Version.V_7_7_1)) {
+            out.writeVInt(deduplicatedFileCount);
+            out.writeVLong(deduplicatedSize);
+        }
     }
 
     static final class Fields {
@@ -159,6 +199,7 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         static final String INCREMENTAL = "incremental";
         static final String PROCESSED = "processed";
         static final String TOTAL = "total";
+        static final String DEDUPLICATED = "deduplicated";
 
         static final String FILE_COUNT = "file_count";
         static final String SIZE = "size";
@@ -167,6 +208,8 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         static final String START_TIME_IN_MILLIS = "start_time_in_millis";
         static final String TIME_IN_MILLIS = "time_in_millis";
         static final String TIME = "time";
+        static final String THROUGHPUT_IN_BYTES_PER_SEC = "throughput_in_bytes_per_sec";
+        static final String THROUGHPUT = "throughput";
     }
 
     @Override
@@ -196,9 +239,21 @@ public class SnapshotStats implements Writeable, ToXContentObject {
             }
             builder.endObject();
 
+            if (getDeduplicatedFileCount() != 0) {
+                builder.startObject(Fields.DEDUPLICATED);
+                {
+                    builder.field(Fields.FILE_COUNT, getDeduplicatedFileCount());
+                    builder.humanReadableField(Fields.SIZE_IN_BYTES, Fields.SIZE, new ByteSizeValue(getDeduplicatedSize()));
+                }
+                builder.endObject();
+            }
+
             // timings stats
             builder.field(Fields.START_TIME_IN_MILLIS, getStartTime());
             builder.humanReadableField(Fields.TIME_IN_MILLIS, Fields.TIME, new TimeValue(getTime()));
+            if (getTime() > 0) {
+                builder.humanReadableField(Fields.THROUGHPUT_IN_BYTES_PER_SEC, Fields.THROUGHPUT, new ByteSizeValue(getThroughput()));
+            }
         }
         return builder.endObject();
     }
@@ -219,6 +274,8 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         long incrementalSize = 0;
         long totalSize = 0;
         long processedSize = 0;
+        int deduplicatedFileCount = 0;
+        long deduplicatedSize = 0;
         while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
             XContentParserUtils.ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, parser::getTokenLocation);
             String currentName = parser.currentName();
@@ -280,6 +337,25 @@ public class SnapshotStats implements Writeable, ToXContentObject {
                         }
                     }
                 }
+            } else if (currentName.equals(Fields.DEDUPLICATED)) {
+                XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, token, parser::getTokenLocation);
+                while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                    XContentParserUtils.ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, parser::getTokenLocation);
+                    String innerName = parser.currentName();
+                    token = parser.nextToken();
+                    if (innerName.equals(Fields.FILE_COUNT)) {
+                        XContentParserUtils.ensureExpectedToken(XContentParser.Token.VALUE_NUMBER, token, parser::getTokenLocation);
+                        deduplicatedFileCount = parser.intValue();
+                    } else if (innerName.equals(Fields.SIZE_IN_BYTES)) {
+                        XContentParserUtils.ensureExpectedToken(XContentParser.Token.VALUE_NUMBER, token, parser::getTokenLocation);
+                        deduplicatedSize = parser.longValue();
+                    } else {
+                        // Unknown sub field, skip
+                        if (token == XContentParser.Token.START_OBJECT || token == XContentParser.Token.START_ARRAY) {
+                            parser.skipChildren();
+                        }
+                    }
+                }
             } else if (currentName.equals(Fields.START_TIME_IN_MILLIS)) {
                 XContentParserUtils.ensureExpectedToken(XContentParser.Token.VALUE_NUMBER, token, parser::getTokenLocation);
                 startTime = parser.longValue();
@@ -294,7 +370,7 @@ public class SnapshotStats implements Writeable, ToXContentObject {
             }
         }
         return new SnapshotStats(startTime, time, incrementalFileCount, totalFileCount, processedFileCount, incrementalSize, totalSize,
-            processedSize);
+            processedSize, deduplicatedFileCount, deduplicatedSize);
     }
 
     /**
@@ -311,6 +387,9 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         totalSize += stats.totalSize;
         processedSize += stats.processedSize;
 
+        deduplicatedFileCount += stats.deduplicatedFileCount;
+        deduplicatedSize += stats.deduplicatedSize;
+
         if (startTime == 0) {
             // First time here
             startTime = stats.startTime;
@@ -343,6 +422,8 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         if (processedFileCount != that.processedFileCount) return false;
         if (incrementalSize != that.incrementalSize) return false;
         if (totalSize != that.totalSize) return false;
+        if (deduplicatedFileCount != that.deduplicatedFileCount) return false;
+        if (deduplicatedSize != that.deduplicatedSize) return false;
         return processedSize == that.processedSize;
     }
 
@@ -356,6 +437,8 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         result = 31 * result + (int) (incrementalSize ^ (incrementalSize >>> 32));
         result = 31 * result + (int) (totalSize ^ (totalSize >>> 32));
         result = 31 * result + (int) (processedSize ^ (processedSize >>> 32));
+        result = 31 * result + deduplicatedFileCount;
+        result = 31 * result + (int) (deduplicatedSize ^ (deduplicatedSize >>> 32));
         return result;
     }
 }
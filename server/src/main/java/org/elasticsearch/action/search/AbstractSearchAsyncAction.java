@@ -33,6 +33,7 @@ import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.index.shard.ShardId;
@@ -42,6 +43,7 @@ import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.InternalSearchResponse;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.transport.Transport;
 
 import java.util.ArrayDeque;
@@ -227,27 +229,32 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
                 : null;
             Runnable r = () -> {
                 final Thread thread = Thread.currentThread();
-                try {
-                    executePhaseOnShard(shardIt, shard,
-                        new SearchActionListener<Result>(shardIt.newSearchShardTarget(shard.currentNodeId()), shardIndex) {
-                            @Override
-                            public void innerOnResponse(Result result) {
-                                try {
-                                    onShardResult(result, shardIt);
-                                } finally {
-                                    executeNext(pendingExecutions, thread);
-                                }
+                final SearchActionListener<Result> listener =
+                    new SearchActionListener<Result>(shardIt.newSearchShardTarget(shard.currentNodeId()), shardIndex) {
+                        @Override
+                        public void innerOnResponse(Result result) {
+                            try {
+                                onShardResult(result, shardIt);
+                            } finally {
+                                executeNext(pendingExecutions, thread);
                             }
+                        }
 
-                            @Override
-                            public void onFailure(Exception t) {
-                                try {
-                                    onShardFailure(shardIndex, shard, shard.currentNodeId(), shardIt, t);
-                                } finally {
-                                    executeNext(pendingExecutions, thread);
-                                }
+                        @Override
+                        public void onFailure(Exception t) {
+                            try {
+                                onShardFailure(shardIndex, shard, shard.currentNodeId(), shardIt, t);
+                            } finally {
+                                executeNext(pendingExecutions, thread);
                             }
-                        });
+                        }
+                    };
+                if (isHedgingEnabled(shardIt)) {
+                    new HedgedShardExecution(shardIt, shard, listener).start();
+                    return;
+                }
+                try {
+                    executePhaseOnShard(shardIt, shard, listener);
                 } catch (final Exception e) {
                     try {
                         /*
@@ -268,6 +275,172 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         }
     }
 
+    /**
+     * Whether the shard level requests of this phase may be hedged, see {@link SearchHedging}. Only phases whose shard level requests
+     * can be sent twice without side effects, other than a search context that is released again, may return {@code true}.
+     */
+    protected boolean isHedgingSupported() {
+        return false;
+    }
+
+    private boolean isHedgingEnabled(SearchShardIterator shardIt) {
+        final SearchHedging hedging = searchTransportService.getHedging();
+        // scroll contexts are kept open by the client and remote clusters are ranked by their own coordinating node
+        return hedging != null && hedging.isEnabled() && isHedgingSupported()
+            && request.scroll() == null && shardIt.getClusterAlias() == null;
+    }
+
+    /**
+     * Executes the request of a shard and, if no response arrived within the delay that {@link SearchHedging} picked for the shard,
+     * sends a hedged request to the next copy of the shard. The first successful response is used and the other request is cancelled,
+     * or its search context released if it responded too. A failure is only passed on once both requests failed, and then moves on to
+     * the next copy of the shard as usual.
+     */
+    private final class HedgedShardExecution {
+        private final SearchHedging hedging = searchTransportService.getHedging();
+        private final SearchShardIterator shardIt;
+        private final ShardRouting shard;
+        private final SearchActionListener<Result> listener;
+        // the state below is guarded by this
+        private ShardRouting hedgeShard;
+        private int pending;
+        private boolean done;
+        private Exception failure;
+        private Exception hedgeFailure;
+        private Scheduler.Cancellable scheduledHedge;
+
+        HedgedShardExecution(SearchShardIterator shardIt, ShardRouting shard, SearchActionListener<Result> listener) {
+            this.shardIt = shardIt;
+            this.shard = shard;
+            this.listener = listener;
+        }
+
+        void start() {
+            final TimeValue delay = hedging.hedgeDelay(shardIt.shardId());
+            synchronized (this) {
+                pending = 1;
+            }
+            send(shard, false);
+            if (delay != null && shardIt.remaining() > 0) {
+                final Scheduler.Cancellable cancellable = hedging.schedule(() -> fork(this::sendHedge), delay);
+                synchronized (this) {
+                    if (done) {
+                        cancellable.cancel();
+                    } else {
+                        scheduledHedge = cancellable;
+                    }
+                }
+            }
+        }
+
+        private void sendHedge() {
+            final ShardRouting target;
+            synchronized (this) {
+                if (done || shardIt.remaining() == 0 || hedging.tryAcquire() == false) {
+                    return;
+                }
+                target = hedgeShard = shardIt.nextOrNull();
+                pending++;
+                // the copy taken from the iterator is no longer counted by successfulShardExecution or onShardFailure, this must
+                // happen before either request can complete the shard
+                totalOps.incrementAndGet();
+            }
+            send(target, true);
+        }
+
+        private void send(ShardRouting target, boolean hedge) {
+            final long startNanos = System.nanoTime();
+            final SearchActionListener<Result> attemptListener =
+                new SearchActionListener<Result>(shardIt.newSearchShardTarget(target.currentNodeId()), listener.requestIndex) {
+                    @Override
+                    protected void innerOnResponse(Result result) {
+                        hedging.onShardResponse(shardIt.shardId(), System.nanoTime() - startNanos);
+                        onAttemptResponse(target, hedge, result);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        onAttemptFailure(hedge, e);
+                    }
+                };
+            try {
+                executePhaseOnShard(shardIt, target, attemptListener);
+            } catch (final Exception e) {
+                // see performPhaseOnShard, we might not be connected to the node
+                fork(() -> attemptListener.onFailure(e));
+            }
+        }
+
+        private void onAttemptResponse(ShardRouting target, boolean hedge, Result result) {
+            final ShardRouting other;
+            synchronized (this) {
+                pending--;
+                if (done) {
+                    other = null;
+                } else {
+                    done = true;
+                    cancelScheduledHedge();
+                    other = pending > 0 ? (hedge ? shard : hedgeShard) : target;
+                }
+            }
+            if (other == null) {
+                // the other request won, this response is not used
+                if (result.getContextId() != null) {
+                    try {
+                        sendReleaseSearchContext(result.getContextId(), getConnection(null, target.currentNodeId()),
+                            shardIt.getOriginalIndices());
+                    } catch (Exception e) {
+                        logger.trace("failed to release context", e);
+                    }
+                }
+                return;
+            }
+            if (hedge) {
+                hedging.onHedgeWon();
+            }
+            if (other != target && task != null) {
+                try {
+                    searchTransportService.sendCancelShardRequest(getConnection(null, other.currentNodeId()), task, shardIt.shardId());
+                } catch (Exception e) {
+                    logger.trace(() -> new ParameterizedMessage("{}: failed to cancel request on [{}]", shardIt.shardId(),
+                        other.currentNodeId()), e);
+                }
+            }
+            listener.innerOnResponse(result);
+        }
+
+        private void onAttemptFailure(boolean hedge, Exception e) {
+            final Exception toNotify;
+            synchronized (this) {
+                pending--;
+                if (hedge) {
+                    hedgeFailure = e;
+                } else {
+                    failure = e;
+                }
+                if (done || pending > 0) {
+                    // the other request may still succeed
+                    return;
+                }
+                done = true;
+                cancelScheduledHedge();
+                // the request that was not hedged was always sent, report its failure against its copy
+                toNotify = failure;
+                if (hedgeFailure != null) {
+                    toNotify.addSuppressed(hedgeFailure);
+                }
+            }
+            listener.onFailure(toNotify);
+        }
+
+        private void cancelScheduledHedge() {
+            assert Thread.holdsLock(this);
+            if (scheduledHedge != null) {
+                scheduledHedge.cancel();
+            }
+        }
+    }
+
     /**
      * Sends the request to the actual shard.
      * @param shardIt the shards iterator
@@ -58,6 +58,11 @@ final class SearchDfsQueryThenFetchAsyncAction extends AbstractSearchAsyncAction
             SearchProgressListener.buildSearchShards(toSkipShardsIts), clusters, sourceBuilder == null || sourceBuilder.size() != 0);
     }
 
+    @Override
+    protected boolean isHedgingSupported() {
+        return true;
+    }
+
     @Override
     protected void executePhaseOnShard(final SearchShardIterator shardIt, final ShardRouting shard,
                                        final SearchActionListener<DfsSearchResult> listener) {
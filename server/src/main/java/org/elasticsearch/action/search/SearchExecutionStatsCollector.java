@@ -30,8 +30,9 @@ import java.util.function.BiFunction;
 
 /**
  * A wrapper of search action listeners (search results) that unwraps the query
- * result to get the piggybacked queue size and service time EWMA, adding those
- * values to the coordinating nodes' {@link ResponseCollectorService}.
+ * result to get the piggybacked queue size, service time EWMA, node load and
+ * shard service time, adding those values to the coordinating nodes'
+ * {@link ResponseCollectorService}.
  */
 public final class SearchExecutionStatsCollector implements ActionListener<SearchPhaseResult> {
 
@@ -63,6 +64,12 @@ public final class SearchExecutionStatsCollector implements ActionListener<Searc
             // EWMA/queue size may be -1 if the query node doesn't support capturing it
             if (serviceTimeEWMA > 0 && queueSize >= 0) {
                 collector.addNodeStatistics(nodeId, queueSize, responseDuration, serviceTimeEWMA);
+                // the load and shard service time may be -1 if the query node doesn't support capturing it
+                collector.addNodeLoad(nodeId, queryResult.nodeCpuPercent(), queryResult.nodeGcOverheadPercent());
+                final long shardServiceTimeNanos = queryResult.shardServiceTimeNanos();
+                if (shardServiceTimeNanos > 0 && response.getSearchShardTarget() != null) {
+                    collector.addShardStatistics(nodeId, response.getSearchShardTarget().getShardId(), shardServiceTimeNanos);
+                }
             }
         }
         listener.onResponse(response);
@@ -0,0 +1,195 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.threadpool.Scheduler;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when the coordinating node sends a duplicate of a shard level search request to another copy of the shard, a so called
+ * hedged request, because the first copy is slower to respond than it usually is. It tracks the latency of the recent responses of
+ * each shard and hedges a request once it has been outstanding for longer than the 95th percentile of these latencies.
+ *
+ * Hedged requests are extra load on the cluster, so they are limited by a budget: every shard request that is sent earns
+ * {@link #MAX_RATIO_SETTING} hedged requests, up to a burst of {@link #MAX_BURST} hedged requests.
+ */
+public final class SearchHedging {
+
+    public static final Setting<Boolean> ENABLED_SETTING =
+        Setting.boolSetting("search.hedging.enabled", false, Setting.Property.Dynamic, Setting.Property.NodeScope);
+    public static final Setting<Double> MAX_RATIO_SETTING =
+        Setting.doubleSetting("search.hedging.max_ratio", 0.05, 0.0, 1.0, Setting.Property.Dynamic, Setting.Property.NodeScope);
+    public static final Setting<TimeValue> MIN_DELAY_SETTING = Setting.timeSetting("search.hedging.min_delay",
+        TimeValue.timeValueMillis(10), TimeValue.ZERO, Setting.Property.Dynamic, Setting.Property.NodeScope);
+
+    static final int MAX_BURST = 32;
+    static final int LATENCY_SAMPLES = 64;
+    static final int MIN_LATENCY_SAMPLES = 20;
+    static final int MAX_TRACKED_SHARDS = 10_000;
+    private static final long TOKEN = 1_000_000L;
+
+    private final ThreadPool threadPool;
+    private final Cache<ShardId, ShardLatency> latencies = CacheBuilder.<ShardId, ShardLatency>builder()
+        .setMaximumWeight(MAX_TRACKED_SHARDS)
+        .setExpireAfterAccess(TimeValue.timeValueHours(1))
+        .build();
+    private final AtomicLong budget = new AtomicLong();
+    private final CounterMetric issued = new CounterMetric();
+    private final CounterMetric won = new CounterMetric();
+    private final CounterMetric overBudget = new CounterMetric();
+
+    private volatile boolean enabled;
+    private volatile long earnedPerRequest;
+    private volatile long minDelayNanos;
+
+    public SearchHedging(Settings settings, ClusterSettings clusterSettings, ThreadPool threadPool) {
+        this.threadPool = threadPool;
+        setEnabled(ENABLED_SETTING.get(settings));
+        setMaxRatio(MAX_RATIO_SETTING.get(settings));
+        setMinDelay(MIN_DELAY_SETTING.get(settings));
+        clusterSettings.addSettingsUpdateConsumer(ENABLED_SETTING, this::setEnabled);
+        clusterSettings.addSettingsUpdateConsumer(MAX_RATIO_SETTING, this::setMaxRatio);
+        clusterSettings.addSettingsUpdateConsumer(MIN_DELAY_SETTING, this::setMinDelay);
+    }
+
+    private void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled == false) {
+            latencies.invalidateAll();
+        }
+    }
+
+    private void setMaxRatio(double maxRatio) {
+        this.earnedPerRequest = (long) (maxRatio * TOKEN);
+    }
+
+    private void setMinDelay(TimeValue minDelay) {
+        this.minDelayNanos = minDelay.nanos();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns how long to wait for the response of a request to the given shard before hedging it, or {@code null} if the request
+     * must not be hedged because hedging is disabled or not enough responses of the shard were seen yet. Every request that is not a
+     * hedged request itself must call this method since it also earns budget for hedged requests.
+     */
+    @Nullable
+    TimeValue hedgeDelay(ShardId shardId) {
+        if (enabled == false) {
+            return null;
+        }
+        final long earned = earnedPerRequest;
+        budget.accumulateAndGet(earned, (current, add) -> Math.min(current + add, MAX_BURST * TOKEN));
+        final ShardLatency latency = latencies.get(shardId);
+        if (latency == null) {
+            return null;
+        }
+        final long percentileNanos = latency.percentile95Nanos();
+        if (percentileNanos < 0) {
+            return null;
+        }
+        return TimeValue.timeValueNanos(Math.max(percentileNanos, minDelayNanos));
+    }
+
+    /**
+     * Takes a hedged request from the budget, returns {@code false} if the budget is exhausted.
+     */
+    boolean tryAcquire() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < TOKEN) {
+                overBudget.inc();
+                return false;
+            }
+        } while (budget.compareAndSet(current, current - TOKEN) == false);
+        issued.inc();
+        return true;
+    }
+
+    /**
+     * Called when the response of a hedged request was used rather than the one of the request it duplicated.
+     */
+    void onHedgeWon() {
+        won.inc();
+    }
+
+    /**
+     * Records how long it took a copy of the given shard to respond.
+     */
+    void onShardResponse(ShardId shardId, long tookNanos) {
+        if (enabled == false) {
+            return;
+        }
+        ShardLatency latency = latencies.get(shardId);
+        if (latency == null) {
+            // racing threads may each create an instance, only losing a few samples
+            latency = new ShardLatency();
+            latencies.put(shardId, latency);
+        }
+        latency.record(tookNanos);
+    }
+
+    Scheduler.ScheduledCancellable schedule(Runnable runnable, TimeValue delay) {
+        return threadPool.schedule(runnable, delay, ThreadPool.Names.SAME);
+    }
+
+    public SearchHedgingStats stats() {
+        return new SearchHedgingStats(issued.count(), won.count(), overBudget.count());
+    }
+
+    /**
+     * The latencies of the last {@link #LATENCY_SAMPLES} responses of a shard, the percentile is recomputed every few samples.
+     */
+    private static final class ShardLatency {
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private long count;
+        private volatile long percentile95Nanos = -1;
+
+        synchronized void record(long tookNanos) {
+            samples[(int) (count % LATENCY_SAMPLES)] = tookNanos;
+            count++;
+            if (count >= MIN_LATENCY_SAMPLES && count % 8 == 0) {
+                final long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, LATENCY_SAMPLES));
+                Arrays.sort(sorted);
+                percentile95Nanos = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+            }
+        }
+
+        long percentile95Nanos() {
+            return percentile95Nanos;
+        }
+    }
+}
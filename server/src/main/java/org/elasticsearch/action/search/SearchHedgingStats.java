@@ -0,0 +1,106 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Statistics about the hedged shard level search requests that a coordinating node sent, see {@link SearchHedging}.
+ */
+public class SearchHedgingStats implements Writeable, ToXContentFragment {
+
+    private final long issued;
+    private final long won;
+    private final long overBudget;
+
+    public SearchHedgingStats(long issued, long won, long overBudget) {
+        this.issued = issued;
+        this.won = won;
+        this.overBudget = overBudget;
+    }
+
+    public SearchHedgingStats(StreamInput in) throws IOException {
+        this.issued = in.readVLong();
+        this.won = in.readVLong();
+        this.overBudget = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(issued);
+        out.writeVLong(won);
+        out.writeVLong(overBudget);
+    }
+
+    /**
+     * The number of hedged requests that were sent.
+     */
+    public long getIssued() {
+        return issued;
+    }
+
+    /**
+     * The number of hedged requests whose response arrived before the one of the request they duplicated.
+     */
+    public long getWon() {
+        return won;
+    }
+
+    /**
+     * The number of requests that were not hedged although they were slow, because the budget of hedged requests was exhausted.
+     */
+    public long getOverBudget() {
+        return overBudget;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("search_hedging");
+        builder.field("issued", issued);
+        builder.field("won", won);
+        builder.field("over_budget", overBudget);
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SearchHedgingStats that = (SearchHedgingStats) o;
+        return issued == that.issued && won == that.won && overBudget == that.overBudget;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(issued, won, overBudget);
+    }
+}
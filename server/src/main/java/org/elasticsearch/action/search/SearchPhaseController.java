@@ -329,7 +329,31 @@ public final class SearchPhaseController {
                 assert currentOffset == sortedDocs.length : "expected no more score doc slices";
             }
         }
-        return reducedQueryPhase.buildResponse(hits);
+        return reducedQueryPhase.buildResponse(hits, mergeFetchProfiles(reducedQueryPhase.shardResults, fetchResults));
+    }
+
+    /**
+     * Adds the profile of the fetch phase of each shard to the profile of its query phase.
+     */
+    static SearchProfileShardResults mergeFetchProfiles(SearchProfileShardResults queryProfiles,
+                                                        Collection<? extends SearchPhaseResult> fetchResults) {
+        if (queryProfiles == null) {
+            return null;
+        }
+        final Map<String, ProfileShardResult> profileResults = new HashMap<>(queryProfiles.getShardResults());
+        for (SearchPhaseResult result : fetchResults) {
+            final FetchSearchResult fetchResult = result.fetchResult();
+            if (fetchResult == null || fetchResult.profileResult() == null || fetchResult.getSearchShardTarget() == null) {
+                continue;
+            }
+            final String key = fetchResult.getSearchShardTarget().toString();
+            final ProfileShardResult queryProfile = profileResults.get(key);
+            if (queryProfile != null) {
+                profileResults.put(key, new ProfileShardResult(queryProfile.getQueryProfileResults(),
+                    queryProfile.getAggregationProfileResults(), fetchResult.profileResult()));
+            }
+        }
+        return new SearchProfileShardResults(profileResults);
     }
 
     private SearchHits getHits(ReducedQueryPhase reducedQueryPhase, boolean ignoreFrom,
@@ -606,7 +630,14 @@ public final class SearchPhaseController {
          * @see #merge(boolean, ReducedQueryPhase, Collection, IntFunction)
          */
         public InternalSearchResponse buildResponse(SearchHits hits) {
-            return new InternalSearchResponse(hits, aggregations, suggest, shardResults, timedOut, terminatedEarly, numReducePhases);
+            return buildResponse(hits, shardResults);
+        }
+
+        /**
+         * Creates a new search response from the given merged hits and profile results.
+         */
+        InternalSearchResponse buildResponse(SearchHits hits, SearchProfileShardResults profileResults) {
+            return new InternalSearchResponse(hits, aggregations, suggest, profileResults, timedOut, terminatedEarly, numReducePhases);
         }
     }
 
@@ -31,6 +31,7 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.search.Scroll;
+import org.elasticsearch.search.SearchLane;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.tasks.TaskId;
@@ -95,6 +96,8 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
 
     private boolean ccsMinimizeRoundtrips = true;
 
+    private SearchLane lane;
+
     public static final IndicesOptions DEFAULT_INDICES_OPTIONS = IndicesOptions.strictExpandOpenAndForbidClosedIgnoreThrottled();
 
     private IndicesOptions indicesOptions = DEFAULT_INDICES_OPTIONS;
@@ -173,6 +176,7 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
         this.searchType = searchRequest.searchType;
         this.source = searchRequest.source;
         this.types = searchRequest.types;
+        this.lane = searchRequest.lane;
         this.localClusterAlias = localClusterAlias;
         this.absoluteStartMillis = absoluteStartMillis;
         this.finalReduce = finalReduce;
@@ -222,6 +226,9 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
         if (in.getVersion().onOrAfter(Version.V_7_0_0)) {
             ccsMinimizeRoundtrips = in.readBoolean();
         }
+        if (in.getVersion().onOrAfter(Version.V_7_7_1)) {
+            lane = in.readOptionalWriteable(SearchLane::readFrom);
+        }
     }
 
     @Override
@@ -256,6 +263,9 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
         if (out.getVersion().onOrAfter(Version.V_7_0_0)) {
             out.writeBoolean(ccsMinimizeRoundtrips);
         }
+        if (out.getVersion().onOrAfter(Version.V_7_7_1)) {
+            out.writeOptionalWriteable(lane);
+        }
     }
 
     @Override
@@ -617,6 +627,25 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
         return preFilterShardSize;
     }
 
+    /**
+     * Sets the lane of the search thread pool queue that the shard level requests of this request are queued in. Lanes are taken from
+     * in a weighted round-robin fashion so that expensive requests do not delay cheap ones. When unset the lane is derived from the
+     * request, see {@link SearchLane#of(org.elasticsearch.search.internal.ShardSearchRequest)}. Scroll requests always use the
+     * {@link SearchLane#SCROLL} lane.
+     */
+    public SearchRequest lane(@Nullable SearchLane lane) {
+        this.lane = lane;
+        return this;
+    }
+
+    /**
+     * Returns the lane of the search thread pool queue that was explicitly set for this request, or <code>null</code> if unset.
+     */
+    @Nullable
+    public SearchLane lane() {
+        return lane;
+    }
+
     /**
      * @return true if the request only has suggest
      */
@@ -686,14 +715,15 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
                 Objects.equals(allowPartialSearchResults, that.allowPartialSearchResults) &&
                 Objects.equals(localClusterAlias, that.localClusterAlias) &&
                 absoluteStartMillis == that.absoluteStartMillis &&
-                ccsMinimizeRoundtrips == that.ccsMinimizeRoundtrips;
+                ccsMinimizeRoundtrips == that.ccsMinimizeRoundtrips &&
+                lane == that.lane;
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(searchType, Arrays.hashCode(indices), routing, preference, source, requestCache,
                 scroll, Arrays.hashCode(types), indicesOptions, batchedReduceSize, maxConcurrentShardRequests, preFilterShardSize,
-                allowPartialSearchResults, localClusterAlias, absoluteStartMillis, ccsMinimizeRoundtrips);
+                allowPartialSearchResults, localClusterAlias, absoluteStartMillis, ccsMinimizeRoundtrips, lane);
     }
 
     @Override
@@ -714,6 +744,7 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
                 ", localClusterAlias=" + localClusterAlias +
                 ", getOrCreateAbsoluteStartMillis=" + absoluteStartMillis +
                 ", ccsMinimizeRoundtrips=" + ccsMinimizeRoundtrips +
+                ", lane=" + lane +
                 ", source=" + source + '}';
     }
 }
@@ -19,6 +19,8 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.fetch.ShardFetchSearchRequest;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.tasks.CancellableTask;
@@ -32,8 +34,25 @@ import java.util.Map;
  */
 public class SearchShardTask extends CancellableTask {
 
+    @Nullable
+    private final ShardId shardId;
+
     public SearchShardTask(long id, String type, String action, String description, TaskId parentTaskId, Map<String, String> headers) {
+        this(id, type, action, description, parentTaskId, headers, null);
+    }
+
+    public SearchShardTask(long id, String type, String action, String description, TaskId parentTaskId, Map<String, String> headers,
+                           @Nullable ShardId shardId) {
         super(id, type, action, description, parentTaskId, headers);
+        this.shardId = shardId;
+    }
+
+    /**
+     * The shard that this task searches, or {@code null} if the request does not target a shard but a search context.
+     */
+    @Nullable
+    public ShardId getShardId() {
+        return shardId;
     }
 
     @Override
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionListenerResponseHandler;
 import org.elasticsearch.action.IndicesRequest;
@@ -31,6 +32,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.dfs.DfsSearchResult;
@@ -45,6 +47,9 @@ import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.query.QuerySearchRequest;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.query.ScrollQuerySearchResult;
+import org.elasticsearch.tasks.CancellableTask;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.tasks.TaskManager;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.RemoteClusterService;
 import org.elasticsearch.transport.Transport;
@@ -77,15 +82,33 @@ public class SearchTransportService {
     public static final String FETCH_ID_SCROLL_ACTION_NAME = "indices:data/read/search[phase/fetch/id/scroll]";
     public static final String FETCH_ID_ACTION_NAME = "indices:data/read/search[phase/fetch/id]";
     public static final String QUERY_CAN_MATCH_NAME = "indices:data/read/search[can_match]";
+    public static final String CANCEL_SHARD_ACTION_NAME = "internal:admin/tasks/cancel_search_shard";
 
     private final TransportService transportService;
     private final BiFunction<Transport.Connection, SearchActionListener, ActionListener> responseWrapper;
     private final Map<String, Long> clientConnections = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
+    @Nullable
+    private final SearchHedging hedging;
 
     public SearchTransportService(TransportService transportService,
                                   BiFunction<Transport.Connection, SearchActionListener, ActionListener> responseWrapper) {
+        this(transportService, responseWrapper, null);
+    }
+
+    public SearchTransportService(TransportService transportService,
+                                  BiFunction<Transport.Connection, SearchActionListener, ActionListener> responseWrapper,
+                                  @Nullable SearchHedging hedging) {
         this.transportService = transportService;
         this.responseWrapper = responseWrapper;
+        this.hedging = hedging;
+    }
+
+    /**
+     * Returns the component that decides when to hedge shard level search requests, or {@code null} if they are never hedged.
+     */
+    @Nullable
+    public SearchHedging getHedging() {
+        return hedging;
     }
 
     public void sendFreeContext(Transport.Connection connection, final SearchContextId contextId, OriginalIndices originalIndices) {
@@ -183,6 +206,20 @@ public class SearchTransportService {
                 new ConnectionCountingHandler<>(listener, MultiSearchResponse::new, clientConnections, connection.getNode().getId()));
     }
 
+    /**
+     * Cancels the shard level request of the given search task on the given shard, if it is still running on the node of the connection.
+     * Used to cancel the slower one of a request and its hedged duplicate.
+     */
+    public void sendCancelShardRequest(Transport.Connection connection, SearchTask task, ShardId shardId) {
+        if (connection.getVersion().before(Version.V_7_7_1)) {
+            return;
+        }
+        final TaskId parentTaskId = new TaskId(transportService.getLocalNode().getId(), task.getId());
+        transportService.sendRequest(connection, CANCEL_SHARD_ACTION_NAME, new CancelShardRequest(parentTaskId, shardId),
+            TransportRequestOptions.EMPTY, new ActionListenerResponseHandler<>(ActionListener.wrap(() -> {}),
+                in -> TransportResponse.Empty.INSTANCE));
+    }
+
     public RemoteClusterService getRemoteClusterService() {
         return transportService.getRemoteClusterService();
     }
@@ -256,6 +293,29 @@ public class SearchTransportService {
 
         }
 
+    static class CancelShardRequest extends TransportRequest {
+        private final TaskId parentTaskId;
+        private final ShardId shardId;
+
+        CancelShardRequest(TaskId parentTaskId, ShardId shardId) {
+            this.parentTaskId = parentTaskId;
+            this.shardId = shardId;
+        }
+
+        CancelShardRequest(StreamInput in) throws IOException {
+            super(in);
+            parentTaskId = TaskId.readFromStream(in);
+            shardId = new ShardId(in);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            parentTaskId.writeTo(out);
+            shardId.writeTo(out);
+        }
+    }
+
     public static class SearchFreeContextResponse extends TransportResponse {
 
         private boolean freed;
@@ -357,6 +417,19 @@ public class SearchTransportService {
                 searchService.canMatch(request, new ChannelActionListener<>(channel, QUERY_CAN_MATCH_NAME, request));
             });
         TransportActionProxy.registerProxyAction(transportService, QUERY_CAN_MATCH_NAME, SearchService.CanMatchResponse::new);
+
+        transportService.registerRequestHandler(CANCEL_SHARD_ACTION_NAME, ThreadPool.Names.SAME, CancelShardRequest::new,
+            (request, channel, task) -> {
+                final TaskManager taskManager = transportService.getTaskManager();
+                for (CancellableTask cancellableTask : taskManager.getCancellableTasks().values()) {
+                    if (cancellableTask instanceof SearchShardTask
+                        && request.parentTaskId.equals(cancellableTask.getParentTaskId())
+                        && request.shardId.equals(((SearchShardTask) cancellableTask).getShardId())) {
+                        taskManager.cancel(cancellableTask, "a hedged request responded first", () -> {});
+                    }
+                }
+                channel.sendResponse(TransportResponse.Empty.INSTANCE);
+            });
     }
 
 
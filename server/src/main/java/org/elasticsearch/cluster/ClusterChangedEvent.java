@@ -25,9 +25,14 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.IndexGraveyard;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.gateway.GatewayService;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -50,6 +55,10 @@ public class ClusterChangedEvent {
 
     private final DiscoveryNodes.Delta nodesDelta;
 
+    // lazily computed, see #changedIndices() and #changedShards()
+    private Set<Index> changedIndices;
+    private Set<ShardId> changedShards;
+
     public ClusterChangedEvent(String source, ClusterState state, ClusterState previousState) {
         Objects.requireNonNull(source, "source must not be null");
         Objects.requireNonNull(state, "state must not be null");
@@ -105,6 +114,82 @@ public class ClusterChangedEvent {
         return true;
     }
 
+    /**
+     * Returns the indices whose {@link IndexMetaData} or routing table changed between the previous cluster state and the new cluster
+     * state, including the indices that were created or removed. The change set is computed once per event and shared by all the
+     * appliers and listeners that are notified of it, so that they do not need to compare the indices of both states themselves.
+     */
+    public Set<Index> changedIndices() {
+        if (changedIndices == null) {
+            computeChanges();
+        }
+        return changedIndices;
+    }
+
+    /**
+     * Returns the shards whose routing table changed between the previous cluster state and the new cluster state, including the shards
+     * of the indices that were created or removed. A shard whose routing table changed is also included in {@link #changedIndices()}.
+     */
+    public Set<ShardId> changedShards() {
+        if (changedShards == null) {
+            computeChanges();
+        }
+        return changedShards;
+    }
+
+    private void computeChanges() {
+        final Set<Index> indices = new HashSet<>();
+        final Set<ShardId> shards = new HashSet<>();
+        final MetaData metaData = state.metaData();
+        final MetaData previousMetaData = previousState.metaData();
+        if (metaData != previousMetaData) {
+            for (ObjectCursor<IndexMetaData> cursor : metaData.indices().values()) {
+                if (previousMetaData.index(cursor.value.getIndex()) != cursor.value) {
+                    indices.add(cursor.value.getIndex());
+                }
+            }
+            for (ObjectCursor<IndexMetaData> cursor : previousMetaData.indices().values()) {
+                if (metaData.index(cursor.value.getIndex()) == null) {
+                    indices.add(cursor.value.getIndex());
+                }
+            }
+        }
+        final RoutingTable routingTable = state.routingTable();
+        final RoutingTable previousRoutingTable = previousState.routingTable();
+        if (routingTable != previousRoutingTable) {
+            // the master rebuilds the routing tables of all indices on every reroute, so identical tables must be compared by content
+            for (IndexRoutingTable indexRoutingTable : routingTable) {
+                addChangedShards(indexRoutingTable, previousRoutingTable.index(indexRoutingTable.getIndex()), indices, shards);
+            }
+            for (IndexRoutingTable previousIndexRoutingTable : previousRoutingTable) {
+                if (routingTable.hasIndex(previousIndexRoutingTable.getIndex()) == false) {
+                    addChangedShards(previousIndexRoutingTable, null, indices, shards);
+                }
+            }
+        }
+        changedIndices = Collections.unmodifiableSet(indices);
+        changedShards = Collections.unmodifiableSet(shards);
+    }
+
+    private static void addChangedShards(IndexRoutingTable indexRoutingTable, @Nullable IndexRoutingTable otherIndexRoutingTable,
+                                         Set<Index> indices, Set<ShardId> shards) {
+        if (indexRoutingTable == otherIndexRoutingTable) {
+            return;
+        }
+        final boolean sameIndex = otherIndexRoutingTable != null && otherIndexRoutingTable.getIndex().equals(indexRoutingTable.getIndex());
+        for (IndexShardRoutingTable indexShardRoutingTable : indexRoutingTable) {
+            final IndexShardRoutingTable otherIndexShardRoutingTable =
+                sameIndex ? otherIndexRoutingTable.shard(indexShardRoutingTable.shardId().id()) : null;
+            if (indexShardRoutingTable.equals(otherIndexShardRoutingTable) == false) {
+                shards.add(indexShardRoutingTable.shardId());
+                indices.add(indexRoutingTable.getIndex());
+            }
+        }
+        if (sameIndex && otherIndexRoutingTable.shards().size() != indexRoutingTable.shards().size()) {
+            indices.add(indexRoutingTable.getIndex());
+        }
+    }
+
     /**
      * Returns the indices created in this event
      */
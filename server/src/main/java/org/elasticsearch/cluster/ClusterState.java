@@ -55,6 +55,7 @@ import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.VersionedNamedWriteable;
+import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -813,10 +814,18 @@ public class ClusterState implements ToXContentFragment, Diffable<ClusterState>
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
+        writeTo(out, (o, indexMetaData) -> indexMetaData.writeTo(o));
+    }
+
+    /**
+     * Same as {@link #writeTo(StreamOutput)} but writes the metadata of each index with the given writer, see
+     * {@link MetaData#writeTo(StreamOutput, Writeable.Writer)}.
+     */
+    public void writeTo(StreamOutput out, Writeable.Writer<IndexMetaData> indexMetaDataWriter) throws IOException {
         clusterName.writeTo(out);
         out.writeLong(version);
         out.writeString(stateUUID);
-        metaData.writeTo(out);
+        metaData.writeTo(out, indexMetaDataWriter);
         routingTable.writeTo(out);
         nodes.writeTo(out);
         blocks.writeTo(out);
@@ -38,6 +38,16 @@ public interface ClusterStateTaskExecutor<T> {
         return true;
     }
 
+    /**
+     * Indicates whether the tasks of this executor may be executed in the same cluster state update as the tasks of other executors that
+     * also return {@code true}, if enabled by {@code cluster.service.combine_compatible_executors}. The executors are then applied one
+     * after the other to the resulting state of the previous executor and the final state is published once. Executors should only return
+     * {@code true} if they do not rely on being the only executor that contributes to a published state.
+     */
+    default boolean canCombineWithOtherExecutors() {
+        return false;
+    }
+
     /**
      * Callback invoked after new cluster state is published. Note that
      * this method is not invoked if the cluster state was not updated.
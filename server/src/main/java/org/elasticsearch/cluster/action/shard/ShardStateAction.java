@@ -332,6 +332,11 @@ public class ShardStateAction {
             this.prioritySupplier = prioritySupplier;
         }
 
+        @Override
+        public boolean canCombineWithOtherExecutors() {
+            return true;
+        }
+
         @Override
         public ClusterTasksResult<FailedShardEntry> execute(ClusterState currentState, List<FailedShardEntry> tasks) throws Exception {
             ClusterTasksResult.Builder<FailedShardEntry> batchResultBuilder = ClusterTasksResult.builder();
@@ -571,6 +576,11 @@ public class ShardStateAction {
             this.prioritySupplier = prioritySupplier;
         }
 
+        @Override
+        public boolean canCombineWithOtherExecutors() {
+            return true;
+        }
+
         @Override
         public ClusterTasksResult<StartedShardEntry> execute(ClusterState currentState, List<StartedShardEntry> tasks) throws Exception {
             ClusterTasksResult.Builder<StartedShardEntry> builder = ClusterTasksResult.builder();
@@ -0,0 +1,176 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.cluster.coordination;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Stats about the cluster states that this node published while it was the elected master, broken down into the time spent computing
+ * diffs, serializing states and diffs, sending them until the publication was committed and committing them on all nodes.
+ */
+public class ClusterStatePublicationStats implements Writeable, ToXContentObject {
+
+    private final long serializedFullStates;
+    private final long serializedDiffs;
+    private final long computeDiffTimeMillis;
+    private final long serializationTimeMillis;
+    private final long committedPublications;
+    private final long sendTimeMillis;
+    private final long commitTimeMillis;
+    private final int indexMetaDataCacheSize;
+    private final long indexMetaDataCacheHits;
+    private final long indexMetaDataCacheMisses;
+
+    /**
+     * @param serializedFullStates     the number of full cluster states serialized for publication
+     * @param serializedDiffs          the number of cluster state diffs serialized for publication
+     * @param computeDiffTimeMillis    the total time spent computing cluster state diffs
+     * @param serializationTimeMillis  the total time spent serializing full cluster states and diffs
+     * @param committedPublications    the number of publications that were committed
+     * @param sendTimeMillis           the total time from the start of committed publications until they were committed
+     * @param commitTimeMillis         the total time from the commit of publications until all nodes applied the commit or failed
+     * @param indexMetaDataCacheSize   the number of indices whose serialized metadata is currently cached
+     * @param indexMetaDataCacheHits   the number of times the serialized metadata of an index was reused
+     * @param indexMetaDataCacheMisses the number of times the metadata of an index had to be serialized
+     */
+    public ClusterStatePublicationStats(long serializedFullStates, long serializedDiffs, long computeDiffTimeMillis,
+                                        long serializationTimeMillis, long committedPublications, long sendTimeMillis,
+                                        long commitTimeMillis, int indexMetaDataCacheSize, long indexMetaDataCacheHits,
+                                        long indexMetaDataCacheMisses) {
+        this.serializedFullStates = serializedFullStates;
+        this.serializedDiffs = serializedDiffs;
+        this.computeDiffTimeMillis = computeDiffTimeMillis;
+        this.serializationTimeMillis = serializationTimeMillis;
+        this.committedPublications = committedPublications;
+        this.sendTimeMillis = sendTimeMillis;
+        this.commitTimeMillis = commitTimeMillis;
+        this.indexMetaDataCacheSize = indexMetaDataCacheSize;
+        this.indexMetaDataCacheHits = indexMetaDataCacheHits;
+        this.indexMetaDataCacheMisses = indexMetaDataCacheMisses;
+    }
+
+    public ClusterStatePublicationStats(StreamInput in) throws IOException {
+        serializedFullStates = in.readVLong();
+        serializedDiffs = in.readVLong();
+        computeDiffTimeMillis = in.readVLong();
+        serializationTimeMillis = in.readVLong();
+        committedPublications = in.readVLong();
+        sendTimeMillis = in.readVLong();
+        commitTimeMillis = in.readVLong();
+        indexMetaDataCacheSize = in.readVInt();
+        indexMetaDataCacheHits = in.readVLong();
+        indexMetaDataCacheMisses = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(serializedFullStates);
+        out.writeVLong(serializedDiffs);
+        out.writeVLong(computeDiffTimeMillis);
+        out.writeVLong(serializationTimeMillis);
+        out.writeVLong(committedPublications);
+        out.writeVLong(sendTimeMillis);
+        out.writeVLong(commitTimeMillis);
+        out.writeVInt(indexMetaDataCacheSize);
+        out.writeVLong(indexMetaDataCacheHits);
+        out.writeVLong(indexMetaDataCacheMisses);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("cluster_state_publication");
+        {
+            builder.field("serialized_full_states", serializedFullStates);
+            builder.field("serialized_diffs", serializedDiffs);
+            builder.humanReadableField("compute_diff_time_in_millis", "compute_diff_time", new TimeValue(computeDiffTimeMillis));
+            builder.humanReadableField("serialization_time_in_millis", "serialization_time", new TimeValue(serializationTimeMillis));
+            builder.field("committed", committedPublications);
+            builder.humanReadableField("send_time_in_millis", "send_time", new TimeValue(sendTimeMillis));
+            builder.humanReadableField("commit_time_in_millis", "commit_time", new TimeValue(commitTimeMillis));
+            builder.startObject("index_metadata_cache");
+            {
+                builder.field("size", indexMetaDataCacheSize);
+                builder.field("hits", indexMetaDataCacheHits);
+                builder.field("misses", indexMetaDataCacheMisses);
+            }
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    public long getSerializedFullStates() {
+        return serializedFullStates;
+    }
+
+    public long getSerializedDiffs() {
+        return serializedDiffs;
+    }
+
+    public long getComputeDiffTimeMillis() {
+        return computeDiffTimeMillis;
+    }
+
+    public long getSerializationTimeMillis() {
+        return serializationTimeMillis;
+    }
+
+    public long getCommittedPublications() {
+        return committedPublications;
+    }
+
+    public long getSendTimeMillis() {
+        return sendTimeMillis;
+    }
+
+    public long getCommitTimeMillis() {
+        return commitTimeMillis;
+    }
+
+    public int getIndexMetaDataCacheSize() {
+        return indexMetaDataCacheSize;
+    }
+
+    public long getIndexMetaDataCacheHits() {
+        return indexMetaDataCacheHits;
+    }
+
+    public long getIndexMetaDataCacheMisses() {
+        return indexMetaDataCacheMisses;
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterStatePublicationStats(fullStates=" + serializedFullStates
+            + ", diffs=" + serializedDiffs
+            + ", computeDiffTime=" + computeDiffTimeMillis
+            + ", serializationTime=" + serializationTimeMillis
+            + ", committed=" + committedPublications
+            + ", sendTime=" + sendTimeMillis
+            + ", commitTime=" + commitTimeMillis
+            + ")";
+    }
+}
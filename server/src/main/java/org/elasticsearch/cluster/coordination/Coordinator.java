@@ -718,7 +718,8 @@ public class Coordinator extends AbstractLifecycleComponent implements Discovery
 
     @Override
     public DiscoveryStats stats() {
-        return new DiscoveryStats(new PendingClusterStateStats(0, 0, 0), publicationHandler.stats());
+        return new DiscoveryStats(new PendingClusterStateStats(0, 0, 0), publicationHandler.stats(),
+            publicationHandler.publicationStats(), masterService.stats(), clusterApplier.getStats());
     }
 
     @Override
@@ -1351,6 +1352,11 @@ public class Coordinator extends AbstractLifecycleComponent implements Discovery
         protected void onCompletion(boolean committed) {
             assert Thread.holdsLock(mutex) : "Coordinator mutex not held";
 
+            if (committed) {
+                publicationHandler.onPublicationCommitted(getCommitTime() - getStartTime(),
+                    transportService.getThreadPool().relativeTimeInMillis() - getCommitTime());
+            }
+
             localNodeAckEvent.addListener(new ActionListener<Void>() {
                 @Override
                 public void onResponse(Void ignore) {
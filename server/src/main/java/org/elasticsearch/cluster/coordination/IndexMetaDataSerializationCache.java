@@ -0,0 +1,98 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.cluster.coordination;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.Index;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the uncompressed serialized form of each {@link IndexMetaData} of the last published cluster states, per wire version, so that
+ * serializing a full cluster state only has to serialize the indices whose metadata changed since the last time it was serialized.
+ *
+ * {@link IndexMetaData} is immutable and the same instance is carried over to new cluster states until the metadata of the index changes,
+ * at which point its version is incremented. An entry is therefore only reused for the exact instance that it was built from.
+ */
+class IndexMetaDataSerializationCache implements Writeable.Writer<IndexMetaData> {
+
+    private final Map<Index, CachedIndexMetaData> cache = ConcurrentCollections.newConcurrentMap();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Override
+    public void write(StreamOutput out, IndexMetaData indexMetaData) throws IOException {
+        final Version version = out.getVersion();
+        CachedIndexMetaData cached = cache.get(indexMetaData.getIndex());
+        if (cached == null || cached.indexMetaData != indexMetaData) {
+            cached = new CachedIndexMetaData(indexMetaData);
+            cache.put(indexMetaData.getIndex(), cached);
+        }
+        BytesReference bytes = cached.serialized.get(version);
+        if (bytes == null) {
+            misses.incrementAndGet();
+            final BytesStreamOutput bStream = new BytesStreamOutput();
+            bStream.setVersion(version);
+            indexMetaData.writeTo(bStream);
+            bytes = bStream.bytes();
+            cached.serialized.put(version, bytes);
+        } else {
+            hits.incrementAndGet();
+        }
+        bytes.writeTo(out);
+    }
+
+    /**
+     * Drops the entries of indices that were deleted or whose metadata changed in the given metadata.
+     */
+    void retainIndices(MetaData metaData) {
+        cache.values().removeIf(cached -> metaData.index(cached.indexMetaData.getIndex()) != cached.indexMetaData);
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    private static final class CachedIndexMetaData {
+        final IndexMetaData indexMetaData;
+        final Map<Version, BytesReference> serialized = ConcurrentCollections.newConcurrentMap();
+
+        CachedIndexMetaData(IndexMetaData indexMetaData) {
+            this.indexMetaData = indexMetaData;
+        }
+    }
+}
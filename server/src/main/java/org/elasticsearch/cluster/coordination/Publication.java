@@ -50,6 +50,7 @@ public abstract class Publication {
     private final long startTime;
 
     private Optional<ApplyCommitRequest> applyCommitRequest; // set when state is committed
+    private long commitTime; // set when state is committed
     private boolean isCompleted; // set when publication is completed
     private boolean cancelled; // set when publication is cancelled
 
@@ -105,6 +106,21 @@ public abstract class Publication {
         return applyCommitRequest.isPresent();
     }
 
+    /**
+     * @return the time at which this publication started, according to the time supplier of this publication
+     */
+    protected long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return the time at which this publication was committed, according to the time supplier of this publication
+     */
+    protected long getCommitTime() {
+        assert isCommitted() : "publication " + this + " is not committed";
+        return commitTime;
+    }
+
     private void onPossibleCompletion() {
         if (isCompleted) {
             return;
@@ -258,7 +274,8 @@ public abstract class Publication {
                     Publication.this.handlePublishResponse(discoveryNode, publishResponse).ifPresent(applyCommit -> {
                         assert applyCommitRequest.isPresent() == false;
                         applyCommitRequest = Optional.of(applyCommit);
-                        ackListener.onCommit(TimeValue.timeValueMillis(currentTimeSupplier.getAsLong() - startTime));
+                        commitTime = currentTimeSupplier.getAsLong();
+                        ackListener.onCommit(TimeValue.timeValueMillis(commitTime - startTime));
                         publicationTargets.stream().filter(PublicationTarget::isWaitingForQuorum)
                             .forEach(PublicationTarget::sendApplyCommit);
                     });
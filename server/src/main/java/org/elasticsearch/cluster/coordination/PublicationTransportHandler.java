@@ -28,6 +28,7 @@ import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.Diff;
 import org.elasticsearch.cluster.IncompatibleClusterStateVersionException;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.common.bytes.BytesReference;
@@ -38,6 +39,7 @@ import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.discovery.zen.PublishClusterStateAction;
 import org.elasticsearch.discovery.zen.PublishClusterStateStats;
@@ -55,6 +57,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
@@ -84,6 +87,16 @@ public class PublicationTransportHandler {
     private final AtomicLong fullClusterStateReceivedCount = new AtomicLong();
     private final AtomicLong incompatibleClusterStateDiffReceivedCount = new AtomicLong();
     private final AtomicLong compatibleClusterStateDiffReceivedCount = new AtomicLong();
+
+    // master-side stats about the states this node published
+    private final IndexMetaDataSerializationCache indexMetaDataSerializationCache = new IndexMetaDataSerializationCache();
+    private final AtomicLong serializedFullStatesCount = new AtomicLong();
+    private final AtomicLong serializedDiffsCount = new AtomicLong();
+    private final AtomicLong computeDiffTimeNanos = new AtomicLong();
+    private final AtomicLong serializationTimeNanos = new AtomicLong();
+    private final AtomicLong committedPublicationsCount = new AtomicLong();
+    private final AtomicLong sendTimeMillis = new AtomicLong();
+    private final AtomicLong commitTimeMillis = new AtomicLong();
     // -> no need to put a timeout on the options here, because we want the response to eventually be received
     //  and not log an error if it arrives after the timeout
     private final TransportRequestOptions stateRequestOptions = TransportRequestOptions.builder()
@@ -155,6 +168,32 @@ public class PublicationTransportHandler {
             compatibleClusterStateDiffReceivedCount.get());
     }
 
+    public ClusterStatePublicationStats publicationStats() {
+        return new ClusterStatePublicationStats(
+            serializedFullStatesCount.get(),
+            serializedDiffsCount.get(),
+            TimeUnit.NANOSECONDS.toMillis(computeDiffTimeNanos.get()),
+            TimeUnit.NANOSECONDS.toMillis(serializationTimeNanos.get()),
+            committedPublicationsCount.get(),
+            sendTimeMillis.get(),
+            commitTimeMillis.get(),
+            indexMetaDataSerializationCache.size(),
+            indexMetaDataSerializationCache.hits(),
+            indexMetaDataSerializationCache.misses());
+    }
+
+    /**
+     * Records the timings of a committed publication.
+     *
+     * @param sendTimeMillis   the time from the start of the publication until it was committed
+     * @param commitTimeMillis the time from the commit of the publication until it completed on all nodes
+     */
+    void onPublicationCommitted(long sendTimeMillis, long commitTimeMillis) {
+        committedPublicationsCount.incrementAndGet();
+        this.sendTimeMillis.addAndGet(sendTimeMillis);
+        this.commitTimeMillis.addAndGet(commitTimeMillis);
+    }
+
     public interface PublicationContext {
 
         void sendPublishRequest(DiscoveryNode destination, PublishRequest publishRequest,
@@ -173,6 +212,8 @@ public class PublicationTransportHandler {
         final Map<Version, BytesReference> serializedStates = new HashMap<>();
         final Map<Version, BytesReference> serializedDiffs = new HashMap<>();
 
+        indexMetaDataSerializationCache.retainIndices(newState.metaData());
+
         // we build these early as a best effort not to commit in the case of error.
         // sadly this is not water tight as it may that a failed diff based publishing to a node
         // will cause a full serialization based on an older version, which may fail after the
@@ -315,23 +356,28 @@ public class PublicationTransportHandler {
         }
     }
 
-    private static void buildDiffAndSerializeStates(ClusterState clusterState, ClusterState previousState, DiscoveryNodes discoveryNodes,
-                                                    boolean sendFullVersion, Map<Version, BytesReference> serializedStates,
-                                                    Map<Version, BytesReference> serializedDiffs) {
+    private void buildDiffAndSerializeStates(ClusterState clusterState, ClusterState previousState, DiscoveryNodes discoveryNodes,
+                                             boolean sendFullVersion, Map<Version, BytesReference> serializedStates,
+                                             Map<Version, BytesReference> serializedDiffs) {
         Diff<ClusterState> diff = null;
         for (DiscoveryNode node : discoveryNodes) {
             try {
                 if (sendFullVersion || !previousState.nodes().nodeExists(node)) {
                     if (serializedStates.containsKey(node.getVersion()) == false) {
-                        serializedStates.put(node.getVersion(), serializeFullClusterState(clusterState, node.getVersion()));
+                        serializedStates.put(node.getVersion(), serializeFullClusterStateForPublication(clusterState, node.getVersion()));
                     }
                 } else {
                     // will send a diff
                     if (diff == null) {
+                        final long startTimeNanos = System.nanoTime();
                         diff = clusterState.diff(previousState);
+                        computeDiffTimeNanos.addAndGet(System.nanoTime() - startTimeNanos);
                     }
                     if (serializedDiffs.containsKey(node.getVersion()) == false) {
+                        final long startTimeNanos = System.nanoTime();
                         serializedDiffs.put(node.getVersion(), serializeDiffClusterState(diff, node.getVersion()));
+                        serializationTimeNanos.addAndGet(System.nanoTime() - startTimeNanos);
+                        serializedDiffsCount.incrementAndGet();
                     }
                 }
             } catch (IOException e) {
@@ -345,7 +391,7 @@ public class PublicationTransportHandler {
         BytesReference bytes = serializedStates.get(node.getVersion());
         if (bytes == null) {
             try {
-                bytes = serializeFullClusterState(clusterState, node.getVersion());
+                bytes = serializeFullClusterStateForPublication(clusterState, node.getVersion());
                 serializedStates.put(node.getVersion(), bytes);
             } catch (Exception e) {
                 logger.warn(() -> new ParameterizedMessage("failed to serialize cluster state before publishing it to node {}", node), e);
@@ -364,12 +410,25 @@ public class PublicationTransportHandler {
         sendClusterStateToNode(clusterState, bytes, node, responseActionListener, true, serializedStates);
     }
 
+    private BytesReference serializeFullClusterStateForPublication(ClusterState clusterState, Version nodeVersion) throws IOException {
+        final long startTimeNanos = System.nanoTime();
+        final BytesReference bytes = serializeFullClusterState(clusterState, nodeVersion, indexMetaDataSerializationCache);
+        serializationTimeNanos.addAndGet(System.nanoTime() - startTimeNanos);
+        serializedFullStatesCount.incrementAndGet();
+        return bytes;
+    }
+
     public static BytesReference serializeFullClusterState(ClusterState clusterState, Version nodeVersion) throws IOException {
+        return serializeFullClusterState(clusterState, nodeVersion, (out, indexMetaData) -> indexMetaData.writeTo(out));
+    }
+
+    static BytesReference serializeFullClusterState(ClusterState clusterState, Version nodeVersion,
+                                                    Writeable.Writer<IndexMetaData> indexMetaDataWriter) throws IOException {
         final BytesStreamOutput bStream = new BytesStreamOutput();
         try (StreamOutput stream = CompressorFactory.COMPRESSOR.streamOutput(bStream)) {
             stream.setVersion(nodeVersion);
             stream.writeBoolean(true);
-            clusterState.writeTo(stream);
+            clusterState.writeTo(stream, indexMetaDataWriter);
         }
         return bStream.bytes();
     }
@@ -527,6 +527,30 @@ public class IndexMetaData implements Diffable<IndexMetaData>, ToXContentFragmen
         return mappings.get(MapperService.DEFAULT_MAPPING);
     }
 
+    /**
+     * Returns a copy of this index metadata whose mappings are replaced by the equal instances of {@code sharedMappings}, or this index
+     * metadata if it has no such mappings. The mappings of this index that have no equal instance yet are added to {@code sharedMappings}.
+     */
+    IndexMetaData withSharedMappings(Map<MappingMetaData, MappingMetaData> sharedMappings) {
+        ImmutableOpenMap.Builder<String, MappingMetaData> sharedBuilder = null;
+        for (ObjectObjectCursor<String, MappingMetaData> cursor : mappings) {
+            final MappingMetaData shared = sharedMappings.putIfAbsent(cursor.value, cursor.value);
+            if (shared != null && shared != cursor.value) {
+                if (sharedBuilder == null) {
+                    sharedBuilder = ImmutableOpenMap.builder(mappings);
+                }
+                sharedBuilder.put(cursor.key, shared);
+            }
+        }
+        if (sharedBuilder == null) {
+            return this;
+        }
+        return new IndexMetaData(index, version, mappingVersion, settingsVersion, aliasesVersion, primaryTerms, state, numberOfShards,
+            numberOfReplicas, settings, sharedBuilder.build(), aliases, customData, inSyncAllocationIds, requireFilters,
+            initialRecoveryFilters, includeFilters, excludeFilters, indexCreatedVersion, indexUpgradedVersion, routingNumShards,
+            routingPartitionSize, waitForActiveShards, rolloverInfos);
+    }
+
     public static final String INDEX_RESIZE_SOURCE_UUID_KEY = "index.resize.source.uuid";
     public static final String INDEX_RESIZE_SOURCE_NAME_KEY = "index.resize.source.name";
     public static final Setting<String> INDEX_RESIZE_SOURCE_UUID = Setting.simpleString(INDEX_RESIZE_SOURCE_UUID_KEY);
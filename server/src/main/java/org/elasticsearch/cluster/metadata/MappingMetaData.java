@@ -23,7 +23,10 @@ import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.AbstractDiffable;
 import org.elasticsearch.cluster.Diff;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -106,6 +109,12 @@ public class MappingMetaData extends AbstractDiffable<MappingMetaData> {
         initMappers(withoutType);
     }
 
+    private MappingMetaData(String type, CompressedXContent source, Routing routing) {
+        this.type = type;
+        this.source = source;
+        this.routing = routing;
+    }
+
     private void initMappers(Map<String, Object> withoutType) {
         if (withoutType.containsKey("_routing")) {
             boolean required = false;
@@ -225,7 +234,132 @@ public class MappingMetaData extends AbstractDiffable<MappingMetaData> {
         }
     }
 
+    @Override
+    public Diff<MappingMetaData> diff(MappingMetaData previousState) {
+        return new MappingMetaDataDiff(previousState, this);
+    }
+
     public static Diff<MappingMetaData> readDiffFrom(StreamInput in) throws IOException {
-        return readDiffFrom(MappingMetaData::new, in);
+        if (in.getVersion().before(Version.V_7_7_1)) {
+            return readDiffFrom(MappingMetaData::new, in);
+        }
+        return new MappingMetaDataDiff(in);
+    }
+
+    /**
+     * A diff that only carries the bytes of the uncompressed mapping source that changed, between the common prefix and the common
+     * suffix of the previous and the new source. Mapping updates usually add a few fields to a mapping, so this is a small part of
+     * large mappings. Nodes before {@link Version#V_7_7_1} receive the complete mapping instead.
+     */
+    static final class MappingMetaDataDiff implements Diff<MappingMetaData> {
+
+        // only available on the node that computed the diff
+        @Nullable
+        private final MappingMetaData after;
+        private final boolean changed;
+        private final String type;
+        private final boolean routingRequired;
+        private final int beforeHash;
+        private final int afterHash;
+        private final int prefixLength;
+        private final int suffixLength;
+        private final BytesReference changedSource;
+
+        MappingMetaDataDiff(MappingMetaData before, MappingMetaData after) {
+            this.after = after;
+            this.changed = after.equals(before) == false;
+            this.type = after.type();
+            this.routingRequired = after.routing().required();
+            this.beforeHash = before.source().hashCode();
+            this.afterHash = after.source().hashCode();
+            if (changed) {
+                final byte[] beforeSource = before.source().uncompressed();
+                final byte[] afterSource = after.source().uncompressed();
+                final int maxCommonLength = Math.min(beforeSource.length, afterSource.length);
+                int prefix = 0;
+                while (prefix < maxCommonLength && beforeSource[prefix] == afterSource[prefix]) {
+                    prefix++;
+                }
+                int suffix = 0;
+                while (suffix < maxCommonLength - prefix
+                    && beforeSource[beforeSource.length - 1 - suffix] == afterSource[afterSource.length - 1 - suffix]) {
+                    suffix++;
+                }
+                this.prefixLength = prefix;
+                this.suffixLength = suffix;
+                this.changedSource = new BytesArray(afterSource, prefix, afterSource.length - prefix - suffix);
+            } else {
+                this.prefixLength = 0;
+                this.suffixLength = 0;
+                this.changedSource = BytesArray.EMPTY;
+            }
+        }
+
+        MappingMetaDataDiff(StreamInput in) throws IOException {
+            this.after = null;
+            this.changed = in.readBoolean();
+            if (changed) {
+                this.type = in.readString();
+                this.routingRequired = in.readBoolean();
+                this.beforeHash = in.readInt();
+                this.afterHash = in.readInt();
+                this.prefixLength = in.readVInt();
+                this.suffixLength = in.readVInt();
+                this.changedSource = in.readBytesReference();
+            } else {
+                this.type = null;
+                this.routingRequired = false;
+                this.beforeHash = 0;
+                this.afterHash = 0;
+                this.prefixLength = 0;
+                this.suffixLength = 0;
+                this.changedSource = BytesArray.EMPTY;
+            }
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeBoolean(changed);
+            if (out.getVersion().before(Version.V_7_7_1)) {
+                // the format of AbstractDiffable.CompleteDiff
+                if (changed) {
+                    assert after != null : "only the node that computed the diff sends it";
+                    after.writeTo(out);
+                }
+            } else if (changed) {
+                out.writeString(type);
+                out.writeBoolean(routingRequired);
+                out.writeInt(beforeHash);
+                out.writeInt(afterHash);
+                out.writeVInt(prefixLength);
+                out.writeVInt(suffixLength);
+                out.writeBytesReference(changedSource);
+            }
+        }
+
+        @Override
+        public MappingMetaData apply(MappingMetaData part) {
+            if (changed == false) {
+                return part;
+            }
+            if (after != null) {
+                return after;
+            }
+            if (part.source().hashCode() != beforeHash) {
+                throw new IllegalStateException("can't apply the diff of mapping [" + type + "] to a different mapping");
+            }
+            final BytesArray beforeSource = new BytesArray(part.source().uncompressed());
+            final CompressedXContent source;
+            try {
+                source = new CompressedXContent(new CompositeBytesReference(beforeSource.slice(0, prefixLength), changedSource,
+                    beforeSource.slice(beforeSource.length() - suffixLength, suffixLength)));
+            } catch (IOException e) {
+                throw new IllegalStateException("failed to apply the diff of mapping [" + type + "]", e);
+            }
+            if (source.hashCode() != afterHash) {
+                throw new IllegalStateException("applying the diff of mapping [" + type + "] resulted in a different mapping");
+            }
+            return new MappingMetaData(type, source, new Routing(routingRequired));
+        }
     }
 }
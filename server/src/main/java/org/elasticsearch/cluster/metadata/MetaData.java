@@ -45,6 +45,7 @@ import org.elasticsearch.common.collect.HppcMaps;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -996,6 +997,14 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
+        writeTo(out, (o, indexMetaData) -> indexMetaData.writeTo(o));
+    }
+
+    /**
+     * Same as {@link #writeTo(StreamOutput)} but writes the metadata of each index with the given writer. This allows publishing nodes to
+     * reuse the serialized form of indices that did not change since a previous cluster state was serialized.
+     */
+    public void writeTo(StreamOutput out, Writeable.Writer<IndexMetaData> indexMetaDataWriter) throws IOException {
         out.writeLong(version);
         out.writeString(clusterUUID);
         if (out.getVersion().onOrAfter(Version.V_7_0_0)) {
@@ -1011,7 +1020,7 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
         }
         out.writeVInt(indices.size());
         for (IndexMetaData indexMetaData : this) {
-            indexMetaData.writeTo(out);
+            indexMetaDataWriter.write(out, indexMetaData);
         }
         out.writeVInt(templates.size());
         for (ObjectCursor<IndexTemplateMetaData> cursor : templates.values()) {
@@ -1357,6 +1366,21 @@ public class MetaData implements Iterable<IndexMetaData>, Diffable<MetaData>, To
             //    while these datastructures aren't even used.
             // 2) The aliasAndIndexLookup can be updated instead of rebuilding it all the time.
 
+            // indices with identical mappings, like time based indices that are created from the same template, share one instance of
+            // their mapping rather than each holding a copy that was read from the wire. Once shared, the instances are kept by the
+            // builders of later versions of the metadata so that this only rebuilds the metadata of new or updated indices.
+            final Map<MappingMetaData, MappingMetaData> sharedMappings = new HashMap<>();
+            final List<IndexMetaData> withSharedMappings = new ArrayList<>();
+            for (ObjectCursor<IndexMetaData> cursor : indices.values()) {
+                final IndexMetaData indexMetaData = cursor.value.withSharedMappings(sharedMappings);
+                if (indexMetaData != cursor.value) {
+                    withSharedMappings.add(indexMetaData);
+                }
+            }
+            for (IndexMetaData indexMetaData : withSharedMappings) {
+                indices.put(indexMetaData.getIndex().getName(), indexMetaData);
+            }
+
             final Set<String> allIndices = new HashSet<>(indices.size());
             final List<String> visibleIndices = new ArrayList<>();
             final List<String> allOpenIndices = new ArrayList<>();
@@ -284,6 +284,11 @@ public class MetaDataCreateIndexService {
                     return applyCreateIndexRequest(currentState, request);
                 }
 
+                @Override
+                public boolean canCombineWithOtherExecutors() {
+                    return true;
+                }
+
                 @Override
                 public void onFailure(String source, Exception e) {
                     if (e instanceof ResourceAlreadyExistsException) {
@@ -219,6 +219,11 @@ public class MetaDataMappingService {
     }
 
     class PutMappingExecutor implements ClusterStateTaskExecutor<PutMappingClusterStateUpdateRequest> {
+        @Override
+        public boolean canCombineWithOtherExecutors() {
+            return true;
+        }
+
         @Override
         public ClusterTasksResult<PutMappingClusterStateUpdateRequest>
         execute(ClusterState currentState, List<PutMappingClusterStateUpdateRequest> tasks) throws Exception {
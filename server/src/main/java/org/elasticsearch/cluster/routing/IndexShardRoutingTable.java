@@ -29,6 +29,7 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.AdaptiveSelectionRanking;
 import org.elasticsearch.node.ResponseCollectorService;
 
 import java.io.IOException;
@@ -42,6 +43,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.Set;
 
 import static java.util.Collections.emptyMap;
@@ -264,18 +266,29 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
      */
     public ShardIterator activeInitializingShardsRankedIt(@Nullable ResponseCollectorService collector,
                                                           @Nullable Map<String, Long> nodeSearchCounts) {
+        return activeInitializingShardsRankedIt(collector, nodeSearchCounts, AdaptiveSelectionRanking.DEFAULT);
+    }
+
+    /**
+     * Returns an iterator over active and initializing shards, ordered by the given adaptive replica
+     * selection ranking function. Making sure though that its random within the active shards of the same
+     * (or missing) rank, and initializing shards are the last to iterate through.
+     */
+    public ShardIterator activeInitializingShardsRankedIt(@Nullable ResponseCollectorService collector,
+                                                          @Nullable Map<String, Long> nodeSearchCounts,
+                                                          AdaptiveSelectionRanking ranking) {
         final int seed = shuffler.nextSeed();
         if (allInitializingShards.isEmpty()) {
             return new PlainShardIterator(shardId,
-                    rankShardsAndUpdateStats(shuffler.shuffle(activeShards, seed), collector, nodeSearchCounts));
+                    rankShardsAndUpdateStats(shuffler.shuffle(activeShards, seed), collector, nodeSearchCounts, ranking));
         }
 
         ArrayList<ShardRouting> ordered = new ArrayList<>(activeShards.size() + allInitializingShards.size());
         List<ShardRouting> rankedActiveShards =
-                rankShardsAndUpdateStats(shuffler.shuffle(activeShards, seed), collector, nodeSearchCounts);
+                rankShardsAndUpdateStats(shuffler.shuffle(activeShards, seed), collector, nodeSearchCounts, ranking);
         ordered.addAll(rankedActiveShards);
         List<ShardRouting> rankedInitializingShards =
-                rankShardsAndUpdateStats(allInitializingShards, collector, nodeSearchCounts);
+                rankShardsAndUpdateStats(allInitializingShards, collector, nodeSearchCounts, ranking);
         ordered.addAll(rankedInitializingShards);
         return new PlainShardIterator(shardId, ordered);
     }
@@ -299,13 +312,20 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
     }
 
     private static Map<String, Double> rankNodes(final Map<String, Optional<ResponseCollectorService.ComputedNodeStats>> nodeStats,
-                                                 final Map<String, Long> nodeSearchCounts) {
+                                                 final Map<String, Long> nodeSearchCounts,
+                                                 final ResponseCollectorService collector,
+                                                 final ShardId shardId,
+                                                 final AdaptiveSelectionRanking ranking) {
         final Map<String, Double> nodeRanks = new HashMap<>(nodeStats.size());
         for (Map.Entry<String, Optional<ResponseCollectorService.ComputedNodeStats>> entry : nodeStats.entrySet()) {
             Optional<ResponseCollectorService.ComputedNodeStats> maybeStats = entry.getValue();
             maybeStats.ifPresent(stats -> {
                 final String nodeId = entry.getKey();
-                nodeRanks.put(nodeId, stats.rank(nodeSearchCounts.getOrDefault(nodeId, 1L)));
+                final long outstandingRequests = nodeSearchCounts.getOrDefault(nodeId, 1L);
+                final double shardServiceTime = ranking.getMode() == AdaptiveSelectionRanking.Mode.SHARD
+                    ? collector.getShardServiceTime(nodeId, shardId).orElse(-1)
+                    : -1;
+                nodeRanks.put(nodeId, stats.rank(ranking, outstandingRequests, shardServiceTime));
             });
         }
         return nodeRanks;
@@ -341,8 +361,31 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
         }
     }
 
+    /**
+     * Like {@link #adjustStats} but for the service time of the copies of the shard, which are otherwise only updated by the requests
+     * for the shard, so that the copy on a node that used to be hot for this shard eventually gets requests again.
+     */
+    private static void adjustShardStats(final ResponseCollectorService collector,
+                                         final Set<String> nodeIds,
+                                         final ShardId shardId,
+                                         final String minNodeId) {
+        final OptionalDouble minServiceTime = collector.getShardServiceTime(minNodeId, shardId);
+        if (minServiceTime.isPresent()) {
+            for (String nodeId : nodeIds) {
+                if (nodeId.equals(minNodeId) == false) {
+                    final OptionalDouble serviceTime = collector.getShardServiceTime(nodeId, shardId);
+                    if (serviceTime.isPresent()) {
+                        final long updatedService = (long) (minServiceTime.getAsDouble() + serviceTime.getAsDouble()) / 2;
+                        collector.addShardStatistics(nodeId, shardId, updatedService);
+                    }
+                }
+            }
+        }
+    }
+
     private static List<ShardRouting> rankShardsAndUpdateStats(List<ShardRouting> shards, final ResponseCollectorService collector,
-                                                               final Map<String, Long> nodeSearchCounts) {
+                                                               final Map<String, Long> nodeSearchCounts,
+                                                               final AdaptiveSelectionRanking ranking) {
         if (collector == null || nodeSearchCounts == null || shards.size() <= 1) {
             return shards;
         }
@@ -352,7 +395,8 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
         final Map<String, Optional<ResponseCollectorService.ComputedNodeStats>> nodeStats = getNodeStats(nodeIds, collector);
 
         // Retrieve all the nodes the shards exist on
-        final Map<String, Double> nodeRanks = rankNodes(nodeStats, nodeSearchCounts);
+        final ShardId shardId = shards.get(0).shardId();
+        final Map<String, Double> nodeRanks = rankNodes(nodeStats, nodeSearchCounts, collector, shardId, ranking);
 
         // sort all shards based on the shard rank
         ArrayList<ShardRouting> sortedShards = new ArrayList<>(shards);
@@ -368,6 +412,9 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
                 Optional<ResponseCollectorService.ComputedNodeStats> maybeMinStats = nodeStats.get(minNodeId);
                 if (maybeMinStats.isPresent()) {
                     adjustStats(collector, nodeStats, minNodeId, maybeMinStats.get());
+                    if (ranking.getMode() == AdaptiveSelectionRanking.Mode.SHARD) {
+                        adjustShardStats(collector, nodeIds, shardId, minNodeId);
+                    }
                     // Increase the number of searches for the "winning" node by one.
                     // Note that this doesn't actually affect the "real" counts, instead
                     // it only affects the captured node search counts, which is
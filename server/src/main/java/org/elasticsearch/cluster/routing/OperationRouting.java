@@ -33,6 +33,7 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.AdaptiveSelectionRanking;
 import org.elasticsearch.node.ResponseCollectorService;
 
 import java.util.ArrayList;
@@ -51,6 +52,19 @@ public class OperationRouting {
     public static final Setting<Boolean> USE_ADAPTIVE_REPLICA_SELECTION_SETTING =
             Setting.boolSetting("cluster.routing.use_adaptive_replica_selection", true,
                     Setting.Property.Dynamic, Setting.Property.NodeScope);
+    public static final Setting<AdaptiveSelectionRanking.Mode> ADAPTIVE_REPLICA_SELECTION_RANKING_SETTING =
+            new Setting<>("cluster.routing.adaptive_replica_selection.ranking", "node", AdaptiveSelectionRanking.Mode::fromString,
+                    Setting.Property.Dynamic, Setting.Property.NodeScope);
+    public static final Setting<Integer> ADAPTIVE_REPLICA_SELECTION_QUEUE_ADJUSTMENT_FACTOR_SETTING =
+            Setting.intSetting("cluster.routing.adaptive_replica_selection.queue_adjustment_factor",
+                    AdaptiveSelectionRanking.DEFAULT_QUEUE_ADJUSTMENT_FACTOR, 1, 10, Setting.Property.Dynamic, Setting.Property.NodeScope);
+    public static final Setting<Double> ADAPTIVE_REPLICA_SELECTION_SHARD_SERVICE_TIME_WEIGHT_SETTING =
+            Setting.doubleSetting("cluster.routing.adaptive_replica_selection.shard_service_time_weight",
+                    AdaptiveSelectionRanking.DEFAULT_SHARD_SERVICE_TIME_WEIGHT, 0.0, 1.0,
+                    Setting.Property.Dynamic, Setting.Property.NodeScope);
+    public static final Setting<Double> ADAPTIVE_REPLICA_SELECTION_LOAD_WEIGHT_SETTING =
+            Setting.doubleSetting("cluster.routing.adaptive_replica_selection.load_weight",
+                    AdaptiveSelectionRanking.DEFAULT_LOAD_WEIGHT, 0.0, Setting.Property.Dynamic, Setting.Property.NodeScope);
 
     private static final DeprecationLogger deprecationLogger = new DeprecationLogger(LogManager.getLogger(OperationRouting.class));
     private static final String IGNORE_AWARENESS_ATTRIBUTES_PROPERTY = "es.search.ignore_awareness_attributes";
@@ -60,6 +74,7 @@ public class OperationRouting {
 
     private List<String> awarenessAttributes;
     private boolean useAdaptiveReplicaSelection;
+    private volatile AdaptiveSelectionRanking adaptiveSelectionRanking;
 
     public OperationRouting(Settings settings, ClusterSettings clusterSettings) {
         // whether to ignore awareness attributes when routing requests
@@ -77,12 +92,27 @@ public class OperationRouting {
 
         this.useAdaptiveReplicaSelection = USE_ADAPTIVE_REPLICA_SELECTION_SETTING.get(settings);
         clusterSettings.addSettingsUpdateConsumer(USE_ADAPTIVE_REPLICA_SELECTION_SETTING, this::setUseAdaptiveReplicaSelection);
+        setAdaptiveSelectionRanking(settings);
+        clusterSettings.addSettingsUpdateConsumer(this::setAdaptiveSelectionRanking,
+            Arrays.asList(ADAPTIVE_REPLICA_SELECTION_RANKING_SETTING, ADAPTIVE_REPLICA_SELECTION_QUEUE_ADJUSTMENT_FACTOR_SETTING,
+                ADAPTIVE_REPLICA_SELECTION_SHARD_SERVICE_TIME_WEIGHT_SETTING, ADAPTIVE_REPLICA_SELECTION_LOAD_WEIGHT_SETTING));
     }
 
     void setUseAdaptiveReplicaSelection(boolean useAdaptiveReplicaSelection) {
         this.useAdaptiveReplicaSelection = useAdaptiveReplicaSelection;
     }
 
+    private void setAdaptiveSelectionRanking(Settings settings) {
+        this.adaptiveSelectionRanking = new AdaptiveSelectionRanking(ADAPTIVE_REPLICA_SELECTION_RANKING_SETTING.get(settings),
+            ADAPTIVE_REPLICA_SELECTION_QUEUE_ADJUSTMENT_FACTOR_SETTING.get(settings),
+            ADAPTIVE_REPLICA_SELECTION_SHARD_SERVICE_TIME_WEIGHT_SETTING.get(settings),
+            ADAPTIVE_REPLICA_SELECTION_LOAD_WEIGHT_SETTING.get(settings));
+    }
+
+    AdaptiveSelectionRanking getAdaptiveSelectionRanking() {
+        return adaptiveSelectionRanking;
+    }
+
     List<String> getAwarenessAttributes() {
         return awarenessAttributes;
     }
@@ -245,7 +275,7 @@ public class OperationRouting {
             @Nullable ResponseCollectorService collectorService, @Nullable Map<String, Long> nodeCounts) {
         if (awarenessAttributes.isEmpty()) {
             if (useAdaptiveReplicaSelection) {
-                return indexShard.activeInitializingShardsRankedIt(collectorService, nodeCounts);
+                return indexShard.activeInitializingShardsRankedIt(collectorService, nodeCounts, adaptiveSelectionRanking);
             } else {
                 return indexShard.activeInitializingShardsRandomIt();
             }
@@ -51,6 +51,7 @@ import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.gateway.PriorityComparator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -246,6 +247,12 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private final float avgShardsPerNode;
         private final NodeSorter sorter;
 
+        // the nodes that hold shards of each index and the nodes sorted by their number of shards, used to compute the weight delta of
+        // an index without computing the weights of all nodes, see #indexWeightDelta(String)
+        private Map<String, List<ModelNode>> nodesByIndex;
+        private ModelNode[] nodesByNumShards;
+        private boolean nodesByNumShardsSorted;
+
         public Balancer(Logger logger, RoutingAllocation allocation, WeightFunction weight, float threshold) {
             this.logger = logger;
             this.allocation = allocation;
@@ -467,6 +474,11 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             final ModelNode[] modelNodes = sorter.modelNodes;
             final float[] weights = sorter.weights;
             for (String index : buildWeightOrderedIndices()) {
+                if (lessThan(indexWeightDelta(index), threshold)) {
+                    // no pair of nodes exceeds the threshold so there is nothing to relocate, skip the costly search for relevant nodes
+                    continue;
+                }
+
                 IndexMetaData indexMetaData = metaData.index(index);
 
                 // find nodes that have a shard of this index or where shards of this index are allowed to be allocated to,
@@ -584,9 +596,9 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private String[] buildWeightOrderedIndices() {
             final String[] indices = allocation.routingTable().indicesRouting().keys().toArray(String.class);
             final float[] deltas = new float[indices.length];
+            buildNodesByIndex();
             for (int i = 0; i < deltas.length; i++) {
-                sorter.reset(indices[i]);
-                deltas[i] = sorter.delta();
+                deltas[i] = indexWeightDelta(indices[i]);
             }
             new IntroSorter() {
 
@@ -621,6 +633,68 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return indices;
         }
 
+        private void buildNodesByIndex() {
+            nodesByIndex = new HashMap<>();
+            for (ModelNode node : nodes.values()) {
+                for (ModelIndex index : node) {
+                    nodesByIndex.computeIfAbsent(index.getIndexId(), k -> new ArrayList<>()).add(node);
+                }
+            }
+            nodesByNumShards = nodesArray();
+            nodesByNumShardsSorted = false;
+        }
+
+        /**
+         * Returns the delta between the maximum and the minimum weight of all nodes with respect to the given index. Only the nodes that
+         * hold shards of the index need to be weighed individually, because the weight of the other nodes only depends on their total
+         * number of shards, so that the lightest and heaviest of them are the first and last nodes by number of shards that do not hold a
+         * shard of the index. This makes the cost proportional to the number of shards of the index rather than the number of nodes.
+         */
+        private float indexWeightDelta(String index) {
+            if (nodesByNumShardsSorted == false) {
+                Arrays.sort(nodesByNumShards, Comparator.comparingInt(ModelNode::numShards));
+                nodesByNumShardsSorted = true;
+            }
+            float minWeight = Float.POSITIVE_INFINITY;
+            float maxWeight = Float.NEGATIVE_INFINITY;
+            for (ModelNode node : nodesByIndex.getOrDefault(index, Collections.emptyList())) {
+                final float nodeWeight = weight.weight(this, node, index);
+                minWeight = Math.min(minWeight, nodeWeight);
+                maxWeight = Math.max(maxWeight, nodeWeight);
+            }
+            for (ModelNode node : nodesByNumShards) {
+                if (node.getIndex(index) == null) {
+                    minWeight = Math.min(minWeight, weight.weight(this, node, index));
+                    break;
+                }
+            }
+            for (int i = nodesByNumShards.length - 1; i >= 0; i--) {
+                if (nodesByNumShards[i].getIndex(index) == null) {
+                    maxWeight = Math.max(maxWeight, weight.weight(this, nodesByNumShards[i], index));
+                    break;
+                }
+            }
+            return maxWeight - minWeight;
+        }
+
+        /**
+         * Updates the nodes by index and the order of the nodes by number of shards after a shard of the given index was relocated on the
+         * model.
+         */
+        private void onRelocatedShard(ModelNode fromNode, ModelNode toNode, String index) {
+            if (nodesByIndex == null) {
+                return;
+            }
+            final List<ModelNode> indexNodes = nodesByIndex.computeIfAbsent(index, k -> new ArrayList<>());
+            if (fromNode.getIndex(index) == null) {
+                indexNodes.remove(fromNode);
+            }
+            if (indexNodes.contains(toNode) == false) {
+                indexNodes.add(toNode);
+            }
+            nodesByNumShardsSorted = false;
+        }
+
         /**
          * Move started shards that can not be allocated to a node anymore
          *
@@ -1016,12 +1090,14 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                         /* only allocate on the cluster if we are not throttled */
                         logger.debug("Relocate [{}] from [{}] to [{}]", shard, maxNode.getNodeId(), minNode.getNodeId());
                         minNode.addShard(routingNodes.relocateShard(shard, minNode.getNodeId(), shardSize, allocation.changes()).v1());
+                        onRelocatedShard(maxNode, minNode, idx);
                         return true;
                     } else {
                         /* allocate on the model even if throttled */
                         logger.debug("Simulate relocation of [{}] from [{}] to [{}]", shard, maxNode.getNodeId(), minNode.getNodeId());
                         assert decision.type() == Type.THROTTLE;
                         minNode.addShard(shard.relocate(minNode.getNodeId(), shardSize));
+                        onRelocatedShard(maxNode, minNode, idx);
                         return false;
                     }
                 }
@@ -1223,9 +1299,5 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         protected int comparePivot(int j) {
             return Float.compare(pivotWeight, weights[j]);
         }
-
-        public float delta() {
-            return weights[weights.length - 1] - weights[0];
-        }
     }
 }
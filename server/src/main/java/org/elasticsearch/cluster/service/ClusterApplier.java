@@ -21,6 +21,7 @@ package org.elasticsearch.cluster.service;
 
 import org.elasticsearch.cluster.ClusterState;
 
+import java.util.Collections;
 import java.util.function.Supplier;
 
 public interface ClusterApplier {
@@ -39,6 +40,13 @@ public interface ClusterApplier {
      */
     void onNewClusterState(String source, Supplier<ClusterState> clusterStateSupplier, ClusterApplyListener listener);
 
+    /**
+     * @return stats about the time spent applying cluster states, by applier and listener. Empty unless the implementation records them.
+     */
+    default ClusterApplierStats getStats() {
+        return new ClusterApplierStats(Collections.emptyList());
+    }
+
     /**
      * Listener for results of cluster state application
      */
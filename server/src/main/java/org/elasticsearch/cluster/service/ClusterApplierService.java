@@ -38,6 +38,7 @@ import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
@@ -50,11 +51,14 @@ import org.elasticsearch.common.util.iterable.Iterables;
 import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -105,6 +109,9 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
 
     private final AtomicReference<ClusterState> state; // last applied state
 
+    // time spent in each applier and listener, by name
+    private final Map<String, MeanMetric> recordings = ConcurrentCollections.newConcurrentMap();
+
     private final String nodeName;
 
     private NodeConnectionsService nodeConnectionsService;
@@ -513,7 +520,7 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
     private void callClusterStateAppliers(ClusterChangedEvent clusterChangedEvent, StopWatch stopWatch) {
         clusterStateAppliers.forEach(applier -> {
             logger.trace("calling [{}] with change to version [{}]", applier, clusterChangedEvent.state().version());
-            try (Releasable ignored = stopWatch.timing("running applier [" + applier + "]")) {
+            try (Releasable ignored = recordTiming(stopWatch, "running applier [" + applier + "]", applier)) {
                 applier.applyClusterState(clusterChangedEvent);
             }
         });
@@ -523,7 +530,7 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         Stream.concat(clusterStateListeners.stream(), timeoutClusterStateListeners.stream()).forEach(listener -> {
             try {
                 logger.trace("calling [{}] with change to version [{}]", listener, clusterChangedEvent.state().version());
-                try (Releasable ignored = stopWatch.timing("notifying listener [" + listener + "]")) {
+                try (Releasable ignored = recordTiming(stopWatch, "notifying listener [" + listener + "]", listener)) {
                     listener.clusterChanged(clusterChangedEvent);
                 }
             } catch (Exception ex) {
@@ -532,6 +539,36 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         });
     }
 
+    private Releasable recordTiming(StopWatch stopWatch, String description, Object applierOrListener) {
+        final Releasable timing = stopWatch.timing(description);
+        final long startTimeNanos = System.nanoTime();
+        return () -> {
+            timing.close();
+            recordings.computeIfAbsent(getRecordingName(applierOrListener), k -> new MeanMetric())
+                .inc(System.nanoTime() - startTimeNanos);
+        };
+    }
+
+    /**
+     * Appliers and listeners are recorded by their class name, without the generated suffix of lambdas so that all the lambdas of a class
+     * are recorded together.
+     */
+    static String getRecordingName(Object applierOrListener) {
+        final String className = applierOrListener.getClass().getName();
+        final int lambdaIndex = className.indexOf("$$Lambda");
+        return lambdaIndex == -1 ? className : className.substring(0, lambdaIndex);
+    }
+
+    @Override
+    public ClusterApplierStats getStats() {
+        final List<ClusterApplierStats.Recording> stats = new ArrayList<>(recordings.size());
+        recordings.forEach((name, metric) ->
+            stats.add(new ClusterApplierStats.Recording(name, metric.count(), TimeUnit.NANOSECONDS.toMillis(metric.sum()))));
+        stats.sort(Comparator.comparingLong(ClusterApplierStats.Recording::getExecutionTimeMillis).reversed()
+            .thenComparing(ClusterApplierStats.Recording::getName));
+        return new ClusterApplierStats(stats);
+    }
+
     private static class SafeClusterApplyListener implements ClusterApplyListener {
         private final ClusterApplyListener listener;
         private final Logger logger;
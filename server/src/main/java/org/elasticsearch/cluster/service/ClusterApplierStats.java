@@ -0,0 +1,132 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stats about the time that the appliers and listeners of the cluster applier service spent processing cluster state updates, so that
+ * slow appliers can be identified. The recordings are sorted by their cumulative execution time, the slowest first.
+ */
+public class ClusterApplierStats implements Writeable, ToXContentFragment {
+
+    private final List<Recording> recordings;
+
+    public ClusterApplierStats(List<Recording> recordings) {
+        this.recordings = Collections.unmodifiableList(recordings);
+    }
+
+    public ClusterApplierStats(StreamInput in) throws IOException {
+        this(in.readList(Recording::new));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeList(recordings);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("cluster_applier_stats");
+        builder.startArray("recordings");
+        for (Recording recording : recordings) {
+            recording.toXContent(builder, params);
+        }
+        builder.endArray();
+        builder.endObject();
+        return builder;
+    }
+
+    public List<Recording> getRecordings() {
+        return recordings;
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterApplierStats(" + recordings + ")";
+    }
+
+    public static class Recording implements Writeable, ToXContentObject {
+
+        private final String name;
+        private final long executionCount;
+        private final long executionTimeMillis;
+
+        /**
+         * @param name                the name of the applier or listener, usually its class name
+         * @param executionCount      the number of times the applier or listener was called
+         * @param executionTimeMillis the total time spent in the applier or listener
+         */
+        public Recording(String name, long executionCount, long executionTimeMillis) {
+            this.name = Objects.requireNonNull(name);
+            this.executionCount = executionCount;
+            this.executionTimeMillis = executionTimeMillis;
+        }
+
+        public Recording(StreamInput in) throws IOException {
+            this(in.readString(), in.readVLong(), in.readVLong());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(name);
+            out.writeVLong(executionCount);
+            out.writeVLong(executionTimeMillis);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("name", name);
+            builder.field("cumulative_execution_count", executionCount);
+            builder.humanReadableField("cumulative_execution_time_millis", "cumulative_execution_time",
+                new TimeValue(executionTimeMillis));
+            builder.endObject();
+            return builder;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getExecutionCount() {
+            return executionCount;
+        }
+
+        public long getExecutionTimeMillis() {
+            return executionTimeMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "Recording(" + name + ", count=" + executionCount + ", time=" + executionTimeMillis + ")";
+        }
+    }
+}
@@ -42,11 +42,14 @@ import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.ExponentialBucketHistogram;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
@@ -60,10 +63,12 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -77,6 +82,18 @@ public class MasterService extends AbstractLifecycleComponent {
         Setting.positiveTimeSetting("cluster.service.slow_master_task_logging_threshold", TimeValue.timeValueSeconds(10),
             Setting.Property.Dynamic, Setting.Property.NodeScope);
 
+    public static final Setting<Boolean> MASTER_SERVICE_COMBINE_COMPATIBLE_EXECUTORS_SETTING =
+        Setting.boolSetting("cluster.service.combine_compatible_executors", false,
+            Setting.Property.Dynamic, Setting.Property.NodeScope);
+
+    public static final Setting<TimeValue> MASTER_SERVICE_TASK_QUEUE_SLO_SETTING =
+        Setting.timeSetting("cluster.service.master_task_queue_slo", TimeValue.MINUS_ONE, TimeValue.MINUS_ONE,
+            Setting.Property.Dynamic, Setting.Property.NodeScope);
+
+    // the number of distinct task sources for which queue times are tracked, the queue times of other sources are tracked together
+    static final int MAX_TRACKED_TASK_SOURCES = 100;
+    static final String OTHER_TASK_SOURCES = "_other";
+
     static final String MASTER_UPDATE_THREAD_NAME = "masterService#updateTask";
 
     ClusterStatePublisher clusterStatePublisher;
@@ -86,6 +103,12 @@ public class MasterService extends AbstractLifecycleComponent {
     private java.util.function.Supplier<ClusterState> clusterStateSupplier;
 
     private volatile TimeValue slowTaskLoggingThreshold;
+    private volatile boolean combineCompatibleExecutors;
+    private volatile TimeValue taskQueueSlo;
+
+    private final Map<String, ExponentialBucketHistogram> queueTimeHistograms = ConcurrentCollections.newConcurrentMap();
+    private final CounterMetric combinedUpdates = new CounterMetric();
+    private final CounterMetric boostedTasks = new CounterMetric();
 
     protected final ThreadPool threadPool;
 
@@ -98,6 +121,12 @@ public class MasterService extends AbstractLifecycleComponent {
         this.slowTaskLoggingThreshold = MASTER_SERVICE_SLOW_TASK_LOGGING_THRESHOLD_SETTING.get(settings);
         clusterSettings.addSettingsUpdateConsumer(MASTER_SERVICE_SLOW_TASK_LOGGING_THRESHOLD_SETTING, this::setSlowTaskLoggingThreshold);
 
+        this.combineCompatibleExecutors = MASTER_SERVICE_COMBINE_COMPATIBLE_EXECUTORS_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(MASTER_SERVICE_COMBINE_COMPATIBLE_EXECUTORS_SETTING, this::setCombineCompatibleExecutors);
+
+        this.taskQueueSlo = MASTER_SERVICE_TASK_QUEUE_SLO_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(MASTER_SERVICE_TASK_QUEUE_SLO_SETTING, this::setTaskQueueSlo);
+
         this.threadPool = threadPool;
     }
 
@@ -105,6 +134,14 @@ public class MasterService extends AbstractLifecycleComponent {
         this.slowTaskLoggingThreshold = slowTaskLoggingThreshold;
     }
 
+    private void setCombineCompatibleExecutors(boolean combineCompatibleExecutors) {
+        this.combineCompatibleExecutors = combineCompatibleExecutors;
+    }
+
+    private void setTaskQueueSlo(TimeValue taskQueueSlo) {
+        this.taskQueueSlo = taskQueueSlo;
+    }
+
     public synchronized void setClusterStatePublisher(ClusterStatePublisher publisher) {
         clusterStatePublisher = publisher;
     }
@@ -148,7 +185,31 @@ public class MasterService extends AbstractLifecycleComponent {
         protected void run(Object batchingKey, List<? extends BatchedTask> tasks, String tasksSummary) {
             ClusterStateTaskExecutor<Object> taskExecutor = (ClusterStateTaskExecutor<Object>) batchingKey;
             List<UpdateTask> updateTasks = (List<UpdateTask>) tasks;
-            runTasks(new TaskInputs(taskExecutor, updateTasks, tasksSummary));
+            onTasksStarted(updateTasks);
+            runTasks(new TaskInputs(Collections.singletonMap(taskExecutor, updateTasks), tasksSummary));
+        }
+
+        @Override
+        protected boolean canCombine(Object batchingKey, Object otherBatchingKey) {
+            final ClusterStateTaskExecutor<?> executor = (ClusterStateTaskExecutor<?>) batchingKey;
+            final ClusterStateTaskExecutor<?> otherExecutor = (ClusterStateTaskExecutor<?>) otherBatchingKey;
+            return combineCompatibleExecutors
+                && executor != otherExecutor
+                && executor.canCombineWithOtherExecutors()
+                && otherExecutor.canCombineWithOtherExecutors()
+                && executor.runOnlyOnMaster() == otherExecutor.runOnlyOnMaster();
+        }
+
+        @Override
+        protected void runCombined(Map<Object, List<BatchedTask>> tasksPerBatchingKey, String tasksSummary) {
+            final Map<ClusterStateTaskExecutor<Object>, List<UpdateTask>> updateTasksByExecutor = new LinkedHashMap<>();
+            for (Map.Entry<Object, List<BatchedTask>> entry : tasksPerBatchingKey.entrySet()) {
+                final List<UpdateTask> updateTasks = (List<UpdateTask>) (List<?>) entry.getValue();
+                onTasksStarted(updateTasks);
+                updateTasksByExecutor.put((ClusterStateTaskExecutor<Object>) entry.getKey(), updateTasks);
+            }
+            combinedUpdates.inc();
+            runTasks(new TaskInputs(updateTasksByExecutor, tasksSummary));
         }
 
         class UpdateTask extends BatchedTask {
@@ -422,7 +483,9 @@ public class MasterService extends AbstractLifecycleComponent {
         }
 
         void clusterStatePublished(ClusterChangedEvent clusterChangedEvent) {
-            taskInputs.executor.clusterStatePublished(clusterChangedEvent);
+            for (ClusterStateTaskExecutor<Object> executor : taskInputs.updateTasksByExecutor.keySet()) {
+                executor.clusterStatePublished(clusterChangedEvent);
+            }
         }
 
         Discovery.AckListener createAckListener(ThreadPool threadPool, ClusterState newClusterState) {
@@ -696,10 +759,36 @@ public class MasterService extends AbstractLifecycleComponent {
     }
 
     private ClusterTasksResult<Object> executeTasks(TaskInputs taskInputs, ClusterState previousClusterState) {
+        if (taskInputs.updateTasksByExecutor.size() == 1) {
+            final Map.Entry<ClusterStateTaskExecutor<Object>, List<Batcher.UpdateTask>> entry =
+                taskInputs.updateTasksByExecutor.entrySet().iterator().next();
+            return executeTasks(entry.getKey(), entry.getValue(), taskInputs.summary, previousClusterState);
+        }
+
+        // combined executors are applied one after the other, each to the state resulting from the previous one
+        ClusterState currentState = previousClusterState;
+        final ClusterTasksResult.Builder<Object> builder = ClusterTasksResult.builder();
+        for (Map.Entry<ClusterStateTaskExecutor<Object>, List<Batcher.UpdateTask>> entry : taskInputs.updateTasksByExecutor.entrySet()) {
+            final ClusterTasksResult<Object> clusterTasksResult =
+                executeTasks(entry.getKey(), entry.getValue(), taskInputs.summary, currentState);
+            for (Map.Entry<Object, ClusterStateTaskExecutor.TaskResult> result : clusterTasksResult.executionResults.entrySet()) {
+                if (result.getValue().isSuccess()) {
+                    builder.success(result.getKey());
+                } else {
+                    builder.failure(result.getKey(), result.getValue().getFailure());
+                }
+            }
+            currentState = clusterTasksResult.resultingState;
+        }
+        return builder.build(currentState);
+    }
+
+    private ClusterTasksResult<Object> executeTasks(ClusterStateTaskExecutor<Object> executor, List<Batcher.UpdateTask> updateTasks,
+                                                    String summary, ClusterState previousClusterState) {
         ClusterTasksResult<Object> clusterTasksResult;
         try {
-            List<Object> inputs = taskInputs.updateTasks.stream().map(tUpdateTask -> tUpdateTask.task).collect(Collectors.toList());
-            clusterTasksResult = taskInputs.executor.execute(previousClusterState, inputs);
+            List<Object> inputs = updateTasks.stream().map(tUpdateTask -> tUpdateTask.task).collect(Collectors.toList());
+            clusterTasksResult = executor.execute(previousClusterState, inputs);
             if (previousClusterState != clusterTasksResult.resultingState &&
                 previousClusterState.nodes().isLocalNodeElectedMaster() &&
                 (clusterTasksResult.resultingState.nodes().isLocalNodeElectedMaster() == false)) {
@@ -710,23 +799,23 @@ public class MasterService extends AbstractLifecycleComponent {
                     "failed to execute cluster state update (on version: [{}], uuid: [{}]) for [{}]\n{}{}{}",
                     previousClusterState.version(),
                     previousClusterState.stateUUID(),
-                    taskInputs.summary,
+                    summary,
                     previousClusterState.nodes(),
                     previousClusterState.routingTable(),
                     previousClusterState.getRoutingNodes()), // may be expensive => construct message lazily
                 e);
             clusterTasksResult = ClusterTasksResult.builder()
-                .failures(taskInputs.updateTasks.stream().map(updateTask -> updateTask.task)::iterator, e)
+                .failures(updateTasks.stream().map(updateTask -> updateTask.task)::iterator, e)
                 .build(previousClusterState);
         }
 
         assert clusterTasksResult.executionResults != null;
-        assert clusterTasksResult.executionResults.size() == taskInputs.updateTasks.size()
-            : String.format(Locale.ROOT, "expected [%d] task result%s but was [%d]", taskInputs.updateTasks.size(),
-            taskInputs.updateTasks.size() == 1 ? "" : "s", clusterTasksResult.executionResults.size());
+        assert clusterTasksResult.executionResults.size() == updateTasks.size()
+            : String.format(Locale.ROOT, "expected [%d] task result%s but was [%d]", updateTasks.size(),
+            updateTasks.size() == 1 ? "" : "s", clusterTasksResult.executionResults.size());
         if (Assertions.ENABLED) {
             ClusterTasksResult<Object> finalClusterTasksResult = clusterTasksResult;
-            taskInputs.updateTasks.forEach(updateTask -> {
+            updateTasks.forEach(updateTask -> {
                 assert finalClusterTasksResult.executionResults.containsKey(updateTask.task) :
                     "missing task result for " + updateTask;
             });
@@ -746,21 +835,25 @@ public class MasterService extends AbstractLifecycleComponent {
     }
 
     /**
-     * Represents a set of tasks to be processed together with their executor
+     * Represents a set of tasks to be processed together with their executors. There is more than one executor only if compatible
+     * executors are combined, see {@link #MASTER_SERVICE_COMBINE_COMPATIBLE_EXECUTORS_SETTING}.
      */
     private class TaskInputs {
         final String summary;
         final List<Batcher.UpdateTask> updateTasks;
-        final ClusterStateTaskExecutor<Object> executor;
+        final Map<ClusterStateTaskExecutor<Object>, List<Batcher.UpdateTask>> updateTasksByExecutor;
 
-        TaskInputs(ClusterStateTaskExecutor<Object> executor, List<Batcher.UpdateTask> updateTasks, String summary) {
+        TaskInputs(Map<ClusterStateTaskExecutor<Object>, List<Batcher.UpdateTask>> updateTasksByExecutor, String summary) {
+            assert updateTasksByExecutor.isEmpty() == false;
+            assert updateTasksByExecutor.keySet().stream().map(ClusterStateTaskExecutor::runOnlyOnMaster).distinct().count() == 1
+                : "combined executors must agree on whether to run only on the master";
             this.summary = summary;
-            this.executor = executor;
-            this.updateTasks = updateTasks;
+            this.updateTasksByExecutor = updateTasksByExecutor;
+            this.updateTasks = updateTasksByExecutor.values().stream().flatMap(List::stream).collect(Collectors.toList());
         }
 
         boolean runOnlyWhenMaster() {
-            return executor.runOnlyOnMaster();
+            return updateTasksByExecutor.keySet().iterator().next().runOnlyOnMaster();
         }
 
         void onNoLongerMaster() {
@@ -796,6 +889,7 @@ public class MasterService extends AbstractLifecycleComponent {
                 .map(e -> taskBatcher.new UpdateTask(config.priority(), source, e.getKey(), safe(e.getValue(), supplier), executor))
                 .collect(Collectors.toList());
             taskBatcher.submitTasks(safeTasks, config.timeout());
+            scheduleTaskQueueSloCheck(safeTasks, config.priority());
         } catch (EsRejectedExecutionException e) {
             // ignore cases where we are shutting down..., there is really nothing interesting
             // to be done here...
@@ -805,4 +899,76 @@ public class MasterService extends AbstractLifecycleComponent {
         }
     }
 
+    private void onTasksStarted(List<Batcher.UpdateTask> updateTasks) {
+        for (Batcher.UpdateTask updateTask : updateTasks) {
+            getQueueTimeHistogram(updateTask.source()).add(updateTask.getAgeInMillis());
+        }
+    }
+
+    private ExponentialBucketHistogram getQueueTimeHistogram(String source) {
+        final String sourceKey = getSourceKey(source);
+        final ExponentialBucketHistogram histogram = queueTimeHistograms.get(sourceKey);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (queueTimeHistograms.size() >= MAX_TRACKED_TASK_SOURCES) {
+            return queueTimeHistograms.computeIfAbsent(OTHER_TASK_SOURCES, k -> new ExponentialBucketHistogram());
+        }
+        return queueTimeHistograms.computeIfAbsent(sourceKey, k -> new ExponentialBucketHistogram());
+    }
+
+    /**
+     * Sources usually start with a fixed name of the action that is followed by details such as index names (e.g.
+     * {@code create-index [foo], cause [api]}), so queue times are tracked by this leading name only.
+     */
+    static String getSourceKey(String source) {
+        int end = 0;
+        while (end < source.length()) {
+            final char c = source.charAt(end);
+            if (Character.isLetterOrDigit(c) || c == '-' || c == '_') {
+                end++;
+            } else {
+                break;
+            }
+        }
+        return end == 0 ? OTHER_TASK_SOURCES : source.substring(0, end);
+    }
+
+    /**
+     * Checks whether the given tasks are still queued once the configured queue SLO has elapsed and, if so, submits them again with a
+     * higher priority. The check is repeated until the tasks are executed or reach {@link Priority#URGENT}, so that a flood of tasks with
+     * a higher priority cannot delay them indefinitely.
+     */
+    private void scheduleTaskQueueSloCheck(List<Batcher.UpdateTask> updateTasks, Priority priority) {
+        final TimeValue slo = taskQueueSlo;
+        if (slo.millis() <= 0 || priority.after(Priority.URGENT) == false) {
+            return;
+        }
+        threadPool.schedule(() -> {
+            final Batcher.UpdateTask pendingTask = updateTasks.stream().filter(t -> t.processed.get() == false).findFirst().orElse(null);
+            if (pendingTask == null || lifecycle.started() == false) {
+                return;
+            }
+            final Priority boostedPriority = Priority.values()[priority.ordinal() - 1];
+            logger.debug("task [{}] is still queued after [{}] which is over the queue SLO of [{}], boosting its priority to [{}]",
+                pendingTask.source(), TimeValue.timeValueMillis(pendingTask.getAgeInMillis()), slo, boostedPriority);
+            try {
+                taskBatcher.boostPriority(pendingTask, boostedPriority);
+            } catch (EsRejectedExecutionException e) {
+                logger.debug("failed to boost priority of task [{}]", pendingTask.source());
+                return;
+            }
+            boostedTasks.inc();
+            scheduleTaskQueueSloCheck(updateTasks, boostedPriority);
+        }, slo, ThreadPool.Names.GENERIC);
+    }
+
+    /**
+     * Returns stats about the cluster state update tasks executed by this node while it was the elected master.
+     */
+    public MasterServiceStats stats() {
+        final Map<String, long[]> queueTimes = new TreeMap<>();
+        queueTimeHistograms.forEach((source, histogram) -> queueTimes.put(source, histogram.getSnapshot()));
+        return new MasterServiceStats(combinedUpdates.count(), boostedTasks.count(), queueTimes);
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.metrics.ExponentialBucketHistogram;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stats about the cluster state update tasks that this node executed while it was the elected master: the number of updates that
+ * combined the tasks of several executors, the number of times the priority of a task was boosted because it was queued for longer than
+ * the queue SLO, and histograms of the time that tasks spent in the queue, by task source.
+ */
+public class MasterServiceStats implements Writeable, ToXContentObject {
+
+    private final long combinedUpdates;
+    private final long boostedTasks;
+    private final Map<String, long[]> queueTimeHistograms;
+
+    /**
+     * @param combinedUpdates     the number of cluster state updates that executed the tasks of more than one executor
+     * @param boostedTasks        the number of times the priority of a queued task was boosted
+     * @param queueTimeHistograms the bucket counts of the queue time histograms, see {@link ExponentialBucketHistogram}, by task source
+     */
+    public MasterServiceStats(long combinedUpdates, long boostedTasks, Map<String, long[]> queueTimeHistograms) {
+        this.combinedUpdates = combinedUpdates;
+        this.boostedTasks = boostedTasks;
+        this.queueTimeHistograms = Collections.unmodifiableMap(new TreeMap<>(queueTimeHistograms));
+    }
+
+    public MasterServiceStats(StreamInput in) throws IOException {
+        combinedUpdates = in.readVLong();
+        boostedTasks = in.readVLong();
+        queueTimeHistograms = Collections.unmodifiableMap(new TreeMap<>(in.readMap(StreamInput::readString, StreamInput::readVLongArray)));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(combinedUpdates);
+        out.writeVLong(boostedTasks);
+        out.writeMap(queueTimeHistograms, StreamOutput::writeString, StreamOutput::writeVLongArray);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("master_service");
+        {
+            builder.field("combined_updates", combinedUpdates);
+            builder.field("boosted_tasks", boostedTasks);
+            builder.startObject("queue_time");
+            for (Map.Entry<String, long[]> entry : queueTimeHistograms.entrySet()) {
+                final long[] buckets = entry.getValue();
+                long count = 0;
+                for (long bucket : buckets) {
+                    count += bucket;
+                }
+                builder.startObject(entry.getKey());
+                builder.field("count", count);
+                builder.startArray("histogram");
+                for (int bucket = 0; bucket < buckets.length; bucket++) {
+                    if (buckets[bucket] > 0) {
+                        builder.startObject();
+                        builder.field("ge_millis", ExponentialBucketHistogram.getBucketLowerBound(bucket));
+                        if (bucket < buckets.length - 1) {
+                            builder.field("lt_millis", ExponentialBucketHistogram.getBucketUpperBound(bucket));
+                        }
+                        builder.field("count", buckets[bucket]);
+                        builder.endObject();
+                    }
+                }
+                builder.endArray();
+                builder.endObject();
+            }
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    public long getCombinedUpdates() {
+        return combinedUpdates;
+    }
+
+    public long getBoostedTasks() {
+        return boostedTasks;
+    }
+
+    public Map<String, long[]> getQueueTimeHistograms() {
+        return queueTimeHistograms;
+    }
+
+    @Override
+    public String toString() {
+        return "MasterServiceStats(combinedUpdates=" + combinedUpdates
+            + ", boostedTasks=" + boostedTasks
+            + ", sources=" + queueTimeHistograms.keySet()
+            + ")";
+    }
+}
@@ -28,8 +28,10 @@ import org.elasticsearch.common.util.concurrent.PrioritizedEsThreadPoolExecutor;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -124,34 +126,90 @@ public abstract class TaskBatcher {
         // if this task is already processed, it shouldn't execute other tasks with same batching key that arrived later,
         // to give other tasks with different batching key a chance to execute.
         if (updateTask.processed.get() == false) {
-            final List<BatchedTask> toExecute = new ArrayList<>();
-            final Map<String, List<BatchedTask>> processTasksBySource = new HashMap<>();
+            final Map<Object, List<BatchedTask>> toExecute = new LinkedHashMap<>();
             synchronized (tasksPerBatchingKey) {
-                LinkedHashSet<BatchedTask> pending = tasksPerBatchingKey.remove(updateTask.batchingKey);
-                if (pending != null) {
-                    for (BatchedTask task : pending) {
-                        if (task.processed.getAndSet(true) == false) {
-                            logger.trace("will process {}", task);
-                            toExecute.add(task);
-                            processTasksBySource.computeIfAbsent(task.source, s -> new ArrayList<>()).add(task);
-                        } else {
-                            logger.trace("skipping {}, already processed", task);
-                        }
+                takePendingTasks(updateTask.batchingKey, toExecute);
+                if (toExecute.isEmpty() == false) {
+                    // the other batching keys are added in the order in which their highest priority task would execute
+                    final List<Object> combinableKeys = tasksPerBatchingKey.entrySet().stream()
+                        .filter(entry -> canCombine(updateTask.batchingKey, entry.getKey()))
+                        .sorted(Comparator.comparing(entry -> entry.getValue().stream().map(BatchedTask::priority)
+                            .min(Comparator.naturalOrder()).orElse(Priority.LANGUID)))
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList());
+                    for (Object batchingKey : combinableKeys) {
+                        takePendingTasks(batchingKey, toExecute);
                     }
                 }
             }
 
-            if (toExecute.isEmpty() == false) {
-                final String tasksSummary = processTasksBySource.entrySet().stream().map(entry -> {
-                    String tasks = updateTask.describeTasks(entry.getValue());
-                    return tasks.isEmpty() ? entry.getKey() : entry.getKey() + "[" + tasks + "]";
-                }).reduce((s1, s2) -> s1 + ", " + s2).orElse("");
+            if (toExecute.size() == 1) {
+                final List<BatchedTask> tasks = toExecute.get(updateTask.batchingKey);
+                run(updateTask.batchingKey, tasks, describeTasksBySource(tasks));
+            } else if (toExecute.isEmpty() == false) {
+                final String tasksSummary = toExecute.values().stream().map(TaskBatcher::describeTasksBySource)
+                    .collect(Collectors.joining(", "));
+                runCombined(toExecute, tasksSummary);
+            }
+        }
+    }
 
-                run(updateTask.batchingKey, toExecute, tasksSummary);
+    private void takePendingTasks(Object batchingKey, Map<Object, List<BatchedTask>> toExecute) {
+        assert Thread.holdsLock(tasksPerBatchingKey);
+        final LinkedHashSet<BatchedTask> pending = tasksPerBatchingKey.remove(batchingKey);
+        if (pending != null) {
+            for (BatchedTask task : pending) {
+                if (task.processed.getAndSet(true) == false) {
+                    logger.trace("will process {}", task);
+                    toExecute.computeIfAbsent(batchingKey, k -> new ArrayList<>()).add(task);
+                } else {
+                    logger.trace("skipping {}, already processed", task);
+                }
             }
         }
     }
 
+    private static String describeTasksBySource(List<BatchedTask> tasks) {
+        final Map<String, List<BatchedTask>> processTasksBySource = new LinkedHashMap<>();
+        for (BatchedTask task : tasks) {
+            processTasksBySource.computeIfAbsent(task.source, s -> new ArrayList<>()).add(task);
+        }
+        return processTasksBySource.entrySet().stream().map(entry -> {
+            String description = tasks.get(0).describeTasks(entry.getValue());
+            return description.isEmpty() ? entry.getKey() : entry.getKey() + "[" + description + "]";
+        }).reduce((s1, s2) -> s1 + ", " + s2).orElse("");
+    }
+
+    /**
+     * Whether the pending tasks of {@code otherBatchingKey} may be executed together with the tasks of {@code batchingKey}, see
+     * {@link #runCombined(Map, String)}. Defaults to {@code false}.
+     */
+    protected boolean canCombine(Object batchingKey, Object otherBatchingKey) {
+        return false;
+    }
+
+    /**
+     * Action to be implemented by batching implementations that combine tasks with different batching keys, see
+     * {@link #canCombine(Object, Object)}. The tasks are grouped by their batching key, starting with the batching key of the task that
+     * triggered the execution. Defaults to running the tasks of each batching key separately, in that order.
+     */
+    protected void runCombined(Map<Object, List<BatchedTask>> tasksPerBatchingKey, String tasksSummary) {
+        for (Map.Entry<Object, List<BatchedTask>> entry : tasksPerBatchingKey.entrySet()) {
+            run(entry.getKey(), entry.getValue(), describeTasksBySource(entry.getValue()));
+        }
+    }
+
+    /**
+     * Submits an additional execution of the pending tasks that share the batching key of the given task with the given priority, unless
+     * the task has been processed already. The task keeps its position in the queue, so that the tasks run at whichever of the two
+     * positions is reached first.
+     */
+    void boostPriority(BatchedTask task, Priority priority) throws EsRejectedExecutionException {
+        if (task.processed.get() == false) {
+            threadExecutor.execute(new BoostedTask(task, priority));
+        }
+    }
+
     /**
      * Action to be implemented by the specific batching implementation
      * All tasks have the given batching key.
@@ -204,4 +262,23 @@ public abstract class TaskBatcher {
             return task;
         }
     }
+
+    private class BoostedTask extends SourcePrioritizedRunnable {
+        private final BatchedTask task;
+
+        BoostedTask(BatchedTask task, Priority priority) {
+            super(priority, task.source);
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            runIfNotProcessed(task);
+        }
+
+        @Override
+        public String toString() {
+            return "boosted " + task;
+        }
+    }
 }
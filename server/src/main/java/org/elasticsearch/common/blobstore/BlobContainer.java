@@ -19,6 +19,9 @@
 
 package org.elasticsearch.common.blobstore;
 
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.core.internal.io.IOUtils;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.FileAlreadyExistsException;
@@ -31,6 +34,11 @@ import java.util.Map;
  */
 public interface BlobContainer {
 
+    /**
+     * The prefix of the names of the temporary blobs that an implementation may leave behind when an atomic write fails.
+     */
+    String TEMP_BLOB_PREFIX = "pending-";
+
     /**
      * Gets the {@link BlobPath} that defines the implementation specific paths to where the blobs are contained.
      *
@@ -49,6 +57,37 @@ public interface BlobContainer {
      */
     InputStream readBlob(String blobName) throws IOException;
 
+    /**
+     * Creates a new {@link InputStream} that can be used to read the given blob starting from a specific {@code position} in the blob.
+     * The {@code length} is an indication of the number of bytes that are expected to be read from the {@link InputStream}. The default
+     * implementation reads the blob from its start and skips to the requested position, implementations that can fetch a range of a blob
+     * should override it.
+     *
+     * @param   blobName
+     *          The name of the blob to get an {@link InputStream} for.
+     * @param   position
+     *          The position in the blob where the next byte will be read.
+     * @param   length
+     *          The number of bytes to read from the blob.
+     * @return  The {@code InputStream} to read the blob.
+     * @throws  NoSuchFileException if the blob does not exist
+     * @throws  IOException if the blob can not be read.
+     */
+    default InputStream readBlob(String blobName, long position, long length) throws IOException {
+        if (position < 0L || length < 0L) {
+            throw new IllegalArgumentException("invalid range [position=" + position + ", length=" + length
+                + "] for blob [" + blobName + "]");
+        }
+        final InputStream inputStream = readBlob(blobName);
+        try {
+            Streams.skipFully(inputStream, position);
+            return Streams.limitStream(inputStream, length);
+        } catch (IOException | RuntimeException e) {
+            IOUtils.closeWhileHandlingException(inputStream);
+            throw e;
+        }
+    }
+
     /**
      * Reads blob content from the input stream and writes it to the container in a new blob with the given name.
      * This method assumes the container does not already contain a blob of the same blobName.  If a blob by the
@@ -135,4 +174,11 @@ public interface BlobContainer {
      * @throws  IOException if there were any failures in reading from the blob container.
      */
     Map<String, BlobMetaData> listBlobsByPrefix(String blobNamePrefix) throws IOException;
+
+    /**
+     * Returns true if the blob is a leftover temporary blob, see {@link #TEMP_BLOB_PREFIX}.
+     */
+    static boolean isTempBlobName(final String blobName) {
+        return blobName.startsWith(TEMP_BLOB_PREFIX);
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.common.blobstore;
+
+import org.elasticsearch.common.bytes.BytesReference;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+
+/**
+ * A {@link BlobContainer} that can write a blob as a sequence of parts that are written independently of each other, possibly
+ * concurrently and in any order, and that only becomes visible as a whole once all parts have been written.
+ */
+public interface MultipartBlobContainer extends BlobContainer {
+
+    /**
+     * @return the minimum size in bytes of all but the last part of a multipart upload
+     */
+    long minimumPartSize();
+
+    /**
+     * @return the maximum number of parts of a multipart upload
+     */
+    int maximumNumberOfParts();
+
+    /**
+     * Starts writing a new blob with the given name in parts.
+     *
+     * @param   blobName
+     *          The name of the blob to write.
+     * @param   blobSize
+     *          The size of the blob to be written, in bytes.
+     * @param   failIfAlreadyExists
+     *          whether to throw a FileAlreadyExistsException if the given blob already exists. It is implementation dependent whether
+     *          this is checked when the upload starts or when it is completed.
+     * @throws  FileAlreadyExistsException if failIfAlreadyExists is true and a blob by the same name already exists
+     * @throws  IOException if the upload could not be started
+     */
+    MultipartUpload startMultipartUpload(String blobName, long blobSize, boolean failIfAlreadyExists) throws IOException;
+
+    /**
+     * A multipart upload of a single blob, started by {@link #startMultipartUpload(String, long, boolean)}. Parts may be written
+     * concurrently, but the upload must be either completed or aborted once all writes returned.
+     */
+    interface MultipartUpload {
+
+        /**
+         * Writes a part of the blob. Parts are numbered consecutively, starting at {@code 1}, in the order of their offsets.
+         *
+         * @param partNumber the number of the part
+         * @param offset     the offset of the part in the blob
+         * @param bytes      the contents of the part
+         */
+        void writePart(int partNumber, long offset, BytesReference bytes) throws IOException;
+
+        /**
+         * Makes the blob visible once all its parts have been written.
+         */
+        void complete() throws IOException;
+
+        /**
+         * Discards the parts that have been written so far.
+         */
+        void abort() throws IOException;
+    }
+}
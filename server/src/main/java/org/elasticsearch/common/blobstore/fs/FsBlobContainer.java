@@ -19,13 +19,17 @@
 
 package org.elasticsearch.common.blobstore.fs;
 
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.blobstore.BlobContainer;
 import org.elasticsearch.common.blobstore.BlobMetaData;
 import org.elasticsearch.common.blobstore.BlobPath;
 import org.elasticsearch.common.blobstore.DeleteResult;
+import org.elasticsearch.common.blobstore.MultipartBlobContainer;
 import org.elasticsearch.common.blobstore.support.AbstractBlobContainer;
 import org.elasticsearch.common.blobstore.support.PlainBlobMetaData;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.core.internal.io.Streams;
 
@@ -34,6 +38,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileVisitResult;
@@ -60,9 +68,7 @@ import static java.util.Collections.unmodifiableMap;
  * additionally throw a {@link java.lang.SecurityException} if the configured {@link java.lang.SecurityManager}
  * does not permit read and/or write access to the underlying files.
  */
-public class FsBlobContainer extends AbstractBlobContainer {
-
-    private static final String TEMP_FILE_PREFIX = "pending-";
+public class FsBlobContainer extends AbstractBlobContainer implements MultipartBlobContainer {
 
     protected final FsBlobStore blobStore;
     protected final Path path;
@@ -152,6 +158,26 @@ public class FsBlobContainer extends AbstractBlobContainer {
         }
     }
 
+    @Override
+    public InputStream readBlob(String blobName, long position, long length) throws IOException {
+        if (position < 0L || length < 0L) {
+            throw new IllegalArgumentException("invalid range [position=" + position + ", length=" + length
+                + "] for blob [" + blobName + "]");
+        }
+        final SeekableByteChannel channel = Files.newByteChannel(path.resolve(blobName));
+        try {
+            if (position > 0L) {
+                channel.position(position);
+            }
+            assert channel.position() == position;
+        } catch (IOException | RuntimeException e) {
+            IOUtils.closeWhileHandlingException(channel);
+            throw e;
+        }
+        return new BufferedInputStream(org.elasticsearch.common.io.Streams.limitStream(Channels.newInputStream(channel), length),
+            blobStore.bufferSizeInBytes());
+    }
+
     @Override
     public void writeBlob(String blobName, InputStream inputStream, long blobSize, boolean failIfAlreadyExists) throws IOException {
         if (failIfAlreadyExists == false) {
@@ -188,6 +214,71 @@ public class FsBlobContainer extends AbstractBlobContainer {
         }
     }
 
+    @Override
+    public long minimumPartSize() {
+        return 1L;
+    }
+
+    @Override
+    public int maximumNumberOfParts() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Writes the parts into a temporary file at their offsets and atomically moves the file to the blob once all parts are written.
+     */
+    @Override
+    public MultipartUpload startMultipartUpload(String blobName, long blobSize, boolean failIfAlreadyExists) throws IOException {
+        final String tempBlob = tempBlobName(blobName);
+        final Path tempBlobPath = path.resolve(tempBlob);
+        final FileChannel channel = FileChannel.open(tempBlobPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        return new MultipartUpload() {
+            @Override
+            public void writePart(int partNumber, long offset, BytesReference bytes) throws IOException {
+                long position = offset;
+                final BytesRefIterator iterator = bytes.iterator();
+                BytesRef bytesRef;
+                while ((bytesRef = iterator.next()) != null) {
+                    final ByteBuffer buffer = ByteBuffer.wrap(bytesRef.bytes, bytesRef.offset, bytesRef.length);
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                }
+            }
+
+            @Override
+            public void complete() throws IOException {
+                boolean success = false;
+                try {
+                    try (FileChannel toClose = channel) {
+                        if (toClose.size() != blobSize) {
+                            throw new IOException("expected blob [" + blobName + "] to be [" + blobSize + "] bytes long but wrote ["
+                                + toClose.size() + "] bytes");
+                        }
+                        toClose.force(true);
+                    }
+                    moveBlobAtomic(tempBlob, blobName, failIfAlreadyExists);
+                    success = true;
+                } finally {
+                    if (success == false) {
+                        abort();
+                    }
+                    IOUtils.fsync(path, true);
+                }
+            }
+
+            @Override
+            public void abort() throws IOException {
+                IOUtils.close(channel, () -> deleteBlobsIgnoringIfNotExists(Collections.singletonList(tempBlob)));
+            }
+
+            @Override
+            public String toString() {
+                return "multipart upload of [" + blobName + "] to [" + tempBlobPath + "]";
+            }
+        };
+    }
+
     public void moveBlobAtomic(final String sourceBlobName, final String targetBlobName, final boolean failIfAlreadyExists)
         throws IOException {
         final Path sourceBlobPath = path.resolve(sourceBlobName);
@@ -205,15 +296,6 @@ public class FsBlobContainer extends AbstractBlobContainer {
     }
 
     public static String tempBlobName(final String blobName) {
-        return "pending-" + blobName + "-" + UUIDs.randomBase64UUID();
-    }
-
-    /**
-     * Returns true if the blob is a leftover temporary blob.
-     *
-     * The temporary blobs might be left after failed atomic write operation.
-     */
-    public static boolean isTempBlobName(final String blobName) {
-        return blobName.startsWith(TEMP_FILE_PREFIX);
+        return TEMP_BLOB_PREFIX + blobName + "-" + UUIDs.randomBase64UUID();
     }
 }
@@ -25,6 +25,7 @@ import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -235,6 +236,30 @@ public abstract class Streams {
         };
     }
 
+    /**
+     * Limits the given input stream to the provided number of bytes
+     */
+    public static InputStream limitStream(InputStream in, long limit) {
+        return new LimitedInputStream(in, limit);
+    }
+
+    /**
+     * Skips exactly {@code n} bytes of the given {@link InputStream}, throwing an {@link EOFException} if the stream ends first.
+     */
+    public static void skipFully(InputStream in, long n) throws IOException {
+        long remaining = n;
+        while (remaining > 0) {
+            final long skipped = in.skip(remaining);
+            if (skipped > 0) {
+                remaining -= skipped;
+            } else if (in.read() == -1) {
+                throw new EOFException("stream ended before skipping [" + n + "] bytes, [" + remaining + "] bytes remaining");
+            } else {
+                remaining--;
+            }
+        }
+    }
+
     /**
      * Wraps the given {@link BytesStream} in a {@link StreamOutput} that simply flushes when
      * close is called.
@@ -254,6 +279,79 @@ public abstract class Streams {
         }
     }
 
+    /**
+     * A wrapper around an {@link InputStream} that limits the number of bytes that can be read from the stream.
+     */
+    static class LimitedInputStream extends FilterInputStream {
+
+        private static final long NO_MARK = -1L;
+
+        private long currentLimit; // is always non-negative
+        private long limitOnLastMark;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            if (limit < 0L) {
+                throw new IllegalArgumentException("limit must be non-negative");
+            }
+            this.currentLimit = limit;
+            this.limitOnLastMark = NO_MARK;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int result;
+            if (currentLimit == 0 || (result = in.read()) == -1) {
+                return -1;
+            } else {
+                currentLimit--;
+                return result;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int result;
+            if (currentLimit == 0 || (result = in.read(b, off, Math.toIntExact(Math.min(len, currentLimit)))) == -1) {
+                return -1;
+            } else {
+                currentLimit -= result;
+                return result;
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long skipped = in.skip(Math.min(n, currentLimit));
+            currentLimit -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return Math.toIntExact(Math.min(in.available(), currentLimit));
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            in.mark(readlimit);
+            limitOnLastMark = currentLimit;
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            in.reset();
+            if (limitOnLastMark != NO_MARK) {
+                currentLimit = limitOnLastMark;
+            }
+        }
+    }
+
     /**
      * A wrapper around a {@link BytesStream} that makes the close operation a flush. This is
      * needed as sometimes a stream will be closed but the bytes that the stream holds still need
@@ -0,0 +1,66 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.index;
+
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.LeafReader;
+import org.elasticsearch.common.Nullable;
+
+/**
+ * A {@link FilterLeafReader} that can give access to a {@link StoredFieldsReader} of the wrapped segment that is optimized for
+ * reading the stored fields of adjacent documents in order, like the one that merges use, which decompresses each block of stored
+ * fields once rather than once per document.
+ */
+public abstract class SequentialStoredFieldsLeafReader extends FilterLeafReader {
+
+    /**
+     * <p>Construct a SequentialStoredFieldsLeafReader based on the specified base reader.
+     * <p>Note that base reader is closed if this FilterLeafReader is closed.</p>
+     *
+     * @param in specified base reader.
+     */
+    public SequentialStoredFieldsLeafReader(LeafReader in) {
+        super(in);
+    }
+
+    /**
+     * Implementations that filter stored fields must wrap the given reader the same way, the others return it as is.
+     */
+    protected abstract StoredFieldsReader doGetSequentialStoredFieldsReader(StoredFieldsReader reader);
+
+    /**
+     * Returns a {@link StoredFieldsReader} optimized for sequential access, or {@code null} if the wrapped reader can't provide one.
+     * The returned reader is not thread safe.
+     */
+    @Nullable
+    public StoredFieldsReader getSequentialStoredFieldsReader() {
+        if (in instanceof CodecReader) {
+            CodecReader reader = (CodecReader) in;
+            return doGetSequentialStoredFieldsReader(reader.getFieldsReader().getMergeInstance());
+        } else if (in instanceof SequentialStoredFieldsLeafReader) {
+            StoredFieldsReader reader = ((SequentialStoredFieldsLeafReader) in).getSequentialStoredFieldsReader();
+            return reader == null ? null : doGetSequentialStoredFieldsReader(reader);
+        } else {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values, typically durations in milliseconds, with exponentially sized buckets. The first bucket counts
+ * the values below {@code 1}, bucket {@code i} counts the values in {@code [2^(i-1), 2^i)} and the last bucket counts all values of at
+ * least {@code 2^(BUCKET_COUNT-2)}. Recording a value is lock-free and cheap enough to be done on hot paths.
+ */
+public class ExponentialBucketHistogram {
+
+    public static final int BUCKET_COUNT = 18;
+
+    private final LongAdder[] buckets;
+
+    public ExponentialBucketHistogram() {
+        buckets = new LongAdder[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Adds a value to the histogram, negative values are counted as {@code 0}.
+     */
+    public void add(long value) {
+        buckets[getBucket(value)].increment();
+    }
+
+    /**
+     * @return the number of values recorded in each bucket. The counts are not read atomically, so the returned snapshot may not reflect
+     * values that are being recorded concurrently.
+     */
+    public long[] getSnapshot() {
+        final long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets[i].longValue();
+        }
+        return snapshot;
+    }
+
+    static int getBucket(long value) {
+        if (value < 1) {
+            return 0;
+        }
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * @return the inclusive lower bound of the values counted in the given bucket
+     */
+    public static long getBucketLowerBound(int bucket) {
+        return bucket == 0 ? 0L : 1L << (bucket - 1);
+    }
+
+    /**
+     * @return the exclusive upper bound of the values counted in the given bucket, or {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long getBucketUpperBound(int bucket) {
+        return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.metrics.CounterMetric;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An executor for tasks that spend most of their time blocked on I/O, like reading and writing blobs of snapshot repositories. Its
+ * concurrency is bounded by {@code maxConcurrency} permits rather than by a number of threads: a task that is submitted while a permit is
+ * free takes it and starts a thread from the factory, typically a {@link EsExecutors#virtualThreadFactory(String) virtual thread} if the
+ * JVM supports them and a {@link EsExecutors#daemonThreadFactory(String) daemon thread} otherwise. Tasks submitted while all permits are
+ * taken are queued in an unbounded queue, the thread that holds a permit runs the queued tasks once it is done with its task and releases
+ * the permit when the queue is empty. So no thread is kept around while the executor is idle, and the number of concurrent blocking calls
+ * is bounded independently of the cost of a thread.
+ *
+ * Like {@link EsThreadPoolExecutor} this executor runs tasks in the {@link ThreadContext} they were submitted in and records how long
+ * they waited and ran, see {@link #getLatencyRecorder()}.
+ */
+public class EsBlockingTaskExecutor extends AbstractExecutorService {
+
+    /**
+     * Name used in error reporting.
+     */
+    private final String name;
+    private final int maxConcurrency;
+    private final ThreadFactory threadFactory;
+    private final ThreadContext contextHolder;
+    private final TaskLatencyRecorder latencyRecorder = new TaskLatencyRecorder();
+    private final AtomicInteger active = new AtomicInteger();
+    private final CounterMetric completed = new CounterMetric();
+    private final CounterMetric rejected = new CounterMetric();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition terminated = lock.newCondition();
+    // all guarded by lock
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private final Set<Thread> workers = new HashSet<>();
+    private int permits;
+    private int largest;
+    private boolean shutdown;
+
+    EsBlockingTaskExecutor(String name, int maxConcurrency, ThreadFactory threadFactory, ThreadContext contextHolder) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("max concurrency of [" + name + "] must be positive, got [" + maxConcurrency + "]");
+        }
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.threadFactory = threadFactory;
+        this.contextHolder = contextHolder;
+        this.permits = maxConcurrency;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        final Runnable wrapped = contextHolder.preserveContext(command instanceof TimedRunnable ? command : new TimedRunnable(command));
+        final boolean start;
+        lock.lock();
+        try {
+            if (shutdown) {
+                start = false;
+            } else if (permits > 0) {
+                permits--;
+                largest = Math.max(largest, maxConcurrency - permits);
+                start = true;
+            } else {
+                queue.addLast(wrapped);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (start) {
+            startWorker(wrapped);
+        } else {
+            reject(wrapped);
+        }
+    }
+
+    private void reject(Runnable runnable) {
+        rejected.inc();
+        final EsRejectedExecutionException e = new EsRejectedExecutionException("rejected execution of " + runnable + " on " + this, true);
+        if (runnable instanceof AbstractRunnable) {
+            // If we are an abstract runnable we can handle the rejection
+            // directly and don't need to rethrow it.
+            try {
+                ((AbstractRunnable) runnable).onRejection(e);
+            } finally {
+                ((AbstractRunnable) runnable).onAfter();
+            }
+        } else {
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a thread that runs the given task and then the queued tasks, the caller must hold a permit that the thread releases.
+     */
+    private void startWorker(Runnable firstTask) {
+        try {
+            final Thread thread = threadFactory.newThread(() -> runWorker(firstTask));
+            thread.start();
+        } catch (RuntimeException | Error e) {
+            lock.lock();
+            try {
+                permits++;
+                tryTerminate();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private void runWorker(Runnable firstTask) {
+        final Thread thread = Thread.currentThread();
+        lock.lock();
+        try {
+            workers.add(thread);
+        } finally {
+            lock.unlock();
+        }
+        Runnable task = firstTask;
+        try {
+            while (task != null) {
+                runTask(task);
+                task = takeQueuedTask();
+            }
+        } finally {
+            if (task != null) {
+                // the task threw an error, hand the permit over to a new thread if tasks are still queued
+                final Runnable next;
+                lock.lock();
+                try {
+                    workers.remove(thread);
+                    next = queue.pollFirst();
+                    if (next == null) {
+                        permits++;
+                        tryTerminate();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (next != null) {
+                    startWorker(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the next queued task, or releases the permit of the current thread and returns {@code null} if there is none.
+     */
+    private Runnable takeQueuedTask() {
+        lock.lock();
+        try {
+            final Runnable next = queue.pollFirst();
+            if (next == null) {
+                workers.remove(Thread.currentThread());
+                permits++;
+                tryTerminate();
+            } else {
+                // like a thread pool, do not let the interrupt status of a task leak into the next one
+                Thread.interrupted();
+            }
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runTask(Runnable task) {
+        active.incrementAndGet();
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // like a thread pool we hand exceptions to the uncaught exception handler, but keep running the queued tasks
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        } finally {
+            active.decrementAndGet();
+            completed.inc();
+            afterExecute(task);
+        }
+    }
+
+    private void afterExecute(Runnable task) {
+        EsExecutors.rethrowErrors(unwrap(task));
+        assert contextHolder.isDefaultContext() : "the thread context is not the default context and the thread [" +
+            Thread.currentThread().getName() + "] is going to run the next task after executing [" + task + "]";
+        final Runnable unwrapped = contextHolder.unwrap(task);
+        if (unwrapped instanceof TimedRunnable) {
+            final TimedRunnable timedRunnable = (TimedRunnable) unwrapped;
+            final long executionNanos = timedRunnable.getTotalExecutionNanos();
+            if (executionNanos != -1) {
+                latencyRecorder.record(timedRunnable.getAction(), timedRunnable.getQueueWaitNanos(), executionNanos);
+            }
+        }
+    }
+
+    private Runnable unwrap(Runnable runnable) {
+        final Runnable unwrapped = contextHolder.unwrap(runnable);
+        if (unwrapped instanceof TimedRunnable) {
+            return ((TimedRunnable) unwrapped).unwrap();
+        } else {
+            return unwrapped;
+        }
+    }
+
+    private void tryTerminate() {
+        assert lock.isHeldByCurrentThread();
+        if (shutdown && permits == maxConcurrency) {
+            terminated.signalAll();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            tryTerminate();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        lock.lock();
+        try {
+            shutdown = true;
+            final List<Runnable> pending = new ArrayList<>(queue);
+            queue.clear();
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            tryTerminate();
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        lock.lock();
+        try {
+            return shutdown && permits == maxConcurrency;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (shutdown == false || permits != maxConcurrency) {
+                if (nanos <= 0L) {
+                    return false;
+                }
+                nanos = terminated.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The maximum number of tasks that run at the same time.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * The number of threads that currently hold a permit.
+     */
+    public int getPoolSize() {
+        lock.lock();
+        try {
+            return maxConcurrency - permits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The largest number of threads that held a permit at the same time.
+     */
+    public int getLargestPoolSize() {
+        lock.lock();
+        try {
+            return largest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The number of threads that are running a task.
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * The number of tasks that wait for a permit.
+     */
+    public int getQueueSize() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCompletedTaskCount() {
+        return completed.count();
+    }
+
+    /**
+     * The number of tasks that were rejected because this executor was shut down.
+     */
+    public long getRejectedCount() {
+        return rejected.count();
+    }
+
+    /**
+     * Returns the recorder of the time the tasks of this executor waited in its queue and ran.
+     */
+    public TaskLatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    @Override
+    public final String toString() {
+        return getClass().getSimpleName() + "[name = " + name + ", max concurrency = " + maxConcurrency + ", pool size = "
+            + getPoolSize() + ", active threads = " + getActiveCount() + ", queued tasks = " + getQueueSize() + ", completed tasks = "
+            + getCompletedTaskCount() + "]";
+    }
+}
@@ -29,6 +29,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.node.Node;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -51,6 +52,29 @@ public class EsExecutors {
 
     private static final DeprecationLogger deprecationLogger = new DeprecationLogger(LogManager.getLogger(EsExecutors.class));
 
+    /**
+     * {@code Thread#ofVirtual()} and {@code Thread.Builder#factory()}, looked up reflectively since they only exist on Java 21 and later,
+     * or {@code null} if the JVM does not support virtual threads.
+     */
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method builderFactory = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderFactory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            // virtual threads are a preview feature on some JVMs, which throw if they are not enabled
+            builderFactory.invoke(ofVirtual.invoke(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ofVirtual = null;
+            builderFactory = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_FACTORY = builderFactory;
+    }
+
     /**
      * Setting to manually set the number of available processors. This setting is used to adjust thread pool sizes per node.
      */
@@ -111,6 +135,15 @@ public class EsExecutors {
         return executor;
     }
 
+    /**
+     * Creates an executor that runs at most {@code maxConcurrency} tasks at a time on threads of the given factory and queues the others,
+     * see {@link EsBlockingTaskExecutor}.
+     */
+    public static EsBlockingTaskExecutor newBlocking(String name, int maxConcurrency, ThreadFactory threadFactory,
+                                                    ThreadContext contextHolder) {
+        return new EsBlockingTaskExecutor(name, maxConcurrency, threadFactory, contextHolder);
+    }
+
     public static EsThreadPoolExecutor newFixed(String name, int size, int queueCapacity,
                                                 ThreadFactory threadFactory, ThreadContext contextHolder) {
         BlockingQueue<Runnable> queue;
@@ -135,12 +168,30 @@ public class EsExecutors {
     public static EsThreadPoolExecutor newAutoQueueFixed(String name, int size, int initialQueueCapacity, int minQueueSize,
                                                          int maxQueueSize, int frameSize, TimeValue targetedResponseTime,
                                                          ThreadFactory threadFactory, ThreadContext contextHolder) {
+        return newAutoQueueFixed(name, size, initialQueueCapacity, minQueueSize, maxQueueSize, frameSize, targetedResponseTime,
+            ConcurrentCollections.newBlockingQueue(), threadFactory, contextHolder);
+    }
+
+    /**
+     * Return a new executor that will automatically adjust the queue size based on queue throughput and that queues tasks in the given
+     * unbounded queue, like a {@link MultiLaneBlockingQueue}.
+     *
+     * @param size number of fixed threads to use for executing tasks
+     * @param initialQueueCapacity initial size of the executor queue
+     * @param minQueueSize minimum queue size that the queue can be adjusted to
+     * @param maxQueueSize maximum queue size that the queue can be adjusted to
+     * @param frameSize number of tasks during which stats are collected before adjusting queue size
+     * @param unboundedQueue the queue that tasks are queued in, bounded by the adjusted queue size
+     */
+    public static EsThreadPoolExecutor newAutoQueueFixed(String name, int size, int initialQueueCapacity, int minQueueSize,
+                                                         int maxQueueSize, int frameSize, TimeValue targetedResponseTime,
+                                                         BlockingQueue<Runnable> unboundedQueue, ThreadFactory threadFactory,
+                                                         ThreadContext contextHolder) {
         if (initialQueueCapacity <= 0) {
             throw new IllegalArgumentException("initial queue capacity for [" + name + "] executor must be positive, got: " +
                             initialQueueCapacity);
         }
-        ResizableBlockingQueue<Runnable> queue =
-                new ResizableBlockingQueue<>(ConcurrentCollections.<Runnable>newBlockingQueue(), initialQueueCapacity);
+        ResizableBlockingQueue<Runnable> queue = new ResizableBlockingQueue<>(unboundedQueue, initialQueueCapacity);
         return new QueueResizingEsThreadPoolExecutor(name, size, size, 0, TimeUnit.MILLISECONDS,
                 queue, minQueueSize, maxQueueSize, TimedRunnable::new, frameSize, targetedResponseTime, threadFactory,
                 new EsAbortPolicy(), contextHolder);
@@ -279,6 +330,36 @@ public class EsExecutors {
         return new EsThreadFactory(namePrefix);
     }
 
+    /**
+     * Returns whether {@link #virtualThreadFactory(String)} can create virtual threads: the JVM must support them and no security manager
+     * may be installed, since virtual threads run without any permission when there is one.
+     */
+    public static boolean virtualThreadsSupported() {
+        return OF_VIRTUAL != null && System.getSecurityManager() == null;
+    }
+
+    /**
+     * Returns a factory of virtual threads, which must be {@link #virtualThreadsSupported() supported}. The threads are named like the
+     * ones of {@link #daemonThreadFactory(String)} so that their executor can be derived from their name.
+     */
+    public static ThreadFactory virtualThreadFactory(String namePrefix) {
+        if (virtualThreadsSupported() == false) {
+            throw new IllegalStateException("virtual threads are not supported");
+        }
+        final ThreadFactory factory;
+        try {
+            factory = (ThreadFactory) BUILDER_FACTORY.invoke(OF_VIRTUAL.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("failed to create a virtual thread factory", e);
+        }
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        return r -> {
+            final Thread thread = factory.newThread(r);
+            thread.setName(namePrefix + "[V#" + threadNumber.getAndIncrement() + "]");
+            return thread;
+        };
+    }
+
     static class EsThreadFactory implements ThreadFactory {
 
         final ThreadGroup group;
@@ -28,11 +28,13 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 /**
- * An extension to thread pool executor, allowing (in the future) to add specific additional stats to it.
+ * An extension to thread pool executor that records how long its tasks wait in the queue and how long they run, see
+ * {@link #getLatencyRecorder()}.
  */
 public class EsThreadPoolExecutor extends ThreadPoolExecutor {
 
     private final ThreadContext contextHolder;
+    private final TaskLatencyRecorder latencyRecorder = new TaskLatencyRecorder();
     private volatile ShutdownListener listener;
 
     private final Object monitor = new Object();
@@ -103,6 +105,29 @@ public class EsThreadPoolExecutor extends ThreadPoolExecutor {
         super.afterExecute(r, t);
         EsExecutors.rethrowErrors(unwrap(r));
         assert assertDefaultContext(r);
+        final TimedRunnable timedRunnable = timedRunnable(r);
+        if (timedRunnable != null) {
+            final long executionNanos = timedRunnable.getTotalExecutionNanos();
+            if (executionNanos != -1) {
+                latencyRecorder.record(timedRunnable.getAction(), timedRunnable.getQueueWaitNanos(), executionNanos);
+            }
+        }
+    }
+
+    /**
+     * Returns the recorder of the time the tasks of this executor waited in its queue and ran.
+     */
+    public TaskLatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    /**
+     * Returns the {@link TimedRunnable} the given runnable was wrapped in when it was submitted, or {@code null} if it was not wrapped in
+     * one, like the tasks of executors that override {@link #wrapRunnable(Runnable)}.
+     */
+    final TimedRunnable timedRunnable(Runnable runnable) {
+        final Runnable unwrapped = contextHolder.unwrap(runnable);
+        return unwrapped instanceof TimedRunnable ? (TimedRunnable) unwrapped : null;
     }
 
     private boolean assertDefaultContext(Runnable r) {
@@ -149,10 +174,15 @@ public class EsThreadPoolExecutor extends ThreadPoolExecutor {
     }
 
     protected Runnable wrapRunnable(Runnable command) {
-        return contextHolder.preserveContext(command);
+        return contextHolder.preserveContext(command instanceof TimedRunnable ? command : new TimedRunnable(command));
     }
 
     protected Runnable unwrap(Runnable runnable) {
-        return contextHolder.unwrap(runnable);
+        final Runnable unwrapped = contextHolder.unwrap(runnable);
+        if (unwrapped instanceof TimedRunnable) {
+            return ((TimedRunnable) unwrapped).unwrap();
+        } else {
+            return unwrapped;
+        }
     }
 }
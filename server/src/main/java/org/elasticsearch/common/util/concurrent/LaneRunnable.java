@@ -0,0 +1,89 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.Nullable;
+
+/**
+ * Wraps a {@code Runnable} to queue it in a specific lane of a {@link MultiLaneBlockingQueue}. Executors that do not use such a queue run
+ * it like the wrapped runnable.
+ */
+public final class LaneRunnable extends AbstractRunnable implements WrappedRunnable, ActionAwareRunnable {
+    private final int lane;
+    private final String action;
+    private final Runnable original;
+
+    public LaneRunnable(int lane, Runnable original) {
+        this(lane, null, original);
+    }
+
+    public LaneRunnable(int lane, @Nullable String action, Runnable original) {
+        this.lane = lane;
+        this.action = action;
+        this.original = original;
+    }
+
+    /**
+     * The index of the lane to queue the runnable in.
+     */
+    public int lane() {
+        return lane;
+    }
+
+    @Override
+    protected void doRun() {
+        original.run();
+    }
+
+    @Override
+    public void onRejection(Exception e) {
+        if (original instanceof AbstractRunnable) {
+            ((AbstractRunnable) original).onRejection(e);
+        } else {
+            ExceptionsHelper.reThrowIfNotNull(e);
+        }
+    }
+
+    @Override
+    public void onFailure(Exception e) {
+        ExceptionsHelper.reThrowIfNotNull(e);
+    }
+
+    @Override
+    public boolean isForceExecution() {
+        return original instanceof AbstractRunnable && ((AbstractRunnable) original).isForceExecution();
+    }
+
+    @Override
+    public String getAction() {
+        return action;
+    }
+
+    @Override
+    public Runnable unwrap() {
+        return original;
+    }
+
+    @Override
+    public String toString() {
+        return "LaneRunnable{lane=" + lane + ", action=" + action + ", original=" + original + "}";
+    }
+}
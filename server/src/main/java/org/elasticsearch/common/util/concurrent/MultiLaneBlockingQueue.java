@@ -0,0 +1,397 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An unbounded blocking queue of tasks that keeps one FIFO lane per kind of task, so that a burst of tasks of one kind does not delay
+ * the tasks of the other kinds by the whole length of the burst. The lane of a task is the one of the first {@link LaneRunnable} found
+ * when unwrapping it, tasks that are not wrapped in a {@link LaneRunnable} go to the first lane.
+ *
+ * Tasks are taken from the non-empty lanes in a smooth weighted round-robin fashion, so that under contention each lane gets a share of
+ * the workers that is proportional to its weight. Lanes that are empty are skipped, so a worker that would otherwise be idle takes the
+ * tasks of any other lane. The time tasks wait in each lane is tracked, see {@link #getWaitTimeNanos(int)}.
+ *
+ * Like {@link ConcurrentCollections#newBlockingQueue()} this queue is unbounded, wrap it in a {@link SizeBlockingQueue} to bound it.
+ */
+public class MultiLaneBlockingQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private final String[] names;
+    private final int[] weights;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    // all guarded by lock
+    private final ArrayDeque<Entry>[] lanes;
+    private final int[] currentWeights;
+    private final long[] taken;
+    private final long[] waitTimeNanos;
+    private int count;
+
+    @SuppressWarnings("unchecked")
+    public MultiLaneBlockingQueue(String[] names, int[] weights) {
+        if (names.length == 0 || names.length != weights.length) {
+            throw new IllegalArgumentException("expected one weight per lane but got lanes " + names.length + " and weights "
+                + weights.length);
+        }
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] <= 0) {
+                throw new IllegalArgumentException("weight of lane [" + names[i] + "] must be positive, got [" + weights[i] + "]");
+            }
+        }
+        this.names = names.clone();
+        this.weights = weights.clone();
+        this.lanes = new ArrayDeque[names.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ArrayDeque<>();
+        }
+        this.currentWeights = new int[names.length];
+        this.taken = new long[names.length];
+        this.waitTimeNanos = new long[names.length];
+    }
+
+    /**
+     * The number of lanes of this queue.
+     */
+    public int getLaneCount() {
+        return names.length;
+    }
+
+    public String getLaneName(int lane) {
+        return names[lane];
+    }
+
+    public int getLaneWeight(int lane) {
+        return weights[lane];
+    }
+
+    /**
+     * The number of tasks that are queued in the given lane.
+     */
+    public int getLaneSize(int lane) {
+        lock.lock();
+        try {
+            return lanes[lane].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The number of tasks that were taken from the given lane.
+     */
+    public long getTakenCount(int lane) {
+        lock.lock();
+        try {
+            return taken[lane];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The total time that the tasks that were taken from the given lane waited in the queue, in nanoseconds.
+     */
+    public long getWaitTimeNanos(int lane) {
+        lock.lock();
+        try {
+            return waitTimeNanos[lane];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int laneOf(Runnable runnable) {
+        Runnable current = runnable;
+        while (true) {
+            if (current instanceof LaneRunnable) {
+                final int lane = ((LaneRunnable) current).lane();
+                return lane >= 0 && lane < lanes.length ? lane : 0;
+            } else if (current instanceof WrappedRunnable) {
+                current = ((WrappedRunnable) current).unwrap();
+            } else {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Takes the next task, picking the non-empty lane with the highest current weight. Must be called under the lock with a non-empty
+     * queue.
+     */
+    private Runnable dequeue() {
+        assert lock.isHeldByCurrentThread();
+        assert count > 0;
+        int selected = -1;
+        int totalWeight = 0;
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[i].isEmpty() == false) {
+                currentWeights[i] += weights[i];
+                totalWeight += weights[i];
+                if (selected == -1 || currentWeights[i] > currentWeights[selected]) {
+                    selected = i;
+                }
+            }
+        }
+        currentWeights[selected] -= totalWeight;
+        final Entry entry = lanes[selected].pollFirst();
+        count--;
+        taken[selected]++;
+        waitTimeNanos[selected] += Math.max(0L, System.nanoTime() - entry.enqueuedNanos);
+        if (count == 0) {
+            // start the next burst from a clean slate
+            for (int i = 0; i < currentWeights.length; i++) {
+                currentWeights[i] = 0;
+            }
+        }
+        return entry.runnable;
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        Objects.requireNonNull(runnable);
+        final Entry entry = new Entry(runnable, System.nanoTime());
+        final int lane = laneOf(runnable);
+        lock.lock();
+        try {
+            lanes[lane].addLast(entry);
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    @Override
+    public void put(Runnable runnable) {
+        offer(runnable);
+    }
+
+    @Override
+    public boolean offer(Runnable runnable, long timeout, TimeUnit unit) {
+        return offer(runnable);
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the oldest task of the first non-empty lane, which is not necessarily the next task that {@link #poll()} returns.
+     */
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            for (ArrayDeque<Entry> lane : lanes) {
+                final Entry entry = lane.peekFirst();
+                if (entry != null) {
+                    return entry.runnable;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            for (ArrayDeque<Entry> lane : lanes) {
+                final Iterator<Entry> iterator = lane.iterator();
+                while (iterator.hasNext()) {
+                    if (o.equals(iterator.next().runnable)) {
+                        iterator.remove();
+                        count--;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            for (ArrayDeque<Entry> lane : lanes) {
+                for (Entry entry : lane) {
+                    if (o.equals(entry.runnable)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException("cannot drain a queue to itself");
+        }
+        lock.lock();
+        try {
+            int drained = 0;
+            while (count > 0 && drained < maxElements) {
+                c.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the tasks of this queue, lane by lane.
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        final List<Runnable> snapshot = new ArrayList<>();
+        lock.lock();
+        try {
+            for (ArrayDeque<Entry> lane : lanes) {
+                for (Entry entry : lane) {
+                    snapshot.add(entry.runnable);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        final Iterator<Runnable> iterator = snapshot.iterator();
+        return new Iterator<Runnable>() {
+            private Runnable current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException("next() was not called");
+                }
+                MultiLaneBlockingQueue.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    private static final class Entry {
+        private final Runnable runnable;
+        private final long enqueuedNanos;
+
+        Entry(Runnable runnable, long enqueuedNanos) {
+            this.runnable = runnable;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
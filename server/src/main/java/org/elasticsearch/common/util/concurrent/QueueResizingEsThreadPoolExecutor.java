@@ -82,16 +82,6 @@ public final class QueueResizingEsThreadPoolExecutor extends EsThreadPoolExecuto
         return super.wrapRunnable(this.runnableWrapper.apply(command));
     }
 
-    @Override
-    protected Runnable unwrap(Runnable runnable) {
-        final Runnable unwrapped = super.unwrap(runnable);
-        if (unwrapped instanceof WrappedRunnable) {
-            return ((WrappedRunnable) unwrapped).unwrap();
-        } else {
-            return unwrapped;
-        }
-    }
-
     /**
      * Calculate task rate (λ), for a fixed number of tasks and time it took those tasks to be measured
      *
@@ -145,8 +135,8 @@ public final class QueueResizingEsThreadPoolExecutor extends EsThreadPoolExecuto
         // total time as a combination of the time in the queue and time spent running the task. We
         // only want runnables that did not throw errors though, because they could be fast-failures
         // that throw off our timings, so only check when t is null.
-        assert super.unwrap(r) instanceof TimedRunnable : "expected only TimedRunnables in queue";
-        final TimedRunnable timedRunnable = (TimedRunnable) super.unwrap(r);
+        final TimedRunnable timedRunnable = timedRunnable(r);
+        assert timedRunnable != null : "expected only TimedRunnables in queue";
         final long taskNanos = timedRunnable.getTotalNanos();
         final boolean failedOrRejected = timedRunnable.getFailedOrRejected();
         final long totalNanos = totalTaskNanos.addAndGet(taskNanos);
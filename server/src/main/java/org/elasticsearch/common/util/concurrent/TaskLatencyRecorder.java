@@ -0,0 +1,125 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.elasticsearch.common.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long the tasks of an executor waited in its queue and how long they ran, in histograms that can be recorded to
+ * concurrently without locking. Times are recorded with a precision of two significant digits in microseconds. The times are also
+ * summed up per action, see {@link ActionAwareRunnable}, for up to {@link #MAX_TRACKED_ACTIONS} distinct actions.
+ */
+public final class TaskLatencyRecorder {
+
+    /**
+     * The maximum number of distinct actions whose times are summed up, the times of the tasks of other actions are only recorded in
+     * the histograms.
+     */
+    public static final int MAX_TRACKED_ACTIONS = 64;
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Histogram queueWaitMicros = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final Histogram executionMicros = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final ConcurrentHashMap<String, ActionLatency> actions = new ConcurrentHashMap<>();
+
+    /**
+     * Records the times of a task that ran.
+     *
+     * @param action         the action the task ran on behalf of, or {@code null} if unknown
+     * @param queueWaitNanos the time the task waited in the queue
+     * @param executionNanos the time the task ran
+     */
+    public void record(@Nullable String action, long queueWaitNanos, long executionNanos) {
+        queueWaitMicros.recordValue(toMicros(queueWaitNanos));
+        executionMicros.recordValue(toMicros(executionNanos));
+        if (action != null) {
+            ActionLatency actionLatency = actions.get(action);
+            if (actionLatency == null) {
+                if (actions.size() >= MAX_TRACKED_ACTIONS) {
+                    return;
+                }
+                actionLatency = actions.computeIfAbsent(action, a -> new ActionLatency());
+            }
+            actionLatency.record(queueWaitNanos, executionNanos);
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(Math.max(0L, nanos));
+    }
+
+    /**
+     * Returns a copy of the histogram of the time tasks waited in the queue, in microseconds.
+     */
+    public Histogram getQueueWaitMicros() {
+        return queueWaitMicros.copy();
+    }
+
+    /**
+     * Returns a copy of the histogram of the time tasks ran, in microseconds.
+     */
+    public Histogram getExecutionMicros() {
+        return executionMicros.copy();
+    }
+
+    /**
+     * Returns the summed up times of the tasks of each tracked action.
+     */
+    public Map<String, ActionLatency> getActions() {
+        return Collections.unmodifiableMap(new HashMap<>(actions));
+    }
+
+    /**
+     * The summed up times of the tasks of an action.
+     */
+    public static final class ActionLatency {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder queueWaitNanos = new LongAdder();
+        private final LongAdder executionNanos = new LongAdder();
+
+        private void record(long queueWaitNanos, long executionNanos) {
+            this.count.increment();
+            this.queueWaitNanos.add(Math.max(0L, queueWaitNanos));
+            this.executionNanos.add(Math.max(0L, executionNanos));
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getQueueWaitNanos() {
+            return queueWaitNanos.sum();
+        }
+
+        public long getExecutionNanos() {
+            return executionNanos.sum();
+        }
+    }
+}
@@ -20,13 +20,16 @@
 package org.elasticsearch.common.util.concurrent;
 
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.Nullable;
 
 /**
  * A class used to wrap a {@code Runnable} that allows capturing the time of the task since creation
- * through execution as well as only execution time.
+ * through execution as well as only execution time. It is created when the task is submitted, so the
+ * time between its creation and the start of the execution is the time the task waited in the queue.
  */
 class TimedRunnable extends AbstractRunnable implements WrappedRunnable {
     private final Runnable original;
+    private final String action;
     private final long creationTimeNanos;
     private long startTimeNanos;
     private long finishTimeNanos = -1;
@@ -34,9 +37,27 @@ class TimedRunnable extends AbstractRunnable implements WrappedRunnable {
 
     TimedRunnable(final Runnable original) {
         this.original = original;
+        this.action = resolveAction(original);
         this.creationTimeNanos = System.nanoTime();
     }
 
+    private static String resolveAction(Runnable runnable) {
+        Runnable current = runnable;
+        while (true) {
+            if (current instanceof ActionAwareRunnable) {
+                final String action = ((ActionAwareRunnable) current).getAction();
+                if (action != null) {
+                    return action;
+                }
+            }
+            if (current instanceof WrappedRunnable) {
+                current = ((WrappedRunnable) current).unwrap();
+            } else {
+                return null;
+            }
+        }
+    }
+
     @Override
     public void doRun() {
         try {
@@ -80,6 +101,17 @@ class TimedRunnable extends AbstractRunnable implements WrappedRunnable {
         return Math.max(finishTimeNanos - creationTimeNanos, 1);
     }
 
+    /**
+     * Return the time this task spent in the queue before being run.
+     * If the task has not yet been run, returns -1.
+     */
+    long getQueueWaitNanos() {
+        if (finishTimeNanos == -1) {
+            return -1;
+        }
+        return Math.max(startTimeNanos - creationTimeNanos, 0);
+    }
+
     /**
      * Return the time this task spent being run.
      * If the task is still running or has not yet been run, returns -1.
@@ -100,9 +132,22 @@ class TimedRunnable extends AbstractRunnable implements WrappedRunnable {
         return this.failedOrRejected;
     }
 
+    /**
+     * The action the wrapped task runs on behalf of, see {@link ActionAwareRunnable}, or {@code null} if unknown.
+     */
+    @Nullable
+    String getAction() {
+        return action;
+    }
+
     @Override
     public Runnable unwrap() {
         return original;
     }
 
+    @Override
+    public String toString() {
+        return original.toString();
+    }
+
 }
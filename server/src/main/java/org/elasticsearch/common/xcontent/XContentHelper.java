@@ -58,7 +58,7 @@ public class XContentHelper {
             final XContentType contentType = XContentFactory.xContentType(compressedInput);
             return XContentFactory.xContent(contentType).createParser(xContentRegistry, deprecationHandler, compressedInput);
         } else {
-            return XContentFactory.xContent(xContentType(bytes)).createParser(xContentRegistry, deprecationHandler, bytes.streamInput());
+            return createParser(xContentRegistry, deprecationHandler, bytes, XContentFactory.xContent(xContentType(bytes)));
         }
     }
 
@@ -76,10 +76,20 @@ public class XContentHelper {
             }
             return XContentFactory.xContent(xContentType).createParser(xContentRegistry, deprecationHandler, compressedInput);
         } else {
-            return xContentType.xContent().createParser(xContentRegistry, deprecationHandler, bytes.streamInput());
+            return createParser(xContentRegistry, deprecationHandler, bytes, xContentType.xContent());
         }
     }
 
+    private static XContentParser createParser(NamedXContentRegistry xContentRegistry, DeprecationHandler deprecationHandler,
+                                               BytesReference bytes, XContent xContent) throws IOException {
+        if (bytes instanceof BytesArray) {
+            // parse the backing array in place rather than through a stream whose bytes the parser would copy into its own buffer
+            final BytesArray array = (BytesArray) bytes;
+            return xContent.createParser(xContentRegistry, deprecationHandler, array.array(), array.offset(), array.length());
+        }
+        return xContent.createParser(xContentRegistry, deprecationHandler, bytes.streamInput());
+    }
+
     /**
      * Converts the given bytes into a map that is optionally ordered.
      * @deprecated this method relies on auto-detection of content type. Use {@link #convertToMap(BytesReference, boolean, XContentType)}
@@ -20,6 +20,10 @@
 package org.elasticsearch.discovery;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.coordination.ClusterStatePublicationStats;
+import org.elasticsearch.cluster.service.ClusterApplierStats;
+import org.elasticsearch.cluster.service.MasterServiceStats;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -34,10 +38,25 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
 
     private final PendingClusterStateStats queueStats;
     private final PublishClusterStateStats publishStats;
+    @Nullable // if the node never published a cluster state or uses a discovery type that does not track publications
+    private final ClusterStatePublicationStats publicationStats;
+    @Nullable // if the node uses a discovery type that does not track master service stats
+    private final MasterServiceStats masterServiceStats;
+    @Nullable // if the node uses a discovery type that does not track cluster applier stats
+    private final ClusterApplierStats clusterApplierStats;
 
     public DiscoveryStats(PendingClusterStateStats queueStats, PublishClusterStateStats publishStats) {
+        this(queueStats, publishStats, null, null, null);
+    }
+
+    public DiscoveryStats(PendingClusterStateStats queueStats, PublishClusterStateStats publishStats,
+                          @Nullable ClusterStatePublicationStats publicationStats, @Nullable MasterServiceStats masterServiceStats,
+                          @Nullable ClusterApplierStats clusterApplierStats) {
         this.queueStats = queueStats;
         this.publishStats = publishStats;
+        this.publicationStats = publicationStats;
+        this.masterServiceStats = masterServiceStats;
+        this.clusterApplierStats = clusterApplierStats;
     }
 
     public DiscoveryStats(StreamInput in) throws IOException {
@@ -48,6 +67,16 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         } else {
             publishStats = null;
         }
+
+        if (in.getVersion().onOrAfter(Version.V_7_7_1)) {
+            publicationStats = in.readOptionalWriteable(ClusterStatePublicationStats::new);
+            masterServiceStats = in.readOptionalWriteable(MasterServiceStats::new);
+            clusterApplierStats = in.readOptionalWriteable(ClusterApplierStats::new);
+        } else {
+            publicationStats = null;
+            masterServiceStats = null;
+            clusterApplierStats = null;
+        }
     }
 
     @Override
@@ -57,6 +86,12 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         if (out.getVersion().onOrAfter(Version.V_6_1_0)) {
             out.writeOptionalWriteable(publishStats);
         }
+
+        if (out.getVersion().onOrAfter(Version.V_7_7_1)) {
+            out.writeOptionalWriteable(publicationStats);
+            out.writeOptionalWriteable(masterServiceStats);
+            out.writeOptionalWriteable(clusterApplierStats);
+        }
     }
 
     @Override
@@ -68,6 +103,15 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         if (publishStats != null) {
             publishStats.toXContent(builder, params);
         }
+        if (publicationStats != null) {
+            publicationStats.toXContent(builder, params);
+        }
+        if (masterServiceStats != null) {
+            masterServiceStats.toXContent(builder, params);
+        }
+        if (clusterApplierStats != null) {
+            clusterApplierStats.toXContent(builder, params);
+        }
         builder.endObject();
         return builder;
     }
@@ -83,4 +127,19 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
     public PublishClusterStateStats getPublishStats() {
         return publishStats;
     }
+
+    @Nullable
+    public ClusterStatePublicationStats getPublicationStats() {
+        return publicationStats;
+    }
+
+    @Nullable
+    public MasterServiceStats getMasterServiceStats() {
+        return masterServiceStats;
+    }
+
+    @Nullable
+    public ClusterApplierStats getClusterApplierStats() {
+        return clusterApplierStats;
+    }
 }
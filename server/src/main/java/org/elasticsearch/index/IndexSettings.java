@@ -31,6 +31,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.ingest.IngestService;
 import org.elasticsearch.node.Node;
@@ -134,6 +135,15 @@ public final class IndexSettings {
         Setting.intSetting("index.highlight.max_analyzed_offset", 1000000, 1,
             Property.Dynamic, Property.IndexScope);
 
+    /**
+     * A setting describing how long the text of the fields of a hit may be analyzed for in a highlight request. Once it is spent,
+     * the remaining text of the hit isn't highlighted. Like {@link #MAX_ANALYZED_OFFSET_SETTING}, this only applies to texts that
+     * were indexed without offsets or term vectors. Defaults to {@code -1}, which means unbounded.
+     */
+    public static final Setting<TimeValue> MAX_ANALYSIS_TIME_SETTING =
+        Setting.timeSetting("index.highlight.max_analysis_time", TimeValue.MINUS_ONE, TimeValue.MINUS_ONE,
+            Property.Dynamic, Property.IndexScope);
+
 
     /**
      * Index setting describing the maximum number of terms that can be used in Terms Query.
@@ -170,6 +180,13 @@ public final class IndexSettings {
      */
     public static final Setting<Integer> MAX_DOCVALUE_FIELDS_SEARCH_SETTING =
         Setting.intSetting("index.max_docvalue_fields_search", 100, 0, Property.Dynamic, Property.IndexScope);
+    /**
+     * Index setting describing the maximum number of search threads that fetch the hits of a shard level search request
+     * concurrently. The default of 1 fetches the hits on the thread that runs the request, since fetching in parallel
+     * only pays off for large pages of hits and takes threads from other requests.
+     */
+    public static final Setting<Integer> MAX_FETCH_CONCURRENCY_SETTING =
+        Setting.intSetting("index.max_fetch_concurrency", 1, 1, Property.Dynamic, Property.IndexScope);
     /**
      * Index setting describing the maximum size of the rescore window. Defaults to {@link #MAX_RESULT_WINDOW_SETTING}
      * because they both do the same thing: control the size of the heap of hits.
@@ -395,13 +412,16 @@ public final class IndexSettings {
     private volatile int maxAdjacencyMatrixFilters;
     private volatile int maxRescoreWindow;
     private volatile int maxDocvalueFields;
+    private volatile int maxFetchConcurrency;
     private volatile int maxScriptFields;
     private volatile int maxTokenCount;
     private volatile int maxNgramDiff;
     private volatile int maxShingleDiff;
     private volatile TimeValue searchIdleAfter;
     private volatile int maxAnalyzedOffset;
+    private volatile TimeValue maxAnalysisTime;
     private volatile int maxTermsCount;
+    private volatile long mappingNestedDocsLimit;
     private volatile String defaultPipeline;
     private volatile String requiredPipeline;
     private volatile boolean searchThrottled;
@@ -511,6 +531,7 @@ public final class IndexSettings {
         maxAdjacencyMatrixFilters = scopedSettings.get(MAX_ADJACENCY_MATRIX_FILTERS_SETTING);
         maxRescoreWindow = scopedSettings.get(MAX_RESCORE_WINDOW_SETTING);
         maxDocvalueFields = scopedSettings.get(MAX_DOCVALUE_FIELDS_SEARCH_SETTING);
+        maxFetchConcurrency = scopedSettings.get(MAX_FETCH_CONCURRENCY_SETTING);
         maxScriptFields = scopedSettings.get(MAX_SCRIPT_FIELDS_SETTING);
         maxTokenCount = scopedSettings.get(MAX_TOKEN_COUNT_SETTING);
         maxNgramDiff = scopedSettings.get(MAX_NGRAM_DIFF_SETTING);
@@ -518,7 +539,9 @@ public final class IndexSettings {
         maxRefreshListeners = scopedSettings.get(MAX_REFRESH_LISTENERS_PER_SHARD);
         maxSlicesPerScroll = scopedSettings.get(MAX_SLICES_PER_SCROLL);
         maxAnalyzedOffset = scopedSettings.get(MAX_ANALYZED_OFFSET_SETTING);
+        maxAnalysisTime = scopedSettings.get(MAX_ANALYSIS_TIME_SETTING);
         maxTermsCount = scopedSettings.get(MAX_TERMS_COUNT_SETTING);
+        mappingNestedDocsLimit = scopedSettings.get(MapperService.INDEX_MAPPING_NESTED_DOCS_LIMIT_SETTING);
         maxRegexLength = scopedSettings.get(MAX_REGEX_LENGTH_SETTING);
         this.mergePolicyConfig = new MergePolicyConfig(logger, this);
         this.indexSortConfig = new IndexSortConfig(this);
@@ -553,6 +576,7 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(MAX_ADJACENCY_MATRIX_FILTERS_SETTING, this::setMaxAdjacencyMatrixFilters);
         scopedSettings.addSettingsUpdateConsumer(MAX_RESCORE_WINDOW_SETTING, this::setMaxRescoreWindow);
         scopedSettings.addSettingsUpdateConsumer(MAX_DOCVALUE_FIELDS_SEARCH_SETTING, this::setMaxDocvalueFields);
+        scopedSettings.addSettingsUpdateConsumer(MAX_FETCH_CONCURRENCY_SETTING, this::setMaxFetchConcurrency);
         scopedSettings.addSettingsUpdateConsumer(MAX_SCRIPT_FIELDS_SETTING, this::setMaxScriptFields);
         scopedSettings.addSettingsUpdateConsumer(MAX_TOKEN_COUNT_SETTING, this::setMaxTokenCount);
         scopedSettings.addSettingsUpdateConsumer(MAX_NGRAM_DIFF_SETTING, this::setMaxNgramDiff);
@@ -569,7 +593,9 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_INTERVAL_SETTING, this::setRefreshInterval);
         scopedSettings.addSettingsUpdateConsumer(MAX_REFRESH_LISTENERS_PER_SHARD, this::setMaxRefreshListeners);
         scopedSettings.addSettingsUpdateConsumer(MAX_ANALYZED_OFFSET_SETTING, this::setHighlightMaxAnalyzedOffset);
+        scopedSettings.addSettingsUpdateConsumer(MAX_ANALYSIS_TIME_SETTING, this::setHighlightMaxAnalysisTime);
         scopedSettings.addSettingsUpdateConsumer(MAX_TERMS_COUNT_SETTING, this::setMaxTermsCount);
+        scopedSettings.addSettingsUpdateConsumer(MapperService.INDEX_MAPPING_NESTED_DOCS_LIMIT_SETTING, this::setMappingNestedDocsLimit);
         scopedSettings.addSettingsUpdateConsumer(MAX_SLICES_PER_SCROLL, this::setMaxSlicesPerScroll);
         scopedSettings.addSettingsUpdateConsumer(DEFAULT_FIELD_SETTING, this::setDefaultFields);
         scopedSettings.addSettingsUpdateConsumer(INDEX_SEARCH_IDLE_AFTER, this::setSearchIdleAfter);
@@ -895,6 +921,17 @@ public final class IndexSettings {
         this.maxDocvalueFields = maxDocvalueFields;
     }
 
+    /**
+     * Returns the maximum number of search threads that fetch the hits of a shard level search request concurrently
+     */
+    public int getMaxFetchConcurrency() {
+        return this.maxFetchConcurrency;
+    }
+
+    private void setMaxFetchConcurrency(int maxFetchConcurrency) {
+        this.maxFetchConcurrency = maxFetchConcurrency;
+    }
+
     /**
      * Returns the maximum number of tokens that can be produced
      */
@@ -928,6 +965,13 @@ public final class IndexSettings {
 
     private void setHighlightMaxAnalyzedOffset(int maxAnalyzedOffset) { this.maxAnalyzedOffset = maxAnalyzedOffset; }
 
+    /**
+     *  Returns how long the text of a hit may be analyzed for in a highlight request, or {@code -1} if unbounded
+     */
+    public TimeValue getHighlightMaxAnalysisTime() { return this.maxAnalysisTime; }
+
+    private void setHighlightMaxAnalysisTime(TimeValue maxAnalysisTime) { this.maxAnalysisTime = maxAnalysisTime; }
+
     /**
      *  Returns the maximum number of terms that can be used in a Terms Query request
      */
@@ -935,6 +979,17 @@ public final class IndexSettings {
 
     private void setMaxTermsCount (int maxTermsCount) { this.maxTermsCount = maxTermsCount; }
 
+    /**
+     * Returns the maximum number of nested documents a single document can have
+     */
+    public long getMappingNestedDocsLimit() {
+        return mappingNestedDocsLimit;
+    }
+
+    private void setMappingNestedDocsLimit(long mappingNestedDocsLimit) {
+        this.mappingNestedDocsLimit = mappingNestedDocsLimit;
+    }
+
     /**
      * Returns the maximum number of allowed script_fields to retrieve in a search request
      */
@@ -54,6 +54,7 @@ import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.RoutingFieldMapper;
 import org.elasticsearch.index.mapper.SourceFieldMapper;
 import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.mapper.SyntheticSource;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.IndexShard;
@@ -177,7 +178,10 @@ public final class ShardGetService extends AbstractIndexShardComponent {
         Engine.GetResult get = null;
         if (type != null) {
             Term uidTerm = new Term(IdFieldMapper.NAME, Uid.encodeId(id));
-            get = indexShard.get(new Engine.Get(realtime, realtime, type, id, uidTerm)
+            // a synthetic source is rebuilt from doc values, which the translog doesn't have, so realtime gets refresh instead
+            DocumentMapper mapper = mapperService.documentMapper();
+            boolean readFromTranslog = realtime && (mapper == null || mapper.sourceMapper().isSynthetic() == false);
+            get = indexShard.get(new Engine.Get(realtime, readFromTranslog, type, id, uidTerm)
                 .version(version).versionType(versionType).setIfSeqNo(ifSeqNo).setIfPrimaryTerm(ifPrimaryTerm));
             assert get.isFromTranslog() == false || realtime : "should only read from translog if realtime enabled";
             if (get.exists() == false) {
@@ -231,6 +235,13 @@ public final class ShardGetService extends AbstractIndexShardComponent {
                 throw new ElasticsearchException("Failed to get type [" + type + "] and id [" + id + "]", e);
             }
             source = fieldVisitor.source();
+            if (source == null && fetchSourceContext.fetchSource() && get.isFromTranslog() == false) {
+                try {
+                    source = SyntheticSource.loadIfSynthetic(docMapper, docIdAndVersion.reader, docIdAndVersion.docId);
+                } catch (IOException e) {
+                    throw new ElasticsearchException("Failed to load synthetic source of type [" + type + "] and id [" + id + "]", e);
+                }
+            }
 
             // in case we read from translog, some extra steps are needed to make _source consistent and to load stored fields
             if (get.isFromTranslog()) {
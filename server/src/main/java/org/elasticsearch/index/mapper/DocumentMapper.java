@@ -121,7 +121,8 @@ public class DocumentMapper implements ToXContentFragment {
     private final String type;
     private final Text typeText;
 
-    private final CompressedXContent mappingSource;
+    // serialized lazily, most mappers that are built while merging mapping updates never need their source
+    private volatile CompressedXContent mappingSource;
 
     private final Mapping mapping;
 
@@ -179,12 +180,6 @@ public class DocumentMapper implements ToXContentFragment {
         }
         this.hasNestedObjects = hasNestedObjects;
 
-        try {
-            mappingSource = new CompressedXContent(this, XContentType.JSON, ToXContent.EMPTY_PARAMS);
-        } catch (Exception e) {
-            throw new ElasticsearchGenerationException("failed to serialize source for type [" + type + "]", e);
-        }
-
         final Collection<String> deleteTombstoneMetadataFields = Arrays.asList(VersionFieldMapper.NAME, IdFieldMapper.NAME,
             TypeFieldMapper.NAME, SeqNoFieldMapper.NAME, SeqNoFieldMapper.PRIMARY_TERM_NAME, SeqNoFieldMapper.TOMBSTONE_NAME);
         this.deleteTombstoneMetadataFieldMappers = Stream.of(mapping.metadataMappers)
@@ -199,6 +194,10 @@ public class DocumentMapper implements ToXContentFragment {
         return mapping;
     }
 
+    DocumentParser documentParser() {
+        return documentParser;
+    }
+
     public String type() {
         return this.type;
     }
@@ -211,8 +210,31 @@ public class DocumentMapper implements ToXContentFragment {
         return mapping.meta;
     }
 
+    /**
+     * Returns the source of this mapping, which is serialized on first access. {@link MapperService} serializes the source of the
+     * mappers it merges, so only mappers that were parsed but never merged may throw an {@link ElasticsearchGenerationException}
+     * here.
+     */
     public CompressedXContent mappingSource() {
-        return this.mappingSource;
+        CompressedXContent mappingSource = this.mappingSource;
+        if (mappingSource == null) {
+            // the mapping is immutable so concurrent callers serialize it to the same source
+            try {
+                mappingSource = new CompressedXContent(this, XContentType.JSON, ToXContent.EMPTY_PARAMS);
+            } catch (Exception e) {
+                throw new ElasticsearchGenerationException("failed to serialize source for type [" + type + "]", e);
+            }
+            this.mappingSource = mappingSource;
+        }
+        return mappingSource;
+    }
+
+    /**
+     * Replaces the source of this mapper with the equal instance of the cluster state, which indices with identical mappings share.
+     */
+    void shareMappingSource(CompressedXContent mappingSource) {
+        assert mappingSource.equals(mappingSource()) : "can't share a different mapping source";
+        this.mappingSource = mappingSource;
     }
 
     public RootObjectMapper root() {
@@ -346,7 +368,7 @@ public class DocumentMapper implements ToXContentFragment {
             "mapperService=" + mapperService +
             ", type='" + type + '\'' +
             ", typeText=" + typeText +
-            ", mappingSource=" + mappingSource +
+            ", mappingSource=" + mappingSource() +
             ", mapping=" + mapping +
             ", documentParser=" + documentParser +
             ", fieldMappers=" + fieldMappers +
@@ -40,17 +40,32 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** A parser for documents, given mappings from a DocumentMapper */
 final class DocumentParser {
 
+    /**
+     * The maximum number of field names resolved per object of the mapping, so that documents whose field names keep changing, like
+     * keys that are ids, don't grow the cache without bounds.
+     */
+    static final int MAX_FIELD_PATHS_PER_OBJECT = 1024;
+
     private final IndexSettings indexSettings;
     private final DocumentMapperParser docMapperParser;
     private final DocumentMapper docMapper;
 
+    /**
+     * The field names of each object of the mapping resolved to their {@link FieldPath}, built on first use. The mapping of a parser
+     * never changes, a mapping update creates a new {@link DocumentMapper} and parser, so resolved field paths never go stale.
+     */
+    private volatile Map<ObjectMapper, Map<String, FieldPath>> fieldPaths;
+
     DocumentParser(IndexSettings indexSettings, DocumentMapperParser docMapperParser, DocumentMapper docMapper) {
         this.indexSettings = indexSettings;
         this.docMapperParser = docMapperParser;
@@ -83,6 +98,70 @@ final class DocumentParser {
         return parsedDocument(source, context, createDynamicUpdate(mapping, docMapper, context.getDynamicMappers()));
     }
 
+    /**
+     * A field name of an object resolved to the elements of its path and to its mapper. The same field names repeat in every document
+     * so they are resolved once for each object of the mapping rather than split and looked up again for every field of every document.
+     */
+    static final class FieldPath {
+        final String[] paths;
+        final boolean inDisabledObject;
+        // whether the mapper was resolved, which fails if one of the intermediate objects is nested
+        private final boolean resolved;
+        private final Mapper mapper;
+
+        private FieldPath(ObjectMapper objectMapper, String fieldName) {
+            this.paths = splitAndValidatePath(fieldName);
+            this.inDisabledObject = containsDisabledObjectMapper(objectMapper, paths);
+            Mapper mapper = null;
+            boolean resolved = false;
+            try {
+                mapper = getMapper(objectMapper, fieldName, paths);
+                resolved = true;
+            } catch (MapperParsingException e) {
+                // fail when a value of the field is parsed, like if it wasn't resolved up front
+            }
+            this.mapper = mapper;
+            this.resolved = resolved;
+        }
+
+        /**
+         * The mapper of the field in the given object, or {@code null} if the field isn't mapped.
+         */
+        Mapper mapper(ObjectMapper objectMapper, String fieldName) {
+            return resolved ? mapper : getMapper(objectMapper, fieldName, paths);
+        }
+    }
+
+    private static FieldPath fieldPath(ParseContext context, ObjectMapper objectMapper, String fieldName) {
+        return context.docMapper().documentParser().fieldPath(objectMapper, fieldName);
+    }
+
+    private FieldPath fieldPath(ObjectMapper objectMapper, String fieldName) {
+        Map<ObjectMapper, Map<String, FieldPath>> fieldPaths = this.fieldPaths;
+        if (fieldPaths == null) {
+            // concurrent first uses may each build the maps, which only costs the field paths resolved in the maps that are dropped
+            fieldPaths = new IdentityHashMap<>();
+            fieldPaths.put(docMapper.root(), new ConcurrentHashMap<>());
+            for (ObjectMapper mapper : docMapper.objectMappers().values()) {
+                fieldPaths.put(mapper, new ConcurrentHashMap<>());
+            }
+            this.fieldPaths = fieldPaths;
+        }
+        // objects that are dynamically mapped by the document being parsed are not part of the mapping and aren't cached
+        Map<String, FieldPath> objectFieldPaths = fieldPaths.get(objectMapper);
+        if (objectFieldPaths == null) {
+            return new FieldPath(objectMapper, fieldName);
+        }
+        FieldPath fieldPath = objectFieldPaths.get(fieldName);
+        if (fieldPath == null) {
+            fieldPath = new FieldPath(objectMapper, fieldName);
+            if (objectFieldPaths.size() < MAX_FIELD_PATHS_PER_OBJECT) {
+                objectFieldPaths.put(fieldName, fieldPath);
+            }
+        }
+        return fieldPath;
+    }
+
     private static boolean containsDisabledObjectMapper(ObjectMapper objectMapper, String[] subfields) {
         for (int i = 0; i < subfields.length - 1; ++i) {
             Mapper mapper = objectMapper.getMapper(subfields[i]);
@@ -402,29 +481,31 @@ final class DocumentParser {
     private static void innerParseObject(ParseContext context, ObjectMapper mapper, XContentParser parser,
                                          String currentFieldName, XContentParser.Token token) throws IOException {
         assert token == XContentParser.Token.FIELD_NAME || token == XContentParser.Token.END_OBJECT;
-        String[] paths = null;
+        FieldPath fieldPath = null;
         while (token != XContentParser.Token.END_OBJECT) {
             if (token == XContentParser.Token.FIELD_NAME) {
                 currentFieldName = parser.currentName();
-                paths = splitAndValidatePath(currentFieldName);
-                if (MapperService.isMetadataField(context.path().pathAsText(currentFieldName))) {
+                fieldPath = fieldPath(context, mapper, currentFieldName);
+                // metadata field names have no dots, so only the field names of the root object can be metadata fields
+                assert context.path().length() == 0 || MapperService.isMetadataField(context.path().pathAsText(currentFieldName)) == false;
+                if (context.path().length() == 0 && MapperService.isMetadataField(currentFieldName)) {
                     throw new MapperParsingException("Field [" + currentFieldName + "] is a metadata field and cannot be added inside"
                         + " a document. Use the index API request parameters.");
-                } else if (containsDisabledObjectMapper(mapper, paths)) {
+                } else if (fieldPath.inDisabledObject) {
                     parser.nextToken();
                     parser.skipChildren();
                 }
             } else if (token == XContentParser.Token.START_OBJECT) {
-                parseObject(context, mapper, currentFieldName, paths);
+                parseObject(context, mapper, currentFieldName, fieldPath);
             } else if (token == XContentParser.Token.START_ARRAY) {
-                parseArray(context, mapper, currentFieldName, paths);
+                parseArray(context, mapper, currentFieldName, fieldPath);
             } else if (token == XContentParser.Token.VALUE_NULL) {
-                parseNullValue(context, mapper, currentFieldName, paths);
+                parseNullValue(context, mapper, currentFieldName, fieldPath);
             } else if (token == null) {
                 throw new MapperParsingException("object mapping for [" + mapper.name() + "] tried to parse field [" + currentFieldName
                     + "] as object, but got EOF, has a concrete value been provided to it?");
             } else if (token.isValue()) {
-                parseValue(context, mapper, currentFieldName, token, paths);
+                parseValue(context, mapper, currentFieldName, token, fieldPath);
             }
             token = parser.nextToken();
         }
@@ -496,10 +577,11 @@ final class DocumentParser {
     }
 
     private static void parseObject(final ParseContext context, ObjectMapper mapper, String currentFieldName,
-                                    String[] paths) throws IOException {
+                                    FieldPath fieldPath) throws IOException {
         assert currentFieldName != null;
 
-        Mapper objectMapper = getMapper(mapper, currentFieldName, paths);
+        Mapper objectMapper = fieldPath.mapper(mapper, currentFieldName);
+        final String[] paths = fieldPath.paths;
         if (objectMapper != null) {
             context.path().add(currentFieldName);
             parseObjectOrField(context, objectMapper);
@@ -533,10 +615,11 @@ final class DocumentParser {
     }
 
     private static void parseArray(ParseContext context, ObjectMapper parentMapper, String lastFieldName,
-                                   String[] paths) throws IOException {
+                                   FieldPath fieldPath) throws IOException {
         String arrayFieldName = lastFieldName;
 
-        Mapper mapper = getMapper(parentMapper, lastFieldName, paths);
+        Mapper mapper = fieldPath.mapper(parentMapper, lastFieldName);
+        final String[] paths = fieldPath.paths;
         if (mapper != null) {
             // There is a concrete mapper for this field already. Need to check if the mapper
             // expects an array, if so we pass the context straight to the mapper and if not
@@ -585,31 +668,32 @@ final class DocumentParser {
                                              final String lastFieldName, String arrayFieldName) throws IOException {
         XContentParser parser = context.parser();
         XContentParser.Token token;
-        final String[] paths = splitAndValidatePath(lastFieldName);
+        final FieldPath fieldPath = fieldPath(context, mapper, lastFieldName);
         while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
             if (token == XContentParser.Token.START_OBJECT) {
-                parseObject(context, mapper, lastFieldName, paths);
+                parseObject(context, mapper, lastFieldName, fieldPath);
             } else if (token == XContentParser.Token.START_ARRAY) {
-                parseArray(context, mapper, lastFieldName, paths);
+                parseArray(context, mapper, lastFieldName, fieldPath);
             } else if (token == XContentParser.Token.VALUE_NULL) {
-                parseNullValue(context, mapper, lastFieldName, paths);
+                parseNullValue(context, mapper, lastFieldName, fieldPath);
             } else if (token == null) {
                 throw new MapperParsingException("object mapping for [" + mapper.name() + "] with array for [" + arrayFieldName
                     + "] tried to parse as array, but got EOF, is there a mismatch in types for the same field?");
             } else {
                 assert token.isValue();
-                parseValue(context, mapper, lastFieldName, token, paths);
+                parseValue(context, mapper, lastFieldName, token, fieldPath);
             }
         }
     }
 
     private static void parseValue(final ParseContext context, ObjectMapper parentMapper,
-                                   String currentFieldName, XContentParser.Token token, String[] paths) throws IOException {
+                                   String currentFieldName, XContentParser.Token token, FieldPath fieldPath) throws IOException {
         if (currentFieldName == null) {
             throw new MapperParsingException("object mapping [" + parentMapper.name() + "] trying to serialize a value with"
                 + " no field associated with it, current value [" + context.parser().textOrNull() + "]");
         }
-        Mapper mapper = getMapper(parentMapper, currentFieldName, paths);
+        Mapper mapper = fieldPath.mapper(parentMapper, currentFieldName);
+        final String[] paths = fieldPath.paths;
         if (mapper != null) {
             parseObjectOrField(context, mapper);
         } else {
@@ -624,9 +708,9 @@ final class DocumentParser {
     }
 
     private static void parseNullValue(ParseContext context, ObjectMapper parentMapper, String lastFieldName,
-                                       String[] paths) throws IOException {
+                                       FieldPath fieldPath) throws IOException {
         // we can only handle null values if we have mappings for them
-        Mapper mapper = getMapper(parentMapper, lastFieldName, paths);
+        Mapper mapper = fieldPath.mapper(parentMapper, lastFieldName);
         if (mapper != null) {
             // TODO: passing null to an object seems bogus?
             parseObjectOrField(context, mapper);
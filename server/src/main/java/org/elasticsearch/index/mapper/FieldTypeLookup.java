@@ -60,6 +60,7 @@ class FieldTypeLookup implements Iterable<MappedFieldType> {
      * from the provided mappers. If a field already exists, its field type will be updated
      * to use the new type from the given field mapper. Similarly if an alias already
      * exists, it will be updated to reference the field type from the new mapper.
+     * Returns this instance if none of the field types or aliases changed.
      */
     public FieldTypeLookup copyAndAddAll(String type,
                                          Collection<FieldMapper> fieldMappers,
@@ -78,7 +79,8 @@ class FieldTypeLookup implements Iterable<MappedFieldType> {
             MappedFieldType fieldType = fieldMapper.fieldType();
             MappedFieldType fullNameFieldType = fullName.get(fieldType.name());
 
-            if (!Objects.equals(fieldType, fullNameFieldType)) {
+            // mappers that a mapping update did not touch keep their field type instance, skip comparing their properties
+            if (fieldType != fullNameFieldType && !Objects.equals(fieldType, fullNameFieldType)) {
                 fullName = fullName.copyAndPut(fieldType.name(), fieldType);
             }
 
@@ -90,9 +92,15 @@ class FieldTypeLookup implements Iterable<MappedFieldType> {
         for (FieldAliasMapper fieldAliasMapper : fieldAliasMappers) {
             String aliasName = fieldAliasMapper.name();
             String path = fieldAliasMapper.path();
-            aliases = aliases.copyAndPut(aliasName, path);
+            if (path.equals(aliases.get(aliasName)) == false) {
+                aliases = aliases.copyAndPut(aliasName, path);
+            }
         }
 
+        if (fullName == this.fullNameToFieldType && aliases == this.aliasToConcreteName && dynamicKeyMappers.isEmpty()) {
+            // nothing changed, which is the common case for the existing fields of a mapping update
+            return this;
+        }
         DynamicKeyFieldTypeLookup newDynamicKeyLookup = this.dynamicKeyLookup.copyAndAddAll(dynamicKeyMappers, aliases);
         return new FieldTypeLookup(fullName, aliases, newDynamicKeyLookup);
     }
@@ -265,6 +265,9 @@ public class MapperService extends AbstractIndexComponent implements Closeable {
                     index(), mappingType, incomingMappingSource, documentMapper(mappingType).mappingSource());
 
                 requireRefresh = true;
+            } else {
+                // the cluster state shares the sources of identical mappings across indices, see MetaData.Builder#build
+                documentMapper(mappingType).shareMappingSource(incomingMappingSource);
             }
         }
 
@@ -483,11 +486,18 @@ public class MapperService extends AbstractIndexComponent implements Closeable {
 
             MapperMergeValidator.validateNewMappers(objectMappers, fieldMappers, fieldAliasMappers, fieldTypes);
             checkPartitionedIndexConstraints(newMapper);
+            if (newMapper.sourceMapper().isSynthetic()) {
+                SyntheticSource.validate(newMapper);
+            }
 
             // update lookup data-structures
             fieldTypes = fieldTypes.copyAndAddAll(newMapper.type(), fieldMappers, fieldAliasMappers);
 
             for (ObjectMapper objectMapper : objectMappers) {
+                if (fullPathObjectMappers.get(objectMapper.fullPath()) == objectMapper) {
+                    // unchanged by this update, and already accounted for in hasNested
+                    continue;
+                }
                 if (fullPathObjectMappers == this.fullPathObjectMappers) {
                     // first time through the loops
                     fullPathObjectMappers = new HashMap<>(this.fullPathObjectMappers);
@@ -537,6 +547,9 @@ public class MapperService extends AbstractIndexComponent implements Closeable {
                 newMapper = updatedDocumentMapper;
                 results.put(updatedDocumentMapper.type(), updatedDocumentMapper);
             }
+            // the source of the merged mapper is serialized lazily, serialize it here so that a failure fails the merge rather than
+            // a later caller
+            newMapper.mappingSource();
         }
 
         // make structures immutable
@@ -0,0 +1,113 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Statistics about the mapping sources that the indices in the cluster state of a node share, see
+ * {@link org.elasticsearch.cluster.metadata.MetaData.Builder#build()}.
+ */
+public class MappingDeduplicationStats implements Writeable, ToXContentFragment {
+
+    private final long uniqueCount;
+    private final long totalCount;
+    private final long sizeInBytes;
+    private final long savedInBytes;
+
+    public MappingDeduplicationStats(long uniqueCount, long totalCount, long sizeInBytes, long savedInBytes) {
+        this.uniqueCount = uniqueCount;
+        this.totalCount = totalCount;
+        this.sizeInBytes = sizeInBytes;
+        this.savedInBytes = savedInBytes;
+    }
+
+    public MappingDeduplicationStats(StreamInput in) throws IOException {
+        uniqueCount = in.readVLong();
+        totalCount = in.readVLong();
+        sizeInBytes = in.readVLong();
+        savedInBytes = in.readVLong();
+    }
+
+    /**
+     * The number of distinct mapping source instances.
+     */
+    public long getUniqueCount() {
+        return uniqueCount;
+    }
+
+    /**
+     * The number of mappings in the cluster state.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * The compressed size of the distinct mapping source instances.
+     */
+    public ByteSizeValue getSize() {
+        return new ByteSizeValue(sizeInBytes);
+    }
+
+    /**
+     * The compressed size of the copies of mapping sources that indices would hold if they didn't share them. Copies of equal
+     * sources that aren't shared aren't counted.
+     */
+    public ByteSizeValue getSaved() {
+        return new ByteSizeValue(savedInBytes);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(uniqueCount);
+        out.writeVLong(totalCount);
+        out.writeVLong(sizeInBytes);
+        out.writeVLong(savedInBytes);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.MAPPINGS);
+        builder.field(Fields.UNIQUE_COUNT, uniqueCount);
+        builder.field(Fields.TOTAL_COUNT, totalCount);
+        builder.humanReadableField(Fields.SIZE_IN_BYTES, Fields.SIZE, getSize());
+        builder.humanReadableField(Fields.SAVED_IN_BYTES, Fields.SAVED, getSaved());
+        builder.endObject();
+        return builder;
+    }
+
+    static final class Fields {
+        static final String MAPPINGS = "mappings";
+        static final String UNIQUE_COUNT = "unique_count";
+        static final String TOTAL_COUNT = "total_count";
+        static final String SIZE = "size";
+        static final String SIZE_IN_BYTES = "size_in_bytes";
+        static final String SAVED = "saved";
+        static final String SAVED_IN_BYTES = "saved_in_bytes";
+    }
+}
@@ -54,11 +54,14 @@ public class SourceFieldMapper extends MetadataFieldMapper {
     public static final String RECOVERY_SOURCE_NAME = "_recovery_source";
 
     public static final String CONTENT_TYPE = "_source";
+    public static final String STORED_MODE = "stored";
+    public static final String SYNTHETIC_MODE = "synthetic";
     private final Function<Map<String, ?>, Map<String, Object>> filter;
 
     public static class Defaults {
         public static final String NAME = SourceFieldMapper.NAME;
         public static final boolean ENABLED = true;
+        public static final boolean SYNTHETIC = false;
 
         public static final MappedFieldType FIELD_TYPE = new SourceFieldType();
 
@@ -77,6 +80,7 @@ public class SourceFieldMapper extends MetadataFieldMapper {
     public static class Builder extends MetadataFieldMapper.Builder<Builder, SourceFieldMapper> {
 
         private boolean enabled = Defaults.ENABLED;
+        private boolean synthetic = Defaults.SYNTHETIC;
 
         private String[] includes = null;
         private String[] excludes = null;
@@ -90,6 +94,11 @@ public class SourceFieldMapper extends MetadataFieldMapper {
             return this;
         }
 
+        public Builder synthetic(boolean synthetic) {
+            this.synthetic = synthetic;
+            return this;
+        }
+
         public Builder includes(String[] includes) {
             this.includes = includes;
             return this;
@@ -102,7 +111,13 @@ public class SourceFieldMapper extends MetadataFieldMapper {
 
         @Override
         public SourceFieldMapper build(BuilderContext context) {
-            return new SourceFieldMapper(enabled, includes, excludes, context.indexSettings());
+            if (synthetic && enabled == false) {
+                throw new MapperParsingException("[_source] can't be disabled when its mode is [" + SYNTHETIC_MODE + "]");
+            }
+            if (synthetic && (includes != null || excludes != null)) {
+                throw new MapperParsingException("[_source] can't filter fields when its mode is [" + SYNTHETIC_MODE + "]");
+            }
+            return new SourceFieldMapper(enabled, synthetic, includes, excludes, context.indexSettings());
         }
     }
 
@@ -119,6 +134,17 @@ public class SourceFieldMapper extends MetadataFieldMapper {
                 if (fieldName.equals("enabled")) {
                     builder.enabled(XContentMapValues.nodeBooleanValue(fieldNode, name + ".enabled"));
                     iterator.remove();
+                } else if (fieldName.equals("mode")) {
+                    String mode = fieldNode.toString();
+                    if (mode.equals(SYNTHETIC_MODE)) {
+                        builder.synthetic(true);
+                    } else if (mode.equals(STORED_MODE)) {
+                        builder.synthetic(false);
+                    } else {
+                        throw new MapperParsingException("Unknown mode [" + mode + "] for [" + name + "], expected one of ["
+                            + STORED_MODE + ", " + SYNTHETIC_MODE + "]");
+                    }
+                    iterator.remove();
                 } else if (fieldName.equals("includes")) {
                     List<Object> values = (List<Object>) fieldNode;
                     String[] includes = new String[values.size()];
@@ -178,6 +204,9 @@ public class SourceFieldMapper extends MetadataFieldMapper {
 
     private final boolean enabled;
 
+    /** indicates whether the source is rebuilt from doc values at fetch time instead of being stored */
+    private final boolean synthetic;
+
     /** indicates whether the source will always exist and be complete, for use by features like the update API */
     private final boolean complete;
 
@@ -185,12 +214,13 @@ public class SourceFieldMapper extends MetadataFieldMapper {
     private final String[] excludes;
 
     private SourceFieldMapper(Settings indexSettings) {
-        this(Defaults.ENABLED, null, null, indexSettings);
+        this(Defaults.ENABLED, Defaults.SYNTHETIC, null, null, indexSettings);
     }
 
-    private SourceFieldMapper(boolean enabled, String[] includes, String[] excludes, Settings indexSettings) {
+    private SourceFieldMapper(boolean enabled, boolean synthetic, String[] includes, String[] excludes, Settings indexSettings) {
         super(NAME, Defaults.FIELD_TYPE.clone(), Defaults.FIELD_TYPE, indexSettings); // Only stored.
         this.enabled = enabled;
+        this.synthetic = synthetic;
         this.includes = includes;
         this.excludes = excludes;
         final boolean filtered = (includes != null && includes.length > 0) || (excludes != null && excludes.length > 0);
@@ -215,6 +245,13 @@ public class SourceFieldMapper extends MetadataFieldMapper {
         return complete;
     }
 
+    /**
+     * Whether the {@code _source} isn't stored but rebuilt from the doc values of the fields of the document by {@link SyntheticSource}.
+     */
+    public boolean isSynthetic() {
+        return synthetic;
+    }
+
     @Override
     public void preParse(ParseContext context) throws IOException {
         super.parse(context);
@@ -246,7 +283,7 @@ public class SourceFieldMapper extends MetadataFieldMapper {
 
     @Nullable
     public BytesReference applyFilters(@Nullable BytesReference originalSource, @Nullable XContentType contentType) throws IOException {
-        if (enabled && fieldType().stored() && originalSource != null) {
+        if (enabled && synthetic == false && fieldType().stored() && originalSource != null) {
             // Percolate and tv APIs may not set the source and that is ok, because these APIs will not index any data
             if (filter != null) {
                 // we don't update the context source if we filter, we want to keep it as is...
@@ -276,13 +313,16 @@ public class SourceFieldMapper extends MetadataFieldMapper {
         boolean includeDefaults = params.paramAsBoolean("include_defaults", false);
 
         // all are defaults, no need to write it at all
-        if (!includeDefaults && enabled == Defaults.ENABLED && includes == null && excludes == null) {
+        if (!includeDefaults && enabled == Defaults.ENABLED && synthetic == Defaults.SYNTHETIC && includes == null && excludes == null) {
             return builder;
         }
         builder.startObject(contentType());
         if (includeDefaults || enabled != Defaults.ENABLED) {
             builder.field("enabled", enabled);
         }
+        if (includeDefaults || synthetic != Defaults.SYNTHETIC) {
+            builder.field("mode", synthetic ? SYNTHETIC_MODE : STORED_MODE);
+        }
 
         if (includes != null) {
             builder.array("includes", includes);
@@ -307,6 +347,9 @@ public class SourceFieldMapper extends MetadataFieldMapper {
         if (this.enabled != sourceMergeWith.enabled) {
             conflicts.add("Cannot update enabled setting for [_source]");
         }
+        if (this.synthetic != sourceMergeWith.synthetic) {
+            conflicts.add("Cannot update mode setting for [_source]");
+        }
         if (Arrays.equals(includes(), sourceMergeWith.includes()) == false) {
             conflicts.add("Cannot update includes setting for [_source]");
         }
@@ -0,0 +1,256 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.document.HalfFloatPoint;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the {@code _source} of a document from the doc values of its fields, for mappings whose {@code _source} is in
+ * {@link SourceFieldMapper#SYNTHETIC_MODE synthetic} mode. Only {@code keyword}, numeric, {@code date} and {@code boolean} fields with
+ * doc values can be rebuilt, which {@link #validate(DocumentMapper)} checks whenever the mapping changes.
+ * <p>
+ * The rebuilt source isn't the document that was indexed: fields come in alphabetical order, dotted field names are expanded into
+ * objects, values of multi-valued fields come sorted (and deduplicated for {@code keyword} fields) and values that weren't indexed,
+ * like {@code null}s or keywords above {@code ignore_above}, are missing.
+ */
+public final class SyntheticSource {
+
+    private SyntheticSource() {}
+
+    /**
+     * Checks that the source of the documents of the given mapping can be rebuilt from doc values.
+     */
+    public static void validate(DocumentMapper mapper) {
+        validate(mapper.root());
+    }
+
+    private static void validate(ObjectMapper objectMapper) {
+        if (objectMapper.nested().isNested()) {
+            throw new IllegalArgumentException("[_source] in mode [" + SourceFieldMapper.SYNTHETIC_MODE
+                + "] doesn't support nested field [" + objectMapper.fullPath() + "]");
+        }
+        if (objectMapper.isEnabled() == false) {
+            throw new IllegalArgumentException("[_source] in mode [" + SourceFieldMapper.SYNTHETIC_MODE
+                + "] doesn't support disabled object field [" + objectMapper.fullPath() + "]");
+        }
+        for (Mapper mapper : objectMapper) {
+            if (mapper instanceof ObjectMapper) {
+                validate((ObjectMapper) mapper);
+            } else if (mapper instanceof FieldMapper) {
+                validate((FieldMapper) mapper);
+            } else if (mapper instanceof FieldAliasMapper == false) {
+                throw new IllegalArgumentException("[_source] in mode [" + SourceFieldMapper.SYNTHETIC_MODE
+                    + "] doesn't support field [" + mapper.name() + "] of type [" + mapper.typeName() + "]");
+            }
+        }
+    }
+
+    private static void validate(FieldMapper fieldMapper) {
+        MappedFieldType fieldType = fieldMapper.fieldType();
+        if (isSupported(fieldMapper) == false) {
+            throw new IllegalArgumentException("[_source] in mode [" + SourceFieldMapper.SYNTHETIC_MODE
+                + "] doesn't support field [" + fieldMapper.name() + "] of type [" + fieldType.typeName() + "]");
+        }
+        if (fieldType.hasDocValues() == false) {
+            throw new IllegalArgumentException("[_source] in mode [" + SourceFieldMapper.SYNTHETIC_MODE
+                + "] requires doc values on field [" + fieldMapper.name() + "]");
+        }
+        if (fieldMapper.copyTo() != null && fieldMapper.copyTo().copyToFields().isEmpty() == false) {
+            // the values copied to another field would show up in the source of the other field
+            throw new IllegalArgumentException("[_source] in mode [" + SourceFieldMapper.SYNTHETIC_MODE
+                + "] doesn't support [copy_to] on field [" + fieldMapper.name() + "]");
+        }
+    }
+
+    private static boolean isSupported(FieldMapper fieldMapper) {
+        return fieldMapper instanceof KeywordFieldMapper
+            || fieldMapper instanceof NumberFieldMapper
+            || fieldMapper instanceof DateFieldMapper
+            || fieldMapper instanceof BooleanFieldMapper;
+    }
+
+    /**
+     * Rebuilds the source of the given document if the {@code _source} of the mapping is synthetic.
+     *
+     * @return the source as JSON, or {@code null} if the mapping stores its {@code _source}
+     */
+    @Nullable
+    public static BytesReference loadIfSynthetic(@Nullable DocumentMapper mapper, LeafReader reader, int docId) throws IOException {
+        if (mapper == null || mapper.sourceMapper().isSynthetic() == false) {
+            return null;
+        }
+        return load(mapper, reader, docId);
+    }
+
+    /**
+     * Rebuilds the source of the given document from the doc values of the fields of the mapping. Use a {@link Loader} to rebuild the
+     * source of several documents.
+     */
+    public static BytesReference load(DocumentMapper mapper, LeafReader reader, int docId) throws IOException {
+        return new Loader(mapper).load(reader, docId);
+    }
+
+    /**
+     * Rebuilds the source of documents of the given mapping from the doc values of its fields.
+     */
+    public static Loader loader(DocumentMapper mapper) {
+        return new Loader(mapper);
+    }
+
+    /**
+     * Rebuilds the source of several documents, reusing the doc values of the fields of a segment as long as the documents come in
+     * increasing doc id order, like the hits of the fetch phase do. Not thread safe.
+     */
+    public static final class Loader {
+
+        private final DocumentMapper mapper;
+        private final Map<String, DocIdSetIterator> docValues = new HashMap<>();
+        private LeafReader reader;
+        private int lastDocId = -1;
+
+        private Loader(DocumentMapper mapper) {
+            this.mapper = mapper;
+        }
+
+        /**
+         * The mapping the source is rebuilt with.
+         */
+        public DocumentMapper mapper() {
+            return mapper;
+        }
+
+        /**
+         * Rebuilds the source of the given document.
+         *
+         * @return the source as JSON
+         */
+        public BytesReference load(LeafReader reader, int docId) throws IOException {
+            if (this.reader != reader || docId <= lastDocId) {
+                // doc values only go forward, start over for another segment or an earlier (or the same) document
+                this.reader = reader;
+                docValues.clear();
+            }
+            lastDocId = docId;
+            Map<String, Object> source = load(mapper.root(), docId);
+            try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
+                builder.map(source == null ? Collections.emptyMap() : source);
+                return BytesReference.bytes(builder);
+            }
+        }
+
+        @Nullable
+        private Map<String, Object> load(ObjectMapper objectMapper, int docId) throws IOException {
+            Map<String, Object> object = null;
+            for (Mapper mapper : objectMapper) {
+                final Object value;
+                if (mapper instanceof ObjectMapper) {
+                    value = load((ObjectMapper) mapper, docId);
+                } else if (mapper instanceof FieldMapper && mapper instanceof MetadataFieldMapper == false) {
+                    value = load((FieldMapper) mapper, docId);
+                } else {
+                    continue;
+                }
+                if (value != null) {
+                    if (object == null) {
+                        object = new TreeMap<>();
+                    }
+                    object.put(mapper.simpleName(), value);
+                }
+            }
+            return object;
+        }
+
+        @Nullable
+        private Object load(FieldMapper fieldMapper, int docId) throws IOException {
+            MappedFieldType fieldType = fieldMapper.fieldType();
+            List<Object> values = new ArrayList<>(1);
+            if (fieldMapper instanceof KeywordFieldMapper) {
+                SortedSetDocValues docValues = (SortedSetDocValues) this.docValues.get(fieldType.name());
+                if (docValues == null) {
+                    docValues = DocValues.getSortedSet(reader, fieldType.name());
+                    this.docValues.put(fieldType.name(), docValues);
+                }
+                if (docValues.advanceExact(docId)) {
+                    for (long ord = docValues.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = docValues.nextOrd()) {
+                        values.add(fieldType.valueForDisplay(docValues.lookupOrd(ord)));
+                    }
+                }
+            } else {
+                SortedNumericDocValues docValues = (SortedNumericDocValues) this.docValues.get(fieldType.name());
+                if (docValues == null) {
+                    docValues = DocValues.getSortedNumeric(reader, fieldType.name());
+                    this.docValues.put(fieldType.name(), docValues);
+                }
+                if (docValues.advanceExact(docId)) {
+                    for (int i = 0; i < docValues.docValueCount(); i++) {
+                        values.add(numericValue(fieldMapper, docValues.nextValue()));
+                    }
+                }
+            }
+            switch (values.size()) {
+                case 0:
+                    return null;
+                case 1:
+                    return values.get(0);
+                default:
+                    return values;
+            }
+        }
+    }
+
+    private static Object numericValue(FieldMapper fieldMapper, long value) {
+        if (fieldMapper instanceof DateFieldMapper) {
+            // formats with the first format of the field, in the resolution of the field
+            return fieldMapper.fieldType().valueForDisplay(value);
+        } else if (fieldMapper instanceof BooleanFieldMapper) {
+            return value == 1;
+        }
+        switch (((NumberFieldMapper.NumberFieldType) fieldMapper.fieldType()).numericType()) {
+            case HALF_FLOAT:
+                return HalfFloatPoint.sortableShortToHalfFloat((short) value);
+            case FLOAT:
+                return NumericUtils.sortableIntToFloat((int) value);
+            case DOUBLE:
+                return NumericUtils.sortableLongToDouble(value);
+            case LONG:
+                return value;
+            default:
+                return (int) value;
+        }
+    }
+}
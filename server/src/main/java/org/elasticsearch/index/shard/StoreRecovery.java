@@ -49,6 +49,7 @@ import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.snapshots.IndexShardRestoreFailedException;
 import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.store.snapshot.SnapshotDirectoryFactory;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.indices.recovery.RecoveryState;
 import org.elasticsearch.repositories.IndexId;
@@ -485,6 +486,11 @@ final class StoreRecovery {
             translogState.totalOperations(0);
             translogState.totalOperationsOnStart(0);
             indexShard.prepareForIndexRecovery();
+            if (SnapshotDirectoryFactory.isSnapshotStore(indexShard.indexSettings().getSettings())) {
+                // the files are not copied, the directory of the store reads them from the snapshot on demand
+                lazyRestore(indexShard.store(), indexShard.recoveryState(), restoreListener);
+                return;
+            }
             final ShardId snapshotShardId;
             final IndexId indexId = restoreSource.index();
             if (shardId.getIndexName().equals(indexId.getName())) {
@@ -509,6 +515,28 @@ final class StoreRecovery {
         }
     }
 
+    /**
+     * Restores a shard whose store is a {@link org.elasticsearch.index.store.snapshot.SnapshotDirectory}, which exposes the files of the
+     * snapshot without copying them, so all files are reported as reused.
+     */
+    private void lazyRestore(Store store, RecoveryState recoveryState, ActionListener<Void> listener) {
+        store.incRef();
+        try {
+            final Directory directory = store.directory();
+            for (String file : directory.listAll()) {
+                if (Store.isAutogenerated(file) == false) {
+                    recoveryState.getIndex().addFileDetail(file, directory.fileLength(file), true);
+                }
+            }
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        } finally {
+            store.decRef();
+        }
+        listener.onResponse(null);
+    }
+
     private void bootstrap(final IndexShard indexShard, final Store store) throws IOException {
         store.bootstrapNewHistory();
         final SegmentInfos segmentInfos = store.readLastCommittedSegmentsInfo();
@@ -67,6 +67,8 @@ public class IndexShardSnapshotStatus {
     private long totalSize;
     private long incrementalSize;
     private long processedSize;
+    private int deduplicatedFileCount;
+    private long deduplicatedSize;
     private long indexVersion;
     private String failure;
 
@@ -152,6 +154,16 @@ public class IndexShardSnapshotStatus {
         processedSize += size;
     }
 
+    /**
+     * Increments number of processed files by a file that did not need to be uploaded because the repository already contained a copy of
+     * it that was uploaded for another shard
+     */
+    public synchronized void addDeduplicatedFile(long size) {
+        addProcessedFile(size);
+        deduplicatedFileCount++;
+        deduplicatedSize += size;
+    }
+
     /**
      * Returns a copy of the current {@link IndexShardSnapshotStatus}. This method is
      * intended to be used when a coherent state of {@link IndexShardSnapshotStatus} is needed.
@@ -162,7 +174,7 @@ public class IndexShardSnapshotStatus {
         return new IndexShardSnapshotStatus.Copy(stage.get(), startTime, totalTime,
             incrementalFileCount, totalFileCount, processedFileCount,
             incrementalSize, totalSize, processedSize,
-            indexVersion, failure);
+            indexVersion, failure, deduplicatedFileCount, deduplicatedSize);
     }
 
     public static IndexShardSnapshotStatus newInitializing(String generation) {
@@ -201,11 +213,21 @@ public class IndexShardSnapshotStatus {
         private final long incrementalSize;
         private final long indexVersion;
         private final String failure;
+        private final int deduplicatedFileCount;
+        private final long deduplicatedSize;
 
         public Copy(final Stage stage, final long startTime, final long totalTime,
                     final int incrementalFileCount, final int totalFileCount, final int processedFileCount,
                     final long incrementalSize, final long totalSize, final long processedSize,
                     final long indexVersion, final String failure) {
+            this(stage, startTime, totalTime, incrementalFileCount, totalFileCount, processedFileCount, incrementalSize, totalSize,
+                processedSize, indexVersion, failure, 0, 0L);
+        }
+
+        public Copy(final Stage stage, final long startTime, final long totalTime,
+                    final int incrementalFileCount, final int totalFileCount, final int processedFileCount,
+                    final long incrementalSize, final long totalSize, final long processedSize,
+                    final long indexVersion, final String failure, final int deduplicatedFileCount, final long deduplicatedSize) {
             this.stage = stage;
             this.startTime = startTime;
             this.totalTime = totalTime;
@@ -217,6 +239,8 @@ public class IndexShardSnapshotStatus {
             this.incrementalSize = incrementalSize;
             this.indexVersion = indexVersion;
             this.failure = failure;
+            this.deduplicatedFileCount = deduplicatedFileCount;
+            this.deduplicatedSize = deduplicatedSize;
         }
 
         public Stage getStage() {
@@ -263,6 +287,17 @@ public class IndexShardSnapshotStatus {
             return failure;
         }
 
+        /**
+         * Returns the number of processed files that were not uploaded because the repository already contained a shared copy of them
+         */
+        public int getDeduplicatedFileCount() {
+            return deduplicatedFileCount;
+        }
+
+        public long getDeduplicatedSize() {
+            return deduplicatedSize;
+        }
+
         @Override
         public String toString() {
             return "index shard snapshot status (" +
@@ -275,6 +310,8 @@ public class IndexShardSnapshotStatus {
                 ", incrementalSize=" + incrementalSize +
                 ", totalSize=" + totalSize +
                 ", processedSize=" + processedSize +
+                ", deduplicatedFileCount=" + deduplicatedFileCount +
+                ", deduplicatedSize=" + deduplicatedSize +
                 ", indexVersion=" + indexVersion +
                 ", failure='" + failure + '\'' +
                 ')';
@@ -0,0 +1,292 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.hash.MessageDigests;
+import org.elasticsearch.common.io.Channels;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.env.NodeEnvironment;
+import org.elasticsearch.node.Node;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A node level cache of blocks of files of shard snapshots, shared by all the shards of the node that are restored lazily, see
+ * {@link SnapshotDirectory}. Each block is stored as a file on the local disk, in the {@code snapshot_cache} folder of the first data path
+ * of the node, and the least recently used blocks are evicted once the total size of the cached blocks exceeds
+ * {@link #SNAPSHOT_CACHE_SIZE_SETTING}. The cache only exists on data nodes with local storage, unless it is disabled with
+ * {@link #SNAPSHOT_CACHE_ENABLED_SETTING}.
+ *
+ * The files of the blocks are named after a hash of the file and range they hold, so the blocks that were cached before a restart of the
+ * node are loaded again on startup. Since the blobs of a repository are immutable, a cached block stays valid as long as the snapshot
+ * exists. Blocks are synced to disk before they are made visible under their final name, so partially written blocks are discarded.
+ */
+public class SnapshotBlockCache implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(SnapshotBlockCache.class);
+
+    public static final Setting<Boolean> SNAPSHOT_CACHE_ENABLED_SETTING =
+        Setting.boolSetting("snapshot.cache.enabled", true, Property.NodeScope);
+
+    public static final Setting<ByteSizeValue> SNAPSHOT_CACHE_SIZE_SETTING =
+        Setting.byteSizeSetting("snapshot.cache.size", new ByteSizeValue(1, ByteSizeUnit.GB), Property.NodeScope);
+
+    private static final ByteSizeValue MAX_BLOCK_SIZE = new ByteSizeValue(64, ByteSizeUnit.MB);
+
+    public static final Setting<ByteSizeValue> SNAPSHOT_CACHE_BLOCK_SIZE_SETTING =
+        Setting.byteSizeSetting("snapshot.cache.block_size", new ByteSizeValue(1, ByteSizeUnit.MB),
+            new ByteSizeValue(4, ByteSizeUnit.KB), MAX_BLOCK_SIZE, Property.NodeScope);
+
+    static final String CACHE_FOLDER = "snapshot_cache";
+
+    private static final String BLOCK_FILE_PREFIX = "block-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Path cachePath;
+    private final int blockSize;
+    private final Cache<String, CachedBlock> cache;
+    private final CounterMetric fetchedBytes = new CounterMetric();
+    private volatile boolean closed;
+
+    public SnapshotBlockCache(Settings settings, NodeEnvironment nodeEnvironment) throws IOException {
+        this(settings, nodeEnvironment.nodeDataPaths()[0].resolve(CACHE_FOLDER));
+    }
+
+    SnapshotBlockCache(Settings settings, Path cachePath) throws IOException {
+        this.cachePath = cachePath;
+        this.blockSize = Math.toIntExact(SNAPSHOT_CACHE_BLOCK_SIZE_SETTING.get(settings).getBytes());
+        this.cache = CacheBuilder.<String, CachedBlock>builder()
+            .setMaximumWeight(SNAPSHOT_CACHE_SIZE_SETTING.get(settings).getBytes())
+            .weigher((key, block) -> block.length)
+            .removalListener(notification -> {
+                // blocks are kept on disk when the node shuts down so that they can be loaded again on startup
+                if (closed) {
+                    notification.getValue().keepFile();
+                }
+                notification.getValue().decRef();
+            })
+            .build();
+        Files.createDirectories(cachePath);
+        loadCachedBlocks();
+    }
+
+    /**
+     * Whether the given node settings enable the cache, which requires a data node with local storage.
+     */
+    public static boolean isEnabled(Settings settings) {
+        return DiscoveryNode.isDataNode(settings) && Node.NODE_LOCAL_STORAGE_SETTING.get(settings)
+            && SNAPSHOT_CACHE_ENABLED_SETTING.get(settings);
+    }
+
+    /**
+     * Adds the blocks that were cached before the node was restarted to the cache, least recently modified first, so that the cache
+     * evicts them in this order if it is smaller now. Leftovers of blocks that were being fetched are deleted.
+     */
+    private void loadCachedBlocks() throws IOException {
+        final List<Tuple<Path, BasicFileAttributes>> blockFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cachePath)) {
+            for (Path file : stream) {
+                final String name = file.getFileName().toString();
+                final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (name.startsWith(BLOCK_FILE_PREFIX) && name.indexOf('.') > 0 && name.endsWith(TEMP_FILE_SUFFIX) == false
+                    && attributes.isRegularFile()
+                    && attributes.size() > 0L && attributes.size() <= MAX_BLOCK_SIZE.getBytes()) {
+                    blockFiles.add(Tuple.tuple(file, attributes));
+                } else {
+                    IOUtils.rm(file);
+                }
+            }
+        }
+        blockFiles.sort(Comparator.comparing(blockFile -> blockFile.v2().lastModifiedTime()));
+        for (Tuple<Path, BasicFileAttributes> blockFile : blockFiles) {
+            final Path file = blockFile.v1();
+            final String name = file.getFileName().toString();
+            // a block that was cached twice replaces the older copy, which is deleted
+            cache.put(name.substring(0, name.indexOf('.')), new CachedBlock(file, Math.toIntExact(blockFile.v2().size())));
+        }
+        logger.debug("loaded [{}] blocks of [{}] bytes from the snapshot cache at [{}]", cache.count(), cache.weight(), cachePath);
+    }
+
+    /**
+     * The size of the blocks of this cache, in bytes.
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Reads bytes of a block of a file, fetching the block first if it is not cached yet. A block is fetched at most once at a time, so
+     * concurrent reads of a block that is not cached wait for the same fetch. The fetcher is responsible for verifying the contents of
+     * the block, a block is only cached once the stream that the fetcher opened was fully read without failure.
+     *
+     * @param fileKey       a key that identifies the file in the repository it is stored in
+     * @param block         the index of the block in the file
+     * @param blockLength   the length of the block, which is {@link #getBlockSize()} for all but the last block of a file
+     * @param fetcher       opens a stream over the contents of the block
+     * @param offsetInBlock the position in the block to read from
+     * @param bytes         the array to read into
+     * @param offset        the offset in the array to read into
+     * @param length        the number of bytes to read
+     */
+    public void readBlock(String fileKey, long block, int blockLength, CheckedSupplier<InputStream, IOException> fetcher,
+                          int offsetInBlock, byte[] bytes, int offset, int length) throws IOException {
+        assert offsetInBlock + length <= blockLength : offsetInBlock + "+" + length + " > " + blockLength;
+        final String blockName = blockName(fileKey, block * blockSize, blockLength);
+        while (true) {
+            final CachedBlock cachedBlock;
+            try {
+                cachedBlock = cache.computeIfAbsent(blockName, k -> fetchBlock(k, blockLength, fetcher));
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException("failed to fetch block [" + block + "] of [" + fileKey + "]", cause);
+            }
+            if (cachedBlock.tryIncRef()) {
+                // the file is opened for each read rather than kept open while the block is cached, since a small block size allows
+                // for many more cached blocks than a node has file descriptors
+                try (FileChannel channel = FileChannel.open(cachedBlock.path, StandardOpenOption.READ)) {
+                    Channels.readFromFileChannelWithEofException(channel, offsetInBlock, bytes, offset, length);
+                    return;
+                } finally {
+                    cachedBlock.decRef();
+                }
+            }
+            // the block was evicted and its file deleted concurrently, fetch it again
+        }
+    }
+
+    /**
+     * The name of a block, which identifies the file and the range of the file that the block holds independently of the block size,
+     * since the block size may change across restarts. The files of blocks are named after the block followed by a unique suffix, so
+     * that a block that is fetched again never overwrites the file of an evicted copy that is still being read.
+     */
+    private static String blockName(String fileKey, long blockStart, int blockLength) {
+        final byte[] hash = MessageDigests.sha256().digest(
+            (fileKey + "[" + blockStart + "+" + blockLength + "]").getBytes(StandardCharsets.UTF_8));
+        return BLOCK_FILE_PREFIX + MessageDigests.toHexString(hash);
+    }
+
+    private CachedBlock fetchBlock(String blockName, int blockLength, CheckedSupplier<InputStream, IOException> fetcher)
+        throws IOException {
+        final Path path = cachePath.resolve(blockName + "." + UUIDs.randomBase64UUID());
+        final Path tempPath = cachePath.resolve(path.getFileName() + TEMP_FILE_SUFFIX);
+        boolean success = false;
+        try {
+            final long copied;
+            try (InputStream inputStream = fetcher.get();
+                 OutputStream outputStream = Files.newOutputStream(tempPath, StandardOpenOption.CREATE_NEW)) {
+                copied = Streams.copy(inputStream, outputStream);
+            }
+            if (copied != blockLength) {
+                throw new EOFException("fetched [" + copied + "] bytes for block [" + blockName + "] but expected [" + blockLength + "]");
+            }
+            IOUtils.fsync(tempPath, false);
+            Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE);
+            IOUtils.fsync(cachePath, true);
+            fetchedBytes.inc(copied);
+            success = true;
+            return new CachedBlock(path, blockLength);
+        } finally {
+            if (success == false) {
+                IOUtils.deleteFilesIgnoringExceptions(tempPath);
+            }
+        }
+    }
+
+    public SnapshotBlockCacheStats stats() {
+        final Cache.CacheStats stats = cache.stats();
+        return new SnapshotBlockCacheStats(stats.getHits(), stats.getMisses(), stats.getEvictions(), fetchedBytes.count(),
+            cache.weight(), cache.count());
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        cache.invalidateAll();
+    }
+
+    /**
+     * A cached block, whose file is deleted once the block was removed from the cache and all pending reads of it completed, unless
+     * the cache was closed.
+     */
+    private static final class CachedBlock extends AbstractRefCounted {
+        private final Path path;
+        private final int length;
+        private volatile boolean keepFile;
+
+        CachedBlock(Path path, int length) {
+            super("snapshot-block");
+            this.path = path;
+            this.length = length;
+        }
+
+        void keepFile() {
+            keepFile = true;
+        }
+
+        @Override
+        protected void closeInternal() {
+            if (keepFile == false) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    logger.warn(new ParameterizedMessage("failed to delete cached snapshot block [{}]", path), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.snapshot;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Stats about the {@link SnapshotBlockCache} of a node.
+ */
+public class SnapshotBlockCacheStats implements Writeable, ToXContentFragment {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long fetchedBytes;
+    private final long sizeInBytes;
+    private final long blocks;
+
+    public SnapshotBlockCacheStats(long hits, long misses, long evictions, long fetchedBytes, long sizeInBytes, long blocks) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.fetchedBytes = fetchedBytes;
+        this.sizeInBytes = sizeInBytes;
+        this.blocks = blocks;
+    }
+
+    public SnapshotBlockCacheStats(StreamInput in) throws IOException {
+        hits = in.readVLong();
+        misses = in.readVLong();
+        evictions = in.readVLong();
+        fetchedBytes = in.readVLong();
+        sizeInBytes = in.readVLong();
+        blocks = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(hits);
+        out.writeVLong(misses);
+        out.writeVLong(evictions);
+        out.writeVLong(fetchedBytes);
+        out.writeVLong(sizeInBytes);
+        out.writeVLong(blocks);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("snapshot_cache");
+        builder.field("hit_count", hits);
+        builder.field("miss_count", misses);
+        builder.field("evictions", evictions);
+        builder.humanReadableField("fetched_in_bytes", "fetched", new ByteSizeValue(fetchedBytes));
+        builder.humanReadableField("size_in_bytes", "size", new ByteSizeValue(sizeInBytes));
+        builder.field("blocks", blocks);
+        builder.endObject();
+        return builder;
+    }
+
+    /**
+     * number of reads of a block that was already cached
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * number of reads of a block that had to be fetched from the repository
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * number of blocks that were evicted to keep the cache within its size
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * total number of bytes fetched from repositories to fill the cache
+     */
+    public long getFetchedBytes() {
+        return fetchedBytes;
+    }
+
+    /**
+     * total size in bytes of the blocks in the cache
+     */
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * number of blocks in the cache
+     */
+    public long getBlocks() {
+        return blocks;
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lucene.store.ByteArrayIndexInput;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.Repository;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.stream.Collectors;
+
+import static org.elasticsearch.common.util.concurrent.ConcurrentCollections.newConcurrentSet;
+
+/**
+ * A {@link Directory} for shards that are restored lazily from a snapshot: the files of the shard snapshot are read on demand from the
+ * repository, one block at a time through the node's {@link SnapshotBlockCache}, instead of being copied before the shard is started.
+ * Files that are written after the restore, such as new commit points, live in the wrapped local directory, and files of the snapshot
+ * that are deleted are only hidden. Optionally, the files of the snapshot are copied in the background to a local prefetch folder of the
+ * shard, after which they are read from local disk.
+ *
+ * The list of files of the shard snapshot is loaded from the repository on first access of the directory, which happens during the
+ * recovery of the shard.
+ */
+public class SnapshotDirectory extends FilterDirectory {
+
+    private static final Logger logger = LogManager.getLogger(SnapshotDirectory.class);
+
+    private static final String PREFETCH_TEMP_SUFFIX = ".prefetching";
+
+    private final Supplier<RepositoriesService> repositoriesService;
+    private final String repositoryName;
+    private final SnapshotId snapshotId;
+    private final IndexId indexId;
+    private final ShardId shardId;
+    private final SnapshotBlockCache cache;
+    private final ThreadPool threadPool;
+    private final boolean prefetch;
+    private final Directory prefetchDirectory;
+
+    private final Set<String> deletedFiles = newConcurrentSet();
+    private final Set<String> prefetchedFiles = newConcurrentSet();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private volatile Map<String, FileInfo> snapshotFiles;
+    private volatile BlobStoreRepository repository;
+
+    SnapshotDirectory(Directory in, Path prefetchPath, Supplier<RepositoriesService> repositoriesService, String repositoryName,
+                      SnapshotId snapshotId, IndexId indexId, ShardId shardId, SnapshotBlockCache cache, ThreadPool threadPool,
+                      boolean prefetch) throws IOException {
+        super(in);
+        this.repositoriesService = repositoriesService;
+        this.repositoryName = repositoryName;
+        this.snapshotId = snapshotId;
+        this.indexId = indexId;
+        this.shardId = shardId;
+        this.cache = cache;
+        this.threadPool = threadPool;
+        this.prefetch = prefetch;
+        Files.createDirectories(prefetchPath);
+        this.prefetchDirectory = FSDirectory.open(prefetchPath);
+    }
+
+    /**
+     * Returns the files of the shard snapshot by their physical name, loading them from the repository on first access.
+     */
+    private Map<String, FileInfo> snapshotFiles() throws IOException {
+        Map<String, FileInfo> files = snapshotFiles;
+        if (files == null) {
+            synchronized (this) {
+                files = snapshotFiles;
+                if (files == null) {
+                    files = loadSnapshotFiles();
+                    snapshotFiles = files;
+                    if (prefetch) {
+                        startPrefetch(files);
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    private Map<String, FileInfo> loadSnapshotFiles() throws IOException {
+        final BlobStoreIndexShardSnapshot shardSnapshot;
+        try {
+            final Repository repo = repositoriesService.get().repository(repositoryName);
+            if (repo instanceof BlobStoreRepository == false) {
+                throw new IllegalArgumentException("repository [" + repositoryName + "] does not support lazy restores");
+            }
+            repository = (BlobStoreRepository) repo;
+            shardSnapshot = repository.loadShardSnapshot(indexId, shardId, snapshotId);
+        } catch (RuntimeException e) {
+            throw new IOException("failed to load snapshot [" + repositoryName + ":" + snapshotId + "] of shard " + shardId, e);
+        }
+        final Map<String, FileInfo> files = new HashMap<>();
+        for (FileInfo fileInfo : shardSnapshot.indexFiles()) {
+            files.put(fileInfo.physicalName(), fileInfo);
+        }
+        // files that were prefetched before the directory was last closed can be reused, partial copies are discarded
+        for (String name : prefetchDirectory.listAll()) {
+            final FileInfo fileInfo = files.get(name);
+            if (fileInfo != null && prefetchDirectory.fileLength(name) == fileInfo.length()) {
+                prefetchedFiles.add(name);
+            } else {
+                prefetchDirectory.deleteFile(name);
+            }
+        }
+        return Collections.unmodifiableMap(files);
+    }
+
+    /**
+     * Returns the snapshot file with the given name unless it was deleted.
+     */
+    private FileInfo snapshotFile(String name) throws IOException {
+        if (deletedFiles.contains(name)) {
+            return null;
+        }
+        return snapshotFiles().get(name);
+    }
+
+    @Override
+    public String[] listAll() throws IOException {
+        final Set<String> files = new TreeSet<>();
+        Collections.addAll(files, in.listAll());
+        for (String name : snapshotFiles().keySet()) {
+            if (deletedFiles.contains(name) == false) {
+                files.add(name);
+            }
+        }
+        return files.toArray(new String[0]);
+    }
+
+    @Override
+    public void deleteFile(String name) throws IOException {
+        if (snapshotFile(name) != null) {
+            deletedFiles.add(name);
+            if (prefetchedFiles.remove(name)) {
+                prefetchDirectory.deleteFile(name);
+            }
+        } else {
+            in.deleteFile(name);
+        }
+    }
+
+    @Override
+    public long fileLength(String name) throws IOException {
+        final FileInfo fileInfo = snapshotFile(name);
+        return fileInfo != null ? fileInfo.length() : in.fileLength(name);
+    }
+
+    @Override
+    public IndexOutput createOutput(String name, IOContext context) throws IOException {
+        if (snapshotFile(name) != null) {
+            throw new FileAlreadyExistsException("file [" + name + "] of snapshot [" + snapshotId + "] already exists");
+        }
+        return in.createOutput(name, context);
+    }
+
+    @Override
+    public void sync(Collection<String> names) throws IOException {
+        final List<String> localFiles = new ArrayList<>();
+        for (String name : names) {
+            if (snapshotFile(name) == null) {
+                localFiles.add(name);
+            }
+        }
+        in.sync(localFiles);
+    }
+
+    @Override
+    public void rename(String source, String dest) throws IOException {
+        if (snapshotFile(source) != null) {
+            throw new UnsupportedOperationException("files of snapshot [" + snapshotId + "] cannot be renamed, got [" + source + "]");
+        }
+        if (snapshotFile(dest) != null) {
+            throw new FileAlreadyExistsException("file [" + dest + "] of snapshot [" + snapshotId + "] already exists");
+        }
+        in.rename(source, dest);
+    }
+
+    @Override
+    public IndexInput openInput(String name, IOContext context) throws IOException {
+        final FileInfo fileInfo = snapshotFile(name);
+        if (fileInfo == null) {
+            return in.openInput(name, context);
+        }
+        if (fileInfo.name().startsWith(BlobStoreRepository.VIRTUAL_DATA_BLOB_PREFIX)) {
+            final BytesRef hash = fileInfo.metadata().hash();
+            return new ByteArrayIndexInput("SnapshotDirectory(" + name + ")", hash.bytes, hash.offset, hash.length);
+        }
+        if (prefetchedFiles.contains(name)) {
+            try {
+                return prefetchDirectory.openInput(name, context);
+            } catch (NoSuchFileException e) {
+                // deleted concurrently, fall through to reading from the snapshot
+            }
+        }
+        return new SnapshotIndexInput("SnapshotIndexInput(" + name + " of " + shardId + ")", this, fileInfo, context);
+    }
+
+    /**
+     * Reads bytes of a file of the shard snapshot through the block cache.
+     */
+    void readBytes(FileInfo fileInfo, long position, byte[] bytes, int offset, int length) throws IOException {
+        final BlobStoreRepository repository = this.repository;
+        assert repository != null : "snapshot files must be loaded before reading them";
+        final String fileKey = fileInfo.name().startsWith(BlobStoreRepository.SHARED_DATA_BLOB_PREFIX)
+            ? repositoryName + "/" + fileInfo.name()
+            : repositoryName + "/" + indexId.getId() + "/" + shardId.id() + "/" + fileInfo.name();
+        final int blockSize = cache.getBlockSize();
+        long pos = position;
+        int off = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            final long block = pos / blockSize;
+            final long blockStart = block * blockSize;
+            final int blockLength = Math.toIntExact(Math.min(blockSize, fileInfo.length() - blockStart));
+            final int offsetInBlock = Math.toIntExact(pos - blockStart);
+            final int toRead = Math.min(remaining, blockLength - offsetInBlock);
+            cache.readBlock(fileKey, block, blockLength, () -> fetchBlock(repository, fileInfo, blockStart, blockLength),
+                offsetInBlock, bytes, off, toRead);
+            pos += toRead;
+            off += toRead;
+            remaining -= toRead;
+        }
+    }
+
+    /**
+     * Opens a stream over a block of a file of the shard snapshot that verifies the block before it is cached. The checksum of a file
+     * can only be computed from the whole file, so a block that holds the whole file is verified against the checksum of the file. The
+     * last block of a larger file is verified against the checksum in the footer of the file by the repository. The other blocks of a
+     * larger file are only checked for their length, they are verified once the file is prefetched.
+     */
+    private InputStream fetchBlock(BlobStoreRepository repository, FileInfo fileInfo, long blockStart, int blockLength) {
+        final InputStream inputStream = repository.readShardFile(indexId, shardId, fileInfo, blockStart, blockLength);
+        if (blockStart == 0L && blockLength == fileInfo.length() && fileInfo.length() >= CodecUtil.footerLength()) {
+            return new ChecksumVerifyingInputStream(inputStream, fileInfo);
+        }
+        return inputStream;
+    }
+
+    private void startPrefetch(Map<String, FileInfo> files) {
+        final List<FileInfo> toPrefetch = files.values().stream()
+            .filter(fileInfo -> fileInfo.name().startsWith(BlobStoreRepository.VIRTUAL_DATA_BLOB_PREFIX) == false)
+            .filter(fileInfo -> prefetchedFiles.contains(fileInfo.physicalName()) == false)
+            // small files first, they are the most likely to be read entirely
+            .sorted(Comparator.comparingLong(FileInfo::length))
+            .collect(Collectors.toList());
+        if (toPrefetch.isEmpty()) {
+            return;
+        }
+        threadPool.generic().execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() throws Exception {
+                for (FileInfo fileInfo : toPrefetch) {
+                    if (closed.get()) {
+                        return;
+                    }
+                    if (deletedFiles.contains(fileInfo.physicalName()) == false) {
+                        try {
+                            prefetchFile(fileInfo);
+                        } catch (Exception e) {
+                            if (closed.get()) {
+                                return;
+                            }
+                            // the file is still read on demand, so carry on with the other files
+                            logger.warn(new ParameterizedMessage("{} failed to prefetch file [{}] of snapshot [{}:{}]",
+                                shardId, fileInfo.physicalName(), repositoryName, snapshotId), e);
+                        }
+                    }
+                }
+                logger.debug("{} prefetched [{}] files of snapshot [{}:{}]", shardId, toPrefetch.size(), repositoryName, snapshotId);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                if (closed.get() == false) {
+                    logger.warn(new ParameterizedMessage("{} failed to prefetch files of snapshot [{}:{}]",
+                        shardId, repositoryName, snapshotId), e);
+                }
+            }
+        });
+    }
+
+    private void prefetchFile(FileInfo fileInfo) throws IOException {
+        final String name = fileInfo.physicalName();
+        final String tempName = name + PREFETCH_TEMP_SUFFIX;
+        boolean success = false;
+        try {
+            try (InputStream inputStream = repository.readShardFile(indexId, shardId, fileInfo, 0L, fileInfo.length());
+                 IndexOutput output = prefetchDirectory.createOutput(tempName, IOContext.DEFAULT)) {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    if (closed.get()) {
+                        throw new AlreadyClosedException("directory of shard " + shardId + " is closed");
+                    }
+                    output.writeBytes(buffer, read);
+                }
+            }
+            try (IndexInput input = prefetchDirectory.openInput(tempName, IOContext.READONCE)) {
+                final String checksum = Store.digestToString(CodecUtil.checksumEntireFile(input));
+                if (checksum.equals(fileInfo.checksum()) == false) {
+                    throw new IOException("checksum mismatch for prefetched file [" + name + "], expected [" + fileInfo.checksum()
+                        + "] but got [" + checksum + "]");
+                }
+            }
+            prefetchDirectory.sync(Collections.singleton(tempName));
+            prefetchDirectory.rename(tempName, name);
+            prefetchDirectory.syncMetaData();
+            prefetchedFiles.add(name);
+            success = true;
+        } finally {
+            if (success == false) {
+                deleteQuietly(tempName);
+            }
+        }
+        if (deletedFiles.contains(name) && prefetchedFiles.remove(name)) {
+            deleteQuietly(name);
+        }
+    }
+
+    private void deleteQuietly(String name) {
+        try {
+            prefetchDirectory.deleteFile(name);
+        } catch (IOException e) {
+            logger.trace(new ParameterizedMessage("{} failed to delete prefetched file [{}]", shardId, name), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                prefetchDirectory.close();
+            } finally {
+                super.close();
+            }
+        }
+    }
+
+    /**
+     * Verifies that the CRC32 of a whole file, which is computed over all of its bytes except for the checksum at the end of the footer,
+     * matches the expected checksum of the file once the stream was fully read.
+     */
+    private static final class ChecksumVerifyingInputStream extends FilterInputStream {
+
+        private final FileInfo fileInfo;
+        private final CRC32 crc32 = new CRC32();
+        private final byte[] singleByte = new byte[1];
+        private final long checksummedBytes;
+        private long position;
+        private boolean verified;
+
+        ChecksumVerifyingInputStream(InputStream in, FileInfo fileInfo) {
+            super(in);
+            this.fileInfo = fileInfo;
+            this.checksummedBytes = fileInfo.length() - Long.BYTES;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = read(singleByte, 0, 1);
+            return read == -1 ? -1 : singleByte[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read == -1) {
+                verify();
+                return -1;
+            }
+            if (position < checksummedBytes) {
+                crc32.update(b, off, Math.toIntExact(Math.min(read, checksummedBytes - position)));
+            }
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            // every byte must be read to be verified
+            return 0L;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void verify() throws IOException {
+            if (verified == false && position == fileInfo.length()) {
+                verified = true;
+                final String checksum = Store.digestToString(crc32.getValue());
+                if (checksum.equals(fileInfo.checksum()) == false) {
+                    throw new CorruptIndexException("checksum [" + checksum + "] of fetched file does not match expected checksum ["
+                        + fileInfo.checksum() + "] of file [" + fileInfo.physicalName() + "]", fileInfo.name());
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotDirectory(snapshot=" + repositoryName + ":" + snapshotId + ", shard=" + shardId + ", local=" + in + ")";
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.snapshot;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.shard.ShardPath;
+import org.elasticsearch.index.store.FsDirectoryFactory;
+import org.elasticsearch.plugins.IndexStorePlugin;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Creates the {@link SnapshotDirectory} of the shards of indices that use the {@link #SNAPSHOT_STORE_TYPE} store type, which are restored
+ * lazily from the snapshot that is identified by the {@code index.store.snapshot.*} settings of the index.
+ */
+public class SnapshotDirectoryFactory implements IndexStorePlugin.DirectoryFactory {
+
+    public static final String SNAPSHOT_STORE_TYPE = "snapshot";
+
+    public static final Setting<String> SNAPSHOT_REPOSITORY_SETTING =
+        Setting.simpleString("index.store.snapshot.repository_name", Property.IndexScope, Property.Final);
+    public static final Setting<String> SNAPSHOT_SNAPSHOT_NAME_SETTING =
+        Setting.simpleString("index.store.snapshot.snapshot_name", Property.IndexScope, Property.Final);
+    public static final Setting<String> SNAPSHOT_SNAPSHOT_UUID_SETTING =
+        Setting.simpleString("index.store.snapshot.snapshot_uuid", Property.IndexScope, Property.Final);
+    public static final Setting<String> SNAPSHOT_INDEX_NAME_SETTING =
+        Setting.simpleString("index.store.snapshot.index_name", Property.IndexScope, Property.Final);
+    public static final Setting<String> SNAPSHOT_INDEX_ID_SETTING =
+        Setting.simpleString("index.store.snapshot.index_uuid", Property.IndexScope, Property.Final);
+    public static final Setting<Boolean> SNAPSHOT_PREFETCH_SETTING =
+        Setting.boolSetting("index.store.snapshot.prefetch", true, Property.IndexScope, Property.Final);
+
+    /**
+     * The folder of the shard data path that the files of the snapshot are prefetched to.
+     */
+    static final String PREFETCH_FOLDER = "snapshot_prefetch";
+
+    private final Supplier<RepositoriesService> repositoriesService;
+    private final SnapshotBlockCache cache;
+    private final ThreadPool threadPool;
+
+    public SnapshotDirectoryFactory(Supplier<RepositoriesService> repositoriesService, @Nullable SnapshotBlockCache cache,
+                                    ThreadPool threadPool) {
+        this.repositoriesService = repositoriesService;
+        this.cache = cache;
+        this.threadPool = threadPool;
+    }
+
+    /**
+     * Whether the index with the given settings is restored lazily from a snapshot.
+     */
+    public static boolean isSnapshotStore(Settings indexSettings) {
+        return SNAPSHOT_STORE_TYPE.equals(IndexModule.INDEX_STORE_TYPE_SETTING.get(indexSettings));
+    }
+
+    @Override
+    public Directory newDirectory(IndexSettings indexSettings, ShardPath shardPath) throws IOException {
+        if (cache == null) {
+            throw new IllegalStateException("shards of index [" + indexSettings.getIndex().getName() + "] with store type ["
+                + SNAPSHOT_STORE_TYPE + "] require a data node with [" + SnapshotBlockCache.SNAPSHOT_CACHE_ENABLED_SETTING.getKey()
+                + "] and local storage");
+        }
+        final Path location = shardPath.resolveIndex();
+        Files.createDirectories(location);
+        final Directory local = FSDirectory.open(location, indexSettings.getValue(FsDirectoryFactory.INDEX_LOCK_FACTOR_SETTING));
+        boolean success = false;
+        try {
+            final SnapshotDirectory directory = new SnapshotDirectory(local, shardPath.getDataPath().resolve(PREFETCH_FOLDER),
+                repositoriesService, requiredSetting(indexSettings, SNAPSHOT_REPOSITORY_SETTING),
+                new SnapshotId(requiredSetting(indexSettings, SNAPSHOT_SNAPSHOT_NAME_SETTING),
+                    requiredSetting(indexSettings, SNAPSHOT_SNAPSHOT_UUID_SETTING)),
+                new IndexId(requiredSetting(indexSettings, SNAPSHOT_INDEX_NAME_SETTING),
+                    requiredSetting(indexSettings, SNAPSHOT_INDEX_ID_SETTING)),
+                shardPath.getShardId(), cache, threadPool, indexSettings.getValue(SNAPSHOT_PREFETCH_SETTING));
+            success = true;
+            return directory;
+        } finally {
+            if (success == false) {
+                IOUtils.closeWhileHandlingException(local);
+            }
+        }
+    }
+
+    private static String requiredSetting(IndexSettings indexSettings, Setting<String> setting) {
+        final String value = indexSettings.getValue(setting);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("index [" + indexSettings.getIndex().getName() + "] with store type ["
+                + SNAPSHOT_STORE_TYPE + "] requires the setting [" + setting.getKey() + "]");
+        }
+        return value;
+    }
+}
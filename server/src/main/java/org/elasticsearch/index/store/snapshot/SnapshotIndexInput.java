@@ -0,0 +1,89 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.snapshot;
+
+import org.apache.lucene.store.BufferedIndexInput;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * An {@link IndexInput} over a file of a shard snapshot that reads the blocks of the file that it needs through the
+ * {@link SnapshotBlockCache}, see {@link SnapshotDirectory}.
+ */
+final class SnapshotIndexInput extends BufferedIndexInput {
+
+    private final SnapshotDirectory directory;
+    private final FileInfo fileInfo;
+    private final long offset;
+    private final long length;
+
+    SnapshotIndexInput(String resourceDesc, SnapshotDirectory directory, FileInfo fileInfo, IOContext context) {
+        this(resourceDesc, directory, fileInfo, 0L, fileInfo.length(), bufferSize(context));
+    }
+
+    private SnapshotIndexInput(String resourceDesc, SnapshotDirectory directory, FileInfo fileInfo, long offset, long length,
+                               int bufferSize) {
+        super(resourceDesc, bufferSize);
+        this.directory = directory;
+        this.fileInfo = fileInfo;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    protected void readInternal(byte[] b, int off, int len) throws IOException {
+        final long position = getFilePointer();
+        if (position + len > length) {
+            throw new EOFException("read past EOF: " + this + " position=" + position + " len=" + len + " length=" + length);
+        }
+        directory.readBytes(fileInfo, offset + position, b, off, len);
+    }
+
+    @Override
+    protected void seekInternal(long pos) throws IOException {
+        if (pos > length) {
+            throw new EOFException("seek past EOF: " + this + " pos=" + pos + " length=" + length);
+        }
+    }
+
+    @Override
+    public IndexInput slice(String sliceDescription, long sliceOffset, long sliceLength) throws IOException {
+        if (sliceOffset < 0 || sliceLength < 0 || sliceOffset + sliceLength > length) {
+            throw new IllegalArgumentException("slice() " + sliceDescription + " out of bounds: offset=" + sliceOffset
+                + ",length=" + sliceLength + ",fileLength=" + length + ": " + this);
+        }
+        return new SnapshotIndexInput(getFullSliceDescription(sliceDescription), directory, fileInfo, offset + sliceOffset,
+            sliceLength, getBufferSize());
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void close() {
+        // nothing to close, the blocks are held by the cache
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.indices;
 
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
@@ -40,6 +41,7 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.metadata.MappingMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.RecoverySource;
@@ -52,6 +54,7 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.io.FileSystemUtils;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
@@ -101,6 +104,7 @@ import org.elasticsearch.index.flush.FlushStats;
 import org.elasticsearch.index.get.GetStats;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.MappingDeduplicationStats;
 import org.elasticsearch.index.merge.MergeStats;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryRewriteContext;
@@ -142,6 +146,7 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -404,7 +409,31 @@ public class IndicesService extends AbstractLifecycleComponent
             }
         }
 
-        return new NodeIndicesStats(commonStats, statsByShard(this, flags));
+        return new NodeIndicesStats(commonStats, statsByShard(this, flags), mappingStats(clusterService.state().metaData()));
+    }
+
+    /**
+     * Returns statistics about the mapping sources that the indices of the given metadata share, see {@link MetaData.Builder#build()}.
+     * The mappers of the indices of this node use the sources of the metadata as well.
+     */
+    static MappingDeduplicationStats mappingStats(MetaData metaData) {
+        final Map<CompressedXContent, Boolean> sources = new IdentityHashMap<>();
+        long totalCount = 0;
+        long sizeInBytes = 0;
+        long savedInBytes = 0;
+        for (IndexMetaData indexMetaData : metaData) {
+            for (ObjectCursor<MappingMetaData> cursor : indexMetaData.getMappings().values()) {
+                final CompressedXContent source = cursor.value.source();
+                final long length = source.compressed().length;
+                totalCount++;
+                if (sources.put(source, Boolean.TRUE) == null) {
+                    sizeInBytes += length;
+                } else {
+                    savedInBytes += length;
+                }
+            }
+        }
+        return new MappingDeduplicationStats(sources.size(), totalCount, sizeInBytes, savedInBytes);
     }
 
     Map<Index, List<IndexShardStats>> statsByShard(final IndicesService indicesService, final CommonStatsFlags flags) {
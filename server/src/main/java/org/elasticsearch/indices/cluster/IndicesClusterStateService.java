@@ -245,7 +245,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
 
         createIndices(state);
 
-        createOrUpdateShards(state);
+        createOrUpdateShards(event);
     }
 
     /**
@@ -548,7 +548,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
         }
     }
 
-    private void createOrUpdateShards(final ClusterState state) {
+    private void createOrUpdateShards(final ClusterChangedEvent event) {
+        final ClusterState state = event.state();
         RoutingNode localRoutingNode = state.getRoutingNodes().node(state.nodes().getLocalNodeId());
         if (localRoutingNode == null) {
             return;
@@ -556,6 +557,10 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
 
         DiscoveryNodes nodes = state.nodes();
         RoutingTable routingTable = state.routingTable();
+        // shards whose index and routing did not change only need to be updated if they have to resend shard started to a new master
+        final boolean masterNodeChanged = event.nodesDelta().masterNodeChanged();
+        final Set<ShardId> changedShards = event.changedShards();
+        final Set<Index> changedIndices = event.changedIndices();
 
         for (final ShardRouting shardRouting : localRoutingNode) {
             ShardId shardId = shardRouting.shardId();
@@ -566,7 +571,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
                 if (shard == null) {
                     assert shardRouting.initializing() : shardRouting + " should have been removed by failMissingShards";
                     createShard(nodes, routingTable, shardRouting, state);
-                } else {
+                } else if (masterNodeChanged || shardRouting.initializing() || changedShards.contains(shardId)
+                    || changedIndices.contains(shardId.getIndex()) || shard.routingEntry().equals(shardRouting) == false) {
                     updateShard(nodes, shardRouting, shard, routingTable, state);
                 }
             }
@@ -34,6 +34,7 @@ import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.transport.Transports;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -74,6 +75,41 @@ public class MultiFileWriter extends AbstractRefCounted implements Releasable {
         writer.writeChunk(new FileChunk(fileMetaData, content, position, lastChunk));
     }
 
+    /**
+     * Writes a whole file from the given stream, e.g. a file that is fetched from a snapshot rather than sent in chunks by the recovery
+     * source. The bytes written are accounted as recovered from a snapshot. If writing fails then the partially written file is removed
+     * again so that it can be received from the recovery source instead.
+     */
+    public void writeFile(StoreFileMetaData fileMetaData, int bufferSize, InputStream stream) throws IOException {
+        assert Transports.assertNotTransportThread("multi_file_writer");
+        final String name = fileMetaData.name();
+        final IndexOutput indexOutput = openAndPutIndexOutput(name, fileMetaData, store);
+        boolean success = false;
+        try {
+            try {
+                final byte[] buffer = new byte[bufferSize];
+                int length;
+                while ((length = stream.read(buffer)) > 0) {
+                    indexOutput.writeBytes(buffer, 0, length);
+                    indexState.addRecoveredFromSnapshotBytesToFile(name, length);
+                }
+                Store.verify(indexOutput);
+            } finally {
+                indexOutput.close();
+                removeOpenIndexOutputs(name);
+            }
+            store.directory().sync(Collections.singleton(getTempNameForFile(name)));
+            success = true;
+        } finally {
+            if (success == false) {
+                final String tempFileName = getTempNameForFile(name);
+                store.deleteQuiet(tempFileName);
+                tempFileNames.remove(tempFileName);
+                indexState.resetRecoveredBytesOfFile(name);
+            }
+        }
+    }
+
     /** Get a temporary name for the provided file name. */
     String getTempNameForFile(String origFile) {
         return tempFilePrefix + origFile;
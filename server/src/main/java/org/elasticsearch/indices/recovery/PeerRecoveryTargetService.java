@@ -88,6 +88,7 @@ public class PeerRecoveryTargetService implements IndexEventListener {
         public static final String PREPARE_TRANSLOG = "internal:index/shard/recovery/prepare_translog";
         public static final String FINALIZE = "internal:index/shard/recovery/finalize";
         public static final String HANDOFF_PRIMARY_CONTEXT = "internal:index/shard/recovery/handoff_primary_context";
+        public static final String RESTORE_FILE_FROM_SNAPSHOT = "internal:index/shard/recovery/restore_file_from_snapshot";
     }
 
     private final ThreadPool threadPool;
@@ -100,12 +101,12 @@ public class PeerRecoveryTargetService implements IndexEventListener {
     private final RecoveriesCollection onGoingRecoveries;
 
     public PeerRecoveryTargetService(ThreadPool threadPool, TransportService transportService,
-            RecoverySettings recoverySettings, ClusterService clusterService) {
+            RecoverySettings recoverySettings, ClusterService clusterService, SnapshotFilesProvider snapshotFilesProvider) {
         this.threadPool = threadPool;
         this.transportService = transportService;
         this.recoverySettings = recoverySettings;
         this.clusterService = clusterService;
-        this.onGoingRecoveries = new RecoveriesCollection(logger, threadPool);
+        this.onGoingRecoveries = new RecoveriesCollection(logger, threadPool, snapshotFilesProvider);
 
         transportService.registerRequestHandler(Actions.FILES_INFO, ThreadPool.Names.GENERIC, RecoveryFilesInfoRequest::new,
             new FilesInfoRequestHandler());
@@ -124,6 +125,8 @@ public class PeerRecoveryTargetService implements IndexEventListener {
                 ThreadPool.Names.GENERIC,
                 RecoveryHandoffPrimaryContextRequest::new,
                 new HandoffPrimaryContextRequestHandler());
+        transportService.registerRequestHandler(Actions.RESTORE_FILE_FROM_SNAPSHOT, ThreadPool.Names.GENERIC,
+            RecoverySnapshotFileRequest::new, new RestoreFileFromSnapshotTransportRequestHandler());
     }
 
     @Override
@@ -534,6 +537,19 @@ public class PeerRecoveryTargetService implements IndexEventListener {
         }
     }
 
+    class RestoreFileFromSnapshotTransportRequestHandler implements TransportRequestHandler<RecoverySnapshotFileRequest> {
+
+        @Override
+        public void messageReceived(final RecoverySnapshotFileRequest request, TransportChannel channel, Task task) throws Exception {
+            try (RecoveryRef recoveryRef = onGoingRecoveries.getRecoverySafe(request.recoveryId(), request.shardId())) {
+                final ActionListener<TransportResponse> listener =
+                    new ChannelActionListener<>(channel, Actions.RESTORE_FILE_FROM_SNAPSHOT, request);
+                recoveryRef.target().restoreFileFromSnapshot(request.repository(), request.indexId(), request.snapshotFile(),
+                    ActionListener.map(listener, nullVal -> TransportResponse.Empty.INSTANCE));
+            }
+        }
+    }
+
     class RecoveryRunner extends AbstractRunnable {
 
         final long recoveryId;
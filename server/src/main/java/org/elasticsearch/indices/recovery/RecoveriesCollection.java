@@ -23,6 +23,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.elasticsearch.ElasticsearchTimeoutException;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
@@ -50,10 +51,17 @@ public class RecoveriesCollection {
 
     private final Logger logger;
     private final ThreadPool threadPool;
+    @Nullable
+    private final SnapshotFilesProvider snapshotFilesProvider;
 
     public RecoveriesCollection(Logger logger, ThreadPool threadPool) {
+        this(logger, threadPool, null);
+    }
+
+    public RecoveriesCollection(Logger logger, ThreadPool threadPool, @Nullable SnapshotFilesProvider snapshotFilesProvider) {
         this.logger = logger;
         this.threadPool = threadPool;
+        this.snapshotFilesProvider = snapshotFilesProvider;
     }
 
     /**
@@ -63,7 +71,7 @@ public class RecoveriesCollection {
      */
     public long startRecovery(IndexShard indexShard, DiscoveryNode sourceNode,
                               PeerRecoveryTargetService.RecoveryListener listener, TimeValue activityTimeout) {
-        RecoveryTarget recoveryTarget = new RecoveryTarget(indexShard, sourceNode, listener);
+        RecoveryTarget recoveryTarget = new RecoveryTarget(indexShard, sourceNode, snapshotFilesProvider, listener);
         startRecoveryInternal(recoveryTarget, activityTimeout);
         return recoveryTarget.recoveryId();
     }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.StoreFileMetaData;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+
+/**
+ * Asks a recovery target to fetch a file from a snapshot in a repository instead of receiving it from the recovery source.
+ */
+final class RecoverySnapshotFileRequest extends TransportRequest {
+
+    private final long recoveryId;
+    private final ShardId shardId;
+    private final String repository;
+    private final IndexId indexId;
+    private final BlobStoreIndexShardSnapshot.FileInfo snapshotFile;
+
+    RecoverySnapshotFileRequest(long recoveryId, ShardId shardId, String repository, IndexId indexId,
+                                BlobStoreIndexShardSnapshot.FileInfo snapshotFile) {
+        this.recoveryId = recoveryId;
+        this.shardId = shardId;
+        this.repository = repository;
+        this.indexId = indexId;
+        this.snapshotFile = snapshotFile;
+    }
+
+    RecoverySnapshotFileRequest(StreamInput in) throws IOException {
+        super(in);
+        recoveryId = in.readLong();
+        shardId = new ShardId(in);
+        repository = in.readString();
+        indexId = new IndexId(in);
+        final String name = in.readString();
+        final StoreFileMetaData metaData = new StoreFileMetaData(in);
+        final ByteSizeValue partSize = in.readOptionalWriteable(ByteSizeValue::new);
+        snapshotFile = new BlobStoreIndexShardSnapshot.FileInfo(name, metaData, partSize);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeLong(recoveryId);
+        shardId.writeTo(out);
+        out.writeString(repository);
+        indexId.writeTo(out);
+        out.writeString(snapshotFile.name());
+        snapshotFile.metadata().writeTo(out);
+        out.writeOptionalWriteable(snapshotFile.partSize());
+    }
+
+    public long recoveryId() {
+        return recoveryId;
+    }
+
+    public ShardId shardId() {
+        return shardId;
+    }
+
+    public String repository() {
+        return repository;
+    }
+
+    public IndexId indexId() {
+        return indexId;
+    }
+
+    public BlobStoreIndexShardSnapshot.FileInfo snapshotFile() {
+        return snapshotFile;
+    }
+
+    @Override
+    public String toString() {
+        return "RecoverySnapshotFileRequest{" +
+            "shardId=" + shardId +
+            ", repository=" + repository +
+            ", file=" + snapshotFile.physicalName() +
+            ", blob=" + snapshotFile.name() +
+            '}';
+    }
+}
@@ -35,12 +35,14 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.StepListener;
+import org.elasticsearch.action.support.GroupedActionListener;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.action.support.ThreadedActionListener;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
@@ -51,6 +53,7 @@ import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.CancellableThreads;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.FutureUtils;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.core.internal.io.IOUtils;
@@ -76,10 +79,12 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -109,12 +114,26 @@ public class RecoverySourceHandler {
     private final int chunkSizeInBytes;
     private final RecoveryTargetHandler recoveryTarget;
     private final int maxConcurrentFileChunks;
+    @Nullable
+    private final ShardSnapshotsService shardSnapshotsService;
+    private final int maxConcurrentSnapshotFileDownloads;
     private final ThreadPool threadPool;
     private final CancellableThreads cancellableThreads = new CancellableThreads();
     private final List<Closeable> resources = new CopyOnWriteArrayList<>();
 
     public RecoverySourceHandler(IndexShard shard, RecoveryTargetHandler recoveryTarget, ThreadPool threadPool,
                                  StartRecoveryRequest request, int fileChunkSizeInBytes, int maxConcurrentFileChunks) {
+        this(shard, recoveryTarget, threadPool, request, fileChunkSizeInBytes, maxConcurrentFileChunks, null, 1);
+    }
+
+    /**
+     * @param shardSnapshotsService              used to find snapshots from which the target can fetch files instead of receiving them
+     *                                           from this node, or {@code null} if all files should be sent from this node
+     * @param maxConcurrentSnapshotFileDownloads the maximum number of files that the target fetches from a snapshot concurrently
+     */
+    public RecoverySourceHandler(IndexShard shard, RecoveryTargetHandler recoveryTarget, ThreadPool threadPool,
+                                 StartRecoveryRequest request, int fileChunkSizeInBytes, int maxConcurrentFileChunks,
+                                 @Nullable ShardSnapshotsService shardSnapshotsService, int maxConcurrentSnapshotFileDownloads) {
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.threadPool = threadPool;
@@ -124,6 +143,10 @@ public class RecoverySourceHandler {
         this.chunkSizeInBytes = fileChunkSizeInBytes;
         // if the target is on an old version, it won't be able to handle out-of-order file chunks.
         this.maxConcurrentFileChunks = request.targetNode().getVersion().onOrAfter(Version.V_6_7_0) ? maxConcurrentFileChunks : 1;
+        // if the target is on an old version, it won't be able to fetch files from a snapshot.
+        this.shardSnapshotsService = request.targetNode().getVersion().onOrAfter(RecoverySettings.SNAPSHOT_RECOVERIES_SUPPORTED_VERSION)
+            ? shardSnapshotsService : null;
+        this.maxConcurrentSnapshotFileDownloads = maxConcurrentSnapshotFileDownloads;
     }
 
     public StartRecoveryRequest getRequest() {
@@ -505,16 +528,26 @@ public class RecoverySourceHandler {
                 logger.trace("recovery [phase1]: recovering_files [{}] with total_size [{}], reusing_files [{}] with total_size [{}]",
                     phase1FileNames.size(), new ByteSizeValue(totalSizeInBytes),
                     phase1ExistingFileNames.size(), new ByteSizeValue(existingTotalSizeInBytes));
+                final StepListener<ShardSnapshotsService.ShardSnapshot> fetchShardSnapshotStep = new StepListener<>();
                 final StepListener<Void> sendFileInfoStep = new StepListener<>();
+                final StepListener<List<StoreFileMetaData>> recoverFilesFromSnapshotStep = new StepListener<>();
                 final StepListener<Void> sendFilesStep = new StepListener<>();
                 final StepListener<RetentionLease> createRetentionLeaseStep = new StepListener<>();
                 final StepListener<Void> cleanFilesStep = new StepListener<>();
-                cancellableThreads.checkForCancel();
-                recoveryTarget.receiveFileInfo(phase1FileNames, phase1FileSizes, phase1ExistingFileNames,
+                fetchShardSnapshot(phase1Files, fetchShardSnapshotStep);
+
+                fetchShardSnapshotStep.whenComplete(r -> {
+                    cancellableThreads.checkForCancel();
+                    recoveryTarget.receiveFileInfo(phase1FileNames, phase1FileSizes, phase1ExistingFileNames,
                         phase1ExistingFileSizes, translogOps.getAsInt(), sendFileInfoStep);
+                }, listener::onFailure);
 
                 sendFileInfoStep.whenComplete(r ->
-                    sendFiles(store, phase1Files.toArray(new StoreFileMetaData[0]), translogOps, sendFilesStep), listener::onFailure);
+                    recoverFilesFromSnapshot(fetchShardSnapshotStep.result(), phase1Files, recoverFilesFromSnapshotStep),
+                    listener::onFailure);
+
+                recoverFilesFromSnapshotStep.whenComplete(filesToSend ->
+                    sendFiles(store, filesToSend.toArray(new StoreFileMetaData[0]), translogOps, sendFilesStep), listener::onFailure);
 
                 sendFilesStep.whenComplete(r -> createRetentionLease(startingSeqNo, createRetentionLeaseStep), listener::onFailure);
 
@@ -558,6 +591,86 @@ public class RecoverySourceHandler {
         }
     }
 
+    private void fetchShardSnapshot(List<StoreFileMetaData> files, ActionListener<ShardSnapshotsService.ShardSnapshot> listener) {
+        if (shardSnapshotsService == null || files.isEmpty()) {
+            listener.onResponse(null);
+            return;
+        }
+        cancellableThreads.checkForCancel();
+        shardSnapshotsService.fetchShardSnapshot(request.shardId(), files, ActionListener.delegateResponse(listener, (l, e) -> {
+            // the files can still be sent from this node, so a failed look up must not fail the recovery
+            logger.warn("failed to look up snapshots to recover files from", e);
+            l.onResponse(null);
+        }));
+    }
+
+    /**
+     * Asks the target to fetch the files that are contained in the given snapshot from the repository. The listener is completed with
+     * the files that must still be sent from this node, either because they are not part of the snapshot or because the target failed
+     * to fetch them.
+     */
+    void recoverFilesFromSnapshot(@Nullable ShardSnapshotsService.ShardSnapshot shardSnapshot, List<StoreFileMetaData> files,
+                                  ActionListener<List<StoreFileMetaData>> listener) {
+        if (shardSnapshot == null) {
+            listener.onResponse(files);
+            return;
+        }
+        final List<StoreFileMetaData> filesToSend = new ArrayList<>();
+        final Queue<StoreFileMetaData> pendingSnapshotFiles = ConcurrentCollections.newQueue();
+        for (StoreFileMetaData md : files) {
+            if (shardSnapshot.getFile(md.name()) != null) {
+                pendingSnapshotFiles.add(md);
+            } else {
+                filesToSend.add(md);
+            }
+        }
+        final int snapshotFileCount = pendingSnapshotFiles.size();
+        if (snapshotFileCount == 0) {
+            // none of the files are part of the snapshot, they must all be sent from this node
+            listener.onResponse(filesToSend);
+            return;
+        }
+        final Queue<StoreFileMetaData> failedSnapshotFiles = ConcurrentCollections.newQueue();
+        final int workers = Math.min(maxConcurrentSnapshotFileDownloads, snapshotFileCount);
+        logger.trace("recovery [phase1]: fetching [{}] files from snapshot [{}] in repository [{}]",
+            snapshotFileCount, shardSnapshot.snapshot(), shardSnapshot.repository());
+        final ActionListener<Collection<Void>> allFilesListener = ActionListener.map(listener, ignored -> {
+            filesToSend.addAll(failedSnapshotFiles);
+            logger.debug("recovery [phase1]: fetched [{}] of [{}] files from snapshot [{}] in repository [{}], sending [{}] files",
+                snapshotFileCount - failedSnapshotFiles.size(), snapshotFileCount, shardSnapshot.snapshot(),
+                shardSnapshot.repository(), filesToSend.size());
+            return filesToSend;
+        });
+        final GroupedActionListener<Void> groupedListener = new GroupedActionListener<>(allFilesListener, workers);
+        for (int i = 0; i < workers; i++) {
+            recoverNextFileFromSnapshot(shardSnapshot, pendingSnapshotFiles, failedSnapshotFiles, groupedListener);
+        }
+    }
+
+    private void recoverNextFileFromSnapshot(ShardSnapshotsService.ShardSnapshot shardSnapshot, Queue<StoreFileMetaData> pendingFiles,
+                                             Queue<StoreFileMetaData> failedFiles, ActionListener<Void> listener) {
+        final StoreFileMetaData md = pendingFiles.poll();
+        if (md == null) {
+            listener.onResponse(null);
+            return;
+        }
+        try {
+            cancellableThreads.checkForCancel();
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+        recoveryTarget.restoreFileFromSnapshot(shardSnapshot.repository(), shardSnapshot.indexId(), shardSnapshot.getFile(md.name()),
+            ActionListener.wrap(
+                r -> recoverNextFileFromSnapshot(shardSnapshot, pendingFiles, failedFiles, listener),
+                e -> {
+                    logger.debug(new ParameterizedMessage("recovery [phase1]: failed to fetch [{}] from snapshot [{}] in repository [{}]," +
+                        " sending it instead", md.name(), shardSnapshot.snapshot(), shardSnapshot.repository()), e);
+                    failedFiles.add(md);
+                    recoverNextFileFromSnapshot(shardSnapshot, pendingFiles, failedFiles, listener);
+                }));
+    }
+
     void createRetentionLease(final long startingSeqNo, ActionListener<RetentionLease> listener) {
         runUnderPrimaryPermit(() -> {
                 // Clone the peer recovery retention lease belonging to the source shard. We are retaining history between the the local
@@ -329,6 +329,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         static final String VERIFY_INDEX = "verify_index";
         static final String RECOVERED = "recovered";
         static final String RECOVERED_IN_BYTES = "recovered_in_bytes";
+        static final String RECOVERED_FROM_SNAPSHOT = "recovered_from_snapshot";
+        static final String RECOVERED_FROM_SNAPSHOT_IN_BYTES = "recovered_from_snapshot_in_bytes";
         static final String CHECK_INDEX_TIME = "check_index_time";
         static final String CHECK_INDEX_TIME_IN_MILLIS = "check_index_time_in_millis";
         static final String LENGTH = "length";
@@ -593,6 +595,7 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         private String name;
         private long length;
         private long recovered;
+        private long recoveredFromSnapshot;
         private boolean reused;
 
         public File(String name, long length, boolean reused) {
@@ -607,6 +610,9 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             length = in.readVLong();
             recovered = in.readVLong();
             reused = in.readBoolean();
+            if (in.getVersion().onOrAfter(RecoverySettings.SNAPSHOT_RECOVERIES_SUPPORTED_VERSION)) {
+                recoveredFromSnapshot = in.readVLong();
+            }
         }
 
         @Override
@@ -615,6 +621,9 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             out.writeVLong(length);
             out.writeVLong(recovered);
             out.writeBoolean(reused);
+            if (out.getVersion().onOrAfter(RecoverySettings.SNAPSHOT_RECOVERIES_SUPPORTED_VERSION)) {
+                out.writeVLong(recoveredFromSnapshot);
+            }
         }
 
         void addRecoveredBytes(long bytes) {
@@ -623,6 +632,17 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             recovered += bytes;
         }
 
+        void addRecoveredFromSnapshotBytes(long bytes) {
+            addRecoveredBytes(bytes);
+            recoveredFromSnapshot += bytes;
+        }
+
+        void resetRecoveredBytes() {
+            assert reused == false : "file is marked as reused, can't reset recovered bytes";
+            recovered = 0;
+            recoveredFromSnapshot = 0;
+        }
+
         /**
          * file name *
          */
@@ -644,6 +664,13 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             return recovered;
         }
 
+        /**
+         * number of bytes of this file that were fetched from a snapshot rather than from the recovery source (so far)
+         */
+        public long recoveredFromSnapshot() {
+            return recoveredFromSnapshot;
+        }
+
         /**
          * returns true if the file is reused from a local copy
          */
@@ -662,6 +689,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             builder.humanReadableField(Fields.LENGTH_IN_BYTES, Fields.LENGTH, new ByteSizeValue(length));
             builder.field(Fields.REUSED, reused);
             builder.humanReadableField(Fields.RECOVERED_IN_BYTES, Fields.RECOVERED, new ByteSizeValue(recovered));
+            builder.humanReadableField(Fields.RECOVERED_FROM_SNAPSHOT_IN_BYTES, Fields.RECOVERED_FROM_SNAPSHOT,
+                new ByteSizeValue(recoveredFromSnapshot));
             builder.endObject();
             return builder;
         }
@@ -670,7 +699,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         public boolean equals(Object obj) {
             if (obj instanceof File) {
                 File other = (File) obj;
-                return name.equals(other.name) && length == other.length() && reused == other.reused() && recovered == other.recovered();
+                return name.equals(other.name) && length == other.length() && reused == other.reused() && recovered == other.recovered()
+                    && recoveredFromSnapshot == other.recoveredFromSnapshot();
             }
             return false;
         }
@@ -680,13 +710,15 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             int result = name.hashCode();
             result = 31 * result + Long.hashCode(length);
             result = 31 * result + Long.hashCode(recovered);
+            result = 31 * result + Long.hashCode(recoveredFromSnapshot);
             result = 31 * result + (reused ? 1 : 0);
             return result;
         }
 
         @Override
         public String toString() {
-            return "file (name [" + name + "], reused [" + reused + "], length [" + length + "], recovered [" + recovered + "])";
+            return "file (name [" + name + "], reused [" + reused + "], length [" + length + "], recovered [" + recovered +
+                "], recovered from snapshot [" + recoveredFromSnapshot + "])";
         }
     }
 
@@ -747,6 +779,19 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             file.addRecoveredBytes(bytes);
         }
 
+        public synchronized void addRecoveredFromSnapshotBytesToFile(String name, long bytes) {
+            File file = fileDetails.get(name);
+            file.addRecoveredFromSnapshotBytes(bytes);
+        }
+
+        /**
+         * Resets the recovered bytes of the given file, e.g. because fetching it from a snapshot failed and it will be sent again.
+         */
+        public synchronized void resetRecoveredBytesOfFile(String name) {
+            File file = fileDetails.get(name);
+            file.resetRecoveredBytes();
+        }
+
         public synchronized void addSourceThrottling(long timeInNanos) {
             if (sourceThrottlingInNanos == UNKNOWN) {
                 sourceThrottlingInNanos = timeInNanos;
@@ -852,6 +897,17 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             return recovered;
         }
 
+        /**
+         * total number of bytes that were fetched from a snapshot rather than from the recovery source so far
+         */
+        public synchronized long recoveredFromSnapshotBytes() {
+            long recovered = 0;
+            for (File file : fileDetails.values()) {
+                recovered += file.recoveredFromSnapshot();
+            }
+            return recovered;
+        }
+
         /**
          * total bytes of files to be recovered (potentially not yet done)
          */
@@ -915,6 +971,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             builder.humanReadableField(Fields.TOTAL_IN_BYTES, Fields.TOTAL, new ByteSizeValue(totalBytes()));
             builder.humanReadableField(Fields.REUSED_IN_BYTES, Fields.REUSED, new ByteSizeValue(reusedBytes()));
             builder.humanReadableField(Fields.RECOVERED_IN_BYTES, Fields.RECOVERED, new ByteSizeValue(recoveredBytes()));
+            builder.humanReadableField(Fields.RECOVERED_FROM_SNAPSHOT_IN_BYTES, Fields.RECOVERED_FROM_SNAPSHOT,
+                new ByteSizeValue(recoveredFromSnapshotBytes()));
             builder.field(Fields.PERCENT, String.format(Locale.ROOT, "%1.1f%%", recoveredBytesPercent()));
             builder.endObject();
 
@@ -22,9 +22,11 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.RetentionLeases;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 
 import java.util.List;
 
@@ -106,4 +108,15 @@ public interface RecoveryTargetHandler {
     void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
                         boolean lastChunk, int totalTranslogOps, ActionListener<Void> listener);
 
+    /**
+     * Fetches a file from a snapshot of the shard instead of receiving it from the recovery source. If this fails then the recovery
+     * source falls back to sending the file via {@link #writeFileChunk}.
+     *
+     * @param repository   the name of the repository containing the snapshot
+     * @param indexId      the id of the snapshotted index in the repository
+     * @param snapshotFile the snapshotted file, whose metadata is identical to the metadata of the file on the recovery source
+     */
+    void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo snapshotFile,
+                                 ActionListener<Void> listener);
+
 }
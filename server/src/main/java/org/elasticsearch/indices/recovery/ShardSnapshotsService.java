@@ -0,0 +1,227 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRunnable;
+import org.elasticsearch.action.support.GroupedActionListener;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshots;
+import org.elasticsearch.index.snapshots.blobstore.SnapshotFiles;
+import org.elasticsearch.index.store.StoreFileMetaData;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.Repository;
+import org.elasticsearch.repositories.RepositoryData;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds snapshots of a shard in the repositories that are registered with {@code use_for_peer_recovery: true} so that a recovery source
+ * can tell its target to fetch files from the repository instead of sending them itself.
+ */
+public class ShardSnapshotsService {
+
+    private static final Logger logger = LogManager.getLogger(ShardSnapshotsService.class);
+
+    private final RepositoriesService repositoriesService;
+    private final ThreadPool threadPool;
+
+    public ShardSnapshotsService(RepositoriesService repositoriesService, ThreadPool threadPool) {
+        this.repositoriesService = repositoriesService;
+        this.threadPool = threadPool;
+    }
+
+    /**
+     * Looks up the snapshot of the given shard that contains the largest number of bytes of the given files. Files of a snapshot only
+     * match a file of the shard if they have the same length and checksum (and the same hash for files that are stored in full in the
+     * metadata), see {@link StoreFileMetaData#isSame(StoreFileMetaData)}, and the snapshot was taken of the same index.
+     *
+     * Failures to read a repository are logged and otherwise ignored since the files can always be copied from the recovery source.
+     *
+     * @param shardId  the shard to look up snapshots for
+     * @param files    the files that the recovery target is missing
+     * @param listener completed with the best matching snapshot or {@code null} if no snapshot contains any of the given files
+     */
+    public void fetchShardSnapshot(ShardId shardId, List<StoreFileMetaData> files, ActionListener<ShardSnapshot> listener) {
+        final List<BlobStoreRepository> repositories = new ArrayList<>();
+        for (Repository repository : repositoriesService.getRepositories().values()) {
+            if (repository instanceof BlobStoreRepository
+                && BlobStoreRepository.USE_FOR_PEER_RECOVERY_SETTING.get(repository.getMetadata().settings())) {
+                repositories.add((BlobStoreRepository) repository);
+            }
+        }
+        if (repositories.isEmpty() || files.isEmpty()) {
+            listener.onResponse(null);
+            return;
+        }
+        final ActionListener<Collection<ShardSnapshot>> allRepositoriesListener = ActionListener.map(listener, shardSnapshots -> {
+            ShardSnapshot best = null;
+            for (ShardSnapshot shardSnapshot : shardSnapshots) {
+                if (shardSnapshot != null && (best == null || shardSnapshot.totalSize() > best.totalSize())) {
+                    best = shardSnapshot;
+                }
+            }
+            return best;
+        });
+        final GroupedActionListener<ShardSnapshot> groupedListener = new GroupedActionListener<>(allRepositoriesListener,
+            repositories.size());
+        for (BlobStoreRepository repository : repositories) {
+            final String repositoryName = repository.getMetadata().name();
+            final ActionListener<ShardSnapshot> repositoryListener = ActionListener.delegateResponse(groupedListener, (l, e) -> {
+                logger.warn(new ParameterizedMessage("{} failed to look up snapshots of the shard in repository [{}]",
+                    shardId, repositoryName), e);
+                l.onResponse(null);
+            });
+            repository.getRepositoryData(ActionListener.wrap(repositoryData -> threadPool.generic().execute(
+                ActionRunnable.supply(repositoryListener, () -> findShardSnapshot(repository, repositoryData, shardId, files))),
+                repositoryListener::onFailure));
+        }
+    }
+
+    /**
+     * Looks up the snapshot of the given shard in the given repository that contains the largest number of bytes of the given files.
+     * Snapshots are only used if they were taken of the same index as the shard, i.e. an index with the same UUID, since an index that
+     * was deleted and created again, or restored, under the same name is stored under the same index id in the repository.
+     */
+    @Nullable
+    static ShardSnapshot findShardSnapshot(BlobStoreRepository repository, RepositoryData repositoryData, ShardId shardId,
+                                           List<StoreFileMetaData> files) throws IOException {
+        final IndexId indexId = repositoryData.getIndices().get(shardId.getIndexName());
+        if (indexId == null) {
+            return null;
+        }
+        final Map<String, SnapshotId> snapshotIds = new HashMap<>();
+        for (SnapshotId snapshotId : repositoryData.getSnapshots(indexId)) {
+            snapshotIds.put(snapshotId.getName(), snapshotId);
+        }
+        final String shardGen = repositoryData.shardGenerations().getShardGen(indexId, shardId.id());
+        final BlobStoreIndexShardSnapshots shardSnapshots = repository.getBlobStoreIndexShardSnapshots(indexId, shardId.id(), shardGen);
+        final List<ShardSnapshot> candidates = new ArrayList<>();
+        for (SnapshotFiles snapshotFiles : shardSnapshots) {
+            if (snapshotIds.containsKey(snapshotFiles.snapshot()) == false) {
+                continue;
+            }
+            final Map<String, BlobStoreIndexShardSnapshot.FileInfo> matchingFiles = new HashMap<>();
+            long totalSize = 0L;
+            for (StoreFileMetaData file : files) {
+                final BlobStoreIndexShardSnapshot.FileInfo fileInfo = snapshotFiles.findPhysicalIndexFile(file.name());
+                if (fileInfo != null && fileInfo.isSame(file)) {
+                    matchingFiles.put(file.name(), fileInfo);
+                    totalSize += file.length();
+                }
+            }
+            if (matchingFiles.isEmpty() == false) {
+                candidates.add(new ShardSnapshot(repository.getMetadata().name(), indexId, snapshotFiles.snapshot(), matchingFiles,
+                    totalSize));
+            }
+        }
+        // only read the metadata of the index in the snapshots until the best snapshot of the same index is found
+        candidates.sort(Comparator.comparingLong(ShardSnapshot::totalSize).reversed());
+        for (ShardSnapshot candidate : candidates) {
+            final IndexMetaData indexMetaData = repository.getSnapshotIndexMetaData(snapshotIds.get(candidate.snapshot()), indexId);
+            if (shardId.getIndex().getUUID().equals(indexMetaData.getIndexUUID())) {
+                return candidate;
+            }
+            logger.trace("{} ignoring snapshot [{}] of index [{}] with a different uuid [{}]", shardId, candidate.snapshot(),
+                shardId.getIndexName(), indexMetaData.getIndexUUID());
+        }
+        return null;
+    }
+
+    /**
+     * The files of a shard snapshot that can be used by a peer recovery.
+     */
+    public static final class ShardSnapshot {
+
+        private final String repository;
+        private final IndexId indexId;
+        private final String snapshot;
+        private final Map<String, BlobStoreIndexShardSnapshot.FileInfo> files;
+        private final long totalSize;
+
+        public ShardSnapshot(String repository, IndexId indexId, String snapshot,
+                             Map<String, BlobStoreIndexShardSnapshot.FileInfo> files, long totalSize) {
+            this.repository = repository;
+            this.indexId = indexId;
+            this.snapshot = snapshot;
+            this.files = Collections.unmodifiableMap(files);
+            this.totalSize = totalSize;
+        }
+
+        /**
+         * the name of the repository containing the snapshot
+         */
+        public String repository() {
+            return repository;
+        }
+
+        /**
+         * the id of the snapshotted index in the repository
+         */
+        public IndexId indexId() {
+            return indexId;
+        }
+
+        /**
+         * the name of the snapshot
+         */
+        public String snapshot() {
+            return snapshot;
+        }
+
+        /**
+         * Returns the snapshotted file with the given physical name or {@code null} if the file is not part of the snapshot.
+         */
+        @Nullable
+        public BlobStoreIndexShardSnapshot.FileInfo getFile(String physicalName) {
+            return files.get(physicalName);
+        }
+
+        /**
+         * total size in bytes of the files that can be fetched from the snapshot
+         */
+        public long totalSize() {
+            return totalSize;
+        }
+
+        @Override
+        public String toString() {
+            return "ShardSnapshot{repository=[" + repository + "], snapshot=[" + snapshot + "], files=" + files.size() +
+                ", totalSize=" + totalSize + '}';
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.Repository;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+
+import java.io.InputStream;
+
+/**
+ * Gives a recovery target access to the contents of snapshotted files in the repositories of the cluster.
+ */
+public class SnapshotFilesProvider {
+
+    private final RepositoriesService repositoriesService;
+
+    public SnapshotFilesProvider(RepositoriesService repositoriesService) {
+        this.repositoriesService = repositoriesService;
+    }
+
+    /**
+     * Opens a stream over the contents of a snapshotted file. The contents are not verified while reading, callers are expected to
+     * check the checksum of the file once it has been fully read.
+     *
+     * @param repositoryName name of the repository containing the file
+     * @param indexId        id of the snapshotted index in the repository
+     * @param shardId        the shard that the file belongs to
+     * @param fileInfo       the file to read
+     */
+    public InputStream getInputStreamForSnapshotFile(String repositoryName, IndexId indexId, ShardId shardId,
+                                                     BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+        final Repository repository = repositoriesService.repository(repositoryName);
+        if (repository instanceof BlobStoreRepository == false) {
+            throw new IllegalArgumentException("repository [" + repositoryName + "] of type [" + repository.getMetadata().type() +
+                "] does not support reading snapshot files during recoveries");
+        }
+        return ((BlobStoreRepository) repository).readShardFile(indexId, shardId, fileInfo);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.monitor;
+
+import org.elasticsearch.monitor.process.ProcessProbe;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the CPU usage of the process and the share of time the JVM spent collecting garbage, at most once per
+ * {@link #SAMPLE_INTERVAL_NANOS}, so that they are cheap enough to be piggybacked on every shard level search response and be used by
+ * adaptive replica selection, see {@link org.elasticsearch.node.ResponseCollectorService}.
+ */
+public final class NodeLoadProbe {
+
+    static final long SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final List<GarbageCollectorMXBean> gcMxBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private static class NodeLoadProbeHolder {
+        private static final NodeLoadProbe INSTANCE = new NodeLoadProbe();
+    }
+
+    public static NodeLoadProbe getInstance() {
+        return NodeLoadProbeHolder.INSTANCE;
+    }
+
+    private final int availableProcessors = Runtime.getRuntime().availableProcessors();
+
+    private volatile long lastSampleNanos;
+    private volatile int cpuPercent = -1;
+    private volatile int gcOverheadPercent = -1;
+    // guarded by this
+    private long lastCpuMillis;
+    private long lastGcMillis;
+
+    private NodeLoadProbe() {
+        lastSampleNanos = System.nanoTime();
+        lastCpuMillis = ProcessProbe.getInstance().getProcessCpuTotalTime();
+        lastGcMillis = totalGcMillis();
+    }
+
+    /**
+     * Returns the CPU usage of the process in percent of all processors over the last sampling interval, or -1 if not supported.
+     */
+    public int getCpuPercent() {
+        maybeSample();
+        return cpuPercent;
+    }
+
+    /**
+     * Returns the percentage of time spent collecting garbage over the last sampling interval, or -1 if not supported.
+     */
+    public int getGcOverheadPercent() {
+        maybeSample();
+        return gcOverheadPercent;
+    }
+
+    private void maybeSample() {
+        if (System.nanoTime() - lastSampleNanos < SAMPLE_INTERVAL_NANOS) {
+            return;
+        }
+        synchronized (this) {
+            final long nowNanos = System.nanoTime();
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(nowNanos - lastSampleNanos);
+            if (elapsedMillis < TimeUnit.NANOSECONDS.toMillis(SAMPLE_INTERVAL_NANOS)) {
+                return;
+            }
+            final long cpuMillis = ProcessProbe.getInstance().getProcessCpuTotalTime();
+            if (cpuMillis >= 0 && lastCpuMillis >= 0) {
+                cpuPercent = percent(cpuMillis - lastCpuMillis, elapsedMillis * availableProcessors);
+            }
+            final long gcMillis = totalGcMillis();
+            if (gcMillis >= 0 && lastGcMillis >= 0) {
+                gcOverheadPercent = percent(gcMillis - lastGcMillis, elapsedMillis);
+            }
+            lastCpuMillis = cpuMillis;
+            lastGcMillis = gcMillis;
+            lastSampleNanos = nowNanos;
+        }
+    }
+
+    private static int percent(long part, long total) {
+        return (int) Math.max(0L, Math.min(100L, part * 100 / total));
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gcMxBean : gcMxBeans) {
+            final long time = gcMxBean.getCollectionTime();
+            if (time < 0) {
+                return -1;
+            }
+            total += time;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.node;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The parameters of the function that ranks the copies of a shard for adaptive replica selection, see
+ * {@link ResponseCollectorService.ComputedNodeStats#rank(AdaptiveSelectionRanking, long, double)}.
+ */
+public final class AdaptiveSelectionRanking {
+
+    public enum Mode {
+        /**
+         * Ranks copies by the statistics of the node that holds them only.
+         */
+        NODE,
+        /**
+         * Ranks copies by the C3 formula with the service time of the copy itself, inflated by the CPU and GC load of its node.
+         */
+        SHARD;
+
+        public static Mode fromString(String mode) {
+            for (Mode value : values()) {
+                if (value.name().toLowerCase(Locale.ROOT).equals(mode)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("unknown adaptive replica selection ranking [" + mode + "], expected one of "
+                + Arrays.toString(values()).toLowerCase(Locale.ROOT));
+        }
+    }
+
+    public static final int DEFAULT_QUEUE_ADJUSTMENT_FACTOR = 3;
+    public static final double DEFAULT_SHARD_SERVICE_TIME_WEIGHT = 0.5;
+    public static final double DEFAULT_LOAD_WEIGHT = 1.0;
+
+    public static final AdaptiveSelectionRanking DEFAULT = new AdaptiveSelectionRanking(Mode.NODE, DEFAULT_QUEUE_ADJUSTMENT_FACTOR,
+        DEFAULT_SHARD_SERVICE_TIME_WEIGHT, DEFAULT_LOAD_WEIGHT);
+
+    private final Mode mode;
+    private final int queueAdjustmentFactor;
+    private final double shardServiceTimeWeight;
+    private final double loadWeight;
+
+    /**
+     * @param mode                   how copies are ranked
+     * @param queueAdjustmentFactor  the exponent of the estimated queue size, the C3 paper uses 3
+     * @param shardServiceTimeWeight the weight of the service time of the copy against the one of its node, between 0 and 1, only
+     *                               used by {@link Mode#SHARD}
+     * @param loadWeight             how much the CPU or GC load of a node inflates the service time of its copies, only used by
+     *                               {@link Mode#SHARD}
+     */
+    public AdaptiveSelectionRanking(Mode mode, int queueAdjustmentFactor, double shardServiceTimeWeight, double loadWeight) {
+        if (queueAdjustmentFactor < 1) {
+            throw new IllegalArgumentException("queue adjustment factor must be at least 1, got [" + queueAdjustmentFactor + "]");
+        }
+        if (shardServiceTimeWeight < 0 || shardServiceTimeWeight > 1) {
+            throw new IllegalArgumentException("shard service time weight must be between 0 and 1, got [" + shardServiceTimeWeight + "]");
+        }
+        if (loadWeight < 0) {
+            throw new IllegalArgumentException("load weight must not be negative, got [" + loadWeight + "]");
+        }
+        this.mode = mode;
+        this.queueAdjustmentFactor = queueAdjustmentFactor;
+        this.shardServiceTimeWeight = shardServiceTimeWeight;
+        this.loadWeight = loadWeight;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getQueueAdjustmentFactor() {
+        return queueAdjustmentFactor;
+    }
+
+    public double getShardServiceTimeWeight() {
+        return shardServiceTimeWeight;
+    }
+
+    public double getLoadWeight() {
+        return loadWeight;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveSelectionRanking[mode=" + mode + ", queue adjustment factor=" + queueAdjustmentFactor
+            + ", shard service time weight=" + shardServiceTimeWeight + ", load weight=" + loadWeight + "]";
+    }
+}
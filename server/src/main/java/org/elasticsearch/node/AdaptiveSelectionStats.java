@@ -19,6 +19,9 @@
 
 package org.elasticsearch.node;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.action.search.SearchHedgingStats;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -44,22 +47,39 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
 
     private final Map<String, Long> clientOutgoingConnections;
     private final Map<String, ResponseCollectorService.ComputedNodeStats> nodeComputedStats;
+    @Nullable
+    private final SearchHedgingStats hedgingStats;
 
     public AdaptiveSelectionStats(Map<String, Long> clientConnections,
                                   Map<String, ResponseCollectorService.ComputedNodeStats> nodeComputedStats) {
+        this(clientConnections, nodeComputedStats, null);
+    }
+
+    public AdaptiveSelectionStats(Map<String, Long> clientConnections,
+                                  Map<String, ResponseCollectorService.ComputedNodeStats> nodeComputedStats,
+                                  @Nullable SearchHedgingStats hedgingStats) {
         this.clientOutgoingConnections = clientConnections;
         this.nodeComputedStats = nodeComputedStats;
+        this.hedgingStats = hedgingStats;
     }
 
     public AdaptiveSelectionStats(StreamInput in) throws IOException {
         this.clientOutgoingConnections = in.readMap(StreamInput::readString, StreamInput::readLong);
         this.nodeComputedStats = in.readMap(StreamInput::readString, ResponseCollectorService.ComputedNodeStats::new);
+        if (in.getVersion().onOrAfter(Version.V_7_7_1)) {
+            this.hedgingStats = in.readOptionalWriteable(SearchHedgingStats::new);
+        } else {
+            this.hedgingStats = null;
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeMap(this.clientOutgoingConnections, StreamOutput::writeString, StreamOutput::writeLong);
         out.writeMap(this.nodeComputedStats, StreamOutput::writeString, (stream, stats) -> stats.writeTo(stream));
+        if (out.getVersion().onOrAfter(Version.V_7_7_1)) {
+            out.writeOptionalWriteable(hedgingStats);
+        }
     }
 
     @Override
@@ -81,11 +101,20 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
                     builder.field("avg_response_time", new TimeValue((long) stats.responseTime, TimeUnit.NANOSECONDS).toString());
                 }
                 builder.field("avg_response_time_ns", (long) stats.responseTime);
+                if (stats.cpuPercent >= 0) {
+                    builder.field("avg_cpu_percent", stats.cpuPercent);
+                }
+                if (stats.gcOverheadPercent >= 0) {
+                    builder.field("avg_gc_overhead_percent", stats.gcOverheadPercent);
+                }
                 builder.field("rank", String.format(Locale.ROOT, "%.1f", stats.rank(outgoingSearches)));
             }
             builder.endObject();
         }
         builder.endObject();
+        if (hedgingStats != null) {
+            hedgingStats.toXContent(builder, params);
+        }
         return builder;
     }
 
@@ -103,6 +132,14 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
         return nodeComputedStats;
     }
 
+    /**
+     * Returns the statistics about hedged search requests, or {@code null} if this node does not hedge search requests
+     */
+    @Nullable
+    public SearchHedgingStats getHedgingStats() {
+        return hedgingStats;
+    }
+
     /**
      * Returns a map of node id to the ranking of the nodes based on the adaptive replica formula
      */
@@ -19,27 +19,35 @@
 
 package org.elasticsearch.node;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.action.search.SearchHedgingStats;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterStateListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.concurrent.ConcurrentMap;
 
 /**
  * Collects statistics about queue size, response time, and service time of
  * tasks executed on each node, making the EWMA of the values available to the
- * coordinating node.
+ * coordinating node. It also collects the EWMA of the CPU and GC load of each
+ * node and of the service time of each shard copy, so that a node with a single
+ * hot shard is only avoided for that shard.
  */
 public final class ResponseCollectorService implements ClusterStateListener {
 
@@ -58,6 +66,13 @@ public final class ResponseCollectorService implements ClusterStateListener {
                 removeNode(removedNode.getId());
             }
         }
+        if (event.metaDataChanged() && nodeIdToStats.isEmpty() == false) {
+            for (Index deletedIndex : event.indicesDeleted()) {
+                for (NodeStatistics nodeStatistics : nodeIdToStats.values()) {
+                    nodeStatistics.shardServiceTime.keySet().removeIf(shardId -> shardId.getIndex().equals(deletedIndex));
+                }
+            }
+        }
     }
 
     void removeNode(String nodeId) {
@@ -79,6 +94,61 @@ public final class ResponseCollectorService implements ClusterStateListener {
         });
     }
 
+    /**
+     * Adds the CPU usage and GC overhead in percent that a node piggybacked on a response, values that are negative are unknown.
+     * Statistics are only recorded for nodes that have queue size, response time and service time statistics.
+     */
+    public void addNodeLoad(String nodeId, int cpuPercent, int gcOverheadPercent) {
+        nodeIdToStats.computeIfPresent(nodeId, (id, ns) -> {
+            if (cpuPercent >= 0) {
+                if (ns.cpuPercent == null) {
+                    ns.cpuPercent = new ExponentiallyWeightedMovingAverage(ALPHA, cpuPercent);
+                } else {
+                    ns.cpuPercent.addValue(cpuPercent);
+                }
+            }
+            if (gcOverheadPercent >= 0) {
+                if (ns.gcOverheadPercent == null) {
+                    ns.gcOverheadPercent = new ExponentiallyWeightedMovingAverage(ALPHA, gcOverheadPercent);
+                } else {
+                    ns.gcOverheadPercent.addValue(gcOverheadPercent);
+                }
+            }
+            return ns;
+        });
+    }
+
+    /**
+     * Adds the time it took the copy of the given shard on the given node to execute a request. Statistics are only recorded for nodes
+     * that have queue size, response time and service time statistics.
+     */
+    public void addShardStatistics(String nodeId, ShardId shardId, long serviceTimeNanos) {
+        final NodeStatistics nodeStatistics = nodeIdToStats.get(nodeId);
+        if (nodeStatistics != null) {
+            nodeStatistics.shardServiceTime.compute(shardId, (id, ewma) -> {
+                if (ewma == null) {
+                    return new ExponentiallyWeightedMovingAverage(ALPHA, serviceTimeNanos);
+                }
+                ewma.addValue(serviceTimeNanos);
+                return ewma;
+            });
+        }
+    }
+
+    /**
+     * Returns the EWMA of the service time of the copy of the given shard on the given node, if any was collected.
+     */
+    public OptionalDouble getShardServiceTime(String nodeId, ShardId shardId) {
+        final NodeStatistics nodeStatistics = nodeIdToStats.get(nodeId);
+        if (nodeStatistics != null) {
+            final ExponentiallyWeightedMovingAverage ewma = nodeStatistics.shardServiceTime.get(shardId);
+            if (ewma != null) {
+                return OptionalDouble.of(ewma.getAverage());
+            }
+        }
+        return OptionalDouble.empty();
+    }
+
     public Map<String, ComputedNodeStats> getAllNodeStatistics() {
         final int clientNum = nodeIdToStats.size();
         // Transform the mutable object internally used for accounting into the computed version
@@ -90,7 +160,12 @@ public final class ResponseCollectorService implements ClusterStateListener {
     }
 
     public AdaptiveSelectionStats getAdaptiveStats(Map<String, Long> clientSearchConnections) {
-        return new AdaptiveSelectionStats(clientSearchConnections, getAllNodeStatistics());
+        return getAdaptiveStats(clientSearchConnections, null);
+    }
+
+    public AdaptiveSelectionStats getAdaptiveStats(Map<String, Long> clientSearchConnections,
+                                                   @Nullable SearchHedgingStats hedgingStats) {
+        return new AdaptiveSelectionStats(clientSearchConnections, getAllNodeStatistics(), hedgingStats);
     }
 
     /**
@@ -106,7 +181,7 @@ public final class ResponseCollectorService implements ClusterStateListener {
     /**
      * Struct-like class encapsulating a point-in-time snapshot of a particular
      * node's statistics. This includes the EWMA of queue size, response time,
-     * and service time.
+     * service time, CPU usage and GC overhead.
      */
     public static class ComputedNodeStats implements Writeable {
         // We store timestamps with nanosecond precision, however, the
@@ -121,18 +196,35 @@ public final class ResponseCollectorService implements ClusterStateListener {
         public final int queueSize;
         public final double responseTime;
         public final double serviceTime;
+        /**
+         * The EWMA of the CPU usage of the node in percent, or -1 if unknown.
+         */
+        public final double cpuPercent;
+        /**
+         * The EWMA of the GC overhead of the node in percent, or -1 if unknown.
+         */
+        public final double gcOverheadPercent;
 
         public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime) {
+            this(nodeId, clientNum, queueSize, responseTime, serviceTime, -1, -1);
+        }
+
+        public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime,
+                                 double cpuPercent, double gcOverheadPercent) {
             this.nodeId = nodeId;
             this.clientNum = clientNum;
             this.queueSize = queueSize;
             this.responseTime = responseTime;
             this.serviceTime = serviceTime;
+            this.cpuPercent = cpuPercent;
+            this.gcOverheadPercent = gcOverheadPercent;
         }
 
         ComputedNodeStats(int clientNum, NodeStatistics nodeStats) {
             this(nodeStats.nodeId, clientNum,
-                    (int) nodeStats.queueSize.getAverage(), nodeStats.responseTime.getAverage(), nodeStats.serviceTime);
+                    (int) nodeStats.queueSize.getAverage(), nodeStats.responseTime.getAverage(), nodeStats.serviceTime,
+                    nodeStats.cpuPercent == null ? -1 : nodeStats.cpuPercent.getAverage(),
+                    nodeStats.gcOverheadPercent == null ? -1 : nodeStats.gcOverheadPercent.getAverage());
         }
 
         ComputedNodeStats(StreamInput in) throws IOException {
@@ -141,6 +233,13 @@ public final class ResponseCollectorService implements ClusterStateListener {
             this.queueSize = in.readInt();
             this.responseTime = in.readDouble();
             this.serviceTime = in.readDouble();
+            if (in.getVersion().onOrAfter(Version.V_7_7_1)) {
+                this.cpuPercent = in.readDouble();
+                this.gcOverheadPercent = in.readDouble();
+            } else {
+                this.cpuPercent = -1;
+                this.gcOverheadPercent = -1;
+            }
         }
 
         @Override
@@ -150,22 +249,22 @@ public final class ResponseCollectorService implements ClusterStateListener {
             out.writeInt(this.queueSize);
             out.writeDouble(this.responseTime);
             out.writeDouble(this.serviceTime);
+            if (out.getVersion().onOrAfter(Version.V_7_7_1)) {
+                out.writeDouble(this.cpuPercent);
+                out.writeDouble(this.gcOverheadPercent);
+            }
         }
 
         /**
          * Rank this copy of the data, according to the adaptive replica selection formula from the C3 paper
          * https://www.usenix.org/system/files/conference/nsdi15/nsdi15-paper-suresh.pdf
          */
-        private double innerRank(long outstandingRequests) {
+        private double innerRank(long outstandingRequests, int queueAdjustmentFactor) {
             // the concurrency compensation is defined as the number of
             // outstanding requests from the client to the node times the number
             // of clients in the system
             double concurrencyCompensation = outstandingRequests * clientNum;
 
-            // Cubic queue adjustment factor. The paper chose 3 though we could
-            // potentially make this configurable if desired.
-            int queueAdjustmentFactor = 3;
-
             // EWMA of queue size
             double qBar = queueSize;
             double qHatS = 1 + concurrencyCompensation + qBar;
@@ -182,11 +281,37 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
         public double rank(long outstandingRequests) {
             if (cachedRank == 0) {
-                cachedRank = innerRank(outstandingRequests);
+                cachedRank = innerRank(outstandingRequests, AdaptiveSelectionRanking.DEFAULT_QUEUE_ADJUSTMENT_FACTOR);
             }
             return cachedRank;
         }
 
+        /**
+         * Rank the copy of a shard on this node with the given ranking function.
+         *
+         * @param shardServiceTime the EWMA of the service time of the copy in nanoseconds, or a negative value if unknown
+         */
+        public double rank(AdaptiveSelectionRanking ranking, long outstandingRequests, double shardServiceTime) {
+            if (ranking.getMode() == AdaptiveSelectionRanking.Mode.NODE) {
+                return innerRank(outstandingRequests, ranking.getQueueAdjustmentFactor());
+            }
+            // the service time of the copy, blended with the one of the node since it is only updated by the requests for this shard
+            double sBar = serviceTime;
+            if (shardServiceTime >= 0) {
+                sBar = ranking.getShardServiceTimeWeight() * shardServiceTime + (1 - ranking.getShardServiceTimeWeight()) * serviceTime;
+            }
+            // a node that is busy with other work or collecting garbage serves requests slower than its past service time suggests
+            final double load = Math.max(cpuPercent, gcOverheadPercent);
+            if (load > 0) {
+                sBar *= 1 + ranking.getLoadWeight() * load / 100;
+            }
+            double qHatS = 1 + outstandingRequests * clientNum + queueSize;
+            double rS = responseTime / FACTOR;
+            // the paper's 1/mu is the mean service time
+            double oneOverMuBarS = sBar / FACTOR;
+            return rS - oneOverMuBarS + Math.pow(qHatS, ranking.getQueueAdjustmentFactor()) * oneOverMuBarS;
+        }
+
         @Override
         public String toString() {
             StringBuilder sb = new StringBuilder("ComputedNodeStats[");
@@ -195,6 +320,8 @@ public final class ResponseCollectorService implements ClusterStateListener {
             sb.append(", queue: ").append(queueSize);
             sb.append(", response time: ").append(String.format(Locale.ROOT, "%.1f", responseTime));
             sb.append(", service time: ").append(String.format(Locale.ROOT, "%.1f", serviceTime));
+            sb.append(", cpu: ").append(String.format(Locale.ROOT, "%.1f", cpuPercent));
+            sb.append(", gc overhead: ").append(String.format(Locale.ROOT, "%.1f", gcOverheadPercent));
             sb.append(", rank: ").append(String.format(Locale.ROOT, "%.1f", rank(1)));
             sb.append(")");
             return sb.toString();
@@ -203,14 +330,18 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
     /**
      * Class encapsulating a node's exponentially weighted queue size, response
-     * time, and service time, however, this class is private and intended only
-     * to be used for the internal accounting of {@code ResponseCollectorService}.
+     * time, service time, load and shard service times, however, this class is
+     * private and intended only to be used for the internal accounting of
+     * {@code ResponseCollectorService}.
      */
     private static class NodeStatistics {
         final String nodeId;
         final ExponentiallyWeightedMovingAverage queueSize;
         final ExponentiallyWeightedMovingAverage responseTime;
+        final ConcurrentMap<ShardId, ExponentiallyWeightedMovingAverage> shardServiceTime = ConcurrentCollections.newConcurrentMap();
         double serviceTime;
+        ExponentiallyWeightedMovingAverage cpuPercent;
+        ExponentiallyWeightedMovingAverage gcOverheadPercent;
 
         NodeStatistics(String nodeId,
                        ExponentiallyWeightedMovingAverage queueSizeEWMA,
@@ -94,6 +94,12 @@ public class FilterRepository implements Repository {
         in.deleteSnapshot(snapshotId, repositoryStateId, repositoryMetaVersion, listener);
     }
 
+    @Override
+    public void deleteSnapshot(SnapshotId snapshotId, long repositoryStateId, Version repositoryMetaVersion,
+                               SnapshotDeletionProgress progress, ActionListener<Void> listener) {
+        in.deleteSnapshot(snapshotId, repositoryStateId, repositoryMetaVersion, progress, listener);
+    }
+
     @Override
     public long getSnapshotThrottleTimeInNanos() {
         return in.getSnapshotThrottleTimeInNanos();
@@ -378,6 +378,13 @@ public class RepositoriesService extends AbstractLifecycleComponent implements C
         throw new RepositoryMissingException(repositoryName);
     }
 
+    /**
+     * Returns all repositories registered in the cluster state, keyed by name. Internal repositories are not included.
+     */
+    public Map<String, Repository> getRepositories() {
+        return Collections.unmodifiableMap(repositories);
+    }
+
     public void registerInternalRepository(String name, String type) {
         RepositoryMetaData metaData = new RepositoryMetaData(name, type, Settings.EMPTY);
         Repository repository = internalRepositories.computeIfAbsent(name, (n) -> {
@@ -157,6 +157,21 @@ public interface Repository extends LifecycleComponent {
      */
     void deleteSnapshot(SnapshotId snapshotId, long repositoryStateId, Version repositoryMetaVersion, ActionListener<Void> listener);
 
+    /**
+     * Deletes snapshot, reporting the progress of the deletion to the given {@link SnapshotDeletionProgress}. Repositories that do not
+     * track the progress of deletions simply delete the snapshot.
+     *
+     * @param snapshotId            snapshot id
+     * @param repositoryStateId     the unique id identifying the state of the repository when the snapshot deletion began
+     * @param repositoryMetaVersion version of the updated repository metadata to write
+     * @param progress              progress of the deletion
+     * @param listener              completion listener
+     */
+    default void deleteSnapshot(SnapshotId snapshotId, long repositoryStateId, Version repositoryMetaVersion,
+                                SnapshotDeletionProgress progress, ActionListener<Void> listener) {
+        deleteSnapshot(snapshotId, repositoryStateId, repositoryMetaVersion, listener);
+    }
+
     /**
      * Returns snapshot throttle time in nanoseconds
      */
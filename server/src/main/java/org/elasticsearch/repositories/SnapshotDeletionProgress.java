@@ -0,0 +1,118 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.repositories;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the progress of deleting a snapshot from a repository, see
+ * {@link Repository#deleteSnapshot(org.elasticsearch.snapshots.SnapshotId, long, org.elasticsearch.Version, SnapshotDeletionProgress,
+ * org.elasticsearch.action.ActionListener)}. Repositories update the progress concurrently from the threads that execute the deletion.
+ */
+public class SnapshotDeletionProgress {
+
+    private volatile String phase = "starting";
+    private final AtomicInteger totalShards = new AtomicInteger();
+    private final AtomicInteger processedShards = new AtomicInteger();
+    private final AtomicLong blobsToDelete = new AtomicLong();
+    private final AtomicLong deletedBlobs = new AtomicLong();
+
+    /**
+     * Set the current phase of the deletion.
+     */
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    /**
+     * Get the current phase of the deletion.
+     */
+    public String getPhase() {
+        return phase;
+    }
+
+    /**
+     * Adds shards whose metadata needs to be updated to remove the snapshot.
+     */
+    public void addShards(int shards) {
+        totalShards.addAndGet(shards);
+    }
+
+    /**
+     * Marks a shard as processed, whether its metadata was successfully updated or not.
+     */
+    public void shardProcessed() {
+        processedShards.incrementAndGet();
+    }
+
+    /**
+     * Adds blobs that are going to be deleted.
+     */
+    public void addBlobsToDelete(long blobs) {
+        blobsToDelete.addAndGet(blobs);
+    }
+
+    /**
+     * Records that the given number of blobs was deleted.
+     */
+    public void blobsDeleted(long blobs) {
+        deletedBlobs.addAndGet(blobs);
+    }
+
+    /**
+     * total number of shards whose metadata needs to be updated
+     */
+    public int getTotalShards() {
+        return totalShards.get();
+    }
+
+    /**
+     * number of shards whose metadata has been updated
+     */
+    public int getProcessedShards() {
+        return processedShards.get();
+    }
+
+    /**
+     * total number of blobs that are going to be deleted
+     */
+    public long getBlobsToDelete() {
+        return blobsToDelete.get();
+    }
+
+    /**
+     * number of blobs that have been deleted
+     */
+    public long getDeletedBlobs() {
+        return deletedBlobs.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotDeletionProgress{" +
+            "phase='" + phase + '\'' +
+            ", totalShards=" + totalShards +
+            ", processedShards=" + processedShards +
+            ", blobsToDelete=" + blobsToDelete +
+            ", deletedBlobs=" + deletedBlobs +
+            '}';
+    }
+}
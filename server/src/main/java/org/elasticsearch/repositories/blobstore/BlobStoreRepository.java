@@ -22,6 +22,7 @@ package org.elasticsearch.repositories.blobstore;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexFormatTooNewException;
@@ -59,13 +60,14 @@ import org.elasticsearch.common.blobstore.BlobMetaData;
 import org.elasticsearch.common.blobstore.BlobPath;
 import org.elasticsearch.common.blobstore.BlobStore;
 import org.elasticsearch.common.blobstore.DeleteResult;
-import org.elasticsearch.common.blobstore.fs.FsBlobContainer;
+import org.elasticsearch.common.blobstore.MultipartBlobContainer;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.compress.NotXContentException;
+import org.elasticsearch.common.hash.MessageDigests;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -77,6 +79,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.xcontent.LoggingDeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -107,6 +110,7 @@ import org.elasticsearch.repositories.RepositoryOperation;
 import org.elasticsearch.repositories.RepositoryVerificationException;
 import org.elasticsearch.snapshots.SnapshotCreationException;
 import org.elasticsearch.repositories.ShardGenerations;
+import org.elasticsearch.repositories.SnapshotDeletionProgress;
 import org.elasticsearch.snapshots.ConcurrentSnapshotExecutionException;
 import org.elasticsearch.snapshots.Snapshot;
 import org.elasticsearch.snapshots.SnapshotException;
@@ -117,13 +121,17 @@ import org.elasticsearch.snapshots.SnapshotShardFailure;
 import org.elasticsearch.snapshots.SnapshotsService;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.ByteArrayInputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -132,6 +140,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -162,6 +171,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
     private static final int BUFFER_SIZE = 4096;
 
+    /**
+     * The number of leading bytes of a file that are digested to compute the name of its shared data blob, which covers the codec
+     * header of all Lucene files, see {@link #sharedBlobKey}.
+     */
+    private static final int SHARED_BLOB_KEY_HEADER_BYTES = 1024;
+
+    // number of blobs that are deleted by a single task when deleting blobs in parallel, matching the maximum number of keys that a
+    // single bulk delete request to S3 accepts
+    static final int DELETE_BATCH_SIZE = 1000;
+
     public static final String SNAPSHOT_PREFIX = "snap-";
 
     public static final String SNAPSHOT_CODEC = "snapshot";
@@ -196,7 +215,19 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      * {@link BlobStoreIndexShardSnapshots}. This is the case for files for which {@link StoreFileMetaData#hashEqualsContents()} is
      * {@code true}.
      */
-    private static final String VIRTUAL_DATA_BLOB_PREFIX = "v__";
+    public static final String VIRTUAL_DATA_BLOB_PREFIX = "v__";
+
+    /**
+     * Prefix used for the identifiers of data blobs that are stored once per repository in the {@link #sharedBlobContainer()}, under a
+     * name that is derived from their contents, see {@link #DEDUPLICATE_BLOBS_SETTING}.
+     */
+    public static final String SHARED_DATA_BLOB_PREFIX = "c__";
+
+    /**
+     * Prefix of the empty blobs in the {@link #sharedBlobContainer()} that record which shards reference a shared data blob. They are
+     * named {@code r__${shared blob name}.${index id}.${shard id}}.
+     */
+    private static final String SHARED_BLOB_REFERENCE_PREFIX = "r__";
 
     /**
      * When set to true metadata files are stored in compressed format. This setting doesn’t affect index
@@ -219,10 +250,54 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     public static final Setting<Boolean> CACHE_REPOSITORY_DATA =
         Setting.boolSetting("cache_repository_data", true, Setting.Property.Deprecated);
 
+    /**
+     * When set to {@code true}, peer recoveries may fetch files from the snapshots in this repository instead of copying them from the
+     * recovery source, see {@link org.elasticsearch.indices.recovery.RecoverySettings#INDICES_RECOVERY_USE_SNAPSHOTS_SETTING}.
+     */
+    public static final Setting<Boolean> USE_FOR_PEER_RECOVERY_SETTING = Setting.boolSetting("use_for_peer_recovery", false);
+
+    /**
+     * When set to {@code true}, the data blobs of new shard snapshots are stored once per repository under a name derived from the
+     * length, checksum and codec header of the file, see {@link #sharedBlobKey}, so that identical files of different shards and indices
+     * are only uploaded once. The shards referencing a shared data blob are tracked by reference blobs, and the data blob is deleted
+     * together with its last reference.
+     *
+     * A snapshot writes the reference of a shard to a shared data blob before it checks whether the data blob exists, and a snapshot
+     * deletion removes references before it checks whether a shared data blob is still referenced. This only prevents deleting a data
+     * blob that a snapshot is about to reference because snapshots and snapshot deletions never run concurrently, see
+     * {@link org.elasticsearch.snapshots.SnapshotsService#deleteSnapshot}. Unreferenced shared data blobs are therefore kept if a
+     * snapshot of this repository is found to be running while they would be deleted.
+     */
+    public static final Setting<Boolean> DEDUPLICATE_BLOBS_SETTING = Setting.boolSetting("deduplicate_blobs", false);
+
+    /**
+     * The size of the parts in which blobs are uploaded concurrently to repositories whose blob containers support multipart uploads, see
+     * {@link MultipartBlobContainer}. Blobs that are not larger than one part are uploaded in one go.
+     */
+    public static final Setting<ByteSizeValue> UPLOAD_PART_SIZE_SETTING =
+        Setting.byteSizeSetting("upload_part_size", new ByteSizeValue(16, ByteSizeUnit.MB), new ByteSizeValue(1, ByteSizeUnit.KB),
+            new ByteSizeValue(Integer.MAX_VALUE, ByteSizeUnit.BYTES));
+
+    /**
+     * The maximum number of bytes of the parts that have been read but not uploaded yet by all concurrent multipart uploads to this
+     * repository, see {@link #UPLOAD_PART_SIZE_SETTING}. Setting this to {@code 0} disables concurrent multipart uploads.
+     */
+    public static final Setting<ByteSizeValue> MAX_UPLOAD_BYTES_IN_FLIGHT_SETTING =
+        Setting.byteSizeSetting("max_upload_bytes_in_flight", new ByteSizeValue(128, ByteSizeUnit.MB), new ByteSizeValue(0),
+            new ByteSizeValue(Integer.MAX_VALUE, ByteSizeUnit.BYTES));
+
     private final boolean compress;
 
     private final boolean cacheRepositoryData;
 
+    private final long uploadPartSize;
+
+    private final int maxUploadBytesInFlight;
+
+    private final Semaphore uploadBytesInFlight;
+
+    private final boolean deduplicateBlobs;
+
     private final RateLimiter snapshotRateLimiter;
 
     private final RateLimiter restoreRateLimiter;
@@ -298,6 +373,10 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         restoreRateLimiter = getRateLimiter(metadata.settings(), "max_restore_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB));
         readOnly = metadata.settings().getAsBoolean("readonly", false);
         cacheRepositoryData = CACHE_REPOSITORY_DATA.get(metadata.settings());
+        uploadPartSize = UPLOAD_PART_SIZE_SETTING.get(metadata.settings()).getBytes();
+        maxUploadBytesInFlight = Math.toIntExact(MAX_UPLOAD_BYTES_IN_FLIGHT_SETTING.get(metadata.settings()).getBytes());
+        uploadBytesInFlight = new Semaphore(maxUploadBytesInFlight);
+        deduplicateBlobs = DEDUPLICATE_BLOBS_SETTING.get(metadata.settings());
         indexShardSnapshotFormat = new ChecksumBlobStoreFormat<>(SNAPSHOT_CODEC, SNAPSHOT_NAME_FORMAT,
             BlobStoreIndexShardSnapshot::fromXContent, namedXContentRegistry, compress);
         indexShardSnapshotsFormat = new ChecksumBlobStoreFormat<>(SNAPSHOT_INDEX_CODEC, SNAPSHOT_INDEX_NAME_FORMAT,
@@ -428,7 +507,10 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      */
     public BlobStore blobStore() {
         assertSnapshotOrGenericThread();
+        return getOrCreateBlobStore();
+    }
 
+    private BlobStore getOrCreateBlobStore() {
         BlobStore store = blobStore.get();
         if (store == null) {
             synchronized (lock) {
@@ -503,6 +585,12 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
     public void deleteSnapshot(SnapshotId snapshotId, long repositoryStateId, Version repositoryMetaVersion,
                                ActionListener<Void> listener) {
+        deleteSnapshot(snapshotId, repositoryStateId, repositoryMetaVersion, new SnapshotDeletionProgress(), listener);
+    }
+
+    @Override
+    public void deleteSnapshot(SnapshotId snapshotId, long repositoryStateId, Version repositoryMetaVersion,
+                               SnapshotDeletionProgress progress, ActionListener<Void> listener) {
         if (isReadOnly()) {
             listener.onFailure(new RepositoryException(metadata.name(), "cannot delete snapshot from a readonly repository"));
         } else {
@@ -519,8 +607,13 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 // Cache the indices that were found before writing out the new index-N blob so that a stuck master will never
                 // delete an index that was created by another master node after writing this index-N blob.
                 final Map<String, BlobContainer> foundIndices = blobStore().blobContainer(indicesPath()).children();
-                doDeleteShardSnapshots(snapshotId, repositoryStateId, foundIndices, rootBlobs, repositoryData,
-                    SnapshotsService.useShardGenerations(repositoryMetaVersion), listener);
+                // Collect the shared data blobs referenced by the indices that are removed from the repository along with this snapshot
+                // before their shard folders are deleted by the stale indices cleanup.
+                final StepListener<Collection<ShardSnapshotMetaDeleteResult>> removedIndicesStep = new StepListener<>();
+                collectSharedBlobsOfRemovedIndices(snapshotId, repositoryData, removedIndicesStep);
+                removedIndicesStep.whenComplete(removedIndicesResults -> doDeleteShardSnapshots(snapshotId, repositoryStateId,
+                    foundIndices, rootBlobs, repositoryData, SnapshotsService.useShardGenerations(repositoryMetaVersion),
+                    removedIndicesResults, progress, listener), listener::onFailure);
             } catch (Exception ex) {
                 listener.onFailure(new RepositoryException(metadata.name(), "failed to delete snapshot [" + snapshotId + "]", ex));
             }
@@ -573,16 +666,21 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      * @param rootBlobs         All blobs found at the root of the repository before executing any writes to the repository during this
      *                          delete operation
      * @param repositoryData    RepositoryData found the in the repository before executing this delete
+     * @param removedIndices    The shards of the indices that are removed from the repository by this delete, with the shared data
+     *                          blobs that they reference
+     * @param progress          Progress of the deletion to update
      * @param listener          Listener to invoke once finished
      */
     private void doDeleteShardSnapshots(SnapshotId snapshotId, long repositoryStateId, Map<String, BlobContainer> foundIndices,
                                         Map<String, BlobMetaData> rootBlobs, RepositoryData repositoryData, boolean writeShardGens,
+                                        Collection<ShardSnapshotMetaDeleteResult> removedIndices, SnapshotDeletionProgress progress,
                                         ActionListener<Void> listener) {
 
         if (writeShardGens) {
             // First write the new shard state metadata (with the removed snapshot) and compute deletion targets
             final StepListener<Collection<ShardSnapshotMetaDeleteResult>> writeShardMetaDataAndComputeDeletesStep = new StepListener<>();
-            writeUpdatedShardMetaDataAndComputeDeletes(snapshotId, repositoryData, true, writeShardMetaDataAndComputeDeletesStep);
+            writeUpdatedShardMetaDataAndComputeDeletes(snapshotId, repositoryData, true, progress,
+                writeShardMetaDataAndComputeDeletesStep);
             // Once we have put the new shard-level metadata into place, we can update the repository metadata as follows:
             // 1. Remove the snapshot from the list of existing snapshots
             // 2. Update the index shard generations of all updated shard folders
@@ -597,6 +695,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     builder.put(newGen.indexId, newGen.shardId, newGen.newGeneration);
                 }
                 final RepositoryData updatedRepoData = repositoryData.removeSnapshot(snapshotId, builder.build());
+                progress.setPhase("writing_repository_data");
                 writeIndexGen(updatedRepoData, repositoryStateId, true,
                     ActionListener.wrap(v -> writeUpdatedRepoDataStep.onResponse(updatedRepoData), listener::onFailure));
             }, listener::onFailure);
@@ -606,20 +705,24 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 final ActionListener<Void> afterCleanupsListener =
                     new GroupedActionListener<>(ActionListener.wrap(() -> listener.onResponse(null)), 2);
                 asyncCleanupUnlinkedRootAndIndicesBlobs(foundIndices, rootBlobs, updatedRepoData, afterCleanupsListener);
-                asyncCleanupUnlinkedShardLevelBlobs(snapshotId, writeShardMetaDataAndComputeDeletesStep.result(), afterCleanupsListener);
+                asyncCleanupUnlinkedShardLevelBlobs(snapshotId, writeShardMetaDataAndComputeDeletesStep.result(), removedIndices,
+                    progress, afterCleanupsListener);
             }, listener::onFailure);
         } else {
             // Write the new repository data first (with the removed snapshot), using no shard generations
             final RepositoryData updatedRepoData = repositoryData.removeSnapshot(snapshotId, ShardGenerations.EMPTY);
+            progress.setPhase("writing_repository_data");
             writeIndexGen(updatedRepoData, repositoryStateId, false, ActionListener.wrap(v -> {
                 // Run unreferenced blobs cleanup in parallel to shard-level snapshot deletion
                 final ActionListener<Void> afterCleanupsListener =
                     new GroupedActionListener<>(ActionListener.wrap(() -> listener.onResponse(null)), 2);
                 asyncCleanupUnlinkedRootAndIndicesBlobs(foundIndices, rootBlobs, updatedRepoData, afterCleanupsListener);
                 final StepListener<Collection<ShardSnapshotMetaDeleteResult>> writeMetaAndComputeDeletesStep = new StepListener<>();
-                writeUpdatedShardMetaDataAndComputeDeletes(snapshotId, repositoryData, false, writeMetaAndComputeDeletesStep);
+                writeUpdatedShardMetaDataAndComputeDeletes(snapshotId, repositoryData, false, progress,
+                    writeMetaAndComputeDeletesStep);
                 writeMetaAndComputeDeletesStep.whenComplete(deleteResults ->
-                        asyncCleanupUnlinkedShardLevelBlobs(snapshotId, deleteResults, afterCleanupsListener),
+                        asyncCleanupUnlinkedShardLevelBlobs(snapshotId, deleteResults, removedIndices, progress,
+                            afterCleanupsListener),
                     afterCleanupsListener::onFailure);
             }, listener::onFailure));
         }
@@ -633,25 +736,160 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     }
 
     private void asyncCleanupUnlinkedShardLevelBlobs(SnapshotId snapshotId, Collection<ShardSnapshotMetaDeleteResult> deleteResults,
-                                                     ActionListener<Void> listener) {
-        threadPool.executor(ThreadPool.Names.SNAPSHOT).execute(ActionRunnable.wrap(
-            listener,
-            l -> {
+                                                     Collection<ShardSnapshotMetaDeleteResult> removedIndices,
+                                                     SnapshotDeletionProgress progress, ActionListener<Void> listener) {
+        progress.setPhase("deleting_blobs");
+        final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
+        final ActionListener<Void> loggingListener = ActionListener.delegateResponse(listener, (l, e) -> {
+            logger.warn(() -> new ParameterizedMessage("[{}] Failed to delete some blobs during snapshot delete", snapshotId), e);
+            l.onFailure(e);
+        });
+        // shared data blobs are only released once all shard level blobs are gone
+        final ActionListener<Void> afterDeletesListener = ActionListener.wrap(v -> executor.execute(ActionRunnable.run(loggingListener,
+            () -> releaseSharedBlobs(Stream.concat(deleteResults.stream(), removedIndices.stream()).collect(Collectors.toList())))),
+            loggingListener::onFailure);
+        executor.execute(ActionRunnable.wrap(afterDeletesListener,
+            l -> deleteBlobsInParallel(blobContainer(), executor, resolveFilesToDelete(snapshotId, deleteResults), progress, l)));
+    }
+
+    /**
+     * Deletes the given blobs from the given container in batches of {@link #DELETE_BATCH_SIZE} blobs that are deleted in parallel on the
+     * given executor. The listener is completed once all batches were processed, with the first failure if any batch failed to delete.
+     */
+    static void deleteBlobsInParallel(BlobContainer container, Executor executor, List<String> blobsToDelete,
+                                      SnapshotDeletionProgress progress, ActionListener<Void> listener) {
+        if (blobsToDelete.isEmpty()) {
+            listener.onResponse(null);
+            return;
+        }
+        progress.addBlobsToDelete(blobsToDelete.size());
+        final int batches = (blobsToDelete.size() + DELETE_BATCH_SIZE - 1) / DELETE_BATCH_SIZE;
+        final ActionListener<Void> batchListener = new GroupedActionListener<>(ActionListener.map(listener, ignored -> null), batches);
+        for (int from = 0; from < blobsToDelete.size(); from += DELETE_BATCH_SIZE) {
+            final List<String> batch = blobsToDelete.subList(from, Math.min(blobsToDelete.size(), from + DELETE_BATCH_SIZE));
+            executor.execute(ActionRunnable.run(batchListener, () -> {
+                container.deleteBlobsIgnoringIfNotExists(batch);
+                progress.blobsDeleted(batch.size());
+            }));
+        }
+    }
+
+    /**
+     * Reads the shard level metadata of the indices that are only referenced by the given snapshot and will therefore be removed from the
+     * repository when the snapshot is deleted, and collects the shared data blobs that the shards of these indices reference. Does nothing
+     * unless {@link #DEDUPLICATE_BLOBS_SETTING} is enabled. Shards whose metadata cannot be read are skipped, leaking the shared data
+     * blobs that they reference until the next repository cleanup.
+     */
+    private void collectSharedBlobsOfRemovedIndices(SnapshotId snapshotId, RepositoryData repositoryData,
+                                                    ActionListener<Collection<ShardSnapshotMetaDeleteResult>> listener) {
+        final List<IndexId> removedIndices = deduplicateBlobs == false ? Collections.emptyList() :
+            repositoryData.getIndices().values().stream()
+                .filter(indexId -> repositoryData.getSnapshots(indexId).equals(Collections.singleton(snapshotId)))
+                .collect(Collectors.toList());
+        if (removedIndices.isEmpty()) {
+            listener.onResponse(Collections.emptyList());
+            return;
+        }
+        final ActionListener<Collection<ShardSnapshotMetaDeleteResult>> groupedListener = new GroupedActionListener<>(
+            ActionListener.map(listener, res -> res.stream().flatMap(Collection::stream).collect(Collectors.toList())),
+            removedIndices.size());
+        final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
+        for (IndexId indexId : removedIndices) {
+            executor.execute(ActionRunnable.supply(groupedListener, () -> {
+                final List<ShardSnapshotMetaDeleteResult> results = new ArrayList<>();
+                final IndexMetaData indexMetaData;
                 try {
-                    blobContainer().deleteBlobsIgnoringIfNotExists(resolveFilesToDelete(snapshotId, deleteResults));
-                    l.onResponse(null);
+                    indexMetaData = getSnapshotIndexMetaData(snapshotId, indexId);
                 } catch (Exception e) {
-                    logger.warn(
-                        () -> new ParameterizedMessage("[{}] Failed to delete some blobs during snapshot delete", snapshotId),
-                        e);
-                    throw e;
+                    logger.warn(() -> new ParameterizedMessage("[{}] [{}] failed to read metadata for index, shared data blobs " +
+                        "referenced by its shards will be removed by the next repository cleanup", snapshotId, indexId.getName()), e);
+                    return results;
                 }
+                for (int shardId = 0; shardId < indexMetaData.getNumberOfShards(); shardId++) {
+                    final ShardId shard = new ShardId(indexMetaData.getIndex(), shardId);
+                    try {
+                        final BlobContainer shardContainer = shardContainer(indexId, shard);
+                        final Set<String> blobs = getShardBlobs(shard, shardContainer);
+                        final String shardGen = repositoryData.shardGenerations().getShardGen(indexId, shardId);
+                        final BlobStoreIndexShardSnapshots snapshots = shardGen == null
+                            ? buildBlobStoreIndexShardSnapshots(blobs, shardContainer).v1()
+                            : buildBlobStoreIndexShardSnapshots(blobs, shardContainer, shardGen).v1();
+                        results.add(new ShardSnapshotMetaDeleteResult(indexId, shardId, ShardGenerations.DELETED_SHARD_GEN,
+                            Collections.emptyList(), sharedBlobNames(snapshots)));
+                    } catch (Exception e) {
+                        logger.warn(() -> new ParameterizedMessage("[{}] failed to read shard data for shard [{}][{}], shared data " +
+                            "blobs referenced by it will be removed by the next repository cleanup", snapshotId, indexId.getName(),
+                            shard.id()), e);
+                    }
+                }
+                return results;
             }));
+        }
+    }
+
+    /**
+     * Removes the references of the given shards to the shared data blobs that they do not use any more and deletes those shared data
+     * blobs that are not referenced by any other shard afterwards. A reference is always written before the existence of a shared data
+     * blob is checked during a snapshot, which together with snapshots never running concurrently to deletions ensures that a shared data
+     * blob is never deleted while a shard still uses it, see {@link #DEDUPLICATE_BLOBS_SETTING}.
+     */
+    private void releaseSharedBlobs(Collection<ShardSnapshotMetaDeleteResult> deleteResults) throws IOException {
+        final List<String> references = new ArrayList<>();
+        final Set<String> releasedBlobs = new HashSet<>();
+        for (ShardSnapshotMetaDeleteResult deleteResult : deleteResults) {
+            for (String name : deleteResult.sharedBlobsToRelease) {
+                references.add(sharedBlobReferenceName(name, deleteResult.indexId, deleteResult.shardId));
+                releasedBlobs.add(name);
+            }
+        }
+        if (references.isEmpty()) {
+            return;
+        }
+        final BlobContainer sharedContainer = sharedBlobContainer();
+        sharedContainer.deleteBlobsIgnoringIfNotExists(references);
+        final List<String> unreferencedBlobs = new ArrayList<>();
+        for (String name : releasedBlobs) {
+            if (sharedContainer.listBlobsByPrefix(SHARED_BLOB_REFERENCE_PREFIX + name + ".").isEmpty()) {
+                // the data blob itself as well as all its parts
+                unreferencedBlobs.addAll(sharedContainer.listBlobsByPrefix(name).keySet());
+            }
+        }
+        if (unreferencedBlobs.isEmpty() == false && isSnapshotRunning()) {
+            assert false : "a snapshot of repository [" + metadata.name() + "] is running concurrently to a deletion";
+            // a running snapshot may have found one of these blobs to exist just before its reference was deleted
+            logger.warn("[{}] not deleting [{}] unreferenced shared data blobs because a snapshot is running",
+                metadata.name(), unreferencedBlobs.size());
+            return;
+        }
+        logger.debug("[{}] released [{}] references to shared data blobs, deleting [{}] unreferenced shared data blobs",
+            metadata.name(), references.size(), unreferencedBlobs.size());
+        sharedContainer.deleteBlobsIgnoringIfNotExists(unreferencedBlobs);
+    }
+
+    private boolean isSnapshotRunning() {
+        final SnapshotsInProgress snapshotsInProgress = clusterService.state().custom(SnapshotsInProgress.TYPE);
+        return snapshotsInProgress != null
+            && snapshotsInProgress.entries().stream().anyMatch(entry -> entry.repository().equals(metadata.name()));
+    }
+
+    // the names of the shared data blobs that are referenced by the given shard snapshots
+    private static Set<String> sharedBlobNames(Iterable<SnapshotFiles> snapshots) {
+        final Set<String> names = new HashSet<>();
+        for (SnapshotFiles snapshotFiles : snapshots) {
+            for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : snapshotFiles.indexFiles()) {
+                if (fileInfo.name().startsWith(SHARED_DATA_BLOB_PREFIX)) {
+                    names.add(fileInfo.name());
+                }
+            }
+        }
+        return names;
     }
 
     // updates the shard state metadata for shards of a snapshot that is to be deleted. Also computes the files to be cleaned up.
     private void writeUpdatedShardMetaDataAndComputeDeletes(SnapshotId snapshotId, RepositoryData oldRepositoryData,
-            boolean useUUIDs, ActionListener<Collection<ShardSnapshotMetaDeleteResult>> onAllShardsCompleted) {
+            boolean useUUIDs, SnapshotDeletionProgress progress,
+            ActionListener<Collection<ShardSnapshotMetaDeleteResult>> onAllShardsCompleted) {
+        progress.setPhase("updating_shard_metadata");
 
         final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
         final List<IndexId> indices = oldRepositoryData.indicesToUpdateAfterRemovingSnapshot(snapshotId);
@@ -685,9 +923,10 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 }
                 final int shardCount = indexMetaData.getNumberOfShards();
                 assert shardCount > 0 : "index did not have positive shard count, get [" + shardCount + "]";
+                progress.addShards(shardCount);
                 // Listener for collecting the results of removing the snapshot from each shard's metadata in the current index
-                final ActionListener<ShardSnapshotMetaDeleteResult> allShardsListener =
-                    new GroupedActionListener<>(deleteIdxMetaListener, shardCount);
+                final ActionListener<ShardSnapshotMetaDeleteResult> allShardsListener = ActionListener.runBefore(
+                    new GroupedActionListener<>(deleteIdxMetaListener, shardCount), progress::shardProcessed);
                 final Index index = indexMetaData.getIndex();
                 for (int shardId = 0; shardId < indexMetaData.getNumberOfShards(); shardId++) {
                     final ShardId shard = new ShardId(index, shardId);
@@ -756,13 +995,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      */
     private void cleanupStaleBlobs(Map<String, BlobContainer> foundIndices, Map<String, BlobMetaData> rootBlobs,
                                    RepositoryData newRepoData, ActionListener<DeleteResult> listener) {
+        final Set<String> survivingIndexIds = newRepoData.getIndices().values().stream().map(IndexId::getId).collect(Collectors.toSet());
+        final List<Map.Entry<String, BlobContainer>> staleIndices = foundIndices.entrySet().stream()
+            .filter(indexEntry -> survivingIndexIds.contains(indexEntry.getKey()) == false).collect(Collectors.toList());
         final GroupedActionListener<DeleteResult> groupedListener = new GroupedActionListener<>(ActionListener.wrap(deleteResults -> {
             DeleteResult deleteResult = DeleteResult.ZERO;
             for (DeleteResult result : deleteResults) {
                 deleteResult = deleteResult.add(result);
             }
             listener.onResponse(deleteResult);
-        }, listener::onFailure), 2);
+        }, listener::onFailure), 1 + staleIndices.size());
 
         final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
         executor.execute(ActionRunnable.supply(groupedListener, () -> {
@@ -770,8 +1012,10 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             return new DeleteResult(deletedBlobs.size(), deletedBlobs.stream().mapToLong(name -> rootBlobs.get(name).length()).sum());
         }));
 
-        final Set<String> survivingIndexIds = newRepoData.getIndices().values().stream().map(IndexId::getId).collect(Collectors.toSet());
-        executor.execute(ActionRunnable.supply(groupedListener, () -> cleanupStaleIndices(foundIndices, survivingIndexIds)));
+        // stale indices are deleted in parallel as deleting an index folder requires listing and deleting all the blobs in it
+        for (Map.Entry<String, BlobContainer> staleIndex : staleIndices) {
+            executor.execute(ActionRunnable.supply(groupedListener, () -> cleanupStaleIndex(staleIndex.getKey(), staleIndex.getValue())));
+        }
     }
 
     /**
@@ -779,8 +1023,10 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      * repository.
      * TODO: Add shard level cleanups
      * <ul>
-     *     <li>Deleting stale indices {@link #cleanupStaleIndices}</li>
+     *     <li>Deleting stale indices {@link #cleanupStaleIndex}</li>
      *     <li>Deleting unreferenced root level blobs {@link #cleanupStaleRootFiles}</li>
+     *     <li>Deleting references of stale indices to shared data blobs and unreferenced shared data blobs
+     *     {@link #staleSharedBlobs}</li>
      * </ul>
      * @param repositoryStateId     Current repository state id
      * @param repositoryMetaVersion version of the updated repository metadata to write
@@ -797,27 +1043,78 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             final Set<String> survivingIndexIds =
                 repositoryData.getIndices().values().stream().map(IndexId::getId).collect(Collectors.toSet());
             final List<String> staleRootBlobs = staleRootBlobs(repositoryData, rootBlobs.keySet());
-            if (survivingIndexIds.equals(foundIndices.keySet()) && staleRootBlobs.isEmpty()) {
+            final Map<String, BlobMetaData> staleSharedBlobs =
+                deduplicateBlobs ? staleSharedBlobs(survivingIndexIds) : Collections.emptyMap();
+            if (survivingIndexIds.equals(foundIndices.keySet()) && staleRootBlobs.isEmpty() && staleSharedBlobs.isEmpty()) {
                 // Nothing to clean up we return
                 listener.onResponse(new RepositoryCleanupResult(DeleteResult.ZERO));
             } else {
                 // write new index-N blob to ensure concurrent operations will fail
                 writeIndexGen(repositoryData, repositoryStateId, SnapshotsService.useShardGenerations(repositoryMetaVersion),
                     ActionListener.wrap(v -> cleanupStaleBlobs(foundIndices, rootBlobs, repositoryData,
-                        ActionListener.map(listener, RepositoryCleanupResult::new)), listener::onFailure));
+                        ActionListener.map(listener, deleteResult ->
+                            new RepositoryCleanupResult(deleteResult.add(cleanupStaleSharedBlobs(staleSharedBlobs))))),
+                        listener::onFailure));
             }
         } catch (Exception e) {
             listener.onFailure(e);
         }
     }
 
+    /**
+     * Finds the references to shared data blobs that belong to indices which are not part of the repository any more, as well as the
+     * shared data blobs that are not referenced by any surviving index.
+     */
+    private Map<String, BlobMetaData> staleSharedBlobs(Set<String> survivingIndexIds) throws IOException {
+        final Map<String, BlobMetaData> sharedBlobs = sharedBlobContainer().listBlobs();
+        final Set<String> referencedBlobs = new HashSet<>();
+        final Map<String, BlobMetaData> staleBlobs = new HashMap<>();
+        for (Map.Entry<String, BlobMetaData> blob : sharedBlobs.entrySet()) {
+            final String name = blob.getKey();
+            if (name.startsWith(SHARED_BLOB_REFERENCE_PREFIX)) {
+                // r__${shared blob name}.${index id}.${shard id}
+                final int shardSeparator = name.lastIndexOf('.');
+                final int indexSeparator = shardSeparator > 0 ? name.lastIndexOf('.', shardSeparator - 1) : -1;
+                if (indexSeparator > 0 && survivingIndexIds.contains(name.substring(indexSeparator + 1, shardSeparator))) {
+                    referencedBlobs.add(name.substring(SHARED_BLOB_REFERENCE_PREFIX.length(), indexSeparator));
+                } else {
+                    staleBlobs.put(name, blob.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, BlobMetaData> blob : sharedBlobs.entrySet()) {
+            final String name = blob.getKey();
+            if (BlobContainer.isTempBlobName(name)
+                || (name.startsWith(SHARED_DATA_BLOB_PREFIX) && referencedBlobs.contains(canonicalName(name)) == false)) {
+                staleBlobs.put(name, blob.getValue());
+            }
+        }
+        return staleBlobs;
+    }
+
+    private DeleteResult cleanupStaleSharedBlobs(Map<String, BlobMetaData> staleBlobs) {
+        if (staleBlobs.isEmpty()) {
+            return DeleteResult.ZERO;
+        }
+        try {
+            logger.debug("[{}] Found [{}] stale shared blobs. Cleaning them up", metadata.name(), staleBlobs.size());
+            sharedBlobContainer().deleteBlobsIgnoringIfNotExists(new ArrayList<>(staleBlobs.keySet()));
+            return new DeleteResult(staleBlobs.size(), staleBlobs.values().stream().mapToLong(BlobMetaData::length).sum());
+        } catch (IOException e) {
+            logger.warn(() -> new ParameterizedMessage(
+                "[{}] The following shared blobs are no longer referenced by any snapshot [{}] but failed to remove them",
+                metadata.name(), staleBlobs.keySet()), e);
+        }
+        return DeleteResult.ZERO;
+    }
+
     // Finds all blobs directly under the repository root path that are not referenced by the current RepositoryData
     private List<String> staleRootBlobs(RepositoryData repositoryData, Set<String> rootBlobNames) {
         final Set<String> allSnapshotIds =
             repositoryData.getSnapshotIds().stream().map(SnapshotId::getUUID).collect(Collectors.toSet());
         return rootBlobNames.stream().filter(
             blob -> {
-                if (FsBlobContainer.isTempBlobName(blob)) {
+                if (BlobContainer.isTempBlobName(blob)) {
                     return true;
                 }
                 if (blob.endsWith(".dat")) {
@@ -863,23 +1160,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return Collections.emptyList();
     }
 
-    private DeleteResult cleanupStaleIndices(Map<String, BlobContainer> foundIndices, Set<String> survivingIndexIds) {
+    private DeleteResult cleanupStaleIndex(String indexSnId, BlobContainer indexContainer) {
         DeleteResult deleteResult = DeleteResult.ZERO;
         try {
-            for (Map.Entry<String, BlobContainer> indexEntry : foundIndices.entrySet()) {
-                final String indexSnId = indexEntry.getKey();
-                try {
-                    if (survivingIndexIds.contains(indexSnId) == false) {
-                        logger.debug("[{}] Found stale index [{}]. Cleaning it up", metadata.name(), indexSnId);
-                        deleteResult = deleteResult.add(indexEntry.getValue().delete());
-                        logger.debug("[{}] Cleaned up stale index [{}]", metadata.name(), indexSnId);
-                    }
-                } catch (IOException e) {
-                    logger.warn(() -> new ParameterizedMessage(
-                        "[{}] index {} is no longer part of any snapshots in the repository, " +
-                            "but failed to clean up their index folders", metadata.name(), indexSnId), e);
-                }
-            }
+            logger.debug("[{}] Found stale index [{}]. Cleaning it up", metadata.name(), indexSnId);
+            deleteResult = indexContainer.delete();
+            logger.debug("[{}] Cleaned up stale index [{}]", metadata.name(), indexSnId);
+        } catch (IOException e) {
+            logger.warn(() -> new ParameterizedMessage(
+                "[{}] index {} is no longer part of any snapshots in the repository, " +
+                    "but failed to clean up their index folders", metadata.name(), indexSnId), e);
         } catch (Exception e) {
             // TODO: We shouldn't be blanket catching and suppressing all exceptions here and instead handle them safely upstream.
             //       Currently this catch exists as a stop gap solution to tackle unexpected runtime exceptions from implementations
@@ -1016,6 +1306,30 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return blobStore().blobContainer(indicesPath().add(indexId.getId()).add(Integer.toString(shardId)));
     }
 
+    /**
+     * The container of the blobs of the given file of a shard snapshot, for reading the files of lazily restored shards. These reads
+     * happen on whichever thread accesses the shard, searches included, so unlike {@link #shardContainer(IndexId, int)} this method does
+     * not assert the calling thread.
+     */
+    private BlobContainer lazyRestoreContainer(IndexId indexId, ShardId shardId, @Nullable BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+        final BlobStore store = getOrCreateBlobStore();
+        if (fileInfo != null && fileInfo.name().startsWith(SHARED_DATA_BLOB_PREFIX)) {
+            return store.blobContainer(basePath().add("shared"));
+        }
+        return store.blobContainer(indicesPath().add(indexId.getId()).add(Integer.toString(shardId.getId())));
+    }
+
+    /**
+     * The container of the data blobs that are shared across shards and indices, see {@link #DEDUPLICATE_BLOBS_SETTING}.
+     */
+    private BlobContainer sharedBlobContainer() {
+        return blobStore().blobContainer(basePath().add("shared"));
+    }
+
+    private static String sharedBlobReferenceName(String sharedBlobName, IndexId indexId, int shardId) {
+        return SHARED_BLOB_REFERENCE_PREFIX + sharedBlobName + "." + indexId.getId() + "." + shardId;
+    }
+
     /**
      * Configures RateLimiter based on repository and global settings
      *
@@ -1667,6 +1981,9 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             snapshotStatus.moveToStarted(startTime, indexIncrementalFileCount,
                 indexTotalNumberOfFiles, indexIncrementalSize, indexTotalFileSize);
 
+            // the files that were uploaded as shared data blobs, by the name of the file info they replace
+            final Map<String, BlobStoreIndexShardSnapshot.FileInfo> sharedFileInfos = ConcurrentCollections.newConcurrentMap();
+
             final StepListener<Collection<Void>> allFilesUploadedListener = new StepListener<>();
             allFilesUploadedListener.whenComplete(v -> {
                 final IndexShardSnapshotStatus.Copy lastSnapshotStatus =
@@ -1675,7 +1992,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 // now create and write the commit point
                 final BlobStoreIndexShardSnapshot snapshot = new BlobStoreIndexShardSnapshot(snapshotId.getName(),
                     lastSnapshotStatus.getIndexVersion(),
-                    indexCommitPointFiles,
+                    sharedFileInfos.isEmpty() ? indexCommitPointFiles : indexCommitPointFiles.stream()
+                        .map(fileInfo -> sharedFileInfos.getOrDefault(fileInfo.name(), fileInfo)).collect(Collectors.toList()),
                     lastSnapshotStatus.getStartTime(),
                     threadPool.absoluteTimeInMillis() - lastSnapshotStatus.getStartTime(),
                     lastSnapshotStatus.getIncrementalFileCount(),
@@ -1742,7 +2060,11 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         store.incRef();
                         try {
                             do {
-                                snapshotFile(snapshotFileInfo, indexId, shardId, snapshotId, snapshotStatus, store);
+                                final BlobStoreIndexShardSnapshot.FileInfo uploadedFileInfo =
+                                    snapshotFile(snapshotFileInfo, indexId, shardId, snapshotId, snapshotStatus, store);
+                                if (uploadedFileInfo != snapshotFileInfo) {
+                                    sharedFileInfos.put(snapshotFileInfo.name(), uploadedFileInfo);
+                                }
                                 snapshotFileInfo = filesToSnapshot.poll(0L, TimeUnit.MILLISECONDS);
                             } while (snapshotFileInfo != null);
                         } finally {
@@ -1817,12 +2139,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                             indexOutput.writeBytes(hash.bytes, hash.offset, hash.length);
                             recoveryState.getIndex().addRecoveredBytesToFile(fileInfo.physicalName(), hash.length);
                         } else {
-                            try (InputStream stream = maybeRateLimit(new SlicedInputStream(fileInfo.numberOfParts()) {
-                                @Override
-                                protected InputStream openSlice(long slice) throws IOException {
-                                    return container.readBlob(fileInfo.partName(slice));
-                                }
-                            }, restoreRateLimiter, restoreRateLimitingTimeInNanos)) {
+                            try (InputStream stream = readShardFile(container, fileInfo)) {
                                 final byte[] buffer = new byte[BUFFER_SIZE];
                                 int length;
                                 while ((length = stream.read(buffer)) > 0) {
@@ -1852,6 +2169,127 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }));
     }
 
+    /**
+     * Opens a stream over the contents of the given file of a shard snapshot, reading its parts in order and applying the restore rate
+     * limit of this repository. The stream is not verified, so callers must check the file's checksum themselves.
+     *
+     * @param indexId         index id of the snapshotted index
+     * @param snapshotShardId shard id of the snapshotted shard
+     * @param fileInfo        the file to read
+     */
+    public InputStream readShardFile(IndexId indexId, ShardId snapshotShardId, BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+        assertSnapshotOrGenericThread();
+        if (fileInfo.name().startsWith(VIRTUAL_DATA_BLOB_PREFIX)) {
+            final BytesRef hash = fileInfo.metadata().hash();
+            return new ByteArrayInputStream(hash.bytes, hash.offset, hash.length);
+        }
+        return readShardFile(shardContainer(indexId, snapshotShardId), fileInfo);
+    }
+
+    /**
+     * Opens a stream over {@code length} bytes of the given file of a shard snapshot, starting at {@code position}. Only the parts of the
+     * file that overlap with the requested range are read, using ranged reads of the underlying blobs, and the restore rate limit of this
+     * repository applies. Since the checksum of the file cannot be computed from a part of it, the stream is only verified as far as
+     * {@link #verifyPartialRead} allows. Unlike {@link #readShardFile(IndexId, ShardId, BlobStoreIndexShardSnapshot.FileInfo)} this method
+     * may be called from any thread, since it is used to read files of shards that are restored lazily.
+     *
+     * @param indexId         index id of the snapshotted index
+     * @param snapshotShardId shard id of the snapshotted shard
+     * @param fileInfo        the file to read
+     * @param position        the position in the file to start reading from
+     * @param length          the number of bytes to read
+     */
+    public InputStream readShardFile(IndexId indexId, ShardId snapshotShardId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                     long position, long length) {
+        if (position < 0L || length < 0L || position + length > fileInfo.length()) {
+            throw new IllegalArgumentException("invalid range [position=" + position + ", length=" + length + "] for file ["
+                + fileInfo.physicalName() + "] of length [" + fileInfo.length() + "]");
+        }
+        if (fileInfo.name().startsWith(VIRTUAL_DATA_BLOB_PREFIX)) {
+            final BytesRef hash = fileInfo.metadata().hash();
+            return new ByteArrayInputStream(hash.bytes, hash.offset + Math.toIntExact(position), Math.toIntExact(length));
+        }
+        if (length == 0L) {
+            return new ByteArrayInputStream(BytesRef.EMPTY_BYTES);
+        }
+        final BlobContainer container = lazyRestoreContainer(indexId, snapshotShardId, fileInfo);
+        final long partBytes = fileInfo.numberOfParts() == 1 ? fileInfo.length() : fileInfo.partBytes(0);
+        final long firstPart = position / partBytes;
+        final long lastPart = (position + length - 1) / partBytes;
+        return verifyPartialRead(maybeRateLimit(new SlicedInputStream(lastPart - firstPart + 1) {
+            @Override
+            protected InputStream openSlice(long slice) throws IOException {
+                final long part = firstPart + slice;
+                final long partStart = part * partBytes;
+                final long start = Math.max(position, partStart);
+                final long end = Math.min(position + length, partStart + fileInfo.partBytes(Math.toIntExact(part)));
+                return container.readBlob(fileInfo.partName(part), start - partStart, end - start);
+            }
+        }, restoreRateLimiter, restoreRateLimitingTimeInNanos), fileInfo, position, length);
+    }
+
+    /**
+     * Hook to verify the bytes of a partial read of a file of a shard snapshot, see
+     * {@link #readShardFile(IndexId, ShardId, BlobStoreIndexShardSnapshot.FileInfo, long, long)}. The default implementation checks that
+     * the checksum stored in the footer of the file matches the expected checksum of the file if the range covers the footer, and fails
+     * the read with a {@link CorruptIndexException} otherwise. Repositories whose blob store provides checksums of ranges can override it
+     * to verify more.
+     *
+     * @param inputStream the stream over the requested range of the file
+     * @param fileInfo    the file that is read
+     * @param position    the position in the file that the stream starts at
+     * @param length      the number of bytes of the stream
+     * @return the stream to read the range from
+     */
+    protected InputStream verifyPartialRead(InputStream inputStream, BlobStoreIndexShardSnapshot.FileInfo fileInfo, long position,
+                                            long length) {
+        final long checksumPosition = fileInfo.length() - Long.BYTES;
+        if (fileInfo.checksum() == null || fileInfo.length() < CodecUtil.footerLength()
+            || position > checksumPosition || position + length < fileInfo.length()) {
+            return inputStream;
+        }
+        return new FooterChecksumVerifyingInputStream(inputStream, fileInfo, checksumPosition - position);
+    }
+
+    /**
+     * Loads the metadata of the given snapshot of a shard, listing the files of the shard snapshot. Like
+     * {@link #readShardFile(IndexId, ShardId, BlobStoreIndexShardSnapshot.FileInfo, long, long)} this method may be called from any
+     * thread.
+     *
+     * @param indexId    index id of the snapshotted index
+     * @param shardId    shard id of the snapshotted shard
+     * @param snapshotId snapshot id
+     */
+    public BlobStoreIndexShardSnapshot loadShardSnapshot(IndexId indexId, ShardId shardId, SnapshotId snapshotId) {
+        return loadShardSnapshot(lazyRestoreContainer(indexId, shardId, null), snapshotId);
+    }
+
+    private InputStream readShardFile(BlobContainer shardContainer, BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+        final BlobContainer container = fileInfo.name().startsWith(SHARED_DATA_BLOB_PREFIX) ? sharedBlobContainer() : shardContainer;
+        return maybeRateLimit(new SlicedInputStream(fileInfo.numberOfParts()) {
+            @Override
+            protected InputStream openSlice(long slice) throws IOException {
+                return container.readBlob(fileInfo.partName(slice));
+            }
+        }, restoreRateLimiter, restoreRateLimitingTimeInNanos);
+    }
+
+    /**
+     * Loads all snapshots of the given shard that are tracked by the shard level {@code index-N} blob of the given generation.
+     *
+     * @param indexId  index id of the snapshotted index
+     * @param shardId  shard id of the snapshotted shard
+     * @param shardGen shard generation or {@code null} in case there was no shard generation tracked in the {@link RepositoryData} for
+     *                 this shard, in which case the latest generation is determined by listing the shard directory
+     */
+    public BlobStoreIndexShardSnapshots getBlobStoreIndexShardSnapshots(IndexId indexId, int shardId,
+                                                                        @Nullable String shardGen) throws IOException {
+        assertSnapshotOrGenericThread();
+        final BlobContainer shardContainer = shardContainer(indexId, shardId);
+        final Set<String> blobs = shardGen == null ? shardContainer.listBlobsByPrefix(INDEX_FILE_PREFIX).keySet() : Collections.emptySet();
+        return buildBlobStoreIndexShardSnapshots(blobs, shardContainer, shardGen).v1();
+    }
+
     private static ActionListener<Void> fileQueueListener(BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> files, int workers,
                                                           ActionListener<Collection<Void>> listener) {
         return ActionListener.delegateResponse(new GroupedActionListener<>(listener, workers), (l, e) -> {
@@ -1934,14 +2372,17 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             }
         }
         try {
+            final Set<String> sharedBlobsToRelease = sharedBlobNames(snapshots);
             if (newSnapshotsList.isEmpty()) {
-                return new ShardSnapshotMetaDeleteResult(indexId, snapshotShardId.id(), ShardGenerations.DELETED_SHARD_GEN, blobs);
+                return new ShardSnapshotMetaDeleteResult(indexId, snapshotShardId.id(), ShardGenerations.DELETED_SHARD_GEN, blobs,
+                    sharedBlobsToRelease);
             } else {
                 final BlobStoreIndexShardSnapshots updatedSnapshots = new BlobStoreIndexShardSnapshots(newSnapshotsList);
                 writeShardIndexBlob(shardContainer, indexGeneration, updatedSnapshots);
                 final Set<String> survivingSnapshotUUIDs = survivingSnapshots.stream().map(SnapshotId::getUUID).collect(Collectors.toSet());
+                sharedBlobsToRelease.removeAll(sharedBlobNames(updatedSnapshots));
                 return new ShardSnapshotMetaDeleteResult(indexId, snapshotShardId.id(), indexGeneration,
-                    unusedBlobs(blobs, survivingSnapshotUUIDs, updatedSnapshots));
+                    unusedBlobs(blobs, survivingSnapshotUUIDs, updatedSnapshots), sharedBlobsToRelease);
             }
         } catch (IOException e) {
             throw new IndexShardSnapshotFailedException(snapshotShardId,
@@ -1977,7 +2418,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     && survivingSnapshotUUIDs.contains(
                         blob.substring(SNAPSHOT_PREFIX.length(), blob.length() - ".dat".length())) == false)
                 || (blob.startsWith(UPLOADED_DATA_BLOB_PREFIX) && updatedSnapshots.findNameFile(canonicalName(blob)) == null)
-                || FsBlobContainer.isTempBlobName(blob)).collect(Collectors.toList());
+                || BlobContainer.isTempBlobName(blob)).collect(Collectors.toList());
     }
 
     /**
@@ -2040,10 +2481,102 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     /**
      * Snapshot individual file
      * @param fileInfo file to be snapshotted
+     * @return the file info to reference in the shard snapshot, which differs from the given one if the file is stored as a shared data
+     *         blob, see {@link #DEDUPLICATE_BLOBS_SETTING}
      */
-    private void snapshotFile(BlobStoreIndexShardSnapshot.FileInfo fileInfo, IndexId indexId, ShardId shardId, SnapshotId snapshotId,
-                              IndexShardSnapshotStatus snapshotStatus, Store store) throws IOException {
-        final BlobContainer shardContainer = shardContainer(indexId, shardId);
+    private BlobStoreIndexShardSnapshot.FileInfo snapshotFile(BlobStoreIndexShardSnapshot.FileInfo fileInfo, IndexId indexId,
+                                                              ShardId shardId, SnapshotId snapshotId,
+                                                              IndexShardSnapshotStatus snapshotStatus, Store store) throws IOException {
+        if (deduplicateBlobs == false) {
+            uploadFile(fileInfo, shardContainer(indexId, shardId), false, shardId, snapshotId, snapshotStatus, store);
+            return fileInfo;
+        }
+        final BlobStoreIndexShardSnapshot.FileInfo sharedFileInfo;
+        try {
+            sharedFileInfo = new BlobStoreIndexShardSnapshot.FileInfo(
+                SHARED_DATA_BLOB_PREFIX + sharedBlobKey(fileInfo, store), fileInfo.metadata(), chunkSize());
+        } catch (Exception e) {
+            failStoreIfCorrupted(store, e);
+            snapshotStatus.addProcessedFile(0);
+            throw e;
+        }
+        final BlobContainer sharedContainer = sharedBlobContainer();
+        // the reference is written before checking for the data blob so that a shared data blob is never without a reference
+        sharedContainer.writeBlob(sharedBlobReferenceName(sharedFileInfo.name(), indexId, shardId.id()),
+            new ByteArrayInputStream(BytesRef.EMPTY_BYTES), 0, false);
+        if (sharedBlobExists(sharedContainer, sharedFileInfo)) {
+            logger.trace("[{}] [{}] reusing shared blob [{}] for file [{}]", shardId, snapshotId, sharedFileInfo.name(),
+                fileInfo.physicalName());
+            snapshotStatus.addDeduplicatedFile(fileInfo.length());
+        } else {
+            uploadFile(sharedFileInfo, sharedContainer, true, shardId, snapshotId, snapshotStatus, store);
+        }
+        return sharedFileInfo;
+    }
+
+    /**
+     * Computes the name of the shared data blob of the given file from its length, its checksum and the SHA-256 digest of its codec
+     * header and footer. Lucene writes a random identifier of the segment or commit, the codec and the file suffix into the header of
+     * each file, so that files with the same header, length and checksum have the same contents, and only a few bytes of the file need
+     * to be read here. The contents are read and verified once, when they are uploaded. Files without a codec header are digested
+     * completely.
+     */
+    private static String sharedBlobKey(BlobStoreIndexShardSnapshot.FileInfo fileInfo, Store store) throws IOException {
+        final MessageDigest digest = MessageDigests.sha256();
+        try (IndexInput indexInput = store.directory().openInput(fileInfo.physicalName(), IOContext.READONCE)) {
+            final long length = indexInput.length();
+            if (length != fileInfo.length()) {
+                throw new CorruptIndexException("expected length [" + fileInfo.length() + "] but was [" + length + "]", indexInput);
+            }
+            final long footerStart = length - CodecUtil.footerLength();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            if (footerStart > 0 && indexInput.readInt() == CodecUtil.CODEC_MAGIC) {
+                indexInput.seek(0);
+                digest(indexInput, Math.min(SHARED_BLOB_KEY_HEADER_BYTES, footerStart), buffer, digest);
+                indexInput.seek(footerStart);
+                digest(indexInput, CodecUtil.footerLength(), buffer, digest);
+            } else {
+                indexInput.seek(0);
+                digest(indexInput, length, buffer, digest);
+            }
+        }
+        return fileInfo.length() + "-" + fileInfo.checksum() + "-" + MessageDigests.toHexString(digest.digest());
+    }
+
+    private static void digest(IndexInput indexInput, long bytes, byte[] buffer, MessageDigest digest) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            final int length = Math.toIntExact(Math.min(buffer.length, remaining));
+            indexInput.readBytes(buffer, 0, length);
+            digest.update(buffer, 0, length);
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Checks whether all parts of the given shared data blob exist with their expected lengths, i.e. the blob was completely written by
+     * an earlier snapshot.
+     */
+    private static boolean sharedBlobExists(BlobContainer sharedContainer, BlobStoreIndexShardSnapshot.FileInfo sharedFileInfo)
+        throws IOException {
+        final Map<String, BlobMetaData> blobs = sharedContainer.listBlobsByPrefix(sharedFileInfo.name());
+        for (int i = 0; i < sharedFileInfo.numberOfParts(); i++) {
+            final BlobMetaData blob = blobs.get(sharedFileInfo.partName(i));
+            if (blob == null || blob.length() != sharedFileInfo.partBytes(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Uploads the parts of the given file to the given container.
+     *
+     * @param shared whether the file is written to the shared container, in which case a leftover of an earlier incomplete upload may
+     *               be overwritten, and the parts are written atomically since other shards may reference them as soon as they exist
+     */
+    private void uploadFile(BlobStoreIndexShardSnapshot.FileInfo fileInfo, BlobContainer container, boolean shared, ShardId shardId,
+                            SnapshotId snapshotId, IndexShardSnapshotStatus snapshotStatus, Store store) throws IOException {
         final String file = fileInfo.physicalName();
         try (IndexInput indexInput = store.openVerifyingInput(file, IOContext.READONCE, fileInfo.metadata())) {
             for (int i = 0; i < fileInfo.numberOfParts(); i++) {
@@ -2072,7 +2605,18 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         }
                     }
                 };
-                shardContainer.writeBlob(fileInfo.partName(i), inputStream, partBytes, true);
+                final int uploadPartSize = container instanceof MultipartBlobContainer
+                    ? ConcurrentMultipartUpload.partSize((MultipartBlobContainer) container, partBytes, this.uploadPartSize,
+                        maxUploadBytesInFlight)
+                    : -1;
+                if (uploadPartSize > 0) {
+                    ConcurrentMultipartUpload.upload((MultipartBlobContainer) container, fileInfo.partName(i), inputStream, partBytes,
+                        shared == false, uploadPartSize, threadPool.executor(ThreadPool.Names.SNAPSHOT), uploadBytesInFlight);
+                } else if (shared) {
+                    container.writeBlobAtomic(fileInfo.partName(i), inputStream, partBytes, false);
+                } else {
+                    container.writeBlob(fileInfo.partName(i), inputStream, partBytes, true);
+                }
             }
             Store.verify(indexInput);
             snapshotStatus.addProcessedFile(fileInfo.length());
@@ -2094,6 +2638,78 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
     }
 
+    /**
+     * Collects the checksum stored in the last bytes of a file while they are read and compares it with the expected checksum of the file
+     * once they were all read.
+     */
+    private static final class FooterChecksumVerifyingInputStream extends FilterInputStream {
+
+        private final BlobStoreIndexShardSnapshot.FileInfo fileInfo;
+        private final byte[] footerChecksum = new byte[Long.BYTES];
+        // reused by single byte reads
+        private final byte[] singleByte = new byte[1];
+        // the number of bytes of the stream that are read before the checksum starts, can become negative once the checksum is read
+        private long bytesBeforeChecksum;
+        private boolean verified;
+
+        FooterChecksumVerifyingInputStream(InputStream in, BlobStoreIndexShardSnapshot.FileInfo fileInfo, long bytesBeforeChecksum) {
+            super(in);
+            this.fileInfo = fileInfo;
+            this.bytesBeforeChecksum = bytesBeforeChecksum;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                singleByte[0] = (byte) b;
+                onBytesRead(singleByte, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                onBytesRead(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // the checksum must be read to be verified
+            final long skipped = super.skip(Math.max(0L, Math.min(n, bytesBeforeChecksum)));
+            bytesBeforeChecksum -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void onBytesRead(byte[] bytes, int offset, int length) throws IOException {
+            final long start = Math.max(0L, bytesBeforeChecksum);
+            final long checksumBytesRead = Math.max(0L, -bytesBeforeChecksum);
+            if (start < length && checksumBytesRead < footerChecksum.length) {
+                final int checksumOffset = Math.toIntExact(checksumBytesRead);
+                final int toCopy = Math.min(length - Math.toIntExact(start), footerChecksum.length - checksumOffset);
+                System.arraycopy(bytes, offset + Math.toIntExact(start), footerChecksum, checksumOffset, toCopy);
+                if (checksumOffset + toCopy == footerChecksum.length && verified == false) {
+                    verified = true;
+                    final String checksum = Store.digestToString(Numbers.bytesToLong(new BytesRef(footerChecksum)));
+                    if (checksum.equals(fileInfo.checksum()) == false) {
+                        throw new CorruptIndexException("checksum in footer [" + checksum + "] does not match expected checksum ["
+                            + fileInfo.checksum() + "] of file [" + fileInfo.physicalName() + "]", fileInfo.name());
+                    }
+                }
+            }
+            bytesBeforeChecksum -= length;
+        }
+    }
+
     /**
      * The result of removing a snapshot from a shard folder in the repository.
      */
@@ -2111,11 +2727,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         // Blob names in the shard directory that have become unreferenced in the new shard generation
         private final Collection<String> blobsToDelete;
 
-        ShardSnapshotMetaDeleteResult(IndexId indexId, int shardId, String newGeneration, Collection<String> blobsToDelete) {
+        // Names of the shared data blobs that are not referenced by the shard any more, see DEDUPLICATE_BLOBS_SETTING
+        private final Collection<String> sharedBlobsToRelease;
+
+        ShardSnapshotMetaDeleteResult(IndexId indexId, int shardId, String newGeneration, Collection<String> blobsToDelete,
+                                      Collection<String> sharedBlobsToRelease) {
             this.indexId = indexId;
             this.shardId = shardId;
             this.newGeneration = newGeneration;
             this.blobsToDelete = blobsToDelete;
+            this.sharedBlobsToRelease = sharedBlobsToRelease;
         }
     }
 }
@@ -0,0 +1,204 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.blobstore.MultipartBlobContainer;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.io.Streams;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes a blob to a {@link MultipartBlobContainer} by reading it sequentially on the calling thread and writing its parts concurrently
+ * on an executor. The parts that have been read but not written yet are accounted for in a semaphore of bytes which can be shared by
+ * several uploads to bound their memory usage. Whenever the calling thread has to wait, it writes the parts that the executor has not
+ * picked up yet itself, so that an upload never waits for tasks that are queued behind it on the same executor.
+ */
+final class ConcurrentMultipartUpload {
+
+    private final MultipartBlobContainer.MultipartUpload upload;
+    private final Executor executor;
+    private final Semaphore bytesInFlight;
+    private final Queue<Part> pendingParts = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private volatile boolean cancelled;
+    private int outstandingParts; // guarded by this
+
+    private ConcurrentMultipartUpload(MultipartBlobContainer.MultipartUpload upload, Executor executor, Semaphore bytesInFlight) {
+        this.upload = upload;
+        this.executor = executor;
+        this.bytesInFlight = bytesInFlight;
+    }
+
+    /**
+     * @return the size of the parts to write a blob of the given size in, or {@code -1} if the blob should rather be written in one go,
+     *         either because it would consist of a single part or because a single part would exceed the given in-flight bytes budget
+     */
+    static int partSize(MultipartBlobContainer container, long blobSize, long preferredPartSize, int maxBytesInFlight) {
+        final int maxParts = container.maximumNumberOfParts();
+        final long partSize = Math.max(Math.max(preferredPartSize, container.minimumPartSize()), (blobSize + maxParts - 1) / maxParts);
+        if (partSize >= blobSize || partSize > maxBytesInFlight) {
+            return -1;
+        }
+        return Math.toIntExact(partSize);
+    }
+
+    /**
+     * Writes the blob with the given name from the given input stream in parts of the given size, see {@link #partSize}. The bytes of
+     * the parts are acquired from the given semaphore before they are read and released once they are written.
+     */
+    static void upload(MultipartBlobContainer container, String blobName, InputStream inputStream, long blobSize,
+                       boolean failIfAlreadyExists, int partSize, Executor executor, Semaphore bytesInFlight) throws IOException {
+        assert partSize > 0 && partSize < blobSize : "invalid part size [" + partSize + "] for blob size [" + blobSize + "]";
+        final MultipartBlobContainer.MultipartUpload upload = container.startMultipartUpload(blobName, blobSize, failIfAlreadyExists);
+        new ConcurrentMultipartUpload(upload, executor, bytesInFlight).run(inputStream, blobSize, partSize);
+    }
+
+    private void run(InputStream inputStream, long blobSize, int partSize) throws IOException {
+        try {
+            int partNumber = 0;
+            for (long offset = 0; offset < blobSize; offset += partSize) {
+                final int length = Math.toIntExact(Math.min(partSize, blobSize - offset));
+                acquireBytes(length);
+                final byte[] bytes;
+                try {
+                    bytes = new byte[length];
+                    final int read = Streams.readFully(inputStream, bytes);
+                    if (read != length) {
+                        throw new EOFException("expected [" + length + "] bytes at offset [" + offset + "] but got [" + read + "]");
+                    }
+                } catch (Exception e) {
+                    bytesInFlight.release(length);
+                    throw e;
+                }
+                synchronized (this) {
+                    outstandingParts++;
+                }
+                pendingParts.add(new Part(++partNumber, offset, bytes));
+                try {
+                    executor.execute(this::writePendingPart);
+                } catch (RejectedExecutionException e) {
+                    // the part is written by this thread instead
+                }
+            }
+            while (writePendingPart()) {
+                // write the parts that have not been picked up by the executor yet
+            }
+            awaitOutstandingParts();
+            throwIfFailed();
+            upload.complete();
+        } catch (Exception e) {
+            cancelled = true;
+            while (writePendingPart()) {
+                // skips the parts but releases their bytes
+            }
+            try {
+                awaitOutstandingParts();
+                upload.abort();
+            } catch (Exception inner) {
+                e.addSuppressed(inner);
+            }
+            throw e;
+        }
+    }
+
+    private void acquireBytes(int length) throws IOException {
+        while (bytesInFlight.tryAcquire(length) == false) {
+            throwIfFailed();
+            if (writePendingPart() == false) {
+                // all parts of this upload are being written already, wait for them or for other uploads to release bytes
+                try {
+                    if (bytesInFlight.tryAcquire(length, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting to read the next part");
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the next pending part, if any.
+     *
+     * @return whether there was a pending part
+     */
+    private boolean writePendingPart() {
+        final Part part = pendingParts.poll();
+        if (part == null) {
+            return false;
+        }
+        try {
+            if (cancelled == false && failure.get() == null) {
+                upload.writePart(part.number, part.offset, new BytesArray(part.bytes));
+            }
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            bytesInFlight.release(part.bytes.length);
+            synchronized (this) {
+                if (--outstandingParts == 0) {
+                    notifyAll();
+                }
+            }
+        }
+        return true;
+    }
+
+    private synchronized void awaitOutstandingParts() throws InterruptedIOException {
+        while (outstandingParts > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for parts to be written");
+            }
+        }
+    }
+
+    private void throwIfFailed() throws IOException {
+        final Exception e = failure.get();
+        if (e != null) {
+            throw new IOException("failed to write part", e);
+        }
+    }
+
+    private static final class Part {
+        private final int number;
+        private final long offset;
+        private final byte[] bytes;
+
+        Part(int number, long offset, byte[] bytes) {
+            this.number = number;
+            this.offset = offset;
+            this.bytes = bytes;
+        }
+    }
+}
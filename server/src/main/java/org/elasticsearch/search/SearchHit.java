@@ -548,6 +548,7 @@ public final class SearchHit implements Writeable, ToXContentObject, Iterable<Do
         static final String _SCORE = "_score";
         static final String FIELDS = "fields";
         static final String HIGHLIGHT = "highlight";
+        static final String HIGHLIGHT_TRUNCATED = "highlight_truncated";
         static final String SORT = "sort";
         static final String MATCHED_QUERIES = "matched_queries";
         static final String _EXPLANATION = "_explanation";
@@ -641,6 +642,16 @@ public final class SearchHit implements Writeable, ToXContentObject, Iterable<Do
                 field.toXContent(builder, params);
             }
             builder.endObject();
+            // the fragments of a field are an array, so the fields that weren't fully highlighted are listed next to them
+            List<String> truncatedFields = new ArrayList<>();
+            for (HighlightField field : highlightFields.values()) {
+                if (field.isTruncated()) {
+                    truncatedFields.add(field.name());
+                }
+            }
+            if (truncatedFields.isEmpty() == false) {
+                builder.field(Fields.HIGHLIGHT_TRUNCATED, truncatedFields);
+            }
         }
         sortValues.toXContent(builder, params);
         if (matchedQueries.length > 0) {
@@ -703,6 +714,8 @@ public final class SearchHit implements Writeable, ToXContentObject, Iterable<Do
                 new ParseField(SourceFieldMapper.NAME));
         parser.declareObject((map, value) -> map.put(Fields.HIGHLIGHT, value), (p, c) -> parseHighlightFields(p),
                 new ParseField(Fields.HIGHLIGHT));
+        parser.declareStringArray((map, list) -> map.put(Fields.HIGHLIGHT_TRUNCATED, list),
+                new ParseField(Fields.HIGHLIGHT_TRUNCATED));
         parser.declareObject((map, value) -> {
             Map<String, DocumentField> fieldMap = get(Fields.FIELDS, map, new HashMap<String, DocumentField>());
             fieldMap.putAll(value);
@@ -751,7 +764,17 @@ public final class SearchHit implements Writeable, ToXContentObject, Iterable<Do
         searchHit.setSeqNo(get(Fields._SEQ_NO, values, SequenceNumbers.UNASSIGNED_SEQ_NO));
         searchHit.setPrimaryTerm(get(Fields._PRIMARY_TERM, values, SequenceNumbers.UNASSIGNED_PRIMARY_TERM));
         searchHit.sortValues(get(Fields.SORT, values, SearchSortValues.EMPTY));
-        searchHit.highlightFields(get(Fields.HIGHLIGHT, values, null));
+        Map<String, HighlightField> highlightFields = get(Fields.HIGHLIGHT, values, null);
+        List<String> truncatedHighlightFields = get(Fields.HIGHLIGHT_TRUNCATED, values, Collections.emptyList());
+        if (highlightFields != null) {
+            for (String name : truncatedHighlightFields) {
+                HighlightField field = highlightFields.get(name);
+                if (field != null) {
+                    highlightFields.put(name, new HighlightField(name, field.fragments(), true));
+                }
+            }
+        }
+        searchHit.highlightFields(highlightFields);
         searchHit.sourceRef(get(SourceFieldMapper.NAME, values, null));
         searchHit.explanation(get(Fields._EXPLANATION, values, null));
         searchHit.setInnerHits(get(Fields.INNER_HITS, values, null));
@@ -0,0 +1,123 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search;
+
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.util.concurrent.LaneRunnable;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The lanes of the queue of the {@code search} thread pool, see
+ * {@link org.elasticsearch.common.util.concurrent.MultiLaneBlockingQueue}. Each shard level search request is queued in the lane that
+ * it was explicitly assigned, see {@link org.elasticsearch.action.search.SearchRequest#lane(SearchLane)}, or else in the lane that is
+ * derived from the request, so that expensive requests do not starve cheap ones.
+ */
+public enum SearchLane implements Writeable {
+    /**
+     * Cheap requests that a user is waiting for, like top hits lookups.
+     */
+    INTERACTIVE(8),
+    /**
+     * Requests that are expected to be expensive, like requests with aggregations.
+     */
+    BATCH(2),
+    /**
+     * Requests whose results are not awaited, like asynchronous searches.
+     */
+    ASYNC(1),
+    /**
+     * Requests that page through the results of a scroll.
+     */
+    SCROLL(2);
+
+    private final int defaultWeight;
+
+    SearchLane(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * The weight of the lane unless it is configured with {@code thread_pool.search.lanes.<lane>.weight}.
+     */
+    public int defaultWeight() {
+        return defaultWeight;
+    }
+
+    public String laneName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static SearchLane fromString(String lane) {
+        for (SearchLane searchLane : values()) {
+            if (searchLane.laneName().equals(lane)) {
+                return searchLane;
+            }
+        }
+        throw new IllegalArgumentException("unknown search lane [" + lane + "], expected one of " + Arrays.toString(values()));
+    }
+
+    /**
+     * Returns the lane of the given shard level request: scroll requests always go to the {@link #SCROLL} lane, other requests go to the
+     * lane they were assigned or else to the {@link #BATCH} lane if they have aggregations and to the {@link #INTERACTIVE} lane
+     * otherwise.
+     */
+    public static SearchLane of(ShardSearchRequest request) {
+        if (request.scroll() != null) {
+            return SCROLL;
+        }
+        if (request.lane() != null) {
+            return request.lane();
+        }
+        return of(request.source());
+    }
+
+    private static SearchLane of(@Nullable SearchSourceBuilder source) {
+        if (source != null && source.aggregations() != null && source.aggregations().count() > 0) {
+            return BATCH;
+        }
+        return INTERACTIVE;
+    }
+
+    /**
+     * Wraps the given runnable so that it is queued in this lane.
+     *
+     * @param action the action the runnable runs on behalf of, see {@link org.elasticsearch.common.util.concurrent.ActionAwareRunnable}
+     */
+    public Runnable wrap(@Nullable String action, Runnable runnable) {
+        return new LaneRunnable(ordinal(), action, runnable);
+    }
+
+    public static SearchLane readFrom(StreamInput in) throws IOException {
+        return in.readEnum(SearchLane.class);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeEnum(this);
+    }
+}
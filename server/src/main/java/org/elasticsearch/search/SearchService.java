@@ -34,6 +34,7 @@ import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
@@ -322,7 +323,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             @Override
             public void onResponse(ShardSearchRequest rewritten) {
                 // fork the execution in the search thread pool
-                runAsync(shard, () -> executeDfsPhase(request, task), listener);
+                runAsync(shard, request, task, () -> executeDfsPhase(request, task), listener);
             }
 
             @Override
@@ -392,7 +393,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                     }
                 }
                 // fork the execution in the search thread pool
-                runAsync(shard, () -> executeQueryPhase(orig, task), listener);
+                runAsync(shard, orig, task, () -> executeQueryPhase(orig, task), listener);
             }
 
             @Override
@@ -402,10 +403,11 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         });
     }
 
-    private <T> void runAsync(IndexShard shard, CheckedSupplier<T, Exception> command, ActionListener<T> listener) {
+    private <T> void runAsync(IndexShard shard, ShardSearchRequest request, SearchShardTask task,
+                              CheckedSupplier<T, Exception> command, ActionListener<T> listener) {
         Executor executor = getExecutor(shard);
         try {
-            executor.execute(() -> {
+            executor.execute(SearchLane.of(request).wrap(actionOf(task), () -> {
                 T result;
                 try {
                     result = command.get();
@@ -414,14 +416,24 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                     return;
                 }
                 listener.onResponse(result);
-            });
+            }));
         } catch (Exception exc) {
             listener.onFailure(exc);
         }
     }
 
-    private <T> void runAsync(SearchContextId contextId, Supplier<T> executable, ActionListener<T> listener) {
-        getExecutor(contextId).execute(ActionRunnable.supply(listener, executable::get));
+    private <T> void runAsync(SearchContextId contextId, SearchShardTask task, Supplier<T> executable, ActionListener<T> listener) {
+        final SearchContext context = getContext(contextId);
+        if (context == null) {
+            throw new SearchContextMissingException(contextId);
+        }
+        // subsequent phases are queued in the lane of the request that created the context
+        getExecutor(context.indexShard()).execute(
+            SearchLane.of(context.request()).wrap(actionOf(task), ActionRunnable.supply(listener, executable::get)));
+    }
+
+    private static String actionOf(@Nullable SearchShardTask task) {
+        return task == null ? null : task.getAction();
     }
 
     private SearchPhaseResult executeQueryPhase(ShardSearchRequest request, SearchShardTask task) throws Exception {
@@ -474,7 +486,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     public void executeQueryPhase(InternalScrollSearchRequest request,
                                   SearchShardTask task,
                                   ActionListener<ScrollQuerySearchResult> listener) {
-        runAsync(request.contextId(), () -> {
+        runAsync(request.contextId(), task, () -> {
             final SearchContext context = findContext(request.contextId(), request);
             context.incRef();
             try (SearchOperationListenerExecutor executor = new SearchOperationListenerExecutor(context)) {
@@ -496,7 +508,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     }
 
     public void executeQueryPhase(QuerySearchRequest request, SearchShardTask task, ActionListener<QuerySearchResult> listener) {
-        runAsync(request.contextId(), () -> {
+        runAsync(request.contextId(), task, () -> {
             final SearchContext context = findContext(request.contextId(), request);
             context.setTask(task);
             context.incRef();
@@ -548,7 +560,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     public void executeFetchPhase(InternalScrollSearchRequest request, SearchShardTask task,
                                   ActionListener<ScrollQueryFetchSearchResult> listener) {
-        runAsync(request.contextId(), () -> {
+        runAsync(request.contextId(), task, () -> {
             final SearchContext context = findContext(request.contextId(), request);
             context.setTask(task);
             context.incRef();
@@ -570,7 +582,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     }
 
     public void executeFetchPhase(ShardFetchRequest request, SearchShardTask task, ActionListener<FetchSearchResult> listener) {
-        runAsync(request.contextId(), () -> {
+        runAsync(request.contextId(), task, () -> {
             final SearchContext context = findContext(request.contextId(), request);
             context.incRef();
             try {
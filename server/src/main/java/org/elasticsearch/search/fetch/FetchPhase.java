@@ -21,8 +21,11 @@ package org.elasticsearch.search.fetch;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
@@ -30,13 +33,21 @@ import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.BitSet;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.CheckedBiConsumer;
+import org.elasticsearch.common.CheckedConsumer;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
@@ -54,13 +65,18 @@ import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.fetch.subphase.FetchSourcePhase;
 import org.elasticsearch.search.fetch.subphase.InnerHitsContext;
 import org.elasticsearch.search.fetch.subphase.InnerHitsPhase;
+import org.elasticsearch.search.internal.FilteredSearchContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.lookup.SourceLookup;
 import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -68,6 +84,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 
 /**
@@ -77,6 +99,11 @@ import java.util.Set;
 public class FetchPhase implements SearchPhase {
     private static final Logger LOGGER = LogManager.getLogger(FetchPhase.class);
 
+    /**
+     * The minimum number of hits that a thread fetches when the hits of a request are fetched in parallel.
+     */
+    static final int MIN_HITS_PER_FETCH_CHUNK = 64;
+
     private final FetchSubPhase[] fetchSubPhases;
 
     public FetchPhase(List<FetchSubPhase> fetchSubPhases) {
@@ -95,7 +122,7 @@ public class FetchPhase implements SearchPhase {
             LOGGER.trace("{}", new SearchContextSourcePrinter(context));
         }
 
-        final FieldsVisitor fieldsVisitor;
+        final Supplier<FieldsVisitor> fieldsVisitorSupplier;
         Map<String, Set<String>> storedToRequestedFields = new HashMap<>();
         StoredFieldsContext storedFieldsContext = context.storedFieldsContext();
 
@@ -104,10 +131,11 @@ public class FetchPhase implements SearchPhase {
             if (!context.hasScriptFields() && !context.hasFetchSourceContext()) {
                 context.fetchSourceContext(new FetchSourceContext(true));
             }
-            fieldsVisitor = new FieldsVisitor(context.sourceRequested());
+            final boolean loadSource = context.sourceRequested();
+            fieldsVisitorSupplier = () -> new FieldsVisitor(loadSource);
         } else if (storedFieldsContext.fetchFields() == false) {
             // disable stored fields entirely
-            fieldsVisitor = null;
+            fieldsVisitorSupplier = () -> null;
         } else {
             for (String fieldNameOrPattern : context.storedFieldsContext().fieldNames()) {
                 if (fieldNameOrPattern.equals(SourceFieldMapper.NAME)) {
@@ -136,46 +164,108 @@ public class FetchPhase implements SearchPhase {
             boolean loadSource = context.sourceRequested();
             if (storedToRequestedFields.isEmpty()) {
                 // empty list specified, default to disable _source if no explicit indication
-                fieldsVisitor = new FieldsVisitor(loadSource);
+                fieldsVisitorSupplier = () -> new FieldsVisitor(loadSource);
             } else {
-                fieldsVisitor = new CustomFieldsVisitor(storedToRequestedFields.keySet(), loadSource);
+                fieldsVisitorSupplier = () -> new CustomFieldsVisitor(storedToRequestedFields.keySet(), loadSource);
             }
         }
-
+        final FieldsVisitor fieldsVisitor = fieldsVisitorSupplier.get();
+        // highlighting reads the stored fields of the hits, so they are recorded while the hits are loaded and only visited once
+        final FieldsVisitor storedFieldsRecorder = fieldsVisitor != null && context.highlight() != null
+            ? FetchSubPhase.HitContext.newStoredFieldsVisitor() : null;
+
+        // inner hits are profiled as part of the fetch phase of their top hits
+        final FetchProfiler profiler = context.getProfilers() != null && context instanceof InnerHitsContext.InnerHitSubContext == false
+            ? new FetchProfiler(fetchSubPhases) : null;
+        // the hits of sub searches like top hits and inner hits are bounded by the max inner result window, and their context does
+        // not release the resources of a phase
+        final HitsAccounting accounting = context instanceof FilteredSearchContext ? null : new HitsAccounting(context);
+        FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
         try {
-            SearchHit[] hits = new SearchHit[context.docIdsToLoadSize()];
-            FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
+            DocIdToIndex[] docs = new DocIdToIndex[context.docIdsToLoadSize()];
             for (int index = 0; index < context.docIdsToLoadSize(); index++) {
+                docs[index] = new DocIdToIndex(context.docIdsToLoad()[context.docIdsToLoadFrom() + index], index);
+            }
+            // load the hits in the order of their doc ids, which is the order of their stored fields on disk
+            Arrays.sort(docs);
+
+            SearchHit[] hits = new SearchHit[docs.length];
+            final int concurrency = fieldsVisitor == null || profiler != null ? 1 : fetchConcurrency(context, docs.length);
+            // hits fetched in parallel already have their stored fields and _source, the other sub phases still run below
+            final boolean prefetched = concurrency > 1;
+            if (prefetched) {
+                fetchInParallel(context, docs, hits, fieldsVisitorSupplier, storedToRequestedFields, concurrency, accounting);
+            }
+            List<LeafReaderContext> leaves = context.searcher().getIndexReader().leaves();
+            LeafReaderContext subReaderContext = null;
+            CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader = null;
+            for (int index = 0; index < docs.length; index++) {
                 if (context.isCancelled()) {
                     throw new TaskCancelledException("cancelled");
                 }
-                int docId = context.docIdsToLoad()[context.docIdsToLoadFrom() + index];
-                int readerIndex = ReaderUtil.subIndex(docId, context.searcher().getIndexReader().leaves());
-                LeafReaderContext subReaderContext = context.searcher().getIndexReader().leaves().get(readerIndex);
+                int docId = docs[index].docId;
+                if (subReaderContext == null || docId >= subReaderContext.docBase + subReaderContext.reader().maxDoc()) {
+                    long startNanos = profiler == null ? 0 : System.nanoTime();
+                    subReaderContext = leaves.get(ReaderUtil.subIndex(docId, leaves));
+                    storedFieldsReader = storedFieldsReader(subReaderContext, docs, index);
+                    if (profiler != null) {
+                        profiler.nextReader(startNanos);
+                    }
+                }
                 int subDocId = docId - subReaderContext.docBase;
 
+                long startNanos = profiler == null ? 0 : System.nanoTime();
                 final SearchHit searchHit;
-                int rootDocId = findRootDocumentIfNested(context, subReaderContext, subDocId);
-                if (rootDocId != -1) {
-                    searchHit = createNestedSearchHit(context, docId, subDocId, rootDocId,
-                        storedToRequestedFields, subReaderContext);
+                boolean recordedStoredFields = false;
+                if (prefetched) {
+                    searchHit = hits[docs[index].index];
+                    context.lookup().source().setSegmentAndDocument(subReaderContext, subDocId);
                 } else {
-                    searchHit = createSearchHit(context, fieldsVisitor, docId, subDocId,
-                        storedToRequestedFields, subReaderContext);
+                    int rootDocId = findRootDocumentIfNested(context, subReaderContext, subDocId);
+                    if (rootDocId != -1) {
+                        searchHit = createNestedSearchHit(context, docId, subDocId, rootDocId,
+                            storedToRequestedFields, subReaderContext, storedFieldsReader);
+                    } else {
+                        recordedStoredFields = storedFieldsRecorder != null;
+                        searchHit = createSearchHit(context, fieldsVisitor, docId, subDocId, storedToRequestedFields, subReaderContext,
+                            recordedStoredFields ? recordingStoredFieldsReader(storedFieldsReader, storedFieldsRecorder)
+                                : storedFieldsReader,
+                            context.lookup().source());
+                    }
+                    hits[docs[index].index] = searchHit;
+                }
+                if (profiler != null) {
+                    profiler.storedFieldsLoaded(startNanos);
                 }
 
-                hits[index] = searchHit;
-                hitContext.reset(searchHit, subReaderContext, subDocId, context.searcher());
-                for (FetchSubPhase fetchSubPhase : fetchSubPhases) {
-                    fetchSubPhase.hitExecute(context, hitContext);
+                hitContext.reset(searchHit, subReaderContext, subDocId, context.searcher(), storedFieldsReader);
+                if (recordedStoredFields) {
+                    hitContext.storedFields(new HashMap<>(storedFieldsRecorder.fields()));
+                }
+                for (int i = 0; i < fetchSubPhases.length; i++) {
+                    if (prefetched && fetchSubPhases[i] instanceof FetchSourcePhase) {
+                        continue;
+                    }
+                    startNanos = profiler == null ? 0 : System.nanoTime();
+                    fetchSubPhases[i].hitExecute(context, hitContext);
+                    if (profiler != null) {
+                        profiler.subPhaseExecuted(i, startNanos);
+                    }
+                }
+                if (accounting != null && prefetched == false) {
+                    accounting.add(searchHit);
                 }
             }
             if (context.isCancelled()) {
                 throw new TaskCancelledException("cancelled");
             }
 
-            for (FetchSubPhase fetchSubPhase : fetchSubPhases) {
-                fetchSubPhase.hitsExecute(context, hits);
+            for (int i = 0; i < fetchSubPhases.length; i++) {
+                long startNanos = profiler == null ? 0 : System.nanoTime();
+                fetchSubPhases[i].hitsExecute(context, hits);
+                if (profiler != null) {
+                    profiler.subPhaseExecutedOnHits(i, startNanos);
+                }
                 if (context.isCancelled()) {
                     throw new TaskCancelledException("cancelled");
                 }
@@ -183,9 +273,178 @@ public class FetchPhase implements SearchPhase {
 
             TotalHits totalHits = context.queryResult().getTotalHits();
             context.fetchResult().hits(new SearchHits(hits, totalHits, context.queryResult().getMaxScore()));
+            if (profiler != null) {
+                context.fetchResult().profileResult(profiler.finish(context));
+            }
         } catch (IOException e) {
             throw ExceptionsHelper.convertToElastic(e);
+        } finally {
+            hitContext.releaseCache();
+        }
+    }
+
+    /**
+     * Returns how many search threads should fetch the given number of hits. Hits are only fetched in parallel if the request has
+     * enough of them, and if none of the sub phases that run per hit need more than the stored fields and the {@code _source} of
+     * the hit, since these sub phases share the state of the search context.
+     */
+    private static int fetchConcurrency(SearchContext context, int numHits) {
+        if (numHits < 2 * MIN_HITS_PER_FETCH_CHUNK
+                || context instanceof InnerHitsContext.InnerHitSubContext
+                || context.mapperService().hasNested()
+                || context.highlight() != null
+                || context.hasScriptFields()
+                || (context.innerHits() != null && context.innerHits().getInnerHits().isEmpty() == false)) {
+            return 1;
+        }
+        int maxConcurrency = context.indexShard().indexSettings().getMaxFetchConcurrency();
+        return Math.min(maxConcurrency, numHits / MIN_HITS_PER_FETCH_CHUNK);
+    }
+
+    /**
+     * Loads the stored fields and the {@code _source} of the given hits in parallel on the search thread pool. The hits are split by
+     * segment, and segments in chunks of at most an equal share of the hits, which are run by {@link #runChunks}.
+     */
+    private void fetchInParallel(SearchContext context, DocIdToIndex[] docs, SearchHit[] hits,
+                                 Supplier<FieldsVisitor> fieldsVisitorSupplier, Map<String, Set<String>> storedToRequestedFields,
+                                 int concurrency, @Nullable HitsAccounting accounting) throws IOException {
+        final List<LeafReaderContext> leaves = context.searcher().getIndexReader().leaves();
+        final int maxChunkSize = (docs.length + concurrency - 1) / concurrency;
+        final List<int[]> chunks = new ArrayList<>();
+        for (int from = 0; from < docs.length;) {
+            int leaf = ReaderUtil.subIndex(docs[from].docId, leaves);
+            LeafReaderContext readerContext = leaves.get(leaf);
+            int leafEnd = readerContext.docBase + readerContext.reader().maxDoc();
+            int to = from;
+            while (to < docs.length && to - from < maxChunkSize && docs[to].docId < leafEnd) {
+                to++;
+            }
+            chunks.add(new int[] { from, to, leaf });
+            from = to;
+        }
+        final Executor executor = context.indexShard().getThreadPool().executor(ThreadPool.Names.SEARCH);
+        runChunks(executor, chunks.size(), concurrency, chunk -> {
+            int[] bounds = chunks.get(chunk);
+            fetchChunk(context, docs, bounds[0], bounds[1], leaves.get(bounds[2]), hits, fieldsVisitorSupplier.get(),
+                storedToRequestedFields, accounting);
+        });
+    }
+
+    /**
+     * Runs the given number of chunks on the calling thread and up to {@code concurrency - 1} workers forked on the given executor,
+     * which take chunks in turns. The calling thread only waits for chunks that a running worker took, so a busy executor delays
+     * the chunks but can't block them, and the calling thread runs the chunks of the workers that the executor rejected. Once a
+     * chunk failed the remaining chunks are skipped and the failure is rethrown.
+     */
+    static void runChunks(Executor executor, int numChunks, int concurrency, CheckedConsumer<Integer, IOException> chunkRunner)
+            throws IOException {
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final CountDownLatch chunksDone = new CountDownLatch(numChunks);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Runnable worker = () -> {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < numChunks) {
+                try {
+                    if (failure.get() == null) {
+                        chunkRunner.accept(chunk);
+                    }
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    chunksDone.countDown();
+                }
+            }
+        };
+        for (int i = 1; i < Math.min(concurrency, numChunks); i++) {
+            try {
+                executor.execute(worker);
+            } catch (EsRejectedExecutionException e) {
+                // the calling thread runs the chunks that the rejected worker would have taken
+                break;
+            }
+        }
+        worker.run();
+        try {
+            chunksDone.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while fetching hits", e);
+        }
+        final Exception e = failure.get();
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e != null) {
+            throw ExceptionsHelper.convertToRuntime(e);
+        }
+    }
+
+    private void fetchChunk(SearchContext context, DocIdToIndex[] docs, int from, int to, LeafReaderContext readerContext,
+                            SearchHit[] hits, FieldsVisitor fieldsVisitor, Map<String, Set<String>> storedToRequestedFields,
+                            @Nullable HitsAccounting accounting) {
+        // each chunk reads with its own stored fields reader and source lookup since neither is thread safe
+        CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader = storedFieldsReader(readerContext, docs, from);
+        SourceLookup sourceLookup = new SourceLookup(context.mapperService());
+        for (int index = from; index < to; index++) {
+            if (context.isCancelled()) {
+                throw new TaskCancelledException("cancelled");
+            }
+            int docId = docs[index].docId;
+            SearchHit hit = createSearchHit(context, fieldsVisitor, docId, docId - readerContext.docBase,
+                storedToRequestedFields, readerContext, storedFieldsReader, sourceLookup);
+            FetchSourcePhase.fetchSource(context, sourceLookup, hit);
+            if (accounting != null) {
+                accounting.add(hit);
+            }
+            hits[docs[index].index] = hit;
+        }
+    }
+
+    /**
+     * Accounts the hits of a fetch phase on the request circuit breaker until the end of the phase, by the size of their
+     * {@code _source}, which is most of the memory that a hit takes.
+     */
+    private static final class HitsAccounting {
+        private static final long SHALLOW_HIT_SIZE = RamUsageEstimator.shallowSizeOfInstance(SearchHit.class);
+
+        private final CircuitBreaker breaker;
+        private final AtomicLong accountedBytes = new AtomicLong();
+
+        HitsAccounting(SearchContext context) {
+            this.breaker = context.bigArrays() == null || context.bigArrays().breakerService() == null
+                ? new NoopCircuitBreaker(CircuitBreaker.REQUEST)
+                : context.bigArrays().breakerService().getBreaker(CircuitBreaker.REQUEST);
+            context.addReleasable(() -> breaker.addWithoutBreaking(-accountedBytes.get()), SearchContext.Lifetime.PHASE);
+        }
+
+        void add(SearchHit hit) {
+            long bytes = SHALLOW_HIT_SIZE + (hit.getSourceRef() == null ? 0 : hit.getSourceRef().length());
+            breaker.addEstimateBytesAndMaybeBreak(bytes, "<fetch>");
+            accountedBytes.addAndGet(bytes);
+        }
+    }
+
+    /**
+     * Returns how to read the stored fields of the hits of the given segment, the first of which is at {@code from} in the hits sorted
+     * by doc id. Stored fields are compressed in blocks of documents and the default reader decompresses the block of every document
+     * it reads, so if the hits of the segment are a range of adjacent documents they are read with a reader optimized for sequential
+     * access, which decompresses each block once. Readers that filter stored fields, like the one of field level security, don't
+     * provide such a reader.
+     */
+    static CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader(LeafReaderContext readerContext,
+                                                                                         DocIdToIndex[] docs, int from) {
+        int end = from;
+        while (end < docs.length && docs[end].docId < readerContext.docBase + readerContext.reader().maxDoc()) {
+            end++;
+        }
+        // the same threshold as the one Lucene uses to decide whether a merge reads documents sequentially
+        if (end - from >= 10 && docs[end - 1].docId - docs[from].docId == end - from - 1
+                && readerContext.reader() instanceof SequentialStoredFieldsLeafReader) {
+            StoredFieldsReader fieldsReader = ((SequentialStoredFieldsLeafReader) readerContext.reader()).getSequentialStoredFieldsReader();
+            if (fieldsReader != null) {
+                return fieldsReader::visitDocument;
+            }
         }
+        return readerContext.reader()::document;
     }
 
     private int findRootDocumentIfNested(SearchContext context, LeafReaderContext subReaderContext, int subDocId) throws IOException {
@@ -205,7 +464,9 @@ public class FetchPhase implements SearchPhase {
                                       int docId,
                                       int subDocId,
                                       Map<String, Set<String>> storedToRequestedFields,
-                                      LeafReaderContext subReaderContext) {
+                                      LeafReaderContext subReaderContext,
+                                      CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader,
+                                      SourceLookup sourceLookup) {
         DocumentMapper documentMapper = context.mapperService().documentMapper();
         Text typeText = documentMapper.typeText();
         if (fieldsVisitor == null) {
@@ -213,14 +474,24 @@ public class FetchPhase implements SearchPhase {
         }
 
         Map<String, DocumentField> searchFields = getSearchFields(context, fieldsVisitor, subDocId,
-            storedToRequestedFields, subReaderContext);
+            storedToRequestedFields, storedFieldsReader);
 
         SearchHit searchHit = new SearchHit(docId, fieldsVisitor.uid().id(), typeText, searchFields);
         // Set _source if requested.
-        SourceLookup sourceLookup = context.lookup().source();
         sourceLookup.setSegmentAndDocument(subReaderContext, subDocId);
         if (fieldsVisitor.source() != null) {
             sourceLookup.setSource(fieldsVisitor.source());
+        } else if (context.sourceRequested()) {
+            // the source isn't stored if the mapping rebuilds it from doc values, the lookup reuses them across the hits of a segment
+            try {
+                BytesReference syntheticSource = sourceLookup.loadSyntheticSource();
+                if (syntheticSource != null) {
+                    sourceLookup.setSource(syntheticSource);
+                }
+            } catch (IOException e) {
+                throw new FetchPhaseExecutionException(context.shardTarget(),
+                    "Failed to load synthetic source of doc id [" + docId + "]", e);
+            }
         }
         return searchHit;
     }
@@ -229,8 +500,8 @@ public class FetchPhase implements SearchPhase {
                                                        FieldsVisitor fieldsVisitor,
                                                        int subDocId,
                                                        Map<String, Set<String>> storedToRequestedFields,
-                                                       LeafReaderContext subReaderContext) {
-        loadStoredFields(context.shardTarget(), subReaderContext, fieldsVisitor, subDocId);
+                                                       CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader) {
+        loadStoredFields(context.shardTarget(), storedFieldsReader, fieldsVisitor, subDocId);
         fieldsVisitor.postProcess(context.mapperService());
 
         if (fieldsVisitor.fields().isEmpty()) {
@@ -258,7 +529,9 @@ public class FetchPhase implements SearchPhase {
                                             int nestedSubDocId,
                                             int rootSubDocId,
                                             Map<String, Set<String>> storedToRequestedFields,
-                                            LeafReaderContext subReaderContext) throws IOException {
+                                            LeafReaderContext subReaderContext,
+                                            CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader)
+                                            throws IOException {
         // Also if highlighting is requested on nested documents we need to fetch the _source from the root document,
         // otherwise highlighting will attempt to fetch the _source from the nested doc, which will fail,
         // because the entire _source is only stored with the root document.
@@ -267,7 +540,7 @@ public class FetchPhase implements SearchPhase {
         final boolean needSource = context.sourceRequested() || context.highlight() != null;
         if (needSource || (context instanceof InnerHitsContext.InnerHitSubContext == false)) {
             FieldsVisitor rootFieldsVisitor = new FieldsVisitor(needSource);
-            loadStoredFields(context.shardTarget(), subReaderContext, rootFieldsVisitor, rootSubDocId);
+            loadStoredFields(context.shardTarget(), storedFieldsReader, rootFieldsVisitor, rootSubDocId);
             rootFieldsVisitor.postProcess(context.mapperService());
             uid = rootFieldsVisitor.uid();
             source = rootFieldsVisitor.source();
@@ -281,7 +554,7 @@ public class FetchPhase implements SearchPhase {
         if (context.hasStoredFields() && !context.storedFieldsContext().fieldNames().isEmpty()) {
             FieldsVisitor nestedFieldsVisitor = new CustomFieldsVisitor(storedToRequestedFields.keySet(), false);
             searchFields = getSearchFields(context, nestedFieldsVisitor, nestedSubDocId,
-                storedToRequestedFields, subReaderContext);
+                storedToRequestedFields, storedFieldsReader);
         }
 
         DocumentMapper documentMapper = context.mapperService().documentMapper();
@@ -420,12 +693,129 @@ public class FetchPhase implements SearchPhase {
         return nestedIdentity;
     }
 
-    private void loadStoredFields(SearchShardTarget shardTarget, LeafReaderContext readerContext, FieldsVisitor fieldVisitor, int docId) {
+    /**
+     * Wraps the given stored fields reader so that it also records the raw values of all stored fields but {@code _source} of the
+     * documents it reads with the given recorder, whatever the visitor it is called with needs.
+     */
+    private static CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> recordingStoredFieldsReader(
+            CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader, FieldsVisitor recorder) {
+        return (docId, visitor) -> {
+            recorder.reset();
+            storedFieldsReader.accept(docId, new RecordingStoredFieldVisitor(visitor, recorder));
+        };
+    }
+
+    /**
+     * Visits stored fields with a visitor and passes the fields that a recorder needs on to the recorder as well.
+     */
+    private static final class RecordingStoredFieldVisitor extends StoredFieldVisitor {
+        private final StoredFieldVisitor visitor;
+        private final StoredFieldVisitor recorder;
+        private boolean visitorStopped;
+        private boolean visitorNeedsField;
+        private boolean recorderNeedsField;
+
+        RecordingStoredFieldVisitor(StoredFieldVisitor visitor, StoredFieldVisitor recorder) {
+            this.visitor = visitor;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public Status needsField(FieldInfo fieldInfo) throws IOException {
+            visitorNeedsField = false;
+            if (visitorStopped == false) {
+                Status status = visitor.needsField(fieldInfo);
+                visitorStopped = status == Status.STOP;
+                visitorNeedsField = status == Status.YES;
+            }
+            recorderNeedsField = recorder.needsField(fieldInfo) == Status.YES;
+            return visitorNeedsField || recorderNeedsField ? Status.YES : Status.NO;
+        }
+
+        @Override
+        public void binaryField(FieldInfo fieldInfo, byte[] value) throws IOException {
+            if (visitorNeedsField) {
+                visitor.binaryField(fieldInfo, value);
+            }
+            if (recorderNeedsField) {
+                recorder.binaryField(fieldInfo, value);
+            }
+        }
+
+        @Override
+        public void stringField(FieldInfo fieldInfo, byte[] value) throws IOException {
+            if (visitorNeedsField) {
+                visitor.stringField(fieldInfo, value);
+            }
+            if (recorderNeedsField) {
+                recorder.stringField(fieldInfo, value);
+            }
+        }
+
+        @Override
+        public void intField(FieldInfo fieldInfo, int value) throws IOException {
+            if (visitorNeedsField) {
+                visitor.intField(fieldInfo, value);
+            }
+            if (recorderNeedsField) {
+                recorder.intField(fieldInfo, value);
+            }
+        }
+
+        @Override
+        public void longField(FieldInfo fieldInfo, long value) throws IOException {
+            if (visitorNeedsField) {
+                visitor.longField(fieldInfo, value);
+            }
+            if (recorderNeedsField) {
+                recorder.longField(fieldInfo, value);
+            }
+        }
+
+        @Override
+        public void floatField(FieldInfo fieldInfo, float value) throws IOException {
+            if (visitorNeedsField) {
+                visitor.floatField(fieldInfo, value);
+            }
+            if (recorderNeedsField) {
+                recorder.floatField(fieldInfo, value);
+            }
+        }
+
+        @Override
+        public void doubleField(FieldInfo fieldInfo, double value) throws IOException {
+            if (visitorNeedsField) {
+                visitor.doubleField(fieldInfo, value);
+            }
+            if (recorderNeedsField) {
+                recorder.doubleField(fieldInfo, value);
+            }
+        }
+    }
+
+    private void loadStoredFields(SearchShardTarget shardTarget,
+                                  CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader,
+                                  FieldsVisitor fieldVisitor, int docId) {
         fieldVisitor.reset();
         try {
-            readerContext.reader().document(docId, fieldVisitor);
+            storedFieldsReader.accept(docId, fieldVisitor);
         } catch (IOException e) {
             throw new FetchPhaseExecutionException(shardTarget, "Failed to fetch doc id [" + docId + "]", e);
         }
     }
+
+    static final class DocIdToIndex implements Comparable<DocIdToIndex> {
+        final int docId;
+        final int index;
+
+        DocIdToIndex(int docId, int index) {
+            this.docId = docId;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(DocIdToIndex o) {
+            return Integer.compare(docId, o.docId);
+        }
+    }
 }
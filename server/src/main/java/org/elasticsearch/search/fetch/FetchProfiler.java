@@ -0,0 +1,96 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch;
+
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.profile.ProfileResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times the fetch phase of a profiled search request: loading the stored fields of the hits, moving to the next segment, and each of
+ * the {@link FetchSubPhase}s, which are reported as the children of the fetch phase.
+ */
+final class FetchProfiler {
+
+    static final String FETCH = "fetch";
+
+    private final FetchSubPhase[] subPhases;
+    private final long[] subPhaseNanos;
+    private final long[] subPhaseCounts;
+    private long storedFieldsNanos;
+    private long storedFieldsCount;
+    private long nextReaderNanos;
+    private long nextReaderCount;
+
+    FetchProfiler(FetchSubPhase[] subPhases) {
+        this.subPhases = subPhases;
+        this.subPhaseNanos = new long[subPhases.length];
+        this.subPhaseCounts = new long[subPhases.length];
+    }
+
+    void storedFieldsLoaded(long startNanos) {
+        storedFieldsNanos += System.nanoTime() - startNanos;
+        storedFieldsCount++;
+    }
+
+    void nextReader(long startNanos) {
+        nextReaderNanos += System.nanoTime() - startNanos;
+        nextReaderCount++;
+    }
+
+    void subPhaseExecuted(int subPhase, long startNanos) {
+        subPhaseNanos[subPhase] += System.nanoTime() - startNanos;
+        subPhaseCounts[subPhase]++;
+    }
+
+    /**
+     * Records the time a sub phase spent on all hits at once, which doesn't count as processing a hit.
+     */
+    void subPhaseExecutedOnHits(int subPhase, long startNanos) {
+        subPhaseNanos[subPhase] += System.nanoTime() - startNanos;
+    }
+
+    ProfileResult finish(SearchContext context) {
+        List<ProfileResult> children = new ArrayList<>(subPhases.length);
+        long processNanos = 0;
+        for (int i = 0; i < subPhases.length; i++) {
+            Map<String, Long> breakdown = new HashMap<>();
+            breakdown.put("process", subPhaseNanos[i]);
+            breakdown.put("process_count", subPhaseCounts[i]);
+            subPhases[i].profile(context, breakdown);
+            children.add(new ProfileResult(subPhases[i].getClass().getSimpleName(), "", breakdown, subPhaseNanos[i],
+                Collections.emptyList()));
+            processNanos += subPhaseNanos[i];
+        }
+        Map<String, Long> breakdown = new HashMap<>();
+        breakdown.put("load_stored_fields", storedFieldsNanos);
+        breakdown.put("load_stored_fields_count", storedFieldsCount);
+        breakdown.put("next_reader", nextReaderNanos);
+        breakdown.put("next_reader_count", nextReaderCount);
+        breakdown.put("process", processNanos);
+        // the breakdowns contain counts, so the time of each node is the sum of its timings rather than of its breakdown
+        return new ProfileResult(FETCH, "", breakdown, storedFieldsNanos + nextReaderNanos + processNanos, children);
+    }
+}
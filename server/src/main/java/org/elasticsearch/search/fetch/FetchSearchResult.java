@@ -19,6 +19,8 @@
 
 package org.elasticsearch.search.fetch;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.search.SearchHit;
@@ -26,6 +28,7 @@ import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.internal.SearchContextId;
+import org.elasticsearch.search.profile.ProfileResult;
 import org.elasticsearch.search.query.QuerySearchResult;
 
 import java.io.IOException;
@@ -33,6 +36,7 @@ import java.io.IOException;
 public final class FetchSearchResult extends SearchPhaseResult {
 
     private SearchHits hits;
+    private ProfileResult profileResult;
     // client side counter
     private transient int counter;
 
@@ -43,6 +47,9 @@ public final class FetchSearchResult extends SearchPhaseResult {
         super(in);
         contextId = new SearchContextId(in);
         hits = new SearchHits(in);
+        if (in.getVersion().onOrAfter(Version.V_7_7_1)) {
+            profileResult = in.readOptionalWriteable(ProfileResult::new);
+        }
     }
 
     public FetchSearchResult(SearchContextId id, SearchShardTarget shardTarget) {
@@ -76,6 +83,21 @@ public final class FetchSearchResult extends SearchPhaseResult {
         return hits;
     }
 
+    /**
+     * Sets the profile of the fetch phase, if the request is profiled.
+     */
+    public void profileResult(ProfileResult profileResult) {
+        this.profileResult = profileResult;
+    }
+
+    /**
+     * Returns the profile of the fetch phase, or {@code null} if the request is not profiled.
+     */
+    @Nullable
+    public ProfileResult profileResult() {
+        return profileResult;
+    }
+
     public FetchSearchResult initCounter() {
         counter = 0;
         return this;
@@ -89,5 +111,8 @@ public final class FetchSearchResult extends SearchPhaseResult {
     public void writeTo(StreamOutput out) throws IOException {
         contextId.writeTo(out);
         hits.writeTo(out);
+        if (out.getVersion().onOrAfter(Version.V_7_7_1)) {
+            out.writeOptionalWriteable(profileResult);
+        }
     }
 }
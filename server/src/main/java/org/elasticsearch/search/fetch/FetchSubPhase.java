@@ -18,15 +18,24 @@
  */
 package org.elasticsearch.search.fetch;
 
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.search.IndexSearcher;
+import org.elasticsearch.common.CheckedBiConsumer;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.internal.SearchContext;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -40,12 +49,25 @@ public interface FetchSubPhase {
         private LeafReaderContext readerContext;
         private int docId;
         private Map<String, Object> cache;
+        private CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader;
+        private Map<String, List<Object>> storedFields;
 
         public void reset(SearchHit hit, LeafReaderContext context, int docId, IndexSearcher searcher) {
+            reset(hit, context, docId, searcher, null);
+        }
+
+        /**
+         * Resets this context to the given hit, whose stored fields are read with the given reader of the segment, which the fetch
+         * phase picks once per segment. The stored fields are read from the leaf reader if it is {@code null}.
+         */
+        public void reset(SearchHit hit, LeafReaderContext context, int docId, IndexSearcher searcher,
+                          @Nullable CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader) {
             this.hit = hit;
             this.readerContext = context;
             this.docId = docId;
             this.searcher = searcher;
+            this.storedFieldsReader = storedFieldsReader;
+            this.storedFields = null;
         }
 
         public SearchHit hit() {
@@ -68,6 +90,65 @@ public interface FetchSubPhase {
             return searcher.getIndexReader();
         }
 
+        /**
+         * Visits the stored fields of the hit with the stored fields reader of its segment.
+         */
+        public void visitStoredFields(StoredFieldVisitor visitor) throws IOException {
+            if (storedFieldsReader == null) {
+                readerContext.reader().document(docId, visitor);
+            } else {
+                storedFieldsReader.accept(docId, visitor);
+            }
+        }
+
+        /**
+         * Returns the raw values of the given stored field of the hit, or an empty list if the hit has no value for it. All stored
+         * fields of the hit but {@code _source} are read together the first time one of them is needed, so that the sub phases that
+         * need stored fields, like highlighting on several fields, visit the stored fields of the hit only once.
+         */
+        public List<Object> storedFieldValues(String field) throws IOException {
+            if (storedFields == null) {
+                FieldsVisitor visitor = newStoredFieldsVisitor();
+                visitStoredFields(visitor);
+                storedFields = visitor.fields();
+            }
+            return storedFields.getOrDefault(field, Collections.emptyList());
+        }
+
+        /**
+         * Sets the raw values of all stored fields of the hit but {@code _source}, for when the fetch phase recorded them while it
+         * loaded the hit, see {@link #storedFieldValues}.
+         */
+        void storedFields(Map<String, List<Object>> storedFields) {
+            this.storedFields = storedFields;
+        }
+
+        /**
+         * Creates a visitor that reads the raw values of all stored fields but {@code _source}.
+         */
+        static FieldsVisitor newStoredFieldsVisitor() {
+            return new FieldsVisitor(false) {
+                @Override
+                public Status needsField(FieldInfo fieldInfo) {
+                    return SourceFieldMapper.NAME.equals(fieldInfo.name) ? Status.NO : Status.YES;
+                }
+            };
+        }
+
+        /**
+         * Releases the values of the {@link #cache()} that hold resources, once all hits were processed with this context.
+         */
+        public void releaseCache() {
+            if (cache != null) {
+                for (Object value : cache.values()) {
+                    if (value instanceof Releasable) {
+                        ((Releasable) value).close();
+                    }
+                }
+                cache.clear();
+            }
+        }
+
         public Map<String, Object> cache() {
             if (cache == null) {
                 cache = new HashMap<>();
@@ -83,4 +164,10 @@ public interface FetchSubPhase {
 
 
     default void hitsExecute(SearchContext context, SearchHit[] hits) throws IOException {}
+
+    /**
+     * Adds what this phase did for the hits of a profiled request to the breakdown of its profile result, like counts of how it
+     * processed them. Time keys of the breakdown are filled by the fetch phase.
+     */
+    default void profile(SearchContext context, Map<String, Long> breakdown) {}
 }
@@ -23,11 +23,16 @@ import org.elasticsearch.common.Booleans;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.ParsingException;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.rest.RestRequest;
@@ -35,8 +40,11 @@ import org.elasticsearch.rest.RestRequest;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
@@ -298,4 +306,49 @@ public class FetchSourceContext implements Writeable, ToXContentObject {
         }
         return filter;
     }
+
+    /**
+     * Returns whether {@link #filterBytes(BytesReference)} filters the source like {@link #getFilter()} does, which is the case if
+     * there are includes but no excludes and the includes have no wildcards other than a trailing {@code *}. With excludes, objects
+     * whose fields are all excluded are kept by {@link #getFilter()} but dropped when streaming, and wildcards within a pattern
+     * match across objects with {@link #getFilter()} but not when streaming.
+     */
+    public boolean canFilterBytes() {
+        if (includes.length == 0 || excludes.length != 0) {
+            return false;
+        }
+        for (String include : includes) {
+            final int wildcard = include.indexOf('*');
+            if (include.isEmpty() || include.indexOf('\\') >= 0 || (wildcard >= 0 && wildcard != include.length() - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Filters the given source by streaming its tokens to the output rather than parsing it into a map, filtering the map and
+     * serializing the filtered map. Must only be called if {@link #canFilterBytes()}.
+     */
+    public BytesReference filterBytes(BytesReference source) throws IOException {
+        assert canFilterBytes() : "the source filter " + this + " can only be applied to a map";
+        final Set<String> includesSet = new HashSet<>(Arrays.asList(includes));
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source)) {
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                throw new ParsingException(parser.getTokenLocation(), "expected the source to be an object but got ["
+                    + parser.currentToken() + "]");
+            }
+            final BytesStreamOutput out = new BytesStreamOutput(Math.min(1024, source.length()));
+            final XContentBuilder builder = new XContentBuilder(parser.contentType().xContent(), out, includesSet,
+                Collections.emptySet(), true);
+            // the root object is always written, like the empty map that #getFilter() returns if nothing matches
+            builder.startObject();
+            while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                builder.copyCurrentStructure(parser);
+            }
+            builder.endObject();
+            return BytesReference.bytes(builder);
+        }
+    }
 }
@@ -35,11 +35,17 @@ public final class FetchSourcePhase implements FetchSubPhase {
 
     @Override
     public void hitExecute(SearchContext context, HitContext hitContext) {
+        fetchSource(context, context.lookup().source(), hitContext.hit());
+    }
+
+    /**
+     * Sets the source of the given hit, filtered as the request asks for, from the given lookup which must be positioned on the hit.
+     */
+    public static void fetchSource(SearchContext context, SourceLookup source, SearchHit hit) {
         if (context.sourceRequested() == false) {
             return;
         }
-        final boolean nestedHit = hitContext.hit().getNestedIdentity() != null;
-        SourceLookup source = context.lookup().source();
+        final boolean nestedHit = hit.getNestedIdentity() != null;
         FetchSourceContext fetchSourceContext = context.fetchSourceContext();
         assert fetchSourceContext.fetchSource();
 
@@ -54,14 +60,24 @@ public final class FetchSourcePhase implements FetchSubPhase {
 
         // If this is a parent document and there are no source filters, then add the source as-is.
         if (nestedHit == false && containsFilters(fetchSourceContext) == false) {
-            hitContext.hit().sourceRef(source.internalSourceRef());
+            hit.sourceRef(source.internalSourceRef());
+            return;
+        }
+
+        // If this is a parent document and the filter allows it, stream the filtered source without parsing it into a map.
+        if (nestedHit == false && source.internalSourceRef() != null && fetchSourceContext.canFilterBytes()) {
+            try {
+                hit.sourceRef(fetchSourceContext.filterBytes(source.internalSourceRef()));
+            } catch (IOException e) {
+                throw new ElasticsearchException("Error filtering source", e);
+            }
             return;
         }
 
         // Otherwise, filter the source and add it to the hit.
         Object value = source.filter(fetchSourceContext);
         if (nestedHit) {
-            value = getNestedSource((Map<String, Object>) value, hitContext);
+            value = getNestedSource((Map<String, Object>) value, hit);
         }
 
         try {
@@ -79,7 +95,7 @@ public final class FetchSourcePhase implements FetchSubPhase {
                 builder.startObject();
                 builder.endObject();
             }
-            hitContext.hit().sourceRef(BytesReference.bytes(builder));
+            hit.sourceRef(BytesReference.bytes(builder));
         } catch (IOException e) {
             throw new ElasticsearchException("Error filtering source", e);
         }
@@ -89,8 +105,8 @@ public final class FetchSourcePhase implements FetchSubPhase {
         return context.includes().length != 0 || context.excludes().length != 0;
     }
 
-    private Map<String, Object> getNestedSource(Map<String, Object> sourceAsMap, HitContext hitContext) {
-        for (SearchHit.NestedIdentity o = hitContext.hit().getNestedIdentity(); o != null; o = o.getChild()) {
+    private static Map<String, Object> getNestedSource(Map<String, Object> sourceAsMap, SearchHit hit) {
+        for (SearchHit.NestedIdentity o = hit.getNestedIdentity(); o != null; o = o.getChild()) {
             sourceAsMap = (Map<String, Object>) sourceAsMap.get(o.getField().string());
             if (sourceAsMap == null) {
                 return null;
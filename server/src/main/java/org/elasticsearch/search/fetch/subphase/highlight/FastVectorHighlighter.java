@@ -19,11 +19,13 @@
 package org.elasticsearch.search.fetch.subphase.highlight;
 
 import org.apache.lucene.search.highlight.Encoder;
+import org.apache.lucene.search.vectorhighlight.BaseFragListBuilder;
 import org.apache.lucene.search.vectorhighlight.BaseFragmentsBuilder;
 import org.apache.lucene.search.vectorhighlight.BoundaryScanner;
 import org.apache.lucene.search.vectorhighlight.BreakIteratorBoundaryScanner;
 import org.apache.lucene.search.vectorhighlight.CustomFieldQuery;
 import org.apache.lucene.search.vectorhighlight.FieldFragList;
+import org.apache.lucene.search.vectorhighlight.FieldPhraseList;
 import org.apache.lucene.search.vectorhighlight.FieldPhraseList.WeightedPhraseInfo;
 import org.apache.lucene.search.vectorhighlight.FieldQuery;
 import org.apache.lucene.search.vectorhighlight.FragListBuilder;
@@ -46,6 +48,7 @@ import org.elasticsearch.search.fetch.subphase.highlight.SearchContextHighlight.
 import java.text.BreakIterator;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -105,8 +108,8 @@ public class FastVectorHighlighter implements Highlighter {
                                 field.fieldOptions().preTags(), field.fieldOptions().postTags(), boundaryScanner);
                     }
                 } else {
-                    fragListBuilder = field.fieldOptions().fragmentOffset() == -1 ?
-                        new SimpleFragListBuilder() : new SimpleFragListBuilder(field.fieldOptions().fragmentOffset());
+                    fragListBuilder = new BudgetFragListBuilder(field.fieldOptions().fragmentOffset() == -1 ?
+                        BaseFragListBuilder.MARGIN_DEFAULT : field.fieldOptions().fragmentOffset(), highlighterContext.budget);
                     if (field.fieldOptions().scoreOrdered()) {
                         if (!forceSource && fieldType.stored()) {
                             fragmentsBuilder = new ScoreOrderFragmentsBuilder(field.fieldOptions().preTags(),
@@ -182,8 +185,13 @@ public class FastVectorHighlighter implements Highlighter {
                     entry.fragmentsBuilder, field.fieldOptions().preTags(), field.fieldOptions().postTags(), encoder);
             }
 
+            final boolean truncated = entry.fragListBuilder instanceof BudgetFragListBuilder
+                && ((BudgetFragListBuilder) entry.fragListBuilder).truncated;
             if (fragments != null && fragments.length > 0) {
-                return new HighlightField(highlighterContext.fieldName, Text.convertFromStringArray(fragments));
+                return new HighlightField(highlighterContext.fieldName, Text.convertFromStringArray(fragments), truncated);
+            }
+            if (truncated) {
+                return new HighlightField(highlighterContext.fieldName, Text.EMPTY_ARRAY, true);
             }
 
             int noMatchSize = highlighterContext.field.fieldOptions().noMatchSize();
@@ -245,6 +253,35 @@ public class FastVectorHighlighter implements Highlighter {
         }
     }
 
+    /**
+     * Stops adding the passages of a field to its list once the highlighting budget is exceeded, so that only the fragments of the
+     * passages found until then are built.
+     */
+    private static final class BudgetFragListBuilder extends SimpleFragListBuilder {
+        private final HighlightBudget budget;
+        private boolean truncated;
+
+        BudgetFragListBuilder(int margin, HighlightBudget budget) {
+            super(margin);
+            this.budget = budget;
+        }
+
+        @Override
+        public FieldFragList createFieldFragList(FieldPhraseList fieldPhraseList, int fragCharSize) {
+            truncated = false;
+            return createFieldFragList(fieldPhraseList, new SimpleFieldFragList(fragCharSize) {
+                @Override
+                public void add(int startOffset, int endOffset, List<WeightedPhraseInfo> phraseInfoList) {
+                    if (truncated || budget.isExceeded()) {
+                        truncated = true;
+                    } else {
+                        super.add(startOffset, endOffset, phraseInfoList);
+                    }
+                }
+            }, fragCharSize);
+        }
+    }
+
     private class FieldHighlightEntry {
         public FragListBuilder fragListBuilder;
         public FragmentsBuilder fragmentsBuilder;
@@ -0,0 +1,371 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch.subphase.highlight;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.AnalyzerWrapper;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionLengthAttribute;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.search.fetch.FetchSubPhase.HitContext;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounds the time the unified highlighter spends re-analyzing the values of the fields of a hit, as set by the
+ * {@link IndexSettings#MAX_ANALYSIS_TIME_SETTING budget} of the index: once it's spent, the values are only highlighted as far as
+ * they were analyzed. Callers that highlight the same hit several times, like the percolator does for a document that several
+ * queries matched, can also {@link #replayAnalysis make it record} the tokens of the values of a hit, so that analyzing the same
+ * values of the same field again replays them instead. A single instance is kept in the {@link HitContext#cache()} of a request, so
+ * that the wrapped analyzers are reused across hits, and released with the cache.
+ */
+public final class HighlightAnalysisCache implements Releasable {
+
+    /**
+     * The key of the cache in {@link HitContext#cache()}.
+     */
+    public static final String CACHE_KEY = "highlight-analysis";
+
+    // checking the clock for every token would slow analysis down
+    private static final int TOKENS_BETWEEN_TIME_CHECKS = 64;
+
+    private final boolean replay;
+    private final boolean bounded;
+    private final long maxAnalysisNanos;
+    private final Map<Analyzer, CachingAnalyzer> analyzers = new IdentityHashMap<>();
+    private final Map<Key, Tokens> tokens = new HashMap<>();
+    private LeafReaderContext readerContext;
+    private int docId = -1;
+    private long remainingNanos;
+    private long cacheHits;
+    private long budgetExceeded;
+
+    HighlightAnalysisCache(TimeValue maxAnalysisTime, boolean replay) {
+        this.replay = replay;
+        this.bounded = maxAnalysisTime.nanos() >= 0;
+        this.maxAnalysisNanos = maxAnalysisTime.nanos();
+    }
+
+    /**
+     * Returns the cache of the given context, set to its current hit.
+     */
+    static HighlightAnalysisCache get(HitContext hitContext, IndexSettings indexSettings) {
+        HighlightAnalysisCache cache = (HighlightAnalysisCache) hitContext.cache().get(CACHE_KEY);
+        if (cache == null) {
+            cache = new HighlightAnalysisCache(indexSettings.getHighlightMaxAnalysisTime(), false);
+            hitContext.cache().put(CACHE_KEY, cache);
+        }
+        cache.setHit(hitContext.readerContext(), hitContext.docId());
+        return cache;
+    }
+
+    /**
+     * Makes the unified highlighter record the analysis of the hits of the given context and replay it when a hit is highlighted
+     * again. Recording copies the values that are analyzed, so it only pays off for callers that highlight each hit several times.
+     */
+    public static void replayAnalysis(HitContext hitContext, IndexSettings indexSettings) {
+        HighlightAnalysisCache previous = (HighlightAnalysisCache) hitContext.cache().put(CACHE_KEY,
+            new HighlightAnalysisCache(indexSettings.getHighlightMaxAnalysisTime(), true));
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    void setHit(LeafReaderContext readerContext, int docId) {
+        if (this.readerContext != readerContext || this.docId != docId) {
+            this.readerContext = readerContext;
+            this.docId = docId;
+            tokens.clear();
+            remainingNanos = maxAnalysisNanos;
+        }
+    }
+
+    /**
+     * Wraps the given analyzer so that the analysis of the hit is bounded, and recorded or replayed if it should be. Returns the
+     * analyzer as is if there is nothing to bound nor to record.
+     */
+    Analyzer wrap(Analyzer analyzer) {
+        if (replay == false && bounded == false) {
+            return analyzer;
+        }
+        return analyzers.computeIfAbsent(analyzer, CachingAnalyzer::new);
+    }
+
+    /**
+     * The number of times analysis was replayed rather than done.
+     */
+    long cacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * The number of times analysis was stopped because the budget of the hit was spent.
+     */
+    long budgetExceeded() {
+        return budgetExceeded;
+    }
+
+    @Override
+    public void close() {
+        for (Analyzer analyzer : analyzers.values()) {
+            analyzer.close();
+        }
+        analyzers.clear();
+        tokens.clear();
+    }
+
+    private final class CachingAnalyzer extends AnalyzerWrapper {
+        private final Analyzer analyzer;
+        // the value that is being analyzed if it is recorded, which wrapReader always sees before the components get their reader
+        private String text;
+
+        CachingAnalyzer(Analyzer analyzer) {
+            // the highlighter requires the same token stream for every value of a field
+            super(PER_FIELD_REUSE_STRATEGY);
+            this.analyzer = analyzer;
+        }
+
+        @Override
+        protected Analyzer getWrappedAnalyzer(String fieldName) {
+            return analyzer;
+        }
+
+        @Override
+        protected Reader wrapReader(String fieldName, Reader reader) {
+            if (replay == false) {
+                return reader;
+            }
+            try {
+                text = Streams.copyToString(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new StringReader(text);
+        }
+
+        @Override
+        protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
+            CachingTokenStream stream = new CachingTokenStream(components.getTokenStream());
+            return new TokenStreamComponents(reader -> {
+                // the unified highlighter analyzes each value of a field on its own, so the value is part of the key
+                Key key = replay ? new Key(analyzer, fieldName, text) : null;
+                Tokens cached = key == null ? null : tokens.get(key);
+                stream.setInput(key, cached);
+                if (cached == null) {
+                    components.getSource().accept(reader);
+                } else {
+                    cacheHits++;
+                }
+            }, stream);
+        }
+    }
+
+    /**
+     * Replays the recorded tokens of a value if there are any, or reads the tokens of the wrapped stream until the budget is spent
+     * otherwise, and records them if the value should be.
+     */
+    private final class CachingTokenStream extends TokenFilter {
+        private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+        private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+        private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+        private final PositionLengthAttribute posLenAtt = addAttribute(PositionLengthAttribute.class);
+
+        private Key key;
+        private Tokens replayed;
+        private Tokens recorded;
+        private int upto;
+        private int numTokens;
+        private boolean truncated;
+        private long startNanos;
+        private boolean accounted;
+
+        CachingTokenStream(TokenStream input) {
+            super(input);
+        }
+
+        void setInput(Key key, Tokens cached) {
+            this.key = key;
+            this.replayed = cached;
+            this.recorded = null;
+        }
+
+        @Override
+        public void reset() throws IOException {
+            if (replayed != null) {
+                // the wrapped stream didn't get the text, so it must be left alone
+                upto = 0;
+            } else {
+                input.reset();
+                recorded = key == null ? null : new Tokens();
+                numTokens = 0;
+                truncated = false;
+                startNanos = System.nanoTime();
+                accounted = false;
+            }
+        }
+
+        @Override
+        public boolean incrementToken() throws IOException {
+            if (replayed != null) {
+                if (upto == replayed.size) {
+                    return false;
+                }
+                clearAttributes();
+                replayed.copyTo(upto++, termAtt, offsetAtt, posIncAtt, posLenAtt);
+                return true;
+            }
+            if (truncated) {
+                return false;
+            }
+            if (bounded && numTokens % TOKENS_BETWEEN_TIME_CHECKS == 0 && System.nanoTime() - startNanos > remainingNanos) {
+                truncated = true;
+                budgetExceeded++;
+                return false;
+            }
+            if (input.incrementToken() == false) {
+                return false;
+            }
+            numTokens++;
+            if (recorded != null) {
+                recorded.add(termAtt, offsetAtt, posIncAtt, posLenAtt);
+            }
+            return true;
+        }
+
+        @Override
+        public void end() throws IOException {
+            if (replayed != null) {
+                endAttributes();
+                offsetAtt.setOffset(replayed.finalOffset, replayed.finalOffset);
+                posIncAtt.setPositionIncrement(replayed.finalPositionIncrement);
+            } else if (truncated) {
+                // the wrapped stream wasn't consumed up to its end so it isn't ended, and it isn't recorded since the next attempt
+                // may have the time to analyze the whole value
+                endAttributes();
+                account();
+            } else {
+                input.end();
+                if (recorded != null) {
+                    recorded.finalOffset = offsetAtt.endOffset();
+                    recorded.finalPositionIncrement = posIncAtt.getPositionIncrement();
+                    tokens.put(key, recorded);
+                }
+                account();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (replayed == null) {
+                input.close();
+                account();
+            }
+        }
+
+        private void account() {
+            if (bounded && accounted == false) {
+                remainingNanos = Math.max(0, remainingNanos - (System.nanoTime() - startNanos));
+                accounted = true;
+            }
+        }
+    }
+
+    private static final class Key {
+        private final Analyzer analyzer;
+        private final String field;
+        private final String text;
+
+        Key(Analyzer analyzer, String field, String text) {
+            this.analyzer = analyzer;
+            this.field = field;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return analyzer == other.analyzer && field.equals(other.field) && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(analyzer), field, text);
+        }
+    }
+
+    /**
+     * The tokens of a text, with the chars of all terms in a single buffer and five ints per token: the end of its term in the buffer,
+     * its start and end offsets, and its position increment and length.
+     */
+    private static final class Tokens {
+        private static final int INTS_PER_TOKEN = 5;
+
+        private final StringBuilder terms = new StringBuilder();
+        private int[] ints = new int[INTS_PER_TOKEN * 16];
+        private int size;
+        private int finalOffset;
+        private int finalPositionIncrement;
+
+        void add(CharTermAttribute termAtt, OffsetAttribute offsetAtt, PositionIncrementAttribute posIncAtt,
+                 PositionLengthAttribute posLenAtt) {
+            terms.append(termAtt);
+            ints = ArrayUtil.grow(ints, (size + 1) * INTS_PER_TOKEN);
+            int base = size * INTS_PER_TOKEN;
+            ints[base] = terms.length();
+            ints[base + 1] = offsetAtt.startOffset();
+            ints[base + 2] = offsetAtt.endOffset();
+            ints[base + 3] = posIncAtt.getPositionIncrement();
+            ints[base + 4] = posLenAtt.getPositionLength();
+            size++;
+        }
+
+        void copyTo(int token, CharTermAttribute termAtt, OffsetAttribute offsetAtt, PositionIncrementAttribute posIncAtt,
+                    PositionLengthAttribute posLenAtt) {
+            int base = token * INTS_PER_TOKEN;
+            int termStart = token == 0 ? 0 : ints[base - INTS_PER_TOKEN];
+            termAtt.setEmpty().append(terms, termStart, ints[base]);
+            offsetAtt.setOffset(ints[base + 1], ints[base + 2]);
+            posIncAtt.setPositionIncrement(ints[base + 3]);
+            posLenAtt.setPositionLength(ints[base + 4]);
+        }
+    }
+}
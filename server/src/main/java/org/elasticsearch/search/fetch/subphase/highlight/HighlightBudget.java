@@ -0,0 +1,62 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch.subphase.highlight;
+
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tells the highlighters of a search request when to stop looking for passages in the text of a hit and return the fragments they
+ * found so far: once the search is cancelled, or once highlighting the hits of the request took longer than the timeout of the search.
+ * The fields that are highlighted after that are reported as {@link HighlightField#isTruncated() truncated} without any fragments.
+ */
+public final class HighlightBudget {
+
+    /**
+     * A budget that is never exceeded.
+     */
+    public static final HighlightBudget UNBOUNDED = new HighlightBudget(() -> false, TimeValue.MINUS_ONE);
+
+    private final BooleanSupplier cancelled;
+    private final boolean bounded;
+    private final long deadlineNanos;
+    private boolean exceeded;
+
+    /**
+     * Creates a budget that is exceeded once the given supplier returns {@code true} or the given timeout elapsed from now. A negative
+     * timeout means no timeout.
+     */
+    public HighlightBudget(BooleanSupplier cancelled, TimeValue timeout) {
+        this.cancelled = cancelled;
+        this.bounded = timeout.nanos() >= 0;
+        this.deadlineNanos = System.nanoTime() + timeout.nanos();
+    }
+
+    /**
+     * Returns whether highlighting should stop, which it should for the rest of the request once it should.
+     */
+    public boolean isExceeded() {
+        if (exceeded == false) {
+            exceeded = cancelled.getAsBoolean() || (bounded && System.nanoTime() - deadlineNanos > 0);
+        }
+        return exceeded;
+    }
+}
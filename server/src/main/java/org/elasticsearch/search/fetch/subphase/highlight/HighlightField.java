@@ -19,6 +19,7 @@
 
 package org.elasticsearch.search.fetch.subphase.highlight;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.ParsingException;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -45,6 +46,8 @@ public class HighlightField implements ToXContentFragment, Writeable {
 
     private Text[] fragments;
 
+    private boolean truncated;
+
     public HighlightField(StreamInput in) throws IOException {
         name = in.readString();
         if (in.readBoolean()) {
@@ -58,11 +61,19 @@ public class HighlightField implements ToXContentFragment, Writeable {
                 }
             }
         }
+        if (in.getVersion().onOrAfter(Version.V_7_7_1)) {
+            truncated = in.readBoolean();
+        }
     }
 
     public HighlightField(String name, Text[] fragments) {
+        this(name, fragments, false);
+    }
+
+    public HighlightField(String name, Text[] fragments, boolean truncated) {
         this.name = Objects.requireNonNull(name, "missing highlight field name");
         this.fragments = fragments;
+        this.truncated = truncated;
     }
 
     /**
@@ -93,9 +104,17 @@ public class HighlightField implements ToXContentFragment, Writeable {
         return fragments();
     }
 
+    /**
+     * Whether highlighting stopped before the whole field was highlighted, because the search was cancelled or timed out, in which case
+     * the fragments are the ones that were found until then.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
     @Override
     public String toString() {
-        return "[" + name + "], fragments[" + Arrays.toString(fragments) + "]";
+        return "[" + name + "], fragments[" + Arrays.toString(fragments) + "]" + (truncated ? ", truncated" : "");
     }
 
     @Override
@@ -110,6 +129,9 @@ public class HighlightField implements ToXContentFragment, Writeable {
                 out.writeText(fragment);
             }
         }
+        if (out.getVersion().onOrAfter(Version.V_7_7_1)) {
+            out.writeBoolean(truncated);
+        }
     }
 
     public static HighlightField fromXContent(XContentParser parser) throws IOException {
@@ -156,12 +178,12 @@ public class HighlightField implements ToXContentFragment, Writeable {
             return false;
         }
         HighlightField other = (HighlightField) obj;
-        return Objects.equals(name, other.name) && Arrays.equals(fragments, other.fragments);
+        return Objects.equals(name, other.name) && Arrays.equals(fragments, other.fragments) && truncated == other.truncated;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(name, Arrays.hashCode(fragments));
+        return Objects.hash(name, Arrays.hashCode(fragments), truncated);
     }
 
 }
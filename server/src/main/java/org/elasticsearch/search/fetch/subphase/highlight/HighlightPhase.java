@@ -21,6 +21,7 @@ package org.elasticsearch.search.fetch.subphase.highlight;
 
 import org.apache.lucene.search.Query;
 import org.elasticsearch.common.regex.Regex;
+import org.elasticsearch.common.text.Text;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.SourceFieldMapper;
@@ -47,13 +48,16 @@ public class HighlightPhase implements FetchSubPhase {
         if (context.highlight() == null) {
             return;
         }
-        hitExecute(context.shardTarget(), context.getQueryShardContext(), context.parsedQuery().query(), context.highlight(), hitContext);
+        context.highlight().profiled(context.getProfilers() != null);
+        hitExecute(context.shardTarget(), context.getQueryShardContext(), context.parsedQuery().query(), context.highlight(),
+            context.highlight().budget(context), hitContext);
     }
 
     public void hitExecute(SearchShardTarget shardTarget,
                            QueryShardContext context,
                            Query query,
                            SearchContextHighlight highlight,
+                           HighlightBudget budget,
                            HitContext hitContext) {
         Map<String, HighlightField> highlightFields = new HashMap<>();
         for (SearchContextHighlight.Field field : highlight.fields()) {
@@ -108,22 +112,38 @@ public class HighlightPhase implements FetchSubPhase {
                     highlightQuery = query;
                 }
                 HighlighterContext highlighterContext = new HighlighterContext(fieldType.name(),
-                    field, fieldType, shardTarget, context, highlight, hitContext, highlightQuery);
+                    field, fieldType, shardTarget, context, highlight, hitContext, highlightQuery, budget);
 
                 if ((highlighter.canHighlight(fieldType) == false) && fieldNameContainsWildcards) {
                     // if several fieldnames matched the wildcard then we want to skip those that we cannot highlight
                     continue;
                 }
-                HighlightField highlightField = highlighter.highlight(highlighterContext);
+                final HighlightField highlightField;
+                if (budget.isExceeded()) {
+                    // the search was cancelled or timed out, the fields left aren't highlighted at all
+                    highlightField = new HighlightField(fieldName, Text.EMPTY_ARRAY, true);
+                } else {
+                    highlightField = highlighter.highlight(highlighterContext);
+                }
                 if (highlightField != null) {
+                    if (highlightField.isTruncated()) {
+                        highlight.count("truncated_count", 1);
+                    }
                     // Note that we make sure to use the original field name in the response. This is because the
                     // original field could be an alias, and highlighter implementations may instead reference the
                     // concrete field it points to.
                     highlightFields.put(fieldName,
-                        new HighlightField(fieldName, highlightField.fragments()));
+                        new HighlightField(fieldName, highlightField.fragments(), highlightField.isTruncated()));
                 }
             }
         }
         hitContext.hit().highlightFields(highlightFields);
     }
+
+    @Override
+    public void profile(SearchContext context, Map<String, Long> breakdown) {
+        if (context.highlight() != null) {
+            context.highlight().profile(breakdown);
+        }
+    }
 }
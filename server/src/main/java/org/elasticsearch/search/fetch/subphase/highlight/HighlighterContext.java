@@ -34,6 +34,7 @@ public class HighlighterContext {
     public final SearchContextHighlight highlight;
     public final FetchSubPhase.HitContext hitContext;
     public final Query query;
+    public final HighlightBudget budget;
 
     public HighlighterContext(String fieldName,
                               SearchContextHighlight.Field field,
@@ -43,6 +44,18 @@ public class HighlighterContext {
                               SearchContextHighlight highlight,
                               FetchSubPhase.HitContext hitContext,
                               Query query) {
+        this(fieldName, field, fieldType, shardTarget, context, highlight, hitContext, query, HighlightBudget.UNBOUNDED);
+    }
+
+    public HighlighterContext(String fieldName,
+                              SearchContextHighlight.Field field,
+                              MappedFieldType fieldType,
+                              SearchShardTarget shardTarget,
+                              QueryShardContext context,
+                              SearchContextHighlight highlight,
+                              FetchSubPhase.HitContext hitContext,
+                              Query query,
+                              HighlightBudget budget) {
         this.fieldName = fieldName;
         this.field = field;
         this.fieldType = fieldType;
@@ -51,5 +64,6 @@ public class HighlighterContext {
         this.highlight = highlight;
         this.hitContext = hitContext;
         this.query = query;
+        this.budget = budget;
     }
 }
@@ -19,18 +19,21 @@
 package org.elasticsearch.search.fetch.subphase.highlight;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.search.highlight.Encoder;
 import org.apache.lucene.search.highlight.Formatter;
 import org.apache.lucene.search.highlight.Fragmenter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
 import org.apache.lucene.search.highlight.NullFragmenter;
 import org.apache.lucene.search.highlight.QueryScorer;
 import org.apache.lucene.search.highlight.SimpleFragmenter;
 import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
 import org.apache.lucene.search.highlight.SimpleSpanFragmenter;
 import org.apache.lucene.search.highlight.TextFragment;
+import org.apache.lucene.search.highlight.TextFragments;
 import org.apache.lucene.util.BytesRefHash;
 import org.apache.lucene.util.CollectionUtil;
 import org.elasticsearch.ExceptionsHelper;
@@ -46,6 +49,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -101,6 +105,9 @@ public class PlainHighlighter implements Highlighter {
         // a HACK to make highlighter do highlighting, even though its using the single frag list builder
         int numberOfFragments = field.fieldOptions().numberOfFragments() == 0 ? 1 : field.fieldOptions().numberOfFragments();
         ArrayList<TextFragment> fragsList = new ArrayList<>();
+        // the fragments that ended with the rest of a text that wasn't highlighted, without that rest
+        Map<TextFragment, String> truncatedFragments = new IdentityHashMap<>();
+        boolean truncated = false;
         List<Object> textsToHighlight;
         Analyzer analyzer = context.getMapperService().documentMapper(hitContext.hit().getType()).mappers().indexAnalyzer();
         Integer keywordIgnoreAbove = null;
@@ -116,6 +123,10 @@ public class PlainHighlighter implements Highlighter {
                 highlighterContext.highlight.forceSource(field));
 
             for (Object textToHighlight : textsToHighlight) {
+                if (highlighterContext.budget.isExceeded()) {
+                    truncated = true;
+                    break;
+                }
                 String text = convertFieldValue(fieldType, textToHighlight);
                 int textLength = text.length();
                 if (keywordIgnoreAbove != null  && textLength > keywordIgnoreAbove) {
@@ -136,11 +147,9 @@ public class PlainHighlighter implements Highlighter {
                         // can't perform highlighting if the stream has no terms (binary token stream) or no offsets
                         continue;
                     }
-                    TextFragment[] bestTextFragments = entry.getBestTextFragments(tokenStream, text, false, numberOfFragments);
-                    for (TextFragment bestTextFragment : bestTextFragments) {
-                        if (bestTextFragment != null && bestTextFragment.getScore() > 0) {
-                            fragsList.add(bestTextFragment);
-                        }
+                    if (highlightText(entry, encoder, tokenStream, text, numberOfFragments, highlighterContext.budget,
+                            fragsList, truncatedFragments)) {
+                        truncated = true;
                     }
                 }
             }
@@ -168,19 +177,19 @@ public class PlainHighlighter implements Highlighter {
         if (field.fieldOptions().numberOfFragments() == 0 && textsToHighlight.size() > 1 && fragsList.size() > 0) {
             fragments = new String[fragsList.size()];
             for (int i = 0; i < fragsList.size(); i++) {
-                fragments[i] = fragsList.get(i).toString();
+                fragments[i] = fragmentText(fragsList.get(i), truncatedFragments);
             }
         } else {
             // refine numberOfFragments if needed
             numberOfFragments = fragsList.size() < numberOfFragments ? fragsList.size() : numberOfFragments;
             fragments = new String[numberOfFragments];
             for (int i = 0; i < fragments.length; i++) {
-                fragments[i] = fragsList.get(i).toString();
+                fragments[i] = fragmentText(fragsList.get(i), truncatedFragments);
             }
         }
 
         if (fragments.length > 0) {
-            return new HighlightField(highlighterContext.fieldName, Text.convertFromStringArray(fragments));
+            return new HighlightField(highlighterContext.fieldName, Text.convertFromStringArray(fragments), truncated);
         }
 
         int noMatchSize = highlighterContext.field.fieldOptions().noMatchSize();
@@ -195,17 +204,95 @@ public class PlainHighlighter implements Highlighter {
                     "Failed to highlight field [" + highlighterContext.fieldName + "]", e);
             }
             if (end > 0) {
-                return new HighlightField(highlighterContext.fieldName, new Text[] { new Text(fieldContents.substring(0, end)) });
+                return new HighlightField(highlighterContext.fieldName, new Text[] { new Text(fieldContents.substring(0, end)) },
+                    truncated);
             }
         }
+        if (truncated) {
+            return new HighlightField(highlighterContext.fieldName, Text.EMPTY_ARRAY, true);
+        }
         return null;
     }
 
+    /**
+     * Adds the fragments of the given text that scored to {@code fragments}, and returns whether the budget was exceeded before the
+     * whole text was analyzed. The highlighter then appends the rest of the text to the last fragment of the text, which is put in
+     * {@code truncatedFragments} without it.
+     */
+    static boolean highlightText(org.apache.lucene.search.highlight.Highlighter highlighter, Encoder encoder, TokenStream tokenStream,
+                                 String text, int numberOfFragments, HighlightBudget budget, List<TextFragment> fragments,
+                                 Map<TextFragment, String> truncatedFragments) throws IOException, InvalidTokenOffsetsException {
+        BudgetTokenFilter budgetTokenFilter = new BudgetTokenFilter(tokenStream, budget);
+        TextFragment[] bestTextFragments = highlighter.getBestTextFragments(budgetTokenFilter, text, false, numberOfFragments);
+        String rest = null;
+        if (budgetTokenFilter.truncated && budgetTokenFilter.endOffset < text.length()) {
+            rest = encoder.encodeText(text.substring(budgetTokenFilter.endOffset));
+        }
+        for (TextFragment bestTextFragment : bestTextFragments) {
+            if (bestTextFragment != null && bestTextFragment.getScore() > 0) {
+                fragments.add(bestTextFragment);
+                if (rest != null && TextFragments.isLast(bestTextFragment)) {
+                    String fragment = bestTextFragment.toString();
+                    assert fragment.endsWith(rest) : "fragment [" + fragment + "] doesn't end with the rest of the text [" + rest + "]";
+                    truncatedFragments.put(bestTextFragment, fragment.substring(0, fragment.length() - rest.length()));
+                }
+            }
+        }
+        return budgetTokenFilter.truncated;
+    }
+
+    static String fragmentText(TextFragment fragment, Map<TextFragment, String> truncatedFragments) {
+        String text = truncatedFragments.get(fragment);
+        return text == null ? fragment.toString() : text;
+    }
+
     @Override
     public boolean canHighlight(MappedFieldType fieldType) {
         return true;
     }
 
+    /**
+     * Ends the token stream of a text once the highlighting budget is exceeded, so that the fragments found until then are returned.
+     */
+    private static final class BudgetTokenFilter extends TokenFilter {
+        // checking the budget for every token would slow analysis down
+        private static final int TOKENS_BETWEEN_CHECKS = 64;
+
+        private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+        private final HighlightBudget budget;
+        private int tokens;
+        private int endOffset;
+        private boolean truncated;
+
+        BudgetTokenFilter(TokenStream input, HighlightBudget budget) {
+            super(input);
+            this.budget = budget;
+        }
+
+        @Override
+        public boolean incrementToken() throws IOException {
+            if (++tokens % TOKENS_BETWEEN_CHECKS == 0 && budget.isExceeded()) {
+                truncated = true;
+                return false;
+            }
+            if (input.incrementToken() == false) {
+                return false;
+            }
+            endOffset = Math.max(endOffset, offsetAtt.endOffset());
+            return true;
+        }
+
+        @Override
+        public void end() throws IOException {
+            if (truncated) {
+                // the wrapped stream wasn't consumed up to its end, so it can't be ended
+                endAttributes();
+            } else {
+                super.end();
+            }
+        }
+    }
+
     private static int findGoodEndForNoHighlightExcerpt(int noMatchSize, Analyzer analyzer, String fieldName, String contents)
             throws IOException {
         try (TokenStream tokenStream = analyzer.tokenStream(fieldName, contents)) {
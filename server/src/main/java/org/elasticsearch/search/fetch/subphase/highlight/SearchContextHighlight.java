@@ -21,6 +21,7 @@ package org.elasticsearch.search.fetch.subphase.highlight;
 
 import org.apache.lucene.search.Query;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder.BoundaryScannerType;
+import org.elasticsearch.search.internal.SearchContext;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -29,6 +30,9 @@ import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public class SearchContextHighlight {
 
@@ -36,6 +40,12 @@ public class SearchContextHighlight {
 
     private boolean globalForceSource = false;
 
+    // what the highlighters did for the hits, which is only counted and reported when the request is profiled
+    private final ConcurrentMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private boolean profiled;
+
+    private HighlightBudget budget;
+
     public SearchContextHighlight(Collection<Field> fields) {
         assert fields != null;
         this.fields = new LinkedHashMap<String, Field>(fields.size());
@@ -65,6 +75,42 @@ public class SearchContextHighlight {
         return _field == null ? false : _field.fieldOptions.forceSource;
     }
 
+    /**
+     * Returns the budget of the highlighting of the hits of the given request, whose clock starts with the first highlighted hit.
+     */
+    public HighlightBudget budget(SearchContext context) {
+        if (budget == null) {
+            budget = new HighlightBudget(context::isCancelled, context.timeout());
+        }
+        return budget;
+    }
+
+    /**
+     * Sets whether the request is profiled, which the highlighters only count what they did for if it is.
+     */
+    public void profiled(boolean profiled) {
+        this.profiled = profiled;
+    }
+
+    public boolean profiled() {
+        return profiled;
+    }
+
+    /**
+     * Adds to the given count of what a highlighter did, if the request is profiled.
+     */
+    public void count(String name, long n) {
+        if (profiled && n != 0) {
+            counts.computeIfAbsent(name, k -> new LongAdder()).add(n);
+        }
+    }
+
+    void profile(Map<String, Long> breakdown) {
+        for (Map.Entry<String, LongAdder> count : counts.entrySet()) {
+            breakdown.put(count.getKey(), count.getValue().sum());
+        }
+    }
+
     public static class Field {
         private final String field;
         private final FieldOptions fieldOptions;
@@ -74,10 +74,15 @@ public class UnifiedHighlighter implements Highlighter {
         }
 
         List<Snippet> snippets = new ArrayList<>();
+        boolean truncated = false;
         int numberOfFragments = field.fieldOptions().numberOfFragments();
+        final HighlightAnalysisCache analysisCache = HighlightAnalysisCache.get(hitContext, context.getIndexSettings());
+        final long analysisCacheHits = analysisCache.cacheHits();
+        final long analysisBudgetExceeded = analysisCache.budgetExceeded();
         try {
-            final Analyzer analyzer = getAnalyzer(context.getMapperService().documentMapper(hitContext.hit().getType()),
-                    hitContext);
+            // the text may be analyzed when the field has neither offsets nor term vectors, or when the query needs it anyway
+            final Analyzer analyzer = analysisCache.wrap(
+                getAnalyzer(context.getMapperService().documentMapper(hitContext.hit().getType()), hitContext));
             List<Object> fieldValues = loadFieldValues(fieldType, field, context, hitContext,
                 highlighterContext.highlight.forceSource(field));
             if (fieldValues.size() == 0) {
@@ -108,14 +113,15 @@ public class UnifiedHighlighter implements Highlighter {
                 // get back a snippet per value
                 CustomSeparatorBreakIterator breakIterator = new CustomSeparatorBreakIterator(MULTIVAL_SEP_CHAR);
                 highlighter = new CustomUnifiedHighlighter(searcher, analyzer, offsetSource, passageFormatter,
-                    field.fieldOptions().boundaryScannerLocale(), breakIterator, fieldValue, field.fieldOptions().noMatchSize());
+                    field.fieldOptions().boundaryScannerLocale(), breakIterator, fieldValue, field.fieldOptions().noMatchSize(),
+                    highlighterContext.budget::isExceeded);
                 numberOfFragments = numberOfFragments == 0 ? fieldValues.size() : numberOfFragments;
             } else {
                 //using paragraph separator we make sure that each field value holds a discrete passage for highlighting
                 BreakIterator bi = getBreakIterator(field);
                 highlighter = new CustomUnifiedHighlighter(searcher, analyzer, offsetSource, passageFormatter,
                     field.fieldOptions().boundaryScannerLocale(), bi,
-                    fieldValue, field.fieldOptions().noMatchSize());
+                    fieldValue, field.fieldOptions().noMatchSize(), highlighterContext.budget::isExceeded);
                 numberOfFragments = field.fieldOptions().numberOfFragments();
             }
 
@@ -130,6 +136,16 @@ public class UnifiedHighlighter implements Highlighter {
 
             Snippet[] fieldSnippets = highlighter.highlightField(highlighterContext.fieldName,
                 highlighterContext.query, hitContext.docId(), numberOfFragments);
+            if (highlighterContext.highlight.profiled()) {
+                if (highlighter.getUsedOffsetSource() != null) {
+                    highlighterContext.highlight.count("offsets_" + highlighter.getUsedOffsetSource().name().toLowerCase(Locale.ROOT)
+                        + "_count", 1);
+                }
+                highlighterContext.highlight.count("analysis_cache_hit_count", analysisCache.cacheHits() - analysisCacheHits);
+                highlighterContext.highlight.count("analysis_budget_exceeded_count",
+                    analysisCache.budgetExceeded() - analysisBudgetExceeded);
+            }
+            truncated = highlighter.isTruncated() || analysisCache.budgetExceeded() > analysisBudgetExceeded;
             for (Snippet fieldSnippet : fieldSnippets) {
                 if (Strings.hasText(fieldSnippet.getText())) {
                     snippets.add(fieldSnippet);
@@ -150,8 +166,8 @@ public class UnifiedHighlighter implements Highlighter {
             fragments[i] = snippets.get(i).getText();
         }
 
-        if (fragments.length > 0) {
-            return new HighlightField(highlighterContext.fieldName, Text.convertFromStringArray(fragments));
+        if (fragments.length > 0 || truncated) {
+            return new HighlightField(highlighterContext.fieldName, Text.convertFromStringArray(fragments), truncated);
         }
         return null;
     }
@@ -47,6 +47,7 @@ import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.AliasFilterParsingException;
 import org.elasticsearch.indices.InvalidAliasNameException;
+import org.elasticsearch.search.SearchLane;
 import org.elasticsearch.search.SearchSortValuesAndFormats;
 import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
@@ -84,6 +85,7 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
 
     private boolean canReturnNullResponseIfMatchNoDocs;
     private SearchSortValuesAndFormats bottomSortValues;
+    private SearchLane lane;
 
     //these are the only mutable fields, as they are subject to rewriting
     private AliasFilter aliasFilter;
@@ -116,6 +118,7 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
         // If allowPartialSearchResults is unset (ie null), the cluster-level default should have been substituted
         // at this stage. Any NPEs in the above are therefore an error in request preparation logic.
         assert searchRequest.allowPartialSearchResults() != null;
+        this.lane = searchRequest.lane();
     }
 
     public ShardSearchRequest(ShardId shardId,
@@ -192,6 +195,11 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
             canReturnNullResponseIfMatchNoDocs = false;
             bottomSortValues = null;
         }
+        if (in.getVersion().onOrAfter(Version.V_7_7_1)) {
+            lane = in.readOptionalWriteable(SearchLane::readFrom);
+        } else {
+            lane = null;
+        }
         originalIndices = OriginalIndices.readOriginalIndices(in);
     }
 
@@ -212,6 +220,7 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
         this.preference = clone.preference;
         this.canReturnNullResponseIfMatchNoDocs = clone.canReturnNullResponseIfMatchNoDocs;
         this.bottomSortValues = clone.bottomSortValues;
+        this.lane = clone.lane;
         this.originalIndices = clone.originalIndices;
     }
 
@@ -253,6 +262,9 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
             out.writeBoolean(canReturnNullResponseIfMatchNoDocs);
             out.writeOptionalWriteable(bottomSortValues);
         }
+        if (out.getVersion().onOrAfter(Version.V_7_7_1) && asKey == false) {
+            out.writeOptionalWriteable(lane);
+        }
     }
 
     @Override
@@ -358,6 +370,19 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
         this.canReturnNullResponseIfMatchNoDocs = value;
     }
 
+    /**
+     * The lane of the search thread pool queue this request was explicitly assigned to, or <code>null</code> if the lane
+     * should be derived from the request, see {@link SearchLane#of(ShardSearchRequest)}.
+     */
+    @Nullable
+    public SearchLane lane() {
+        return lane;
+    }
+
+    public void lane(@Nullable SearchLane lane) {
+        this.lane = lane;
+    }
+
     /**
      * Returns the cache key for this shard search request, based on its content
      */
@@ -375,7 +400,7 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
 
     @Override
     public Task createTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers) {
-        return new SearchShardTask(id, type, action, getDescription(), parentTaskId, headers);
+        return new SearchShardTask(id, type, action, getDescription(), parentTaskId, headers, shardId());
     }
 
     @Override
@@ -21,14 +21,19 @@ package org.elasticsearch.search.lookup;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.SyntheticSource;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +43,9 @@ import static java.util.Collections.emptyMap;
 
 public class SourceLookup implements Map {
 
+    @Nullable
+    private final MapperService mapperService;
+
     private LeafReader reader;
 
     private int docId = -1;
@@ -46,6 +54,24 @@ public class SourceLookup implements Map {
     private Map<String, Object> source;
     private XContentType sourceContentType;
 
+    @Nullable
+    private SyntheticSource.Loader syntheticSourceLoader;
+
+    /**
+     * A lookup without a mapping, for sources that are {@link #setSource set} rather than loaded from a segment. Documents of a segment
+     * whose {@code _source} is synthetic look empty to it.
+     */
+    public SourceLookup() {
+        this(null);
+    }
+
+    /**
+     * @param mapperService used to rebuild the source of documents whose mapping has a synthetic {@code _source}, may be {@code null}
+     */
+    public SourceLookup(@Nullable MapperService mapperService) {
+        this.mapperService = mapperService;
+    }
+
     public Map<String, Object> source() {
         return source;
     }
@@ -68,6 +94,9 @@ public class SourceLookup implements Map {
             FieldsVisitor sourceFieldVisitor = new FieldsVisitor(true);
             reader.document(docId, sourceFieldVisitor);
             BytesReference source = sourceFieldVisitor.source();
+            if (source == null) {
+                source = loadSyntheticSource();
+            }
             if (source == null) {
                 this.source = emptyMap();
                 this.sourceContentType = null;
@@ -82,6 +111,24 @@ public class SourceLookup implements Map {
         return this.source;
     }
 
+    /**
+     * Rebuilds the source of the current document if its mapping has a synthetic {@code _source}. The doc values of the segment are
+     * reused across documents, so rebuilding the sources of documents in increasing doc id order is cheapest.
+     *
+     * @return the source as JSON, or {@code null} if the mapping stores its {@code _source} or this lookup has no mapping
+     */
+    @Nullable
+    public BytesReference loadSyntheticSource() throws IOException {
+        DocumentMapper mapper = mapperService == null ? null : mapperService.documentMapper();
+        if (mapper == null || mapper.sourceMapper().isSynthetic() == false) {
+            return null;
+        }
+        if (syntheticSourceLoader == null || syntheticSourceLoader.mapper() != mapper) {
+            syntheticSourceLoader = SyntheticSource.loader(mapper);
+        }
+        return syntheticSourceLoader.load(reader, docId);
+    }
+
     public static Tuple<XContentType, Map<String, Object>> sourceAsMapAndType(BytesReference source) throws ElasticsearchParseException {
         return XContentHelper.convertToMap(source, false);
     }
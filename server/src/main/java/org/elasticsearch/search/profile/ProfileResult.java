@@ -64,11 +64,19 @@ public final class ProfileResult implements Writeable, ToXContentObject {
     private final List<ProfileResult> children;
 
     public ProfileResult(String type, String description, Map<String, Long> timings, List<ProfileResult> children) {
+        this(type, description, timings, getTotalTime(timings), children);
+    }
+
+    /**
+     * Creates a result whose time is given explicitly instead of being the sum of its breakdown, for breakdowns that contain values
+     * other than timings, like counts.
+     */
+    public ProfileResult(String type, String description, Map<String, Long> timings, long nodeTime, List<ProfileResult> children) {
         this.type = type;
         this.description = description;
         this.timings = Objects.requireNonNull(timings, "required timings argument missing");
         this.children = children;
-        this.nodeTime = getTotalTime(timings);
+        this.nodeTime = nodeTime;
     }
 
     /**
@@ -174,6 +182,7 @@ public final class ProfileResult implements Writeable, ToXContentObject {
         ensureExpectedToken(XContentParser.Token.START_OBJECT, token, parser::getTokenLocation);
         String currentFieldName = null;
         String type = null, description = null;
+        Long nodeTime = null;
         Map<String, Long> timings =  new HashMap<>();
         List<ProfileResult> children = new ArrayList<>();
         while((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
@@ -188,8 +197,8 @@ public final class ProfileResult implements Writeable, ToXContentObject {
                     // skip, total time is calculate by adding up 'timings' values in ProfileResult ctor
                     parser.text();
                 } else if (NODE_TIME_RAW.match(currentFieldName, parser.getDeprecationHandler())) {
-                    // skip, total time is calculate by adding up 'timings' values in ProfileResult ctor
-                    parser.longValue();
+                    // the total time is not always the sum of the 'timings' values, see the fetch phase
+                    nodeTime = parser.longValue();
                 } else {
                     parser.skipChildren();
                 }
@@ -215,7 +224,7 @@ public final class ProfileResult implements Writeable, ToXContentObject {
                 }
             }
         }
-        return new ProfileResult(type, description, timings, children);
+        return new ProfileResult(type, description, timings, nodeTime != null ? nodeTime : getTotalTime(timings), children);
     }
 
     /**
@@ -50,6 +50,7 @@ public final class SearchProfileShardResults implements Writeable, ToXContentFra
     private static final String SEARCHES_FIELD = "searches";
     private static final String ID_FIELD = "id";
     private static final String SHARDS_FIELD = "shards";
+    private static final String FETCH_FIELD = "fetch";
     public static final String PROFILE_FIELD = "profile";
 
     private Map<String, ProfileShardResult> shardResults;
@@ -99,6 +100,10 @@ public final class SearchProfileShardResults implements Writeable, ToXContentFra
             }
             builder.endArray();
             profileShardResult.getAggregationProfileResults().toXContent(builder, params);
+            if (profileShardResult.getFetchProfileResult() != null) {
+                builder.field(FETCH_FIELD);
+                profileShardResult.getFetchProfileResult().toXContent(builder, params);
+            }
             builder.endObject();
         }
         builder.endArray().endObject();
@@ -131,6 +136,7 @@ public final class SearchProfileShardResults implements Writeable, ToXContentFra
         ensureExpectedToken(XContentParser.Token.START_OBJECT, token, parser::getTokenLocation);
         List<QueryProfileShardResult> queryProfileResults = new ArrayList<>();
         AggregationProfileShardResult aggProfileShardResult = null;
+        ProfileResult fetchProfileResult = null;
         String id = null;
         String currentFieldName = null;
         while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
@@ -152,11 +158,13 @@ public final class SearchProfileShardResults implements Writeable, ToXContentFra
                 } else {
                     parser.skipChildren();
                 }
+            } else if (token == XContentParser.Token.START_OBJECT && FETCH_FIELD.equals(currentFieldName)) {
+                fetchProfileResult = ProfileResult.fromXContent(parser);
             } else {
                 parser.skipChildren();
             }
         }
-        searchProfileResults.put(id, new ProfileShardResult(queryProfileResults, aggProfileShardResult));
+        searchProfileResults.put(id, new ProfileShardResult(queryProfileResults, aggProfileShardResult, fetchProfileResult));
     }
 
     /**
@@ -56,6 +56,7 @@ import org.elasticsearch.common.util.concurrent.QueueResizingEsThreadPoolExecuto
 import org.elasticsearch.index.IndexSortConfig;
 import org.elasticsearch.index.mapper.DateFieldMapper.DateFieldType;
 import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.monitor.NodeLoadProbe;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.SearchService;
@@ -144,6 +145,7 @@ public class QueryPhase implements SearchPhase {
             LOGGER.trace("{}", new SearchContextSourcePrinter(searchContext));
         }
 
+        final long startNanos = System.nanoTime();
         // Pre-process aggregations as late as possible. In the case of a DFS_Q_T_F
         // request, preProcess is called on the DFS phase phase, this is why we pre-process them
         // here to make sure it happens during the QUERY phase
@@ -161,6 +163,7 @@ public class QueryPhase implements SearchPhase {
                 .buildShardResults(searchContext.getProfilers());
             searchContext.queryResult().profileResults(shardResults);
         }
+        searchContext.queryResult().shardServiceTimeNanos(Math.max(1L, System.nanoTime() - startNanos));
     }
 
     /**
@@ -311,6 +314,8 @@ public class QueryPhase implements SearchPhase {
                     queryResult.nodeQueueSize(rExecutor.getCurrentQueueSize());
                     queryResult.serviceTimeEWMA((long) rExecutor.getTaskExecutionEWMA());
                 }
+                final NodeLoadProbe nodeLoadProbe = NodeLoadProbe.getInstance();
+                queryResult.nodeLoad(nodeLoadProbe.getCpuPercent(), nodeLoadProbe.getGcOverheadPercent());
                 return shouldRescore;
             } finally {
                 // Search phase has finished, no longer need to check for timeout
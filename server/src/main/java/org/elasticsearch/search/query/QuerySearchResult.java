@@ -70,6 +70,9 @@ public final class QuerySearchResult extends SearchPhaseResult {
     private boolean hasProfileResults;
     private long serviceTimeEWMA = -1;
     private int nodeQueueSize = -1;
+    private long shardServiceTimeNanos = -1;
+    private int nodeCpuPercent = -1;
+    private int nodeGcOverheadPercent = -1;
 
     private final boolean isNull;
 
@@ -295,6 +298,38 @@ public final class QuerySearchResult extends SearchPhaseResult {
         return this;
     }
 
+    /**
+     * The time it took to execute the query phase on this shard, or -1 if unknown.
+     */
+    public long shardServiceTimeNanos() {
+        return this.shardServiceTimeNanos;
+    }
+
+    public QuerySearchResult shardServiceTimeNanos(long shardServiceTimeNanos) {
+        this.shardServiceTimeNanos = shardServiceTimeNanos;
+        return this;
+    }
+
+    /**
+     * The CPU usage of the node that executed the query in percent, or -1 if unknown.
+     */
+    public int nodeCpuPercent() {
+        return this.nodeCpuPercent;
+    }
+
+    /**
+     * The percentage of time the node that executed the query recently spent collecting garbage, or -1 if unknown.
+     */
+    public int nodeGcOverheadPercent() {
+        return this.nodeGcOverheadPercent;
+    }
+
+    public QuerySearchResult nodeLoad(int nodeCpuPercent, int nodeGcOverheadPercent) {
+        this.nodeCpuPercent = nodeCpuPercent;
+        this.nodeGcOverheadPercent = nodeGcOverheadPercent;
+        return this;
+    }
+
     /**
      * Returns <code>true</code> if this result has any suggest score docs
      */
@@ -362,6 +397,11 @@ public final class QuerySearchResult extends SearchPhaseResult {
             serviceTimeEWMA = -1;
             nodeQueueSize = -1;
         }
+        if (in.getVersion().onOrAfter(Version.V_7_7_1)) {
+            shardServiceTimeNanos = in.readZLong();
+            nodeCpuPercent = in.readInt();
+            nodeGcOverheadPercent = in.readInt();
+        }
     }
 
     @Override
@@ -435,6 +475,11 @@ public final class QuerySearchResult extends SearchPhaseResult {
             out.writeZLong(serviceTimeEWMA);
             out.writeInt(nodeQueueSize);
         }
+        if (out.getVersion().onOrAfter(Version.V_7_7_1)) {
+            out.writeZLong(shardServiceTimeNanos);
+            out.writeInt(nodeCpuPercent);
+            out.writeInt(nodeGcOverheadPercent);
+        }
     }
 
     public TotalHits getTotalHits() {
@@ -68,6 +68,7 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.snapshot.SnapshotDirectoryFactory;
 import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.Repository;
@@ -264,6 +265,9 @@ public class RestoreService implements ClusterStateApplier {
                                 IndexMetaData snapshotIndexMetaData = metaData.index(index);
                                 snapshotIndexMetaData = updateIndexSettings(snapshotIndexMetaData,
                                     request.indexSettings(), request.ignoreIndexSettings());
+                                if (SnapshotDirectoryFactory.isSnapshotStore(snapshotIndexMetaData.getSettings())) {
+                                    snapshotIndexMetaData = addSnapshotStoreSettings(snapshotIndexMetaData, recoverySource.index());
+                                }
                                 try {
                                     snapshotIndexMetaData = metaDataIndexUpgradeService.upgradeIndexMetaData(snapshotIndexMetaData,
                                         minIndexCompatibilityVersion);
@@ -461,6 +465,11 @@ public class RestoreService implements ClusterStateApplier {
                                 "with same name already exists in the cluster. Either close or delete the existing index or restore the " +
                                 "index under a different name by providing a rename pattern and replacement name");
                         }
+                        // Index exist - its files must be copied, they cannot be read lazily from the snapshot
+                        if (SnapshotDirectoryFactory.isSnapshotStore(snapshotIndexMetaData.getSettings())) {
+                            throw new SnapshotRestoreException(snapshot, "cannot restore index [" + renamedIndex + "] with store type ["
+                                + SnapshotDirectoryFactory.SNAPSHOT_STORE_TYPE + "] because such index already exists");
+                        }
                         // Index exist - checking if it's partial restore
                         if (partial) {
                             throw new SnapshotRestoreException(snapshot, "cannot restore partial index [" + renamedIndex
@@ -529,6 +538,20 @@ public class RestoreService implements ClusterStateApplier {
                         return builder.settings(settingsBuilder).build();
                     }
 
+                    /**
+                     * Points the settings of an index that is restored lazily, see {@link SnapshotDirectoryFactory}, to the index in the
+                     * snapshot that its files are read from.
+                     */
+                    private IndexMetaData addSnapshotStoreSettings(IndexMetaData indexMetaData, IndexId indexId) {
+                        return IndexMetaData.builder(indexMetaData).settings(Settings.builder()
+                            .put(indexMetaData.getSettings())
+                            .put(SnapshotDirectoryFactory.SNAPSHOT_REPOSITORY_SETTING.getKey(), snapshot.getRepository())
+                            .put(SnapshotDirectoryFactory.SNAPSHOT_SNAPSHOT_NAME_SETTING.getKey(), snapshotId.getName())
+                            .put(SnapshotDirectoryFactory.SNAPSHOT_SNAPSHOT_UUID_SETTING.getKey(), snapshotId.getUUID())
+                            .put(SnapshotDirectoryFactory.SNAPSHOT_INDEX_NAME_SETTING.getKey(), indexId.getName())
+                            .put(SnapshotDirectoryFactory.SNAPSHOT_INDEX_ID_SETTING.getKey(), indexId.getId())).build();
+                    }
+
                     @Override
                     public void onFailure(String source, Exception e) {
                         logger.warn(() -> new ParameterizedMessage("[{}] failed to restore snapshot", snapshotId), e);
@@ -68,6 +68,7 @@ import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.snapshots.IndexShardSnapshotStatus;
+import org.elasticsearch.index.store.snapshot.SnapshotDirectoryFactory;
 import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.Repository;
@@ -75,6 +76,7 @@ import org.elasticsearch.repositories.RepositoryData;
 import org.elasticsearch.repositories.RepositoryException;
 import org.elasticsearch.repositories.RepositoryMissingException;
 import org.elasticsearch.repositories.ShardGenerations;
+import org.elasticsearch.repositories.SnapshotDeletionProgress;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
@@ -830,7 +832,8 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
         if (deletionsInProgress != null && deletionsInProgress.hasDeletionsInProgress()) {
             assert deletionsInProgress.getEntries().size() == 1 : "only one in-progress deletion allowed per cluster";
             SnapshotDeletionsInProgress.Entry entry = deletionsInProgress.getEntries().get(0);
-            deleteSnapshotFromRepository(entry.getSnapshot(), null, entry.repositoryStateId(), state.nodes().getMinNodeVersion());
+            deleteSnapshotFromRepository(entry.getSnapshot(), new SnapshotDeletionProgress(), null, entry.repositoryStateId(),
+                state.nodes().getMinNodeVersion());
         }
     }
 
@@ -889,7 +892,7 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
                         entries.add(updatedSnapshot);
 
                         // Clean up the snapshot that failed to start from the old master
-                        deleteSnapshot(snapshot.snapshot(), new ActionListener<Void>() {
+                        deleteSnapshot(snapshot.snapshot(), new SnapshotDeletionProgress(), new ActionListener<Void>() {
                             @Override
                             public void onResponse(Void aVoid) {
                                 logger.debug("cleaned up abandoned snapshot {} in INIT state", snapshot.snapshot());
@@ -1224,6 +1227,20 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
      */
     public void deleteSnapshot(final String repositoryName, final String snapshotName, final ActionListener<Void> listener,
                                final boolean immediatePriority) {
+        deleteSnapshot(repositoryName, snapshotName, new SnapshotDeletionProgress(), listener, immediatePriority);
+    }
+
+    /**
+     * Deletes a snapshot from the repository, looking up the {@link Snapshot} reference before deleting.
+     * If the snapshot is still running cancels the snapshot first and then deletes it from the repository.
+     *
+     * @param repositoryName  repositoryName
+     * @param snapshotName    snapshotName
+     * @param progress        progress of the deletion, updated by the repository
+     * @param listener        listener
+     */
+    public void deleteSnapshot(final String repositoryName, final String snapshotName, final SnapshotDeletionProgress progress,
+                               final ActionListener<Void> listener, final boolean immediatePriority) {
         // First, look for the snapshot in the repository
         final Repository repository = repositoriesService.repository(repositoryName);
         repository.getRepositoryData(ActionListener.wrap(repositoryData -> {
@@ -1246,7 +1263,7 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
             if (matchedEntry.isPresent() == false) {
                 throw new SnapshotMissingException(repositoryName, snapshotName);
             }
-            deleteSnapshot(new Snapshot(repositoryName, matchedEntry.get()), listener, repoGenId, immediatePriority);
+            deleteSnapshot(new Snapshot(repositoryName, matchedEntry.get()), progress, listener, repoGenId, immediatePriority);
         }, listener::onFailure));
     }
 
@@ -1256,11 +1273,12 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
      * If the snapshot is still running cancels the snapshot first and then deletes it from the repository.
      *
      * @param snapshot snapshot
+     * @param progress progress of the deletion
      * @param listener listener
      * @param repositoryStateId the unique id for the state of the repository
      */
-    private void deleteSnapshot(final Snapshot snapshot, final ActionListener<Void> listener, final long repositoryStateId,
-                                final boolean immediatePriority) {
+    private void deleteSnapshot(final Snapshot snapshot, final SnapshotDeletionProgress progress, final ActionListener<Void> listener,
+                                final long repositoryStateId, final boolean immediatePriority) {
         logger.info("deleting snapshot [{}]", snapshot);
         Priority priority = immediatePriority ? Priority.IMMEDIATE : Priority.NORMAL;
         clusterService.submitStateUpdateTask("delete snapshot", new ClusterStateUpdateTask(priority) {
@@ -1292,6 +1310,12 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
                         }
                     }
                 }
+                // the shards of indices with the snapshot store type read their files from the snapshot for as long as they exist
+                final Set<String> mountedIndices = indicesMountedFromSnapshot(currentState, snapshot);
+                if (mountedIndices.isEmpty() == false) {
+                    throw new IllegalArgumentException("cannot delete snapshot [" + snapshot + "] because indices " + mountedIndices
+                        + " with store type [" + SnapshotDirectoryFactory.SNAPSHOT_STORE_TYPE + "] read their files from it");
+                }
                 ClusterState.Builder clusterStateBuilder = ClusterState.builder(currentState);
                 SnapshotsInProgress snapshots = currentState.custom(SnapshotsInProgress.TYPE);
                 SnapshotsInProgress.Entry snapshotEntry = snapshots != null ? snapshots.snapshot(snapshot) : null;
@@ -1382,7 +1406,8 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
                             logger.debug("deleted snapshot completed - deleting files");
                             threadPool.executor(ThreadPool.Names.SNAPSHOT).execute(() -> {
                                     try {
-                                        deleteSnapshot(snapshot.getRepository(), snapshot.getSnapshotId().getName(), listener, true);
+                                        deleteSnapshot(snapshot.getRepository(), snapshot.getSnapshotId().getName(), progress, listener,
+                                            true);
                                     } catch (Exception ex) {
                                         logger.warn(() -> new ParameterizedMessage("[{}] failed to delete snapshot", snapshot), ex);
                                     }
@@ -1393,7 +1418,7 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
                             logger.warn("deleted snapshot failed - deleting files", e);
                             threadPool.executor(ThreadPool.Names.SNAPSHOT).execute(() -> {
                                 try {
-                                    deleteSnapshot(snapshot.getRepository(), snapshot.getSnapshotId().getName(), listener, true);
+                                    deleteSnapshot(snapshot.getRepository(), snapshot.getSnapshotId().getName(), progress, listener, true);
                                 } catch (SnapshotMissingException smex) {
                                     logger.info(() -> new ParameterizedMessage(
                                         "Tried deleting in-progress snapshot [{}], but it could not be found after failing to abort.",
@@ -1407,7 +1432,7 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
                     ));
                 } else {
                     logger.debug("deleted snapshot is not running - deleting files");
-                    deleteSnapshotFromRepository(snapshot, listener, repositoryStateId, newState.nodes().getMinNodeVersion());
+                    deleteSnapshotFromRepository(snapshot, progress, listener, repositoryStateId, newState.nodes().getMinNodeVersion());
                 }
             }
         });
@@ -1506,17 +1531,35 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
      * Deletes snapshot from repository
      *
      * @param snapshot   snapshot
+     * @param progress   progress of the deletion
      * @param listener   listener
      * @param repositoryStateId the unique id representing the state of the repository at the time the deletion began
      * @param minNodeVersion minimum node version in the cluster
      */
-    private void deleteSnapshotFromRepository(Snapshot snapshot, @Nullable ActionListener<Void> listener, long repositoryStateId,
-                                              Version minNodeVersion) {
+    /**
+     * Returns the names of the indices, open or closed, that are restored lazily from the given snapshot.
+     */
+    private static Set<String> indicesMountedFromSnapshot(ClusterState state, Snapshot snapshot) {
+        final Set<String> indices = new HashSet<>();
+        for (ObjectCursor<IndexMetaData> cursor : state.metaData().indices().values()) {
+            final Settings indexSettings = cursor.value.getSettings();
+            if (SnapshotDirectoryFactory.isSnapshotStore(indexSettings)
+                && snapshot.getRepository().equals(SnapshotDirectoryFactory.SNAPSHOT_REPOSITORY_SETTING.get(indexSettings))
+                && snapshot.getSnapshotId().getUUID().equals(SnapshotDirectoryFactory.SNAPSHOT_SNAPSHOT_UUID_SETTING.get(indexSettings))) {
+                indices.add(cursor.value.getIndex().getName());
+            }
+        }
+        return indices;
+    }
+
+    private void deleteSnapshotFromRepository(Snapshot snapshot, SnapshotDeletionProgress progress,
+                                              @Nullable ActionListener<Void> listener, long repositoryStateId, Version minNodeVersion) {
         threadPool.executor(ThreadPool.Names.SNAPSHOT).execute(ActionRunnable.wrap(listener, l -> {
             Repository repository = repositoriesService.repository(snapshot.getRepository());
             repository.getRepositoryData(ActionListener.wrap(repositoryData -> repository.deleteSnapshot(snapshot.getSnapshotId(),
                 repositoryStateId,
                 minCompatibleVersion(minNodeVersion, snapshot.getRepository(), repositoryData, snapshot.getSnapshotId()),
+                progress,
                 ActionListener.wrap(v -> {
                         logger.info("snapshot [{}] deleted", snapshot);
                         removeSnapshotDeletionFromClusterState(snapshot, null, l);
@@ -23,22 +23,29 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.SizeValue;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.MultiLaneBlockingQueue;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.node.Node;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 
 /**
  * A builder for executors that automatically adjust the queue length as needed, depending on
  * Little's Law. See https://en.wikipedia.org/wiki/Little's_law for more information.
+ *
+ * The executor can optionally queue tasks in weighted lanes, see {@link MultiLaneBlockingQueue}, in which case the weight of each lane
+ * is configured with {@code thread_pool.<name>.lanes.<lane>.weight}.
  */
 public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<AutoQueueAdjustingExecutorBuilder.AutoExecutorSettings> {
 
@@ -48,11 +55,24 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
     private final Setting<Integer> maxQueueSizeSetting;
     private final Setting<TimeValue> targetedResponseTimeSetting;
     private final Setting<Integer> frameSizeSetting;
+    private final String[] laneNames;
+    private final List<Setting<Integer>> laneWeightSettings;
 
     AutoQueueAdjustingExecutorBuilder(final Settings settings, final String name, final int size,
                                       final int initialQueueSize, final int minQueueSize,
                                       final int maxQueueSize, final int frameSize) {
+        this(settings, name, size, initialQueueSize, minQueueSize, maxQueueSize, frameSize, new String[0], new int[0]);
+    }
+
+    AutoQueueAdjustingExecutorBuilder(final Settings settings, final String name, final int size,
+                                      final int initialQueueSize, final int minQueueSize,
+                                      final int maxQueueSize, final int frameSize,
+                                      final String[] laneNames, final int[] defaultLaneWeights) {
         super(name);
+        if (laneNames.length != defaultLaneWeights.length) {
+            throw new IllegalArgumentException("expected one weight per lane for [" + name + "] but got lanes " + laneNames.length
+                + " and weights " + defaultLaneWeights.length);
+        }
         final String prefix = "thread_pool." + name;
         final String sizeKey = settingsKey(prefix, "size");
         this.sizeSetting =
@@ -131,12 +151,21 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
                 Setting.Property.NodeScope, Setting.Property.Deprecated);
         this.frameSizeSetting = Setting.intSetting(frameSizeKey, frameSize, 100, Setting.Property.NodeScope, Setting.Property.Deprecated,
             Setting.Property.Deprecated);
+        this.laneNames = laneNames.clone();
+        final List<Setting<Integer>> laneWeightSettings = new ArrayList<>(laneNames.length);
+        for (int i = 0; i < laneNames.length; i++) {
+            final String laneWeightKey = settingsKey(prefix, "lanes." + laneNames[i] + ".weight");
+            laneWeightSettings.add(Setting.intSetting(laneWeightKey, defaultLaneWeights[i], 1, Setting.Property.NodeScope));
+        }
+        this.laneWeightSettings = Collections.unmodifiableList(laneWeightSettings);
     }
 
     @Override
     public List<Setting<?>> getRegisteredSettings() {
-        return Arrays.asList(sizeSetting, queueSizeSetting, minQueueSizeSetting,
-                maxQueueSizeSetting, frameSizeSetting, targetedResponseTimeSetting);
+        final List<Setting<?>> settings = new ArrayList<>(Arrays.asList(sizeSetting, queueSizeSetting, minQueueSizeSetting,
+                maxQueueSizeSetting, frameSizeSetting, targetedResponseTimeSetting));
+        settings.addAll(laneWeightSettings);
+        return Collections.unmodifiableList(settings);
     }
 
     @Override
@@ -148,7 +177,12 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
         final int maxQueueSize = maxQueueSizeSetting.get(settings);
         final int frameSize = frameSizeSetting.get(settings);
         final TimeValue targetedResponseTime = targetedResponseTimeSetting.get(settings);
-        return new AutoExecutorSettings(nodeName, size, initialQueueSize, minQueueSize, maxQueueSize, frameSize, targetedResponseTime);
+        final int[] laneWeights = new int[laneWeightSettings.size()];
+        for (int i = 0; i < laneWeights.length; i++) {
+            laneWeights[i] = laneWeightSettings.get(i).get(settings);
+        }
+        return new AutoExecutorSettings(nodeName, size, initialQueueSize, minQueueSize, maxQueueSize, frameSize, targetedResponseTime,
+            laneWeights);
     }
 
     @Override
@@ -161,6 +195,8 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
         int frameSize = settings.frameSize;
         TimeValue targetedResponseTime = settings.targetedResponseTime;
         final ThreadFactory threadFactory = EsExecutors.daemonThreadFactory(EsExecutors.threadName(settings.nodeName, name()));
+        final MultiLaneBlockingQueue lanes = laneNames.length == 0 ? null : new MultiLaneBlockingQueue(laneNames, settings.laneWeights);
+        final BlockingQueue<Runnable> unboundedQueue = lanes == null ? ConcurrentCollections.newBlockingQueue() : lanes;
         final ExecutorService executor =
                 EsExecutors.newAutoQueueFixed(
                         settings.nodeName + "/" + name(),
@@ -170,13 +206,14 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
                         maxQueueSize,
                         frameSize,
                         targetedResponseTime,
+                        unboundedQueue,
                         threadFactory,
                         threadContext);
         // TODO: in a subsequent change we hope to extend ThreadPool.Info to be more specific for the thread pool type
         final ThreadPool.Info info =
             new ThreadPool.Info(name(), ThreadPool.ThreadPoolType.FIXED_AUTO_QUEUE_SIZE,
                     size, size, null, new SizeValue(initialQueueSize));
-        return new ThreadPool.ExecutorHolder(executor, info);
+        return new ThreadPool.ExecutorHolder(executor, info, lanes);
     }
 
     @Override
@@ -197,10 +234,11 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
         final int maxQueueSize;
         final int frameSize;
         final TimeValue targetedResponseTime;
+        final int[] laneWeights;
 
         AutoExecutorSettings(final String nodeName, final int size, final int initialQueueSize,
                              final int minQueueSize, final int maxQueueSize, final int frameSize,
-                             final TimeValue targetedResponseTime) {
+                             final TimeValue targetedResponseTime, final int[] laneWeights) {
             super(nodeName);
             this.size = size;
             this.initialQueueSize = initialQueueSize;
@@ -208,6 +246,7 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
             this.maxQueueSize = maxQueueSize;
             this.frameSize = frameSize;
             this.targetedResponseTime = targetedResponseTime;
+            this.laneWeights = laneWeights;
         }
 
     }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.threadpool;
+
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.node.Node;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A builder for executors of tasks that mostly block on I/O, see {@link org.elasticsearch.common.util.concurrent.EsBlockingTaskExecutor}.
+ * The number of tasks that run at the same time is bounded by the {@code max_concurrency} setting rather than by a number of threads
+ * that are kept around. Tasks run on virtual threads if the JVM supports them and they are not disabled with the {@code virtual_threads}
+ * setting, and on regular daemon threads otherwise.
+ * <p>
+ * The {@code core}, {@code max} and {@code keep_alive} settings of the scaling pools that this type replaced are still accepted but
+ * deprecated. {@code max} is the default of {@code max_concurrency}, the two others have no effect.
+ */
+public final class BlockingExecutorBuilder extends ExecutorBuilder<BlockingExecutorBuilder.BlockingExecutorSettings> {
+
+    private final Setting<Boolean> virtualThreadsSetting;
+    private final Setting<Integer> maxConcurrencySetting;
+    private final Setting<Integer> coreSetting;
+    private final Setting<Integer> maxSetting;
+    private final Setting<TimeValue> keepAliveSetting;
+
+    /**
+     * Construct a blocking executor builder; the settings will have the
+     * key prefix "thread_pool." followed by the executor name.
+     *
+     * @param name           the name of the executor
+     * @param maxConcurrency the maximum number of tasks that run at the
+     *                       same time
+     */
+    public BlockingExecutorBuilder(final String name, final int maxConcurrency) {
+        this(name, maxConcurrency, "thread_pool." + name);
+    }
+
+    /**
+     * Construct a blocking executor builder; the settings will have the
+     * specified key prefix.
+     *
+     * @param name           the name of the executor
+     * @param maxConcurrency the maximum number of tasks that run at the
+     *                       same time
+     * @param prefix         the prefix for the settings keys
+     */
+    public BlockingExecutorBuilder(final String name, final int maxConcurrency, final String prefix) {
+        super(name);
+        this.virtualThreadsSetting =
+            Setting.boolSetting(settingsKey(prefix, "virtual_threads"), true, Setting.Property.NodeScope);
+        this.coreSetting =
+            Setting.intSetting(settingsKey(prefix, "core"), 0, Setting.Property.NodeScope, Setting.Property.Deprecated);
+        this.maxSetting =
+            Setting.intSetting(settingsKey(prefix, "max"), maxConcurrency, 1, Setting.Property.NodeScope, Setting.Property.Deprecated);
+        this.maxConcurrencySetting =
+            Setting.intSetting(settingsKey(prefix, "max_concurrency"), maxSetting, 1, Setting.Property.NodeScope);
+        this.keepAliveSetting = Setting.timeSetting(settingsKey(prefix, "keep_alive"), TimeValue.timeValueMinutes(5),
+            Setting.Property.NodeScope, Setting.Property.Deprecated);
+    }
+
+    @Override
+    public List<Setting<?>> getRegisteredSettings() {
+        return Arrays.asList(virtualThreadsSetting, maxConcurrencySetting, coreSetting, maxSetting, keepAliveSetting);
+    }
+
+    @Override
+    BlockingExecutorSettings getSettings(Settings settings) {
+        final String nodeName = Node.NODE_NAME_SETTING.get(settings);
+        final boolean virtualThreads = virtualThreadsSetting.get(settings) && EsExecutors.virtualThreadsSupported();
+        final int maxConcurrency = maxConcurrencySetting.get(settings);
+        return new BlockingExecutorSettings(nodeName, virtualThreads, maxConcurrency);
+    }
+
+    ThreadPool.ExecutorHolder build(final BlockingExecutorSettings settings, final ThreadContext threadContext) {
+        final ThreadPool.Info info = new ThreadPool.Info(name(), ThreadPool.ThreadPoolType.BLOCKING, settings.maxConcurrency);
+        final String threadName = EsExecutors.threadName(settings.nodeName, name());
+        final ThreadFactory threadFactory = settings.virtualThreads
+            ? EsExecutors.virtualThreadFactory(threadName)
+            : EsExecutors.daemonThreadFactory(threadName);
+        final ExecutorService executor =
+            EsExecutors.newBlocking(settings.nodeName + "/" + name(), settings.maxConcurrency, threadFactory, threadContext);
+        return new ThreadPool.ExecutorHolder(executor, info);
+    }
+
+    @Override
+    String formatInfo(ThreadPool.Info info) {
+        return String.format(Locale.ROOT, "name [%s], max concurrency [%d]", info.getName(), info.getMax());
+    }
+
+    static class BlockingExecutorSettings extends ExecutorBuilder.ExecutorSettings {
+
+        private final boolean virtualThreads;
+        private final int maxConcurrency;
+
+        BlockingExecutorSettings(final String nodeName, final boolean virtualThreads, final int maxConcurrency) {
+            super(nodeName);
+            this.virtualThreads = virtualThreads;
+            this.maxConcurrency = maxConcurrency;
+        }
+    }
+
+}
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.threadpool;
 
+import org.HdrHistogram.Histogram;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
@@ -31,19 +32,25 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.SizeValue;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsBlockingTaskExecutor;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.MultiLaneBlockingQueue;
+import org.elasticsearch.common.util.concurrent.TaskLatencyRecorder;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.common.util.concurrent.XRejectedExecutionHandler;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.node.Node;
+import org.elasticsearch.search.SearchLane;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -86,7 +93,8 @@ public class ThreadPool implements Scheduler {
         DIRECT("direct"),
         FIXED("fixed"),
         FIXED_AUTO_QUEUE_SIZE("fixed_auto_queue_size"),
-        SCALING("scaling");
+        SCALING("scaling"),
+        BLOCKING("blocking");
 
         private final String type;
 
@@ -132,10 +140,10 @@ public class ThreadPool implements Scheduler {
         map.put(Names.FLUSH, ThreadPoolType.SCALING);
         map.put(Names.REFRESH, ThreadPoolType.SCALING);
         map.put(Names.WARMER, ThreadPoolType.SCALING);
-        map.put(Names.SNAPSHOT, ThreadPoolType.SCALING);
+        map.put(Names.SNAPSHOT, ThreadPoolType.BLOCKING);
         map.put(Names.FORCE_MERGE, ThreadPoolType.FIXED);
         map.put(Names.FETCH_SHARD_STARTED, ThreadPoolType.SCALING);
-        map.put(Names.FETCH_SHARD_STORE, ThreadPoolType.SCALING);
+        map.put(Names.FETCH_SHARD_STORE, ThreadPoolType.BLOCKING);
         map.put(Names.SEARCH_THROTTLED, ThreadPoolType.FIXED_AUTO_QUEUE_SIZE);
         THREAD_POOL_TYPES = Collections.unmodifiableMap(map);
     }
@@ -170,12 +178,14 @@ public class ThreadPool implements Scheduler {
         final int halfProcMaxAt5 = halfNumberOfProcessorsMaxFive(availableProcessors);
         final int halfProcMaxAt10 = halfNumberOfProcessorsMaxTen(availableProcessors);
         final int genericThreadPoolMax = boundedBy(4 * availableProcessors, 128, 512);
+        final int ioMaxConcurrency = boundedBy(4 * availableProcessors, 16, 128);
         builders.put(Names.GENERIC, new ScalingExecutorBuilder(Names.GENERIC, 4, genericThreadPoolMax, TimeValue.timeValueSeconds(30)));
         builders.put(Names.WRITE, new FixedExecutorBuilder(settings, Names.WRITE, availableProcessors, 200));
         builders.put(Names.GET, new FixedExecutorBuilder(settings, Names.GET, availableProcessors, 1000));
         builders.put(Names.ANALYZE, new FixedExecutorBuilder(settings, Names.ANALYZE, 1, 16));
         builders.put(Names.SEARCH, new AutoQueueAdjustingExecutorBuilder(settings,
-                        Names.SEARCH, searchThreadPoolSize(availableProcessors), 1000, 1000, 1000, 2000));
+                        Names.SEARCH, searchThreadPoolSize(availableProcessors), 1000, 1000, 1000, 2000,
+                        searchLaneNames(), searchLaneWeights()));
         builders.put(Names.SEARCH_THROTTLED, new AutoQueueAdjustingExecutorBuilder(settings,
             Names.SEARCH_THROTTLED, 1, 100, 100, 100, 200));
         builders.put(Names.MANAGEMENT, new ScalingExecutorBuilder(Names.MANAGEMENT, 1, 5, TimeValue.timeValueMinutes(5)));
@@ -185,12 +195,11 @@ public class ThreadPool implements Scheduler {
         builders.put(Names.FLUSH, new ScalingExecutorBuilder(Names.FLUSH, 1, halfProcMaxAt5, TimeValue.timeValueMinutes(5)));
         builders.put(Names.REFRESH, new ScalingExecutorBuilder(Names.REFRESH, 1, halfProcMaxAt10, TimeValue.timeValueMinutes(5)));
         builders.put(Names.WARMER, new ScalingExecutorBuilder(Names.WARMER, 1, halfProcMaxAt5, TimeValue.timeValueMinutes(5)));
-        builders.put(Names.SNAPSHOT, new ScalingExecutorBuilder(Names.SNAPSHOT, 1, halfProcMaxAt5, TimeValue.timeValueMinutes(5)));
+        builders.put(Names.SNAPSHOT, new BlockingExecutorBuilder(Names.SNAPSHOT, ioMaxConcurrency));
         builders.put(Names.FETCH_SHARD_STARTED,
                 new ScalingExecutorBuilder(Names.FETCH_SHARD_STARTED, 1, 2 * availableProcessors, TimeValue.timeValueMinutes(5)));
         builders.put(Names.FORCE_MERGE, new FixedExecutorBuilder(settings, Names.FORCE_MERGE, 1, -1));
-        builders.put(Names.FETCH_SHARD_STORE,
-                new ScalingExecutorBuilder(Names.FETCH_SHARD_STORE, 1, 2 * availableProcessors, TimeValue.timeValueMinutes(5)));
+        builders.put(Names.FETCH_SHARD_STORE, new BlockingExecutorBuilder(Names.FETCH_SHARD_STORE, ioMaxConcurrency));
         for (final ExecutorBuilder<?> builder : customBuilders) {
             if (builders.containsKey(builder.name())) {
                 throw new IllegalArgumentException("builder with name [" + builder.name() + "] already exists");
@@ -297,12 +306,52 @@ public class ThreadPool implements Scheduler {
                 if (rejectedExecutionHandler instanceof XRejectedExecutionHandler) {
                     rejected = ((XRejectedExecutionHandler) rejectedExecutionHandler).rejected();
                 }
+            } else if (holder.executor() instanceof EsBlockingTaskExecutor) {
+                final EsBlockingTaskExecutor blockingExecutor = (EsBlockingTaskExecutor) holder.executor();
+                threads = blockingExecutor.getPoolSize();
+                queue = blockingExecutor.getQueueSize();
+                active = blockingExecutor.getActiveCount();
+                largest = blockingExecutor.getLargestPoolSize();
+                completed = blockingExecutor.getCompletedTaskCount();
+                rejected = blockingExecutor.getRejectedCount();
             }
-            stats.add(new ThreadPoolStats.Stats(name, threads, queue, active, rejected, largest, completed));
+            final List<ThreadPoolStats.LaneStats> lanes = new ArrayList<>();
+            if (holder.lanes != null) {
+                for (int lane = 0; lane < holder.lanes.getLaneCount(); lane++) {
+                    lanes.add(new ThreadPoolStats.LaneStats(holder.lanes.getLaneName(lane), holder.lanes.getLaneWeight(lane),
+                        holder.lanes.getLaneSize(lane), holder.lanes.getTakenCount(lane), holder.lanes.getWaitTimeNanos(lane)));
+                }
+            }
+            ThreadPoolStats.LatencyStats queueWait = null;
+            ThreadPoolStats.LatencyStats execution = null;
+            final List<ThreadPoolStats.ActionStats> actions = new ArrayList<>();
+            final TaskLatencyRecorder latencyRecorder = latencyRecorder(holder.executor());
+            if (latencyRecorder != null) {
+                queueWait = latencyStats(latencyRecorder.getQueueWaitMicros());
+                execution = latencyStats(latencyRecorder.getExecutionMicros());
+                for (Map.Entry<String, TaskLatencyRecorder.ActionLatency> entry : latencyRecorder.getActions().entrySet()) {
+                    final TaskLatencyRecorder.ActionLatency actionLatency = entry.getValue();
+                    actions.add(new ThreadPoolStats.ActionStats(entry.getKey(), actionLatency.getCount(),
+                        actionLatency.getQueueWaitNanos(), actionLatency.getExecutionNanos()));
+                }
+                actions.sort(Comparator.comparing(ThreadPoolStats.ActionStats::getAction));
+            }
+            stats.add(new ThreadPoolStats.Stats(name, threads, queue, active, rejected, largest, completed, lanes, queueWait, execution,
+                actions));
         }
         return new ThreadPoolStats(stats);
     }
 
+    @Nullable
+    private static TaskLatencyRecorder latencyRecorder(ExecutorService executor) {
+        if (executor instanceof EsThreadPoolExecutor) {
+            return ((EsThreadPoolExecutor) executor).getLatencyRecorder();
+        } else if (executor instanceof EsBlockingTaskExecutor) {
+            return ((EsBlockingTaskExecutor) executor).getLatencyRecorder();
+        }
+        return null;
+    }
+
     /**
      * Get the generic {@link ExecutorService}. This executor service
      * {@link Executor#execute(Runnable)} method will run the {@link Runnable} it is given in the
@@ -397,7 +446,7 @@ public class ThreadPool implements Scheduler {
         stopCachedTimeThread();
         scheduler.shutdown();
         for (ExecutorHolder executor : executors.values()) {
-            if (executor.executor() instanceof ThreadPoolExecutor) {
+            if (executor.executor() instanceof ThreadPoolExecutor || executor.executor() instanceof EsBlockingTaskExecutor) {
                 executor.executor().shutdown();
             }
         }
@@ -407,7 +456,7 @@ public class ThreadPool implements Scheduler {
         stopCachedTimeThread();
         scheduler.shutdownNow();
         for (ExecutorHolder executor : executors.values()) {
-            if (executor.executor() instanceof ThreadPoolExecutor) {
+            if (executor.executor() instanceof ThreadPoolExecutor || executor.executor() instanceof EsBlockingTaskExecutor) {
                 executor.executor().shutdownNow();
             }
         }
@@ -416,7 +465,7 @@ public class ThreadPool implements Scheduler {
     public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
         boolean result = scheduler.awaitTermination(timeout, unit);
         for (ExecutorHolder executor : executors.values()) {
-            if (executor.executor() instanceof ThreadPoolExecutor) {
+            if (executor.executor() instanceof ThreadPoolExecutor || executor.executor() instanceof EsBlockingTaskExecutor) {
                 result &= executor.executor().awaitTermination(timeout, unit);
             }
         }
@@ -454,10 +503,26 @@ public class ThreadPool implements Scheduler {
         return boundedBy(2 * numberOfProcessors, 2, Integer.MAX_VALUE);
     }
 
+    private static ThreadPoolStats.LatencyStats latencyStats(Histogram micros) {
+        return new ThreadPoolStats.LatencyStats(micros.getTotalCount(),
+            TimeUnit.MICROSECONDS.toNanos(micros.getValueAtPercentile(50)),
+            TimeUnit.MICROSECONDS.toNanos(micros.getValueAtPercentile(90)),
+            TimeUnit.MICROSECONDS.toNanos(micros.getValueAtPercentile(99)),
+            TimeUnit.MICROSECONDS.toNanos(micros.getMaxValue()));
+    }
+
     public static int searchThreadPoolSize(int availableProcessors) {
         return ((availableProcessors * 3) / 2) + 1;
     }
 
+    private static String[] searchLaneNames() {
+        return Arrays.stream(SearchLane.values()).map(SearchLane::laneName).toArray(String[]::new);
+    }
+
+    private static int[] searchLaneWeights() {
+        return Arrays.stream(SearchLane.values()).mapToInt(SearchLane::defaultWeight).toArray();
+    }
+
     class LoggingRunnable implements Runnable {
 
         private final Runnable runnable;
@@ -601,11 +666,18 @@ public class ThreadPool implements Scheduler {
     static class ExecutorHolder {
         private final ExecutorService executor;
         public final Info info;
+        @Nullable
+        final MultiLaneBlockingQueue lanes;
 
         ExecutorHolder(ExecutorService executor, Info info) {
-            assert executor instanceof EsThreadPoolExecutor || executor == DIRECT_EXECUTOR;
+            this(executor, info, null);
+        }
+
+        ExecutorHolder(ExecutorService executor, Info info, @Nullable MultiLaneBlockingQueue lanes) {
+            assert executor instanceof EsThreadPoolExecutor || executor instanceof EsBlockingTaskExecutor || executor == DIRECT_EXECUTOR;
             this.executor = executor;
             this.info = info;
+            this.lanes = lanes;
         }
 
         ExecutorService executor() {
@@ -655,6 +727,9 @@ public class ThreadPool implements Scheduler {
                     out.getVersion().before(Version.V_6_0_0_alpha1)) {
                 // 5.x doesn't know about the "fixed_auto_queue_size" thread pool type, just write fixed.
                 out.writeString(ThreadPoolType.FIXED.getType());
+            } else if (type == ThreadPoolType.BLOCKING && out.getVersion().before(Version.V_7_7_1)) {
+                // older nodes don't know about the "blocking" thread pool type, it bounds the number of running tasks like a scaling one
+                out.writeString(ThreadPoolType.SCALING.getType());
             } else {
                 out.writeString(type.getType());
             }
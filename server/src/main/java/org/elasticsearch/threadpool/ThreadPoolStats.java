@@ -19,9 +19,12 @@
 
 package org.elasticsearch.threadpool;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -42,8 +45,21 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
         private final long rejected;
         private final int largest;
         private final long completed;
+        private final List<LaneStats> lanes;
+        @Nullable
+        private final LatencyStats queueWait;
+        @Nullable
+        private final LatencyStats execution;
+        private final List<ActionStats> actions;
 
         public Stats(String name, int threads, int queue, int active, long rejected, int largest, long completed) {
+            this(name, threads, queue, active, rejected, largest, completed, Collections.emptyList(), null, null,
+                Collections.emptyList());
+        }
+
+        public Stats(String name, int threads, int queue, int active, long rejected, int largest, long completed,
+                     List<LaneStats> lanes, @Nullable LatencyStats queueWait, @Nullable LatencyStats execution,
+                     List<ActionStats> actions) {
             this.name = name;
             this.threads = threads;
             this.queue = queue;
@@ -51,6 +67,10 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
             this.rejected = rejected;
             this.largest = largest;
             this.completed = completed;
+            this.lanes = Collections.unmodifiableList(lanes);
+            this.queueWait = queueWait;
+            this.execution = execution;
+            this.actions = Collections.unmodifiableList(actions);
         }
 
         public Stats(StreamInput in) throws IOException {
@@ -61,6 +81,17 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
             rejected = in.readLong();
             largest = in.readInt();
             completed = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_7_7_1)) {
+                lanes = Collections.unmodifiableList(in.readList(LaneStats::new));
+                queueWait = in.readOptionalWriteable(LatencyStats::new);
+                execution = in.readOptionalWriteable(LatencyStats::new);
+                actions = Collections.unmodifiableList(in.readList(ActionStats::new));
+            } else {
+                lanes = Collections.emptyList();
+                queueWait = null;
+                execution = null;
+                actions = Collections.emptyList();
+            }
         }
 
         @Override
@@ -72,6 +103,12 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
             out.writeLong(rejected);
             out.writeInt(largest);
             out.writeLong(completed);
+            if (out.getVersion().onOrAfter(Version.V_7_7_1)) {
+                out.writeList(lanes);
+                out.writeOptionalWriteable(queueWait);
+                out.writeOptionalWriteable(execution);
+                out.writeList(actions);
+            }
         }
 
         public String getName() {
@@ -102,6 +139,36 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
             return this.completed;
         }
 
+        /**
+         * The stats of the lanes of the queue of this thread pool, empty if the queue has no lanes.
+         */
+        public List<LaneStats> getLanes() {
+            return lanes;
+        }
+
+        /**
+         * The distribution of the time the tasks of this thread pool waited in its queue, or {@code null} if not tracked.
+         */
+        @Nullable
+        public LatencyStats getQueueWait() {
+            return queueWait;
+        }
+
+        /**
+         * The distribution of the time the tasks of this thread pool ran, or {@code null} if not tracked.
+         */
+        @Nullable
+        public LatencyStats getExecution() {
+            return execution;
+        }
+
+        /**
+         * The time the tasks of this thread pool waited and ran, per action the tasks ran on behalf of.
+         */
+        public List<ActionStats> getActions() {
+            return actions;
+        }
+
         @Override
         public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
             builder.startObject(name);
@@ -123,6 +190,30 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
             if (completed != -1) {
                 builder.field(Fields.COMPLETED, completed);
             }
+            if (lanes.isEmpty() == false) {
+                builder.startObject(Fields.LANES);
+                for (LaneStats lane : lanes) {
+                    lane.toXContent(builder, params);
+                }
+                builder.endObject();
+            }
+            if (queueWait != null) {
+                builder.startObject(Fields.QUEUE_WAIT);
+                queueWait.toXContent(builder, params);
+                builder.endObject();
+            }
+            if (execution != null) {
+                builder.startObject(Fields.EXECUTION);
+                execution.toXContent(builder, params);
+                builder.endObject();
+            }
+            if (actions.isEmpty() == false) {
+                builder.startObject(Fields.ACTIONS);
+                for (ActionStats action : actions) {
+                    action.toXContent(builder, params);
+                }
+                builder.endObject();
+            }
             builder.endObject();
             return builder;
         }
@@ -145,6 +236,222 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
         }
     }
 
+    /**
+     * The stats of a lane of the queue of a thread pool, see {@link org.elasticsearch.common.util.concurrent.MultiLaneBlockingQueue}.
+     */
+    public static class LaneStats implements Writeable, ToXContentFragment {
+
+        private final String name;
+        private final int weight;
+        private final int queue;
+        private final long taken;
+        private final long waitTimeNanos;
+
+        public LaneStats(String name, int weight, int queue, long taken, long waitTimeNanos) {
+            this.name = name;
+            this.weight = weight;
+            this.queue = queue;
+            this.taken = taken;
+            this.waitTimeNanos = waitTimeNanos;
+        }
+
+        public LaneStats(StreamInput in) throws IOException {
+            name = in.readString();
+            weight = in.readVInt();
+            queue = in.readVInt();
+            taken = in.readVLong();
+            waitTimeNanos = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(name);
+            out.writeVInt(weight);
+            out.writeVInt(queue);
+            out.writeVLong(taken);
+            out.writeVLong(waitTimeNanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getQueue() {
+            return queue;
+        }
+
+        /**
+         * The number of tasks that were taken from this lane.
+         */
+        public long getTaken() {
+            return taken;
+        }
+
+        /**
+         * The total time that the tasks that were taken from this lane waited in the queue.
+         */
+        public TimeValue getWaitTime() {
+            return TimeValue.timeValueNanos(waitTimeNanos);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject(name);
+            builder.field(Fields.WEIGHT, weight);
+            builder.field(Fields.QUEUE, queue);
+            builder.field(Fields.TAKEN, taken);
+            builder.humanReadableField(Fields.WAIT_TIME_IN_MILLIS, Fields.WAIT_TIME, getWaitTime());
+            builder.endObject();
+            return builder;
+        }
+    }
+
+    /**
+     * The distribution of the time tasks of a thread pool waited in its queue or ran.
+     */
+    public static class LatencyStats implements Writeable, ToXContentFragment {
+
+        private final long count;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        public LatencyStats(long count, long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+            this.count = count;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public LatencyStats(StreamInput in) throws IOException {
+            count = in.readVLong();
+            p50Nanos = in.readVLong();
+            p90Nanos = in.readVLong();
+            p99Nanos = in.readVLong();
+            maxNanos = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(count);
+            out.writeVLong(p50Nanos);
+            out.writeVLong(p90Nanos);
+            out.writeVLong(p99Nanos);
+            out.writeVLong(maxNanos);
+        }
+
+        /**
+         * The number of tasks whose time was recorded.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        public TimeValue getP50() {
+            return TimeValue.timeValueNanos(p50Nanos);
+        }
+
+        public TimeValue getP90() {
+            return TimeValue.timeValueNanos(p90Nanos);
+        }
+
+        public TimeValue getP99() {
+            return TimeValue.timeValueNanos(p99Nanos);
+        }
+
+        public TimeValue getMax() {
+            return TimeValue.timeValueNanos(maxNanos);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field(Fields.COUNT, count);
+            nanosField(builder, Fields.P50_IN_NANOS, Fields.P50, p50Nanos);
+            nanosField(builder, Fields.P90_IN_NANOS, Fields.P90, p90Nanos);
+            nanosField(builder, Fields.P99_IN_NANOS, Fields.P99, p99Nanos);
+            nanosField(builder, Fields.MAX_IN_NANOS, Fields.MAX, maxNanos);
+            return builder;
+        }
+    }
+
+    /**
+     * The time the tasks of a thread pool that ran on behalf of an action waited in its queue and ran.
+     */
+    public static class ActionStats implements Writeable, ToXContentFragment {
+
+        private final String action;
+        private final long count;
+        private final long queueWaitNanos;
+        private final long executionNanos;
+
+        public ActionStats(String action, long count, long queueWaitNanos, long executionNanos) {
+            this.action = action;
+            this.count = count;
+            this.queueWaitNanos = queueWaitNanos;
+            this.executionNanos = executionNanos;
+        }
+
+        public ActionStats(StreamInput in) throws IOException {
+            action = in.readString();
+            count = in.readVLong();
+            queueWaitNanos = in.readVLong();
+            executionNanos = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(action);
+            out.writeVLong(count);
+            out.writeVLong(queueWaitNanos);
+            out.writeVLong(executionNanos);
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * The total time the tasks of the action waited in the queue.
+         */
+        public TimeValue getQueueWaitTime() {
+            return TimeValue.timeValueNanos(queueWaitNanos);
+        }
+
+        /**
+         * The total time the tasks of the action ran.
+         */
+        public TimeValue getExecutionTime() {
+            return TimeValue.timeValueNanos(executionNanos);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject(action);
+            builder.field(Fields.COUNT, count);
+            nanosField(builder, Fields.QUEUE_WAIT_TIME_IN_NANOS, Fields.QUEUE_WAIT_TIME, queueWaitNanos);
+            nanosField(builder, Fields.EXECUTION_TIME_IN_NANOS, Fields.EXECUTION_TIME, executionNanos);
+            builder.endObject();
+            return builder;
+        }
+    }
+
+    private static void nanosField(XContentBuilder builder, String rawFieldName, String readableFieldName, long nanos) throws IOException {
+        if (builder.humanReadable()) {
+            builder.field(readableFieldName, TimeValue.timeValueNanos(nanos).toString());
+        }
+        builder.field(rawFieldName, nanos);
+    }
+
     private List<Stats> stats;
 
     public ThreadPoolStats(List<Stats> stats) {
@@ -174,6 +481,27 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
         static final String REJECTED = "rejected";
         static final String LARGEST = "largest";
         static final String COMPLETED = "completed";
+        static final String LANES = "lanes";
+        static final String WEIGHT = "weight";
+        static final String TAKEN = "taken";
+        static final String WAIT_TIME = "wait_time";
+        static final String WAIT_TIME_IN_MILLIS = "wait_time_in_millis";
+        static final String QUEUE_WAIT = "queue_wait";
+        static final String EXECUTION = "execution";
+        static final String ACTIONS = "actions";
+        static final String COUNT = "count";
+        static final String P50 = "p50";
+        static final String P50_IN_NANOS = "p50_in_nanos";
+        static final String P90 = "p90";
+        static final String P90_IN_NANOS = "p90_in_nanos";
+        static final String P99 = "p99";
+        static final String P99_IN_NANOS = "p99_in_nanos";
+        static final String MAX = "max";
+        static final String MAX_IN_NANOS = "max_in_nanos";
+        static final String QUEUE_WAIT_TIME = "queue_wait_time";
+        static final String QUEUE_WAIT_TIME_IN_NANOS = "queue_wait_time_in_nanos";
+        static final String EXECUTION_TIME = "execution_time";
+        static final String EXECUTION_TIME_IN_NANOS = "execution_time_in_nanos";
     }
 
     @Override
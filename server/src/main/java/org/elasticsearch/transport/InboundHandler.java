@@ -30,6 +30,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ActionAwareRunnable;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -248,7 +249,7 @@ public class InboundHandler {
         });
     }
 
-    private static class RequestHandler<T extends TransportRequest> extends AbstractRunnable {
+    private static class RequestHandler<T extends TransportRequest> extends AbstractRunnable implements ActionAwareRunnable {
         private final RequestHandlerRegistry<T> reg;
         private final T request;
         private final TransportChannel transportChannel;
@@ -269,6 +270,11 @@ public class InboundHandler {
             return reg.isForceExecution();
         }
 
+        @Override
+        public String getAction() {
+            return reg.getAction();
+        }
+
         @Override
         public void onFailure(Exception e) {
             try {
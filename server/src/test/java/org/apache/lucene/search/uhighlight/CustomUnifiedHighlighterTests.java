@@ -51,6 +51,8 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.text.BreakIterator;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import static org.apache.lucene.search.uhighlight.CustomUnifiedHighlighter.MULTIVAL_SEP_CHAR;
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -59,6 +61,13 @@ public class CustomUnifiedHighlighterTests extends ESTestCase {
     private void assertHighlightOneDoc(String fieldName, String[] inputs, Analyzer analyzer, Query query,
                                        Locale locale, BreakIterator breakIterator,
                                        int noMatchSize, String[] expectedPassages) throws Exception {
+        assertHighlightOneDoc(fieldName, inputs, analyzer, query, locale, breakIterator, noMatchSize, expectedPassages, () -> false, false);
+    }
+
+    private void assertHighlightOneDoc(String fieldName, String[] inputs, Analyzer analyzer, Query query,
+                                       Locale locale, BreakIterator breakIterator,
+                                       int noMatchSize, String[] expectedPassages,
+                                       BooleanSupplier stop, boolean expectTruncated) throws Exception {
         Directory dir = newDirectory();
         IndexWriterConfig iwc = newIndexWriterConfig(analyzer);
         iwc.setMergePolicy(newTieredMergePolicy(random()));
@@ -81,7 +90,7 @@ public class CustomUnifiedHighlighterTests extends ESTestCase {
         String rawValue = Strings.arrayToDelimitedString(inputs, String.valueOf(MULTIVAL_SEP_CHAR));
         CustomUnifiedHighlighter highlighter = new CustomUnifiedHighlighter(searcher, analyzer, null,
                 new CustomPassageFormatter("<b>", "</b>", new DefaultEncoder()), locale,
-                breakIterator, rawValue, noMatchSize);
+                breakIterator, rawValue, noMatchSize, stop);
         highlighter.setFieldMatcher((name) -> "text".equals(name));
         final Snippet[] snippets =
             highlighter.highlightField("text", query, topDocs.scoreDocs[0].doc, expectedPassages.length);
@@ -89,6 +98,7 @@ public class CustomUnifiedHighlighterTests extends ESTestCase {
         for (int i = 0; i < snippets.length; i++) {
             assertEquals(snippets[i].getText(), expectedPassages[i]);
         }
+        assertEquals(expectTruncated, highlighter.isTruncated());
         reader.close();
         dir.close();
     }
@@ -113,6 +123,21 @@ public class CustomUnifiedHighlighterTests extends ESTestCase {
             BreakIterator.getSentenceInstance(Locale.ROOT), 0, expectedPassages);
     }
 
+    public void testStopsLookingForPassages() throws Exception {
+        final String[] inputs = {
+            "This is a test. Just a test1 highlighting from unified highlighter.",
+            "This is the second highlighting value to perform highlighting on a longer text that gets scored lower."
+        };
+        String[] expectedPassages = {
+            "Just a test1 <b>highlighting</b> from unified highlighter."
+        };
+        Query query = new TermQuery(new Term("text", "highlighting"));
+        // stops before the second passage
+        AtomicInteger passages = new AtomicInteger();
+        assertHighlightOneDoc("text", inputs, new StandardAnalyzer(), query, Locale.ROOT,
+            BreakIterator.getSentenceInstance(Locale.ROOT), 0, expectedPassages, () -> passages.incrementAndGet() > 1, true);
+    }
+
     public void testNoMatchSize() throws Exception {
         final String[] inputs = {
             "This is a test. Just a test highlighting from unified. Feel free to ignore."
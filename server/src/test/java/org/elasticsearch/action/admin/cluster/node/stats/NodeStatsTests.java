@@ -19,13 +19,19 @@
 
 package org.elasticsearch.action.admin.cluster.node.stats;
 
+import org.elasticsearch.action.search.SearchHedgingStats;
+import org.elasticsearch.cluster.coordination.ClusterStatePublicationStats;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterApplierStats;
+import org.elasticsearch.cluster.service.MasterServiceStats;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.metrics.ExponentialBucketHistogram;
 import org.elasticsearch.discovery.DiscoveryStats;
 import org.elasticsearch.discovery.zen.PendingClusterStateStats;
 import org.elasticsearch.discovery.zen.PublishClusterStateStats;
 import org.elasticsearch.http.HttpStats;
+import org.elasticsearch.index.store.snapshot.SnapshotBlockCacheStats;
 import org.elasticsearch.indices.breaker.AllCircuitBreakerStats;
 import org.elasticsearch.indices.breaker.CircuitBreakerStats;
 import org.elasticsearch.ingest.IngestStats;
@@ -259,6 +265,57 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(queueStats.getTotal(), deserializedDiscoveryStats.getQueueStats().getTotal());
                         assertEquals(queueStats.getPending(), deserializedDiscoveryStats.getQueueStats().getPending());
                     }
+                    ClusterStatePublicationStats publicationStats = discoveryStats.getPublicationStats();
+                    if (publicationStats == null) {
+                        assertNull(deserializedDiscoveryStats.getPublicationStats());
+                    } else {
+                        ClusterStatePublicationStats deserializedPublicationStats = deserializedDiscoveryStats.getPublicationStats();
+                        assertEquals(publicationStats.getSerializedFullStates(), deserializedPublicationStats.getSerializedFullStates());
+                        assertEquals(publicationStats.getSerializedDiffs(), deserializedPublicationStats.getSerializedDiffs());
+                        assertEquals(publicationStats.getComputeDiffTimeMillis(),
+                            deserializedPublicationStats.getComputeDiffTimeMillis());
+                        assertEquals(publicationStats.getSerializationTimeMillis(),
+                            deserializedPublicationStats.getSerializationTimeMillis());
+                        assertEquals(publicationStats.getCommittedPublications(),
+                            deserializedPublicationStats.getCommittedPublications());
+                        assertEquals(publicationStats.getSendTimeMillis(), deserializedPublicationStats.getSendTimeMillis());
+                        assertEquals(publicationStats.getCommitTimeMillis(), deserializedPublicationStats.getCommitTimeMillis());
+                        assertEquals(publicationStats.getIndexMetaDataCacheSize(),
+                            deserializedPublicationStats.getIndexMetaDataCacheSize());
+                        assertEquals(publicationStats.getIndexMetaDataCacheHits(),
+                            deserializedPublicationStats.getIndexMetaDataCacheHits());
+                        assertEquals(publicationStats.getIndexMetaDataCacheMisses(),
+                            deserializedPublicationStats.getIndexMetaDataCacheMisses());
+                    }
+                    MasterServiceStats masterServiceStats = discoveryStats.getMasterServiceStats();
+                    if (masterServiceStats == null) {
+                        assertNull(deserializedDiscoveryStats.getMasterServiceStats());
+                    } else {
+                        MasterServiceStats deserializedMasterServiceStats = deserializedDiscoveryStats.getMasterServiceStats();
+                        assertEquals(masterServiceStats.getCombinedUpdates(), deserializedMasterServiceStats.getCombinedUpdates());
+                        assertEquals(masterServiceStats.getBoostedTasks(), deserializedMasterServiceStats.getBoostedTasks());
+                        assertEquals(masterServiceStats.getQueueTimeHistograms().keySet(),
+                            deserializedMasterServiceStats.getQueueTimeHistograms().keySet());
+                        for (Map.Entry<String, long[]> entry : masterServiceStats.getQueueTimeHistograms().entrySet()) {
+                            assertArrayEquals(entry.getValue(),
+                                deserializedMasterServiceStats.getQueueTimeHistograms().get(entry.getKey()));
+                        }
+                    }
+                    ClusterApplierStats clusterApplierStats = discoveryStats.getClusterApplierStats();
+                    if (clusterApplierStats == null) {
+                        assertNull(deserializedDiscoveryStats.getClusterApplierStats());
+                    } else {
+                        List<ClusterApplierStats.Recording> recordings = clusterApplierStats.getRecordings();
+                        List<ClusterApplierStats.Recording> deserializedRecordings =
+                            deserializedDiscoveryStats.getClusterApplierStats().getRecordings();
+                        assertEquals(recordings.size(), deserializedRecordings.size());
+                        for (int i = 0; i < recordings.size(); i++) {
+                            assertEquals(recordings.get(i).getName(), deserializedRecordings.get(i).getName());
+                            assertEquals(recordings.get(i).getExecutionCount(), deserializedRecordings.get(i).getExecutionCount());
+                            assertEquals(recordings.get(i).getExecutionTimeMillis(),
+                                deserializedRecordings.get(i).getExecutionTimeMillis());
+                        }
+                    }
                 }
                 IngestStats ingestStats = nodeStats.getIngestStats();
                 IngestStats deserializedIngestStats = deserializedNodeStats.getIngestStats();
@@ -302,6 +359,7 @@ public class NodeStatsTests extends ESTestCase {
                 } else {
                     assertEquals(adaptiveStats.getOutgoingConnections(), deserializedAdaptiveStats.getOutgoingConnections());
                     assertEquals(adaptiveStats.getRanks(), deserializedAdaptiveStats.getRanks());
+                    assertEquals(adaptiveStats.getHedgingStats(), deserializedAdaptiveStats.getHedgingStats());
                     adaptiveStats.getComputedStats().forEach((k, v) -> {
                         ResponseCollectorService.ComputedNodeStats aStats = adaptiveStats.getComputedStats().get(k);
                         ResponseCollectorService.ComputedNodeStats bStats = deserializedAdaptiveStats.getComputedStats().get(k);
@@ -311,6 +369,18 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(aStats.responseTime, bStats.responseTime, 0.01);
                     });
                 }
+                SnapshotBlockCacheStats snapshotCacheStats = nodeStats.getSnapshotBlockCacheStats();
+                SnapshotBlockCacheStats deserializedSnapshotCacheStats = deserializedNodeStats.getSnapshotBlockCacheStats();
+                if (snapshotCacheStats == null) {
+                    assertNull(deserializedSnapshotCacheStats);
+                } else {
+                    assertEquals(snapshotCacheStats.getHits(), deserializedSnapshotCacheStats.getHits());
+                    assertEquals(snapshotCacheStats.getMisses(), deserializedSnapshotCacheStats.getMisses());
+                    assertEquals(snapshotCacheStats.getEvictions(), deserializedSnapshotCacheStats.getEvictions());
+                    assertEquals(snapshotCacheStats.getFetchedBytes(), deserializedSnapshotCacheStats.getFetchedBytes());
+                    assertEquals(snapshotCacheStats.getSizeInBytes(), deserializedSnapshotCacheStats.getSizeInBytes());
+                    assertEquals(snapshotCacheStats.getBlocks(), deserializedSnapshotCacheStats.getBlocks());
+                }
             }
         }
     }
@@ -437,6 +507,31 @@ public class NodeStatsTests extends ESTestCase {
                     randomNonNegativeLong(),
                     randomNonNegativeLong(),
                     randomNonNegativeLong())
+                : null,
+                randomBoolean()
+                ? new ClusterStatePublicationStats(
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomIntBetween(0, Integer.MAX_VALUE),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong())
+                : null,
+                randomBoolean()
+                ? new MasterServiceStats(
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomQueueTimeHistograms())
+                : null,
+                randomBoolean()
+                ? new ClusterApplierStats(randomList(5, () -> new ClusterApplierStats.Recording(
+                    randomAlphaOfLength(10),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong())))
                 : null)
             : null;
         IngestStats ingestStats = null;
@@ -483,15 +578,33 @@ public class NodeStatsTests extends ESTestCase {
                     nodeStats.put(nodeId, stats);
                 }
             }
-            adaptiveSelectionStats = new AdaptiveSelectionStats(nodeConnections, nodeStats);
+            SearchHedgingStats hedgingStats = randomBoolean() ? null
+                : new SearchHedgingStats(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong());
+            adaptiveSelectionStats = new AdaptiveSelectionStats(nodeConnections, nodeStats, hedgingStats);
         }
+        SnapshotBlockCacheStats snapshotBlockCacheStats = frequently() ? new SnapshotBlockCacheStats(randomNonNegativeLong(),
+            randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong())
+            : null;
         //TODO NodeIndicesStats are not tested here, way too complicated to create, also they need to be migrated to Writeable yet
         return new NodeStats(node, randomNonNegativeLong(), null, osStats, processStats, jvmStats, threadPoolStats,
                 fsInfo, transportStats, httpStats, allCircuitBreakerStats, scriptStats, discoveryStats,
-                ingestStats, adaptiveSelectionStats);
+                ingestStats, adaptiveSelectionStats, snapshotBlockCacheStats);
     }
 
     private IngestStats.Stats getPipelineStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
         return pipelineStats.stream().filter(p1 -> p1.getPipelineId().equals(id)).findFirst().map(p2 -> p2.getStats()).orElse(null);
     }
+
+    private static Map<String, long[]> randomQueueTimeHistograms() {
+        final Map<String, long[]> histograms = new HashMap<>();
+        final int sources = randomIntBetween(0, 5);
+        for (int i = 0; i < sources; i++) {
+            final long[] buckets = new long[ExponentialBucketHistogram.BUCKET_COUNT];
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                buckets[bucket] = randomNonNegativeLong();
+            }
+            histograms.put(randomAlphaOfLength(10), buckets);
+        }
+        return histograms;
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.admin.cluster.snapshots.delete;
+
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.network.NetworkModule;
+import org.elasticsearch.repositories.SnapshotDeletionProgress;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class DeleteSnapshotTaskTests extends ESTestCase {
+
+    public void testRequestCreatesDeleteSnapshotTask() {
+        final DeleteSnapshotRequest request = new DeleteSnapshotRequest("repo", "snap");
+        final Task task = request.createTask(1, "transport", DeleteSnapshotAction.NAME, TaskId.EMPTY_TASK_ID, Collections.emptyMap());
+        assertThat(task, instanceOf(DeleteSnapshotTask.class));
+        assertEquals("snapshot [repo:snap]", task.getDescription());
+    }
+
+    public void testStatusReflectsProgress() {
+        final DeleteSnapshotTask task = new DeleteSnapshotTask(0, "type", "action", "desc", null, Collections.emptyMap());
+        final SnapshotDeletionProgress progress = task.getProgress();
+        assertEquals(new DeleteSnapshotTask.Status("starting", 0, 0, 0, 0), task.getStatus());
+
+        final int shards = randomIntBetween(1, 100);
+        final int processedShards = randomIntBetween(0, shards);
+        progress.setPhase("updating_shard_metadata");
+        progress.addShards(shards);
+        for (int i = 0; i < processedShards; i++) {
+            progress.shardProcessed();
+        }
+        assertEquals(new DeleteSnapshotTask.Status("updating_shard_metadata", shards, processedShards, 0, 0), task.getStatus());
+
+        final long blobs = randomLongBetween(1, 10000);
+        final long deletedBlobs = randomLongBetween(0, blobs);
+        progress.setPhase("deleting_blobs");
+        progress.addBlobsToDelete(blobs);
+        progress.blobsDeleted(deletedBlobs);
+        assertEquals(new DeleteSnapshotTask.Status("deleting_blobs", shards, processedShards, blobs, deletedBlobs), task.getStatus());
+    }
+
+    public void testStatusSerializationAsNamedWriteable() throws IOException {
+        final DeleteSnapshotTask.Status status = new DeleteSnapshotTask.Status(randomAlphaOfLength(10), randomIntBetween(0, 1000),
+            randomIntBetween(0, 1000), randomNonNegativeLong(), randomNonNegativeLong());
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeNamedWriteable(status);
+            try (StreamInput in = new NamedWriteableAwareStreamInput(out.bytes().streamInput(),
+                new NamedWriteableRegistry(NetworkModule.getNamedWriteables()))) {
+                assertThat(in.readNamedWriteable(Task.Status.class), equalTo(status));
+            }
+        }
+    }
+}
@@ -37,8 +37,10 @@ public class SnapshotStatsTests extends AbstractXContentTestCase<SnapshotStats>
         long incrementalSize = ((long)randomIntBetween(0, Integer.MAX_VALUE)) * 2;
         long totalSize = ((long)randomIntBetween(0, Integer.MAX_VALUE)) * 2;
         long processedSize = ((long)randomIntBetween(0, Integer.MAX_VALUE)) * 2;
+        int deduplicatedFileCount = randomBoolean() ? 0 : randomIntBetween(1, Integer.MAX_VALUE);
+        long deduplicatedSize = deduplicatedFileCount == 0 ? 0 : ((long)randomIntBetween(0, Integer.MAX_VALUE)) * 2;
         return new SnapshotStats(startTime, time, incrementalFileCount, totalFileCount,
-            processedFileCount, incrementalSize, totalSize, processedSize);
+            processedFileCount, incrementalSize, totalSize, processedSize, deduplicatedFileCount, deduplicatedSize);
     }
 
     @Override
@@ -22,20 +22,26 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.coordination.DeterministicTaskQueue;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.routing.TestShardRouting;
 import org.elasticsearch.cluster.routing.UnassignedInfo;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.InternalSearchResponse;
 import org.elasticsearch.search.internal.SearchContextId;
+import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.transport.Transport;
 import org.elasticsearch.transport.TransportException;
@@ -44,21 +50,26 @@ import org.elasticsearch.transport.TransportRequestOptions;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.elasticsearch.common.util.concurrent.ConcurrentCollections.newConcurrentMap;
 import static org.elasticsearch.common.util.concurrent.ConcurrentCollections.newConcurrentSet;
+import static org.elasticsearch.node.Node.NODE_NAME_SETTING;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 
 public class SearchAsyncActionTests extends ESTestCase {
@@ -472,6 +483,225 @@ public class SearchAsyncActionTests extends ESTestCase {
         assertThat(numFailReplicas.get(), greaterThanOrEqualTo(1));
     }
 
+    public void testHedgedRequestWins() {
+        final HedgedSearch search = new HedgedSearch();
+        search.action.start();
+        assertEquals(Collections.singletonList("node_1"), search.requestedNodes());
+
+        logger.info("--> no response within the hedge delay, the next copy is requested too");
+        search.taskQueue.runAllTasks();
+        assertEquals(Arrays.asList("node_1", "node_2"), search.requestedNodes());
+        assertEquals(1, search.hedging.stats().getIssued());
+
+        search.respond("node_2");
+        assertEquals(1, search.phaseRuns.get());
+        assertEquals(1, search.hedging.stats().getWon());
+        assertEquals(Collections.singletonList("node_1"), search.cancelled);
+        assertTrue(search.freed.isEmpty());
+
+        logger.info("--> the late response of the original request is not used and its search context is released");
+        final boolean lateResponse = randomBoolean();
+        if (lateResponse) {
+            search.respond("node_1");
+        } else {
+            search.fail("node_1");
+        }
+        assertEquals(lateResponse ? Collections.singletonList("node_1") : Collections.emptyList(), search.freed);
+        assertEquals(1, search.phaseRuns.get());
+        assertEquals(Arrays.asList("node_1", "node_2"), search.requestedNodes());
+
+        final SearchResponse response = search.response();
+        assertEquals(1, response.getTotalShards());
+        assertEquals(1, response.getSuccessfulShards());
+        assertEquals(0, response.getFailedShards());
+    }
+
+    public void testOriginalRequestWins() {
+        final HedgedSearch search = new HedgedSearch();
+        search.action.start();
+        search.taskQueue.runAllTasks();
+        assertEquals(Arrays.asList("node_1", "node_2"), search.requestedNodes());
+
+        search.respond("node_1");
+        assertEquals(1, search.phaseRuns.get());
+        assertEquals(0, search.hedging.stats().getWon());
+        assertEquals(Collections.singletonList("node_2"), search.cancelled);
+
+        logger.info("--> the late response of the hedged request is not used and its search context is released");
+        search.respond("node_2");
+        assertEquals(Collections.singletonList("node_2"), search.freed);
+        assertEquals(1, search.phaseRuns.get());
+
+        final SearchResponse response = search.response();
+        assertEquals(1, response.getSuccessfulShards());
+        assertEquals(0, response.getFailedShards());
+    }
+
+    public void testResponseWithinHedgeDelayIsNotHedged() {
+        final HedgedSearch search = new HedgedSearch();
+        search.action.start();
+        search.respond("node_1");
+        assertEquals(1, search.phaseRuns.get());
+
+        logger.info("--> the scheduled hedge is cancelled");
+        search.taskQueue.runAllTasks();
+        assertEquals(Collections.singletonList("node_1"), search.requestedNodes());
+        assertEquals(0, search.hedging.stats().getIssued());
+        assertTrue(search.cancelled.isEmpty());
+        assertEquals(1, search.response().getSuccessfulShards());
+    }
+
+    public void testFailoverAfterBothRequestsFailed() {
+        final HedgedSearch search = new HedgedSearch();
+        search.action.start();
+        search.taskQueue.runAllTasks();
+        assertEquals(Arrays.asList("node_1", "node_2"), search.requestedNodes());
+
+        final boolean hedgeFailsFirst = randomBoolean();
+        search.fail(hedgeFailsFirst ? "node_2" : "node_1");
+        assertEquals("the other request may still succeed", Arrays.asList("node_1", "node_2"), search.requestedNodes());
+        search.fail(hedgeFailsFirst ? "node_1" : "node_2");
+
+        logger.info("--> both failures are reported against the original copy and the last copy is requested");
+        assertEquals(Arrays.asList("node_1", "node_2", "node_3"), search.requestedNodes());
+        final ShardSearchFailure[] failures = search.action.buildShardFailures();
+        assertEquals(1, failures.length);
+        assertEquals("node_1", failures[0].shard().getNodeId());
+        assertEquals("failure on node_1", failures[0].getCause().getMessage());
+        assertEquals(1, failures[0].getCause().getSuppressed().length);
+        assertEquals("failure on node_2", failures[0].getCause().getSuppressed()[0].getMessage());
+        assertEquals(0, search.phaseRuns.get());
+
+        logger.info("--> there is no copy left to hedge the last request with");
+        search.taskQueue.runAllTasks();
+        assertEquals(Arrays.asList("node_1", "node_2", "node_3"), search.requestedNodes());
+        search.respond("node_3");
+        assertEquals(1, search.phaseRuns.get());
+        assertTrue(search.cancelled.isEmpty());
+        assertTrue(search.freed.isEmpty());
+
+        final SearchResponse response = search.response();
+        assertEquals(1, response.getSuccessfulShards());
+        assertEquals(0, response.getFailedShards());
+    }
+
+    /**
+     * A search of a single shard whose three copies are on node_1, node_2 and node_3, in this order, and whose requests are hedged
+     * after 10ms. The test answers the shard requests, a shard counted twice by the action would trip its assertion on the total
+     * number of operations or run the next phase early.
+     */
+    private class HedgedSearch {
+        final DeterministicTaskQueue taskQueue =
+            new DeterministicTaskQueue(Settings.builder().put(NODE_NAME_SETTING.getKey(), "node").build(), random());
+        final ShardId shardId = new ShardId(new Index("idx", "_na_"), 0);
+        final Map<String, DiscoveryNode> nodes = new HashMap<>();
+        final Map<String, SearchActionListener<TestSearchPhaseResult>> requests = new LinkedHashMap<>();
+        final List<String> cancelled = new ArrayList<>();
+        final List<String> freed = new ArrayList<>();
+        final AtomicInteger phaseRuns = new AtomicInteger();
+        final AtomicInteger contextIdGenerator = new AtomicInteger();
+        final SearchHedging hedging;
+        final AbstractSearchAsyncAction<TestSearchPhaseResult> action;
+
+        HedgedSearch() {
+            final Settings settings = Settings.builder()
+                .put(SearchHedging.ENABLED_SETTING.getKey(), true)
+                .put(SearchHedging.MAX_RATIO_SETTING.getKey(), 1.0)
+                .put(SearchHedging.MIN_DELAY_SETTING.getKey(), "10ms")
+                .build();
+            hedging = new SearchHedging(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+                taskQueue.getThreadPool());
+            for (int i = 0; i < 3 * 8; i++) {
+                hedging.onShardResponse(shardId, TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            final List<ShardRouting> copies = new ArrayList<>();
+            final Map<String, Transport.Connection> lookup = new HashMap<>();
+            for (int i = 1; i <= 3; i++) {
+                final DiscoveryNode node = new DiscoveryNode("node_" + i, buildNewFakeTransportAddress(), Version.CURRENT);
+                nodes.put(node.getId(), node);
+                lookup.put(node.getId(), new MockConnection(node));
+                copies.add(TestShardRouting.newShardRouting(shardId, node.getId(), i == 1, ShardRoutingState.STARTED));
+            }
+            final OriginalIndices originalIndices = new OriginalIndices(new String[]{"idx"}, SearchRequest.DEFAULT_INDICES_OPTIONS);
+            final GroupShardsIterator<SearchShardIterator> shardsIter = new GroupShardsIterator<>(
+                Collections.singletonList(new SearchShardIterator(null, shardId, copies, originalIndices)));
+            final SearchTransportService transportService = new SearchTransportService(null, null, hedging) {
+                @Override
+                public void sendFreeContext(Transport.Connection connection, SearchContextId contextId, OriginalIndices originalIndices) {
+                    freed.add(connection.getNode().getId());
+                }
+
+                @Override
+                public void sendCancelShardRequest(Transport.Connection connection, SearchTask task, ShardId shardId) {
+                    cancelled.add(connection.getNode().getId());
+                }
+            };
+            final SearchRequest request = new SearchRequest();
+            request.allowPartialSearchResults(true);
+            action = new AbstractSearchAsyncAction<TestSearchPhaseResult>(
+                "test",
+                logger,
+                transportService,
+                (cluster, node) -> {
+                    assert cluster == null : "cluster was not null: " + cluster;
+                    return lookup.get(node); },
+                Collections.singletonMap("_na_", new AliasFilter(null, Strings.EMPTY_ARRAY)),
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                taskQueue.getExecutorService(),
+                request,
+                ActionListener.wrap(response -> {}, (e) -> { throw new AssertionError("unexpected", e);}),
+                shardsIter,
+                new TransportSearchAction.SearchTimeProvider(0, 0, () -> 0),
+                ClusterState.EMPTY_STATE,
+                new SearchTask(1, "test", SearchAction.NAME, "", TaskId.EMPTY_TASK_ID, Collections.emptyMap()),
+                new ArraySearchPhaseResults<>(shardsIter.size()),
+                request.getMaxConcurrentShardRequests(),
+                SearchResponse.Clusters.EMPTY) {
+
+                @Override
+                protected boolean isHedgingSupported() {
+                    return true;
+                }
+
+                @Override
+                protected void executePhaseOnShard(SearchShardIterator shardIt, ShardRouting shard,
+                                                   SearchActionListener<TestSearchPhaseResult> listener) {
+                    assertNull("copy on " + shard.currentNodeId() + " was requested twice", requests.put(shard.currentNodeId(), listener));
+                }
+
+                @Override
+                protected SearchPhase getNextPhase(SearchPhaseResults<TestSearchPhaseResult> results, SearchPhaseContext context) {
+                    return new SearchPhase("test") {
+                        @Override
+                        public void run() {
+                            phaseRuns.incrementAndGet();
+                        }
+                    };
+                }
+            };
+        }
+
+        List<String> requestedNodes() {
+            return new ArrayList<>(requests.keySet());
+        }
+
+        void respond(String nodeId) {
+            requests.get(nodeId).onResponse(new TestSearchPhaseResult(
+                new SearchContextId(UUIDs.randomBase64UUID(), contextIdGenerator.incrementAndGet()), nodes.get(nodeId)));
+            taskQueue.runAllRunnableTasks();
+        }
+
+        void fail(String nodeId) {
+            requests.get(nodeId).onFailure(new RuntimeException("failure on " + nodeId));
+            taskQueue.runAllRunnableTasks();
+        }
+
+        SearchResponse response() {
+            return action.buildSearchResponse(null, null, action.buildShardFailures());
+        }
+    }
+
     static GroupShardsIterator<SearchShardIterator> getShardsIter(String index, OriginalIndices originalIndices, int numShards,
                                                      boolean doReplicas, DiscoveryNode primaryNode, DiscoveryNode replicaNode) {
         ArrayList<SearchShardIterator> list = new ArrayList<>();
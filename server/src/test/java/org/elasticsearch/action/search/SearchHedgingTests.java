@@ -0,0 +1,100 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SearchHedgingTests extends ESTestCase {
+
+    private static SearchHedging hedging(Settings settings) {
+        final Settings nodeSettings = Settings.builder().put(SearchHedging.ENABLED_SETTING.getKey(), true).put(settings).build();
+        return new SearchHedging(nodeSettings, new ClusterSettings(nodeSettings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS), null);
+    }
+
+    public void testDisabledByDefault() {
+        final Settings settings = Settings.EMPTY;
+        final SearchHedging hedging =
+            new SearchHedging(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS), null);
+        final ShardId shardId = new ShardId("test", "_na_", 0);
+        for (int i = 0; i < SearchHedging.LATENCY_SAMPLES; i++) {
+            hedging.onShardResponse(shardId, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertFalse(hedging.isEnabled());
+        assertThat(hedging.hedgeDelay(shardId), nullValue());
+    }
+
+    public void testDelayIsPercentileOfLatencies() {
+        final SearchHedging hedging = hedging(Settings.EMPTY);
+        final ShardId shardId = new ShardId("test", "_na_", 0);
+        final ShardId otherShardId = new ShardId("test", "_na_", 1);
+        for (int i = 1; i < SearchHedging.MIN_LATENCY_SAMPLES; i++) {
+            hedging.onShardResponse(shardId, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertThat("not enough samples yet", hedging.hedgeDelay(shardId), nullValue());
+        for (int i = SearchHedging.MIN_LATENCY_SAMPLES; i <= SearchHedging.LATENCY_SAMPLES + 24; i++) {
+            hedging.onShardResponse(shardId, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        // the percentile was last computed over the 64 samples from 25ms to 88ms
+        assertThat(hedging.hedgeDelay(shardId), equalTo(TimeValue.timeValueMillis(85)));
+        assertThat(hedging.hedgeDelay(otherShardId), nullValue());
+    }
+
+    public void testMinDelay() {
+        final SearchHedging hedging = hedging(Settings.builder().put(SearchHedging.MIN_DELAY_SETTING.getKey(), "50ms").build());
+        final ShardId shardId = new ShardId("test", "_na_", 0);
+        for (int i = 0; i < SearchHedging.LATENCY_SAMPLES; i++) {
+            hedging.onShardResponse(shardId, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertThat(hedging.hedgeDelay(shardId), equalTo(TimeValue.timeValueMillis(50)));
+    }
+
+    public void testBudget() {
+        final SearchHedging hedging = hedging(Settings.builder().put(SearchHedging.MAX_RATIO_SETTING.getKey(), 0.1).build());
+        final ShardId shardId = new ShardId("test", "_na_", 0);
+        assertFalse("no budget was earned yet", hedging.tryAcquire());
+        for (int i = 0; i < 30; i++) {
+            hedging.hedgeDelay(shardId);
+        }
+        assertTrue(hedging.tryAcquire());
+        assertTrue(hedging.tryAcquire());
+        assertTrue(hedging.tryAcquire());
+        assertFalse(hedging.tryAcquire());
+        hedging.onHedgeWon();
+        assertThat(hedging.stats(), equalTo(new SearchHedgingStats(3, 1, 2)));
+
+        // the budget is capped to a burst of hedged requests
+        for (int i = 0; i < SearchHedging.MAX_BURST * 100; i++) {
+            hedging.hedgeDelay(shardId);
+        }
+        for (int i = 0; i < SearchHedging.MAX_BURST; i++) {
+            assertTrue(hedging.tryAcquire());
+        }
+        assertFalse(hedging.tryAcquire());
+    }
+}
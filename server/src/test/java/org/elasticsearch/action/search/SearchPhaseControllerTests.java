@@ -55,6 +55,10 @@ import org.elasticsearch.search.fetch.FetchSearchResult;
 import org.elasticsearch.search.internal.InternalSearchResponse;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.SearchContextId;
+import org.elasticsearch.search.profile.ProfileResult;
+import org.elasticsearch.search.profile.ProfileShardResult;
+import org.elasticsearch.search.profile.SearchProfileShardResults;
+import org.elasticsearch.search.profile.aggregation.AggregationProfileShardResult;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.suggest.SortBy;
 import org.elasticsearch.search.suggest.Suggest;
@@ -901,4 +905,39 @@ public class SearchPhaseControllerTests extends ESTestCase {
         }
     }
 
+    public void testMergeFetchProfiles() {
+        int numShards = randomIntBetween(1, 10);
+        Map<String, ProfileShardResult> queryProfiles = new HashMap<>();
+        List<SearchPhaseResult> fetchResults = new ArrayList<>();
+        Map<String, ProfileResult> expectedFetchProfiles = new HashMap<>();
+        for (int shardIndex = 0; shardIndex < numShards; shardIndex++) {
+            SearchShardTarget shardTarget = new SearchShardTarget("node", new ShardId("index", "_na_", shardIndex), null,
+                OriginalIndices.NONE);
+            String key = shardTarget.toString();
+            queryProfiles.put(key, new ProfileShardResult(Collections.emptyList(),
+                new AggregationProfileShardResult(Collections.emptyList())));
+            FetchSearchResult fetchResult = new FetchSearchResult(new SearchContextId("", shardIndex), shardTarget);
+            if (randomBoolean()) {
+                ProfileResult fetchProfile = new ProfileResult("fetch", "fetch", Collections.singletonMap("process", 10L),
+                    Collections.emptyList());
+                fetchResult.profileResult(fetchProfile);
+                expectedFetchProfiles.put(key, fetchProfile);
+            }
+            fetchResults.add(fetchResult);
+        }
+
+        SearchProfileShardResults merged = SearchPhaseController.mergeFetchProfiles(new SearchProfileShardResults(queryProfiles),
+            fetchResults);
+        assertThat(merged.getShardResults().keySet(), equalTo(queryProfiles.keySet()));
+        for (Map.Entry<String, ProfileShardResult> entry : merged.getShardResults().entrySet()) {
+            ProfileShardResult queryProfile = queryProfiles.get(entry.getKey());
+            assertSame(queryProfile.getAggregationProfileResults(), entry.getValue().getAggregationProfileResults());
+            assertThat(entry.getValue().getQueryProfileResults(), equalTo(queryProfile.getQueryProfileResults()));
+            // shards without a fetch profile are left untouched
+            assertSame(expectedFetchProfiles.get(entry.getKey()), entry.getValue().getFetchProfileResult());
+        }
+
+        assertNull(SearchPhaseController.mergeFetchProfiles(null, fetchResults));
+    }
+
 }
@@ -29,11 +29,14 @@ import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.gateway.GatewayService;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.TestCustomMetaData;
 
@@ -48,6 +51,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 
 /**
  * Tests for the {@link ClusterChangedEvent} class.
@@ -225,6 +229,56 @@ public class ClusterChangedEventTests extends ESTestCase {
         assertTrue("index routing table should not be the same object", event.indexRoutingTableChanged(initialIndices.get(0).getName()));
     }
 
+    /**
+     * Test the set of changed indices and shards.
+     */
+    public void testChangedIndicesAndShards() {
+        final ClusterState originalState = createState(3, randomBoolean(), initialIndices);
+        final Index index0 = initialIndices.get(0);
+        final Index index1 = initialIndices.get(1);
+
+        // same metadata and routing tables
+        ClusterChangedEvent event = new ClusterChangedEvent("_na_", ClusterState.builder(originalState).build(), originalState);
+        assertThat(event.changedIndices(), equalTo(Collections.emptySet()));
+        assertThat(event.changedShards(), equalTo(Collections.emptySet()));
+
+        // routing tables that were rebuilt with the same content
+        final RoutingTable.Builder rebuiltRoutingTable = RoutingTable.builder().version(originalState.routingTable().version());
+        for (IndexRoutingTable indexRoutingTable : originalState.routingTable()) {
+            final IndexRoutingTable.Builder builder = IndexRoutingTable.builder(indexRoutingTable.getIndex());
+            for (IndexShardRoutingTable indexShardRoutingTable : indexRoutingTable) {
+                builder.addIndexShard(indexShardRoutingTable);
+            }
+            rebuiltRoutingTable.add(builder);
+        }
+        ClusterState newState = ClusterState.builder(originalState).routingTable(rebuiltRoutingTable.build()).build();
+        event = new ClusterChangedEvent("_na_", newState, originalState);
+        assertTrue(event.indexRoutingTableChanged(index0.getName()));
+        assertThat(event.changedIndices(), equalTo(Collections.emptySet()));
+        assertThat(event.changedShards(), equalTo(Collections.emptySet()));
+
+        // changed index metadata
+        final IndexMetaData indexMetaData = originalState.metaData().index(index0);
+        newState = ClusterState.builder(originalState).metaData(MetaData.builder(originalState.metaData())
+            .put(createIndexMetadata(index0, indexMetaData.getVersion() + 1), false)).build();
+        event = new ClusterChangedEvent("_na_", newState, originalState);
+        assertThat(event.changedIndices(), equalTo(Collections.singleton(index0)));
+        assertThat(event.changedShards(), equalTo(Collections.emptySet()));
+
+        // changed index routing table
+        newState = ClusterState.builder(originalState).routingTable(RoutingTable.builder(originalState.routingTable())
+            .remove(index1.getName()).addAsRecovery(originalState.metaData().index(index1)).build()).build();
+        event = new ClusterChangedEvent("_na_", newState, originalState);
+        assertThat(event.changedIndices(), equalTo(Collections.singleton(index1)));
+        assertThat(event.changedShards(), equalTo(Collections.singleton(new ShardId(index1, 0))));
+
+        // removed index
+        newState = createState(3, randomBoolean(), initialIndices.subList(1, initialIndices.size()));
+        event = new ClusterChangedEvent("_na_", newState, originalState);
+        assertThat(event.changedIndices(), hasItem(index0));
+        assertThat(event.changedShards(), hasItem(new ShardId(index0, 0)));
+    }
+
     /**
      * Test custom metadata change checks
      */
@@ -21,16 +21,21 @@ package org.elasticsearch.cluster.coordination;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.Diff;
 import org.elasticsearch.cluster.coordination.CoordinationMetaData.VotingConfiguration;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
 import org.elasticsearch.test.transport.CapturingTransport;
 import org.elasticsearch.transport.TransportService;
 
@@ -38,6 +43,7 @@ import java.io.IOException;
 import java.util.Collections;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 
 public class PublicationTransportHandlerTests extends ESTestCase {
@@ -87,4 +93,39 @@ public class PublicationTransportHandlerTests extends ESTestCase {
         assertThat(e.getCause(), instanceOf(IOException.class));
         assertThat(e.getCause().getMessage(), containsString("Simulated failure of diff serialization"));
     }
+
+    public void testIndexMetaDataSerializationCacheProducesIdenticalState() throws IOException {
+        final MetaData.Builder metaDataBuilder = MetaData.builder();
+        final int numIndices = between(1, 10);
+        for (int i = 0; i < numIndices; i++) {
+            metaDataBuilder.put(IndexMetaData.builder("index-" + i).settings(settings(Version.CURRENT))
+                .numberOfShards(between(1, 3)).numberOfReplicas(between(0, 2)));
+        }
+        final ClusterState clusterState = ClusterState.builder(ClusterName.DEFAULT).metaData(metaDataBuilder).build();
+        final Version version = randomFrom(Version.CURRENT, VersionUtils.randomCompatibleVersion(random(), Version.CURRENT));
+        final IndexMetaDataSerializationCache cache = new IndexMetaDataSerializationCache();
+
+        final BytesReference expected = PublicationTransportHandler.serializeFullClusterState(clusterState, version);
+        assertThat(PublicationTransportHandler.serializeFullClusterState(clusterState, version, cache), equalTo(expected));
+        assertThat(cache.misses(), equalTo((long) numIndices));
+        assertThat(cache.hits(), equalTo(0L));
+        assertThat(PublicationTransportHandler.serializeFullClusterState(clusterState, version, cache), equalTo(expected));
+        assertThat(cache.misses(), equalTo((long) numIndices));
+        assertThat(cache.hits(), equalTo((long) numIndices));
+
+        // changing or deleting an index invalidates only its own entry
+        final IndexMetaData changedIndex = clusterState.metaData().index("index-0");
+        final MetaData.Builder updatedMetaData = MetaData.builder(clusterState.metaData())
+            .put(IndexMetaData.builder(changedIndex).numberOfReplicas(changedIndex.getNumberOfReplicas() + 1));
+        if (numIndices > 1) {
+            updatedMetaData.remove("index-1");
+        }
+        final ClusterState updatedState = ClusterState.builder(clusterState).metaData(updatedMetaData).build();
+        cache.retainIndices(updatedState.metaData());
+        assertThat(cache.size(), equalTo(Math.max(numIndices - 2, 0)));
+        assertThat(PublicationTransportHandler.serializeFullClusterState(updatedState, version, cache),
+            equalTo(PublicationTransportHandler.serializeFullClusterState(updatedState, version)));
+        assertThat(cache.misses(), equalTo(numIndices + 1L));
+        assertThat(cache.hits(), equalTo(numIndices + Math.max(numIndices - 2L, 0L)));
+    }
 }
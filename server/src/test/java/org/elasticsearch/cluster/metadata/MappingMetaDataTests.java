@@ -0,0 +1,124 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.metadata;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.Diff;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class MappingMetaDataTests extends ESTestCase {
+
+    public void testDiffOnlyContainsTheChangedPartOfTheSource() throws IOException {
+        final int numFields = randomIntBetween(1000, 2000);
+        final MappingMetaData before = mapping(numFields, -1, false);
+        final MappingMetaData after = mapping(numFields, randomIntBetween(0, numFields), false);
+
+        final BytesStreamOutput out = new BytesStreamOutput();
+        after.diff(before).writeTo(out);
+        logger.info("--> diff of a mapping with [{}] fields is [{}] bytes, the compressed mapping is [{}] bytes",
+            numFields, out.bytes().length(), after.source().compressed().length);
+        assertThat(out.bytes().length(), lessThan(100));
+
+        final Diff<MappingMetaData> diff = MappingMetaData.readDiffFrom(out.bytes().streamInput());
+        final MappingMetaData applied = diff.apply(before);
+        assertThat(applied, equalTo(after));
+        assertThat(applied.source().string(), equalTo(after.source().string()));
+        assertThat(applied.routing(), equalTo(after.routing()));
+    }
+
+    public void testRemovedField() throws IOException {
+        final int numFields = randomIntBetween(1, 100);
+        final MappingMetaData before = mapping(numFields, randomIntBetween(0, numFields), randomBoolean());
+        final MappingMetaData after = mapping(numFields, -1, randomBoolean());
+        assertThat(serializeAndApply(after.diff(before), Version.CURRENT, before), equalTo(after));
+    }
+
+    public void testUnchangedMapping() throws IOException {
+        final MappingMetaData before = mapping(randomIntBetween(1, 100), -1, randomBoolean());
+        final MappingMetaData after = new MappingMetaData(new CompressedXContent(before.source().string()));
+        final Version version = VersionUtils.randomVersionBetween(random(), Version.V_7_0_0, Version.CURRENT);
+        assertSame(before, serializeAndApply(after.diff(before), version, before));
+    }
+
+    public void testOlderNodesReceiveTheCompleteMapping() throws IOException {
+        final int numFields = randomIntBetween(1, 100);
+        final MappingMetaData before = mapping(numFields, -1, false);
+        final MappingMetaData after = mapping(numFields, randomIntBetween(0, numFields), randomBoolean());
+        final Version version = VersionUtils.randomVersionBetween(random(), Version.V_7_0_0,
+            VersionUtils.getPreviousVersion(Version.V_7_7_1));
+        // a complete diff does not depend on the mapping that it is applied to
+        final MappingMetaData other = mapping(numFields + 1, -1, false);
+        assertThat(serializeAndApply(after.diff(before), version, other), equalTo(after));
+    }
+
+    public void testDiffCannotBeAppliedToADifferentMapping() throws IOException {
+        final int numFields = randomIntBetween(1, 100);
+        final MappingMetaData before = mapping(numFields, -1, false);
+        final MappingMetaData after = mapping(numFields, randomIntBetween(0, numFields), false);
+        final MappingMetaData other = mapping(numFields + 1, -1, false);
+        final IllegalStateException e = expectThrows(IllegalStateException.class,
+            () -> serializeAndApply(after.diff(before), Version.CURRENT, other));
+        assertThat(e.getMessage(), equalTo("can't apply the diff of mapping [_doc] to a different mapping"));
+    }
+
+    private static MappingMetaData serializeAndApply(Diff<MappingMetaData> diff, Version version,
+                                                     MappingMetaData part) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(version);
+            diff.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                in.setVersion(version);
+                return MappingMetaData.readDiffFrom(in).apply(part);
+            }
+        }
+    }
+
+    /**
+     * Builds a mapping with the given number of keyword fields and, if {@code newFieldPosition} is not negative, another field in
+     * that position.
+     */
+    private static MappingMetaData mapping(int numFields, int newFieldPosition, boolean routingRequired) throws IOException {
+        final XContentBuilder builder = XContentFactory.jsonBuilder().startObject().startObject("_doc");
+        builder.startObject("_routing").field("required", routingRequired).endObject();
+        builder.startObject("properties");
+        for (int i = 0; i <= numFields; i++) {
+            if (i == newFieldPosition) {
+                builder.startObject("new_field").field("type", "long").endObject();
+            }
+            if (i < numFields) {
+                builder.startObject("field" + i).field("type", "keyword").endObject();
+            }
+        }
+        builder.endObject().endObject().endObject();
+        return new MappingMetaData(new CompressedXContent(BytesReference.bytes(builder)));
+    }
+}
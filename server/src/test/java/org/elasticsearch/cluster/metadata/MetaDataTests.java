@@ -574,6 +574,47 @@ public class MetaDataTests extends ESTestCase {
         }
     }
 
+    public void testIndicesWithEqualMappingsShareThem() throws IOException {
+        final int numIndices = randomIntBetween(2, 10);
+        final MetaData.Builder builder = MetaData.builder();
+        for (int i = 0; i < numIndices; i++) {
+            builder.put(indexWithMapping("index" + i, FIND_MAPPINGS_TEST_ITEM));
+        }
+        builder.put(indexWithMapping("other", "{\"_doc\":{}}"));
+        final MetaData metaData = builder.build();
+        final MappingMetaData shared = metaData.index("index0").mapping();
+        for (int i = 1; i < numIndices; i++) {
+            assertSame(shared, metaData.index("index" + i).mapping());
+        }
+        assertNotSame(shared, metaData.index("other").mapping());
+
+        // later versions of the metadata keep the shared instances, so the metadata of the existing indices isn't rebuilt
+        final MetaData updated = MetaData.builder(metaData).put(indexWithMapping("index" + numIndices, FIND_MAPPINGS_TEST_ITEM)).build();
+        for (int i = 0; i < numIndices; i++) {
+            assertSame(metaData.index("index" + i), updated.index("index" + i));
+        }
+        assertSame(metaData.index("other"), updated.index("other"));
+        assertSame(shared, updated.index("index" + numIndices).mapping());
+
+        // mappings that are read from the wire are shared too
+        final BytesStreamOutput out = new BytesStreamOutput();
+        updated.writeTo(out);
+        final NamedWriteableRegistry namedWriteableRegistry = new NamedWriteableRegistry(ClusterModule.getNamedWriteables());
+        final MetaData read = MetaData.readFrom(new NamedWriteableAwareStreamInput(out.bytes().streamInput(), namedWriteableRegistry));
+        final MappingMetaData readShared = read.index("index0").mapping();
+        assertNotSame(shared, readShared);
+        for (int i = 1; i <= numIndices; i++) {
+            assertSame(readShared, read.index("index" + i).mapping());
+        }
+    }
+
+    private static IndexMetaData.Builder indexWithMapping(String name, String mapping) throws IOException {
+        return IndexMetaData.builder(name)
+            .settings(Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+                .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1).put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0))
+            .putMapping("_doc", mapping);
+    }
+
     public void testFindMappingsNoOpFilters() throws IOException {
         MappingMetaData originalMappingMetaData = new MappingMetaData("_doc",
                 XContentHelper.convertToMap(JsonXContent.jsonXContent, FIND_MAPPINGS_TEST_ITEM, true));
@@ -0,0 +1,190 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing;
+
+import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.AdaptiveSelectionRanking;
+import org.elasticsearch.node.ResponseCollectorService;
+import org.elasticsearch.test.ClusterServiceUtils;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * A discrete event simulation of searches that are routed with adaptive replica selection, to compare the tail latency of the ranking
+ * functions. Every node holds a copy of every shard and serves shard requests one at a time in arrival order, and the coordinating
+ * node feeds the statistics that a data node would piggyback on its responses to the {@link ResponseCollectorService}.
+ */
+public class AdaptiveReplicaSelectionSimulationTests extends ESTestCase {
+
+    private static final String INDEX = "test";
+    private static final int NUM_SHARDS = 2;
+    private static final int NUM_NODES = 3;
+    private static final int NUM_REQUESTS = 5000;
+    private static final int WARM_UP_REQUESTS = 500;
+    private static final long MEAN_ARRIVAL_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(1500);
+    private static final long SERVICE_TIME_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // the alpha of the EWMA of the service time of the search thread pool
+    private static final double ALPHA = 0.3;
+
+    private ThreadPool threadPool;
+    private ClusterService clusterService;
+
+    @Before
+    public void setUpClusterService() {
+        threadPool = new TestThreadPool(getTestName());
+        clusterService = ClusterServiceUtils.createClusterService(threadPool);
+    }
+
+    @After
+    public void tearDownClusterService() throws Exception {
+        IOUtils.close(clusterService);
+        terminate(threadPool);
+    }
+
+    /**
+     * The copy of one shard on one node is much slower than the other copies, for instance because its pages are not cached, while the
+     * other copies on that node are as fast as anywhere else. The node ranking only sees the average service time of the node so it
+     * keeps sending requests to the slow copy, while the shard ranking learns to avoid it.
+     */
+    public void testShardRankingLowersTailLatencyWithSlowCopy() {
+        final ShardId slowShard = new ShardId(INDEX, "_na_", 0);
+        final String slowNode = "node_0";
+        final long seed = randomLong();
+
+        final double nodeP99 = simulate(AdaptiveSelectionRanking.Mode.NODE, slowShard, slowNode, seed);
+        final double shardP99 = simulate(AdaptiveSelectionRanking.Mode.SHARD, slowShard, slowNode, seed);
+        logger.info("--> p99 latency with node ranking [{}ms], with shard ranking [{}ms]", nodeP99 / 1_000_000, shardP99 / 1_000_000);
+        assertThat(shardP99, lessThan(nodeP99));
+    }
+
+    private double simulate(AdaptiveSelectionRanking.Mode mode, ShardId slowShard, String slowNode, long seed) {
+        final Random random = new Random(seed);
+        final ClusterState state = ClusterStateCreationUtils.stateWithAssignedPrimariesAndReplicas(new String[] { INDEX }, NUM_SHARDS,
+            NUM_NODES - 1);
+        final Settings settings = Settings.builder()
+            .put(OperationRouting.ADAPTIVE_REPLICA_SELECTION_RANKING_SETTING.getKey(), mode.name().toLowerCase(Locale.ROOT))
+            .build();
+        final OperationRouting operationRouting =
+            new OperationRouting(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final ResponseCollectorService collector = new ResponseCollectorService(clusterService);
+
+        final Map<String, Node> nodes = new HashMap<>();
+        final Map<String, Long> outstandingRequests = new HashMap<>();
+        final PriorityQueue<Completion> completions = new PriorityQueue<>(Comparator.comparingLong(c -> c.timeNanos));
+        final long[] arrivals = new long[NUM_REQUESTS];
+        final long[] latencies = new long[NUM_REQUESTS];
+
+        long now = 0;
+        for (int request = 0; request < NUM_REQUESTS; request++) {
+            now += (long) (-Math.log(1 - random.nextDouble()) * MEAN_ARRIVAL_INTERVAL_NANOS);
+            arrivals[request] = now;
+            while (completions.isEmpty() == false && completions.peek().timeNanos <= now) {
+                complete(completions.poll(), outstandingRequests, collector, arrivals, latencies);
+            }
+            // like TransportSearchAction, ranking works on a copy of the outstanding requests
+            final GroupShardsIterator<ShardIterator> groups = operationRouting.searchShards(state, new String[] { INDEX }, null, null,
+                collector, new HashMap<>(outstandingRequests));
+            for (ShardIterator group : groups) {
+                final ShardRouting shard = group.nextOrNull();
+                assertNotNull(shard);
+                final String nodeId = shard.currentNodeId();
+                final boolean slow = nodeId.equals(slowNode) && shard.shardId().equals(slowShard);
+                final long serviceTimeNanos = (long) ((slow ? 10 : 1) * SERVICE_TIME_NANOS * (0.5 + random.nextDouble()));
+                final Node node = nodes.computeIfAbsent(nodeId, Node::new);
+                node.busyUntilNanos = Math.max(now, node.busyUntilNanos) + serviceTimeNanos;
+                node.inFlight++;
+                outstandingRequests.merge(nodeId, 1L, Long::sum);
+                completions.add(new Completion(node.busyUntilNanos, node, shard.shardId(), now, request, serviceTimeNanos));
+            }
+        }
+        while (completions.isEmpty() == false) {
+            complete(completions.poll(), outstandingRequests, collector, arrivals, latencies);
+        }
+
+        final long[] measured = Arrays.copyOfRange(latencies, WARM_UP_REQUESTS, NUM_REQUESTS);
+        Arrays.sort(measured);
+        return measured[(int) (measured.length * 0.99)];
+    }
+
+    private static void complete(Completion completion, Map<String, Long> outstandingRequests, ResponseCollectorService collector,
+                                 long[] arrivals, long[] latencies) {
+        final Node node = completion.node;
+        node.inFlight--;
+        outstandingRequests.merge(node.nodeId, -1L, Long::sum);
+        node.serviceTimeEWMA = node.serviceTimeEWMA < 0
+            ? completion.serviceTimeNanos
+            : node.serviceTimeEWMA + ALPHA * (completion.serviceTimeNanos - node.serviceTimeEWMA);
+        // what SearchExecutionStatsCollector records when the shard response arrives
+        collector.addNodeStatistics(node.nodeId, node.inFlight, completion.timeNanos - completion.dispatchNanos,
+            (long) node.serviceTimeEWMA);
+        collector.addShardStatistics(node.nodeId, completion.shardId, completion.serviceTimeNanos);
+        // a search is as slow as its slowest shard request
+        latencies[completion.request] = Math.max(latencies[completion.request], completion.timeNanos - arrivals[completion.request]);
+    }
+
+    private static class Node {
+        final String nodeId;
+        long busyUntilNanos;
+        int inFlight;
+        double serviceTimeEWMA = -1;
+
+        Node(String nodeId) {
+            this.nodeId = nodeId;
+        }
+    }
+
+    private static class Completion {
+        final long timeNanos;
+        final Node node;
+        final ShardId shardId;
+        final long dispatchNanos;
+        final int request;
+        final long serviceTimeNanos;
+
+        Completion(long timeNanos, Node node, ShardId shardId, long dispatchNanos, int request, long serviceTimeNanos) {
+            this.timeNanos = timeNanos;
+            this.node = node;
+            this.shardId = shardId;
+            this.dispatchNanos = dispatchNanos;
+            this.request = request;
+            this.serviceTimeNanos = serviceTimeNanos;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterModule;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ESAllocationTestCase;
 import org.elasticsearch.cluster.EmptyClusterInfoService;
@@ -38,16 +39,26 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.allocator.ShardsAllocator;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDecider;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.ClusterRebalanceAllocationDecider;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.gateway.TestGatewayAllocator;
 import org.hamcrest.Matchers;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.cluster.routing.ShardRoutingState.STARTED;
 import static org.elasticsearch.cluster.routing.ShardRoutingState.UNASSIGNED;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class BalanceConfigurationTests extends ESAllocationTestCase {
 
@@ -114,6 +125,72 @@ public class BalanceConfigurationTests extends ESAllocationTestCase {
             numberOfNodes + 1 - (numberOfNodes + 1) / 2, numberOfIndices, numberOfReplicas, numberOfShards, balanceThreshold);
     }
 
+    public void testBalancedClusterIsNotRebalanced() {
+        final float indexBalance = randomFloat();
+        final float shardBalance = randomValueOtherThan(0.0f, ESTestCase::randomFloat);
+        final float balanceThreshold = randomFrom(1.0f, 1.5f, 2.0f);
+
+        Settings.Builder settings = Settings.builder();
+        settings.put(ClusterRebalanceAllocationDecider.CLUSTER_ROUTING_ALLOCATION_ALLOW_REBALANCE_SETTING.getKey(),
+            ClusterRebalanceAllocationDecider.ClusterRebalanceType.ALWAYS.toString());
+        settings.put(BalancedShardsAllocator.INDEX_BALANCE_FACTOR_SETTING.getKey(), indexBalance);
+        settings.put(BalancedShardsAllocator.SHARD_BALANCE_FACTOR_SETTING.getKey(), shardBalance);
+        settings.put(BalancedShardsAllocator.THRESHOLD_SETTING.getKey(), balanceThreshold);
+
+        AllocationService strategy = createAllocationService(settings.build(), new TestGatewayAllocator());
+
+        ClusterState clusterState = addNode(initCluster(strategy), strategy);
+        // indices whose weight delta is within the threshold are skipped, this must not leave any relocation behind
+        assertThat(strategy.reroute(clusterState, "reroute").routingTable(), sameInstance(clusterState.routingTable()));
+    }
+
+    public void testBalancedIndicesAreSkippedBeforeLookingForRelevantNodes() {
+        final Settings settings = Settings.builder()
+            .put(ClusterRebalanceAllocationDecider.CLUSTER_ROUTING_ALLOCATION_ALLOW_REBALANCE_SETTING.getKey(),
+                ClusterRebalanceAllocationDecider.ClusterRebalanceType.ALWAYS.toString())
+            .put(BalancedShardsAllocator.INDEX_BALANCE_FACTOR_SETTING.getKey(), randomFloat())
+            .put(BalancedShardsAllocator.SHARD_BALANCE_FACTOR_SETTING.getKey(), randomValueOtherThan(0.0f, ESTestCase::randomFloat))
+            .put(BalancedShardsAllocator.THRESHOLD_SETTING.getKey(), 1.0f)
+            .build();
+        // counts the calls made by the balancer to find the nodes that may hold shards of an index
+        final AtomicInteger indexDecisions = new AtomicInteger();
+        final List<AllocationDecider> deciders = new ArrayList<>();
+        deciders.add(new AllocationDecider() {
+            @Override
+            public Decision canAllocate(IndexMetaData indexMetaData, RoutingNode node, RoutingAllocation allocation) {
+                indexDecisions.incrementAndGet();
+                return Decision.YES;
+            }
+        });
+        deciders.addAll(ClusterModule.createAllocationDeciders(settings,
+            new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS), Collections.emptyList()));
+        final AllocationService strategy = new AllocationService(new AllocationDeciders(deciders), new TestGatewayAllocator(),
+            new BalancedShardsAllocator(settings), EmptyClusterInfoService.INSTANCE);
+
+        // one single-shard index per node, so that every index is balanced with respect to the threshold whatever the weight factors
+        final int numberOfNodes = between(2, 10);
+        final MetaData.Builder metaData = MetaData.builder();
+        final RoutingTable.Builder routingTable = RoutingTable.builder();
+        final DiscoveryNodes.Builder nodes = DiscoveryNodes.builder();
+        for (int i = 0; i < numberOfNodes; i++) {
+            final IndexMetaData indexMetaData = IndexMetaData.builder("test" + i).settings(settings(Version.CURRENT))
+                .numberOfShards(1).numberOfReplicas(0).build();
+            metaData.put(indexMetaData, false);
+            routingTable.addAsNew(indexMetaData);
+            nodes.add(newNode("node" + i));
+        }
+        ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING
+            .getDefault(Settings.EMPTY)).nodes(nodes).metaData(metaData).routingTable(routingTable.build()).build();
+        clusterState = applyStartedShardsUntilNoChange(strategy.reroute(clusterState, "reroute"), strategy);
+        for (RoutingNode routingNode : clusterState.getRoutingNodes()) {
+            assertThat(routingNode.numberOfShardsWithState(STARTED), equalTo(1));
+        }
+
+        indexDecisions.set(0);
+        assertThat(strategy.reroute(clusterState, "reroute").routingTable(), sameInstance(clusterState.routingTable()));
+        assertThat(indexDecisions.get(), equalTo(0));
+    }
+
     private ClusterState initCluster(AllocationService strategy) {
         MetaData.Builder metaDataBuilder = MetaData.builder();
         RoutingTable.Builder routingTableBuilder = RoutingTable.builder();
@@ -25,10 +25,12 @@ import org.apache.logging.log4j.Logger;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateApplier;
 import org.elasticsearch.cluster.ClusterStateObserver;
 import org.elasticsearch.cluster.LocalNodeMasterListener;
 import org.elasticsearch.cluster.block.ClusterBlocks;
 import org.elasticsearch.cluster.coordination.NoMasterBlockService;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
@@ -38,6 +40,7 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.Index;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.MockLogAppender;
 import org.elasticsearch.test.junit.annotations.TestLogging;
@@ -48,6 +51,9 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -57,6 +63,7 @@ import static java.util.Collections.emptySet;
 import static org.elasticsearch.test.ClusterServiceUtils.createNoOpNodeConnectionsService;
 import static org.elasticsearch.test.ClusterServiceUtils.setState;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 
 public class ClusterApplierServiceTests extends ESTestCase {
@@ -494,6 +501,46 @@ public class ClusterApplierServiceTests extends ESTestCase {
         assertTrue(applierCalled.get());
     }
 
+    public void testAppliersAndListenersAreRecorded() throws InterruptedException {
+        final List<Index> changedIndices = new CopyOnWriteArrayList<>();
+        clusterApplierService.addListener(event -> changedIndices.addAll(event.changedIndices()));
+        clusterApplierService.addStateApplier(event -> {});
+
+        final IndexMetaData indexMetaData = IndexMetaData.builder("test")
+            .settings(Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT))
+            .numberOfShards(1)
+            .numberOfReplicas(0)
+            .build();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        final ClusterApplyListener listener = new ClusterApplyListener() {
+            @Override
+            public void onSuccess(String source) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(String source, Exception e) {
+                error.compareAndSet(null, e);
+            }
+        };
+        clusterApplierService.onNewClusterState("add index", () -> ClusterState.builder(clusterApplierService.state())
+            .metaData(MetaData.builder(clusterApplierService.state().metaData()).put(indexMetaData, false)).build(), listener);
+        clusterApplierService.onNewClusterState("no index change", () -> ClusterState.builder(clusterApplierService.state())
+            .incrementVersion().build(), listener);
+
+        latch.await();
+        assertNull(error.get());
+        assertThat(changedIndices, equalTo(Collections.singletonList(indexMetaData.getIndex())));
+
+        // both lambdas are recorded under the name of this class
+        final String recordingName = ClusterApplierService.getRecordingName((ClusterStateApplier) event -> {});
+        assertThat(recordingName, equalTo(ClusterApplierServiceTests.class.getName()));
+        final ClusterApplierStats.Recording recording = clusterApplierService.getStats().getRecordings().stream()
+            .filter(r -> r.getName().equals(recordingName)).findFirst().orElseThrow(AssertionError::new);
+        assertThat(recording.getExecutionCount(), equalTo(4L));
+    }
+
     static class TimedClusterApplierService extends ClusterApplierService {
 
         final ClusterSettings clusterSettings;
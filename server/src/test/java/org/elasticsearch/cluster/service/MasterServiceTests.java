@@ -36,6 +36,7 @@ import org.elasticsearch.cluster.LocalClusterUpdateTask;
 import org.elasticsearch.cluster.block.ClusterBlocks;
 import org.elasticsearch.cluster.coordination.ClusterStatePublisher;
 import org.elasticsearch.cluster.coordination.FailedToCommitClusterStateException;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.common.Nullable;
@@ -58,6 +59,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -80,6 +82,7 @@ import static java.util.Collections.emptySet;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasKey;
 
 public class MasterServiceTests extends ESTestCase {
@@ -111,11 +114,16 @@ public class MasterServiceTests extends ESTestCase {
     }
 
     private MasterService createMasterService(boolean makeMaster) {
+        return createMasterService(makeMaster, Settings.EMPTY);
+    }
+
+    private MasterService createMasterService(boolean makeMaster, Settings settings) {
         final DiscoveryNode localNode = new DiscoveryNode("node1", buildNewFakeTransportAddress(), emptyMap(),
             emptySet(), Version.CURRENT);
         final MasterService masterService = new MasterService(Settings.builder()
             .put(ClusterName.CLUSTER_NAME_SETTING.getKey(), MasterServiceTests.class.getSimpleName())
             .put(Node.NODE_NAME_SETTING.getKey(), "test_node")
+            .put(settings)
             .build(), new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS), threadPool);
         final ClusterState initialClusterState = ClusterState.builder(new ClusterName(MasterServiceTests.class.getSimpleName()))
             .nodes(DiscoveryNodes.builder()
@@ -648,6 +656,150 @@ public class MasterServiceTests extends ESTestCase {
         }
     }
 
+    public void testCombinesCompatibleExecutors() throws Exception {
+        class SettingExecutor implements ClusterStateTaskExecutor<String> {
+            private final String key;
+            private final boolean canCombine;
+            private final List<ClusterChangedEvent> publishedEvents = Collections.synchronizedList(new ArrayList<>());
+
+            SettingExecutor(String key, boolean canCombine) {
+                this.key = key;
+                this.canCombine = canCombine;
+            }
+
+            @Override
+            public ClusterTasksResult<String> execute(ClusterState currentState, List<String> tasks) {
+                return ClusterTasksResult.<String>builder().successes(tasks).build(ClusterState.builder(currentState)
+                    .metaData(MetaData.builder(currentState.metaData())
+                        .persistentSettings(Settings.builder().put(currentState.metaData().persistentSettings())
+                            .put(key, String.join(",", tasks)).build())).build());
+            }
+
+            @Override
+            public boolean canCombineWithOtherExecutors() {
+                return canCombine;
+            }
+
+            @Override
+            public void clusterStatePublished(ClusterChangedEvent clusterChangedEvent) {
+                publishedEvents.add(clusterChangedEvent);
+            }
+        }
+
+        final boolean canCombine = randomBoolean();
+        try (MasterService masterService = createMasterService(true, Settings.builder()
+                .put(MasterService.MASTER_SERVICE_COMBINE_COMPATIBLE_EXECUTORS_SETTING.getKey(), true).build())) {
+            final SettingExecutor executor1 = new SettingExecutor("executor1", canCombine);
+            final SettingExecutor executor2 = new SettingExecutor("executor2", true);
+
+            final CountDownLatch blockingLatch = new CountDownLatch(1);
+            masterService.submitStateUpdateTask("block", new ClusterStateUpdateTask(Priority.IMMEDIATE) {
+                @Override
+                public ClusterState execute(ClusterState currentState) throws Exception {
+                    blockingLatch.await();
+                    return currentState;
+                }
+
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+
+            final CountDownLatch processedLatch = new CountDownLatch(3);
+            final ClusterStateTaskListener listener = new ClusterStateTaskListener() {
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+
+                @Override
+                public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                    processedLatch.countDown();
+                }
+            };
+            masterService.submitStateUpdateTask("task1", "a", ClusterStateTaskConfig.build(Priority.NORMAL), executor1, listener);
+            masterService.submitStateUpdateTask("task2", "b", ClusterStateTaskConfig.build(Priority.NORMAL), executor2, listener);
+            masterService.submitStateUpdateTask("task3", "c", ClusterStateTaskConfig.build(Priority.NORMAL), executor1, listener);
+            blockingLatch.countDown();
+            assertTrue(processedLatch.await(10, TimeUnit.SECONDS));
+
+            assertThat(masterService.stats().getCombinedUpdates(), equalTo(canCombine ? 1L : 0L));
+            // executors are notified of the publication after the listeners of their tasks
+            assertBusy(() -> {
+                assertThat(executor1.publishedEvents.size(), equalTo(1));
+                assertThat(executor2.publishedEvents.size(), equalTo(1));
+            });
+            final ClusterState state1 = executor1.publishedEvents.get(0).state();
+            final ClusterState state2 = executor2.publishedEvents.get(0).state();
+            assertThat(state1.metaData().persistentSettings().get("executor1"), equalTo("a,c"));
+            assertThat(state2.metaData().persistentSettings().get("executor2"), equalTo("b"));
+            if (canCombine) {
+                assertSame(state1, state2);
+            } else {
+                assertThat(state2.version(), equalTo(state1.version() + 1));
+            }
+        }
+    }
+
+    public void testBoostsPriorityOfTasksQueuedLongerThanSlo() throws Exception {
+        try (MasterService masterService = createMasterService(true, Settings.builder()
+                .put(MasterService.MASTER_SERVICE_TASK_QUEUE_SLO_SETTING.getKey(), "10ms").build())) {
+            final CountDownLatch blockingLatch = new CountDownLatch(1);
+            masterService.submitStateUpdateTask("block", new ClusterStateUpdateTask(Priority.IMMEDIATE) {
+                @Override
+                public ClusterState execute(ClusterState currentState) throws Exception {
+                    blockingLatch.await();
+                    return currentState;
+                }
+
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+
+            final List<String> executedTasks = Collections.synchronizedList(new ArrayList<>());
+            final CountDownLatch executedLatch = new CountDownLatch(2);
+            class RecordingTask extends ClusterStateUpdateTask {
+                private final String name;
+
+                RecordingTask(String name, Priority priority) {
+                    super(priority);
+                    this.name = name;
+                }
+
+                @Override
+                public ClusterState execute(ClusterState currentState) {
+                    executedTasks.add(name);
+                    executedLatch.countDown();
+                    return currentState;
+                }
+
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            masterService.submitStateUpdateTask("low", new RecordingTask("low", Priority.LOW));
+            // LOW is boosted to NORMAL and then to HIGH
+            assertBusy(() -> assertThat(masterService.stats().getBoostedTasks(), greaterThanOrEqualTo(2L)));
+            masterService.submitStateUpdateTask("normal", new RecordingTask("normal", Priority.NORMAL));
+            blockingLatch.countDown();
+            assertTrue(executedLatch.await(10, TimeUnit.SECONDS));
+            assertThat(executedTasks, equalTo(Arrays.asList("low", "normal")));
+            assertThat(masterService.stats().getQueueTimeHistograms(), hasKey("low"));
+        }
+    }
+
+    public void testGetSourceKey() {
+        assertThat(MasterService.getSourceKey("create-index [foo], cause [api]"), equalTo("create-index"));
+        assertThat(MasterService.getSourceKey("shard-started StartedShardEntry{}"), equalTo("shard-started"));
+        assertThat(MasterService.getSourceKey("put_mapping"), equalTo("put_mapping"));
+        assertThat(MasterService.getSourceKey("[foo]"), equalTo(MasterService.OTHER_TASK_SOURCES));
+    }
+
     public void testBlockingCallInClusterStateTaskListenerFails() throws InterruptedException {
         assumeTrue("assertions must be enabled for this test to work", BaseFuture.class.desiredAssertionStatus());
         final CountDownLatch latch = new CountDownLatch(1);
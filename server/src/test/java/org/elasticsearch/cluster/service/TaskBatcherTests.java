@@ -328,6 +328,41 @@ public class TaskBatcherTests extends TaskExecutorTests {
         latch.await();
     }
 
+    public void testCombinedTasksRunSeparatelyByDefault() throws InterruptedException {
+        taskBatcher = new TestTaskBatcher(logger, threadExecutor) {
+            @Override
+            protected boolean canCombine(Object batchingKey, Object otherBatchingKey) {
+                return true;
+            }
+        };
+        final int numExecutors = between(2, 5);
+        final CountDownLatch latch = new CountDownLatch(numExecutors);
+        final List<List<Integer>> executedTasks = new CopyOnWriteArrayList<>();
+        try (BlockingTask blockingTask = new BlockingTask(Priority.IMMEDIATE)) {
+            submitTask("blocking", blockingTask);
+            for (int i = 0; i < numExecutors; i++) {
+                final int executorId = i;
+                final TestExecutor<Integer> executor = tasks -> {
+                    assertThat(tasks, equalTo(Collections.singletonList(executorId)));
+                    executedTasks.add(tasks);
+                };
+                submitTask("task " + i, i, ClusterStateTaskConfig.build(Priority.NORMAL), executor, new TestListener() {
+                    @Override
+                    public void processed(String source) {
+                        latch.countDown();
+                    }
+
+                    @Override
+                    public void onFailure(String source, Exception e) {
+                        throw new AssertionError(e);
+                    }
+                });
+            }
+        }
+        latch.await();
+        assertThat(executedTasks.size(), equalTo(numExecutors));
+    }
+
     private static class SimpleTask {
         private final int id;
 
@@ -18,9 +18,26 @@
  */
 package org.elasticsearch.common.blobstore.fs;
 
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.blobstore.BlobPath;
+import org.elasticsearch.common.blobstore.MultipartBlobContainer;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.test.ESTestCase;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.startsWith;
 
@@ -35,6 +52,62 @@ public class FsBlobContainerTests extends ESTestCase {
 
     public void testIsTempBlobName() {
         final String tempBlobName = FsBlobContainer.tempBlobName(randomAlphaOfLengthBetween(1, 20));
-        assertThat(FsBlobContainer.isTempBlobName(tempBlobName), is(true));
+        assertThat(BlobContainer.isTempBlobName(tempBlobName), is(true));
+    }
+
+    public void testMultipartUploadWritesPartsInAnyOrder() throws Exception {
+        final FsBlobContainer container = (FsBlobContainer) new FsBlobStore(Settings.EMPTY, createTempDir(), false)
+            .blobContainer(BlobPath.cleanPath());
+        final byte[] blob = randomByteArrayOfLength(randomIntBetween(1, 1 << 16));
+        final int partSize = randomIntBetween(1, blob.length);
+
+        final MultipartBlobContainer.MultipartUpload upload = container.startMultipartUpload("blob", blob.length, true);
+        final List<Integer> offsets = new ArrayList<>();
+        for (int offset = 0; offset < blob.length; offset += partSize) {
+            offsets.add(offset);
+        }
+        Collections.shuffle(offsets, random());
+        for (int offset : offsets) {
+            upload.writePart(offset / partSize + 1, offset, new BytesArray(blob, offset, Math.min(partSize, blob.length - offset)));
+        }
+        assertThat("blob must not be visible before the upload completes", container.listBlobsByPrefix("blob").keySet(), empty());
+        upload.complete();
+
+        assertThat(container.listBlobs().keySet(), equalTo(Collections.singleton("blob")));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = container.readBlob("blob")) {
+            Streams.copy(in, out);
+        }
+        assertArrayEquals(blob, out.toByteArray());
+
+        final MultipartBlobContainer.MultipartUpload existing = container.startMultipartUpload("blob", 1, true);
+        existing.writePart(1, 0, new BytesArray(new byte[1]));
+        expectThrows(FileAlreadyExistsException.class, existing::complete);
+        assertThat(container.listBlobs().keySet(), equalTo(Collections.singleton("blob")));
+    }
+
+    public void testReadBlobRange() throws Exception {
+        final FsBlobContainer container = (FsBlobContainer) new FsBlobStore(Settings.EMPTY, createTempDir(), false)
+            .blobContainer(BlobPath.cleanPath());
+        final byte[] blob = randomByteArrayOfLength(randomIntBetween(1, 1 << 16));
+        container.writeBlob("blob", new BytesArray(blob).streamInput(), blob.length, true);
+
+        final int position = randomIntBetween(0, blob.length - 1);
+        final int length = randomIntBetween(0, blob.length - position);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = container.readBlob("blob", position, length)) {
+            Streams.copy(in, out);
+        }
+        assertArrayEquals(Arrays.copyOfRange(blob, position, position + length), out.toByteArray());
+
+        // reading past the end of the blob stops at its end
+        out.reset();
+        try (InputStream in = container.readBlob("blob", position, blob.length)) {
+            Streams.copy(in, out);
+        }
+        assertArrayEquals(Arrays.copyOfRange(blob, position, blob.length), out.toByteArray());
+
+        expectThrows(NoSuchFileException.class, () -> container.readBlob("missing", position, length));
+        expectThrows(IllegalArgumentException.class, () -> container.readBlob("blob", -1L, length));
     }
 }
@@ -0,0 +1,121 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.index;
+
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+public class SequentialStoredFieldsLeafReaderTests extends ESTestCase {
+
+    private final ShardId shardId = new ShardId("index", "_na_", 0);
+
+    public void testSequentialReaderReadsTheSameStoredFields() throws IOException {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(null))) {
+            final int numDocs = indexDocs(writer);
+            try (DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), shardId)) {
+                assertEquals(1, reader.leaves().size());
+                final LeafReader leafReader = reader.leaves().get(0).reader();
+                assertTrue(leafReader instanceof SequentialStoredFieldsLeafReader);
+                final StoredFieldsReader fieldsReader = ((SequentialStoredFieldsLeafReader) leafReader).getSequentialStoredFieldsReader();
+                assertNotNull(fieldsReader);
+                for (int docId = 0; docId < numDocs; docId++) {
+                    final DocumentStoredFieldVisitor visitor = new DocumentStoredFieldVisitor();
+                    fieldsReader.visitDocument(docId, visitor);
+                    assertEquals(leafReader.document(docId).get("id"), visitor.getDocument().get("id"));
+                    assertEquals(leafReader.document(docId).get("text"), visitor.getDocument().get("text"));
+                }
+            }
+        }
+    }
+
+    public void testNoSequentialReaderIfWrappedReaderFiltersStoredFields() throws IOException {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(null))) {
+            indexDocs(writer);
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                assertEquals(1, reader.leaves().size());
+                // like the reader of field level security, which hides the stored fields of some fields
+                final LeafReader filteringReader = new FilterLeafReader(reader.leaves().get(0).reader()) {
+                    @Override
+                    public void document(int docID, StoredFieldVisitor visitor) throws IOException {
+                        super.document(docID, new StoredFieldVisitor() {
+                            @Override
+                            public Status needsField(FieldInfo fieldInfo) throws IOException {
+                                return "text".equals(fieldInfo.name) ? Status.NO : visitor.needsField(fieldInfo);
+                            }
+
+                            @Override
+                            public void stringField(FieldInfo fieldInfo, byte[] value) throws IOException {
+                                visitor.stringField(fieldInfo, value);
+                            }
+                        });
+                    }
+
+                    @Override
+                    public CacheHelper getCoreCacheHelper() {
+                        return in.getCoreCacheHelper();
+                    }
+
+                    @Override
+                    public CacheHelper getReaderCacheHelper() {
+                        return in.getReaderCacheHelper();
+                    }
+                };
+                final ElasticsearchLeafReader leafReader = new ElasticsearchLeafReader(filteringReader, shardId);
+                assertNull(leafReader.getSequentialStoredFieldsReader());
+                assertNull(leafReader.document(0).get("text"));
+
+                // readers that can provide one do so through several layers of wrapping
+                final SequentialStoredFieldsLeafReader wrapped = new ElasticsearchLeafReader(
+                    new ElasticsearchLeafReader(reader.leaves().get(0).reader(), shardId), shardId);
+                assertNotNull(wrapped.getSequentialStoredFieldsReader());
+            }
+        }
+    }
+
+    private int indexDocs(IndexWriter writer) throws IOException {
+        final int numDocs = randomIntBetween(1, 100);
+        for (int i = 0; i < numDocs; i++) {
+            final Document doc = new Document();
+            doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+            doc.add(new StoredField("text", randomAlphaOfLengthBetween(1, 100)));
+            writer.addDocument(doc);
+        }
+        writer.forceMerge(1);
+        return numDocs;
+    }
+}
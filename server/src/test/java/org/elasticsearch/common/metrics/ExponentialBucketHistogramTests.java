@@ -0,0 +1,62 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ExponentialBucketHistogramTests extends ESTestCase {
+
+    public void testBuckets() {
+        assertThat(ExponentialBucketHistogram.getBucket(-1L), equalTo(0));
+        assertThat(ExponentialBucketHistogram.getBucket(0L), equalTo(0));
+        assertThat(ExponentialBucketHistogram.getBucket(1L), equalTo(1));
+        assertThat(ExponentialBucketHistogram.getBucket(2L), equalTo(2));
+        assertThat(ExponentialBucketHistogram.getBucket(3L), equalTo(2));
+        assertThat(ExponentialBucketHistogram.getBucket(4L), equalTo(3));
+        assertThat(ExponentialBucketHistogram.getBucket(Long.MAX_VALUE), equalTo(ExponentialBucketHistogram.BUCKET_COUNT - 1));
+    }
+
+    public void testValuesAreWithinBucketBounds() {
+        for (int i = 0; i < 1000; i++) {
+            final long value = randomBoolean() ? randomLongBetween(0L, 1L << 20) : randomNonNegativeLong();
+            final int bucket = ExponentialBucketHistogram.getBucket(value);
+            assertThat(value, greaterThanOrEqualTo(ExponentialBucketHistogram.getBucketLowerBound(bucket)));
+            if (bucket < ExponentialBucketHistogram.BUCKET_COUNT - 1) {
+                assertThat(value, lessThan(ExponentialBucketHistogram.getBucketUpperBound(bucket)));
+            }
+        }
+    }
+
+    public void testSnapshot() {
+        final ExponentialBucketHistogram histogram = new ExponentialBucketHistogram();
+        final long[] expected = new long[ExponentialBucketHistogram.BUCKET_COUNT];
+        final int values = between(0, 100);
+        for (int i = 0; i < values; i++) {
+            final long value = randomLongBetween(0L, 1L << 20);
+            histogram.add(value);
+            expected[ExponentialBucketHistogram.getBucket(value)]++;
+        }
+        assertArrayEquals(expected, histogram.getSnapshot());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Tests for {@link EsBlockingTaskExecutor}. The tests run with a security manager, so they use platform threads.
+ */
+public class EsBlockingTaskExecutorTests extends ESTestCase {
+
+    public void testConcurrencyIsBounded() throws Exception {
+        final int maxConcurrency = randomIntBetween(1, 4);
+        final int numTasks = maxConcurrency + randomIntBetween(1, 16);
+        final EsBlockingTaskExecutor executor = EsExecutors.newBlocking("test", maxConcurrency, EsExecutors.daemonThreadFactory("test"),
+            new ThreadContext(Settings.EMPTY));
+        try {
+            final CountDownLatch started = new CountDownLatch(maxConcurrency);
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(numTasks);
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            for (int i = 0; i < numTasks; i++) {
+                executor.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            started.await();
+            assertThat(executor.getPoolSize(), equalTo(maxConcurrency));
+            assertThat(executor.getActiveCount(), equalTo(maxConcurrency));
+            assertThat(executor.getQueueSize(), equalTo(numTasks - maxConcurrency));
+            release.countDown();
+            done.await();
+            assertThat(maxRunning.get(), lessThanOrEqualTo(maxConcurrency));
+            assertBusy(() -> {
+                assertThat(executor.getCompletedTaskCount(), equalTo((long) numTasks));
+                assertThat(executor.getPoolSize(), equalTo(0));
+                assertThat(executor.getLatencyRecorder().getExecutionMicros().getTotalCount(), equalTo((long) numTasks));
+            });
+            assertThat(executor.getQueueSize(), equalTo(0));
+            assertThat(executor.getLargestPoolSize(), equalTo(maxConcurrency));
+        } finally {
+            ThreadPool.terminate(executor, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void testPreservesThreadContext() throws Exception {
+        final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        final EsBlockingTaskExecutor executor = EsExecutors.newBlocking("test", 1, EsExecutors.daemonThreadFactory("test"),
+            threadContext);
+        try {
+            final AtomicReference<String> header = new AtomicReference<>();
+            final CountDownLatch done = new CountDownLatch(2);
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.putHeader("foo", "bar");
+                executor.execute(() -> {
+                    header.set(threadContext.getHeader("foo"));
+                    done.countDown();
+                });
+            }
+            // this task may run on the same thread, right after the first one
+            final AtomicBoolean defaultContext = new AtomicBoolean();
+            executor.execute(() -> {
+                defaultContext.set(threadContext.getHeader("foo") == null);
+                done.countDown();
+            });
+            done.await();
+            assertThat(header.get(), equalTo("bar"));
+            assertTrue(defaultContext.get());
+        } finally {
+            ThreadPool.terminate(executor, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void testRejectsAfterShutdown() throws Exception {
+        final EsBlockingTaskExecutor executor = EsExecutors.newBlocking("test", randomIntBetween(1, 4),
+            EsExecutors.daemonThreadFactory("test"), new ThreadContext(Settings.EMPTY));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+
+        final AtomicReference<Exception> rejection = new AtomicReference<>();
+        executor.execute(new AbstractRunnable() {
+            @Override
+            public void onFailure(Exception e) {
+                throw new AssertionError(e);
+            }
+
+            @Override
+            public void onRejection(Exception e) {
+                rejection.set(e);
+            }
+
+            @Override
+            protected void doRun() {
+                fail("should not run");
+            }
+        });
+        assertThat(rejection.get(), instanceOf(EsRejectedExecutionException.class));
+        assertTrue(((EsRejectedExecutionException) rejection.get()).isExecutorShutdown());
+        expectThrows(EsRejectedExecutionException.class, () -> executor.execute(() -> fail("should not run")));
+        assertThat(executor.getRejectedCount(), equalTo(2L));
+    }
+
+    public void testRunsQueuedTasksAfterShutdown() throws Exception {
+        final EsBlockingTaskExecutor executor = EsExecutors.newBlocking("test", 1, EsExecutors.daemonThreadFactory("test"),
+            new ThreadContext(Settings.EMPTY));
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger completed = new AtomicInteger();
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            completed.incrementAndGet();
+        });
+        executor.execute(completed::incrementAndGet);
+        executor.shutdown();
+        assertFalse(executor.isTerminated());
+        release.countDown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertThat(completed.get(), equalTo(2));
+    }
+}
@@ -24,9 +24,12 @@ import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasToString;
 
 public class EsThreadPoolExecutorTests extends ESSingleNodeTestCase {
@@ -84,4 +87,46 @@ public class EsThreadPoolExecutorTests extends ESSingleNodeTestCase {
         assertTrue(rejected.get());
     }
 
+    public void testRecordsQueueWaitAndExecutionTime() throws Exception {
+        final EsThreadPoolExecutor executor = EsExecutors.newFixed("test", 1, 10, EsExecutors.daemonThreadFactory("test"),
+            new ThreadContext(Settings.EMPTY));
+        try {
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            final CountDownLatch done = new CountDownLatch(1);
+            // this task waits in the queue until the first task is released
+            executor.execute(new ActionAwareRunnable() {
+                @Override
+                public String getAction() {
+                    return "internal:test";
+                }
+
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            });
+            started.await();
+            Thread.sleep(randomIntBetween(1, 10));
+            release.countDown();
+            done.await();
+            assertBusy(() -> assertThat(executor.getLatencyRecorder().getExecutionMicros().getTotalCount(), equalTo(2L)));
+            assertThat(executor.getLatencyRecorder().getQueueWaitMicros().getMaxValue(),
+                greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toMicros(1)));
+            final TaskLatencyRecorder.ActionLatency actionLatency = executor.getLatencyRecorder().getActions().get("internal:test");
+            assertThat(actionLatency.getCount(), equalTo(1L));
+            assertThat(actionLatency.getQueueWaitNanos(), greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(1)));
+        } finally {
+            ThreadPool.terminate(executor, 10, TimeUnit.SECONDS);
+        }
+    }
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class MultiLaneBlockingQueueTests extends ESTestCase {
+
+    public void testTasksOfALaneAreTakenInOrder() {
+        final MultiLaneBlockingQueue queue = new MultiLaneBlockingQueue(new String[] { "a", "b" }, new int[] { 1, 1 });
+        final List<Runnable> tasks = new ArrayList<>();
+        final int numTasks = randomIntBetween(1, 32);
+        for (int i = 0; i < numTasks; i++) {
+            final Runnable task = new LaneRunnable(1, () -> {});
+            tasks.add(task);
+            assertTrue(queue.offer(task));
+        }
+        assertThat(queue.size(), equalTo(tasks.size()));
+        assertThat(queue.getLaneSize(0), equalTo(0));
+        assertThat(queue.getLaneSize(1), equalTo(tasks.size()));
+        for (Runnable task : tasks) {
+            assertThat(queue.poll(), sameInstance(task));
+        }
+        assertThat(queue.poll(), nullValue());
+        assertThat(queue.getTakenCount(1), equalTo((long) tasks.size()));
+        assertThat(queue.getTakenCount(0), equalTo(0L));
+    }
+
+    public void testTasksAreTakenByWeight() {
+        final MultiLaneBlockingQueue queue = new MultiLaneBlockingQueue(new String[] { "interactive", "batch" }, new int[] { 3, 1 });
+        final int rounds = randomIntBetween(1, 16);
+        for (int i = 0; i < 4 * rounds; i++) {
+            queue.offer(new LaneRunnable(0, () -> {}));
+            queue.offer(new LaneRunnable(1, () -> {}));
+        }
+        // while both lanes are busy, each window of four tasks holds three interactive tasks and one batch task
+        for (int round = 0; round < rounds; round++) {
+            int interactive = 0;
+            for (int i = 0; i < 4; i++) {
+                if (((LaneRunnable) queue.poll()).lane() == 0) {
+                    interactive++;
+                }
+            }
+            assertThat(interactive, equalTo(3));
+        }
+        assertThat(queue.getLaneSize(0), equalTo(rounds));
+        assertThat(queue.getLaneSize(1), equalTo(3 * rounds));
+        assertThat(queue.getTakenCount(0), equalTo(3L * rounds));
+        assertThat(queue.getTakenCount(1), equalTo((long) rounds));
+    }
+
+    public void testUnknownTasksGoToFirstLane() {
+        final MultiLaneBlockingQueue queue = new MultiLaneBlockingQueue(new String[] { "a", "b" }, new int[] { 1, 1 });
+        queue.offer(() -> {});
+        queue.offer(new LaneRunnable(42, () -> {}));
+        assertThat(queue.getLaneSize(0), equalTo(2));
+        assertThat(queue.getLaneSize(1), equalTo(0));
+    }
+
+    public void testLaneOfWrappedTask() {
+        final MultiLaneBlockingQueue queue = new MultiLaneBlockingQueue(new String[] { "a", "b" }, new int[] { 1, 1 });
+        final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        queue.offer(threadContext.preserveContext(new LaneRunnable(1, () -> {})));
+        assertThat(queue.getLaneSize(1), equalTo(1));
+    }
+
+    public void testRemoveAndDrain() {
+        final MultiLaneBlockingQueue queue = new MultiLaneBlockingQueue(new String[] { "a", "b" }, new int[] { 2, 1 });
+        final Runnable task = new LaneRunnable(1, () -> {});
+        queue.offer(new LaneRunnable(0, () -> {}));
+        queue.offer(task);
+        queue.offer(new LaneRunnable(1, () -> {}));
+        assertTrue(queue.contains(task));
+        assertTrue(queue.remove(task));
+        assertFalse(queue.contains(task));
+        assertThat(queue.size(), equalTo(2));
+        final List<Runnable> drained = new ArrayList<>();
+        assertThat(queue.drainTo(drained), equalTo(2));
+        assertThat(queue.size(), equalTo(0));
+        assertThat(queue.getTakenCount(0) + queue.getTakenCount(1), equalTo(2L));
+    }
+
+    public void testTakeWaitsForTasks() throws Exception {
+        final MultiLaneBlockingQueue queue = new MultiLaneBlockingQueue(new String[] { "a", "b" }, new int[] { 1, 1 });
+        assertThat(queue.poll(randomIntBetween(0, 10), TimeUnit.MILLISECONDS), nullValue());
+        final Runnable task = new LaneRunnable(1, () -> {});
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Thread thread = new Thread(() -> {
+            try {
+                latch.await();
+                queue.put(task);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        thread.start();
+        latch.countDown();
+        assertThat(queue.take(), sameInstance(task));
+        thread.join();
+        assertThat(queue.getWaitTimeNanos(1), greaterThanOrEqualTo(0L));
+    }
+
+    public void testInvalidWeights() {
+        expectThrows(IllegalArgumentException.class, () -> new MultiLaneBlockingQueue(new String[] { "a" }, new int[] { 1, 2 }));
+        expectThrows(IllegalArgumentException.class, () -> new MultiLaneBlockingQueue(new String[] { "a" }, new int[] { 0 }));
+        expectThrows(IllegalArgumentException.class, () -> new MultiLaneBlockingQueue(new String[0], new int[0]));
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.elasticsearch.common.xcontent.support;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.DeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
@@ -31,7 +33,9 @@ import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matchers;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -105,4 +109,30 @@ public class XContentHelperTests extends ESTestCase {
             }
         }
     }
+
+    public void testCreateParserOfArraySlice() throws IOException {
+        final XContentType xContentType = randomFrom(XContentType.values());
+        final BytesReference bytes = XContentHelper.toXContent((ToXContentObject) (builder, params) ->
+            builder.startObject().field("field", "value").endObject(), xContentType, false);
+        // the parser must only read the slice of the backing array
+        final byte[] padded = new byte[bytes.length() + 8];
+        System.arraycopy(BytesReference.toBytes(bytes), 0, padded, 4, bytes.length());
+        final BytesArray slice = new BytesArray(padded, 4, bytes.length());
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, slice, xContentType)) {
+            assertEquals(Collections.singletonMap("field", "value"), parser.map());
+        }
+    }
+
+    public void testErrorsOfArraySliceDoNotReferenceTheArray() throws IOException {
+        final byte[] bulk = "{\"secret\":\"other document\"}\n{\"field\":}\n".getBytes(StandardCharsets.UTF_8);
+        final int offset = bulk.length - "{\"field\":}\n".length();
+        final BytesArray slice = new BytesArray(bulk, offset, bulk.length - offset);
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, slice, XContentType.JSON)) {
+            final JsonProcessingException e = expectThrows(JsonProcessingException.class, parser::map);
+            assertNull(e.getLocation().getSourceRef());
+            assertThat(e.getMessage(), Matchers.not(Matchers.containsString("secret")));
+        }
+    }
 }
@@ -167,10 +167,36 @@ public class FilterPathGeneratorFilteringTests extends ESTestCase {
         assertResult("{'a':0,'b.c':'value','b':{'c':'c_value'}}", "b\\.c", false, "{'a':0,'b':{'c':'c_value'}}");
     }
 
+    public void testFieldNamesWithDots() throws Exception {
+        final String SAMPLE = "{'a.b':0,'a':{'c':1,'d.e':2},'f.g.h':{'i':3},'j.k':[{'l':4},{'m.n':5}]}";
+
+        assertResult(SAMPLE, "a", true, true, "{'a.b':0,'a':{'c':1,'d.e':2}}");
+        assertResult(SAMPLE, "a.b", true, true, "{'a.b':0}");
+        assertResult(SAMPLE, "a.d", true, true, "{'a':{'d.e':2}}");
+        assertResult(SAMPLE, "a.d.e", true, true, "{'a':{'d.e':2}}");
+        assertResult(SAMPLE, "f.g", true, true, "{'f.g.h':{'i':3}}");
+        assertResult(SAMPLE, "f.g.h.i", true, true, "{'f.g.h':{'i':3}}");
+        assertResult(SAMPLE, "f.g.h.z", true, true, "");
+        assertResult(SAMPLE, "f.*", true, true, "{'f.g.h':{'i':3}}");
+        assertResult(SAMPLE, "j.k.m.n", true, true, "{'j.k':[{'m.n':5}]}");
+
+        assertResult(SAMPLE, "a", false, true, "{'f.g.h':{'i':3},'j.k':[{'l':4},{'m.n':5}]}");
+        assertResult(SAMPLE, "a.d", false, true, "{'a.b':0,'a':{'c':1},'f.g.h':{'i':3},'j.k':[{'l':4},{'m.n':5}]}");
+
+        // without the option, field names with dots only match filters with an escaped dot
+        assertResult(SAMPLE, "a.b", true, false, "");
+        assertResult(SAMPLE, "a\\.b", true, false, "{'a.b':0}");
+    }
+
     private void assertResult(String input, String filter, boolean inclusive, String expected) throws Exception {
+        assertResult(input, filter, inclusive, false, expected);
+    }
+
+    private void assertResult(String input, String filter, boolean inclusive, boolean matchFieldNamesWithDots,
+                              String expected) throws Exception {
         try (BytesStreamOutput os = new BytesStreamOutput()) {
             try (FilteringGeneratorDelegate generator = new FilteringGeneratorDelegate(JSON_FACTORY.createGenerator(os),
-                    new FilterPathBasedFilter(Collections.singleton(filter), inclusive), true, true)) {
+                    new FilterPathBasedFilter(Collections.singleton(filter), inclusive, matchFieldNamesWithDots), true, true)) {
                 try (JsonParser parser = JSON_FACTORY.createParser(replaceQuotes(input))) {
                     while (parser.nextToken() != null) {
                         generator.copyCurrentStructure(parser);
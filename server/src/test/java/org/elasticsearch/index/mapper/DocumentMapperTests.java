@@ -24,6 +24,7 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentType;
@@ -287,4 +288,39 @@ public class DocumentMapperTests extends ESSingleNodeTestCase {
 
         assertThat(initMapper.merge(updatedMapper.mapping()).meta().get("foo"), equalTo("new_bar"));
     }
+
+    public void testMappingSourceIsSerializedOnFirstAccess() throws Exception {
+        CompressedXContent mapping = new CompressedXContent(BytesReference.bytes(XContentFactory.jsonBuilder().startObject()
+                .startObject("type")
+                    .startObject("properties")
+                        .startObject("foo")
+                            .field("type", "text")
+                        .endObject()
+                    .endObject()
+                .endObject().endObject()));
+        MapperService mapperService = createIndex("test").mapperService();
+        DocumentMapper parsed = mapperService.documentMapperParser().parse("type", mapping);
+
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        AtomicReference<CompressedXContent> concurrentSource = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                barrier.await();
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+            concurrentSource.set(parsed.mappingSource());
+        });
+        thread.start();
+        barrier.await();
+        CompressedXContent source = parsed.mappingSource();
+        thread.join();
+        assertThat(source, equalTo(new CompressedXContent(parsed, XContentType.JSON, ToXContent.EMPTY_PARAMS)));
+        assertThat(concurrentSource.get(), equalTo(source));
+        assertSame(parsed.mappingSource(), parsed.mappingSource());
+
+        DocumentMapper merged = mapperService.merge("type", mapping, MapperService.MergeReason.MAPPING_UPDATE);
+        assertSame(merged, mapperService.documentMapper());
+        assertThat(merged.mappingSource(), equalTo(new CompressedXContent(merged, XContentType.JSON, ToXContent.EMPTY_PARAMS)));
+    }
 }
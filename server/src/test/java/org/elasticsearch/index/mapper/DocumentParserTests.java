@@ -184,6 +184,48 @@ public class DocumentParserTests extends ESSingleNodeTestCase {
                 e.getMessage());
     }
 
+    public void testResolvedFieldPathsAreReused() throws Exception {
+        DocumentMapperParser mapperParser = createIndex("test").mapperService().documentMapperParser();
+        String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type").startObject("properties")
+            .startObject("foo").startObject("properties")
+            .startObject("bar").field("type", "integer").endObject()
+            .endObject().endObject()
+            .startObject("nested").field("type", "nested").startObject("properties")
+            .startObject("bar").field("type", "integer").endObject()
+            .endObject().endObject()
+            .endObject().endObject().endObject());
+        DocumentMapper mapper = mapperParser.parse("type", new CompressedXContent(mapping));
+
+        // the second document resolves its field names from the paths cached while parsing the first one
+        for (int i = 0; i < 2; i++) {
+            BytesReference bytes = BytesReference.bytes(XContentFactory.jsonBuilder()
+                .startObject()
+                .field("foo.bar", i)
+                .startObject("foo").field("bar", i + 10).endObject()
+                .field("dynamic", i)
+                .endObject());
+            ParsedDocument doc = mapper.parse(new SourceToParse("test", "type", Integer.toString(i), bytes, XContentType.JSON));
+            assertEquals(4, doc.rootDoc().getFields("foo.bar").length);
+            assertNotNull(doc.dynamicMappingsUpdate());
+            assertNotNull(doc.rootDoc().getField("dynamic"));
+
+            BytesReference nestedBytes = BytesReference.bytes(XContentFactory.jsonBuilder()
+                .startObject()
+                .field("nested.bar", i)
+                .endObject());
+            MapperParsingException e = expectThrows(MapperParsingException.class,
+                () -> mapper.parse(new SourceToParse("test", "type", "1", nestedBytes, XContentType.JSON)));
+            assertThat(e.getMessage(), containsString("one of the intermediate objects is mapped as a nested object: [nested]"));
+        }
+
+        // a mapping update creates a new parser that resolves the field names again
+        BytesReference bytes = BytesReference.bytes(XContentFactory.jsonBuilder().startObject().field("dynamic", 1).endObject());
+        ParsedDocument doc = mapper.parse(new SourceToParse("test", "type", "1", bytes, XContentType.JSON));
+        DocumentMapper updated = mapper.merge(doc.dynamicMappingsUpdate());
+        doc = updated.parse(new SourceToParse("test", "type", "1", bytes, XContentType.JSON));
+        assertNull(doc.dynamicMappingsUpdate());
+    }
+
     public void testUnexpectedFieldMappingType() throws Exception {
         DocumentMapperParser mapperParser = createIndex("test").mapperService().documentMapperParser();
         String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type").startObject("properties")
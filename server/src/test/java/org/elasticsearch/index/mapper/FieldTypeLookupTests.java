@@ -79,6 +79,20 @@ public class FieldTypeLookupTests extends ESTestCase {
         assertEquals(f2.fieldType(), lookup2.get("foo"));
     }
 
+    public void testAddUnchangedFieldsReturnsSameLookup() {
+        MockFieldMapper field = new MockFieldMapper("foo");
+        FieldAliasMapper alias = new FieldAliasMapper("alias", "alias", "foo");
+        FieldTypeLookup lookup = new FieldTypeLookup().copyAndAddAll("type", newList(field), newList(alias));
+
+        assertSame(lookup, lookup.copyAndAddAll("type", newList(field), newList(alias)));
+
+        FieldAliasMapper newAlias = new FieldAliasMapper("alias", "alias", "bar");
+        FieldTypeLookup lookup2 = lookup.copyAndAddAll("type", newList(field), newList(newAlias));
+        assertNotSame(lookup, lookup2);
+        assertSame(field.fieldType(), lookup2.get("foo"));
+        assertNull(lookup2.get("alias"));
+    }
+
     public void testAddFieldAlias() {
         MockFieldMapper field = new MockFieldMapper("foo");
         FieldAliasMapper alias = new FieldAliasMapper("alias", "alias", "foo");
@@ -26,6 +26,7 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentType;
@@ -192,6 +193,63 @@ public class MapperServiceTests extends ESSingleNodeTestCase {
         assertThat(e.getMessage(), containsString("Limit of mapping depth [1] in index [test1] has been exceeded"));
     }
 
+    public void testMergeKeepsUnchangedObjectMappers() throws IOException {
+        final int numObjects = randomIntBetween(500, 1000);
+        final int fieldsPerObject = 10;
+        final int numFields = numObjects * (fieldsPerObject + 1);
+        final MapperService mapperService = createIndex("test", Settings.builder()
+            .put(MapperService.INDEX_MAPPING_TOTAL_FIELDS_LIMIT_SETTING.getKey(), numFields + 1).build()).mapperService();
+        final XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("properties");
+        for (int i = 0; i < numObjects; i++) {
+            mapping.startObject("object" + i).field("type", i == 0 ? "nested" : "object").startObject("properties");
+            for (int j = 0; j < fieldsPerObject; j++) {
+                mapping.startObject("field" + j).field("type", "keyword").endObject();
+            }
+            mapping.endObject().endObject();
+        }
+        mapping.endObject().endObject();
+        mapperService.merge("_doc", new CompressedXContent(BytesReference.bytes(mapping)), MergeReason.MAPPING_UPDATE);
+        final ObjectMapper[] objectMappers = new ObjectMapper[numObjects];
+        for (int i = 0; i < numObjects; i++) {
+            objectMappers[i] = mapperService.getObjectMapper("object" + i);
+        }
+        final MappedFieldType fieldType = mapperService.fieldType("object0.field0");
+
+        final int updatedObject = randomIntBetween(1, numObjects - 1);
+        final CompressedXContent update = new CompressedXContent(BytesReference.bytes(XContentFactory.jsonBuilder().startObject()
+            .startObject("properties")
+                .startObject("object" + updatedObject)
+                    .startObject("properties")
+                        .startObject("new_field")
+                            .field("type", "keyword")
+                        .endObject()
+                    .endObject()
+                .endObject()
+            .endObject().endObject()));
+        final long startNanos = System.nanoTime();
+        mapperService.merge("_doc", update, MergeReason.MAPPING_UPDATE);
+        logger.info("--> adding a field to a mapping with [{}] fields took [{}]", numFields,
+            TimeValue.timeValueNanos(System.nanoTime() - startNanos));
+
+        assertThat(mapperService.fieldType("object" + updatedObject + ".new_field"), notNullValue());
+        for (int i = 0; i < numObjects; i++) {
+            if (i == updatedObject) {
+                assertNotSame(objectMappers[i], mapperService.getObjectMapper("object" + i));
+            } else {
+                assertSame(objectMappers[i], mapperService.getObjectMapper("object" + i));
+            }
+        }
+        assertSame(fieldType, mapperService.fieldType("object0.field0"));
+        assertTrue("the nested object was not touched by the update", mapperService.hasNested());
+
+        logger.info("--> merging the same update again keeps all field types");
+        final MappedFieldType newFieldType = mapperService.fieldType("object" + updatedObject + ".new_field");
+        mapperService.merge("_doc", update, MergeReason.MAPPING_UPDATE);
+        assertSame(objectMappers[0], mapperService.getObjectMapper("object0"));
+        assertSame(fieldType, mapperService.fieldType("object0.field0"));
+        assertSame(newFieldType, mapperService.fieldType("object" + updatedObject + ".new_field"));
+    }
+
     public void testUnmappedFieldType() {
         MapperService mapperService = createIndex("index").mapperService();
         assertThat(mapperService.unmappedFieldType("keyword"), instanceOf(KeywordFieldType.class));
@@ -189,6 +189,56 @@ public class SourceFieldMapperTests extends ESSingleNodeTestCase {
         assertConflicts(mapping1, mapping1, parser);
     }
 
+    public void testModeNotUpdateable() throws Exception {
+        DocumentMapperParser parser = createIndex("test").mapperService().documentMapperParser();
+        String defaultMapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type").endObject().endObject());
+        String mapping1 = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
+            .startObject("_source").field("mode", "synthetic").endObject()
+            .endObject().endObject());
+        assertConflicts(defaultMapping, mapping1, parser, "Cannot update mode setting for [_source]");
+        assertConflicts(mapping1, defaultMapping, parser, "Cannot update mode setting for [_source]");
+
+        // not changing is ok
+        assertConflicts(mapping1, mapping1, parser);
+        String mapping2 = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
+            .startObject("_source").field("mode", "stored").endObject()
+            .endObject().endObject());
+        assertConflicts(defaultMapping, mapping2, parser);
+    }
+
+    public void testSyntheticIsNotStored() throws Exception {
+        String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
+            .startObject("_source").field("mode", "synthetic").endObject()
+            .endObject().endObject());
+        DocumentMapper documentMapper = createIndex("test").mapperService().documentMapperParser()
+            .parse("type", new CompressedXContent(mapping));
+        assertTrue(documentMapper.sourceMapper().isSynthetic());
+        assertTrue(documentMapper.sourceMapper().isComplete());
+
+        ParsedDocument doc = documentMapper.parse(new SourceToParse("test", "type", "1",
+            BytesReference.bytes(XContentFactory.jsonBuilder().startObject().field("field", "value").endObject()),
+            XContentType.JSON));
+        assertNull(doc.rootDoc().getField("_source"));
+        // the original source is still kept for operation based recoveries
+        assertNotNull(doc.rootDoc().getField("_recovery_source"));
+    }
+
+    public void testSyntheticSourceCantBeFiltered() throws Exception {
+        DocumentMapperParser parser = createIndex("test").mapperService().documentMapperParser();
+        String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
+            .startObject("_source").field("mode", "synthetic").array("includes", "foo.*").endObject()
+            .endObject().endObject());
+        MapperParsingException e = expectThrows(MapperParsingException.class,
+            () -> parser.parse("type", new CompressedXContent(mapping)));
+        assertThat(e.getMessage(), containsString("[_source] can't filter fields when its mode is [synthetic]"));
+
+        String unknownMode = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
+            .startObject("_source").field("mode", "compressed").endObject()
+            .endObject().endObject());
+        e = expectThrows(MapperParsingException.class, () -> parser.parse("type", new CompressedXContent(unknownMode)));
+        assertThat(e.getMessage(), containsString("Unknown mode [compressed] for [_source]"));
+    }
+
     public void testComplete() throws Exception {
         DocumentMapperParser parser = createIndex("test").mapperService().documentMapperParser();
         String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type").endObject().endObject());
@@ -0,0 +1,160 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.index.LeafReader;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class SyntheticSourceTests extends ESSingleNodeTestCase {
+
+    private static String mapping(XContentBuilder properties) {
+        return "{\"_doc\": {\"_source\": {\"mode\": \"synthetic\"}, \"properties\": " + Strings.toString(properties) + "}}";
+    }
+
+    private void createSyntheticIndex() throws IOException {
+        XContentBuilder properties = XContentFactory.jsonBuilder().startObject()
+            .startObject("kwd").field("type", "keyword").endObject()
+            .startObject("long").field("type", "long").endObject()
+            .startObject("double").field("type", "double").endObject()
+            .startObject("date").field("type", "date").endObject()
+            .startObject("bool").field("type", "boolean").endObject()
+            .startObject("obj").startObject("properties")
+                .startObject("int").field("type", "integer").endObject()
+            .endObject().endObject()
+            .endObject();
+        client().admin().indices().prepareCreate("test")
+            .setSettings(Settings.builder().put("index.number_of_shards", 1))
+            .addMapping("_doc", mapping(properties), XContentType.JSON)
+            .get();
+    }
+
+    public void testSearchGetAndUpdate() throws IOException {
+        createSyntheticIndex();
+        client().prepareIndex("test", "_doc", "1")
+            .setSource("{\"long\": [3, 1, 2], \"kwd\": [\"b\", \"a\", \"b\"], \"obj\": {\"int\": 7}, \"double\": 1.5,"
+                + " \"date\": \"2020-05-04T12:34:56.789Z\", \"bool\": true, \"ignored\": null}", XContentType.JSON)
+            .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE)
+            .get();
+        String expected = "{\"bool\":true,\"date\":\"2020-05-04T12:34:56.789Z\",\"double\":1.5,\"kwd\":[\"a\",\"b\"],"
+            + "\"long\":[1,2,3],\"obj\":{\"int\":7}}";
+
+        SearchResponse search = client().prepareSearch("test").setQuery(QueryBuilders.matchAllQuery()).get();
+        assertHitCount(search, 1);
+        assertThat(search.getHits().getAt(0).getSourceAsString(), equalTo(expected));
+
+        search = client().prepareSearch("test").setFetchSource(new String[] { "obj.*" }, null).get();
+        assertThat(search.getHits().getAt(0).getSourceAsMap(),
+            equalTo(Collections.singletonMap("obj", Collections.singletonMap("int", 7))));
+
+        GetResponse get = client().prepareGet("test", "_doc", "1").get();
+        assertThat(get.getSourceAsString(), equalTo(expected));
+
+        client().prepareUpdate("test", "_doc", "1").setDoc("kwd", "c").get();
+        // realtime gets refresh rather than reading the source from the translog
+        get = client().prepareGet("test", "_doc", "1").get();
+        assertThat(get.getSourceAsMap().get("kwd"), equalTo("c"));
+        assertThat(get.getSourceAsMap().get("long"), equalTo(Arrays.asList(1, 2, 3)));
+    }
+
+    public void testLoaderReusesDocValuesAcrossDocuments() throws IOException {
+        createSyntheticIndex();
+        int numDocs = randomIntBetween(10, 50);
+        for (int i = 0; i < numDocs; i++) {
+            XContentBuilder source = XContentFactory.jsonBuilder().startObject().field("long", i);
+            if (randomBoolean()) {
+                source.array("kwd", "k" + i, "k" + (i + 1));
+            }
+            client().prepareIndex("test", "_doc", Integer.toString(i)).setSource(source.endObject()).get();
+        }
+        client().admin().indices().prepareForceMerge("test").setMaxNumSegments(1).get();
+        client().admin().indices().prepareRefresh("test").get();
+
+        IndexService indexService = getInstanceFromNode(IndicesService.class).indexService(resolveIndex("test"));
+        DocumentMapper mapper = indexService.mapperService().documentMapper();
+        try (Engine.Searcher searcher = indexService.getShard(0).acquireSearcher("test")) {
+            LeafReader leaf = searcher.getDirectoryReader().leaves().get(0).reader();
+            SyntheticSource.Loader loader = SyntheticSource.loader(mapper);
+            // increasing doc ids, with gaps, reuse the doc values of the segment
+            for (int docId = 0; docId < leaf.maxDoc(); docId += randomIntBetween(1, 3)) {
+                assertThat(loader.load(leaf, docId), equalTo(SyntheticSource.load(mapper, leaf, docId)));
+            }
+            // going back, or loading the same document twice, starts over
+            int docId = randomIntBetween(0, leaf.maxDoc() - 1);
+            assertThat(loader.load(leaf, docId), equalTo(SyntheticSource.load(mapper, leaf, docId)));
+            assertThat(loader.load(leaf, docId), equalTo(SyntheticSource.load(mapper, leaf, docId)));
+        }
+    }
+
+    public void testUnsupportedMappings() throws IOException {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> client().admin().indices()
+            .prepareCreate("text")
+            .addMapping("_doc", mapping(XContentFactory.jsonBuilder().startObject()
+                .startObject("field").field("type", "text").endObject()
+                .endObject()), XContentType.JSON)
+            .get());
+        assertThat(e.getMessage(), containsString("[_source] in mode [synthetic] doesn't support field [field] of type [text]"));
+
+        e = expectThrows(IllegalArgumentException.class, () -> client().admin().indices()
+            .prepareCreate("no_doc_values")
+            .addMapping("_doc", mapping(XContentFactory.jsonBuilder().startObject()
+                .startObject("field").field("type", "keyword").field("doc_values", false).endObject()
+                .endObject()), XContentType.JSON)
+            .get());
+        assertThat(e.getMessage(), containsString("[_source] in mode [synthetic] requires doc values on field [field]"));
+
+        e = expectThrows(IllegalArgumentException.class, () -> client().admin().indices()
+            .prepareCreate("nested")
+            .addMapping("_doc", mapping(XContentFactory.jsonBuilder().startObject()
+                .startObject("field").field("type", "nested").endObject()
+                .endObject()), XContentType.JSON)
+            .get());
+        assertThat(e.getMessage(), containsString("[_source] in mode [synthetic] doesn't support nested field [field]"));
+
+        createSyntheticIndex();
+        e = expectThrows(IllegalArgumentException.class, () -> client().admin().indices().preparePutMapping("test")
+            .setType("_doc")
+            .setSource(mapping(XContentFactory.jsonBuilder().startObject()
+                .startObject("kwd").field("type", "keyword").field("copy_to", "other").endObject()
+                .startObject("other").field("type", "keyword").endObject()
+                .endObject()), XContentType.JSON)
+            .get());
+        assertThat(e.getMessage(), containsString("[_source] in mode [synthetic] doesn't support [copy_to] on field [kwd]"));
+    }
+}
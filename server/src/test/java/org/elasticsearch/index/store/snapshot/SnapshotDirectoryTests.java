@@ -0,0 +1,348 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.snapshot;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.TestUtil;
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionRunnable;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.RepositoryMetaData;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.IndexShardSnapshotStatus;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.repositories.blobstore.BlobStoreTestUtil;
+import org.elasticsearch.repositories.fs.FsRepository;
+import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.test.DummyShardLock;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.IndexSettingsModule;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SnapshotDirectoryTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        terminate(threadPool);
+        super.tearDown();
+    }
+
+    public void testReadsFilesOfSnapshotOnDemand() throws Exception {
+        try (Directory directory = newFSDirectory(createTempDir())) {
+            final int numDocs = indexDocs(directory);
+            final ShardId shardId = new ShardId("index", "_na_", 0);
+            final IndexId indexId = new IndexId("index", "indexUUID");
+            final SnapshotId snapshotId = new SnapshotId("snapshot", "snapshotUUID");
+            final FsRepository repository = snapshot(directory, shardId, indexId, snapshotId);
+            final List<String> commitFiles = new ArrayList<>(Lucene.readSegmentInfos(directory).files(true));
+
+            final Settings cacheSettings = Settings.builder()
+                .put(SnapshotBlockCache.SNAPSHOT_CACHE_BLOCK_SIZE_SETTING.getKey(), "4kb").build();
+            try (SnapshotBlockCache cache = new SnapshotBlockCache(cacheSettings, createTempDir());
+                 SnapshotDirectory snapshotDirectory = newSnapshotDirectory(repository, snapshotId, indexId, shardId, cache, false)) {
+                assertThat(Arrays.asList(snapshotDirectory.listAll()), containsInAnyOrder(commitFiles.toArray()));
+                for (String file : commitFiles) {
+                    assertThat(snapshotDirectory.fileLength(file), equalTo(directory.fileLength(file)));
+                    assertArrayEquals(file, readFully(directory, file), readFully(snapshotDirectory, file));
+                }
+                try (DirectoryReader reader = DirectoryReader.open(snapshotDirectory)) {
+                    assertThat(reader.numDocs(), equalTo(numDocs));
+                }
+
+                final SnapshotBlockCacheStats stats = cache.stats();
+                assertThat(stats.getMisses(), greaterThan(0L));
+                assertThat(stats.getFetchedBytes(), greaterThan(0L));
+                assertThat(stats.getBlocks(), equalTo(stats.getMisses()));
+                assertThat(stats.getEvictions(), equalTo(0L));
+
+                // blocks are only fetched once
+                for (String file : commitFiles) {
+                    assertArrayEquals(file, readFully(directory, file), readFully(snapshotDirectory, file));
+                }
+                assertThat(cache.stats().getFetchedBytes(), equalTo(stats.getFetchedBytes()));
+                assertThat(cache.stats().getHits(), greaterThan(stats.getHits()));
+
+                // files of the snapshot can be deleted, and new files are written locally
+                final String deleted = randomFrom(commitFiles);
+                snapshotDirectory.deleteFile(deleted);
+                assertThat(Arrays.asList(snapshotDirectory.listAll()), not(hasItem(deleted)));
+                try (IndexOutput output = snapshotDirectory.createOutput("new_file", IOContext.DEFAULT)) {
+                    output.writeInt(42);
+                }
+                snapshotDirectory.sync(Collections.singleton("new_file"));
+                assertThat(Arrays.asList(snapshotDirectory.listAll()), hasItem("new_file"));
+                try (IndexInput input = snapshotDirectory.openInput("new_file", IOContext.DEFAULT)) {
+                    assertThat(input.readInt(), equalTo(42));
+                }
+            }
+        }
+    }
+
+    public void testPrefetchesFilesOfSnapshot() throws Exception {
+        try (Directory directory = newFSDirectory(createTempDir())) {
+            indexDocs(directory);
+            final ShardId shardId = new ShardId("index", "_na_", 0);
+            final IndexId indexId = new IndexId("index", "indexUUID");
+            final SnapshotId snapshotId = new SnapshotId("snapshot", "snapshotUUID");
+            final FsRepository repository = snapshot(directory, shardId, indexId, snapshotId);
+            final List<String> commitFiles = new ArrayList<>(Lucene.readSegmentInfos(directory).files(true));
+
+            final Path prefetchPath = createTempDir();
+            try (SnapshotBlockCache cache = new SnapshotBlockCache(Settings.EMPTY, createTempDir());
+                 SnapshotDirectory snapshotDirectory =
+                     newSnapshotDirectory(repository, snapshotId, indexId, shardId, cache, true, prefetchPath)) {
+                assertThat(Arrays.asList(snapshotDirectory.listAll()), containsInAnyOrder(commitFiles.toArray()));
+                final long filesToPrefetch = repository.loadShardSnapshot(indexId, shardId, snapshotId).indexFiles().stream()
+                    .filter(fileInfo -> fileInfo.name().startsWith(BlobStoreRepository.VIRTUAL_DATA_BLOB_PREFIX) == false).count();
+                assertBusy(() -> {
+                    try (Stream<Path> files = Files.list(prefetchPath)) {
+                        assertThat(files.count(), equalTo(filesToPrefetch));
+                    }
+                });
+                for (String file : commitFiles) {
+                    assertArrayEquals(file, readFully(directory, file), readFully(snapshotDirectory, file));
+                }
+            }
+        }
+    }
+
+    public void testEvictsLeastRecentlyUsedBlocks() throws Exception {
+        final Path cachePath = createTempDir();
+        final Settings settings = Settings.builder()
+            .put(SnapshotBlockCache.SNAPSHOT_CACHE_SIZE_SETTING.getKey(), "8kb")
+            .put(SnapshotBlockCache.SNAPSHOT_CACHE_BLOCK_SIZE_SETTING.getKey(), "4kb").build();
+        final byte[] contents = randomByteArrayOfLength(4 * 4096);
+        try (SnapshotBlockCache cache = new SnapshotBlockCache(settings, cachePath)) {
+            assertThat(cache.getBlockSize(), equalTo(4096));
+            for (int block = 0; block < 4; block++) {
+                final int blockStart = block * 4096;
+                final byte[] bytes = new byte[100];
+                cache.readBlock("file", block, 4096,
+                    () -> new ByteArrayInputStream(contents, blockStart, 4096), 10, bytes, 0, bytes.length);
+                assertArrayEquals(Arrays.copyOfRange(contents, blockStart + 10, blockStart + 110), bytes);
+            }
+            final SnapshotBlockCacheStats stats = cache.stats();
+            assertThat(stats.getMisses(), equalTo(4L));
+            assertThat(stats.getEvictions(), equalTo(2L));
+            assertThat(stats.getSizeInBytes(), lessThanOrEqualTo(8192L));
+            assertThat(stats.getFetchedBytes(), equalTo(4L * 4096));
+            try (Stream<Path> files = Files.list(cachePath)) {
+                assertThat(files.count(), equalTo(stats.getBlocks()));
+            }
+        }
+    }
+
+    public void testKeepsBlocksAcrossRestarts() throws Exception {
+        final Path cachePath = createTempDir();
+        final Settings settings = Settings.builder().put(SnapshotBlockCache.SNAPSHOT_CACHE_BLOCK_SIZE_SETTING.getKey(), "4kb").build();
+        final byte[] contents = randomByteArrayOfLength(3 * 4096);
+        try (SnapshotBlockCache cache = new SnapshotBlockCache(settings, cachePath)) {
+            for (int block = 0; block < 3; block++) {
+                final int blockStart = block * 4096;
+                cache.readBlock("file", block, 4096, () -> new ByteArrayInputStream(contents, blockStart, 4096), 0, new byte[1], 0, 1);
+            }
+        }
+        // leftovers of a fetch that did not complete are discarded on startup
+        Files.write(cachePath.resolve("block-0123.abc.tmp"), new byte[10]);
+
+        try (SnapshotBlockCache cache = new SnapshotBlockCache(settings, cachePath)) {
+            assertThat(cache.stats().getBlocks(), equalTo(3L));
+            assertThat(cache.stats().getSizeInBytes(), equalTo(3L * 4096));
+            for (int block = 0; block < 3; block++) {
+                final int blockStart = block * 4096;
+                final byte[] bytes = new byte[100];
+                cache.readBlock("file", block, 4096, () -> {
+                    throw new AssertionError("block must not be fetched again");
+                }, 10, bytes, 0, bytes.length);
+                assertArrayEquals(Arrays.copyOfRange(contents, blockStart + 10, blockStart + 110), bytes);
+            }
+            assertThat(cache.stats().getFetchedBytes(), equalTo(0L));
+            try (Stream<Path> files = Files.list(cachePath)) {
+                assertThat(files.count(), equalTo(3L));
+            }
+        }
+
+        // blocks that no longer fit are evicted when a smaller cache loads them
+        final Settings smallerSettings = Settings.builder().put(settings)
+            .put(SnapshotBlockCache.SNAPSHOT_CACHE_SIZE_SETTING.getKey(), "8kb").build();
+        try (SnapshotBlockCache cache = new SnapshotBlockCache(smallerSettings, cachePath)) {
+            assertThat(cache.stats().getBlocks(), equalTo(2L));
+            try (Stream<Path> files = Files.list(cachePath)) {
+                assertThat(files.count(), equalTo(2L));
+            }
+        }
+    }
+
+    public void testDoesNotCacheBlocksThatFailVerification() throws Exception {
+        try (Directory directory = newFSDirectory(createTempDir())) {
+            indexDocs(directory);
+            final ShardId shardId = new ShardId("index", "_na_", 0);
+            final IndexId indexId = new IndexId("index", "indexUUID");
+            final SnapshotId snapshotId = new SnapshotId("snapshot", "snapshotUUID");
+            final FsRepository repository = snapshot(directory, shardId, indexId, snapshotId);
+
+            // corrupt a byte before the footer of a file that fits in a single block and blob
+            final List<FileInfo> candidates = repository.loadShardSnapshot(indexId, shardId, snapshotId).indexFiles().stream()
+                .filter(fileInfo -> fileInfo.name().startsWith(BlobStoreRepository.VIRTUAL_DATA_BLOB_PREFIX) == false)
+                .filter(fileInfo -> fileInfo.numberOfParts() == 1 && fileInfo.length() > CodecUtil.footerLength())
+                .collect(Collectors.toList());
+            assumeFalse("no file to corrupt", candidates.isEmpty());
+            final FileInfo corrupted = randomFrom(candidates);
+            final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+            threadPool.generic().execute(ActionRunnable.run(future, () -> {
+                final BlobContainer container = repository.blobStore().blobContainer(
+                    repository.basePath().add("indices").add(indexId.getId()).add(Integer.toString(shardId.id())));
+                final byte[] bytes = BytesReference.toBytes(Streams.readFully(container.readBlob(corrupted.partName(0))));
+                final int position = randomIntBetween(0, Math.toIntExact(corrupted.length()) - CodecUtil.footerLength());
+                bytes[position] = (byte) (bytes[position] ^ 0xFF);
+                container.writeBlob(corrupted.partName(0), new ByteArrayInputStream(bytes), bytes.length, false);
+            }));
+            future.actionGet();
+
+            try (SnapshotBlockCache cache = new SnapshotBlockCache(Settings.EMPTY, createTempDir());
+                 SnapshotDirectory snapshotDirectory = newSnapshotDirectory(repository, snapshotId, indexId, shardId, cache, false)) {
+                expectThrows(CorruptIndexException.class, () -> readFully(snapshotDirectory, corrupted.physicalName()));
+                assertThat(cache.stats().getBlocks(), equalTo(0L));
+                assertThat(cache.stats().getFetchedBytes(), equalTo(0L));
+            }
+        }
+    }
+
+    private SnapshotDirectory newSnapshotDirectory(FsRepository repository, SnapshotId snapshotId, IndexId indexId, ShardId shardId,
+                                                   SnapshotBlockCache cache, boolean prefetch) throws IOException {
+        return newSnapshotDirectory(repository, snapshotId, indexId, shardId, cache, prefetch, createTempDir());
+    }
+
+    private SnapshotDirectory newSnapshotDirectory(FsRepository repository, SnapshotId snapshotId, IndexId indexId, ShardId shardId,
+                                                   SnapshotBlockCache cache, boolean prefetch, Path prefetchPath) throws IOException {
+        final RepositoriesService repositoriesService = mock(RepositoriesService.class);
+        when(repositoriesService.repository(repository.getMetadata().name())).thenReturn(repository);
+        return new SnapshotDirectory(FSDirectory.open(createTempDir()), prefetchPath, () -> repositoriesService,
+            repository.getMetadata().name(), snapshotId, indexId, shardId, cache, threadPool, prefetch);
+    }
+
+    private FsRepository snapshot(Directory directory, ShardId shardId, IndexId indexId, SnapshotId snapshotId) throws Exception {
+        final Path repo = createTempDir();
+        final Settings settings = Settings.builder()
+            .put(Environment.PATH_HOME_SETTING.getKey(), createTempDir().toAbsolutePath())
+            .put(Environment.PATH_REPO_SETTING.getKey(), repo.toAbsolutePath())
+            .put("location", repo)
+            .put("compress", randomBoolean())
+            .put("chunk_size", randomIntBetween(1000, 10000), ByteSizeUnit.BYTES).build();
+        final FsRepository repository = new FsRepository(new RepositoryMetaData("test", "fs", settings),
+            new Environment(settings, null), NamedXContentRegistry.EMPTY, BlobStoreTestUtil.mockClusterService());
+        repository.start();
+        final IndexSettings indexSettings = IndexSettingsModule.newIndexSettings("index",
+            Settings.builder().put(IndexMetaData.SETTING_INDEX_UUID, "_na_").build());
+        final Store store = new Store(shardId, indexSettings, directory, new DummyShardLock(shardId));
+        final IndexCommit indexCommit = Lucene.getIndexCommit(Lucene.readSegmentInfos(store.directory()), store.directory());
+        final PlainActionFuture<String> future = PlainActionFuture.newFuture();
+        threadPool.generic().execute(() -> repository.snapshotShard(store, null, snapshotId, indexId, indexCommit, null,
+            IndexShardSnapshotStatus.newInitializing(null), Version.CURRENT, Collections.emptyMap(), future));
+        future.actionGet();
+        return repository;
+    }
+
+    private static byte[] readFully(Directory directory, String file) throws IOException {
+        try (IndexInput input = directory.openInput(file, IOContext.DEFAULT)) {
+            final byte[] bytes = new byte[Math.toIntExact(input.length())];
+            // read in random chunks to exercise reads that span blocks
+            int offset = 0;
+            while (offset < bytes.length) {
+                final int length = Math.min(bytes.length - offset, randomIntBetween(1, 10000));
+                input.readBytes(bytes, offset, length);
+                offset += length;
+            }
+            return bytes;
+        }
+    }
+
+    private int indexDocs(Directory directory) throws IOException {
+        try (IndexWriter writer = new IndexWriter(directory, newIndexWriterConfig(random(),
+            new MockAnalyzer(random())).setCodec(TestUtil.getDefaultCodec()))) {
+            final int docs = 1 + random().nextInt(500);
+            for (int i = 0; i < docs; i++) {
+                final Document doc = new Document();
+                doc.add(new StringField("id", "" + i, Field.Store.YES));
+                doc.add(new TextField("body", TestUtil.randomRealisticUnicodeString(random(), 10, 200), Field.Store.YES));
+                writer.addDocument(doc);
+            }
+            writer.commit();
+            return docs;
+        }
+    }
+}
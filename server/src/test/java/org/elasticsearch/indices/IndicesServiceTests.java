@@ -36,6 +36,7 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.cluster.shards.ShardCounts;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.io.FileSystemUtils;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
@@ -57,6 +58,7 @@ import org.elasticsearch.index.engine.InternalEngineFactory;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.Mapper;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.MappingDeduplicationStats;
 import org.elasticsearch.index.shard.IllegalIndexShardStateException;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardState;
@@ -521,6 +523,32 @@ public class IndicesServiceTests extends ESSingleNodeTestCase {
         assertThat("unexpected shard stats", indexStats.get(index), equalTo(shardStats));
     }
 
+    public void testIndicesWithIdenticalMappingsShareTheirSource() {
+        final IndicesService indicesService = getIndicesService();
+        final IndexService first = createIndex("first", Settings.EMPTY, "_doc", "field", "type=keyword");
+        final IndexService second = createIndex("second", Settings.EMPTY, "_doc", "field", "type=keyword");
+        final IndexService other = createIndex("other", Settings.EMPTY, "_doc", "field", "type=long");
+
+        final CompressedXContent source = first.mapperService().documentMapper().mappingSource();
+        assertSame(source, second.mapperService().documentMapper().mappingSource());
+        // the mappers use the sources of the cluster state, which are shared across indices
+        final MetaData metaData = getInstanceFromNode(ClusterService.class).state().metaData();
+        assertSame(source, metaData.index("first").mapping().source());
+        assertSame(source, metaData.index("second").mapping().source());
+        assertNotSame(source, other.mapperService().documentMapper().mappingSource());
+
+        MappingDeduplicationStats stats = indicesService.stats(new CommonStatsFlags()).getMappingStats();
+        assertThat(stats.getUniqueCount(), equalTo(2L));
+        assertThat(stats.getTotalCount(), equalTo(3L));
+        assertThat(stats.getSaved().getBytes(), equalTo((long) source.compressed().length));
+
+        assertAcked(client().admin().indices().prepareDelete("second"));
+        stats = indicesService.stats(new CommonStatsFlags()).getMappingStats();
+        assertThat(stats.getUniqueCount(), equalTo(2L));
+        assertThat(stats.getTotalCount(), equalTo(2L));
+        assertThat(stats.getSaved().getBytes(), equalTo(0L));
+    }
+
     public void testIsMetaDataField() {
         IndicesService indicesService = getIndicesService();
         final Version randVersion = VersionUtils.randomVersionBetween(random(), Version.V_6_0_0, Version.CURRENT);
@@ -53,6 +53,7 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.CancellableThreads;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.IndexSettings;
@@ -72,9 +73,11 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardRelocatedException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.test.CorruptionUtils;
 import org.elasticsearch.test.DummyShardLock;
 import org.elasticsearch.test.ESTestCase;
@@ -94,8 +97,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
@@ -103,6 +108,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
 import java.util.zip.CRC32;
 
 import static java.util.Collections.emptyMap;
@@ -111,6 +117,7 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyObject;
@@ -194,6 +201,70 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         IOUtils.close(reader, store, multiFileWriter, targetStore);
     }
 
+    public void testRecoverFilesFromSnapshotFallsBackToSendingFiles() throws Exception {
+        final List<StoreFileMetaData> files = new ArrayList<>();
+        final Map<String, BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles = new HashMap<>();
+        final int numFiles = between(1, 20);
+        for (int i = 0; i < numFiles; i++) {
+            final StoreFileMetaData md =
+                new StoreFileMetaData("_" + i + ".cfs", between(1, 1024), "checksum_" + i, Version.CURRENT.luceneVersion);
+            files.add(md);
+            if (randomBoolean()) {
+                snapshotFiles.put(md.name(), new BlobStoreIndexShardSnapshot.FileInfo("__" + i, md, null));
+            }
+        }
+        final Set<String> failingFiles = new HashSet<>(randomSubsetOf(snapshotFiles.keySet()));
+        final Set<String> fetchedFiles = ConcurrentCollections.newConcurrentSet();
+        final ShardSnapshotsService.ShardSnapshot shardSnapshot = new ShardSnapshotsService.ShardSnapshot("repo",
+            new IndexId("index", UUIDs.randomBase64UUID()), "snapshot", snapshotFiles, 0L);
+        final RecoveryTargetHandler target = new TestRecoveryTargetHandler() {
+            @Override
+            public void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo snapshotFile,
+                                                ActionListener<Void> listener) {
+                assertThat(repository, equalTo("repo"));
+                assertThat(snapshotFiles.get(snapshotFile.physicalName()), sameInstance(snapshotFile));
+                assertTrue(fetchedFiles.add(snapshotFile.physicalName()));
+                if (failingFiles.contains(snapshotFile.physicalName())) {
+                    listener.onFailure(new IOException("simulated"));
+                } else {
+                    listener.onResponse(null);
+                }
+            }
+        };
+        final RecoverySourceHandler handler = new RecoverySourceHandler(null, new AsyncRecoveryTarget(target, recoveryExecutor),
+            threadPool, getStartRecoveryRequest(), between(1, 4096), between(1, 5), mock(ShardSnapshotsService.class), between(1, 5));
+        final PlainActionFuture<List<StoreFileMetaData>> future = new PlainActionFuture<>();
+        handler.recoverFilesFromSnapshot(shardSnapshot, files, future);
+        final Set<String> sentFiles = future.actionGet().stream().map(StoreFileMetaData::name).collect(Collectors.toSet());
+        assertThat(fetchedFiles, equalTo(snapshotFiles.keySet()));
+        for (StoreFileMetaData md : files) {
+            final boolean fetched = snapshotFiles.containsKey(md.name()) && failingFiles.contains(md.name()) == false;
+            assertThat(md.name(), sentFiles.contains(md.name()), equalTo(fetched == false));
+        }
+    }
+
+    public void testRecoverFilesFromSnapshotWithoutSnapshotFiles() throws Exception {
+        final List<StoreFileMetaData> files = new ArrayList<>();
+        final int numFiles = between(0, 20);
+        for (int i = 0; i < numFiles; i++) {
+            files.add(new StoreFileMetaData("_" + i + ".cfs", between(1, 1024), "checksum_" + i, Version.CURRENT.luceneVersion));
+        }
+        final ShardSnapshotsService.ShardSnapshot shardSnapshot = new ShardSnapshotsService.ShardSnapshot("repo",
+            new IndexId("index", UUIDs.randomBase64UUID()), "snapshot", Collections.emptyMap(), 0L);
+        final RecoveryTargetHandler target = new TestRecoveryTargetHandler() {
+            @Override
+            public void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo snapshotFile,
+                                                ActionListener<Void> listener) {
+                throw new AssertionError("no file should be fetched from the snapshot");
+            }
+        };
+        final RecoverySourceHandler handler = new RecoverySourceHandler(null, new AsyncRecoveryTarget(target, recoveryExecutor),
+            threadPool, getStartRecoveryRequest(), between(1, 4096), between(1, 5), mock(ShardSnapshotsService.class), between(1, 5));
+        final PlainActionFuture<List<StoreFileMetaData>> future = new PlainActionFuture<>();
+        handler.recoverFilesFromSnapshot(shardSnapshot, files, future);
+        assertThat(future.actionGet(), equalTo(files));
+    }
+
     public StartRecoveryRequest getStartRecoveryRequest() throws IOException {
         Store.MetadataSnapshot metadataSnapshot = randomBoolean() ? Store.MetadataSnapshot.EMPTY :
             new Store.MetadataSnapshot(Collections.emptyMap(),
@@ -821,6 +892,11 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         public void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content, boolean lastChunk,
                                    int totalTranslogOps, ActionListener<Void> listener) {
         }
+
+        @Override
+        public void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo snapshotFile,
+                                            ActionListener<Void> listener) {
+        }
     }
 
     private Translog.Snapshot newTranslogSnapshot(List<Translog.Operation> operations, List<Translog.Operation> operationsToSkip) {
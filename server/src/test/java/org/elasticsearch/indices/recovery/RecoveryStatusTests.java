@@ -19,17 +19,27 @@
 package org.elasticsearch.indices.recovery;
 
 import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.regex.Pattern;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
 public class RecoveryStatusTests extends ESSingleNodeTestCase {
     private static final org.apache.lucene.util.Version MIN_SUPPORTED_LUCENE_VERSION = org.elasticsearch.Version.CURRENT
         .minimumIndexCompatibilityVersion().luceneVersion;
@@ -73,4 +83,47 @@ public class RecoveryStatusTests extends ESSingleNodeTestCase {
         assertFalse(strings.toString(), strings.contains(expectedFile));
         multiFileWriter.close();
     }
+
+    public void testWriteFileVerifiesChecksum() throws IOException {
+        IndexService service = createIndex("foo");
+
+        IndexShard indexShard = service.getShardOrNull(0);
+        RecoveryState.Index indexState = new RecoveryState.Index();
+        MultiFileWriter multiFileWriter = new MultiFileWriter(indexShard.store(), indexState, "recovery.test.", logger, () -> {});
+
+        final byte[] content = randomByteArrayOfLength(randomIntBetween(1, 1024));
+        final byte[] bytes;
+        final String checksum;
+        try (ByteBuffersDirectory directory = new ByteBuffersDirectory()) {
+            try (IndexOutput output = directory.createOutput("file", IOContext.DEFAULT)) {
+                output.writeBytes(content, content.length);
+                CodecUtil.writeFooter(output);
+            }
+            try (IndexInput input = directory.openInput("file", IOContext.DEFAULT)) {
+                checksum = Store.digestToString(CodecUtil.retrieveChecksum(input));
+                bytes = new byte[Math.toIntExact(input.length())];
+                input.seek(0L);
+                input.readBytes(bytes, 0, bytes.length);
+            }
+        }
+
+        final StoreFileMetaData valid = new StoreFileMetaData("foo.bar", bytes.length, checksum, MIN_SUPPORTED_LUCENE_VERSION);
+        indexState.addFileDetail(valid.name(), valid.length(), false);
+        multiFileWriter.writeFile(valid, randomIntBetween(1, 128), new ByteArrayInputStream(bytes));
+        assertThat(indexState.getFileDetails(valid.name()).recovered(), equalTo((long) bytes.length));
+        assertThat(indexState.getFileDetails(valid.name()).recoveredFromSnapshot(), equalTo((long) bytes.length));
+        assertThat(multiFileWriter.tempFileNames.values(), contains(valid.name()));
+
+        final StoreFileMetaData corrupted = new StoreFileMetaData("foo.baz", bytes.length, checksum, MIN_SUPPORTED_LUCENE_VERSION);
+        indexState.addFileDetail(corrupted.name(), corrupted.length(), false);
+        final byte[] corruptedBytes = bytes.clone();
+        corruptedBytes[randomIntBetween(0, content.length - 1)] ^= 1;
+        expectThrows(CorruptIndexException.class,
+            () -> multiFileWriter.writeFile(corrupted, randomIntBetween(1, 128), new ByteArrayInputStream(corruptedBytes)));
+        assertThat(indexState.getFileDetails(corrupted.name()).recovered(), equalTo(0L));
+        assertThat(indexState.getFileDetails(corrupted.name()).recoveredFromSnapshot(), equalTo(0L));
+        assertThat(multiFileWriter.tempFileNames.values(), contains(valid.name()));
+        assertFalse(Arrays.asList(indexShard.store().directory().listAll()).contains(multiFileWriter.getTempNameForFile(corrupted.name())));
+        multiFileWriter.close();
+    }
 }
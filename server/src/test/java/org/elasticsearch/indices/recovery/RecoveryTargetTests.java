@@ -36,6 +36,7 @@ import org.elasticsearch.indices.recovery.RecoveryState.Timer;
 import org.elasticsearch.indices.recovery.RecoveryState.Translog;
 import org.elasticsearch.indices.recovery.RecoveryState.VerifyIndex;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -49,6 +50,7 @@ import static java.util.Collections.emptySet;
 import static org.elasticsearch.test.VersionUtils.randomVersion;
 import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
 import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.either;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
@@ -333,6 +335,60 @@ public class RecoveryTargetTests extends ESTestCase {
         }
     }
 
+    public void testRecoveredFromSnapshotSerialization() throws IOException {
+        final Index index = new Index();
+        index.start();
+        final int numFiles = randomIntBetween(1, 10);
+        long recoveredBytes = 0;
+        long recoveredFromSnapshotBytes = 0;
+        for (int i = 0; i < numFiles; i++) {
+            final String name = "f_" + i;
+            final int length = randomIntBetween(2, 1000);
+            index.addFileDetail(name, length, false);
+            final int fromSnapshot = randomIntBetween(0, length);
+            final int fromSource = randomIntBetween(0, length - fromSnapshot);
+            if (fromSnapshot > 0) {
+                index.addRecoveredFromSnapshotBytesToFile(name, fromSnapshot);
+            }
+            if (fromSource > 0) {
+                index.addRecoveredBytesToFile(name, fromSource);
+            }
+            recoveredBytes += fromSnapshot + fromSource;
+            recoveredFromSnapshotBytes += fromSnapshot;
+        }
+        assertThat(index.recoveredBytes(), equalTo(recoveredBytes));
+        assertThat(index.recoveredFromSnapshotBytes(), equalTo(recoveredFromSnapshotBytes));
+
+        final Index current = copyIndex(index, Version.CURRENT);
+        assertThat(current.fileDetails().toArray(), arrayContainingInAnyOrder(index.fileDetails().toArray()));
+        assertThat(current.recoveredBytes(), equalTo(recoveredBytes));
+        assertThat(current.recoveredFromSnapshotBytes(), equalTo(recoveredFromSnapshotBytes));
+
+        final Index bwc = copyIndex(index, VersionUtils.getPreviousVersion(RecoverySettings.SNAPSHOT_RECOVERIES_SUPPORTED_VERSION));
+        assertThat(bwc.recoveredBytes(), equalTo(recoveredBytes));
+        assertThat(bwc.recoveredFromSnapshotBytes(), equalTo(0L));
+
+        final String json = Strings.toString(index);
+        assertThat(json, containsString("\"recovered_from_snapshot_in_bytes\":" + recoveredFromSnapshotBytes));
+
+        final String name = "f_" + randomIntBetween(0, numFiles - 1);
+        index.resetRecoveredBytesOfFile(name);
+        final File file = copyIndex(index, Version.CURRENT).fileDetails().stream()
+            .filter(f -> f.name().equals(name)).findFirst().get();
+        assertThat(file.recovered(), equalTo(0L));
+        assertThat(file.recoveredFromSnapshot(), equalTo(0L));
+    }
+
+    private static Index copyIndex(Index index, Version version) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(version);
+            index.writeTo(out);
+            final StreamInput in = out.bytes().streamInput();
+            in.setVersion(version);
+            return new Index(in);
+        }
+    }
+
     public void testStageSequenceEnforcement() {
         final DiscoveryNode discoveryNode = new DiscoveryNode("1", buildNewFakeTransportAddress(), emptyMap(), emptySet(),
             Version.CURRENT);
@@ -28,6 +28,7 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -71,6 +72,44 @@ public class ResponseCollectorServiceTests extends ESTestCase {
         assertThat(nodeStats.get("node1").serviceTime, equalTo(10.0));
     }
 
+    public void testNodeLoadAndShardStats() throws Exception {
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        // load and shard statistics are ignored until the node has statistics
+        collector.addNodeLoad("node1", 50, 10);
+        collector.addShardStatistics("node1", shardId, 1000);
+        assertFalse(collector.getShardServiceTime("node1", shardId).isPresent());
+
+        collector.addNodeStatistics("node1", 1, 100, 10);
+        ResponseCollectorService.ComputedNodeStats stats = collector.getAllNodeStatistics().get("node1");
+        assertThat(stats.cpuPercent, equalTo(-1.0));
+        assertThat(stats.gcOverheadPercent, equalTo(-1.0));
+
+        collector.addNodeLoad("node1", 50, -1);
+        collector.addShardStatistics("node1", shardId, 1000);
+        stats = collector.getAllNodeStatistics().get("node1");
+        assertThat(stats.cpuPercent, equalTo(50.0));
+        assertThat(stats.gcOverheadPercent, equalTo(-1.0));
+        assertThat(collector.getShardServiceTime("node1", shardId).getAsDouble(), equalTo(1000.0));
+        assertFalse(collector.getShardServiceTime("node1", new ShardId("index", "_na_", 1)).isPresent());
+    }
+
+    public void testShardRanking() {
+        final ResponseCollectorService.ComputedNodeStats stats =
+            new ResponseCollectorService.ComputedNodeStats("node1", 1, 2, 1000, 100, 20, 5);
+        // the node ranking ignores the shard service time and the load
+        assertThat(stats.rank(AdaptiveSelectionRanking.DEFAULT, 1, 1000), equalTo(stats.rank(1)));
+
+        final AdaptiveSelectionRanking ranking = new AdaptiveSelectionRanking(AdaptiveSelectionRanking.Mode.SHARD, 3, 1.0, 0.0);
+        final double fastCopy = stats.rank(ranking, 1, 50);
+        final double slowCopy = stats.rank(ranking, 1, 500);
+        assertThat(slowCopy, greaterThan(fastCopy));
+        // an unknown shard service time falls back to the one of the node
+        assertThat(stats.rank(ranking, 1, -1), equalTo(stats.rank(ranking, 1, 100)));
+
+        final AdaptiveSelectionRanking loadRanking = new AdaptiveSelectionRanking(AdaptiveSelectionRanking.Mode.SHARD, 3, 1.0, 1.0);
+        assertThat(stats.rank(loadRanking, 1, 50), greaterThan(fastCopy));
+    }
+
     /*
      * Test that concurrently adding values and removing nodes does not cause exceptions
      */
@@ -19,7 +19,15 @@
 
 package org.elasticsearch.repositories.blobstore;
 
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.admin.cluster.snapshots.create.CreateSnapshotResponse;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
@@ -27,10 +35,20 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.metadata.RepositoryMetaData;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.blobstore.BlobPath;
+import org.elasticsearch.common.blobstore.fs.FsBlobContainer;
+import org.elasticsearch.common.blobstore.fs.FsBlobStore;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.plugins.RepositoryPlugin;
 import org.elasticsearch.repositories.IndexId;
@@ -39,22 +57,35 @@ import org.elasticsearch.repositories.Repository;
 import org.elasticsearch.repositories.RepositoryData;
 import org.elasticsearch.repositories.RepositoryException;
 import org.elasticsearch.repositories.ShardGenerations;
+import org.elasticsearch.repositories.SnapshotDeletionProgress;
 import org.elasticsearch.repositories.fs.FsRepository;
 import org.elasticsearch.snapshots.SnapshotId;
 import org.elasticsearch.snapshots.SnapshotState;
+import org.elasticsearch.snapshots.mockstore.MockRepository;
 import org.elasticsearch.test.ESIntegTestCase;
 import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.elasticsearch.repositories.RepositoryDataTests.generateRandomRepoData;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.nullValue;
 
 /**
@@ -65,7 +96,7 @@ public class BlobStoreRepositoryTests extends ESSingleNodeTestCase {
     static final String REPO_TYPE = "fsLike";
 
     protected Collection<Class<? extends Plugin>> getPlugins() {
-        return Arrays.asList(FsLikeRepoPlugin.class);
+        return Arrays.asList(FsLikeRepoPlugin.class, MockRepository.Plugin.class);
     }
 
     // the reason for this plug-in is to drop any assertSnapshotOrGenericThread as mostly all access in this test goes from test threads
@@ -238,6 +269,144 @@ public class BlobStoreRepositoryTests extends ESSingleNodeTestCase {
             " See the breaking changes documentation for the next major version.");
     }
 
+    public void testPartialReadsOfShardFilesVerifyFooterChecksum() throws Exception {
+        final BlobStoreRepository repository = setupRepo();
+        final IndexId indexId = new IndexId(randomAlphaOfLength(8), UUIDs.randomBase64UUID());
+        final ShardId shardId = new ShardId(indexId.getName(), indexId.getId(), 0);
+
+        final byte[] bytes;
+        final String checksum;
+        try (Directory directory = new ByteBuffersDirectory()) {
+            try (IndexOutput output = directory.createOutput("file", IOContext.DEFAULT)) {
+                CodecUtil.writeHeader(output, "test", 0);
+                output.writeBytes(randomByteArrayOfLength(randomIntBetween(0, 1 << 10)), 0);
+                CodecUtil.writeFooter(output);
+            }
+            try (IndexInput input = directory.openInput("file", IOContext.DEFAULT)) {
+                bytes = new byte[Math.toIntExact(input.length())];
+                input.readBytes(bytes, 0, bytes.length);
+                checksum = Store.digestToString(CodecUtil.retrieveChecksum(input));
+            }
+        }
+        final String blobName = "__" + UUIDs.randomBase64UUID();
+        repository.blobStore().blobContainer(repository.basePath().add("indices").add(indexId.getId()).add("0"))
+            .writeBlob(blobName, new ByteArrayInputStream(bytes), bytes.length, true);
+
+        final BlobStoreIndexShardSnapshot.FileInfo fileInfo = new BlobStoreIndexShardSnapshot.FileInfo(blobName,
+            new StoreFileMetaData("file", bytes.length, checksum, org.apache.lucene.util.Version.LATEST), null);
+        final int position = randomIntBetween(0, bytes.length - 1);
+        try (InputStream inputStream = repository.readShardFile(indexId, shardId, fileInfo, position, bytes.length - position)) {
+            assertArrayEquals(Arrays.copyOfRange(bytes, position, bytes.length), BytesReference.toBytes(Streams.readFully(inputStream)));
+        }
+
+        final BlobStoreIndexShardSnapshot.FileInfo corruptedFileInfo = new BlobStoreIndexShardSnapshot.FileInfo(blobName,
+            new StoreFileMetaData("file", bytes.length, checksum + "0", org.apache.lucene.util.Version.LATEST), null);
+        // ranges that do not cover the checksum in the footer of the file cannot be verified
+        final int length = randomIntBetween(0, bytes.length - Long.BYTES);
+        try (InputStream inputStream = repository.readShardFile(indexId, shardId, corruptedFileInfo, 0L, length)) {
+            assertThat(Streams.readFully(inputStream).length(), equalTo(length));
+        }
+        expectThrows(CorruptIndexException.class, () -> {
+            try (InputStream inputStream = repository.readShardFile(indexId, shardId, corruptedFileInfo, position,
+                bytes.length - position)) {
+                Streams.readFully(inputStream);
+            }
+        });
+    }
+
+    public void testDeleteBlobsInParallelBatches() throws Exception {
+        final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        final BlobContainer container = new FsBlobContainer(new FsBlobStore(Settings.EMPTY, createTempDir(), false),
+            BlobPath.cleanPath(), createTempDir()) {
+            @Override
+            public void deleteBlobsIgnoringIfNotExists(List<String> blobNames) throws IOException {
+                batches.add(new ArrayList<>(blobNames));
+                super.deleteBlobsIgnoringIfNotExists(blobNames);
+            }
+        };
+        final int batchSize = BlobStoreRepository.DELETE_BATCH_SIZE;
+        final int blobCount = randomFrom(0, 1, batchSize - 1, batchSize, batchSize + 1, 2 * batchSize, randomIntBetween(1, 3 * batchSize));
+        final List<String> blobs = IntStream.range(0, blobCount).mapToObj(i -> "blob-" + i).collect(Collectors.toList());
+
+        final SnapshotDeletionProgress progress = new SnapshotDeletionProgress();
+        final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+        BlobStoreRepository.deleteBlobsInParallel(container, getInstanceFromNode(ThreadPool.class).executor(ThreadPool.Names.SNAPSHOT),
+            blobs, progress, future);
+        future.get();
+
+        assertThat(batches.size(), equalTo((blobCount + batchSize - 1) / batchSize));
+        for (List<String> batch : batches) {
+            assertThat(batch.size(), lessThanOrEqualTo(batchSize));
+        }
+        final List<String> deletedBlobs = batches.stream().flatMap(List::stream).collect(Collectors.toList());
+        assertThat(deletedBlobs.size(), equalTo(blobCount));
+        assertThat(new HashSet<>(deletedBlobs), equalTo(new HashSet<>(blobs)));
+        assertThat(progress.getBlobsToDelete(), equalTo((long) blobCount));
+        assertThat(progress.getDeletedBlobs(), equalTo((long) blobCount));
+    }
+
+    public void testDeleteBlobsInParallelPartialFailure() throws Exception {
+        final int batchSize = BlobStoreRepository.DELETE_BATCH_SIZE;
+        final int blobCount = randomIntBetween(batchSize + 1, 4 * batchSize);
+        final List<String> blobs = IntStream.range(0, blobCount).mapToObj(i -> "blob-" + i).collect(Collectors.toList());
+        final String failingBlob = randomFrom(blobs);
+        final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        final BlobContainer container = new FsBlobContainer(new FsBlobStore(Settings.EMPTY, createTempDir(), false),
+            BlobPath.cleanPath(), createTempDir()) {
+            @Override
+            public void deleteBlobsIgnoringIfNotExists(List<String> blobNames) throws IOException {
+                batches.add(new ArrayList<>(blobNames));
+                if (blobNames.contains(failingBlob)) {
+                    throw new IOException("simulated failure to delete [" + failingBlob + "]");
+                }
+                super.deleteBlobsIgnoringIfNotExists(blobNames);
+            }
+        };
+
+        final SnapshotDeletionProgress progress = new SnapshotDeletionProgress();
+        final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+        BlobStoreRepository.deleteBlobsInParallel(container, getInstanceFromNode(ThreadPool.class).executor(ThreadPool.Names.SNAPSHOT),
+            blobs, progress, future);
+        final ExecutionException e = expectThrows(ExecutionException.class, future::get);
+        assertThat(e.getCause(), instanceOf(IOException.class));
+        assertThat(e.getCause().getMessage(), containsString(failingBlob));
+
+        // a failing batch does not prevent the other batches from being deleted
+        final int expectedBatches = (blobCount + batchSize - 1) / batchSize;
+        assertThat(batches.size(), equalTo(expectedBatches));
+        final int failedBatchSize = batches.stream().filter(batch -> batch.contains(failingBlob)).findFirst().get().size();
+        assertThat(progress.getBlobsToDelete(), equalTo((long) blobCount));
+        assertThat(progress.getDeletedBlobs(), equalTo((long) (blobCount - failedBatchSize)));
+    }
+
+    public void testPartialReadsOfShardFilesOnlyReadTheRange() throws Exception {
+        final MockRepository repository = (MockRepository) setupRepo("mock");
+        final IndexId indexId = new IndexId(randomAlphaOfLength(8), UUIDs.randomBase64UUID());
+        final ShardId shardId = new ShardId(indexId.getName(), indexId.getId(), 0);
+
+        final byte[] bytes = randomByteArrayOfLength(randomIntBetween(2, 1 << 12));
+        final String blobName = "__" + UUIDs.randomBase64UUID();
+        final PlainActionFuture<Void> writeFuture = PlainActionFuture.newFuture();
+        repository.threadPool().generic().execute(ActionRunnable.run(writeFuture, () ->
+            repository.blobStore().blobContainer(repository.basePath().add("indices").add(indexId.getId()).add("0"))
+                .writeBlob(blobName, new ByteArrayInputStream(bytes), bytes.length, true)));
+        writeFuture.get();
+
+        // the range doesn't cover the footer of the file, so the checksum isn't verified
+        final BlobStoreIndexShardSnapshot.FileInfo fileInfo = new BlobStoreIndexShardSnapshot.FileInfo(blobName,
+            new StoreFileMetaData("file", bytes.length, "_na_", org.apache.lucene.util.Version.LATEST), null);
+        final int position = randomIntBetween(0, bytes.length - 2);
+        final int length = randomIntBetween(1, bytes.length - 1 - position);
+        final long rangeReads = repository.getRangeReadCount();
+        final long bytesRead = repository.getBytesRead();
+        try (InputStream inputStream = repository.readShardFile(indexId, shardId, fileInfo, position, length)) {
+            assertArrayEquals(Arrays.copyOfRange(bytes, position, position + length),
+                BytesReference.toBytes(Streams.readFully(inputStream)));
+        }
+        assertThat(repository.getRangeReadCount(), equalTo(rangeReads + 1));
+        assertThat(repository.getBytesRead(), equalTo(bytesRead + length));
+    }
+
     private static void writeIndexGen(BlobStoreRepository repository, RepositoryData repositoryData, long generation) {
         final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
         repository.writeIndexGen(repositoryData, generation, true, future);
@@ -245,13 +414,17 @@ public class BlobStoreRepositoryTests extends ESSingleNodeTestCase {
     }
 
     private BlobStoreRepository setupRepo() {
+        return setupRepo(REPO_TYPE);
+    }
+
+    private BlobStoreRepository setupRepo(String type) {
         final Client client = client();
         final Path location = ESIntegTestCase.randomRepoPath(node().settings());
         final String repositoryName = "test-repo";
 
         AcknowledgedResponse putRepositoryResponse =
             client.admin().cluster().preparePutRepository(repositoryName)
-                                    .setType(REPO_TYPE)
+                                    .setType(type)
                                     .setSettings(Settings.builder().put(node().settings()).put("location", location))
                                     .get();
         assertThat(putRepositoryResponse.isAcknowledged(), equalTo(true));
@@ -0,0 +1,148 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.blobstore.BlobPath;
+import org.elasticsearch.common.blobstore.MultipartBlobContainer;
+import org.elasticsearch.common.blobstore.fs.FsBlobContainer;
+import org.elasticsearch.common.blobstore.fs.FsBlobStore;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ConcurrentMultipartUploadTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    }
+
+    public void testPartSize() throws IOException {
+        final FsBlobContainer container = newContainer(createTempDir());
+        assertThat(ConcurrentMultipartUpload.partSize(container, 100, 10, 100), equalTo(10));
+        assertThat("blob fits into a single part", ConcurrentMultipartUpload.partSize(container, 10, 10, 100), equalTo(-1));
+        assertThat("part exceeds the budget", ConcurrentMultipartUpload.partSize(container, 100, 10, 9), equalTo(-1));
+
+        final MultipartBlobContainer limited = new FsBlobContainer(new FsBlobStore(Settings.EMPTY, createTempDir(), false),
+            BlobPath.cleanPath(), createTempDir()) {
+            @Override
+            public long minimumPartSize() {
+                return 20;
+            }
+
+            @Override
+            public int maximumNumberOfParts() {
+                return 4;
+            }
+        };
+        assertThat("minimum part size", ConcurrentMultipartUpload.partSize(limited, 60, 10, 100), equalTo(20));
+        assertThat("maximum number of parts", ConcurrentMultipartUpload.partSize(limited, 100, 10, 100), equalTo(25));
+        assertThat(ConcurrentMultipartUpload.partSize(limited, 100, 30, 100), equalTo(30));
+    }
+
+    public void testUpload() throws Exception {
+        final FsBlobContainer container = newContainer(createTempDir());
+        final byte[] blob = randomByteArrayOfLength(randomIntBetween(2, 1 << 20));
+        final int preferredPartSize = randomIntBetween(Math.max(1, blob.length / 100), blob.length - 1);
+        final int maxBytesInFlight = randomIntBetween(preferredPartSize, blob.length);
+        final int partSize = ConcurrentMultipartUpload.partSize(container, blob.length, preferredPartSize, maxBytesInFlight);
+        assertThat(partSize, equalTo(preferredPartSize));
+        final Semaphore bytesInFlight = new Semaphore(maxBytesInFlight);
+
+        ConcurrentMultipartUpload.upload(container, "blob", new ByteArrayInputStream(blob), blob.length, true, partSize,
+            threadPool.executor(ThreadPool.Names.SNAPSHOT), bytesInFlight);
+
+        assertThat(bytesInFlight.availablePermits(), equalTo(maxBytesInFlight));
+        assertThat(container.listBlobs().keySet(), equalTo(Collections.singleton("blob")));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = container.readBlob("blob")) {
+            Streams.copy(in, out);
+        }
+        assertArrayEquals(blob, out.toByteArray());
+    }
+
+    public void testFailedPartAbortsUpload() throws Exception {
+        final Path path = createTempDir();
+        final byte[] blob = randomByteArrayOfLength(randomIntBetween(100, 1 << 16));
+        final int partSize = randomIntBetween(blob.length / 100, blob.length / 10);
+        final int failingPart = randomIntBetween(1, (blob.length + partSize - 1) / partSize);
+        final FsBlobContainer container = new FsBlobContainer(new FsBlobStore(Settings.EMPTY, path, false), BlobPath.cleanPath(), path) {
+            @Override
+            public MultipartUpload startMultipartUpload(String blobName, long blobSize, boolean failIfAlreadyExists) throws IOException {
+                final MultipartUpload upload = super.startMultipartUpload(blobName, blobSize, failIfAlreadyExists);
+                return new MultipartUpload() {
+                    @Override
+                    public void writePart(int partNumber, long offset, BytesReference bytes) throws IOException {
+                        if (partNumber == failingPart) {
+                            throw new IOException("simulated");
+                        }
+                        upload.writePart(partNumber, offset, bytes);
+                    }
+
+                    @Override
+                    public void complete() throws IOException {
+                        upload.complete();
+                    }
+
+                    @Override
+                    public void abort() throws IOException {
+                        upload.abort();
+                    }
+                };
+            }
+        };
+        final int maxBytesInFlight = randomIntBetween(partSize, blob.length);
+        final Semaphore bytesInFlight = new Semaphore(maxBytesInFlight);
+
+        final IOException e = expectThrows(IOException.class, () -> ConcurrentMultipartUpload.upload(container, "blob",
+            new ByteArrayInputStream(blob), blob.length, true, partSize, threadPool.executor(ThreadPool.Names.SNAPSHOT), bytesInFlight));
+
+        assertThat(e.getCause().getMessage(), equalTo("simulated"));
+        assertThat(bytesInFlight.availablePermits(), equalTo(maxBytesInFlight));
+        assertThat(container.listBlobs(), anEmptyMap());
+    }
+
+    private static FsBlobContainer newContainer(Path path) throws IOException {
+        return (FsBlobContainer) new FsBlobStore(Settings.EMPTY, path, false).blobContainer(BlobPath.cleanPath());
+    }
+}
@@ -65,6 +65,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -166,6 +167,69 @@ public class FsRepositoryTests extends ESTestCase {
         }
     }
 
+    public void testDeduplicatedSnapshotAndRestore() throws IOException, InterruptedException {
+        ThreadPool threadPool = new TestThreadPool(getClass().getSimpleName());
+        try (Directory directory = newDirectory()) {
+            Path repo = createTempDir();
+            Settings settings = Settings.builder()
+                .put(Environment.PATH_HOME_SETTING.getKey(), createTempDir().toAbsolutePath())
+                .put(Environment.PATH_REPO_SETTING.getKey(), repo.toAbsolutePath())
+                .putList(Environment.PATH_DATA_SETTING.getKey(), tmpPaths())
+                .put("location", repo)
+                .put("compress", randomBoolean())
+                .put("deduplicate_blobs", true)
+                .put("chunk_size", randomIntBetween(100, 1000), ByteSizeUnit.BYTES).build();
+
+            int numDocs = indexDocs(directory);
+            RepositoryMetaData metaData = new RepositoryMetaData("test", "fs", settings);
+            FsRepository repository = new FsRepository(metaData, new Environment(settings, null), NamedXContentRegistry.EMPTY,
+                BlobStoreTestUtil.mockClusterService());
+            repository.start();
+            final Settings indexSettings = Settings.builder().put(IndexMetaData.SETTING_INDEX_UUID, "myindexUUID").build();
+            IndexSettings idxSettings = IndexSettingsModule.newIndexSettings("myindex", indexSettings);
+            ShardId shardId = new ShardId(idxSettings.getIndex(), 0);
+            Store store = new Store(shardId, idxSettings, directory, new DummyShardLock(shardId));
+            SnapshotId snapshotId = new SnapshotId("test", "test");
+            // the same shard contents snapshotted as two different indices share all their data blobs
+            IndexId firstIndexId = new IndexId("first", "firstUUID");
+            IndexId secondIndexId = new IndexId("second", "secondUUID");
+            IndexCommit indexCommit = Lucene.getIndexCommit(Lucene.readSegmentInfos(store.directory()), store.directory());
+            final int fileCount = indexCommit.getFileNames().size();
+            // files whose contents are stored in their metadata are not written to the repository
+            final int uploadedFileCount = (int) store.getMetadata(indexCommit).asMap().values().stream()
+                .filter(md -> md.hashEqualsContents() == false).count();
+
+            for (IndexId indexId : Arrays.asList(firstIndexId, secondIndexId)) {
+                final PlainActionFuture<String> future = PlainActionFuture.newFuture();
+                runGeneric(threadPool, () -> {
+                    IndexShardSnapshotStatus snapshotStatus = IndexShardSnapshotStatus.newInitializing(null);
+                    repository.snapshotShard(store, null, snapshotId, indexId, indexCommit, null,
+                        snapshotStatus, Version.CURRENT, Collections.emptyMap(), future);
+                    future.actionGet();
+                    IndexShardSnapshotStatus.Copy copy = snapshotStatus.asCopy();
+                    assertEquals(fileCount, copy.getTotalFileCount());
+                    assertEquals(indexId == firstIndexId ? 0 : uploadedFileCount, copy.getDeduplicatedFileCount());
+                });
+                future.actionGet();
+            }
+
+            Lucene.cleanLuceneIndex(directory);
+            DiscoveryNode localNode = new DiscoveryNode("foo", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT);
+            ShardRouting routing = ShardRouting.newUnassigned(shardId, true, new RecoverySource.SnapshotRecoverySource("test",
+                    new Snapshot("foo", snapshotId), Version.CURRENT, secondIndexId),
+                new UnassignedInfo(UnassignedInfo.Reason.EXISTING_INDEX_RESTORED, ""));
+            routing = ShardRoutingHelper.initialize(routing, localNode.getId(), 0);
+            RecoveryState state = new RecoveryState(routing, localNode, null);
+            final PlainActionFuture<Void> restoreFuture = PlainActionFuture.newFuture();
+            runGeneric(threadPool, () -> repository.restoreShard(store, snapshotId, secondIndexId, shardId, state, restoreFuture));
+            restoreFuture.actionGet();
+            assertEquals(fileCount, state.getIndex().recoveredFileCount());
+            assertEquals(numDocs, Lucene.readSegmentInfos(directory).totalMaxDoc());
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
     private void runGeneric(ThreadPool threadPool, Runnable runnable) throws InterruptedException {
         CountDownLatch latch = new CountDownLatch(1);
         threadPool.generic().submit(() -> {
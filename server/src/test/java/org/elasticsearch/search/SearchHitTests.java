@@ -55,6 +55,7 @@ import java.util.function.Predicate;
 import static org.elasticsearch.common.xcontent.XContentHelper.toXContent;
 import static org.elasticsearch.test.XContentTestUtils.insertRandomFields;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertToXContentEquivalent;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.notNullValue;
@@ -220,6 +221,26 @@ public class SearchHitTests extends AbstractWireSerializingTestCase<SearchHit> {
         assertEquals("{\"_type\":\"type\",\"_id\":\"id1\",\"_score\":1.5}", Strings.toString(builder));
     }
 
+    public void testHighlightTruncatedToAndFromXContent() throws IOException {
+        SearchHit searchHit = new SearchHit(1, "id1", new Text("type"), Collections.emptyMap());
+        Map<String, HighlightField> highlightFields = new HashMap<>();
+        highlightFields.put("body", new HighlightField("body", new Text[] { new Text("a <em>large</em> body") }, true));
+        highlightFields.put("title", new HighlightField("title", new Text[] { new Text("a <em>title</em>") }));
+        searchHit.highlightFields(highlightFields);
+        XContentBuilder builder = JsonXContent.contentBuilder();
+        searchHit.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        assertThat(Strings.toString(builder), containsString("\"highlight_truncated\":[\"body\"]"));
+
+        SearchHit parsed;
+        try (XContentParser parser = createParser(JsonXContent.jsonXContent, BytesReference.bytes(builder))) {
+            parser.nextToken(); // jump to first START_OBJECT
+            parsed = SearchHit.fromXContent(parser);
+        }
+        assertEquals(highlightFields, parsed.getHighlightFields());
+        assertTrue(parsed.getHighlightFields().get("body").isTruncated());
+        assertFalse(parsed.getHighlightFields().get("title").isTruncated());
+    }
+
     public void testSerializeShardTarget() throws Exception {
         String clusterAlias = randomBoolean() ? null : "cluster_alias";
         SearchShardTarget target = new SearchShardTarget("_node_id", new ShardId(new Index("_index", "_na_"), 0),
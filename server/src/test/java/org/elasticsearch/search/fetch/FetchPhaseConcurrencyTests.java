@@ -0,0 +1,199 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch;
+
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.search.SearchPhaseExecutionException;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class FetchPhaseConcurrencyTests extends ESSingleNodeTestCase {
+
+    public void testParallelFetchReturnsTheSameHits() throws Exception {
+        createIndex("test", Settings.builder().put("index.number_of_shards", 1).build());
+        int numDocs = randomIntBetween(FetchPhase.MIN_HITS_PER_FETCH_CHUNK * 2, FetchPhase.MIN_HITS_PER_FETCH_CHUNK * 8);
+        int numBatches = randomIntBetween(1, 4);
+        for (int batch = 0; batch < numBatches; batch++) {
+            // several refreshes give several segments to split the hits by
+            BulkRequestBuilder bulk = client().prepareBulk().setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+            for (int i = batch; i < numDocs; i += numBatches) {
+                bulk.add(client().prepareIndex("test", "_doc", Integer.toString(i))
+                    .setSource("number", i, "text", "value " + i, "object", Collections.singletonMap("keyword", "k" + i)));
+            }
+            assertFalse(bulk.get().hasFailures());
+        }
+
+        SearchResponse serial = search(numDocs);
+        client().admin().indices().prepareUpdateSettings("test")
+            .setSettings(Settings.builder().put(IndexSettings.MAX_FETCH_CONCURRENCY_SETTING.getKey(), randomIntBetween(2, 8)))
+            .get();
+        SearchResponse parallel = search(numDocs);
+
+        assertHitCount(parallel, numDocs);
+        assertThat(parallel.getHits().getHits().length, equalTo(numDocs));
+        for (int i = 0; i < numDocs; i++) {
+            SearchHit expected = serial.getHits().getAt(i);
+            SearchHit actual = parallel.getHits().getAt(i);
+            assertThat(actual.getId(), equalTo(Integer.toString(i)));
+            assertThat(actual.getId(), equalTo(expected.getId()));
+            assertThat(actual.getSourceAsMap(), equalTo(expected.getSourceAsMap()));
+            assertThat(actual.getVersion(), equalTo(expected.getVersion()));
+        }
+    }
+
+    public void testHitsAreAccountedOnTheRequestBreaker() throws Exception {
+        createIndex("test", Settings.builder().put("index.number_of_shards", 1).build());
+        int numDocs = randomIntBetween(FetchPhase.MIN_HITS_PER_FETCH_CHUNK * 2, FetchPhase.MIN_HITS_PER_FETCH_CHUNK * 4);
+        BulkRequestBuilder bulk = client().prepareBulk().setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+        for (int i = 0; i < numDocs; i++) {
+            bulk.add(client().prepareIndex("test", "_doc", Integer.toString(i))
+                .setSource("number", i, "text", randomAlphaOfLength(1024)));
+        }
+        assertFalse(bulk.get().hasFailures());
+        if (randomBoolean()) {
+            client().admin().indices().prepareUpdateSettings("test")
+                .setSettings(Settings.builder().put(IndexSettings.MAX_FETCH_CONCURRENCY_SETTING.getKey(), randomIntBetween(2, 8)))
+                .get();
+        }
+        CircuitBreaker breaker = getInstanceFromNode(CircuitBreakerService.class).getBreaker(CircuitBreaker.REQUEST);
+
+        assertThat(client().prepareSearch("test").setSize(numDocs).get().getHits().getHits().length, equalTo(numDocs));
+        assertBusy(() -> assertThat(breaker.getUsed(), equalTo(0L)));
+
+        // the sources of all hits take more than 128kb
+        client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+            .put(HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), "64kb")).get();
+        try {
+            ShardSearchFailure[] failures;
+            try {
+                failures = client().prepareSearch("test").setSize(numDocs).get().getShardFailures();
+            } catch (SearchPhaseExecutionException e) {
+                failures = e.shardFailures();
+            }
+            assertThat(failures.length, equalTo(1));
+            assertThat(failures[0].status(), equalTo(RestStatus.TOO_MANY_REQUESTS));
+            assertThat(failures[0].reason(), containsString("<fetch>"));
+            assertThat(breaker.getTrippedCount(), greaterThan(0L));
+            assertBusy(() -> assertThat(breaker.getUsed(), equalTo(0L)));
+        } finally {
+            client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+                .putNull(HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING.getKey())).get();
+        }
+    }
+
+    public void testChunksRunInParallel() throws Exception {
+        int concurrency = randomIntBetween(2, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency - 1);
+        try {
+            // every chunk waits for the others, which only works if they all run at the same time
+            CyclicBarrier barrier = new CyclicBarrier(concurrency);
+            Set<Thread> threads = ConcurrentCollections.newConcurrentSet();
+            FetchPhase.runChunks(executor, concurrency, concurrency, chunk -> {
+                threads.add(Thread.currentThread());
+                try {
+                    barrier.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            assertThat(threads.size(), equalTo(concurrency));
+            assertTrue(threads.contains(Thread.currentThread()));
+        } finally {
+            terminate(executor);
+        }
+    }
+
+    public void testRejectedChunksRunOnTheCallingThread() throws Exception {
+        int numChunks = randomIntBetween(1, 20);
+        AtomicInteger rejections = new AtomicInteger();
+        Executor rejectingExecutor = command -> {
+            rejections.incrementAndGet();
+            throw new EsRejectedExecutionException("rejected");
+        };
+        Thread testThread = Thread.currentThread();
+        List<Integer> chunks = new ArrayList<>();
+        FetchPhase.runChunks(rejectingExecutor, numChunks, randomIntBetween(2, 8), chunk -> {
+            assertSame(Thread.currentThread(), testThread);
+            chunks.add(chunk);
+        });
+        assertThat(chunks.size(), equalTo(numChunks));
+        for (int i = 0; i < numChunks; i++) {
+            assertThat(chunks.get(i), equalTo(i));
+        }
+        assertThat(rejections.get(), equalTo(numChunks > 1 ? 1 : 0));
+    }
+
+    public void testChunkFailureIsRethrown() throws Exception {
+        int numChunks = randomIntBetween(1, 20);
+        int failingChunk = randomIntBetween(0, numChunks - 1);
+        ExecutorService executor = Executors.newFixedThreadPool(randomIntBetween(1, 4));
+        try {
+            IOException e = expectThrows(IOException.class, () -> FetchPhase.runChunks(executor, numChunks, randomIntBetween(1, 5),
+                chunk -> {
+                    if (chunk == failingChunk) {
+                        throw new IOException("chunk " + chunk);
+                    }
+                }));
+            assertThat(e.getMessage(), equalTo("chunk " + failingChunk));
+        } finally {
+            terminate(executor);
+        }
+    }
+
+    private SearchResponse search(int numDocs) {
+        return client().prepareSearch("test")
+            .setQuery(QueryBuilders.matchAllQuery())
+            .addSort("number", SortOrder.ASC)
+            .setSize(numDocs)
+            .setVersion(true)
+            .setFetchSource(new String[] { "number", "object.*" }, null)
+            .get();
+    }
+}
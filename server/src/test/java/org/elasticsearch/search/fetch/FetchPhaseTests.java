@@ -0,0 +1,162 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch;
+
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.CheckedBiConsumer;
+import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.fetch.FetchPhase.DocIdToIndex;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class FetchPhaseTests extends ESSingleNodeTestCase {
+
+    public void testSequentialStoredFieldsReaderForAdjacentDocs() throws IOException {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(null))) {
+            int numDocs = randomIntBetween(20, 100);
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+                doc.add(new StoredField("text", "value " + i));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                CountingSequentialReader leafReader = new CountingSequentialReader(reader.leaves().get(0).reader());
+                LeafReaderContext context = leafReader.getContext();
+
+                // at least ten adjacent docs are read sequentially, and the hits of other segments are not counted
+                int from = randomIntBetween(0, numDocs - 10);
+                int to = randomIntBetween(from + 10, numDocs);
+                DocIdToIndex[] docs = docs(from, to, numDocs + randomIntBetween(0, 5));
+                assertStoredFields(FetchPhase.storedFieldsReader(context, docs, 0), from, to);
+                assertThat(leafReader.sequentialReaders.get(), equalTo(1));
+
+                // fewer docs, or docs with gaps, use the default reader
+                int fewTo = randomIntBetween(from + 1, from + 9);
+                assertStoredFields(FetchPhase.storedFieldsReader(context, docs(from, fewTo), 0), from, fewTo);
+                DocIdToIndex[] withGap = docs(from, to);
+                withGap[withGap.length - 1] = new DocIdToIndex(numDocs - 1, withGap.length - 1);
+                if (to < numDocs) {
+                    FetchPhase.storedFieldsReader(context, withGap, 0);
+                }
+                assertThat(leafReader.sequentialReaders.get(), equalTo(1));
+            }
+        }
+    }
+
+    public void testHitsAreReturnedInTheOrderOfTheTopDocs() {
+        createIndex("test", Settings.builder().put("index.number_of_shards", 1).build());
+        int numDocs = randomIntBetween(10, 50);
+        BulkRequestBuilder bulk = client().prepareBulk().setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+        for (int i = 0; i < numDocs; i++) {
+            bulk.add(client().prepareIndex("test", "_doc", Integer.toString(i)).setSource("number", i, "text", "value " + i));
+        }
+        assertFalse(bulk.get().hasFailures());
+
+        // descending order is the reverse of the doc id order the fetch phase loads the hits in
+        SearchResponse response = client().prepareSearch("test")
+            .setQuery(QueryBuilders.matchQuery("text", "value"))
+            .addSort("number", SortOrder.DESC)
+            .setSize(numDocs)
+            .highlighter(new HighlightBuilder().field("text"))
+            .get();
+        assertThat(response.getHits().getHits().length, equalTo(numDocs));
+        for (int i = 0; i < numDocs; i++) {
+            SearchHit hit = response.getHits().getAt(i);
+            int number = numDocs - 1 - i;
+            assertThat(hit.getId(), equalTo(Integer.toString(number)));
+            assertThat(hit.getSourceAsMap().get("number"), equalTo(number));
+            assertThat(hit.getHighlightFields().get("text").fragments()[0].string(), equalTo("<em>value</em> " + number));
+        }
+    }
+
+    private static DocIdToIndex[] docs(int from, int to, int... more) {
+        DocIdToIndex[] docs = new DocIdToIndex[to - from + more.length];
+        for (int i = from; i < to; i++) {
+            docs[i - from] = new DocIdToIndex(i, i - from);
+        }
+        for (int i = 0; i < more.length; i++) {
+            docs[to - from + i] = new DocIdToIndex(more[i], to - from + i);
+        }
+        Arrays.sort(docs);
+        return docs;
+    }
+
+    private static void assertStoredFields(CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader,
+                                           int from, int to) throws IOException {
+        for (int docId = from; docId < to; docId++) {
+            DocumentStoredFieldVisitor visitor = new DocumentStoredFieldVisitor();
+            storedFieldsReader.accept(docId, visitor);
+            assertThat(visitor.getDocument().get("id"), equalTo(Integer.toString(docId)));
+            assertThat(visitor.getDocument().get("text"), equalTo("value " + docId));
+        }
+    }
+
+    private static class CountingSequentialReader extends SequentialStoredFieldsLeafReader {
+        private final AtomicInteger sequentialReaders = new AtomicInteger();
+
+        CountingSequentialReader(LeafReader in) {
+            super(in);
+        }
+
+        @Override
+        protected StoredFieldsReader doGetSequentialStoredFieldsReader(StoredFieldsReader reader) {
+            sequentialReaders.incrementAndGet();
+            return reader;
+        }
+
+        @Override
+        public CacheHelper getCoreCacheHelper() {
+            return in.getCoreCacheHelper();
+        }
+
+        @Override
+        public CacheHelper getReaderCacheHelper() {
+            return in.getReaderCacheHelper();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch;
+
+import org.elasticsearch.search.fetch.subphase.ExplainPhase;
+import org.elasticsearch.search.fetch.subphase.FetchVersionPhase;
+import org.elasticsearch.search.profile.ProfileResult;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class FetchProfilerTests extends ESTestCase {
+
+    public void testBreakdown() {
+        FetchSubPhase[] subPhases = new FetchSubPhase[] { new ExplainPhase(), new FetchVersionPhase() };
+        FetchProfiler profiler = new FetchProfiler(subPhases);
+        int numHits = randomIntBetween(1, 10);
+        profiler.nextReader(System.nanoTime());
+        for (int i = 0; i < numHits; i++) {
+            profiler.storedFieldsLoaded(System.nanoTime());
+            for (int subPhase = 0; subPhase < subPhases.length; subPhase++) {
+                profiler.subPhaseExecuted(subPhase, System.nanoTime());
+            }
+        }
+        profiler.subPhaseExecutedOnHits(1, System.nanoTime());
+
+        ProfileResult result = profiler.finish(null);
+        assertThat(result.getQueryName(), equalTo("fetch"));
+        assertThat(result.getTimeBreakdown().get("load_stored_fields_count"), equalTo((long) numHits));
+        assertThat(result.getTimeBreakdown().get("next_reader_count"), equalTo(1L));
+        assertThat(result.getProfiledChildren(), hasSize(2));
+        assertThat(result.getProfiledChildren().get(0).getQueryName(), equalTo("ExplainPhase"));
+        assertThat(result.getProfiledChildren().get(1).getQueryName(), equalTo("FetchVersionPhase"));
+        long processNanos = 0;
+        for (ProfileResult child : result.getProfiledChildren()) {
+            assertThat(child.getTimeBreakdown().get("process_count"), equalTo((long) numHits));
+            // counts are not times
+            assertThat(child.getTime(), equalTo(child.getTimeBreakdown().get("process")));
+            processNanos += child.getTimeBreakdown().get("process");
+        }
+        assertThat(result.getTimeBreakdown().get("process"), equalTo(processNanos));
+        assertThat(result.getTime(), equalTo(result.getTimeBreakdown().get("load_stored_fields")
+            + result.getTimeBreakdown().get("next_reader") + processNanos));
+    }
+}
@@ -23,6 +23,8 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.fetch.FetchSubPhase;
@@ -33,6 +35,7 @@ import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.TestSearchContext;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 
@@ -79,6 +82,55 @@ public class FetchSourcePhaseTests extends ESTestCase {
         assertEquals(Collections.singletonMap("field","value"), hitContext.hit().getSourceAsMap());
     }
 
+    public void testCanFilterBytes() {
+        assertFalse(new FetchSourceContext(true, null, null).canFilterBytes());
+        assertTrue(new FetchSourceContext(true, new String[] { "field", "obj.field" }, null).canFilterBytes());
+        assertTrue(new FetchSourceContext(true, new String[] { "field*", "obj.*", "*" }, null).canFilterBytes());
+        assertFalse(new FetchSourceContext(true, new String[] { "field" }, new String[] { "field.inner" }).canFilterBytes());
+        assertFalse(new FetchSourceContext(true, null, new String[] { "field" }).canFilterBytes());
+        assertFalse(new FetchSourceContext(true, new String[] { "*.field" }, null).canFilterBytes());
+        assertFalse(new FetchSourceContext(true, new String[] { "**" }, null).canFilterBytes());
+        assertFalse(new FetchSourceContext(true, new String[] { "obj\\.field" }, null).canFilterBytes());
+    }
+
+    /**
+     * Checks that streaming the filtered source gives the same result as filtering the source map.
+     */
+    public void testFilterBytesMatchesFilterMap() throws IOException {
+        XContentBuilder source = XContentFactory.contentBuilder(randomFrom(XContentType.values())).startObject()
+            .field("field1", "value1")
+            .field("field2", 2)
+            .field("obj.field1", "dotted")
+            .startObject("obj")
+                .field("field1", "inner1")
+                .field("field2", "inner2")
+                .startObject("inner.obj")
+                    .field("field1", "deep")
+                .endObject()
+            .endObject()
+            .startArray("array")
+                .startObject().field("field1", 1).endObject()
+                .startObject().field("field2", 2).endObject()
+                .value("scalar")
+            .endArray()
+            .startArray("values").value(1).value(2).endArray()
+            .startObject("empty").endObject()
+            .field("nothing", (String) null)
+            .endObject();
+        final BytesReference bytes = BytesReference.bytes(source);
+        final Map<String, Object> sourceAsMap = XContentHelper.convertToMap(bytes, false, source.contentType()).v2();
+        final String[] patterns = new String[] { "field1", "field*", "obj", "obj.field1", "obj.inner", "obj.inner.obj.field1",
+            "obj.inner.*", "obj.*", "array", "array.field1", "values", "values.field1", "empty", "nothing", "missing", "*" };
+        for (int i = 0; i < 100; i++) {
+            final String[] includes = randomSubsetOf(between(1, 3), patterns).toArray(new String[0]);
+            final FetchSourceContext context = new FetchSourceContext(true, includes, null);
+            assertTrue(context.canFilterBytes());
+            final Map<String, Object> expected = context.getFilter().apply(sourceAsMap);
+            final Map<String, Object> actual = XContentHelper.convertToMap(context.filterBytes(bytes), false, source.contentType()).v2();
+            assertEquals(Arrays.toString(includes), expected, actual);
+        }
+    }
+
     public void testNestedSource() throws IOException {
         Map<String, Object> expectedNested = Collections.singletonMap("nested2", Collections.singletonMap("field", "value0"));
         XContentBuilder source = XContentFactory.jsonBuilder().startObject()
@@ -0,0 +1,122 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch.subphase.highlight;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class HighlightAnalysisCacheTests extends ESTestCase {
+
+    public void testReplaysRecordedTokens() throws IOException {
+        HighlightAnalysisCache cache = new HighlightAnalysisCache(TimeValue.MINUS_ONE, true);
+        cache.setHit(null, 0);
+        try (Analyzer analyzer = new StandardAnalyzer()) {
+            Analyzer wrapped = cache.wrap(analyzer);
+            assertSame(wrapped, cache.wrap(analyzer));
+            String text = "The quick brown fox jumps over the lazy dog. " + randomAlphaOfLength(10);
+
+            List<String> expected = analyze(analyzer, "field", text);
+            assertThat(analyze(wrapped, "field", text), equalTo(expected));
+            assertThat(cache.cacheHits(), equalTo(0L));
+            assertThat(analyze(wrapped, "field", text), equalTo(expected));
+            assertThat(cache.cacheHits(), equalTo(1L));
+
+            // other texts and fields are analyzed again
+            assertThat(analyze(wrapped, "field", "other text"), equalTo(analyze(analyzer, "field", "other text")));
+            assertThat(analyze(wrapped, "other_field", text), equalTo(expected));
+            assertThat(cache.cacheHits(), equalTo(1L));
+            assertThat(cache.budgetExceeded(), equalTo(0L));
+
+            // the wrapper is reused for the next hit, whose texts are analyzed again
+            cache.setHit(null, 1);
+            assertSame(wrapped, cache.wrap(analyzer));
+            assertThat(analyze(wrapped, "field", text), equalTo(expected));
+            assertThat(cache.cacheHits(), equalTo(1L));
+            cache.close();
+        }
+    }
+
+    public void testDoesNotWrapIfThereIsNothingToRecordNorToBound() throws IOException {
+        HighlightAnalysisCache cache = new HighlightAnalysisCache(TimeValue.MINUS_ONE, false);
+        cache.setHit(null, 0);
+        try (Analyzer analyzer = new StandardAnalyzer()) {
+            assertSame(analyzer, cache.wrap(analyzer));
+        }
+
+        cache = new HighlightAnalysisCache(TimeValue.timeValueHours(1), false);
+        cache.setHit(null, 0);
+        try (Analyzer analyzer = new StandardAnalyzer()) {
+            Analyzer wrapped = cache.wrap(analyzer);
+            assertNotSame(analyzer, wrapped);
+            String text = "some text to analyze";
+            assertThat(analyze(wrapped, "field", text), equalTo(analyze(analyzer, "field", text)));
+            assertThat(analyze(wrapped, "field", text), equalTo(analyze(analyzer, "field", text)));
+            // analysis that isn't recorded isn't replayed
+            assertThat(cache.cacheHits(), equalTo(0L));
+            cache.close();
+        }
+    }
+
+    public void testStopsAnalysisOnceTheBudgetIsSpent() throws IOException {
+        HighlightAnalysisCache cache = new HighlightAnalysisCache(TimeValue.ZERO, true);
+        cache.setHit(null, 0);
+        try (Analyzer analyzer = new StandardAnalyzer()) {
+            Analyzer wrapped = cache.wrap(analyzer);
+            // only the end of the stream is left
+            assertThat(analyze(wrapped, "field", "some text to analyze"), hasSize(1));
+            assertThat(cache.budgetExceeded(), equalTo(1L));
+            // the truncated analysis isn't recorded, so it is attempted again
+            assertThat(analyze(wrapped, "field", "some text to analyze"), hasSize(1));
+            assertThat(cache.cacheHits(), equalTo(0L));
+            assertThat(cache.budgetExceeded(), equalTo(2L));
+            cache.close();
+        }
+    }
+
+    private static List<String> analyze(Analyzer analyzer, String field, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+            OffsetAttribute offsetAtt = stream.addAttribute(OffsetAttribute.class);
+            PositionIncrementAttribute posIncAtt = stream.addAttribute(PositionIncrementAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(termAtt + "[" + offsetAtt.startOffset() + "-" + offsetAtt.endOffset() + "]+"
+                    + posIncAtt.getPositionIncrement());
+            }
+            stream.end();
+            tokens.add("end[" + offsetAtt.endOffset() + "]+" + posIncAtt.getPositionIncrement());
+        }
+        return tokens;
+    }
+}
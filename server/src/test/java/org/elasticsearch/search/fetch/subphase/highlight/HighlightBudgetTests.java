@@ -0,0 +1,52 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch.subphase.highlight;
+
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class HighlightBudgetTests extends ESTestCase {
+
+    public void testUnbounded() {
+        assertFalse(HighlightBudget.UNBOUNDED.isExceeded());
+        assertFalse(new HighlightBudget(() -> false, TimeValue.MINUS_ONE).isExceeded());
+    }
+
+    public void testExceededOnceCancelled() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        HighlightBudget budget = new HighlightBudget(cancelled::get, randomBoolean() ? TimeValue.MINUS_ONE : TimeValue.timeValueHours(1));
+        assertFalse(budget.isExceeded());
+        cancelled.set(true);
+        assertTrue(budget.isExceeded());
+        // the rest of the request isn't highlighted either
+        cancelled.set(false);
+        assertTrue(budget.isExceeded());
+    }
+
+    public void testExceededOnceTheDeadlineIsReached() throws Exception {
+        assertFalse(new HighlightBudget(() -> false, TimeValue.timeValueHours(1)).isExceeded());
+
+        HighlightBudget budget = new HighlightBudget(() -> false, TimeValue.timeValueMillis(randomIntBetween(0, 10)));
+        assertBusy(() -> assertTrue(budget.isExceeded()));
+        assertTrue(budget.isExceeded());
+    }
+}
@@ -111,6 +111,9 @@ public class HighlightFieldTests extends ESTestCase {
 
     public void testSerialization() throws IOException {
         HighlightField testField = createTestItem();
+        if (randomBoolean()) {
+            testField = new HighlightField(testField.getName(), testField.getFragments(), true);
+        }
         try (BytesStreamOutput output = new BytesStreamOutput()) {
             testField.writeTo(output);
             try (StreamInput in = output.bytes().streamInput()) {
@@ -124,8 +127,11 @@ public class HighlightFieldTests extends ESTestCase {
 
     private static HighlightField mutate(HighlightField original) {
         Text[] fragments = original.getFragments();
-        if (randomBoolean()) {
-            return new HighlightField(original.getName()+"_suffix", fragments);
+        int mutation = randomIntBetween(0, 2);
+        if (mutation == 0) {
+            return new HighlightField(original.getName()+"_suffix", fragments, original.isTruncated());
+        } else if (mutation == 1) {
+            return new HighlightField(original.getName(), fragments, original.isTruncated() == false);
         } else {
             if (fragments == null) {
                 fragments = new Text[]{new Text("field")};
@@ -133,12 +139,12 @@ public class HighlightFieldTests extends ESTestCase {
                 fragments = Arrays.copyOf(fragments, fragments.length + 1);
                 fragments[fragments.length - 1] = new Text("something new");
             }
-            return new HighlightField(original.getName(), fragments);
+            return new HighlightField(original.getName(), fragments, original.isTruncated());
         }
     }
 
     private static HighlightField copy(HighlightField original) {
-        return new HighlightField(original.getName(), original.getFragments());
+        return new HighlightField(original.getName(), original.getFragments(), original.isTruncated());
     }
 
 }
@@ -0,0 +1,94 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch.subphase.highlight;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.equalTo;
+
+public class HighlightPhaseTests extends ESSingleNodeTestCase {
+
+    public void testFieldsAreTruncatedOnceTheBudgetIsExceeded() throws IOException {
+        IndexService indexService = createIndex("test", Settings.EMPTY, "_doc", "title", "type=text", "body", "type=text");
+        QueryShardContext context = indexService.newQueryShardContext(0, null, () -> 0L, null);
+        SearchContextHighlight highlight = new HighlightBuilder().field("title").field("body").build(context);
+        highlight.profiled(true);
+
+        AtomicInteger highlighted = new AtomicInteger();
+        HighlightPhase phase = new HighlightPhase(Collections.singletonMap("unified", new Highlighter() {
+            @Override
+            public HighlightField highlight(HighlighterContext highlighterContext) {
+                highlighted.incrementAndGet();
+                return new HighlightField(highlighterContext.fieldName, new Text[] { new Text("<em>fragment</em>") });
+            }
+
+            @Override
+            public boolean canHighlight(MappedFieldType fieldType) {
+                return true;
+            }
+        }));
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        HighlightBudget budget = new HighlightBudget(cancelled::get, TimeValue.MINUS_ONE);
+        FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
+        hitContext.reset(new SearchHit(0, "1", new Text("_doc"), Collections.emptyMap()), null, 0, null);
+        phase.hitExecute(null, context, new MatchAllDocsQuery(), highlight, budget, hitContext);
+        assertThat(highlighted.get(), equalTo(2));
+        for (HighlightField field : hitContext.hit().getHighlightFields().values()) {
+            assertThat(field.fragments(), arrayWithSize(1));
+            assertFalse(field.isTruncated());
+        }
+
+        // once the budget is exceeded, the fields are returned without fragments and the highlighter isn't called anymore
+        cancelled.set(true);
+        hitContext.reset(new SearchHit(1, "2", new Text("_doc"), Collections.emptyMap()), null, 1, null);
+        phase.hitExecute(null, context, new MatchAllDocsQuery(), highlight, budget, hitContext);
+        assertThat(highlighted.get(), equalTo(2));
+        Map<String, HighlightField> fields = hitContext.hit().getHighlightFields();
+        assertThat(fields.keySet(), equalTo(new HashSet<>(Arrays.asList("title", "body"))));
+        for (HighlightField field : fields.values()) {
+            assertThat(field.fragments(), arrayWithSize(0));
+            assertTrue(field.isTruncated());
+        }
+
+        Map<String, Long> breakdown = new HashMap<>();
+        highlight.profile(breakdown);
+        assertThat(breakdown.get("truncated_count"), equalTo(2L));
+    }
+}
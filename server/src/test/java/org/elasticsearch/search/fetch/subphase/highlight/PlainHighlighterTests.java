@@ -19,12 +19,26 @@
 
 package org.elasticsearch.search.fetch.subphase.highlight;
 
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.highlight.DefaultEncoder;
+import org.apache.lucene.search.highlight.NullFragmenter;
 import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.TextFragment;
 import org.apache.lucene.util.LuceneTestCase;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class PlainHighlighterTests extends LuceneTestCase {
 
@@ -38,4 +52,82 @@ public class PlainHighlighterTests extends LuceneTestCase {
         String[] frags = highlighter.getBestFragments(new MockAnalyzer(random()), "field", "bar foo bar foo", 10);
         assertArrayEquals(new String[] {"bar <B>foo</B> <B>bar</B> foo"}, frags);
     }
+
+    public void testHighlightTextWithinBudget() throws Exception {
+        org.apache.lucene.search.highlight.Highlighter highlighter = fooHighlighter();
+        highlighter.setTextFragmenter(new NullFragmenter());
+        String text = repeat("foo bar ", 100);
+        List<TextFragment> fragments = new ArrayList<>();
+        Map<TextFragment, String> truncatedFragments = new IdentityHashMap<>();
+        try (Analyzer analyzer = new StandardAnalyzer();
+             TokenStream tokenStream = analyzer.tokenStream("field", text)) {
+            assertFalse(PlainHighlighter.highlightText(highlighter, new DefaultEncoder(), tokenStream, text, 1,
+                HighlightBudget.UNBOUNDED, fragments, truncatedFragments));
+        }
+        assertEquals(1, fragments.size());
+        assertTrue(truncatedFragments.isEmpty());
+        // the whole text is highlighted, including what follows its last token
+        assertEquals(repeat("<B>foo</B> bar ", 100), PlainHighlighter.fragmentText(fragments.get(0), truncatedFragments));
+    }
+
+    public void testHighlightTextStopsOnceTheBudgetIsExceeded() throws Exception {
+        org.apache.lucene.search.highlight.Highlighter highlighter = fooHighlighter();
+        highlighter.setTextFragmenter(new NullFragmenter());
+        String text = repeat("foo bar ", 100);
+        List<TextFragment> fragments = new ArrayList<>();
+        Map<TextFragment, String> truncatedFragments = new IdentityHashMap<>();
+        try (Analyzer analyzer = new StandardAnalyzer();
+             TokenStream tokenStream = analyzer.tokenStream("field", text)) {
+            assertTrue(PlainHighlighter.highlightText(highlighter, new DefaultEncoder(), tokenStream, text, 1,
+                new HighlightBudget(() -> true, TimeValue.MINUS_ONE), fragments, truncatedFragments));
+        }
+        assertEquals(1, fragments.size());
+        // the budget is checked every 64 tokens, so 63 tokens were highlighted and the text that follows them is dropped
+        assertEquals(repeat("<B>foo</B> bar ", 31) + "<B>foo</B>", PlainHighlighter.fragmentText(fragments.get(0), truncatedFragments));
+        assertTrue(fragments.get(0).toString().endsWith("<B>foo</B> bar "));
+    }
+
+    public void testOnlyTheLastFragmentOfATruncatedTextIsTrimmed() throws Exception {
+        org.apache.lucene.search.highlight.Highlighter highlighter = fooHighlighter();
+        highlighter.setTextFragmenter(new SimpleFragmenter(randomIntBetween(10, 30)));
+        // the rest of the text that isn't analyzed is " bar", which other fragments may end with too
+        String text = repeat("foo bar ", 32).trim();
+        List<TextFragment> fragments = new ArrayList<>();
+        Map<TextFragment, String> truncatedFragments = new IdentityHashMap<>();
+        try (Analyzer analyzer = new StandardAnalyzer();
+             TokenStream tokenStream = analyzer.tokenStream("field", text)) {
+            assertTrue(PlainHighlighter.highlightText(highlighter, new DefaultEncoder(), tokenStream, text, 100,
+                new HighlightBudget(() -> true, TimeValue.MINUS_ONE), fragments, truncatedFragments));
+        }
+        assertTrue(fragments.size() > 1);
+        TextFragment last = fragments.get(0);
+        for (TextFragment fragment : fragments) {
+            if (fragment.getFragNum() > last.getFragNum()) {
+                last = fragment;
+            }
+        }
+        assertEquals(1, truncatedFragments.size());
+        assertTrue(last.toString().endsWith("<B>foo</B> bar"));
+        assertTrue(PlainHighlighter.fragmentText(last, truncatedFragments).endsWith("<B>foo</B>"));
+        for (TextFragment fragment : fragments) {
+            if (fragment != last) {
+                assertEquals(fragment.toString(), PlainHighlighter.fragmentText(fragment, truncatedFragments));
+            }
+        }
+    }
+
+    private static org.apache.lucene.search.highlight.Highlighter fooHighlighter() {
+        org.apache.lucene.search.highlight.Highlighter highlighter =
+            new org.apache.lucene.search.highlight.Highlighter(new CustomQueryScorer(new TermQuery(new Term("field", "foo"))));
+        highlighter.setMaxDocCharsToAnalyze(Integer.MAX_VALUE);
+        return highlighter;
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
 }
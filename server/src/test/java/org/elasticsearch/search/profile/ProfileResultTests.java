@@ -61,6 +61,10 @@ public class ProfileResultTests extends ESTestCase {
         for (int i = 0; i < childrenSize; i++) {
             children.add(createTestItem(depth - 1));
         }
+        if (randomBoolean()) {
+            // results whose breakdown contains more than timings carry their time explicitly
+            return new ProfileResult(type, description, timings, randomNonNegativeLong(), children);
+        }
         return new ProfileResult(type, description, timings, children);
     }
 
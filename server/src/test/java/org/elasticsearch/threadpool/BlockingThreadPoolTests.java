@@ -0,0 +1,149 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.threadpool;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsBlockingTaskExecutor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.Matchers.equalTo;
+
+public class BlockingThreadPoolTests extends ESThreadPoolTestCase {
+
+    public void testBlockingThreadPoolConfiguration() throws InterruptedException {
+        final String threadPoolName = randomThreadPool(ThreadPool.ThreadPoolType.BLOCKING);
+        final int availableProcessors = randomIntBetween(1, 64);
+        final Settings.Builder builder = Settings.builder().put("node.processors", availableProcessors);
+        final int expectedMaxConcurrency;
+        final boolean deprecatedMax = randomBoolean();
+        if (deprecatedMax) {
+            // the max of the scaling pool this pool used to be is the default of max_concurrency
+            expectedMaxConcurrency = randomIntBetween(1, 16);
+            builder.put("thread_pool." + threadPoolName + ".max", expectedMaxConcurrency);
+        } else if (randomBoolean()) {
+            expectedMaxConcurrency = randomIntBetween(1, 256);
+            builder.put("thread_pool." + threadPoolName + ".max_concurrency", expectedMaxConcurrency);
+        } else {
+            expectedMaxConcurrency = ThreadPool.boundedBy(4 * availableProcessors, 16, 128);
+        }
+
+        runBlockingThreadPoolTest(builder.build(), threadPool -> {
+            final Executor executor = threadPool.executor(threadPoolName);
+            assertThat(executor, instanceOf(EsBlockingTaskExecutor.class));
+            assertThat(((EsBlockingTaskExecutor) executor).getMaxConcurrency(), equalTo(expectedMaxConcurrency));
+
+            final ThreadPool.Info info = info(threadPool, threadPoolName);
+            assertThat(info.getName(), equalTo(threadPoolName));
+            assertThat(info.getThreadPoolType(), equalTo(ThreadPool.ThreadPoolType.BLOCKING));
+            assertThat(info.getMin(), equalTo(expectedMaxConcurrency));
+            assertThat(info.getMax(), equalTo(expectedMaxConcurrency));
+            assertNull(info.getKeepAlive());
+            assertNull(info.getQueueSize());
+        });
+
+        final int actualProcessors = Runtime.getRuntime().availableProcessors();
+        final String processorsWarning = "setting [node.processors] to value [" + availableProcessors
+            + "] which is more than available processors [" + actualProcessors + "] is deprecated";
+        if (deprecatedMax && availableProcessors > actualProcessors) {
+            assertSettingDeprecationsAndWarnings(new String[] { "thread_pool." + threadPoolName + ".max" }, processorsWarning);
+        } else if (deprecatedMax) {
+            assertSettingDeprecationsAndWarnings(new String[] { "thread_pool." + threadPoolName + ".max" });
+        } else if (availableProcessors > actualProcessors) {
+            assertWarnings(processorsWarning);
+        }
+    }
+
+    public void testBlockingThreadPoolStats() throws InterruptedException {
+        final String threadPoolName = randomThreadPool(ThreadPool.ThreadPoolType.BLOCKING);
+        final int maxConcurrency = randomIntBetween(1, 8);
+        final Settings settings = Settings.builder().put("thread_pool." + threadPoolName + ".max_concurrency", maxConcurrency).build();
+        runBlockingThreadPoolTest(settings, threadPool -> {
+            final int numberOfTasks = maxConcurrency + randomIntBetween(1, 16);
+            final ThreadContext threadContext = threadPool.getThreadContext();
+            final CountDownLatch started = new CountDownLatch(maxConcurrency);
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(numberOfTasks);
+            final AtomicInteger tasksWithHeader = new AtomicInteger();
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.putHeader("test", "value");
+                for (int i = 0; i < numberOfTasks; i++) {
+                    threadPool.executor(threadPoolName).execute(() -> {
+                        if ("value".equals(threadContext.getHeader("test"))) {
+                            tasksWithHeader.incrementAndGet();
+                        }
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            throw new AssertionError(e);
+                        }
+                        done.countDown();
+                    });
+                }
+            }
+            try {
+                started.await();
+                final ThreadPoolStats.Stats stats = stats(threadPool, threadPoolName);
+                assertThat(stats.getThreads(), equalTo(maxConcurrency));
+                assertThat(stats.getActive(), equalTo(maxConcurrency));
+                assertThat(stats.getQueue(), equalTo(numberOfTasks - maxConcurrency));
+                assertThat(stats.getLargest(), equalTo(maxConcurrency));
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            } finally {
+                release.countDown();
+            }
+            try {
+                done.await();
+                assertBusy(() -> {
+                    final ThreadPoolStats.Stats stats = stats(threadPool, threadPoolName);
+                    assertThat(stats.getThreads(), equalTo(0));
+                    assertThat(stats.getActive(), equalTo(0));
+                    assertThat(stats.getQueue(), equalTo(0));
+                    assertThat(stats.getCompleted(), equalTo((long) numberOfTasks));
+                    assertThat(stats.getRejected(), equalTo(0L));
+                    assertThat(stats.getQueueWait().getCount(), equalTo((long) numberOfTasks));
+                    assertThat(stats.getExecution().getCount(), equalTo((long) numberOfTasks));
+                });
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+            assertThat(tasksWithHeader.get(), equalTo(numberOfTasks));
+        });
+    }
+
+    private void runBlockingThreadPoolTest(final Settings settings, final Consumer<ThreadPool> consumer) throws InterruptedException {
+        ThreadPool threadPool = null;
+        try {
+            final String test = Thread.currentThread().getStackTrace()[2].getMethodName();
+            final Settings nodeSettings = Settings.builder().put(settings).put("node.name", test).build();
+            threadPool = new ThreadPool(nodeSettings);
+            consumer.accept(threadPool);
+        } finally {
+            terminateThreadPoolIfNeeded(threadPool);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
 import org.junit.Before;
 
 import java.io.IOException;
@@ -118,4 +119,30 @@ public class ThreadPoolSerializationTests extends ESTestCase {
 
         assertThat(newInfo.getThreadPoolType(), is(threadPoolType));
     }
+
+    public void testThatBlockingThreadPoolTypeIsSerialized() throws IOException {
+        ThreadPool.Info info = new ThreadPool.Info("foo", ThreadPool.ThreadPoolType.BLOCKING, 16);
+        output.setVersion(Version.CURRENT);
+        info.writeTo(output);
+
+        StreamInput input = output.bytes().streamInput();
+        input.setVersion(Version.CURRENT);
+        ThreadPool.Info newInfo = new ThreadPool.Info(input);
+
+        assertThat(newInfo.getThreadPoolType(), is(ThreadPool.ThreadPoolType.BLOCKING));
+        assertThat(newInfo.getMin(), is(16));
+        assertThat(newInfo.getMax(), is(16));
+    }
+
+    public void testThatBlockingThreadPoolTypeIsSerializedAsScalingToOlderNodes() throws IOException {
+        ThreadPool.Info info = new ThreadPool.Info("foo", ThreadPool.ThreadPoolType.BLOCKING, 16);
+        output.setVersion(VersionUtils.getPreviousVersion(Version.V_7_7_1));
+        info.writeTo(output);
+
+        StreamInput input = output.bytes().streamInput();
+        ThreadPool.Info newInfo = new ThreadPool.Info(input);
+
+        assertThat(newInfo.getThreadPoolType(), is(ThreadPool.ThreadPoolType.SCALING));
+        assertThat(newInfo.getMax(), is(16));
+    }
 }
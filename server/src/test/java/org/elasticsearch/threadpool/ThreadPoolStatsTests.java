@@ -20,6 +20,7 @@
 package org.elasticsearch.threadpool;
 
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentParser;
@@ -29,11 +30,14 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
 
 public class ThreadPoolStatsTests extends ESTestCase {
     public void testThreadPoolStatsSort() throws IOException {
@@ -114,4 +118,39 @@ public class ThreadPoolStatsTests extends ESTestCase {
             }
         }
     }
+
+    public void testLatencyStatsSerialization() throws IOException {
+        final ThreadPoolStats.Stats stats = new ThreadPoolStats.Stats(ThreadPool.Names.SEARCH, 3, 1, 2, 0, 3, 42L,
+            Collections.singletonList(new ThreadPoolStats.LaneStats("interactive", 8, 1, 40, 1000L)),
+            new ThreadPoolStats.LatencyStats(42, 10, 20, 30, 40),
+            new ThreadPoolStats.LatencyStats(42, 100, 200, 300, 400),
+            Arrays.asList(new ThreadPoolStats.ActionStats("indices:data/read/search[phase/fetch/id]", 2, 5L, 50L),
+                new ThreadPoolStats.ActionStats("indices:data/read/search[phase/query]", 40, 1000L, 10000L)));
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            stats.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                final ThreadPoolStats.Stats read = new ThreadPoolStats.Stats(in);
+                assertThat(read.getCompleted(), equalTo(42L));
+                assertThat(read.getLanes(), hasSize(1));
+                assertThat(read.getQueueWait().getCount(), equalTo(42L));
+                assertThat(read.getQueueWait().getP99().nanos(), equalTo(30L));
+                assertThat(read.getExecution().getMax().nanos(), equalTo(400L));
+                assertThat(read.getActions(), hasSize(2));
+                assertThat(read.getActions().get(1).getAction(), equalTo("indices:data/read/search[phase/query]"));
+                assertThat(read.getActions().get(1).getCount(), equalTo(40L));
+                assertThat(read.getActions().get(1).getQueueWaitTime().nanos(), equalTo(1000L));
+                assertThat(read.getActions().get(1).getExecutionTime().nanos(), equalTo(10000L));
+            }
+        }
+        final ThreadPoolStats.Stats noLatency = new ThreadPoolStats.Stats(ThreadPool.Names.SAME, -1, 0, 0, 0, 0, 0L);
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            noLatency.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                final ThreadPoolStats.Stats read = new ThreadPoolStats.Stats(in);
+                assertThat(read.getQueueWait(), nullValue());
+                assertThat(read.getExecution(), nullValue());
+                assertThat(read.getActions(), hasSize(0));
+            }
+        }
+    }
 }
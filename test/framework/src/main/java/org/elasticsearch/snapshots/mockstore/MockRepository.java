@@ -42,6 +42,7 @@ import org.elasticsearch.plugins.RepositoryPlugin;
 import org.elasticsearch.repositories.Repository;
 import org.elasticsearch.repositories.fs.FsRepository;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
@@ -88,6 +89,24 @@ public class MockRepository extends FsRepository {
         return failureCounter.get();
     }
 
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    private final AtomicLong rangeReads = new AtomicLong();
+
+    /**
+     * Total number of bytes that were read from the blobs of this repository, to measure how much data operations fetch.
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Number of reads of a range of a blob, see {@link BlobContainer#readBlob(String, long, long)}.
+     */
+    public long getRangeReadCount() {
+        return rangeReads.get();
+    }
+
     private final double randomControlIOExceptionRate;
 
     private final double randomDataFileIOExceptionRate;
@@ -309,7 +328,14 @@ public class MockRepository extends FsRepository {
             @Override
             public InputStream readBlob(String name) throws IOException {
                 maybeIOExceptionOrBlock(name);
-                return super.readBlob(name);
+                return new CountingInputStream(super.readBlob(name));
+            }
+
+            @Override
+            public InputStream readBlob(String name, long position, long length) throws IOException {
+                maybeIOExceptionOrBlock(name);
+                rangeReads.incrementAndGet();
+                return new CountingInputStream(super.readBlob(name, position, length));
             }
 
             @Override
@@ -387,4 +413,32 @@ public class MockRepository extends FsRepository {
             }
         }
     }
+
+    /**
+     * Counts the bytes that are read from a blob into {@link #bytesRead}.
+     */
+    private class CountingInputStream extends FilterInputStream {
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int result = super.read();
+            if (result != -1) {
+                bytesRead.incrementAndGet();
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                bytesRead.addAndGet(read);
+            }
+            return read;
+        }
+    }
 }
@@ -27,6 +27,7 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.index.engine.DocumentMissingException;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.search.SearchLane;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.tasks.CancellableTask;
@@ -149,6 +150,10 @@ public class TransportSubmitAsyncSearchAction extends HandledTransportAction<Sub
             }
         };
         searchRequest.setParentTask(new TaskId(nodeClient.getLocalNodeId(), submitTask.getId()));
+        if (searchRequest.lane() == null) {
+            // async searches must not delay the interactive searches that share the search thread pool
+            searchRequest.lane(SearchLane.ASYNC);
+        }
         return searchRequest;
     }
 